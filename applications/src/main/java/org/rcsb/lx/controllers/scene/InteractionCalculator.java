@@ -56,6 +56,7 @@ import org.rcsb.lx.glscene.jogl.LXGlGeometryViewer;
 import org.rcsb.lx.glscene.jogl.LXSceneNode;
 import org.rcsb.lx.model.InteractionConstants;
 import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.AtomStore;
 import org.rcsb.mbt.model.Bond;
 import org.rcsb.mbt.model.Chain;
 import org.rcsb.mbt.model.Residue;
@@ -65,6 +66,7 @@ import org.rcsb.mbt.model.StructureMap;
 import org.rcsb.mbt.model.attributes.AtomStyle;
 import org.rcsb.mbt.model.attributes.BondStyle;
 import org.rcsb.mbt.model.geometry.ArrayLinearAlgebra;
+import org.rcsb.mbt.model.util.CellGrid;
 import org.rcsb.mbt.model.util.Element;
 import org.rcsb.mbt.model.util.PeriodicTable;
 import org.rcsb.vf.glscene.jogl.AtomGeometry;
@@ -77,6 +79,10 @@ import org.rcsb.vf.glscene.jogl.GlGeometryViewer;
  */
 public class InteractionCalculator
 {
+	// Radius queries look slightly beyond the upper bound, so that the
+	// exact distance tests below see every candidate.
+	private static final double SEARCH_PADDING = 1.0 + 1.0e-6;
+
 	public Residue[] currentLigandResidues = null;
 	
 	public void calculateInteractions(final Structure structure, boolean hbondflag,
@@ -88,7 +94,6 @@ public class InteractionCalculator
 		final StructureMap structureMap = structure.getStructureMap();
 
 		List<Atom> ligandAtoms = getCurrentLigandAtoms();		
-		final Vector<Atom> proteinAtoms = new Vector<Atom>();
 
 		String interactionType = null;
 		String distString = null;
@@ -99,11 +104,26 @@ public class InteractionCalculator
 		
 		LXGlGeometryViewer glViewer = LigandExplorer.sgetGlGeometryViewer();
 
-		for (Chain chain : structureMap.getChains())
-			if (chain.getClassification() == Residue.Classification.AMINO_ACID ||
-					chain.getClassification() == Residue.Classification.NUCLEIC_ACID)
-				proteinAtoms.addAll(chain.getAtoms());
-		
+		// protein and nucleic acid chains, by chain index
+		final Vector<Chain> chains = structureMap.getChains();
+		final boolean[] polymerChain = new boolean[chains.size()];
+		for (int c = 0; c < polymerChain.length; c++)
+			polymerChain[c] = chains.get(c).getClassification() == Residue.Classification.AMINO_ACID ||
+					chains.get(c).getClassification() == Residue.Classification.NUCLEIC_ACID;
+
+		// only atoms within the largest upper bound can interact
+		double searchRadius = 0.0;
+		if (hbondflag) {
+			searchRadius = Math.max(searchRadius, hbondupper);
+		}
+		if (hydroflag) {
+			searchRadius = Math.max(searchRadius, hydroupper);
+		}
+		searchRadius *= SEARCH_PADDING;
+
+		final AtomStore atomStore = structureMap.getAtomStore();
+		final CellGrid spatialIndex = structureMap.getSpatialIndex();
+
 		final AtomGeometry ag = (AtomGeometry) GlGeometryViewer.defaultGeometry
 				.get(ComponentType.ATOM);
 		final AtomStyle as = (AtomStyle) structure.getStructureMap()
@@ -120,8 +140,13 @@ public class InteractionCalculator
 
 			final Atom atom_i = ligandAtoms.get(i);
 
-				for (int j = 0; j < proteinAtoms.size(); j++) {
-				final Atom atom_j = proteinAtoms.get(j);
+			// nearby atoms, in the same (atom index) order as the chains
+			for (int j : spatialIndex.findWithin(atom_i.coordinate, searchRadius)) {
+				final int chainIndex = atomStore.getChainIndex(j);
+				if (chainIndex < 0 || !polymerChain[chainIndex]) {
+					continue;
+				}
+				final Atom atom_j = atomStore.getAtom(j);
 
 				if (hbondflag) {
 					
@@ -492,15 +517,19 @@ public class InteractionCalculator
 		LXGlGeometryViewer glViewer = LigandExplorer.sgetGlGeometryViewer();
 		StructureMap structureMap = structure.getStructureMap();
 		
-		List<Atom> otherAtoms = getAtoms(structure);
 		List<Atom> currentLigandAtoms = getCurrentLigandAtoms();
-		otherAtoms.removeAll(currentLigandAtoms);
+		HashSet<Atom> ligandAtomSet = new HashSet<Atom>(currentLigandAtoms);
 		HashSet<Residue> uniqRes = new HashSet<Residue>();
 		
 		final LXSceneNode node = (LXSceneNode)structure.getStructureMap().getUData();
+		final CellGrid spatialIndex = structureMap.getSpatialIndex();
 		
 		for (Atom ligAtom : currentLigandAtoms) {
-			for (Atom otherAtom: otherAtoms) {
+			for (int j : spatialIndex.findWithin(ligAtom.coordinate, upperBound * SEARCH_PADDING)) {
+					final Atom otherAtom = structureMap.getAtom(j);
+					if (ligandAtomSet.contains(otherAtom)) {
+						continue;
+					}
 					double distance = ArrayLinearAlgebra.distance(ligAtom.coordinate,
 							otherAtom.coordinate);
 				
@@ -812,14 +841,4 @@ public class InteractionCalculator
 		return false;
 		
 	}
-	/**
-	 * Returns a list of atoms in the structure
-	 * @param structure
-	 * @return list of atoms
-	 */
-	private List<Atom> getAtoms(Structure structure) {
-		List<Atom> atoms = new ArrayList<Atom>();
-		atoms.addAll(structure.getStructureMap().getAtoms());
-		return atoms;
-	}
 }
@@ -75,7 +75,7 @@ public class PWSceneController extends SceneController
 			if (mut.supportsBatchMode())
 				mut.toggleMutee(sc);
 			else
-				mut.doMutationSingle(sc);
+				mut.mutate(sc);
 		}
 	}
 }
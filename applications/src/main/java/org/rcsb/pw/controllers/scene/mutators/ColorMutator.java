@@ -301,7 +301,9 @@ public class ColorMutator extends MutatorBase
                 	style.setResidueColor(residueColorByRgb);
                 	ss.setStyle(c, style);
                 }
-                residueColorByRgb.setColor(r, ColorMutator.colorFl);               
+                residueColorByRgb.setColor(r, ColorMutator.colorFl);
+                // atoms colored by residue color follow the edited style
+                ss.invalidateInstanceAttributes();
             	renderable.style = style;
             }
             break;
@@ -47,6 +47,8 @@ package org.rcsb.pw.ui;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
@@ -144,19 +146,27 @@ public class AtomBondColoringOptions extends JPanel implements IUpdateListener,
 		        final StructureStyles ss = sm.getStructureStyles();
 		        final JoglSceneNode sn = (JoglSceneNode)sm.getUData();
 		        
+		        // atoms (and bonds) that shared a style share the new one, rather than
+		        // getting one style each
+		        final Map<AtomStyle, AtomStyle> newAtomStyles = new IdentityHashMap<AtomStyle, AtomStyle>();
 		        for (Atom a : sm.getAtoms())
 		        {
 		        	final DisplayListRenderable renderable = sn.getRenderable(a);
 		        	if(renderable != null)
 		        	{
-		        		final AtomStyle newAtomStyle = new AtomStyle();
 		        		final AtomStyle oldAtomStyle = (AtomStyle)renderable.style;
-		                newAtomStyle.setAtomColor(atomColor);
-		                if (oldAtomStyle != null)
-		                {
-			                newAtomStyle.setAtomLabel(oldAtomStyle.getAtomLabel());
-			                newAtomStyle.setAtomRadius(oldAtomStyle.getAtomRadius());
-		                }
+		        		AtomStyle newAtomStyle = newAtomStyles.get(oldAtomStyle);
+		        		if (newAtomStyle == null)
+		        		{
+			        		newAtomStyle = new AtomStyle();
+			                newAtomStyle.setAtomColor(atomColor);
+			                if (oldAtomStyle != null)
+			                {
+				                newAtomStyle.setAtomLabel(oldAtomStyle.getAtomLabel());
+				                newAtomStyle.setAtomRadius(oldAtomStyle.getAtomRadius());
+			                }
+			                newAtomStyles.put(oldAtomStyle, newAtomStyle);
+		        		}
 		        		
 		        		renderable.style = newAtomStyle;
 		        		ss.setStyle(a, newAtomStyle);
@@ -164,17 +174,22 @@ public class AtomBondColoringOptions extends JPanel implements IUpdateListener,
 		        	}
 		        }
 		        
+		        final Map<BondStyle, BondStyle> newBondStyles = new IdentityHashMap<BondStyle, BondStyle>();
 		        for (Bond b : sm.getBonds())
 		        {
 		        	final DisplayListRenderable renderable = sn.getRenderable(b);
 		        	if(renderable != null) {
 		        		final BondStyle oldBondStyle = (BondStyle)renderable.style;
-		        		final BondStyle newBondStyle = new BondStyle();
-		                newBondStyle.setBondColor(bondColor);
-		        		if(oldBondStyle != null) {
-		        			newBondStyle.setBondForm(oldBondStyle.getBondForm());
-		        			newBondStyle.setBondLabel(oldBondStyle.getBondLabel());
-		        			newBondStyle.setBondRadius(oldBondStyle.getBondRadius());
+		        		BondStyle newBondStyle = newBondStyles.get(oldBondStyle);
+		        		if (newBondStyle == null) {
+			        		newBondStyle = new BondStyle();
+			                newBondStyle.setBondColor(bondColor);
+			        		if(oldBondStyle != null) {
+			        			newBondStyle.setBondForm(oldBondStyle.getBondForm());
+			        			newBondStyle.setBondLabel(oldBondStyle.getBondLabel());
+			        			newBondStyle.setBondRadius(oldBondStyle.getBondRadius());
+			        		}
+			        		newBondStyles.put(oldBondStyle, newBondStyle);
 		        		}
 		                
 		        		renderable.style = newBondStyle;
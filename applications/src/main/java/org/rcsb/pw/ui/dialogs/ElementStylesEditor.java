@@ -259,6 +259,9 @@ public class ElementStylesEditor
 						bondStyle.setBondColor( bondStyle.getBondColor() );
 					}
 				}
+
+				// the element colors changed under the styles
+				structureStyles.invalidateInstanceAttributes( );
 			}
 		}
 	}
@@ -152,6 +152,7 @@ public class SurfacePanel extends JPanel implements IUpdateListener
 	}
 	
 	private void reset() {
+		SurfaceThread.cancelRefinement();
 		if (calphaFlag) {
 			transparencySlider.setValue(TRANSPARENCY_MAX);
 		} else {
@@ -197,6 +198,9 @@ public class SurfacePanel extends JPanel implements IUpdateListener
 					}
 					else
 					{
+						// show a coarse surface first, unless disabled
+						thread.setProgressive(!"false".equals(AppBase.getApp().properties.getProperty("progressive_surface")));
+						thread.setRefinementListener(new SurfaceRefinementListener());
 						thread.createSurface();	
 					}
 					
@@ -232,6 +236,31 @@ public class SurfacePanel extends JPanel implements IUpdateListener
 		}
 	}
 
+	/**
+	 * Recreates the visible surfaces after the coarse surfaces have been
+	 * replaced by the refined surfaces.
+	 */
+	private class SurfaceRefinementListener implements Runnable {
+
+		public void run() {
+			if (!AppBase.sgetModel().hasStructures()) {
+				return;
+			}
+			Structure structure = AppBase.sgetModel().getStructures().get(0);
+			boolean visible = false;
+			for (Surface s: structure.getStructureMap().getSurfaces()) {
+				Color4f[] colors = s.getColors();
+				if (colors != null && colors.length > 0 && colors[0].w > 0.05f) {
+					visible = true;
+				}
+			}
+			if (visible) {
+				ProteinWorkshop.sgetGlGeometryViewer().surfaceRemoved(structure);
+				ProteinWorkshop.sgetGlGeometryViewer().surfaceAdded(structure);
+			}
+		}
+	}
+
 	private class SurfaceTypeListener implements ActionListener {
 
 		public void actionPerformed(ActionEvent e) {
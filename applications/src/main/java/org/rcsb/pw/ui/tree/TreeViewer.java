@@ -452,7 +452,7 @@ TreeSelectionListener, IStructureStylesEventListener, MouseListener
 					if (curMut.supportsBatchMode()) {
 						curMut.toggleMutee(userObject);
 					} else {
-						curMut.doMutationSingle(userObject);
+						curMut.mutate(userObject);
 					}
 				}
 			}
@@ -470,7 +470,7 @@ TreeSelectionListener, IStructureStylesEventListener, MouseListener
 					if (curMut.supportsBatchMode()) {
 						curMut.toggleMutee(structureComponent);
 					} else {
-						curMut.doMutationSingle(structureComponent);
+						curMut.mutate(structureComponent);
 					}
 				}
 			} else if (userObject instanceof StructureModel) {
@@ -509,7 +509,7 @@ TreeSelectionListener, IStructureStylesEventListener, MouseListener
 		// System.err.println( "TreeViewer.processStructureStylesEvent: " +
 		// structureStylesEvent );
 
-		if (structureStylesEvent.attribute == StructureStyles.ATTRIBUTE_SELECTION) {
+		if (structureStylesEvent.isChanged(StructureStyles.ATTRIBUTE_SELECTION)) {
 			this.tree.repaint();
 			this.tree.repaint();
 		}
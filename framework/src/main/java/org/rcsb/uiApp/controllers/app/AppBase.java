@@ -205,6 +205,8 @@ public abstract class AppBase
 					DebugState.setDebugState(true);
 				else if (args[i].equals("-treat_models_as_subunits"))
 					properties.setProperty("treat_models_as_subunits", "true");
+				else if (args[i].equals("-sequential_load"))
+					properties.setProperty("pdb_parallel_load", "false");
 				
 				if (args[i].equals("-trace"))
 					DebugState.setTraceState(true);
@@ -79,6 +79,7 @@ public class ProgressPanelController
 
 	private static ProgressPanel progressDlg = null;
 	private static JFrame parent = null;
+	private static Runnable cancelAction = null;
 	
 
 	/**
@@ -100,8 +101,21 @@ public class ProgressPanelController
 	 * @param in_parent - the parent of the progress dialog.  Can be null.
 	 */
 	public static void StartProgress(JFrame in_parent)
+	{
+		StartProgress(in_parent, null);
+	}
+
+	/**
+	 * Call to start progress - with parent JFrame and a cancel button.
+	 * 
+	 * @param in_parent - the parent of the progress dialog.  Can be null.
+	 * @param in_cancelAction - run on the event thread when the user presses 'Cancel'.
+	 *                          If null, the dialog has no cancel button.
+	 */
+	public static void StartProgress(JFrame in_parent, Runnable in_cancelAction)
 	{
 		parent = in_parent;
+		cancelAction = in_cancelAction;
 	
 		if (DebugState.isDebug()){
 			System.err.println("ProgressPanelController.StartProgress(jframe)");
@@ -130,7 +144,7 @@ public class ProgressPanelController
 	 */
 	private static void InternalStart()
 	{
-		progressDlg = new ProgressPanel(parent);
+		progressDlg = new ProgressPanel(parent, cancelAction);
 		Status.addStatusListener(progressDlg);
 		if (parent != null)
 			parent.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
@@ -46,8 +46,6 @@
 package org.rcsb.uiApp.controllers.doc;
 
 import java.io.File;
-import java.io.IOException;
-import java.net.MalformedURLException;
 import java.util.Vector;
 
 import javax.swing.JFileChooser;
@@ -69,6 +67,9 @@ public class DocController
 {
 	private String initialBiologicalUnitId = null; 
 
+	// the running load, guarded by this
+	private LoadPipeline loadPipeline = null;
+
 	/**
 	 * This is used by the StructureXMLHandler - nothing seems to set it, though...
 	 * 
@@ -115,98 +116,71 @@ public class DocController
 
 	/**
 	 * Given a url, read the structures and return the structures array.
+	 * The data sets are loaded concurrently by a {@link LoadPipeline}, which
+	 * {@link #cancelLoad()} cancels.
 	 * 
 	 * @param structureUrlParam - the url to read.  can be a system filename.
-	 * @return - an array of Structures
+	 * @return - an array of Structures, or null if the load was cancelled or failed
 	 */
 	public Structure[] readStructuresFromUrl(String structureUrlParam)
 	{
-		final Vector<Structure> structuresVec = new Vector<Structure>();
-		Structure structureTmp = null;
-
 		final String[] datasets = structureUrlParam.split(",");
-		long t0 = System.nanoTime();
-		
 		for (int i = 0; i < datasets.length; i++)
-		{
-			try
-			{
-				datasets[i] = datasets[i].trim();
-				final String dataset = datasets[i];
-				IFileStructureLoader loader = null;
-
-				if (dataset.endsWith(".xml.gz") || dataset.endsWith(".xml"))
-				{
-					//long time = System.currentTimeMillis();
-					Status.progress(-1, "Reading XML file: " + dataset);
-
-					loader =
-						new XMLStructureLoader(AppBase.sgetAppModuleFactory().createStructureXMLHandler(dataset),
-										(String) AppBase.getApp().properties.get("cAlphaFlag"));
-					((XMLStructureLoader)loader).setInitialBiologicalUnitId(initialBiologicalUnitId);
-
-					structureTmp = loader.load(dataset);
-				}
-
-
-				else if (dataset.matches("^.+\\.pdb\\d*(\\.gz)?$")
-						|| dataset.endsWith(".ent.gz")
-						|| dataset.endsWith(".ent"))
-				{
-					loader = new PdbStructureLoader();
-					((PdbStructureLoader)loader).setTreatModelsAsSubunits(
-							AppBase.getApp().properties.contains("treat_models_as_subunits") &&
-							AppBase.getApp().properties.get("treat_models_as_subunits").equals("true"));
-
-					Status.progress(0, "Reading PDB file: " + dataset);
-
-					structureTmp = loader.load(dataset);
-				}
-
-				else
-					Status.output(Status.LEVEL_ERROR,
-					"Could not open file: the file must have an extension of .xml, xml.gz, .pdb, .pdb.gz, .ent, or .ent.gz.");
+			datasets[i] = datasets[i].trim();
 
-				if (structureTmp == null)
-				{
-					Status.output(Status.LEVEL_ERROR, "Could not load: " + dataset);
-					return null;
-				}
-
-				else
-					System.out.println("Data set loaded: " + dataset);
-
-				new StructureMap(structureTmp, loader.getEntityNameMap(), AppBase.sgetAppModuleFactory().createStructureMapUserData());
-				finalizeNewStructure(loader, structureTmp);
-
-				if (loader.getUnitCell() != null)
-					structureTmp.getStructureMap().setUnitCell(loader.getUnitCell());
+		long t0 = System.nanoTime();
 
-				structuresVec.add(structureTmp);			
+		LoadPipeline pipeline = new LoadPipeline(this, datasets, new LoadPipeline.Listener()
+		{
+			public void coordinatesReady(String dataset, Structure structure)
+			{
+				DocController.this.coordinatesReady(dataset, structure);
 			}
 
-			catch (final MalformedURLException e)
+			public void stageFinished(String dataset, LoadPipeline.Stage stage, long nanos)
 			{
-				Status.output(Status.LEVEL_ERROR, "Error: Bad url to the structure xml file.");
+				System.out.println("Load " + stage + " " + dataset + ": " + nanos/1000000 + " ms");
 			}
+		});
+		pipeline.setPrecomputeSurfaces("true".equals(AppBase.getApp().properties.get("precompute_surfaces")));
 
-			catch (final IOException e)
+		Structure[] loaded;
+		synchronized (this)
+		{
+			loadPipeline = pipeline;
+		}
+		try
+		{
+			loaded = pipeline.run();
+		}
+		finally
+		{
+			synchronized (this)
 			{
-				Status.output(Status.LEVEL_ERROR, e.getMessage());
+				if (loadPipeline == pipeline)
+					loadPipeline = null;
 			}
-
 		}
+
+		if (loaded == null)
+			return null;
+
 		// global transforms set in _BU version...
 
 		// else no structure loaded.
 
-		final Structure[] structures = new Structure[structuresVec.size()];
-		for (int i = 0; i < structures.length; i++)
+		final Vector<Structure> structuresVec = new Vector<Structure>();
+		for (int i = 0; i < loaded.length; i++)
 		{
-			structures[i] = structuresVec.get(i);
-			structures[i].getStructureMap().setPdbId(parsePdbId(datasets[i]));
-			structures[i].getStructureMap().setImmutable();
+			if (loaded[i] == null)
+				continue;
+
+			loaded[i].getStructureMap().setPdbId(parsePdbId(datasets[i]));
+			loaded[i].getStructureMap().setImmutable();
+			structuresVec.add(loaded[i]);
 		}
+
+		final Structure[] structures = structuresVec.toArray(new Structure[structuresVec.size()]);
 		long t5 = System.nanoTime();
 		System.out.println("XML Read: " + (t5-t0)/1000000 + " ms");
 		
@@ -219,6 +193,86 @@ public class DocController
 		return structures;
 	}
 
+	/**
+	 * Cancels the running load, if any. {@link #readStructuresFromUrl(String)}
+	 * returns null.
+	 */
+	public void cancelLoad()
+	{
+		synchronized (this)
+		{
+			if (loadPipeline != null)
+				loadPipeline.cancel();
+		}
+	}
+
+	/**
+	 * Creates the loader for a data set by its file extension, or returns
+	 * null if the extension is unknown.
+	 * 
+	 * Optionally overridden
+	 * 
+	 * @param dataset - the url or file name
+	 * @return - the loader
+	 */
+	public IFileStructureLoader createLoader(String dataset)
+	{
+		IFileStructureLoader loader = null;
+
+		if (dataset.endsWith(".xml.gz") || dataset.endsWith(".xml"))
+		{
+			Status.progress(-1, "Reading XML file: " + dataset);
+
+			loader =
+				new XMLStructureLoader(AppBase.sgetAppModuleFactory().createStructureXMLHandler(dataset),
+								(String) AppBase.getApp().properties.get("cAlphaFlag"));
+			((XMLStructureLoader)loader).setInitialBiologicalUnitId(initialBiologicalUnitId);
+		}
+
+
+		else if (dataset.matches("^.+\\.pdb\\d*(\\.gz)?$")
+				|| dataset.endsWith(".ent.gz")
+				|| dataset.endsWith(".ent"))
+		{
+			loader = new PdbStructureLoader();
+			((PdbStructureLoader)loader).setTreatModelsAsSubunits(
+					AppBase.getApp().properties.contains("treat_models_as_subunits") &&
+					AppBase.getApp().properties.get("treat_models_as_subunits").equals("true"));
+			// the record parser is the default, "pdb_record_parser=false" reverts to line parsing
+			boolean useRecordParser =
+					!"false".equals(AppBase.getApp().properties.get("pdb_record_parser"));
+			((PdbStructureLoader)loader).setUseRecordParser(useRecordParser);
+			// with the record parser, large uncompressed local files are memory-mapped
+			// and parsed on all cores; "pdb_parallel_load=false" reads them sequentially
+			if (useRecordParser &&
+					!"false".equals(AppBase.getApp().properties.get("pdb_parallel_load")))
+				((PdbStructureLoader)loader).setParallelism(Runtime.getRuntime().availableProcessors());
+
+			Status.progress(0, "Reading PDB file: " + dataset);
+		}
+
+		else
+			Status.output(Status.LEVEL_ERROR,
+			"Could not open file: the file must have an extension of .xml, xml.gz, .pdb, .pdb.gz, .ent, or .ent.gz.");
+
+		return loader;
+	}
+
+	/**
+	 * Hook function, called on a loading thread as soon as the atoms of a data
+	 * set have been read, before its structure map, bonds and secondary
+	 * structure are derived, e.g. for a first draw of the coordinates.
+	 * 
+	 * Optionally overridden
+	 * 
+	 * @param dataset - the url or file name
+	 * @param structure - the structure, without a structure map
+	 */
+	public void coordinatesReady(String dataset, Structure structure)
+	{
+		Status.progress(-1, "Deriving bonds and secondary structure: " + dataset);
+	}
+
 	/**
 	 * Parses the PDB ID from a url string
 	 * @param urlString
@@ -0,0 +1,374 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.uiApp.controllers.doc;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.model.util.Status;
+import org.rcsb.mbt.structLoader.IFileStructureLoader;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.uiApp.controllers.app.AppBase;
+
+/**
+ * Loads the data sets of a document in dependent stages on a thread pool, so
+ * that the data sets are loaded concurrently and a load can be cancelled.
+ * <p>
+ * Each data set is parsed, then its structure map is built from the atom
+ * records, then its bonds and its secondary structure are derived
+ * concurrently, then the structure is finalized by the document controller.
+ * Optionally, its molecular surfaces are then calculated into the surface
+ * cache; this last stage continues in the background after {@link #run()}
+ * has returned the structures.
+ * <p>
+ * The pools are bounded by the number of processors: the data sets are
+ * loaded on one pool and their bonds and surfaces are derived on another, so
+ * that a data set waiting for its bonds never blocks the bonds themselves.
+ * When several data sets are loaded at once, PDB files are parsed
+ * sequentially rather than each on all processors.
+ * <p>
+ * The listener hears when the coordinates of a data set have been read,
+ * before any derived data exists, and the time each stage took. It is called
+ * on the pool threads.
+ * 
+ * @see DocController#readStructuresFromUrl(String)
+ */
+public class LoadPipeline
+{
+	public enum Stage
+	{
+		PARSE, STRUCTURE_MAP, BONDS, SECONDARY_STRUCTURE, FINALIZE, SURFACES
+	}
+
+	public interface Listener
+	{
+		/**
+		 * The data set has been parsed. The structure has its atoms, but no
+		 * structure map yet.
+		 */
+		public void coordinatesReady(String dataset, Structure structure);
+
+		/**
+		 * The stage of the data set has finished after the given time.
+		 */
+		public void stageFinished(String dataset, Stage stage, long nanos);
+	}
+
+	private final DocController docController;
+	private final String[] datasets;
+	private final Listener listener;
+	private final long[][] stageTimes;
+	private boolean precomputeSurfaces = false;
+
+	// guarded by this
+	private ExecutorService loadPool = null;
+	private ExecutorService stagePool = null;
+	private final List<Future<?>> futures = new ArrayList<Future<?>>();
+	private volatile boolean cancelled = false;
+
+	/**
+	 * @param docController - creates the loaders and finalizes the structures
+	 * @param datasets - the file names or urls to load
+	 * @param listener - may be null
+	 */
+	public LoadPipeline(DocController docController, String[] datasets, Listener listener)
+	{
+		this.docController = docController;
+		this.datasets = datasets.clone();
+		this.listener = listener;
+		this.stageTimes = new long[datasets.length][Stage.values().length];
+	}
+
+	/**
+	 * Selects whether the molecular surfaces of the structures are calculated
+	 * into the surface cache after the structures are loaded. Does nothing if
+	 * there is no surface cache.
+	 */
+	public void setPrecomputeSurfaces(boolean precomputeSurfaces)
+	{
+		this.precomputeSurfaces = precomputeSurfaces;
+	}
+
+	/**
+	 * Loads the data sets and waits for all stages but the surfaces. Returns
+	 * the structures in the order of the data sets, with null for data sets
+	 * that could not be read. Returns null if the load was cancelled, or if a
+	 * data set is of an unknown type.
+	 */
+	public Structure[] run()
+	{
+		List<Future<Structure>> loads = new ArrayList<Future<Structure>>(datasets.length);
+		synchronized (this)
+		{
+			if (cancelled)
+				return null;
+
+			int processors = Runtime.getRuntime().availableProcessors();
+			loadPool = Executors.newFixedThreadPool(Math.max(1, Math.min(datasets.length, processors)));
+			stagePool = Executors.newFixedThreadPool(processors);
+			for (int i = 0; i < datasets.length; i++)
+			{
+				final int index = i;
+				loads.add(submit(loadPool, new Callable<Structure>()
+				{
+					public Structure call() throws Exception
+					{
+						return load(index);
+					}
+				}));
+			}
+		}
+
+		try
+		{
+			Structure[] structures = new Structure[datasets.length];
+			for (int i = 0; i < structures.length; i++)
+				structures[i] = loads.get(i).get();
+
+			return cancelled ? null : structures;
+		}
+
+		catch (CancellationException e)
+		{
+			return null;
+		}
+
+		catch (InterruptedException e)
+		{
+			cancel();
+			Thread.currentThread().interrupt();
+			return null;
+		}
+
+		catch (ExecutionException e)
+		{
+			if (cancelled)
+				return null;
+
+			cancel();
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException("loading failed", cause);
+		}
+
+		finally
+		{
+			// lets the surfaces finish, unless the load was cancelled
+			synchronized (this)
+			{
+				loadPool.shutdown();
+				stagePool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Cancels the load. Running stages are interrupted, and no further stage
+	 * is started. {@link #run()} returns null.
+	 */
+	public synchronized void cancel()
+	{
+		cancelled = true;
+		for (Future<?> future : futures)
+			future.cancel(true);
+
+		if (loadPool != null)
+		{
+			loadPool.shutdownNow();
+			stagePool.shutdownNow();
+		}
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * Returns the time the stage of the data set took, in nanoseconds, or 0
+	 * if it has not finished.
+	 */
+	public long getStageTime(int dataset, Stage stage)
+	{
+		synchronized (stageTimes)
+		{
+			return stageTimes[dataset][stage.ordinal()];
+		}
+	}
+
+	private synchronized <T> Future<T> submit(ExecutorService pool, Callable<T> task)
+	{
+		if (cancelled)
+			throw new CancellationException();
+
+		Future<T> future = pool.submit(task);
+		futures.add(future);
+		return future;
+	}
+
+	/**
+	 * Runs the stages of a data set.
+	 */
+	private Structure load(int index) throws Exception
+	{
+		final String dataset = datasets[index];
+		long t = System.nanoTime();
+		final IFileStructureLoader loader;
+		final Structure structure;
+		try
+		{
+			loader = docController.createLoader(dataset);
+			// the data sets already share the processors
+			if (datasets.length > 1 && loader instanceof PdbStructureLoader)
+				((PdbStructureLoader) loader).setParallelism(1);
+			structure = loader == null ? null : loader.load(dataset);
+		}
+
+		catch (final MalformedURLException e)
+		{
+			Status.output(Status.LEVEL_ERROR, "Error: Bad url to the structure xml file.");
+			return null;
+		}
+
+		catch (final IOException e)
+		{
+			if (!cancelled)
+				Status.output(Status.LEVEL_ERROR, e.getMessage());
+			return null;
+		}
+
+		if (structure == null)
+		{
+			Status.output(Status.LEVEL_ERROR, "Could not load: " + dataset);
+			cancel();
+			return null;
+		}
+
+		System.out.println("Data set loaded: " + dataset);
+		t = finished(index, Stage.PARSE, t);
+		if (listener != null)
+			listener.coordinatesReady(dataset, structure);
+
+		checkCancelled();
+		final StructureMap structureMap = new StructureMap(structure, loader.getEntityNameMap(),
+				AppBase.sgetAppModuleFactory().createStructureMapUserData(), false);
+		t = finished(index, Stage.STRUCTURE_MAP, t);
+
+		// bonds and secondary structure only read the atoms and residues
+		checkCancelled();
+		final long t0 = t;
+		Future<Long> bonds = submit(stagePool, new Callable<Long>()
+		{
+			public Long call()
+			{
+				structureMap.generateBonds();
+				return System.nanoTime();
+			}
+		});
+		structureMap.generateFragments();
+		finished(index, Stage.SECONDARY_STRUCTURE, t0);
+		t = bonds.get();
+		finished(index, Stage.BONDS, t0, t);
+
+		checkCancelled();
+		docController.finalizeNewStructure(loader, structure);
+		if (loader.getUnitCell() != null)
+			structureMap.setUnitCell(loader.getUnitCell());
+		t = finished(index, Stage.FINALIZE, t);
+
+		if (precomputeSurfaces)
+		{
+			final int surfaceIndex = index;
+			final long t1 = t;
+			submit(stagePool, new Callable<Void>()
+			{
+				public Void call()
+				{
+					SurfaceThread.precomputeSurfaces(structure);
+					finished(surfaceIndex, Stage.SURFACES, t1);
+					return null;
+				}
+			});
+		}
+		return structure;
+	}
+
+	private void checkCancelled()
+	{
+		if (cancelled || Thread.currentThread().isInterrupted())
+			throw new CancellationException();
+	}
+
+	private long finished(int index, Stage stage, long start)
+	{
+		long end = System.nanoTime();
+		finished(index, stage, start, end);
+		return end;
+	}
+
+	private void finished(int index, Stage stage, long start, long end)
+	{
+		synchronized (stageTimes)
+		{
+			stageTimes[index][stage.ordinal()] = end - start;
+		}
+		if (listener != null)
+			listener.stageFinished(datasets[index], stage, end - start);
+	}
+}
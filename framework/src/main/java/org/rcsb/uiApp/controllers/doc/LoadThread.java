@@ -65,6 +65,7 @@ public class LoadThread extends Thread
 {
 	private String _url, _pdbid;
 	private boolean calpha;
+	private volatile boolean cancelled = false;
 	
 	/**
 	 * This can be either a file spec or a url.  It is what comes in from the commandline
@@ -123,15 +124,29 @@ public class LoadThread extends Thread
 		this.calpha = calphaFlag;
 	}
 
+	/**
+	 * Cancels the load. The structures that are being loaded are discarded,
+	 * and no error is shown.
+	 */
+	public void cancelLoad()
+	{
+		cancelled = true;
+		AppBase.sgetDocController().cancelLoad();
+	}
+
 	public void run()
 	{
-		ProgressPanelController.StartProgress();
+		ProgressPanelController.StartProgress(null, new Runnable()
+		{
+			public void run() { cancelLoad(); }
+		});
+		if (!cancelled)
 			AppBase.sgetDocController().loadStructure(_url, _pdbid);
 
 		if (AppBase.sgetModel().hasStructures())
 			AppBase.sgetActiveFrame().setTitle(_pdbid);
 		ProgressPanelController.EndProgress();
-		if (!AppBase.sgetModel().hasStructures())
+		if (!AppBase.sgetModel().hasStructures() && !cancelled)
 			JOptionPane.showMessageDialog(null, "Structure not found: " + _pdbid + "\nPlease check file/url specification and try again.", "Error", JOptionPane.ERROR_MESSAGE); 
 	}
 	
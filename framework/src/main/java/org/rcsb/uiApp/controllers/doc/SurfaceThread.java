@@ -55,14 +55,23 @@ import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Vector;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.vecmath.Color4f;
 import javax.vecmath.Point3f;
 import javax.vecmath.Vector3f;
 
@@ -80,14 +89,18 @@ import org.rcsb.mbt.model.attributes.AtomRadiusRegistry;
 import org.rcsb.mbt.model.attributes.IAtomRadius;
 import org.rcsb.mbt.model.attributes.SurfaceColorUpdater;
 import org.rcsb.mbt.model.geometry.ModelTransformationList;
+import org.rcsb.mbt.model.util.ParallelExecutor;
 import org.rcsb.mbt.model.util.Status;
 import org.rcsb.mbt.surface.BindingSiteSurfaceOrienter;
 import org.rcsb.mbt.surface.EdtMolecularSurface;
 import org.rcsb.mbt.surface.SurfaceCalculator;
 import org.rcsb.mbt.surface.SurfaceScorer;
+import org.rcsb.mbt.surface.core.EdtSurfaceCalculator;
+import org.rcsb.mbt.surface.core.QuadricDecimator;
 import org.rcsb.mbt.surface.datastructure.Sphere;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
 import org.rcsb.mbt.surface.gamer.ImproveMesh;
+import org.rcsb.mbt.surface.io.SurfaceCache;
 import org.rcsb.uiApp.controllers.app.AppBase;
 import org.rcsb.uiApp.controllers.app.ProgressPanelController;
 import org.rcsb.uiApp.controllers.update.UpdateEvent;
@@ -104,12 +117,60 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 	private static float PROBE_RADIUS = 1.0f;
 	private static float TEST_PROBE_RADIUS = 1.5f;
 	private static float DISTANCE_THRESHOLD = 6.5f;
+	// share of the free heap the voxel grids of concurrent surfaces may use
+	private static float MEMORY_BUDGET = 0.5f;
+	// names of the cached surfaces, including the smoothing that is applied
+	private static String MOLECULAR_SURFACE = "EdtMolecularSurface laplaciansmooth(1) decimate";
+	private static String BINDING_SITE_SURFACE = "EdtMolecularSurface binding site edgesmooth(5) laplaciansmooth(3)";
+	// number of faces of all molecular surfaces above which they are decimated
+	private static int FACE_BUDGET = 1000000;
+	// largest error of the decimation in Angstrom, even if the budget is exceeded
+	private static float DECIMATION_ERROR = 0.5f;
+	// resolution of the coarse surfaces in progressive mode, relative to the full resolution
+	private static float COARSE_RESOLUTION = 0.5f;
+	// refinement of the last progressive surfaces, guarded by the class lock
+	private static Refinement refinement = null;
 //	private SurfaceScorer scorer;
 //	private ArrayList<SurfaceScorer> multiScorer;
 	private boolean drawLines = false;
 	private boolean drawDots = false;
+	private boolean progressive = false;
+	private Runnable refinementListener = null;
+	
+	/**
+	 * Selects the progressive mode of {@link #createSurface()}: surfaces are
+	 * first calculated at a coarse resolution and shown, then refined to the
+	 * full resolution on a background thread.
+	 */
+	public void setProgressive(boolean progressive) {
+		this.progressive = progressive;
+	}
+	
+	/**
+	 * Sets the listener that is run on the event dispatch thread after the
+	 * refined surfaces have replaced the coarse surfaces, so that the viewer
+	 * can recreate their display lists.
+	 */
+	public void setRefinementListener(Runnable refinementListener) {
+		this.refinementListener = refinementListener;
+	}
+	
+	/**
+	 * Cancels the refinement of progressive surfaces, if one is running. Chains
+	 * that have not been started are not calculated, and none of the coarse
+	 * surfaces is replaced.
+	 */
+	public static void cancelRefinement() {
+		synchronized (SurfaceThread.class) {
+			if (refinement != null) {
+				refinement.cancel();
+				refinement = null;
+			}
+		}
+	}
 	
 	public void createSurface() {
+		cancelRefinement();
 		Runtime runtime = Runtime.getRuntime();
 //		System.out.println("allocated memory: " + runtime.totalMemory() / 1024); 
 //		System.out.println("free memory: " + runtime.freeMemory() / 1024); 
@@ -118,8 +179,8 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		int numOfTriangles = 0;
 		Structure structure = AppBase.sgetModel().getStructures().get(0);
 		StructureMap smap = structure.getStructureMap();	
-		List<Chain> polymerChains = getPolymerChains();
-		float resolution = calcResolution(polymerChains);	
+		List<Chain> polymerChains = getPolymerChains(structure);
+		float resolution = calcResolution(structure, polymerChains);	
 		if (drawLines) {
 			resolution *= 0.75f;
 		}
@@ -128,71 +189,122 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 //		multiScorer = new ArrayList<SurfaceScorer>();
 		ProgressPanelController.StartProgress(AppBase.sgetActiveFrame());
 		Status.progress(0, "Creating surfaces");
-		int numSpheres = 0;
-		for (Chain c: polymerChains) {
-			List<Sphere> spheres = new ArrayList<Sphere>();
-			Vector<Residue> residues = c.getResidues();
-			
-			// TODO How to deal with non-standard residues in a polymer?
-			for (Residue r: residues) {
-				if (r.getClassification().equals(Classification.AMINO_ACID) ||
-						r.getClassification().equals(Classification.NUCLEIC_ACID)) {
-					Vector<Atom> atoms = r.getAtoms();
-					for (Atom a: atoms) {
-						double[] coord = a.coordinate;
-						Point3f location = new Point3f((float)coord[0], (float)coord[1], (float)coord[2]);
-						//System.out.println("keke " + location);
-						float radius = registry.getAtomRadius(a);
-						// enlarge spheres by 10% to avoid that helices touch the surface
-						spheres.add(new Sphere(location, radius *1.1f, a));
-						numSpheres++;
-					}
+		List<Chain> surfaceChains = new ArrayList<Chain>();
+		List<List<Sphere>> sphereSets = getSphereSets(polymerChains, registry, surfaceChains);
+
+		// calculate smoothed molecular surfaces
+		float[] atomRadii = new float[sphereSets.size()];
+		Arrays.fill(atomRadii, 2.4f);
+		TriangulatedSurface[] results = getCachedSurfaces(sphereSets, PROBE_RADIUS, resolution, atomRadii);
+		TriangulatedSurface[] surfaces = results;
+		List<Integer> coarse = new ArrayList<Integer>();
+		if (progressive) {
+			// surfaces that are not cached are shown at a coarse resolution first
+			surfaces = results.clone();
+			for (int i = 0; i < results.length; i++) {
+				if (results[i] == null) {
+					coarse.add(i);
 				}
 			}
-			// TODO should there be a size cutoff? I.e. min 24 residues?
-			if (spheres.size() == 0) {
-				continue;
-			};
-			
-			// calculate molecular surface
-			SurfaceCalculator s = new EdtMolecularSurface(spheres, PROBE_RADIUS, resolution, 2.4f);
-
-			TriangulatedSurface ts = s.getSurface();
-//			System.out.println("used memory: " +  (Runtime.getRuntime().totalMemory() - runtime.freeMemory()));
-			s = null; // this is a very large object that should be garbage collected ASAP
-			//System.out.println("used memory: " +  (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory())/ 1024);
-			//System.out.println("allocated memory: " + runtime.totalMemory() / 1024); 
-			//System.out.println("free memory2: " + runtime.freeMemory() / 1024);
-			//
-			// smooth surface
-			ts.laplaciansmooth(1);
+			calculateSurfaces(sphereSets, PROBE_RADIUS, resolution * COARSE_RESOLUTION, atomRadii, surfaces, null, true);
+		} else {
+			calculateSurfaces(sphereSets, PROBE_RADIUS, resolution, atomRadii, surfaces, SurfaceCache.getDefault(), true);
+		}
+		
+		// the structure map is only changed on this thread
+		Surface[] added = new Surface[surfaceChains.size()];
+		for (int i = 0; i < surfaceChains.size(); i++) {
+			Chain c = surfaceChains.get(i);
+			TriangulatedSurface ts = surfaces[i];
 			Surface surface = new Surface(c, structure);
 			surface.setTriangulatedSurface(ts);
 
 			surface.setMeshSurface(drawLines);
 			surface.setDotSurface(drawDots);
 			
-			numOfTriangles += surface.getTriangulatedSurface().getFaces().size();
+			numOfTriangles += surface.getTriangulatedSurface().getFaceCount();
 
 			// set default surface color
 			SurfaceColorUpdater.setPaletteColor(surface, ColorBrewer.BrBG, polymerChains.size(), smap.getSurfaceCount());
 
 			smap.addSurface(surface);
-			
-			// update progress bar
-			Status.progress(((int)(100* smap.getSurfaceCount()/(float)polymerChains.size())), "Creating surfaces");
+			added[i] = surface;
 			
 			AppBase.sgetUpdateController().fireUpdateViewEvent(UpdateEvent.Action.SURFACE_ADDED, surface); // has no effect
 	//		multiScorer.add( new SurfaceScorer(ts));
 		}
 		ProgressPanelController.EndProgress();
 		long t5 = System.nanoTime();
-		System.out.println("Surface calculation: " + (t5-t0)/1000000 + " ms");
+		if (coarse.size() > 0) {
+			System.out.println("First visible surface: " + (t5-t0)/1000000 + " ms, " + coarse.size() + " of " + surfaces.length + " surfaces at coarse resolution");
+			synchronized (SurfaceThread.class) {
+				refinement = new Refinement(smap, sphereSets, resolution, atomRadii, results, added, coarse, refinementListener);
+				refinement.start();
+			}
+		} else {
+			System.out.println("Surface calculation: " + (t5-t0)/1000000 + " ms");
+		}
 		AppBase.sgetUpdateController().fireUpdateViewEvent(UpdateEvent.Action.VIEW_UPDATE);
 		System.out.println(numOfTriangles);
 		//System.out.println(multiScorer.size());
 	}
 	
+	/**
+	 * Calculates the molecular surfaces of the polymer chains of the structure
+	 * into the surface cache, without adding them to the structure map, so
+	 * that a later {@link #createSurface()} of the structure finds them in the
+	 * cache. The structure needs its final structure map, as the resolution
+	 * depends on its biological unit transforms. Does nothing if there is no
+	 * surface cache.
+	 */
+	public static void precomputeSurfaces(Structure structure) {
+		SurfaceCache cache = SurfaceCache.getDefault();
+		if (cache == null) {
+			return;
+		}
+		List<Chain> polymerChains = getPolymerChains(structure);
+		float resolution = calcResolution(structure, polymerChains);
+		List<List<Sphere>> sphereSets = getSphereSets(polymerChains, AtomRadiusRegistry.get("By CPK"), new ArrayList<Chain>());
+		float[] atomRadii = new float[sphereSets.size()];
+		Arrays.fill(atomRadii, 2.4f);
+		TriangulatedSurface[] results = getCachedSurfaces(sphereSets, PROBE_RADIUS, resolution, atomRadii);
+		calculateSurfaces(sphereSets, PROBE_RADIUS, resolution, atomRadii, results, cache, false);
+	}
+
+	/**
+	 * Returns the spheres of the amino acid and nucleic acid atoms of each
+	 * polymer chain that has any, and adds those chains to surfaceChains.
+	 */
+	private static List<List<Sphere>> getSphereSets(List<Chain> polymerChains, IAtomRadius registry, List<Chain> surfaceChains) {
+		List<List<Sphere>> sphereSets = new ArrayList<List<Sphere>>();
+		for (Chain c: polymerChains) {
+			List<Sphere> spheres = new ArrayList<Sphere>();
+			Vector<Residue> residues = c.getResidues();
+
+			// TODO How to deal with non-standard residues in a polymer?
+			for (Residue r: residues) {
+				if (r.getClassification().equals(Classification.AMINO_ACID) ||
+						r.getClassification().equals(Classification.NUCLEIC_ACID)) {
+					Vector<Atom> atoms = r.getAtoms();
+					for (Atom a: atoms) {
+						double[] coord = a.coordinate;
+						Point3f location = new Point3f((float)coord[0], (float)coord[1], (float)coord[2]);
+						float radius = registry.getAtomRadius(a);
+						// enlarge spheres by 10% to avoid that helices touch the surface
+						spheres.add(new Sphere(location, radius *1.1f, a));
+					}
+				}
+			}
+			// TODO should there be a size cutoff? I.e. min 24 residues?
+			if (spheres.size() == 0) {
+				continue;
+			};
+			surfaceChains.add(c);
+			sphereSets.add(spheres);
+		}
+		return sphereSets;
+	}
+
 	//test create Surface for C Alpha molecules
 	public void createCAlphaSurface() {
 //		Runtime runtime = Runtime.getRuntime();
@@ -228,8 +340,8 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		
 		Structure structure = AppBase.sgetModel().getStructures().get(0);
 		StructureMap smap = structure.getStructureMap();	
-		List<Chain> polymerChains = getPolymerChains();
-		float resolution = calcResolutionCAlpha(polymerChains);	
+		List<Chain> polymerChains = getPolymerChains(structure);
+		float resolution = calcResolutionCAlpha(structure, polymerChains);	
 		if (drawLines) {
 			resolution *= 0.75f;
 		}
@@ -239,6 +351,9 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		ProgressPanelController.StartProgress(AppBase.sgetActiveFrame());
 		Status.progress(0, "Creating surfaces");
 		
+		List<Chain> surfaceChains = new ArrayList<Chain>();
+		List<List<Sphere>> sphereSets = new ArrayList<List<Sphere>>();
+		List<Float> atomRadii = new ArrayList<Float>();
 		for (Chain c: polymerChains) {
 			largestRadius = 0.0f;
 			List<Sphere> spheres = new ArrayList<Sphere>();
@@ -266,22 +381,26 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 			if (spheres.size() == 0) {
 				continue;
 			};
+			surfaceChains.add(c);
+			sphereSets.add(spheres);
+			atomRadii.add(largestRadius+1.5f);
+		}
 	
-			// calculate molecular surface
-			SurfaceCalculator s = new EdtMolecularSurface(spheres, TEST_PROBE_RADIUS, resolution, largestRadius+1.5f); 
-//			MemoryUsage heapMemoryUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
-//			System.out.println("heap memory used: " + heapMemoryUsage.getUsed()/(1000*1000));
-//			System.out.println("used memory: " +  (Runtime.getRuntime().totalMemory() - runtime.freeMemory())/(1000*1000));
-			TriangulatedSurface ts = s.getSurface();
-//			System.out.println("used memory: " +  (Runtime.getRuntime().totalMemory() - runtime.freeMemory()));
-//			System.out.println("Triangles: " + ts.getFaces().size());
-			
-			s = null; // this is a very large object that should be garbage collected ASAP
-
+		// calculate smoothed molecular surfaces
+		float[] radii = new float[atomRadii.size()];
+		for (int j = 0; j < radii.length; j++) {
+			radii[j] = atomRadii.get(j);
+		}
+		TriangulatedSurface[] surfaces = getCachedSurfaces(sphereSets, TEST_PROBE_RADIUS, resolution, radii);
+		calculateSurfaces(sphereSets, TEST_PROBE_RADIUS, resolution, radii, surfaces, SurfaceCache.getDefault(), true);
+//		MemoryUsage heapMemoryUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+//		System.out.println("heap memory used: " + heapMemoryUsage.getUsed()/(1000*1000));
 
-			// smooth surface
-//			System.out.println("Surface area before smoothing: " + ts.getSurfaceArea());
-			ts.laplaciansmooth(1);
+		// the structure map is only changed on this thread
+		for (int j = 0; j < surfaceChains.size(); j++) {
+			Chain c = surfaceChains.get(j);
+			TriangulatedSurface ts = surfaces[j];
+//			System.out.println("Triangles: " + ts.getFaces().size());
 			Surface surface = new Surface(c, structure);
 			surface.setTriangulatedSurface(ts);
 			surface.setMeshSurface(drawLines);
@@ -292,9 +411,6 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 
 			smap.addSurface(surface);
 			
-			// update progress bar
-			Status.progress(((int)(100* smap.getSurfaceCount()/(float)polymerChains.size())), "Creating surfaces");
-			
 			AppBase.sgetUpdateController().fireUpdateViewEvent(UpdateEvent.Action.SURFACE_ADDED, surface); // has no effect
 	//		AppBase.sgetUpdateController().fireUpdateViewEvent(UpdateEvent.Action.VIEW_UPDATE); 
 			
@@ -323,7 +439,7 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		
 		Structure structure = AppBase.sgetModel().getStructures().get(0);
 		StructureMap smap = structure.getStructureMap();	
-		List<Chain> polymerChains = getPolymerChains();
+		List<Chain> polymerChains = getPolymerChains(structure);
 //		System.out.println("begin polymerchains: " + polymerChains.size() + " index: " + smap.getSurfaceCount());
 		float resolution = 0.4f;
 		
@@ -367,19 +483,33 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 				}
 			}
 	
-			// calculate binding site molecular surface
-			SurfaceCalculator s = new EdtMolecularSurface(spheres, ligandSpheres, PROBE_RADIUS, thresholdDistance, resolution);
-			TriangulatedSurface ts = s.getSurface();
-			s = null; // this is a very large object that should be garbage collected ASAP
-			if (ts.getVertices().size() == 0) {
-				continue;
+			SurfaceCache cache = SurfaceCache.getDefault();
+			String key = null;
+			TriangulatedSurface ts = null;
+			if (cache != null) {
+				key = SurfaceCache.getKey(BINDING_SITE_SURFACE, spheres, ligandSpheres, new float[] {PROBE_RADIUS, thresholdDistance, resolution});
+				ts = getCachedSurface(cache, key, spheres, ligandSpheres);
 			}
+			if (ts == null) {
+				// calculate binding site molecular surface
+				SurfaceCalculator s = new EdtMolecularSurface(spheres, ligandSpheres, PROBE_RADIUS, thresholdDistance, resolution);
+				ts = s.getSurface();
+				s = null; // this is a very large object that should be garbage collected ASAP
 
-			// smooth surface;
-//			System.out.println("Surface area before smoothing: " + ts.getSurfaceArea());
-			ts.edgesmooth(5);
-			ts.laplaciansmooth(3);
-//			System.out.println("Surface area after smoothing:  " + ts.getSurfaceArea());
+				// smooth surface;
+//				System.out.println("Surface area before smoothing: " + ts.getSurfaceArea());
+				if (ts.getVertexCount() > 0) {
+					ts.edgesmooth(5);
+					ts.laplaciansmooth(3);
+				}
+//				System.out.println("Surface area after smoothing:  " + ts.getSurfaceArea());
+				if (cache != null) {
+					putCachedSurface(cache, key, ts, spheres, ligandSpheres);
+				}
+			}
+			if (ts.getVertexCount() == 0) {
+				continue;
+			}
 			Surface surface = new Surface(c, structure);
 			surface.setTriangulatedSurface(ts);
 			surface.setBackfaceRendered(true);
@@ -402,12 +532,265 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		System.out.println("Surface calculation: " + (t5-t0)/1000000 + " ms");
 	}
 
+	/**
+	 * Returns the molecular surfaces of the sphere sets that are found in the
+	 * surface cache, and null for the other sphere sets.
+	 */
+	private static TriangulatedSurface[] getCachedSurfaces(List<List<Sphere>> sphereSets, float probeRadius, float resolution, float[] atomRadii) {
+		TriangulatedSurface[] results = new TriangulatedSurface[sphereSets.size()];
+		SurfaceCache cache = SurfaceCache.getDefault();
+		if (cache != null) {
+			int[] faceBudgets = getFaceBudgets(sphereSets);
+			for (int i = 0; i < sphereSets.size(); i++) {
+				String key = SurfaceCache.getKey(MOLECULAR_SURFACE, sphereSets.get(i), null, new float[] {probeRadius, resolution, atomRadii[i], faceBudgets[i], DECIMATION_ERROR});
+				results[i] = getCachedSurface(cache, key, sphereSets.get(i), null);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Calculates the molecular surfaces of the sphere sets that are null in
+	 * results, smoothed by one laplacian step. Surfaces with more faces than
+	 * their share of the face budget are decimated, as far as the decimation
+	 * error allows. Chains are independent, so their
+	 * surfaces are calculated concurrently on the shared ParallelExecutor, on
+	 * at most as many threads as there are processors and as the largest voxel
+	 * grids that fit into the free heap budget. If progress is set, progress is reported for each
+	 * completed surface, counting the given surfaces as done. Calculated
+	 * surfaces are added to the cache, unless it is null. The results are
+	 * stored in the order of the sphere sets, so that the caller adds them to
+	 * the structure map on its own thread.
+	 */
+	private static void calculateSurfaces(List<List<Sphere>> sphereSets, final float probeRadius, final float resolution, float[] atomRadii,
+			TriangulatedSurface[] results, final SurfaceCache cache, final boolean progress) {
+		List<Integer> uncalculated = new ArrayList<Integer>();
+		for (int i = 0; i < sphereSets.size(); i++) {
+			if (results[i] == null) {
+				uncalculated.add(i);
+			}
+		}
+		if (uncalculated.size() == 0) {
+			return;
+		}
+		
+		long largestGrid = 1;
+		for (int i: uncalculated) {
+			EdtSurfaceCalculator c = new EdtSurfaceCalculator(sphereSets.get(i), probeRadius, resolution, atomRadii[i]);
+			c.initparam();
+			largestGrid = Math.max(largestGrid, c.estimateMemory());
+		}
+		Runtime runtime = Runtime.getRuntime();
+		long freeMemory = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		long gridCount = (long)(freeMemory * MEMORY_BUDGET) / largestGrid;
+		int processors = runtime.availableProcessors();
+		int poolSize = (int) Math.max(1, Math.min(Math.min(processors, uncalculated.size()), gridCount));
+		// processors not used by the pool speed up the individual surfaces
+		final int surfaceThreads = Math.max(1, processors / poolSize);
+		int[] faceBudgets = getFaceBudgets(sphereSets);
+		
+		// counts the given surfaces as done
+		final int total = sphereSets.size();
+		final AtomicInteger done = new AtomicInteger(total - uncalculated.size());
+		List<Callable<TriangulatedSurface>> tasks = new ArrayList<Callable<TriangulatedSurface>>(uncalculated.size());
+		for (int i: uncalculated) {
+			final List<Sphere> spheres = sphereSets.get(i);
+			final float atomRadius = atomRadii[i];
+			final int faceBudget = faceBudgets[i];
+			final String key = cache != null ? SurfaceCache.getKey(MOLECULAR_SURFACE, spheres, null, new float[] {probeRadius, resolution, atomRadius, faceBudget, DECIMATION_ERROR}) : null;
+			tasks.add(new Callable<TriangulatedSurface>() {
+				public TriangulatedSurface call() {
+					TriangulatedSurface ts = new EdtMolecularSurface(spheres, probeRadius, resolution, atomRadius, surfaceThreads).getSurface();
+					ts.laplaciansmooth(1);
+					if (ts.getFaceCount() > faceBudget) {
+						QuadricDecimator decimator = new QuadricDecimator();
+						decimator.setTargetFaceCount(faceBudget);
+						decimator.setMaxError(DECIMATION_ERROR);
+						decimator.decimate(ts);
+					}
+					if (cache != null) {
+						putCachedSurface(cache, key, ts, spheres, null);
+					}
+					// update progress bar
+					if (progress) {
+						Status.progress((int)(100 * done.incrementAndGet() / (float)total), "Creating surfaces");
+					}
+					return ts;
+				}
+			});
+		}
+
+		List<TriangulatedSurface> surfaces = ParallelExecutor.getShared().invokeAll(tasks, poolSize);
+		for (int i = 0; i < surfaces.size(); i++) {
+			results[uncalculated.get(i)] = surfaces.get(i);
+		}
+	}
+
+	/**
+	 * Divides the face budget among the sphere sets by their number of
+	 * spheres.
+	 */
+	private static int[] getFaceBudgets(List<List<Sphere>> sphereSets) {
+		long sphereCount = 0;
+		for (List<Sphere> spheres: sphereSets) {
+			sphereCount += spheres.size();
+		}
+		int[] faceBudgets = new int[sphereSets.size()];
+		for (int i = 0; i < faceBudgets.length; i++) {
+			faceBudgets[i] = (int) ((long) FACE_BUDGET * sphereSets.get(i).size() / Math.max(1, sphereCount));
+		}
+		return faceBudgets;
+	}
+
+	/**
+	 * Returns the cached surface, or null if it is not in the cache or can't
+	 * be read.
+	 */
+	private static TriangulatedSurface getCachedSurface(SurfaceCache cache, String key, List<Sphere> spheres, List<Sphere> context) {
+		try {
+			return cache.get(key, spheres, context);
+		} catch (IOException e) {
+			Status.output(Status.LEVEL_WARNING, "Surface cache " + cache + ": " + e.getMessage());
+			return null;
+		}
+	}
+	
+	private static void putCachedSurface(SurfaceCache cache, String key, TriangulatedSurface surface, List<Sphere> spheres, List<Sphere> context) {
+		try {
+			cache.put(key, surface, spheres, context);
+		} catch (IOException e) {
+			Status.output(Status.LEVEL_WARNING, "Surface cache " + cache + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the colors for a new triangulated surface of the surface. Each
+	 * vertex takes the color of a vertex of the current triangulated surface
+	 * that belongs to the same atom, so that coloring and transparency are
+	 * retained. Returns null if the current surface has no vertices.
+	 */
+	private static Color4f[] getColors(Surface surface, TriangulatedSurface ts) {
+		Object[] references = surface.getTriangulatedSurface().getReferences();
+		Color4f[] colors = surface.getColors();
+		if (colors == null || colors.length == 0) {
+			return null;
+		}
+		Map<Object, Color4f> atomColors = new IdentityHashMap<Object, Color4f>();
+		for (int i = 0; i < colors.length; i++) {
+			atomColors.put(references[i], colors[i]);
+		}
+		
+		Object[] newReferences = ts.getReferences();
+		Color4f[] newColors = new Color4f[ts.getVertexCount()];
+		for (int i = 0; i < newColors.length; i++) {
+			Color4f color = atomColors.get(newReferences[i]);
+			newColors[i] = color != null ? color : colors[0];
+		}
+		return newColors;
+	}
+	
+	/**
+	 * Calculates the full resolution surfaces of progressive mode on a
+	 * background thread, and replaces the coarse surfaces with them on the
+	 * event dispatch thread. The sphere sets, cache keys and surface objects of
+	 * the coarse surfaces are reused, so the styles of the surfaces are kept.
+	 */
+	private class Refinement implements Callable<Void> {
+		private final StructureMap smap;
+		private final List<List<Sphere>> sphereSets;
+		private final float resolution;
+		private final float[] atomRadii;
+		private final TriangulatedSurface[] results;
+		private final Surface[] surfaces;
+		private final List<Integer> coarse;
+		private final Runnable listener;
+		private Future<Void> future;
+		private long t0;
+		// set under the class lock
+		private volatile boolean cancelled = false;
+		
+		Refinement(StructureMap smap, List<List<Sphere>> sphereSets, float resolution, float[] atomRadii,
+				TriangulatedSurface[] results, Surface[] surfaces, List<Integer> coarse, Runnable listener) {
+			this.smap = smap;
+			this.sphereSets = sphereSets;
+			this.resolution = resolution;
+			this.atomRadii = atomRadii;
+			this.results = results;
+			this.surfaces = surfaces;
+			this.coarse = coarse;
+			this.listener = listener;
+		}
+		
+		void start() {
+			t0 = System.nanoTime();
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			future = executor.submit(this);
+			// the thread ends with the refinement
+			executor.shutdown();
+		}
+		
+		/**
+		 * Stops the calculation of chains that have not been started. Chains
+		 * in progress are completed and added to the surface cache, but the
+		 * coarse surfaces are not replaced.
+		 */
+		void cancel() {
+			cancelled = true;
+			future.cancel(true);
+		}
+		
+		public Void call() {
+			try {
+				calculateSurfaces(sphereSets, PROBE_RADIUS, resolution, atomRadii, results, SurfaceCache.getDefault(), false);
+			} catch (RuntimeException e) {
+				if (!cancelled) {
+					Status.output(Status.LEVEL_WARNING, "Surface refinement failed: " + e.getMessage());
+				}
+				return null;
+			}
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					replaceSurfaces();
+				}
+			});
+			return null;
+		}
+		
+		private void replaceSurfaces() {
+			synchronized (SurfaceThread.class) {
+				if (cancelled) {
+					return;
+				}
+				refinement = null;
+			}
+			for (int i: coarse) {
+				Surface surface = surfaces[i];
+				TriangulatedSurface ts = results[i];
+				// a surface may have been removed while it was refined
+				if (!smap.getSurfaces().contains(surface) || ts.getVertexCount() == 0) {
+					continue;
+				}
+				Color4f[] colors = getColors(surface, ts);
+				if (colors == null) {
+					surface.setTriangulatedSurface(ts, new Color4f[ts.getVertexCount()]);
+					SurfaceColorUpdater.setPaletteColor(surface, ColorBrewer.BrBG, surfaces.length, i);
+				} else {
+					surface.setTriangulatedSurface(ts, colors);
+				}
+			}
+			if (listener != null) {
+				listener.run();
+			}
+			AppBase.sgetUpdateController().fireUpdateViewEvent(UpdateEvent.Action.VIEW_UPDATE);
+			System.out.println("Surface refinement: " + (System.nanoTime()-t0)/1000000 + " ms");
+		}
+	}
+
 	/**
 	 * @param chains
 	 * @return
 	 */
-	private List<Chain> getPolymerChains() {
-		Structure structure = AppBase.sgetModel().getStructures().get(0);
+	private static List<Chain> getPolymerChains(Structure structure) {
 		StructureMap smap = structure.getStructureMap();
 		Vector<Chain> chains = smap.getChains();
 		List<Chain> polymerChains = new ArrayList<Chain>();
@@ -420,9 +803,9 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		return polymerChains;
 	} 
 	
-	private float calcResolution(List<Chain> polymerChains) {		
+	private static float calcResolution(Structure structure, List<Chain> polymerChains) {		
 		int residueCount = getResidueCount(polymerChains);
-		int symOps = getSymmetryOperationCount(polymerChains);
+		int symOps = getSymmetryOperationCount(structure, polymerChains);
 		float resolution = 0.4f - 0.00005f * residueCount - 0.000005f * residueCount*symOps;
 		System.out.println("Surface resolution: " + resolution + ", residues: " + residueCount + ", symmetry operations: " + symOps);
 		// clamp lowest resolution
@@ -430,9 +813,9 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		return resolution;
 	}
 	
-	private float calcResolutionCAlpha(List<Chain> polymerChains) {		
+	private static float calcResolutionCAlpha(Structure structure, List<Chain> polymerChains) {		
 		int residueCount = getResidueCount(polymerChains);
-		int symOps = getSymmetryOperationCount(polymerChains);
+		int symOps = getSymmetryOperationCount(structure, polymerChains);
 		// empirical formula to adjust surface resolution based on size of the biological assembly
 		float resolution = (float) (0.3 - 0.15*Math.log10(residueCount*symOps/60000.0));
 		// clamp lowest resolution
@@ -445,7 +828,7 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 	 * @param polymerChains
 	 * @return
 	 */
-	private int getResidueCount(List<Chain> polymerChains) {
+	private static int getResidueCount(List<Chain> polymerChains) {
 		int sphereCount = 0;
 		for (Chain c: polymerChains) {
 			for (Residue r: c.getResidues()) {
@@ -458,9 +841,7 @@ import org.rcsb.uiApp.controllers.update.UpdateEvent;
 		return sphereCount;
 	}
 	
-	private int getSymmetryOperationCount(List<Chain> polymerChains) {
-		Structure structure = AppBase.sgetModel().getStructures().get(0);
-		
+	private static int getSymmetryOperationCount(Structure structure, List<Chain> polymerChains) {
 		// TODO
 		// this creates a dependency on other packages! How can this be avoided?
 		final String showAsymmetricUnitOnly = AppBase.getApp().properties.getProperty("show_asymmetric_unit_only");
@@ -50,9 +50,12 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.lang.reflect.InvocationTargetException;
 
 import javax.swing.BorderFactory;
+import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -96,10 +99,23 @@ public class ProgressPanel extends JDialog implements StatusListener
 	 * Use 'StartProgress()' to get a progress dialog.
 	 */
 	public ProgressPanel(JFrame parent)
+	{
+		this(parent, null);
+	}
+
+	/**
+	 * Constructor - shouldn't be called from the application.
+	 * Use 'StartProgress()' to get a progress dialog.
+	 * 
+	 * @param parent - can be null
+	 * @param cancelAction - run when the user presses 'Cancel'.  If null, there is no
+	 *                       cancel button.
+	 */
+	public ProgressPanel(JFrame parent, final Runnable cancelAction)
 	{
 		super(parent, false);
 		
-		Dimension mySize = new Dimension(300, 130);
+		Dimension mySize = new Dimension(300, cancelAction == null? 130 : 165);
 		Dimension parentSize = (parent == null)? Toolkit.getDefaultToolkit().getScreenSize() :
 											     parent.getSize();
 		Point parentLoc = (parent == null)? new Point(0, 0) : parent.getLocation();
@@ -117,6 +133,22 @@ public class ProgressPanel extends JDialog implements StatusListener
 		JPanel panel = new JPanel(new BorderLayout());
 		panel.add(progressBar, BorderLayout.PAGE_START);
 		panel.add(taskOutput, BorderLayout.CENTER);
+		if (cancelAction != null)
+		{
+			final JButton cancelButton = new JButton("Cancel");
+			cancelButton.addActionListener(new ActionListener()
+			{
+				public void actionPerformed(ActionEvent e)
+				{
+					cancelButton.setEnabled(false);
+					taskOutput.setText("Cancelling...");
+					cancelAction.run();
+				}
+			});
+			JPanel buttonPanel = new JPanel();
+			buttonPanel.add(cancelButton);
+			panel.add(buttonPanel, BorderLayout.PAGE_END);
+		}
 		panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 		add(panel);
 		
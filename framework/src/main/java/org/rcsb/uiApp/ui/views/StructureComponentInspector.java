@@ -223,9 +223,14 @@ public class StructureComponentInspector
 	 */
 	public void processStructureStylesEvent( final StructureStylesEvent sse )
 	{
-		if ( sse.attribute == StructureStyles.ATTRIBUTE_SELECTION )
+		if ( sse.isChanged( StructureStyles.ATTRIBUTE_SELECTION ) )
 		{
-			final StructureComponent structureComponent = sse.structureComponent;
+			// A committed transaction reports the last component selected.
+			final StructureComponent structureComponent = sse.changes != null ?
+				sse.changes.getLastComponent( StructureStyles.ATTRIBUTE_SELECTION ) : sse.structureComponent;
+			if ( structureComponent == null ) {
+				return;
+			}
 			final Structure structure = structureComponent.getStructure( );
 			final StructureMap structureMap = structure.getStructureMap( );
 			final StructureStyles structureStyles = structureMap.getStructureStyles( );
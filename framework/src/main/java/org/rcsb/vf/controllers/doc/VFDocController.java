@@ -51,8 +51,10 @@ import java.io.IOException;
 
 import javax.swing.SwingUtilities;
 
+import org.rcsb.mbt.model.Atom;
 import org.rcsb.mbt.model.Structure;
 import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
 import org.rcsb.mbt.model.geometry.ModelTransformationMatrix;
 import org.rcsb.mbt.model.util.Status;
 import org.rcsb.uiApp.controllers.app.AppBase;
@@ -70,12 +72,39 @@ public class VFDocController extends DocController
 	 */
 	public void loadStructure(final String url, final String pdbId)
 	{
-		super.loadStructure(url, pdbId);
+		try
+		{
+			super.loadStructure(url, pdbId);
+		}
+		finally
+		{
+			VFAppBase.sgetGlGeometryViewer().clearCoordinatePreview();
+		}
 		
 		VFAppBase.sgetSceneController().resetView(true);
 		VFAppBase.sgetGlGeometryViewer().requestRepaint();
 	}
 	
+	/**
+	 * Override - draws the atoms as points while the rest of the structure is derived.
+	 */
+	@Override
+	public void coordinatesReady(String dataset, Structure structure)
+	{
+		super.coordinatesReady(dataset, structure);
+
+		final int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+		final float[] coordinates = new float[atomCount * 3];
+		for (int i = 0; i < atomCount; i++)
+		{
+			final Atom atom = (Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i);
+			coordinates[i * 3] = (float) atom.coordinate[0];
+			coordinates[i * 3 + 1] = (float) atom.coordinate[1];
+			coordinates[i * 3 + 2] = (float) atom.coordinate[2];
+		}
+		VFAppBase.sgetGlGeometryViewer().addCoordinatePreview(coordinates);
+	}
+
 	/**
 	 * Override - after reading the url, checks for global transforms in the properties and
 	 * generates them if set.
@@ -1162,8 +1162,15 @@ public class SceneState
 	{
 		final GlGeometryViewer glViewer = VFAppBase.sgetGlGeometryViewer();
 		
-		enactVisibility();
-		enactStyles();
+		// one StructureStyles event for the whole state, not one per atom and bond
+		final StructureStyles ss = AppBase.sgetModel().getStructures().get(0).getStructureMap().getStructureStyles();
+		ss.begin();
+		try {
+			enactVisibility();
+			enactStyles();
+		} finally {
+			ss.commit();
+		}
 		enactViewerOptions();
 		
 		glViewer.requestRepaint();
@@ -142,7 +142,12 @@ public abstract class MutatorBase implements IUpdateListener
 				mutees.add(mutee);
 			}
 			
-			this.doMutation();
+			final ArrayList<StructureStyles> transactions = MutatorBase.beginStyleChanges();
+			try {
+				this.doMutation();
+			} finally {
+				MutatorBase.commitStyleChanges(transactions);
+			}
 			
 			this.previousMutee = mutee;
 			
@@ -308,15 +313,58 @@ public abstract class MutatorBase implements IUpdateListener
 	{
 		if(this.supportsBatchMode()) 
 		{
-			for (Structure structure : AppBase.sgetModel().getStructures())
-			{
-				final StructureStyles ss = structure.getStructureMap().getStructureStyles();
-				final ArrayList<StructureComponent> items = ss.getSelectedItems();
-				for(int j = 0; j < items.size(); j++)
-					this.doMutationSingle(items.get(j));
+			final ArrayList<StructureStyles> transactions = MutatorBase.beginStyleChanges();
+			try {
+				for (Structure structure : AppBase.sgetModel().getStructures())
+				{
+					final StructureStyles ss = structure.getStructureMap().getStructureStyles();
+					final ArrayList<StructureComponent> items = ss.getSelectedItems();
+					for(int j = 0; j < items.size(); j++)
+						this.doMutationSingle(items.get(j));
 				}
+			} finally {
+				MutatorBase.commitStyleChanges(transactions);
 			}
 		}
+	}
+	
+	/**
+	 * doMutationSingle, for callers outside of a mutation, with the style
+	 * changes it makes committed as one event per structure.
+	 */
+	public void mutate(final Object mutee)
+	{
+		final ArrayList<StructureStyles> transactions = MutatorBase.beginStyleChanges();
+		try {
+			this.doMutationSingle(mutee);
+		} finally {
+			MutatorBase.commitStyleChanges(transactions);
+		}
+	}
+	
+	/**
+	 * Begin a StructureStyles transaction on every structure, so that a
+	 * mutation of many components fires one event per structure rather than
+	 * one per component. Pass the result to commitStyleChanges in a finally
+	 * block.
+	 */
+	protected static ArrayList<StructureStyles> beginStyleChanges()
+	{
+		final ArrayList<StructureStyles> transactions = new ArrayList<StructureStyles>();
+		for (Structure structure : AppBase.sgetModel().getStructures())
+		{
+			final StructureStyles ss = structure.getStructureMap().getStructureStyles();
+			ss.begin();
+			transactions.add(ss);
+		}
+		return transactions;
+	}
+	
+	protected static void commitStyleChanges(final ArrayList<StructureStyles> transactions)
+	{
+		for (StructureStyles ss : transactions)
+			ss.commit();
+	}
 	
 	public static void removeMutee(final Object mutee) {
 		mutees.remove(mutee);
@@ -53,7 +53,10 @@ import javax.media.opengl.GL2;
 import javax.media.opengl.glu.GLU;
 
 import org.rcsb.mbt.model.*;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
 import org.rcsb.mbt.model.attributes.*;
+import org.rcsb.mbt.model.geometry.GeometryBatch;
+import org.rcsb.mbt.model.geometry.ImpostorBatch;
 
 import com.jogamp.opengl.util.gl2.GLUT;
 
@@ -71,10 +74,14 @@ import java.util.*;
  */
 public class AtomGeometry
 	extends DisplayListGeometry
+	implements BatchedGeometry, ImpostorGeometry
 {
 	// Shared display lists: key="form:quality" value=Integer(displayList)
 	public static Hashtable sharedDisplayLists = new Hashtable( );
 
+	// Shared batch meshes: key="form:quality"
+	private static final Map<String, GeometryBatch.Mesh> sharedMeshes = new HashMap<String, GeometryBatch.Mesh>( );
+
 	// Attributes used to bound the quality setting.
 	private static final int minSlices = 4;
 	private static final int maxSlices = 20;
@@ -244,5 +251,111 @@ public class AtomGeometry
 	}
 	
 	
-}
 
+	/**
+	 *  Adds the sphere of the flat and thick forms. Points and lines, and
+	 *  atoms with labels, are left to the display lists.
+	 */
+	public boolean addToBatch( final StructureComponent structureComponent, final Style style, final GeometryBatch batch )
+	{
+		final Atom atom = (Atom)structureComponent;
+		final AtomStyle atomStyle = (AtomStyle)style;
+
+		final int form = this.getForm( );
+		if ( (form != Geometry.FORM_FLAT && form != Geometry.FORM_THICK) || atomStyle.getAtomLabel( atom ) != null ) {
+			return false;
+		}
+
+		final float quality = this.getQuality( );
+		final String meshKey = form + ":" + quality;
+		GeometryBatch.Mesh sphere;
+		synchronized ( AtomGeometry.sharedMeshes )
+		{
+			sphere = AtomGeometry.sharedMeshes.get( meshKey );
+			if ( sphere == null )
+			{
+				if ( form == Geometry.FORM_FLAT ) {
+					sphere = GeometryBatch.Mesh.sphere( AtomGeometry.minSlices, AtomGeometry.minSegments );
+				} else {
+					sphere = GeometryBatch.Mesh.sphere(
+						AtomGeometry.minSlices + (int) ((AtomGeometry.maxSlices - AtomGeometry.minSlices) * quality),
+						AtomGeometry.minSegments + (int) ((AtomGeometry.maxSegments - AtomGeometry.minSegments) * quality) );
+				}
+				AtomGeometry.sharedMeshes.put( meshKey, sphere );
+			}
+		}
+
+		final float color[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+		this.getBatchColor( atom, color );
+		batch.addSphere( atom, sphere, atom.coordinate, atomStyle.getAtomRadius( atom ), color );
+
+		// the label, if any, was registered by the display lists
+		final JoglSceneNode sn = (JoglSceneNode) atom.getStructure( ).getStructureMap( ).getUData( );
+		if ( sn != null ) {
+			sn.removeLabel( atom );
+		}
+		return true;
+	}
+
+	/**
+	 *  Adds a sphere impostor for the flat and thick forms, under the same
+	 *  conditions as addToBatch.
+	 */
+	public boolean addToImpostors( final StructureComponent structureComponent, final Style style, final ImpostorBatch batch )
+	{
+		final Atom atom = (Atom)structureComponent;
+		final AtomStyle atomStyle = (AtomStyle)style;
+
+		final int form = this.getForm( );
+		if ( (form != Geometry.FORM_FLAT && form != Geometry.FORM_THICK) || atomStyle.getAtomLabel( atom ) != null ) {
+			return false;
+		}
+
+		final float color[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+		this.getBatchColor( atom, color );
+		batch.addSphere( atom, atom.coordinate, atomStyle.getAtomRadius( atom ), color );
+
+		final JoglSceneNode sn = (JoglSceneNode) atom.getStructure( ).getStructureMap( ).getUData( );
+		if ( sn != null ) {
+			sn.removeLabel( atom );
+		}
+		return true;
+	}
+
+	public void updateImpostorColors( final StructureComponent structureComponent, final ImpostorBatch batch )
+	{
+		final int sphere = batch.getSpheres( ).getFirst( structureComponent );
+		if ( sphere >= 0 )
+		{
+			this.getBatchColor( (Atom)structureComponent, this.batchColor );
+			batch.getSpheres( ).setColor( sphere, this.batchColor );
+		}
+	}
+
+	public void updateBatchColors( final StructureComponent structureComponent, final GeometryBatch batch )
+	{
+		final int part = batch.getFirstPart( structureComponent );
+		if ( part >= 0 )
+		{
+			this.getBatchColor( (Atom)structureComponent, this.batchColor );
+			batch.setColor( part, this.batchColor );
+		}
+	}
+
+	private final float batchColor[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+
+	/**
+	 *  Gets the color resolved in the instance attributes, or from the style
+	 *  if the atom is not one of the structure map's.
+	 */
+	private void getBatchColor( final Atom atom, final float color[] )
+	{
+		final StructureStyles ss = atom.getStructure( ).getStructureMap( ).getStructureStyles( );
+		if ( ! ss.getInstanceAttributes( ComponentType.ATOM ).getColor( atom, 0, color ) )
+		{
+			final AtomStyle style = (AtomStyle) ss.getStyle( atom );
+			style.getAtomColor( atom, color );
+		}
+		color[3] = 1.0f;
+	}
+}
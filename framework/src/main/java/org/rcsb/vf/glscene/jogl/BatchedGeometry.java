@@ -0,0 +1,74 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.vf.glscene.jogl;
+
+import org.rcsb.mbt.model.StructureComponent;
+import org.rcsb.mbt.model.attributes.Style;
+import org.rcsb.mbt.model.geometry.GeometryBatch;
+
+
+/**
+ *  Implemented by geometries which can add their triangles to a shared
+ *  vertex buffer instead of building display lists (see VertexBufferBatch).
+ *  A geometry may batch only some of its forms: if addToBatch returns
+ *  false, the renderable is drawn with its display lists as before.
+ */
+public interface BatchedGeometry
+{
+	/**
+	 *  Adds the parts of the component to the batch, colored as
+	 *  updateBatchColors would color them.
+	 *  @return	false if the component must be drawn with display lists
+	 */
+	public boolean addToBatch( StructureComponent structureComponent, Style style, GeometryBatch batch );
+
+	/**
+	 *  Sets the colors of the parts of the component from the instance
+	 *  attributes of the structure's styles. Called when the attributes
+	 *  have changed.
+	 */
+	public void updateBatchColors( StructureComponent structureComponent, GeometryBatch batch );
+}
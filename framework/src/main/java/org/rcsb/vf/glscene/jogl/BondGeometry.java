@@ -54,8 +54,11 @@ import javax.media.opengl.glu.GLU;
 import javax.media.opengl.glu.GLUquadric;
 
 import org.rcsb.mbt.model.*;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
 import org.rcsb.mbt.model.attributes.*;
 import org.rcsb.mbt.model.geometry.ArrayLinearAlgebra;
+import org.rcsb.mbt.model.geometry.GeometryBatch;
+import org.rcsb.mbt.model.geometry.ImpostorBatch;
 
 import com.jogamp.opengl.util.gl2.GLUT;
 
@@ -72,10 +75,14 @@ import java.util.*;
  */
 public class BondGeometry
 	extends DisplayListGeometry
+	implements BatchedGeometry, ImpostorGeometry
 {
 	// Shared display lists: key="form:quality" value=Integer(displayList)
 	public static HashMap<String, DisplayLists> sharedDisplayLists = new HashMap<String, DisplayLists>( );
 
+	// Shared batch meshes: key="form:quality"
+	private static final HashMap<String, GeometryBatch.Mesh> sharedMeshes = new HashMap<String, GeometryBatch.Mesh>( );
+
 	// Attributes used to bound the quality setting.
 	private static final int minSlices = 6;
 	private static final int maxSlices = 20;
@@ -577,5 +584,132 @@ public class BondGeometry
 			glu.gluDeleteQuadric( disk );
 		}
 	}
-}
 
+	/**
+	 *  Adds the two split bond halves of the flat and thick forms. Points,
+	 *  lines and bond orders are left to the display lists.
+	 */
+	public boolean addToBatch( final StructureComponent structureComponent, final Style style, final GeometryBatch batch )
+	{
+		final Bond bond = (Bond)structureComponent;
+		final BondStyle bondStyle = (BondStyle)style;
+
+		final int form = this.getForm( );
+		if ( (form != Geometry.FORM_FLAT && form != Geometry.FORM_THICK) || this.showOrder ) {
+			return false;
+		}
+
+		final float quality = this.getQuality( );
+		final String meshKey = form + ":" + quality;
+		GeometryBatch.Mesh cylinder;
+		synchronized ( BondGeometry.sharedMeshes )
+		{
+			cylinder = BondGeometry.sharedMeshes.get( meshKey );
+			if ( cylinder == null )
+			{
+				if ( form == Geometry.FORM_FLAT ) {
+					cylinder = GeometryBatch.Mesh.cylinder( BondGeometry.minSlices );
+				} else {
+					cylinder = GeometryBatch.Mesh.cylinder(
+						BondGeometry.minSlices + (int) ((BondGeometry.maxSlices - BondGeometry.minSlices) * quality) );
+				}
+				BondGeometry.sharedMeshes.put( meshKey, cylinder );
+			}
+		}
+
+		final Atom atom0 = bond.getAtom(0);
+		final Atom atom1 = bond.getAtom(1);
+		final double center[] = {
+			(atom0.coordinate[0] + atom1.coordinate[0]) / 2.0,
+			(atom0.coordinate[1] + atom1.coordinate[1]) / 2.0,
+			(atom0.coordinate[2] + atom1.coordinate[2]) / 2.0
+		};
+
+		// the display list cylinder has radius 1, scaled by half the bond radius
+		final float radius = bondStyle.getBondRadius( bond ) / 2.0f;
+		final float color[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+		this.getBatchColor( bond, true, color );
+		batch.addCylinder( bond, cylinder, atom0.coordinate, center, radius, color );
+		this.getBatchColor( bond, false, color );
+		batch.addCylinder( bond, cylinder, center, atom1.coordinate, radius, color );
+		return true;
+	}
+
+	/**
+	 *  Adds the two split bond halves as cylinder impostors, under the same
+	 *  conditions as addToBatch.
+	 */
+	public boolean addToImpostors( final StructureComponent structureComponent, final Style style, final ImpostorBatch batch )
+	{
+		final Bond bond = (Bond)structureComponent;
+		final BondStyle bondStyle = (BondStyle)style;
+
+		final int form = this.getForm( );
+		if ( (form != Geometry.FORM_FLAT && form != Geometry.FORM_THICK) || this.showOrder ) {
+			return false;
+		}
+
+		final Atom atom0 = bond.getAtom(0);
+		final Atom atom1 = bond.getAtom(1);
+		final double center[] = {
+			(atom0.coordinate[0] + atom1.coordinate[0]) / 2.0,
+			(atom0.coordinate[1] + atom1.coordinate[1]) / 2.0,
+			(atom0.coordinate[2] + atom1.coordinate[2]) / 2.0
+		};
+
+		final float radius = bondStyle.getBondRadius( bond ) / 2.0f;
+		final float color[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+		this.getBatchColor( bond, true, color );
+		batch.addCylinder( bond, atom0.coordinate, center, radius, color );
+		this.getBatchColor( bond, false, color );
+		batch.addCylinder( bond, center, atom1.coordinate, radius, color );
+		return true;
+	}
+
+	public void updateImpostorColors( final StructureComponent structureComponent, final ImpostorBatch batch )
+	{
+		final int cylinder = batch.getCylinders( ).getFirst( structureComponent );
+		if ( cylinder >= 0 )
+		{
+			final Bond bond = (Bond)structureComponent;
+			this.getBatchColor( bond, true, this.batchColor );
+			batch.getCylinders( ).setColor( cylinder, this.batchColor );
+			this.getBatchColor( bond, false, this.batchColor );
+			batch.getCylinders( ).setColor( cylinder + 1, this.batchColor );
+		}
+	}
+
+	public void updateBatchColors( final StructureComponent structureComponent, final GeometryBatch batch )
+	{
+		final int part = batch.getFirstPart( structureComponent );
+		if ( part >= 0 )
+		{
+			final Bond bond = (Bond)structureComponent;
+			this.getBatchColor( bond, true, this.batchColor );
+			batch.setColor( part, this.batchColor );
+			this.getBatchColor( bond, false, this.batchColor );
+			batch.setColor( part + 1, this.batchColor );
+		}
+	}
+
+	private final float batchColor[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+
+	/**
+	 *  Gets the color resolved in the instance attributes, or from the style
+	 *  if the bond is not one of the structure map's.
+	 */
+	private void getBatchColor( final Bond bond, final boolean isLeftSideOfBond, final float color[] )
+	{
+		final StructureStyles ss = bond.getStructure( ).getStructureMap( ).getStructureStyles( );
+		if ( ! ss.getInstanceAttributes( ComponentType.BOND ).getColor( bond, isLeftSideOfBond ? 0 : 1, color ) )
+		{
+			final BondStyle style = (BondStyle) ss.getStyle( bond );
+			if ( isLeftSideOfBond ) {
+				style.getBondColor( bond, color );
+			} else {
+				style.getSplitBondColor( bond, color );
+			}
+		}
+		color[3] = 1.0f;
+	}
+}
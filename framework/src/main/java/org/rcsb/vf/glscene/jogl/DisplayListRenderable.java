@@ -167,6 +167,20 @@ public class DisplayListRenderable
 	 * Destructor - if 'deleteListsOnDeconstruction' is true, clean up lists and unique colors lists
 	 */
 	public final void destroy(final GL gl, final GLU glu, final GLUT glut) {
+		synchronized(this.lockObject) {
+			this.deleteDisplayLists(gl, glu, glut);
+		
+			JoglSceneNode sceneNode = (JoglSceneNode) structureComponent.structure.getStructureMap().getUData();
+			sceneNode.removeLabel(this.structureComponent);
+		}
+	}
+
+
+	/**
+	 * Clean up lists (if 'deleteListsOnDeconstruction' is true) and unique colors lists,
+	 * e.g. when the geometry has been moved to a VertexBufferBatch.
+	 */
+	public final void deleteDisplayLists(final GL gl, final GLU glu, final GLUT glut) {
 		synchronized(this.lockObject) {
 			if(this.displayLists != null) {
 				for(int i = 0; i < this.displayLists.length; i++) {
@@ -178,10 +192,8 @@ public class DisplayListRenderable
 			//			this.model.getStateOrganizer().removeArrayLists(this.arrayLists[i]);
 					}
 				}
+				this.displayLists = null;
 			}
-		
-			JoglSceneNode sceneNode = (JoglSceneNode) structureComponent.structure.getStructureMap().getUData();
-			sceneNode.removeLabel(this.structureComponent);
 		}
 	}
 
@@ -165,6 +165,7 @@ WindowListener, IStructureStylesEventListener {
 	GLCanvas drawableViewer = null;
 
 	public List<DisplayListRenderable> renderablesToDestroy = Collections.synchronizedList(new ArrayList<DisplayListRenderable>());
+	public List<VertexBufferBatch> vertexBuffersToDestroy = Collections.synchronizedList(new ArrayList<VertexBufferBatch>());
 
 	public List<Integer> simpleDisplayListsToDestroy = Collections.synchronizedList(new ArrayList<Integer>());
 
@@ -219,6 +220,15 @@ WindowListener, IStructureStylesEventListener {
 	private double fps = 0.0f;
 	 * **/
 
+	// Scene drawing time, averaged over a second and reported in debug mode
+	private long frameTimeSum = 0;
+	private int frameTimeCount = 0;
+	private long frameTimeReported = System.nanoTime();
+
+	// Atom coordinates drawn as points while structures are being loaded
+	private final List<float[]> previewCoordinates = new ArrayList<float[]>();
+	private final double[][] previewBounds = new double[2][3];
+
 	private boolean isScreenshotRequested = false;
 
 	private BufferedImage screenshot = null;
@@ -1046,6 +1056,14 @@ WindowListener, IStructureStylesEventListener {
 			renderablesToDestroy.clear();
 		}
 
+		synchronized (this.vertexBuffersToDestroy)
+		{
+			for (VertexBufferBatch vertexBuffer : vertexBuffersToDestroy)
+				vertexBuffer.destroy(gl);
+
+			vertexBuffersToDestroy.clear();
+		}
+
 		synchronized (this.simpleDisplayListsToDestroy)
 		{
 			for (Integer list : simpleDisplayListsToDestroy)
@@ -1172,6 +1190,7 @@ WindowListener, IStructureStylesEventListener {
 						this.viewCenter[0], this.viewCenter[1], this.viewCenter[2],
 						this.viewUp[0], this.viewUp[1], this.viewUp[2]);
 
+			long frameStart = System.nanoTime();
 			StructureList structures = AppBase.sgetModel().getStructures();
 			for (Structure structure : structures)
 			{
@@ -1195,6 +1214,16 @@ WindowListener, IStructureStylesEventListener {
 
 				// gl.glFlush();
 			}
+
+			if (!isPick)
+				this.drawCoordinatePreview(gl2);
+
+			if (!isPick && DebugState.isDebug())
+			{
+				// wait for the GL, so that the time includes the rendering
+				gl.glFinish();
+				this.reportFrameTime(System.nanoTime() - frameStart);
+			}
 		}
 
 		try
@@ -1285,6 +1314,104 @@ WindowListener, IStructureStylesEventListener {
 		 * **/
 	}
 
+	/**
+	 * Draws the preview coordinates as unlit points.
+	 */
+	private void drawCoordinatePreview(final GL2 gl2)
+	{
+		synchronized (this.previewCoordinates)
+		{
+			if (this.previewCoordinates.isEmpty())
+				return;
+
+			if (this.supportsShaderPrograms && currentProgram != 0)
+				gl2.glUseProgram(0);
+			gl2.glDisable(GL2.GL_LIGHTING);
+			gl2.glPointSize(2.0f);
+			gl2.glColor3f(0.7f, 0.7f, 0.7f);
+			gl2.glBegin(GL.GL_POINTS);
+			for (final float[] coordinates : this.previewCoordinates)
+				for (int i = 0; i < coordinates.length; i += 3)
+					gl2.glVertex3f(coordinates[i], coordinates[i + 1], coordinates[i + 2]);
+			gl2.glEnd();
+			gl2.glEnable(GL2.GL_LIGHTING);
+			if (this.supportsShaderPrograms && currentProgram != 0)
+				gl2.glUseProgram(currentProgram);
+		}
+	}
+
+	/**
+	 * Shows the atoms of a data set that is still being loaded as points, and
+	 * points the camera at all the coordinates shown so far. Can be called on
+	 * any thread.
+	 * 
+	 * @param coordinates - x, y, z of each atom
+	 */
+	public void addCoordinatePreview(final float[] coordinates)
+	{
+		if (coordinates.length == 0)
+			return;
+
+		final double[] center = new double[3];
+		final double[] eye = new double[3];
+		synchronized (this.previewCoordinates)
+		{
+			if (this.previewCoordinates.isEmpty())
+			{
+				for (int j = 0; j < 3; j++)
+					this.previewBounds[0][j] = this.previewBounds[1][j] = coordinates[j];
+			}
+
+			for (int i = 0; i < coordinates.length; i += 3)
+				for (int j = 0; j < 3; j++)
+				{
+					this.previewBounds[0][j] = Math.min(this.previewBounds[0][j], coordinates[i + j]);
+					this.previewBounds[1][j] = Math.max(this.previewBounds[1][j], coordinates[i + j]);
+				}
+			this.previewCoordinates.add(coordinates);
+
+			// as SceneController.resetView() does for the loaded structures
+			for (int j = 0; j < 3; j++)
+				eye[j] = center[j] = (this.previewBounds[0][j] + this.previewBounds[1][j]) / 2;
+			eye[2] += ArrayLinearAlgebra.distance(this.previewBounds[0], this.previewBounds[1]);
+		}
+		this.lookAt(eye, center, new double[] { 0.0, 1.0, 0.0 });
+	}
+
+	/**
+	 * Removes the preview coordinates, once the structures are loaded or the
+	 * load has failed.
+	 */
+	public void clearCoordinatePreview()
+	{
+		synchronized (this.previewCoordinates)
+		{
+			if (this.previewCoordinates.isEmpty())
+				return;
+
+			this.previewCoordinates.clear();
+		}
+		this.requestRepaint();
+	}
+
+	/**
+	 * Adds the drawing time of a frame and prints the average drawing time
+	 * once a second, e.g. to compare renderings of large assemblies.
+	 */
+	private void reportFrameTime(final long nanos)
+	{
+		this.frameTimeSum += nanos;
+		this.frameTimeCount++;
+		final long now = System.nanoTime();
+		if (now - this.frameTimeReported >= 1000000000L)
+		{
+			System.err.println("Frame time: " + this.frameTimeSum / this.frameTimeCount / 1000000.0 + " ms, " + this.frameTimeCount + " frames");
+			this.frameTimeSum = 0;
+			this.frameTimeCount = 0;
+			this.frameTimeReported = now;
+		}
+	}
+
 	// private boolean resizeFinished = false;
 
 	private void reportAtComponent(final StructureComponent structureComponent) {
@@ -1399,11 +1526,16 @@ WindowListener, IStructureStylesEventListener {
 	{
 		final GL gl = drawable.getGL();
 
-		this.supportsShaderPrograms = AppBase.getApp().allowShaders() &&
+		// GlslProgram is used by opt-in features (e.g. impostors), so it
+		// doesn't wait for the app to allow the per pixel shader.
+		GlslProgram.supportsShaderPrograms =
 		gl.isFunctionAvailable("glCreateShader") &&
 		gl.isFunctionAvailable("glAttachShader") &&
 		gl.isFunctionAvailable("glLinkProgram") &&
 		gl.isFunctionAvailable("glUseProgram");
+
+		this.supportsShaderPrograms = AppBase.getApp().allowShaders() &&
+			GlslProgram.supportsShaderPrograms;
 	}
 
 	// -----------------------------------------------------------------------------
@@ -2110,7 +2242,7 @@ WindowListener, IStructureStylesEventListener {
 
 	public void processStructureStylesEvent(
 			final StructureStylesEvent structureStylesEvent) {
-		if (structureStylesEvent.attribute == StructureStyles.ATTRIBUTE_SELECTION) {
+		if (structureStylesEvent.isChanged(StructureStyles.ATTRIBUTE_SELECTION)) {
 			this.requestRepaint();
 		}
 	}
@@ -0,0 +1,63 @@
+/*
+ * Ray-cast open cylinder impostors for the bonds of a VertexBufferBatch,
+ * shaded as in ImpostorSphere.frag.
+ */
+
+varying vec3 V;
+varying vec3 rayorigin;
+varying vec3 base;
+varying vec3 axis;
+varying float radsq;
+
+uniform int pickmode;            // 1 while picking
+
+vec4 shade(vec3 N, vec3 pnt, vec3 raydir, vec4 color) {
+  vec3 L = gl_LightSource[0].position.w == 0.0 ?
+    normalize(vec3(gl_LightSource[0].position)) :
+    normalize(vec3(gl_LightSource[0].position) - pnt);
+  vec4 result = (gl_LightModel.ambient + gl_LightSource[0].ambient) * color;
+  float NdotL = dot(N, L);
+  if (NdotL > 0.0) {
+    result += gl_LightSource[0].diffuse * color * NdotL;
+    float NdotH = max(dot(N, normalize(L - raydir)), 0.0);
+    result += gl_FrontMaterial.specular * gl_LightSource[0].specular *
+      pow(NdotH, gl_FrontMaterial.shininess);
+  }
+  result.a = color.a;
+  return result;
+}
+
+void main(void) {
+  vec3 raydir = normalize(V);
+  float len = length(axis);
+  vec3 a = axis / len;
+
+  // nearest intersection with the infinite cylinder: solve for the ray
+  // and its origin projected onto the plane normal to the axis
+  vec3 oc = rayorigin - base;
+  vec3 dp = raydir - dot(raydir, a) * a;
+  vec3 op = oc - dot(oc, a) * a;
+  float qa = dot(dp, dp);
+  float qb = dot(dp, op);
+  float qc = dot(op, op) - radsq;
+  float disc = qb*qb - qa*qc;
+  if (qa <= 0.0 || disc <= 0.0)
+    discard;
+  float tnear = (-qb - sqrt(disc)) / qa;
+  if (tnear < 0.0)
+    discard;
+
+  // clip to the ends
+  vec3 pnt = rayorigin + tnear * raydir;
+  float h = dot(pnt - base, a);
+  if (h < 0.0 || h > len)
+    discard;
+
+  vec4 clip = gl_ProjectionMatrix * vec4(pnt, 1.0);
+  gl_FragDepth = 0.5 * (gl_DepthRange.diff * clip.z / clip.w + gl_DepthRange.near + gl_DepthRange.far);
+
+  if (pickmode == 1)
+    gl_FragColor = gl_Color;
+  else
+    gl_FragColor = shade(normalize(pnt - base - h * a), pnt, raydir, gl_Color);
+}
@@ -0,0 +1,56 @@
+/*
+ * Ray-cast cylinder impostors for the bonds of a VertexBufferBatch. Every
+ * vertex carries its cylinder, so that all cylinders of a chain are drawn
+ * in one call:
+ *
+ *   gl_MultiTexCoord0   end 0 (xyz) and radius (w) in model coordinates
+ *   gl_MultiTexCoord1   end 1 (xyz) in model coordinates
+ *   gl_Vertex.xy        corner of the quad: x is 0 at end 0 and 1 at
+ *                       end 1, y is -1 or 1 across the cylinder
+ *
+ * The quad lies through the axis, across the view direction, and reaches
+ * one and a half radii past the axis and its ends, so that it also covers
+ * a cylinder seen end on.
+ */
+
+varying vec3 V;                  // view direction vector
+varying vec3 rayorigin;          // eye space ray origin
+varying vec3 base;               // eye space end 0
+varying vec3 axis;               // eye space end 1 - end 0
+varying float radsq;             // eye space radius squared
+
+void main(void) {
+  vec4 e0 = gl_ModelViewMatrix * vec4(gl_MultiTexCoord0.xyz, 1.0);
+  vec4 e1 = gl_ModelViewMatrix * vec4(gl_MultiTexCoord1.xyz, 1.0);
+  base = vec3(e0) / e0.w;
+  axis = vec3(e1) / e1.w - base;
+
+  float radius = gl_MultiTexCoord0.w * length(vec3(gl_ModelViewMatrix[0]));
+  radsq = radius * radius;
+
+  bool perspective = gl_ProjectionMatrix[2][3] != 0.0;
+  vec3 view = perspective ? normalize(base + 0.5 * axis) : vec3(0.0, 0.0, -1.0);
+
+  // across the cylinder on screen, and along it; counter-clockwise
+  vec3 across = cross(axis, view);
+  if (dot(across, across) < 1.0e-12)
+    across = cross(abs(view.x) < 0.9 ? vec3(1.0, 0.0, 0.0) : vec3(0.0, 1.0, 0.0), view);
+  across = normalize(across);
+  vec3 along = cross(view, across);
+
+  float s = gl_Vertex.x;
+  vec3 ecpos = base + s * axis +
+    (1.5 * radius) * ((2.0 * s - 1.0) * along + gl_Vertex.y * across);
+  gl_Position = gl_ProjectionMatrix * vec4(ecpos, 1.0);
+  gl_ClipVertex = vec4(ecpos, 1.0);
+
+  if (perspective) {
+    V = ecpos;
+    rayorigin = vec3(0.0, 0.0, 0.0);
+  } else {
+    V = vec3(0.0, 0.0, -1.0);
+    rayorigin = vec3(ecpos.xy, 0.0);
+  }
+
+  gl_FrontColor = gl_Color;
+}
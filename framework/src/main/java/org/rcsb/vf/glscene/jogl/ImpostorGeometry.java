@@ -24,15 +24,6 @@
  * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
  * A Modular Platform for Developing Molecular Visualization
  * Applications. BMC Bioinformatics, 6:21.
- * 
- * The code for surface generation was contributed by Dong Xu
- * and Yang Zhang at the University of Michigan, Ann Arbor. This
- * class represents the Java version translated from the original C++
- * code (http://zhanglab.ccmb.med.umich.edu/EDTSurf).
- * 
- * Please reference D. Xu, Y. Zhang (2009) 
- * Generating Triangulated Macromolecular Surfaces by Euclidean 
- * Distance Transform. PLoS ONE 4(12): e8140.
  *
  * The MBT project was funded as part of the National Institutes
  * of Health PPG grant number 1-P01-GM63208 and its National
@@ -49,20 +40,35 @@
  * (NINDS), and the National Institute of Diabetes and Digestive
  * and Kidney Diseases (NIDDK).
  *
- * Created on 2011/11/08
- */
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.vf.glscene.jogl;
+
+import org.rcsb.mbt.model.StructureComponent;
+import org.rcsb.mbt.model.attributes.Style;
+import org.rcsb.mbt.model.geometry.ImpostorBatch;
 
-package org.rcsb.mbt.surface.datastructure;
 
 /**
- * @author Dong Xu (original C++ version)
- * @author Peter Rose (converted to Java)
+ *  Implemented by geometries which can be drawn as ray-cast sphere and
+ *  cylinder impostors in a VertexBufferBatch. If addToImpostors returns
+ *  false, the renderable is batched as triangles (BatchedGeometry) or drawn
+ *  with its display lists.
  */
-public class VolumePixel {
-	public int atomid;
-	public Object reference;
-	public float distance;
-	public boolean inout;
-	public boolean isbound;
-	public boolean isdone;	
+public interface ImpostorGeometry
+{
+	/**
+	 *  Adds the spheres and cylinders of the component to the batch,
+	 *  colored as updateImpostorColors would color them.
+	 *  @return	false if the component can not be drawn with impostors
+	 */
+	public boolean addToImpostors( StructureComponent structureComponent, Style style, ImpostorBatch batch );
+
+	/**
+	 *  Sets the colors of the impostors of the component from the instance
+	 *  attributes of the structure's styles. Called when the attributes
+	 *  have changed.
+	 */
+	public void updateImpostorColors( StructureComponent structureComponent, ImpostorBatch batch );
 }
@@ -0,0 +1,53 @@
+/*
+ * Ray-cast sphere impostors for the atoms of a VertexBufferBatch, after
+ * VMDSphere.frag. Lit by GL light 0 with the vertex color as ambient and
+ * diffuse material, as the display lists are (GL_COLOR_MATERIAL), and the
+ * specular and shininess of the front material. In pick mode the unlit
+ * vertex color is written.
+ */
+
+varying vec3 V;
+varying vec3 spherepos;
+varying vec3 rayorigin;
+varying float sphereradsq;
+
+uniform int pickmode;            // 1 while picking
+
+vec4 shade(vec3 N, vec3 pnt, vec3 raydir, vec4 color) {
+  vec3 L = gl_LightSource[0].position.w == 0.0 ?
+    normalize(vec3(gl_LightSource[0].position)) :
+    normalize(vec3(gl_LightSource[0].position) - pnt);
+  vec4 result = (gl_LightModel.ambient + gl_LightSource[0].ambient) * color;
+  float NdotL = dot(N, L);
+  if (NdotL > 0.0) {
+    result += gl_LightSource[0].diffuse * color * NdotL;
+    float NdotH = max(dot(N, normalize(L - raydir)), 0.0);
+    result += gl_FrontMaterial.specular * gl_LightSource[0].specular *
+      pow(NdotH, gl_FrontMaterial.shininess);
+  }
+  result.a = color.a;
+  return result;
+}
+
+void main(void) {
+  vec3 raydir = normalize(V);
+  vec3 spheredir = spherepos - rayorigin;
+
+  // nearest ray-sphere intersection, as in VMDSphere.frag
+  float b = dot(raydir, spheredir);
+  float disc = b*b + sphereradsq - dot(spheredir, spheredir);
+  if (disc <= 0.0)
+    discard;
+  float tnear = b - sqrt(disc);
+  if (tnear < 0.0)
+    discard;
+
+  vec3 pnt = rayorigin + tnear * raydir;
+  vec4 clip = gl_ProjectionMatrix * vec4(pnt, 1.0);
+  gl_FragDepth = 0.5 * (gl_DepthRange.diff * clip.z / clip.w + gl_DepthRange.near + gl_DepthRange.far);
+
+  if (pickmode == 1)
+    gl_FragColor = gl_Color;
+  else
+    gl_FragColor = shade(normalize(pnt - spherepos), pnt, raydir, gl_Color);
+}
@@ -0,0 +1,42 @@
+/*
+ * Ray-cast sphere impostors for the atoms of a VertexBufferBatch, after
+ * VMDSphere.vert. VMDSphere takes the sphere from the model view matrix, so
+ * it needs one draw call per sphere; here every vertex carries its sphere,
+ * so that all spheres of a chain are drawn in one call:
+ *
+ *   gl_MultiTexCoord0   center (xyz) and radius (w) in model coordinates
+ *   gl_Vertex.xy        corner of the quad, -1 or 1
+ *
+ * The quad faces the viewer through the center of the sphere, and is made
+ * larger than the sphere, which looks slightly larger in perspective.
+ */
+
+varying vec3 V;                  // view direction vector
+varying vec3 spherepos;          // eye space sphere center
+varying vec3 rayorigin;          // eye space ray origin
+varying float sphereradsq;       // eye space sphere radius squared
+
+void main(void) {
+  vec4 spos = gl_ModelViewMatrix * vec4(gl_MultiTexCoord0.xyz, 1.0);
+  spherepos = vec3(spos) / spos.w;
+
+  // the model view may scale, the biological unit operators do not
+  float radius = gl_MultiTexCoord0.w * length(vec3(gl_ModelViewMatrix[0]));
+  sphereradsq = radius * radius;
+
+  vec3 ecpos = spherepos + vec3(gl_Vertex.xy * (1.5 * radius), 0.0);
+  gl_Position = gl_ProjectionMatrix * vec4(ecpos, 1.0);
+  gl_ClipVertex = vec4(ecpos, 1.0);
+
+  if (gl_ProjectionMatrix[2][3] != 0.0) {
+    // perspective
+    V = ecpos;
+    rayorigin = vec3(0.0, 0.0, 0.0);
+  } else {
+    // orthographic
+    V = vec3(0.0, 0.0, -1.0);
+    rayorigin = vec3(ecpos.xy, 0.0);
+  }
+
+  gl_FrontColor = gl_Color;
+}
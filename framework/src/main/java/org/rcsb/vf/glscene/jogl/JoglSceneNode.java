@@ -48,10 +48,13 @@ package org.rcsb.vf.glscene.jogl;
 import java.nio.FloatBuffer;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import javax.media.opengl.GL;
@@ -71,6 +74,7 @@ import org.rcsb.mbt.model.Surface;
 import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
 import org.rcsb.mbt.model.StructureMap.BiologicUnitTransforms;
 import org.rcsb.mbt.model.attributes.ChainStyle;
+import org.rcsb.mbt.model.geometry.ModelTransformationList;
 import org.rcsb.mbt.model.util.DebugState;
 import org.rcsb.vf.controllers.app.VFAppBase;
 
@@ -87,6 +91,37 @@ public class JoglSceneNode
 	public class RenderablesMap extends LinkedHashMap<StructureComponent, DisplayListRenderable>
 	{
 		private static final long serialVersionUID = -3286356986071701750L;	
+
+		// incremented on every change, so that the chain batches are regrouped
+		private int version = 0;
+
+		@Override
+		public DisplayListRenderable put(StructureComponent key, DisplayListRenderable value)
+		{
+			version++;
+			return super.put(key, value);
+		}
+
+		@Override
+		public void putAll(Map<? extends StructureComponent, ? extends DisplayListRenderable> map)
+		{
+			version++;
+			super.putAll(map);
+		}
+
+		@Override
+		public DisplayListRenderable remove(Object key)
+		{
+			version++;
+			return super.remove(key);
+		}
+
+		@Override
+		public void clear()
+		{
+			version++;
+			super.clear();
+		}
 	};
 	public interface RenderablesIt extends Iterator<StructureComponent>{}
 	
@@ -95,6 +130,21 @@ public class JoglSceneNode
 	
 	protected boolean allowLighting = false;
 
+	// renderables grouped by chain id, in drawing order, for the
+	// version of the renderables they were grouped from
+	private Map<String, List<DisplayListRenderable>> chainBatches = null;
+	private int chainBatchesVersion = -1;
+
+	// vertex buffers of the chain batches, if VertexBufferBatch.isEnabled,
+	// and the version of the renderables they were last checked against
+	private final Map<String, VertexBufferBatch> vertexBuffers = new HashMap<String, VertexBufferBatch>();
+	private int vertexBuffersVersion = -1;
+
+	// GL matrices of the transformation lists, converted on first use. The
+	// lists are complete once the structure is loaded.
+	private final Map<ModelTransformationList, GLTransformationList> transformations =
+		new IdentityHashMap<ModelTransformationList, GLTransformationList>();
+
 	// StructureComponent,
 
 	// value: MbtRenderable
@@ -190,14 +240,14 @@ public class JoglSceneNode
 									// look for biologic unit transforms
 				{
 					StructureMap.BiologicUnitTransforms bu = sm.getBiologicUnitTransforms();
-					matrices = GLTransformationList.fromModelTransformationList(bu.getBiologicalUnitGenerationMatrixVector());
+					matrices = getTransformations(bu.getBiologicalUnitGenerationMatrixVector());
 				}
 				
 				else if (sm.hasNonCrystallographicTransforms())
 									// look for non crystallographic transforms
 				{
 					StructureMap.NonCrystallographicTransforms nc = sm.getNonCrystallographicTransforms();
-					matrices = GLTransformationList.fromModelTransformationList(nc.getNonCrystallographicTranslations());
+					matrices = getTransformations(nc.getNonCrystallographicTranslations());
 				}
 	
 				if (matrices == null)
@@ -312,6 +362,10 @@ public class JoglSceneNode
 				this.renderables.clear();
 				// this.model.getStateOrganizer().clearData();
 			}
+			synchronized (viewer.vertexBuffersToDestroy) {
+				viewer.vertexBuffersToDestroy.addAll(this.vertexBuffers.values());
+				this.vertexBuffers.clear();
+			}
 		}
 
 		viewer.requestRepaint();
@@ -491,74 +545,83 @@ public class JoglSceneNode
 
 			synchronized (this.renderables)
 			{
-				for (StructureComponent sc : renderables.keySet())
+				if (buMatrices != null || VertexBufferBatch.isEnabled)
 				{
-					DisplayListRenderable renderable = renderables.get(sc);
-					
-					if (buMatrices != null)
+					// the renderables of a chain are drawn together under each
+					// of its operators, so that the matrix is set once per
+					// chain and operator
+					for (Map.Entry<String, List<DisplayListRenderable>> batch : getChainBatches().entrySet())
 					{
-						String chainId = null;
-						if (sc.getStructureComponentType() == ComponentType.ATOM) {
-							final Atom a = (Atom) sc;
-							chainId = a.chain_id;
-						} else if (sc.getStructureComponentType() == ComponentType.BOND) {
-							final Bond b = (Bond) sc;
-							chainId = b.getAtom(0).chain_id;
-						} else if (sc.getStructureComponentType() == ComponentType.CHAIN) {
-							final Chain c = (Chain) sc;
-							chainId = c.getChainId();
-						}  else if (sc.getStructureComponentType() == ComponentType.SURFACE) {
-							final Surface s = (Surface) sc;
-							chainId = s.getChain().getChainId();
-						} 
-
-						// if the chain id is not listed, don't draw this.
-						if (VFAppBase.sgetSceneController().showAsymmetricUnitOnly())
+						GLTransformationList matricesVec = null;
+						if (buMatrices != null)
+						{
+							// if the chain id is not listed, don't draw this.
+							matricesVec = getTransformations(buMatrices.get(batch.getKey()));
+							if (matricesVec == null)
+								continue;
+						}
+
+						List<DisplayListRenderable> chainRenderables = batch.getValue();
+						VertexBufferBatch vertexBuffer = null;
+						if (VertexBufferBatch.isEnabled)
 						{
-							try {
-								gl2.glPushMatrix();
-								renderable.draw(gl, glu, glut, isPick);
-							} catch (Exception e)
+							vertexBuffer = this.vertexBuffers.get(batch.getKey());
+							if (vertexBuffer == null)
 							{
-								if (DebugState.isDebug())
-									e.printStackTrace();
+								vertexBuffer = new VertexBufferBatch();
+								this.vertexBuffers.put(batch.getKey(), vertexBuffer);
 							}
-							gl2.glPopMatrix();
+							vertexBuffer.prepare(gl, glu, glut, chainRenderables, isPick);
+							chainRenderables = vertexBuffer.getUnbatchedRenderables();
 						}
-						
-						else
+
+						final int transformationCount = matricesVec == null ? 1 : matricesVec.size();
+						for (int i = 0; i < transformationCount; i++)
 						{
-							final GLTransformationList matricesVec =
-								GLTransformationList.fromModelTransformationList(buMatrices.get(chainId));
-							
-							if (matricesVec != null) {
-								for (int i = 0; i < matricesVec.size(); i++) {
-									final FloatBuffer transformation = matricesVec.get(i);
-
-									try {
-										gl2.glPushMatrix();
-										transformation.rewind();
-										gl2.glMultMatrixf(transformation);
-										renderable.draw(gl, glu, glut, isPick);
-									} catch (Exception e)
-									{
-										if (DebugState.isDebug())
-											e.printStackTrace();
-									}
-									gl2.glPopMatrix();
+							gl2.glPushMatrix();
+							if (matricesVec != null)
+							{
+								final FloatBuffer transformation = matricesVec.get(i);
+								transformation.rewind();
+								gl2.glMultMatrixf(transformation);
+							}
+							if (vertexBuffer != null)
+								vertexBuffer.draw(gl, isPick);
+							for (DisplayListRenderable renderable : chainRenderables)
+							{
+								try {
+									renderable.draw(gl, glu, glut, isPick);
+								} catch (Exception e)
+								{
+									if (DebugState.isDebug())
+										e.printStackTrace();
 								}
 							}
+							gl2.glPopMatrix();
+
+							// pick cycles do not need to finish, and paints get priority.
+							if (isPick && viewer.needsRepaint) {
+								gl2.glPopMatrix(); // make sure we clean up the stack...
+								return false;
+							}
 						}
-//					System.err.println("End " + sc.getStructureComponentType() + "\n\n");
 					}
-					
-					else
+
+					if (VertexBufferBatch.isEnabled)
+						this.deleteUnusedVertexBuffers(gl);
+				}
+
+				else
+				{
+					for (DisplayListRenderable renderable : renderables.values())
+					{
 						renderable.draw(gl, glu, glut, isPick);
 
-					// pick cycles do not need to finish, and paints get priority.
-					if (isPick && viewer.needsRepaint) {
-						gl2.glPopMatrix(); // make sure we clean up the stack...
-						return false;
+						// pick cycles do not need to finish, and paints get priority.
+						if (isPick && viewer.needsRepaint) {
+							gl2.glPopMatrix(); // make sure we clean up the stack...
+							return false;
+						}
 					}
 				}
 			}
@@ -613,6 +676,98 @@ public class JoglSceneNode
 		return true;
 	}
 	
+	/**
+	 * Returns the GL matrices of the transformation list, converting them on
+	 * the first call for the list.
+	 * 
+	 * @param modelList - may be null
+	 * @return - null if the list is null
+	 */
+	protected GLTransformationList getTransformations(final ModelTransformationList modelList)
+	{
+		if (modelList == null)
+			return null;
+
+		synchronized (this.transformations)
+		{
+			GLTransformationList glList = this.transformations.get(modelList);
+			if (glList == null)
+			{
+				glList = GLTransformationList.fromModelTransformationList(modelList);
+				this.transformations.put(modelList, glList);
+			}
+			return glList;
+		}
+	}
+
+	/**
+	 * Returns the renderables grouped by their chain id, regrouping them if
+	 * they have changed. Must be called while holding the renderables lock.
+	 */
+	private Map<String, List<DisplayListRenderable>> getChainBatches()
+	{
+		if (this.chainBatches == null || this.chainBatchesVersion != this.renderables.version)
+		{
+			this.chainBatches = new LinkedHashMap<String, List<DisplayListRenderable>>();
+			for (Map.Entry<StructureComponent, DisplayListRenderable> entry : this.renderables.entrySet())
+			{
+				final String chainId = getChainId(entry.getKey());
+				List<DisplayListRenderable> batch = this.chainBatches.get(chainId);
+				if (batch == null)
+				{
+					batch = new ArrayList<DisplayListRenderable>();
+					this.chainBatches.put(chainId, batch);
+				}
+				batch.add(entry.getValue());
+			}
+			this.chainBatchesVersion = this.renderables.version;
+		}
+		return this.chainBatches;
+	}
+
+	/**
+	 * Deletes the vertex buffers of chains which no longer have renderables.
+	 * Must be called while holding the renderables lock.
+	 */
+	private void deleteUnusedVertexBuffers(final GL gl)
+	{
+		if (this.vertexBuffersVersion == this.chainBatchesVersion)
+			return;
+
+		final Iterator<Map.Entry<String, VertexBufferBatch>> it = this.vertexBuffers.entrySet().iterator();
+		while (it.hasNext())
+		{
+			final Map.Entry<String, VertexBufferBatch> entry = it.next();
+			if (!this.chainBatches.containsKey(entry.getKey()))
+			{
+				entry.getValue().destroy(gl);
+				it.remove();
+			}
+		}
+		this.vertexBuffersVersion = this.chainBatchesVersion;
+	}
+
+	/**
+	 * Returns the id of the chain the biological unit operators of the
+	 * component are listed by, or null for other kinds of components.
+	 */
+	private static String getChainId(final StructureComponent sc)
+	{
+		if (sc.getStructureComponentType() == ComponentType.ATOM)
+			return ((Atom) sc).chain_id;
+
+		else if (sc.getStructureComponentType() == ComponentType.BOND)
+			return ((Bond) sc).getAtom(0).chain_id;
+
+		else if (sc.getStructureComponentType() == ComponentType.CHAIN)
+			return ((Chain) sc).getChainId();
+
+		else if (sc.getStructureComponentType() == ComponentType.SURFACE)
+			return ((Surface) sc).getChain().getChainId();
+
+		return null;
+	}
+
 	/**
 	 * Called by 'innerDraw()' draw objects by type.
 	 * This can be overridden to support application-defined types.
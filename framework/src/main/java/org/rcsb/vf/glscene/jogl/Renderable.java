@@ -83,6 +83,22 @@ public class Renderable
 	}
 
 
+	public synchronized final boolean isDirty( )
+	{
+		return this.dirty;
+	}
+
+
+	/**
+	 *  Set the dirty state to false, for renderables whose geometry is
+	 *  regenerated elsewhere (e.g. in a VertexBufferBatch).
+	 */
+	public synchronized final void clearDirty( )
+	{
+		this.dirty = false;
+	}
+
+
 	/**
 	 *  If the renderable is dirty, regenerate the display list and set the
 	 *  dirty state to false, then return the display list. This method
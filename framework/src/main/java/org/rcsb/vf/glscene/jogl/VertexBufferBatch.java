@@ -0,0 +1,587 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.vf.glscene.jogl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.glu.GLU;
+
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.model.attributes.InstanceAttributes;
+import org.rcsb.mbt.model.attributes.StructureStyles;
+import org.rcsb.mbt.model.geometry.GeometryBatch;
+import org.rcsb.mbt.model.geometry.ImpostorBatch;
+import org.rcsb.mbt.model.util.DebugState;
+import org.rcsb.mbt.model.util.Status;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.gl2.GLUT;
+
+
+/**
+ *  Draws the renderables of one chain with a few vertex buffers and draw
+ *  calls, instead of one display list call per atom and bond half. When the
+ *  chain's renderables change or one of them is dirty, the renderables whose
+ *  geometry is an ImpostorGeometry are packed into an ImpostorBatch (if
+ *  impostors are switched on and the shaders load), those whose geometry is
+ *  a BatchedGeometry into a GeometryBatch, and all others are handed back
+ *  to the scene node to be drawn with their display lists.
+ *  <P>
+ *  Each batched component gets one unique pick color (through a
+ *  DisplayLists with no lists of its own), which is written to a second
+ *  color buffer that is drawn in pick mode. Colors come from the
+ *  InstanceAttributes of the structure's styles: they are copied into the
+ *  batch only when the attributes have changed, and only the range that
+ *  changed is uploaded, so recoloring does not repack the chain. Components
+ *  hidden in the attributes are left out of the batch, and the chain is
+ *  repacked when one of them is shown or a batched one hidden.
+ *  <P>
+ *  Switched on with the system property org.rcsb.vf.vertexBufferBatches,
+ *  or org.rcsb.vf.impostors for impostors; both are off by default. To
+ *  compare the paths, start a viewer with -debug, which prints the average
+ *  drawing time once a second, once without either property and once with
+ *  each of them. A warning is shown if the impostor shaders don't load and
+ *  the triangle batches are drawn instead.
+ */
+public class VertexBufferBatch
+{
+	public static final boolean useImpostors = Boolean.getBoolean("org.rcsb.vf.impostors");
+	public static final boolean isEnabled = useImpostors || Boolean.getBoolean("org.rcsb.vf.vertexBufferBatches");
+
+	// the impostor shaders, shared by all batches; loaded on first use
+	private static final GlslProgram sphereProgram = new GlslProgram("ImpostorSphere.vert", "ImpostorSphere.frag");
+	private static final GlslProgram cylinderProgram = new GlslProgram("ImpostorCylinder.vert", "ImpostorCylinder.frag");
+	private static boolean impostorProgramsFailed = false;
+
+	private static final int VERTICES = 0;
+	private static final int COLORS = 1;
+	private static final int PICK_COLORS = 2;
+	private static final int INDICES = 3;
+	private static final int SPHERES = 4;
+	private static final int SPHERE_COLORS = 5;
+	private static final int SPHERE_PICK_COLORS = 6;
+	private static final int CYLINDERS = 7;
+	private static final int CYLINDER_COLORS = 8;
+	private static final int CYLINDER_PICK_COLORS = 9;
+
+	private final GeometryBatch batch = new GeometryBatch();
+	private final ImpostorBatch impostors = new ImpostorBatch();
+
+	// the renderables the batch was built from, and how they were split
+	private List<DisplayListRenderable> renderables = null;
+	private final List<DisplayListRenderable> batched = new ArrayList<DisplayListRenderable>();
+	private final List<DisplayListRenderable> impostorRenderables = new ArrayList<DisplayListRenderable>();
+	private final List<DisplayListRenderable> unbatched = new ArrayList<DisplayListRenderable>();
+	private final List<DisplayListRenderable> hidden = new ArrayList<DisplayListRenderable>();
+
+	// the versions of the instance attributes the colors were copied from
+	private int atomAttributesVersion = -1;
+	private int bondAttributesVersion = -1;
+
+	// holders of the unique pick colors, one per batched renderable
+	private final List<DisplayLists> pickLists = new ArrayList<DisplayLists>();
+
+	private final int[] buffers = { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+	private boolean hasBuffers = false;
+
+	/**
+	 * Rebuilds the batch if the renderables or their visibility have changed,
+	 * or else copies the colors of the structure's instance attributes if
+	 * they have changed, and uploads those that did. Called once per frame,
+	 * before the batch is drawn under each of the chain's transformations.
+	 * 
+	 * @param renderables - a new list whenever the chain's renderables change
+	 */
+	public void prepare(final GL gl, final GLU glu, final GLUT glut,
+			final List<DisplayListRenderable> renderables, final boolean isPick)
+	{
+		final StructureStyles ss = renderables.isEmpty() ? null :
+			renderables.get(0).structureComponent.structure.getStructureMap().getStructureStyles();
+		final boolean attributesChanged = ss != null && this.updateAttributes(ss);
+
+		if (this.needsRebuild(renderables) || (attributesChanged && this.hasVisibilityChanged(ss)))
+			this.rebuild(gl, glu, glut, renderables);
+
+		else if (!isPick && this.hasBuffers && attributesChanged)
+		{
+			this.saveAttributeVersions(ss);
+
+			for (DisplayListRenderable renderable : this.batched)
+				((BatchedGeometry) renderable.geometry).updateBatchColors(renderable.structureComponent, this.batch);
+			for (DisplayListRenderable renderable : this.impostorRenderables)
+				((ImpostorGeometry) renderable.geometry).updateImpostorColors(renderable.structureComponent, this.impostors);
+
+			this.uploadChangedColors(gl, this.buffers[COLORS], this.batch.getColors(),
+					this.batch.getChangedColorStart(), this.batch.getChangedColorEnd());
+			this.batch.clearChangedColors();
+
+			final ImpostorBatch.Instances spheres = this.impostors.getSpheres();
+			this.uploadChangedColors(gl, this.buffers[SPHERE_COLORS], spheres.getColors(),
+					spheres.getChangedColorStart(), spheres.getChangedColorEnd());
+			spheres.clearChangedColors();
+
+			final ImpostorBatch.Instances cylinders = this.impostors.getCylinders();
+			this.uploadChangedColors(gl, this.buffers[CYLINDER_COLORS], cylinders.getColors(),
+					cylinders.getChangedColorStart(), cylinders.getChangedColorEnd());
+			cylinders.clearChangedColors();
+		}
+	}
+
+	/**
+	 * The renderables which could not be batched, to be drawn with their
+	 * display lists.
+	 */
+	public List<DisplayListRenderable> getUnbatchedRenderables()
+	{
+		return this.unbatched;
+	}
+
+	/**
+	 * Draws the batched renderables under the current matrix.
+	 */
+	public void draw(final GL gl, final boolean isPick)
+	{
+		if (!this.hasBuffers)
+			return;
+
+		final GL2 gl2 = gl.getGL2();
+
+		gl2.glMaterialfv(GL.GL_FRONT, GL2.GL_SPECULAR, Constants.mat_specular, 0);
+		gl2.glMaterialfv(GL.GL_FRONT, GL2.GL_SHININESS, Constants.atomHighShininess, 0);
+		gl2.glMaterialfv(GL.GL_FRONT, GL2.GL_EMISSION, Constants.black, 0);
+		gl2.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl2.glEnableClientState(GL2.GL_COLOR_ARRAY);
+
+		if (this.batch.getIndexCount() > 0)
+		{
+			final int stride = GeometryBatch.VERTEX_SIZE * Buffers.SIZEOF_FLOAT;
+			if (!isPick)
+			{
+				gl2.glColorMaterial(GL.GL_FRONT, GL2.GL_AMBIENT_AND_DIFFUSE);
+				gl.glEnable(GL2.GL_COLOR_MATERIAL);
+			}
+			gl2.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[VERTICES]);
+			gl2.glVertexPointer(3, GL.GL_FLOAT, stride, 0);
+			gl2.glNormalPointer(GL.GL_FLOAT, stride, 3 * Buffers.SIZEOF_FLOAT);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[isPick ? PICK_COLORS : COLORS]);
+			gl2.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, 0);
+			gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.buffers[INDICES]);
+
+			gl.glDrawElements(GL.GL_TRIANGLES, this.batch.getIndexCount(), GL.GL_UNSIGNED_INT, 0);
+
+			gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+			gl2.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+			if (!isPick)
+				gl.glDisable(GL2.GL_COLOR_MATERIAL);
+		}
+
+		final ImpostorBatch.Instances spheres = this.impostors.getSpheres();
+		if (spheres.getCount() > 0)
+		{
+			final int stride = ImpostorBatch.SPHERE_VERTEX_SIZE * Buffers.SIZEOF_FLOAT;
+			useProgram(gl, sphereProgram, isPick);
+			gl2.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[SPHERES]);
+			gl2.glTexCoordPointer(4, GL.GL_FLOAT, stride, 0);
+			gl2.glVertexPointer(2, GL.GL_FLOAT, stride, 4 * Buffers.SIZEOF_FLOAT);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[isPick ? SPHERE_PICK_COLORS : SPHERE_COLORS]);
+			gl2.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, 0);
+
+			gl2.glDrawArrays(GL2.GL_QUADS, 0, spheres.getVertexCount());
+
+			gl2.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+		}
+
+		final ImpostorBatch.Instances cylinders = this.impostors.getCylinders();
+		if (cylinders.getCount() > 0)
+		{
+			final int stride = ImpostorBatch.CYLINDER_VERTEX_SIZE * Buffers.SIZEOF_FLOAT;
+			useProgram(gl, cylinderProgram, isPick);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[CYLINDERS]);
+			gl2.glClientActiveTexture(GL.GL_TEXTURE1);
+			gl2.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+			gl2.glTexCoordPointer(3, GL.GL_FLOAT, stride, 4 * Buffers.SIZEOF_FLOAT);
+			gl2.glClientActiveTexture(GL.GL_TEXTURE0);
+			gl2.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+			gl2.glTexCoordPointer(4, GL.GL_FLOAT, stride, 0);
+			gl2.glVertexPointer(2, GL.GL_FLOAT, stride, 7 * Buffers.SIZEOF_FLOAT);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[isPick ? CYLINDER_PICK_COLORS : CYLINDER_COLORS]);
+			gl2.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, 0);
+
+			gl2.glDrawArrays(GL2.GL_QUADS, 0, cylinders.getVertexCount());
+
+			gl2.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+			gl2.glClientActiveTexture(GL.GL_TEXTURE1);
+			gl2.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+			gl2.glClientActiveTexture(GL.GL_TEXTURE0);
+		}
+
+		if (spheres.getCount() > 0 || cylinders.getCount() > 0)
+			gl2.glUseProgram(isPick ? 0 : GlGeometryViewer.currentProgram);
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		gl2.glDisableClientState(GL2.GL_COLOR_ARRAY);
+		gl2.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+	}
+
+	/**
+	 * Frees the buffers and pick colors. The renderables are not destroyed.
+	 */
+	public void destroy(final GL gl)
+	{
+		this.deleteBuffers(gl);
+		this.deletePickColors();
+		this.batch.clear();
+		this.impostors.clear();
+		this.batched.clear();
+		this.impostorRenderables.clear();
+		this.unbatched.clear();
+		this.hidden.clear();
+		this.renderables = null;
+	}
+
+	/**
+	 * Resolves the stale instance attributes.
+	 * 
+	 * @return - true if they changed since the colors were last copied
+	 */
+	private boolean updateAttributes(final StructureStyles ss)
+	{
+		final InstanceAttributes atoms = ss.getInstanceAttributes(ComponentType.ATOM);
+		final InstanceAttributes bonds = ss.getInstanceAttributes(ComponentType.BOND);
+		atoms.update();
+		bonds.update();
+		return atoms.getVersion() != this.atomAttributesVersion ||
+			bonds.getVersion() != this.bondAttributesVersion;
+	}
+
+	private void saveAttributeVersions(final StructureStyles ss)
+	{
+		this.atomAttributesVersion = ss.getInstanceAttributes(ComponentType.ATOM).getVersion();
+		this.bondAttributesVersion = ss.getInstanceAttributes(ComponentType.BOND).getVersion();
+	}
+
+	/**
+	 * Returns true if a batched component was hidden or a hidden one shown.
+	 */
+	private boolean hasVisibilityChanged(final StructureStyles ss)
+	{
+		for (DisplayListRenderable renderable : this.batched)
+			if (!isVisible(ss, renderable))
+				return true;
+
+		for (DisplayListRenderable renderable : this.impostorRenderables)
+			if (!isVisible(ss, renderable))
+				return true;
+
+		for (DisplayListRenderable renderable : this.hidden)
+			if (isVisible(ss, renderable))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * The visibility of an atom or bond in the instance attributes; other
+	 * components are visible as long as they have a renderable.
+	 */
+	private static boolean isVisible(final StructureStyles ss, final DisplayListRenderable renderable)
+	{
+		final InstanceAttributes attributes =
+			ss.getInstanceAttributes(renderable.structureComponent.getStructureComponentType());
+		if (attributes == null)
+			return true;
+
+		final int index = attributes.getIndex(renderable.structureComponent);
+		return index < 0 || attributes.isVisible(index);
+	}
+
+	private boolean needsRebuild(final List<DisplayListRenderable> renderables)
+	{
+		if (renderables != this.renderables)
+			return true;
+
+		for (DisplayListRenderable renderable : this.batched)
+			if (renderable.isDirty())
+				return true;
+
+		for (DisplayListRenderable renderable : this.impostorRenderables)
+			if (renderable.isDirty())
+				return true;
+
+		// a renderable may have changed to a form that can be batched
+		for (DisplayListRenderable renderable : this.unbatched)
+			if (renderable.isDirty() &&
+				(renderable.geometry instanceof BatchedGeometry || renderable.geometry instanceof ImpostorGeometry))
+				return true;
+
+		return false;
+	}
+
+	private void rebuild(final GL gl, final GLU glu, final GLUT glut,
+			final List<DisplayListRenderable> renderables)
+	{
+		this.destroy(gl);
+		this.renderables = renderables;
+
+		final StructureStyles ss = renderables.isEmpty() ? null :
+			renderables.get(0).structureComponent.structure.getStructureMap().getStructureStyles();
+		if (ss != null)
+			this.saveAttributeVersions(ss);
+
+		final boolean isSupported = gl.isFunctionAvailable("glGenBuffers") &&
+			gl.isFunctionAvailable("glBindBuffer") &&
+			gl.isFunctionAvailable("glBufferData") &&
+			gl.isFunctionAvailable("glBufferSubData");
+		final boolean isImpostorSupported = isSupported && useImpostors && loadImpostorPrograms(gl);
+
+		for (DisplayListRenderable renderable : renderables)
+		{
+			List<DisplayListRenderable> list = this.unbatched;
+			try {
+				if (isSupported && ss != null && !isVisible(ss, renderable))
+					list = this.hidden;
+
+				else if (isImpostorSupported && renderable.geometry instanceof ImpostorGeometry &&
+					((ImpostorGeometry) renderable.geometry).addToImpostors(
+							renderable.structureComponent, renderable.style, this.impostors))
+					list = this.impostorRenderables;
+
+				else if (isSupported && renderable.geometry instanceof BatchedGeometry &&
+					((BatchedGeometry) renderable.geometry).addToBatch(
+							renderable.structureComponent, renderable.style, this.batch))
+					list = this.batched;
+			} catch (Exception e)
+			{
+				if (DebugState.isDebug())
+					e.printStackTrace();
+			}
+
+			if (list != this.unbatched)
+			{
+				renderable.clearDirty();
+				renderable.deleteDisplayLists(gl, glu, glut);
+			}
+			list.add(renderable);
+		}
+
+		if (this.batch.getIndexCount() > 0 || this.impostors.getSpheres().getCount() > 0 ||
+			this.impostors.getCylinders().getCount() > 0)
+			this.upload(gl);
+	}
+
+	/**
+	 * Loads the impostor shaders, if shaders are supported.
+	 * 
+	 * @return - false if the shaders are not supported or failed to load
+	 */
+	private static boolean loadImpostorPrograms(final GL gl)
+	{
+		if (!GlslProgram.supportsShaderPrograms || impostorProgramsFailed)
+			return false;
+
+		try {
+			if (sphereProgram.shaderProgram == 0)
+				sphereProgram.loadProgram(gl);
+			if (cylinderProgram.shaderProgram == 0)
+				cylinderProgram.loadProgram(gl);
+
+			// don't try again for every chain
+			impostorProgramsFailed = sphereProgram.shaderProgram == 0 || cylinderProgram.shaderProgram == 0;
+		} catch (Exception e)
+		{
+			// e.g. the shader sources are not on the class path
+			if (DebugState.isDebug())
+				e.printStackTrace();
+			impostorProgramsFailed = true;
+		}
+		if (impostorProgramsFailed)
+			Status.output(Status.LEVEL_WARNING, "VertexBufferBatch: the impostor shaders did not load, drawing triangles instead");
+		return !impostorProgramsFailed;
+	}
+
+	private static void useProgram(final GL gl, final GlslProgram program, final boolean isPick)
+	{
+		final GL2 gl2 = gl.getGL2();
+		gl2.glUseProgram(program.shaderProgram);
+		gl2.glUniform1i(gl2.glGetUniformLocation(program.shaderProgram, "pickmode"), isPick ? 1 : 0);
+	}
+
+	private void upload(final GL gl)
+	{
+		gl.glGenBuffers(this.buffers.length, this.buffers, 0);
+		this.hasBuffers = true;
+
+		final int vertexCount = this.batch.getVertexCount();
+		final byte[] pickColors = new byte[4 * vertexCount];
+		final ImpostorBatch.Instances spheres = this.impostors.getSpheres();
+		final byte[] spherePickColors = new byte[4 * spheres.getVertexCount()];
+		final ImpostorBatch.Instances cylinders = this.impostors.getCylinders();
+		final byte[] cylinderPickColors = new byte[4 * cylinders.getVertexCount()];
+
+		for (DisplayListRenderable renderable : this.batched)
+		{
+			final byte[] color = this.createPickColor(renderable);
+			final int first = this.batch.getFirstPart(renderable.structureComponent);
+			final int end = this.batch.getEndPart(renderable.structureComponent);
+			for (int i = this.batch.getVertexStart(first); i < this.batch.getVertexEnd(end - 1); i++)
+				System.arraycopy(color, 0, pickColors, 4 * i, 4);
+		}
+
+		for (DisplayListRenderable renderable : this.impostorRenderables)
+		{
+			final byte[] color = this.createPickColor(renderable);
+			fillPickColors(spheres, renderable, color, spherePickColors);
+			fillPickColors(cylinders, renderable, color, cylinderPickColors);
+		}
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[VERTICES]);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, GeometryBatch.VERTEX_SIZE * vertexCount * Buffers.SIZEOF_FLOAT,
+				Buffers.newDirectFloatBuffer(this.batch.getVertices(), 0, GeometryBatch.VERTEX_SIZE * vertexCount),
+				GL.GL_STATIC_DRAW);
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[COLORS]);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, 4 * vertexCount,
+				Buffers.newDirectByteBuffer(this.batch.getColors(), 0, 4 * vertexCount), GL.GL_DYNAMIC_DRAW);
+		this.batch.clearChangedColors();
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[PICK_COLORS]);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, pickColors.length,
+				Buffers.newDirectByteBuffer(pickColors), GL.GL_STATIC_DRAW);
+
+		uploadInstances(gl, spheres, this.buffers[SPHERES], this.buffers[SPHERE_COLORS],
+				this.buffers[SPHERE_PICK_COLORS], spherePickColors);
+		uploadInstances(gl, cylinders, this.buffers[CYLINDERS], this.buffers[CYLINDER_COLORS],
+				this.buffers[CYLINDER_PICK_COLORS], cylinderPickColors);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.buffers[INDICES]);
+		gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, this.batch.getIndexCount() * Buffers.SIZEOF_INT,
+				Buffers.newDirectIntBuffer(this.batch.getIndices(), 0, this.batch.getIndexCount()),
+				GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+	}
+
+	private static void uploadInstances(final GL gl, final ImpostorBatch.Instances instances,
+			final int vertexBuffer, final int colorBuffer, final int pickColorBuffer, final byte[] pickColors)
+	{
+		final int vertexCount = instances.getVertexCount();
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBuffer);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, instances.getVertexSize() * vertexCount * Buffers.SIZEOF_FLOAT,
+				Buffers.newDirectFloatBuffer(instances.getVertices(), 0, instances.getVertexSize() * vertexCount),
+				GL.GL_STATIC_DRAW);
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, colorBuffer);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, 4 * vertexCount,
+				Buffers.newDirectByteBuffer(instances.getColors(), 0, 4 * vertexCount), GL.GL_DYNAMIC_DRAW);
+		instances.clearChangedColors();
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, pickColorBuffer);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, pickColors.length,
+				Buffers.newDirectByteBuffer(pickColors), GL.GL_STATIC_DRAW);
+	}
+
+	private void uploadChangedColors(final GL gl, final int buffer, final byte[] colors,
+			final int start, final int end)
+	{
+		if (start < end)
+		{
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer);
+			gl.glBufferSubData(GL.GL_ARRAY_BUFFER, 4 * start, 4 * (end - start),
+					ByteBuffer.wrap(colors, 4 * start, 4 * (end - start)).slice());
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		}
+	}
+
+	/**
+	 * Registers a unique pick color for the renderable's component.
+	 */
+	private byte[] createPickColor(final DisplayListRenderable renderable)
+	{
+		final DisplayLists pickList = new DisplayLists(renderable.structureComponent);
+		pickList.setupLists(1);
+		this.pickLists.add(pickList);
+		return pickList.getRepresentativeColor(0).color;
+	}
+
+	private static void fillPickColors(final ImpostorBatch.Instances instances,
+			final DisplayListRenderable renderable, final byte[] color, final byte[] pickColors)
+	{
+		final int first = instances.getFirst(renderable.structureComponent);
+		if (first < 0)
+			return;
+
+		final int end = instances.getEnd(renderable.structureComponent);
+		for (int i = first * ImpostorBatch.VERTICES_PER_INSTANCE; i < end * ImpostorBatch.VERTICES_PER_INSTANCE; i++)
+			System.arraycopy(color, 0, pickColors, 4 * i, 4);
+	}
+
+	private void deleteBuffers(final GL gl)
+	{
+		if (this.hasBuffers)
+		{
+			gl.glDeleteBuffers(this.buffers.length, this.buffers, 0);
+			for (int i = 0; i < this.buffers.length; i++)
+				this.buffers[i] = 0;
+			this.hasBuffers = false;
+		}
+	}
+
+	private void deletePickColors()
+	{
+		for (DisplayLists pickList : this.pickLists)
+			pickList.deleteUniqueColors();
+		this.pickLists.clear();
+	}
+}
@@ -46,22 +46,17 @@
 package org.rcsb.vf.glscene.surfaces;
 
 import java.awt.Color;
-import java.util.List;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
 import javax.media.opengl.glu.GLU;
 import javax.vecmath.Color4f;
-import javax.vecmath.Point3f;
 import javax.vecmath.Vector3f;
 
 import org.rcsb.mbt.model.*;
 import org.rcsb.mbt.model.attributes.*;
 import org.rcsb.mbt.surface.BindingSiteSurfaceOrienter;
-import org.rcsb.mbt.surface.datastructure.LineInfo;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
-import org.rcsb.mbt.surface.datastructure.FaceInfo;
-import org.rcsb.mbt.surface.datastructure.VertInfo;
 import org.rcsb.uiApp.controllers.app.AppBase;
 import org.rcsb.vf.glscene.jogl.Constants;
 import org.rcsb.vf.glscene.jogl.DisplayListGeometry;
@@ -85,9 +80,12 @@ public class SurfaceGeometry extends DisplayListGeometry {
 		
 		GL2 gl2 = gl.getGL2();
 		final Surface surface = (Surface)structureComponent;
-		colors = surface.getColors();
+		// the surface may be refined on another thread
+		synchronized (surface) {
+			colors = surface.getColors();
+			triangulatedSurface = surface.getTriangulatedSurface();
+		}
 		alignment = surface.getAlignment();
-		triangulatedSurface = surface.getTriangulatedSurface();
 
 		final DisplayLists[] lists = new DisplayLists[1];
 		lists[0] = new DisplayLists(surface);
@@ -149,34 +147,18 @@ public class SurfaceGeometry extends DisplayListGeometry {
 		
 		gl2.glBegin(shadeType);
 
-		List<FaceInfo> faces = triangulatedSurface.getFaces();
-		List<VertInfo> vertices = triangulatedSurface.getVertices();
-
-		for (FaceInfo face: faces) {
-			Point3f p0 = vertices.get(face.a).p;
-			Point3f p1 = vertices.get(face.b).p;
-			Point3f p2 = vertices.get(face.c).p;
-
-			Vector3f n0 = vertices.get(face.a).normal;
-			Vector3f n1 = vertices.get(face.b).normal;
-			Vector3f n2 = vertices.get(face.c).normal;
+		int[] triangles = triangulatedSurface.getTriangles();
+		float[] positions = triangulatedSurface.getPositions();
+		float[] normals = triangulatedSurface.getNormals();
 
-			Color4f c0 = colors[face.a];
-			Color4f c1 = colors[face.b];
-			Color4f c2 = colors[face.c];
+		for (int i = 0; i < triangles.length; i++) {
+			int v = triangles[i];
+			Color4f c = colors[v];
 
 			// draw triangle       
-			gl2.glNormal3f(n0.x, n0.y, n0.z);
-			gl2.glColor4f(c0.x, c0.y, c0.z, c0.w);
-			gl2.glVertex3f(p0.x, p0.y, p0.z);
-
-			gl2.glNormal3f(n1.x, n1.y, n1.z);
-			gl2.glColor4f(c1.x, c1.y, c1.z, c1.w);
-			gl2.glVertex3f(p1.x, p1.y, p1.z);
-
-			gl2.glNormal3f(n2.x, n2.y, n2.z);
-			gl2.glColor4f(c2.x, c2.y, c2.z, c2.w);
-			gl2.glVertex3f(p2.x, p2.y, p2.z);
+			gl2.glNormal3f(normals[3*v], normals[3*v+1], normals[3*v+2]);
+			gl2.glColor4f(c.x, c.y, c.z, c.w);
+			gl2.glVertex3f(positions[3*v], positions[3*v+1], positions[3*v+2]);
 		}
 		gl2.glEnd();
 		gl2.glFlush();
@@ -186,27 +168,30 @@ public class SurfaceGeometry extends DisplayListGeometry {
 		GL2 gl2 = gl.getGL2();
 		gl2.glBegin(shadeType);
 
-		List<LineInfo> lines = triangulatedSurface.getLines();
-		List<VertInfo> vertices = triangulatedSurface.getVertices();
-
-		for (LineInfo line: lines) {
-			Point3f p0 = vertices.get(line.a).p;
-			Point3f p1 = vertices.get(line.b).p;
-			
-			Vector3f n0 = vertices.get(line.a).normal;
-			Vector3f n1 = vertices.get(line.b).normal;
-
-			Color4f c0 = colors[line.a];
-			Color4f c1 = colors[line.b];
-
-			// draw lines     
-			gl2.glNormal3f(n0.x, n0.y, n0.z);
-			gl2.glColor4f(c0.x, c0.y, c0.z, c0.w);
-			gl2.glVertex3f(p0.x, p0.y, p0.z);
-
-			gl2.glNormal3f(n1.x, n1.y, n1.z);
-			gl2.glColor4f(c1.x, c1.y, c1.z, c1.w);
-			gl2.glVertex3f(p1.x, p1.y, p1.z);
+		int[] offsets = triangulatedSurface.getNeighborOffsets();
+		int[] neighbors = triangulatedSurface.getNeighbors();
+		float[] positions = triangulatedSurface.getPositions();
+		float[] normals = triangulatedSurface.getNormals();
+
+		for (int a = 0, n = triangulatedSurface.getVertexCount(); a < n; a++) {
+			Color4f c0 = colors[a];
+			for (int j = offsets[a]; j < offsets[a+1]; j++) {
+				int b = neighbors[j];
+				// each line is listed by both of its vertices
+				if (b < a) {
+					continue;
+				}
+				Color4f c1 = colors[b];
+
+				// draw lines     
+				gl2.glNormal3f(normals[3*a], normals[3*a+1], normals[3*a+2]);
+				gl2.glColor4f(c0.x, c0.y, c0.z, c0.w);
+				gl2.glVertex3f(positions[3*a], positions[3*a+1], positions[3*a+2]);
+
+				gl2.glNormal3f(normals[3*b], normals[3*b+1], normals[3*b+2]);
+				gl2.glColor4f(c1.x, c1.y, c1.z, c1.w);
+				gl2.glVertex3f(positions[3*b], positions[3*b+1], positions[3*b+2]);
+			}
 		}
 		// draw composite normal vector
 //		Point3f base = triangulatedSurface.getCentroid();
@@ -345,18 +330,16 @@ public class SurfaceGeometry extends DisplayListGeometry {
 		GL2 gl2 = gl.getGL2();
 		gl2.glBegin(shadeType);
 
-		List<VertInfo> vertices = triangulatedSurface.getVertices();
+		float[] positions = triangulatedSurface.getPositions();
+		float[] normals = triangulatedSurface.getNormals();
 
-		for (int i = 0; i < vertices.size(); i++) {
-			VertInfo vertex = vertices.get(i);
-			Point3f p0 = vertex.p;		
-			Vector3f n0 = vertex.normal;
+		for (int i = 0, n = triangulatedSurface.getVertexCount(); i < n; i++) {
 			Color4f c0 = colors[i];
 
 			// draw dots    
-			gl2.glNormal3f(n0.x, n0.y, n0.z);
+			gl2.glNormal3f(normals[3*i], normals[3*i+1], normals[3*i+2]);
 			gl2.glColor4f(c0.x, c0.y, c0.z, c0.w);
-			gl2.glVertex3f(p0.x, p0.y, p0.z);
+			gl2.glVertex3f(positions[3*i], positions[3*i+1], positions[3*i+2]);
 		}
 		gl2.glEnd();
 		gl.glFlush();
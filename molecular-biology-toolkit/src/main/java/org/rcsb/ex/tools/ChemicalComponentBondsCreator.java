@@ -45,8 +45,13 @@
  */ 
 package org.rcsb.ex.tools;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.SocketTimeoutException;
@@ -54,6 +59,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.zip.GZIPInputStream;
 
+import org.rcsb.mbt.model.util.BondDictionary;
 import org.rcsb.mbt.model.util.ChemicalComponentBonds;
 import org.rcsb.mbt.model.util.DebugState;
 
@@ -83,6 +89,15 @@ import org.rcsb.mbt.model.util.DebugState;
  * <p>
  * It then becomes a resource loaded from the jar.</p>
  * 
+ * <p>
+ * ChemicalComponentBonds loads the binary form of the dictionary (see
+ * BondDictionary), which the build compiles from the text dictionary
+ * into the jar as ChemicalComponentBonds.bin, by running:</p>
+ * 
+ * <blockquote>
+ * ChemicalComponentBondsCreator -compile ChemicalComponentBonds.dat ChemicalComponentBonds.bin
+ * </blockquote>
+ * 
  * 23-Sep-08 - rickb 
  * 
  */
@@ -91,8 +106,14 @@ public class ChemicalComponentBondsCreator
 	public static final String ftpInputPath = "ftp://ftp.wwpdb.org/pub/pdb/data/monomers/components.cif.gz";
 	public static final String defaultOutputPath = "src/main/resources/ChemicalComponentBonds.dat";
 	
-	public static void main(String[] args)
+	public static void main(String[] args) throws IOException
 	{
+		if (args.length == 3 && args[0].equals("-compile"))
+		{
+			compile(args[1], args[2]);
+			return;
+		}
+
 		PrintWriter out = null;
 		InputStream inputStream = null;
 		GZIPInputStream gzipInputStream = null;
@@ -162,4 +183,24 @@ public class ChemicalComponentBondsCreator
 		
 	}
 
+	/**
+	 * Compile a text bond dictionary into the binary dictionary.
+	 */
+	public static void compile(String textPath, String binaryPath) throws IOException
+	{
+		BufferedReader in = new BufferedReader(new FileReader(textPath));
+		OutputStream out = null;
+		try
+		{
+			out = new BufferedOutputStream(new FileOutputStream(binaryPath));
+			BondDictionary.compile(in, out);
+		}
+
+		finally
+		{
+			in.close();
+			if (out != null)
+				out.close();
+		}
+	}
 }
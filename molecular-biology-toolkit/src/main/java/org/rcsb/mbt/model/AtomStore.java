@@ -0,0 +1,464 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.rcsb.mbt.model.util.NameTable;
+
+
+/**
+ *  A column-oriented (structure of arrays) copy of the atoms in a
+ *  StructureMap.
+ *  <P>
+ *  Coordinates are kept in a single interleaved double array, and the
+ *  element, atom name, compound code and chain id of each atom are kept as
+ *  int codes into per-column NameTable dictionaries. Each atom also records
+ *  the index of its Residue and Chain in the StructureMap lists. Loops that
+ *  only need coordinates or codes can walk these arrays by atom index
+ *  without touching the Atom objects at all, which is a lot friendlier to
+ *  the cache for large structures.
+ *  <P>
+ *  The Atom objects remain the primary representation: atom index i in the
+ *  store is atom index i in the StructureMap, and getAtom(i) returns the
+ *  original object. The store is a snapshot taken when it is built; if atom
+ *  coordinates are changed afterwards, StructureMap.invalidateAtomStore()
+ *  must be called so that a fresh copy is made.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.StructureMap#getAtomStore()
+ */
+public class AtomStore
+{
+	/**
+	 *  The code used for a null element, name, compound or chain id.
+	 */
+	public static final int NO_CODE = -1;
+
+	private final Atom atoms[];
+
+	// x, y, z for each atom, interleaved.
+	private final double coordinates[];
+
+	private final int elementCodes[];
+	private final int nameCodes[];
+	private final int compoundCodes[];
+	private final int chainCodes[];
+	private final int residueIndices[];
+	private final int chainIndices[];
+
+	private final NameTable elements = new NameTable( );
+	private final NameTable names = new NameTable( );
+	private final NameTable compounds = new NameTable( );
+	private final NameTable chainIds = new NameTable( );
+
+
+	/**
+	 *  Build a store for the atoms of the given StructureMap. The map must
+	 *  already have processed its atom records.
+	 */
+	public AtomStore( final StructureMap structureMap )
+	{
+		this( structureMap.getAtoms( ), structureMap.getResidues( ),
+			structureMap.getChains( ) );
+	}
+
+	/**
+	 *  Build a store for the given atoms. Residue and chain indices refer to
+	 *  the given residue and chain lists; atoms that aren't found by walking
+	 *  the chains get an index of -1.
+	 */
+	public AtomStore( final List<Atom> atomList, final List<Residue> residueList,
+		final List<Chain> chainList )
+	{
+		if ( atomList == null ) {
+			throw new IllegalArgumentException( "null atom list" );
+		}
+
+		final int atomCount = atomList.size( );
+		this.atoms = atomList.toArray( new Atom[atomCount] );
+		this.coordinates = new double[atomCount * 3];
+		this.elementCodes = new int[atomCount];
+		this.nameCodes = new int[atomCount];
+		this.compoundCodes = new int[atomCount];
+		this.chainCodes = new int[atomCount];
+		this.residueIndices = new int[atomCount];
+		this.chainIndices = new int[atomCount];
+
+		for ( int i=0, j=0; i<atomCount; i++, j+=3 )
+		{
+			final Atom atom = this.atoms[i];
+			this.coordinates[j] = atom.coordinate[0];
+			this.coordinates[j+1] = atom.coordinate[1];
+			this.coordinates[j+2] = atom.coordinate[2];
+			this.elementCodes[i] = AtomStore.encode( this.elements, atom.element );
+			this.nameCodes[i] = AtomStore.encode( this.names, atom.name );
+			this.compoundCodes[i] = AtomStore.encode( this.compounds, atom.compound );
+			this.chainCodes[i] = AtomStore.encode( this.chainIds, atom.chain_id );
+			this.residueIndices[i] = -1;
+			this.chainIndices[i] = -1;
+		}
+
+		if ( residueList != null && chainList != null ) {
+			this.indexResidues( residueList, chainList );
+		}
+	}
+
+	/**
+	 *  Walk chains -> residues -> atoms to fill in the residue and chain
+	 *  indices. StructureMap builds its atom and residue lists with exactly
+	 *  this walk, so normally each atom and residue is simply the next one in
+	 *  its list. Anything out of order is looked up instead.
+	 */
+	private void indexResidues( final List<Residue> residueList,
+		final List<Chain> chainList )
+	{
+		IdentityHashMap<Atom, Integer> atomIndexMap = null;
+		IdentityHashMap<Residue, Integer> residueIndexMap = null;
+		int nextAtom = 0;
+		int nextResidue = 0;
+
+		final int chainCount = chainList.size( );
+		for ( int c=0; c<chainCount; c++ )
+		{
+			final List<Residue> chainResidues = chainList.get( c ).getResidues( );
+			if ( chainResidues == null ) {
+				continue;
+			}
+
+			for ( final Residue residue : chainResidues )
+			{
+				int r;
+				if ( nextResidue < residueList.size( ) && residueList.get( nextResidue ) == residue ) {
+					r = nextResidue++;
+				}
+				else
+				{
+					if ( residueIndexMap == null ) {
+						residueIndexMap = AtomStore.indexMap( residueList );
+					}
+					final Integer index = residueIndexMap.get( residue );
+					r = ( index == null )? -1 : index.intValue( );
+				}
+
+				for ( final Atom atom : residue.getAtoms( ) )
+				{
+					int a;
+					if ( nextAtom < this.atoms.length && this.atoms[nextAtom] == atom ) {
+						a = nextAtom++;
+					}
+					else
+					{
+						if ( atomIndexMap == null ) {
+							atomIndexMap = AtomStore.indexMap( this.atoms );
+						}
+						final Integer index = atomIndexMap.get( atom );
+						if ( index == null ) {
+							continue;
+						}
+						a = index.intValue( );
+					}
+
+					this.residueIndices[a] = r;
+					this.chainIndices[a] = c;
+				}
+			}
+		}
+	}
+
+	private static <T> IdentityHashMap<T, Integer> indexMap( final List<T> list )
+	{
+		final IdentityHashMap<T, Integer> map = new IdentityHashMap<T, Integer>( list.size( ) );
+		for ( int i=0; i<list.size( ); i++ ) {
+			map.put( list.get( i ), new Integer( i ) );
+		}
+		return map;
+	}
+
+	private static <T> IdentityHashMap<T, Integer> indexMap( final T array[] )
+	{
+		final IdentityHashMap<T, Integer> map = new IdentityHashMap<T, Integer>( array.length );
+		for ( int i=0; i<array.length; i++ ) {
+			map.put( array[i], new Integer( i ) );
+		}
+		return map;
+	}
+
+	private static int encode( final NameTable table, final String name )
+	{
+		return ( name == null )? AtomStore.NO_CODE : table.getId( name );
+	}
+
+	private static String decode( final NameTable table, final int code )
+	{
+		return ( code == AtomStore.NO_CODE )? null : table.getName( code );
+	}
+
+
+	//
+	// Atoms and coordinates
+	//
+
+	/**
+	 *  Return the number of atoms in the store.
+	 */
+	public int getAtomCount( )
+	{
+		return this.atoms.length;
+	}
+
+	/**
+	 *  Return the Atom object at the given index.
+	 */
+	public Atom getAtom( final int atomIndex )
+	{
+		return this.atoms[atomIndex];
+	}
+
+	/**
+	 *  Return the Atom objects, in store order. This is the store's own
+	 *  array and must not be modified.
+	 */
+	public Atom[] getAtoms( )
+	{
+		return this.atoms;
+	}
+
+	/**
+	 *  Return the coordinate array, laid out as x, y, z for atom 0, then
+	 *  atom 1, and so on. This is the store's own array and must not be
+	 *  modified.
+	 */
+	public double[] getCoordinates( )
+	{
+		return this.coordinates;
+	}
+
+	public double getX( final int atomIndex )
+	{
+		return this.coordinates[atomIndex * 3];
+	}
+
+	public double getY( final int atomIndex )
+	{
+		return this.coordinates[atomIndex * 3 + 1];
+	}
+
+	public double getZ( final int atomIndex )
+	{
+		return this.coordinates[atomIndex * 3 + 2];
+	}
+
+	/**
+	 *  Copy the coordinate of the given atom into result, and return it.
+	 */
+	public double[] getCoordinate( final int atomIndex, final double result[] )
+	{
+		final int j = atomIndex * 3;
+		result[0] = this.coordinates[j];
+		result[1] = this.coordinates[j+1];
+		result[2] = this.coordinates[j+2];
+		return result;
+	}
+
+	/**
+	 *  Return the coordinate bounds of all atoms, laid out as in
+	 *  StructureMap.getAtomCoordinateBounds(). All zeros if there are no atoms.
+	 */
+	public double[][] getCoordinateBounds( )
+	{
+		final double bounds[][] = new double[2][3];
+		final double xyz[] = this.coordinates;
+		if ( xyz.length == 0 ) {
+			return bounds;
+		}
+
+		double minX = xyz[0], minY = xyz[1], minZ = xyz[2];
+		double maxX = minX, maxY = minY, maxZ = minZ;
+		for ( int j=3; j<xyz.length; j+=3 )
+		{
+			final double x = xyz[j];
+			final double y = xyz[j+1];
+			final double z = xyz[j+2];
+			if ( x < minX ) minX = x;
+			if ( y < minY ) minY = y;
+			if ( z < minZ ) minZ = z;
+			if ( x > maxX ) maxX = x;
+			if ( y > maxY ) maxY = y;
+			if ( z > maxZ ) maxZ = z;
+		}
+
+		bounds[0][0] = minX;
+		bounds[0][1] = minY;
+		bounds[0][2] = minZ;
+		bounds[1][0] = maxX;
+		bounds[1][1] = maxY;
+		bounds[1][2] = maxZ;
+		return bounds;
+	}
+
+	/**
+	 *  Return the average of all atom coordinates. All zeros if there are
+	 *  no atoms.
+	 */
+	public double[] getCoordinateAverage( )
+	{
+		final double average[] = new double[3];
+		final double xyz[] = this.coordinates;
+		if ( xyz.length == 0 ) {
+			return average;
+		}
+
+		for ( int j=0; j<xyz.length; j+=3 )
+		{
+			average[0] += xyz[j];
+			average[1] += xyz[j+1];
+			average[2] += xyz[j+2];
+		}
+
+		final int atomCount = this.atoms.length;
+		average[0] /= atomCount;
+		average[1] /= atomCount;
+		average[2] /= atomCount;
+		return average;
+	}
+
+
+	//
+	// Coded columns
+	//
+
+	public int getElementCode( final int atomIndex )
+	{
+		return this.elementCodes[atomIndex];
+	}
+
+	public String getElement( final int atomIndex )
+	{
+		return AtomStore.decode( this.elements, this.elementCodes[atomIndex] );
+	}
+
+	public int getNameCode( final int atomIndex )
+	{
+		return this.nameCodes[atomIndex];
+	}
+
+	public String getName( final int atomIndex )
+	{
+		return AtomStore.decode( this.names, this.nameCodes[atomIndex] );
+	}
+
+	public int getCompoundCode( final int atomIndex )
+	{
+		return this.compoundCodes[atomIndex];
+	}
+
+	public String getCompound( final int atomIndex )
+	{
+		return AtomStore.decode( this.compounds, this.compoundCodes[atomIndex] );
+	}
+
+	public int getChainCode( final int atomIndex )
+	{
+		return this.chainCodes[atomIndex];
+	}
+
+	public String getChainId( final int atomIndex )
+	{
+		return AtomStore.decode( this.chainIds, this.chainCodes[atomIndex] );
+	}
+
+	/**
+	 *  Return the dictionary used for element codes. Codes are dense, so a
+	 *  per-element lookup table can simply be an array of size().
+	 */
+	public NameTable getElementTable( )
+	{
+		return this.elements;
+	}
+
+	/**
+	 *  Return the dictionary used for atom name codes.
+	 */
+	public NameTable getNameTable( )
+	{
+		return this.names;
+	}
+
+	/**
+	 *  Return the dictionary used for compound codes.
+	 */
+	public NameTable getCompoundTable( )
+	{
+		return this.compounds;
+	}
+
+	/**
+	 *  Return the dictionary used for chain id codes.
+	 */
+	public NameTable getChainIdTable( )
+	{
+		return this.chainIds;
+	}
+
+	/**
+	 *  Return the index (in StructureMap.getResidues()) of the Residue the
+	 *  atom belongs to, or -1 if it wasn't found.
+	 */
+	public int getResidueIndex( final int atomIndex )
+	{
+		return this.residueIndices[atomIndex];
+	}
+
+	/**
+	 *  Return the index (in StructureMap.getChains()) of the Chain the atom
+	 *  belongs to, or -1 if it wasn't found.
+	 */
+	public int getChainIndex( final int atomIndex )
+	{
+		return this.chainIndices[atomIndex];
+	}
+}
@@ -231,6 +231,8 @@ public class StructureMap
 	protected Set<Bond> bondUniqueness = null;  // Make sure Bond objects are unique.
 	protected Hashtable<Atom, Vector<Bond>> atomToBonds = null;  // Find all Bonds connected to each Atom.
 	protected Vector<Surface> surfaces = null; // All Surfaces for this Structure
+	protected AtomStore atomStore = null;     // Columnar copy of atoms, built on demand.
+	protected CellGrid spatialIndex = null;   // Neighbor search over atomStore, built on demand.
 
 	protected UnitCell unitCell = null;
 	protected BiologicUnitTransforms BUTransforms = null;
@@ -269,6 +271,10 @@ public class StructureMap
 
 	protected Vector<StructureComponent> pdbTopLevelElements = null;
 
+	// Cell size of the spatial index; about the range of typical contact
+	// and interaction searches, so those only visit neighboring cells.
+	protected static final double spatialIndexCellSize = 4.0;
+
 	// If a chain_id in the data is every empty, use this value instead
 	public static final String defaultChainId = "_";
 
@@ -283,6 +289,9 @@ public class StructureMap
 
 	protected String pdbId = null;
 
+	// Are the fragments and bonds generated by the constructor?
+	protected boolean deriveData = true;
+
 	//
 	// Constructors
 	//
@@ -293,8 +302,23 @@ public class StructureMap
 	 */
 
 	public StructureMap( final Structure structure, final Map<Integer, String> entityNameMap, final Object udata)
+	{
+		this( structure, entityNameMap, udata, true );
+	}
+
+	/**
+	 * Constructs a StructureMap object for a given Structure, containing
+	 * a userdata object. If deriveData is false, the secondary structure
+	 * fragments and the bonds are not generated, so that a caller can
+	 * generate them on its own threads with generateFragments( ) and
+	 * generateBonds( ). They read the same atoms and residues, but write
+	 * separate state, so they may run concurrently.
+	 */
+	public StructureMap( final Structure structure, final Map<Integer, String> entityNameMap, final Object udata,
+			final boolean deriveData )
 	{
 		this.udata = udata;
+		this.deriveData = deriveData;
 		if ( structure == null ) {
 			throw new IllegalArgumentException( "null Structure" );
 		}
@@ -325,6 +349,9 @@ public class StructureMap
 	 */
 	protected void initialize( )
 	{
+		this.atomStore = null;
+		this.spatialIndex = null;
+
 		// All Atoms in the Stucture.
 		final int atomCount = this.structure.getStructureComponentCount(
 				ComponentType.ATOM );
@@ -373,9 +400,13 @@ public class StructureMap
 		{
 			// Its molecule data
 			this.processAtomRecords( );
-			this.generateFragments( );
+			if ( this.deriveData ) {
+				this.generateFragments( );
+			}
 			this.extractLigands( );
-			this.generateBonds( );
+			if ( this.deriveData ) {
+				this.generateBonds( );
+			}
 			// Debugging tip: This is a good place to isolate problems - comment out
 			// a function or two to see where the problems lie
 		}
@@ -540,7 +571,7 @@ public class StructureMap
 	 * Use Conformation records loaded from the Structure if available.
 	 * Otherwise, derive the secondary structure fragments.
 	 */
-	protected void generateFragments( )
+	public void generateFragments( )
 	{
 		// Try loading secondary structure from the data,
 		// and also apply fragment "cleaning" heuristics.
@@ -1179,6 +1210,58 @@ public class StructureMap
 	}
 
 
+	/**
+	 *  Get a columnar (structure of arrays) copy of the atoms, in the same
+	 *  order as getAtom( index ). The store is built on first use and kept
+	 *  until invalidateAtomStore( ) is called. Returns null until the atom
+	 *  records have been processed.
+	 *  <P>
+	 *  @see AtomStore
+	 */
+	public synchronized AtomStore getAtomStore( )
+	{
+		if ( this.atomStore == null && this.atoms != null
+			&& this.atoms.size( ) == this.structure.getStructureComponentCount( ComponentType.ATOM ) )
+		{
+			this.atomStore = new AtomStore( this );
+		}
+		return this.atomStore;
+	}
+
+	/**
+	 *  Discard the cached AtomStore and spatial index, so the next calls to
+	 *  getAtomStore( ) and getSpatialIndex( ) build new ones. Must be called
+	 *  after changing atom coordinates.
+	 */
+	public synchronized void invalidateAtomStore( )
+	{
+		this.atomStore = null;
+		this.spatialIndex = null;
+	}
+
+	/**
+	 *  Get a neighbor search index over all atoms. Point i of the index is
+	 *  getAtom( i ), so radius, nearest neighbor and pair queries return
+	 *  atom indices. The index is built on first use from the AtomStore and
+	 *  shared until invalidateAtomStore( ) is called. Returns null until the
+	 *  atom records have been processed.
+	 *  <P>
+	 *  @see CellGrid
+	 */
+	public synchronized CellGrid getSpatialIndex( )
+	{
+		if ( this.spatialIndex == null )
+		{
+			final AtomStore store = this.getAtomStore( );
+			if ( store != null ) {
+				this.spatialIndex = new CellGrid( store.getCoordinates( ),
+					store.getAtomCount( ), StructureMap.spatialIndexCellSize );
+			}
+		}
+		return this.spatialIndex;
+	}
+
+
 	/**
 	 *  Get the index of the specified Atom.
 	 *  <P>
@@ -1646,8 +1729,11 @@ public class StructureMap
 
 		if ( this.generateBondsByDistance )
 		{
-			// Use the simple distance method.
-			this.addBonds( BondFactory.generateCovalentBonds( this.atoms ) );
+			// Use the simple distance method, on the shared AtomStore
+			// coordinates when the atom records are complete.
+			final AtomStore store = this.getAtomStore( );
+			this.addBonds( ( store != null )? BondFactory.generateCovalentBonds( store ) :
+				BondFactory.generateCovalentBonds( this.atoms ) );
 		}
 		else
 		{
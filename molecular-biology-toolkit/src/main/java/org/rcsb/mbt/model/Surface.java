@@ -75,19 +75,29 @@ public class Surface extends StructureComponent {
 		return ComponentType.SURFACE;
 	}
 	
-	public TriangulatedSurface getTriangulatedSurface() {
+	public synchronized TriangulatedSurface getTriangulatedSurface() {
 		return triangulatedSurface;
 	}
 	
-	public void setTriangulatedSurface(TriangulatedSurface triangulatedSurface) {
+	public synchronized void setTriangulatedSurface(TriangulatedSurface triangulatedSurface) {
 		this.triangulatedSurface = triangulatedSurface;
 	}
 
-	public Color4f[] getColors() {
+	/**
+	 * Replaces the triangulated surface and its vertex colors at once, so that
+	 * a renderer that reads both while holding the lock of this surface never
+	 * sees colors that don't match the vertices.
+	 */
+	public synchronized void setTriangulatedSurface(TriangulatedSurface triangulatedSurface, Color4f[] colors) {
+		this.triangulatedSurface = triangulatedSurface;
+		this.colors = colors;
+	}
+
+	public synchronized Color4f[] getColors() {
 		return colors;
 	}
 
-	public void setColors(Color4f[] colors) {
+	public synchronized void setColors(Color4f[] colors) {
 		this.colors = colors;
 	}
 
@@ -101,7 +101,8 @@ public class AtomColorByBFactor
 			throw new NullPointerException( "null color" );
 		}
 
-		final float bfactor = atom.bfactor / 100.0f;  // Normalize range
+		// Normalize range; the color map rejects values outside 0-1
+		final float bfactor = Math.max( 0.0f, Math.min( 1.0f, atom.bfactor / 100.0f ) );
 		this.colorMap.getColor( bfactor, color );
 	}
 }
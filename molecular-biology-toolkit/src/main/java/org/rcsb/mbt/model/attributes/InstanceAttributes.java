@@ -0,0 +1,347 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.attributes;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Bond;
+import org.rcsb.mbt.model.StructureComponent;
+import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+
+
+/**
+ *  Holds the resolved color and visibility of every atom (or every bond) of
+ *  a StructureMap in one compact array, indexed like the StructureMap's
+ *  atoms (or bonds), so that a renderer can recolor thousands of instances
+ *  by copying bytes instead of asking each Style for a color on every frame.
+ *  <P>
+ *  Each component has getSlots() r, g, b, a byte quadruples in getColors():
+ *  one per atom, and two per bond (getBondColor and getSplitBondColor, the
+ *  two halves of a split bond). The alpha byte is 255 if the component is
+ *  visible and 0 if it is not.
+ *  <P>
+ *  The StructureStyles that owns the attributes marks entries stale as its
+ *  styles and visibility change (see StructureStyles.getInstanceAttributes).
+ *  Nothing is resolved until update() is called, typically once per frame,
+ *  so setting the style of every atom marks them stale many times but
+ *  resolves each of them once. update() bumps getVersion() if any entry
+ *  changed, so a renderer only needs to copy colors when the version it last
+ *  saw is out of date.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.attributes.StructureStyles
+ */
+public class InstanceAttributes
+{
+	private final StructureStyles structureStyles;
+	private final ComponentType type;
+	private final int slots;
+
+	private int count = -1;
+	private byte colors[] = new byte[0];
+
+	// the index of each component, built when first needed
+	private Map<StructureComponent, Integer> indices = null;
+
+	private final BitSet stale = new BitSet( );
+	private boolean allStale = true;
+	private int version = 0;
+
+	private final float color[] = { 0.0f, 0.0f, 0.0f, 1.0f };
+
+	/**
+	 *  Created by StructureStyles for atoms and bonds.
+	 */
+	InstanceAttributes( final StructureStyles structureStyles, final ComponentType type )
+	{
+		if ( type != ComponentType.ATOM && type != ComponentType.BOND ) {
+			throw new IllegalArgumentException( "no instance attributes for " + type );
+		}
+		this.structureStyles = structureStyles;
+		this.type = type;
+		this.slots = type == ComponentType.BOND ? 2 : 1;
+	}
+
+	public ComponentType getType( )
+	{
+		return this.type;
+	}
+
+	/**
+	 *  The number of colors per component.
+	 */
+	public int getSlots( )
+	{
+		return this.slots;
+	}
+
+	/**
+	 *  The index of the component in the StructureMap, or -1 if it is not
+	 *  one of its atoms (or bonds). The first call builds an identity table
+	 *  over every component, which the per-component invalidate( ) of the
+	 *  vertex buffer path needs; callers that only want an index once should
+	 *  use StructureMap.getAtomIndex( ) or getBondIndex( ) instead.
+	 */
+	public synchronized int getIndex( final StructureComponent structureComponent )
+	{
+		this.checkCount( );
+		if ( this.indices == null )
+		{
+			final StructureMap structureMap = this.structureStyles.getStructureMap( );
+			this.indices = new IdentityHashMap<StructureComponent, Integer>( this.count );
+			for ( int i = 0; i < this.count; i++ ) {
+				this.indices.put( this.getComponent( structureMap, i ), Integer.valueOf( i ) );
+			}
+		}
+
+		final Integer index = this.indices.get( structureComponent );
+		return index == null ? -1 : index.intValue( );
+	}
+
+	/**
+	 *  Marks the color and visibility of the component to be resolved by the
+	 *  next update( ).
+	 */
+	public synchronized void invalidate( final StructureComponent structureComponent )
+	{
+		this.checkCount( );
+		if ( this.allStale ) {
+			return;
+		}
+
+		final int index = this.getIndex( structureComponent );
+		if ( index >= 0 ) {
+			this.stale.set( index );
+		}
+	}
+
+	/**
+	 *  Marks every component to be resolved by the next update( ), e.g. when
+	 *  a Style shared by many components was edited in place.
+	 */
+	public synchronized void invalidateAll( )
+	{
+		this.allStale = true;
+		this.stale.clear( );
+	}
+
+	/**
+	 *  Returns true if update( ) has something to resolve.
+	 */
+	public synchronized boolean isStale( )
+	{
+		this.checkCount( );
+		return this.allStale || ! this.stale.isEmpty( );
+	}
+
+	/**
+	 *  Resolves the stale entries from the current styles and visibility.
+	 *  @return	true (and getVersion( ) is bumped) if any entry changed
+	 */
+	public synchronized boolean update( )
+	{
+		this.checkCount( );
+		final StructureMap structureMap = this.structureStyles.getStructureMap( );
+
+		boolean changed = false;
+		if ( this.allStale )
+		{
+			for ( int i = 0; i < this.count; i++ ) {
+				changed |= this.resolve( structureMap, i );
+			}
+		}
+		else
+		{
+			for ( int i = this.stale.nextSetBit( 0 ); i >= 0; i = this.stale.nextSetBit( i + 1 ) ) {
+				changed |= this.resolve( structureMap, i );
+			}
+		}
+		this.allStale = false;
+		this.stale.clear( );
+
+		if ( changed ) {
+			this.version++;
+		}
+		return changed;
+	}
+
+	/**
+	 *  Bumped by every update( ) that changed an entry.
+	 */
+	public synchronized int getVersion( )
+	{
+		return this.version;
+	}
+
+	/**
+	 *  The number of components, as of the last update( ).
+	 */
+	public synchronized int getCount( )
+	{
+		return Math.max( this.count, 0 );
+	}
+
+	/**
+	 *  Gets one of the colors of a component as r, g, b and, if the array is
+	 *  long enough, a (1 if visible, 0 if not).
+	 */
+	public synchronized void getColor( final int index, final int slot, final float color[] )
+	{
+		final int c = 4 * (index * this.slots + slot);
+		color[0] = (this.colors[c] & 0xff) / 255.0f;
+		color[1] = (this.colors[c+1] & 0xff) / 255.0f;
+		color[2] = (this.colors[c+2] & 0xff) / 255.0f;
+		if ( color.length > 3 ) {
+			color[3] = (this.colors[c+3] & 0xff) / 255.0f;
+		}
+	}
+
+	/**
+	 *  Gets one of the colors of a component, or leaves the color unchanged
+	 *  if it is not one of the StructureMap's atoms (or bonds).
+	 *  @return	false if the component was not found
+	 */
+	public synchronized boolean getColor( final StructureComponent structureComponent, final int slot, final float color[] )
+	{
+		final int index = this.getIndex( structureComponent );
+		if ( index < 0 || index * this.slots >= this.colors.length / 4 ) {
+			return false;
+		}
+		this.getColor( index, slot, color );
+		return true;
+	}
+
+	public synchronized boolean isVisible( final int index )
+	{
+		return this.colors[4 * index * this.slots + 3] != 0;
+	}
+
+	/**
+	 *  The colors; getCount( ) * getSlots( ) r, g, b, a quadruples.
+	 */
+	public synchronized byte[] getColors( )
+	{
+		return this.colors;
+	}
+
+	/**
+	 *  Starts over if atoms or bonds were added or removed since the last
+	 *  call (e.g. bonds generated after the styles were created).
+	 */
+	private void checkCount( )
+	{
+		final StructureMap structureMap = this.structureStyles.getStructureMap( );
+		final int newCount = this.type == ComponentType.ATOM ?
+			structureMap.getAtomCount( ) : structureMap.getBondCount( );
+		if ( newCount != this.count )
+		{
+			this.count = newCount;
+			this.colors = new byte[4 * this.slots * newCount];
+			this.indices = null;
+			this.invalidateAll( );
+			this.version++;
+		}
+	}
+
+	private StructureComponent getComponent( final StructureMap structureMap, final int index )
+	{
+		return this.type == ComponentType.ATOM ? structureMap.getAtom( index ) : structureMap.getBond( index );
+	}
+
+	/**
+	 *  Resolves the entry of one component.
+	 *  @return	true if it changed
+	 */
+	private boolean resolve( final StructureMap structureMap, final int index )
+	{
+		final StructureComponent structureComponent = this.getComponent( structureMap, index );
+		final Style style = this.structureStyles.getStyle( structureComponent );
+		final byte alpha = this.structureStyles.isVisible( structureComponent ) ? (byte) 255 : 0;
+
+		boolean changed = false;
+		for ( int slot = 0; slot < this.slots; slot++ )
+		{
+			this.color[0] = this.color[1] = this.color[2] = 0.5f;
+			try {
+				if ( style instanceof AtomStyle ) {
+					((AtomStyle) style).getAtomColor( (Atom) structureComponent, this.color );
+				} else if ( style instanceof BondStyle && slot == 0 ) {
+					((BondStyle) style).getBondColor( (Bond) structureComponent, this.color );
+				} else if ( style instanceof BondStyle ) {
+					((BondStyle) style).getSplitBondColor( (Bond) structureComponent, this.color );
+				}
+			} catch ( final RuntimeException e ) {
+				// e.g. a B-factor out of the color map's range; leave it gray,
+				// as the display lists skip the color of such a component
+				this.color[0] = this.color[1] = this.color[2] = 0.5f;
+			}
+
+			final int c = 4 * (index * this.slots + slot);
+			changed |= this.set( c, toByte( this.color[0] ) );
+			changed |= this.set( c + 1, toByte( this.color[1] ) );
+			changed |= this.set( c + 2, toByte( this.color[2] ) );
+			changed |= this.set( c + 3, alpha );
+		}
+		return changed;
+	}
+
+	private boolean set( final int c, final byte value )
+	{
+		if ( this.colors[c] == value ) {
+			return false;
+		}
+		this.colors[c] = value;
+		return true;
+	}
+
+	private static byte toByte( final float value )
+	{
+		return (byte) Math.round( 255.0f * Math.max( 0.0f, Math.min( 1.0f, value ) ) );
+	}
+}
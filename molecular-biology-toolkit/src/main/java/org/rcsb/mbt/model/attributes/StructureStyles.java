@@ -51,6 +51,7 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Vector;
 
 import javax.print.attribute.standard.MediaSize.NA;
 
@@ -116,10 +117,31 @@ import org.rcsb.mbt.model.util.Status;
  * 
  * AtomStyle atomStyle = (AtomStyle) structureStyles.getStyle( atom );
  * atomStyle.setAtomColor( new AtomColorByRgb( 1.0f, 0.0f, 0.0f ) );
+ * structureStyles.invalidateInstanceAttributes( );
  * 
  * </PRE>
  * 
  * <P>
+ * The resolved colors and visibility of atoms and bonds are kept in
+ * InstanceAttributes (see getInstanceAttributes), which setStyle and
+ * setVisible mark stale. Editing a Style in place fires no event, hence the
+ * call to invalidateInstanceAttributes above.
+ * <P>
+ * Changing many components at once:<BR>
+ * 
+ * <PRE>
+ * 
+ * structureStyles.begin( );
+ * try { for ( ... ) structureStyles.setVisible( atom, false ); }
+ * finally { structureStyles.commit( ); }
+ * 
+ * </PRE>
+ * 
+ * <P>
+ * Between begin and commit, changes are recorded in a StructureStylesChanges
+ * instead of being sent to the listeners one component at a time, and commit
+ * fires a single event that carries them (see StructureStylesEvent.changes).
+ * <P>
  * <center> <img src="doc-files/SelectionModel.jpg" border=0></a> </center>
  * <P>
  * 
@@ -138,6 +160,9 @@ public class StructureStyles
 
 	public static final int ATTRIBUTE_SELECTION = 3;
 
+	// More than one of the above (only for an event fired by commit).
+	public static final int ATTRIBUTE_MULTIPLE = 4;
+
 	// Internal flags for special-case visibility and selection states.
 	private static final int FLAG_NONE = 0;
 
@@ -173,6 +198,14 @@ public class StructureStyles
 	// Event listeners.
 	private final ArrayList<IStructureStylesEventListener> listeners = new ArrayList<IStructureStylesEventListener>();
 
+	// The resolved colors and visibility of the atoms and bonds.
+	private final InstanceAttributes atomAttributes = new InstanceAttributes(this, ComponentType.ATOM);
+	private final InstanceAttributes bondAttributes = new InstanceAttributes(this, ComponentType.BOND);
+
+	// The changes recorded by an open transaction (see begin), or null.
+	private int transactionDepth = 0;
+	private StructureStylesChanges changes = null;
+
 	/**
 	 * The color used to hilight selected objects. Notice that this value is
 	 * static so that the same color is applied toolkit-wide. Default color =
@@ -1513,6 +1546,154 @@ public class StructureStyles
 		return null;
 	}
 
+	//
+	// Instance attribute methods
+	//
+
+	/**
+	 * Return the resolved colors and visibility of the atoms (ATOM) or bonds
+	 * (BOND), or null for other types. Call update() on the attributes before
+	 * reading them.
+	 */
+	public InstanceAttributes getInstanceAttributes(final ComponentType scType) {
+		if (scType == ComponentType.ATOM) {
+			return this.atomAttributes;
+		} else if (scType == ComponentType.BOND) {
+			return this.bondAttributes;
+		}
+		return null;
+	}
+
+	/**
+	 * Mark all instance attributes to be resolved again, e.g. after a Style
+	 * shared by many components was edited in place.
+	 */
+	public void invalidateInstanceAttributes() {
+		this.atomAttributes.invalidateAll();
+		this.bondAttributes.invalidateAll();
+	}
+
+	/**
+	 * Mark the instance attributes a style or visibility change may have
+	 * affected. An atom's color may also color its bonds, and residue or chain
+	 * colors may color atoms, so anything but a single bond or atom
+	 * invalidates all of them.
+	 */
+	private void invalidateInstanceAttributes(final StructureStylesEvent structureStylesEvent) {
+		if (structureStylesEvent.attribute == StructureStyles.ATTRIBUTE_SELECTION) {
+			return;
+		}
+
+		final StructureComponent structureComponent = structureStylesEvent.structureComponent;
+		final ComponentType scType = structureComponent == null ? null : structureComponent.getStructureComponentType();
+		if (scType == ComponentType.ATOM) {
+			this.atomAttributes.invalidate(structureComponent);
+			final Vector<Bond> bonds = this.structureMap.getBonds((Atom) structureComponent);
+			if (bonds != null) {
+				for (int i = 0; i < bonds.size(); i++) {
+					this.bondAttributes.invalidate(bonds.get(i));
+				}
+			}
+		} else if (scType == ComponentType.BOND) {
+			this.bondAttributes.invalidate(structureComponent);
+		} else {
+			this.invalidateInstanceAttributes();
+		}
+	}
+
+	//
+	// Transaction methods
+	//
+
+	/**
+	 * Start recording style, visibility and selection changes instead of
+	 * firing an event for each of them. Calls may be nested; the outermost
+	 * commit fires one event for all the changes. Always pair with commit in a
+	 * finally block. Transactions are meant to be used from one thread (the
+	 * one that makes the changes).
+	 */
+	public void begin() {
+		if (this.transactionDepth++ == 0) {
+			this.changes = new StructureStylesChanges();
+		}
+	}
+
+	/**
+	 * End the transaction started by the matching begin call. The outermost
+	 * commit fires one StructureStylesEvent whose changes field holds
+	 * everything recorded since begin (nothing is fired if nothing changed).
+	 * The event's attribute is the changed attribute, or ATTRIBUTE_MULTIPLE,
+	 * and its structureComponent is the last component changed.
+	 */
+	public void commit() {
+		if (this.transactionDepth == 0) {
+			throw new IllegalStateException("commit without begin");
+		}
+		if (--this.transactionDepth > 0) {
+			return;
+		}
+
+		final StructureStylesChanges committed = this.changes;
+		this.changes = null;
+		if (committed.isEmpty()) {
+			return;
+		}
+
+		final StructureStylesEvent structureStylesEvent = new StructureStylesEvent();
+		structureStylesEvent.structureStyles = this;
+		structureStylesEvent.attribute = committed.getAttribute();
+		structureStylesEvent.structureComponent = committed.getLastComponent();
+		structureStylesEvent.changes = committed;
+		this.fireStructureStylesEvent(structureStylesEvent);
+	}
+
+	/**
+	 * Returns true between begin and the matching commit.
+	 */
+	public boolean isInTransaction() {
+		return this.transactionDepth > 0;
+	}
+
+	/**
+	 * Record the change an event describes in the open transaction.
+	 */
+	private void recordChange(final StructureStylesEvent structureStylesEvent) {
+		final StructureComponent structureComponent = structureStylesEvent.structureComponent;
+		final int index = structureComponent == null ? -1 : this.getComponentIndex(structureComponent);
+		if (index < 0) {
+			this.changes.addAll(structureStylesEvent.attribute, structureComponent);
+		} else {
+			this.changes.add(structureStylesEvent.attribute, structureComponent, index);
+		}
+	}
+
+	/**
+	 * The index of the component in the StructureMap, or -1 if it has none.
+	 * Atoms and bonds are looked up by the StructureMap's binary search, so
+	 * recording a change does not build the InstanceAttributes index table.
+	 */
+	private int getComponentIndex(final StructureComponent structureComponent) {
+		final ComponentType scType = structureComponent.getStructureComponentType();
+		try {
+			if (scType == ComponentType.ATOM) {
+				return this.structureMap.getAtomIndex((Atom) structureComponent);
+			} else if (scType == ComponentType.BOND) {
+				return this.structureMap.getBondIndex((Bond) structureComponent);
+			} else if (scType == ComponentType.RESIDUE) {
+				return this.structureMap.getResidueIndex((Residue) structureComponent);
+			} else if (scType == ComponentType.FRAGMENT) {
+				return this.structureMap.getFragmentIndex((Fragment) structureComponent);
+			} else if (scType == ComponentType.CHAIN) {
+				return this.structureMap.getChainIndex((Chain) structureComponent);
+			} else if (scType == ComponentType.SURFACE) {
+				return this.structureMap.getSurfaceIndex((Surface) structureComponent);
+			}
+		} catch (final IllegalArgumentException e) {
+			// not (or no longer) part of the StructureMap
+		}
+		return -1;
+	}
+
 	//
 	// StructureStyleEvent methods
 	//
@@ -1520,7 +1701,8 @@ public class StructureStyles
 	/**
 	 * Informs all registered listeners that a style has changed. Called
 	 * explictly when setStyle is called, or, implictly when any individual
-	 * style changes state.
+	 * style changes state. Between begin and commit the change is recorded
+	 * for the event fired by commit instead.
 	 * <P>
 	 * 
 	 * @param
@@ -1529,6 +1711,18 @@ public class StructureStyles
 	 */
 	public void processStructureStylesEvent(
 			final StructureStylesEvent structureStylesEvent) {
+		this.invalidateInstanceAttributes(structureStylesEvent);
+
+		if (this.changes != null) {
+			this.recordChange(structureStylesEvent);
+			return;
+		}
+
+		this.fireStructureStylesEvent(structureStylesEvent);
+	}
+
+	private void fireStructureStylesEvent(
+			final StructureStylesEvent structureStylesEvent) {
 		// Loop through and call all StructureStylesEventListener objects.
 		final int listenerCount = this.listeners.size();
 		for (int i = 0; i < listenerCount; i++) {
@@ -0,0 +1,233 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.attributes;
+
+import java.util.BitSet;
+
+import org.rcsb.mbt.model.StructureComponent;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+
+
+/**
+ *  The changes recorded by a StructureStyles between begin( ) and commit( ),
+ *  and delivered to listeners with the single StructureStylesEvent fired by
+ *  the outermost commit( ) (see StructureStylesEvent.changes).
+ *  <P>
+ *  For each attribute (StructureStyles.ATTRIBUTE_STYLE, ATTRIBUTE_VISIBILITY
+ *  or ATTRIBUTE_SELECTION) and component type, the changed components are
+ *  kept as a BitSet of their indices in the StructureMap (e.g. getAtomIndex,
+ *  getResidueIndex), so hiding every atom of a structure is recorded as one
+ *  range rather than as an event per atom. Changes to the whole structure
+ *  (e.g. showAll, clearSelections), or to components that have no index,
+ *  set isAllChanged( ) instead.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.attributes.StructureStyles
+ *  @see	org.rcsb.mbt.model.attributes.StructureStylesEvent
+ */
+public class StructureStylesChanges
+{
+	private static final int ATTRIBUTES = StructureStyles.ATTRIBUTE_SELECTION + 1;
+	private static final ComponentType TYPES[] = ComponentType.values( );
+
+	// indexed by attribute * TYPES.length + type ordinal
+	private final BitSet changed[] = new BitSet[StructureStylesChanges.ATTRIBUTES * StructureStylesChanges.TYPES.length];
+	private final boolean allChanged[] = new boolean[StructureStylesChanges.ATTRIBUTES];
+	private final StructureComponent lastComponent[] = new StructureComponent[StructureStylesChanges.ATTRIBUTES];
+	private int lastAttribute = 0;
+
+	/**
+	 *  Created by StructureStyles.begin( ).
+	 */
+	StructureStylesChanges( )
+	{
+	}
+
+	/**
+	 *  Record a change to the component at the given index.
+	 */
+	void add( final int attribute, final StructureComponent structureComponent, final int index )
+	{
+		final int i = attribute * StructureStylesChanges.TYPES.length + structureComponent.getStructureComponentType( ).ordinal( );
+		if ( this.changed[i] == null ) {
+			this.changed[i] = new BitSet( );
+		}
+		this.changed[i].set( index );
+		this.setLast( attribute, structureComponent );
+	}
+
+	/**
+	 *  Record a change to the whole structure, or to a component (which may
+	 *  be null) without an index.
+	 */
+	void addAll( final int attribute, final StructureComponent structureComponent )
+	{
+		this.allChanged[attribute] = true;
+		this.setLast( attribute, structureComponent );
+	}
+
+	private void setLast( final int attribute, final StructureComponent structureComponent )
+	{
+		if ( structureComponent != null ) {
+			this.lastComponent[attribute] = structureComponent;
+		}
+		this.lastAttribute = attribute;
+	}
+
+	/**
+	 *  Returns true if nothing was changed.
+	 */
+	public boolean isEmpty( )
+	{
+		return this.lastAttribute == 0;
+	}
+
+	/**
+	 *  Returns true if the given attribute of anything was changed.
+	 */
+	public boolean hasChanged( final int attribute )
+	{
+		if ( attribute <= 0 || attribute >= StructureStylesChanges.ATTRIBUTES ) {
+			return false;
+		}
+		if ( this.allChanged[attribute] ) {
+			return true;
+		}
+		for ( int t = 0; t < StructureStylesChanges.TYPES.length; t++ ) {
+			if ( this.changed[attribute * StructureStylesChanges.TYPES.length + t] != null ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *  Returns true if the given attribute may have changed for any
+	 *  component, rather than just for those returned by getChanged.
+	 */
+	public boolean isAllChanged( final int attribute )
+	{
+		return this.hasChanged( attribute ) && this.allChanged[attribute];
+	}
+
+	/**
+	 *  Return the changed attribute, or StructureStyles.ATTRIBUTE_MULTIPLE if
+	 *  more than one attribute was changed (0 if nothing was).
+	 */
+	public int getAttribute( )
+	{
+		int attribute = 0;
+		for ( int a = 1; a < StructureStylesChanges.ATTRIBUTES; a++ )
+		{
+			if ( this.hasChanged( a ) )
+			{
+				if ( attribute != 0 ) {
+					return StructureStyles.ATTRIBUTE_MULTIPLE;
+				}
+				attribute = a;
+			}
+		}
+		return attribute;
+	}
+
+	/**
+	 *  Return the StructureMap indices of the components of the given type
+	 *  whose attribute was changed, or null if there are none. The BitSet
+	 *  belongs to this object and must not be modified.
+	 */
+	public BitSet getChanged( final int attribute, final ComponentType type )
+	{
+		if ( attribute <= 0 || attribute >= StructureStylesChanges.ATTRIBUTES ) {
+			return null;
+		}
+		return this.changed[attribute * StructureStylesChanges.TYPES.length + type.ordinal( )];
+	}
+
+	/**
+	 *  Return the changed indices of getChanged as start (inclusive) and end
+	 *  (exclusive) pairs: { start0, end0, start1, end1, ... }.
+	 */
+	public int[] getRanges( final int attribute, final ComponentType type )
+	{
+		final BitSet bits = this.getChanged( attribute, type );
+		if ( bits == null ) {
+			return new int[0];
+		}
+
+		int count = 0;
+		for ( int i = bits.nextSetBit( 0 ); i >= 0; i = bits.nextSetBit( bits.nextClearBit( i ) ) ) {
+			count++;
+		}
+
+		final int ranges[] = new int[count * 2];
+		int r = 0;
+		for ( int i = bits.nextSetBit( 0 ); i >= 0; i = bits.nextSetBit( i ) )
+		{
+			ranges[r++] = i;
+			i = bits.nextClearBit( i );
+			ranges[r++] = i;
+		}
+		return ranges;
+	}
+
+	/**
+	 *  Return the last component whose attribute was changed, or null.
+	 */
+	public StructureComponent getLastComponent( final int attribute )
+	{
+		if ( attribute <= 0 || attribute >= StructureStylesChanges.ATTRIBUTES ) {
+			return null;
+		}
+		return this.lastComponent[attribute];
+	}
+
+	/**
+	 *  Return the last component that was changed, or null.
+	 */
+	public StructureComponent getLastComponent( )
+	{
+		return this.lastAttribute == 0 ? null : this.lastComponent[this.lastAttribute];
+	}
+}
@@ -95,5 +95,27 @@ public class StructureStylesEvent
 	 *  valid states).
 	 */
 	public int flag;
+
+	/**
+	 *  For the event fired by StructureStyles.commit: every change made in
+	 *  the transaction, by attribute and component type. Null for an event
+	 *  about one change, which structureComponent and attribute describe.
+	 */
+	public StructureStylesChanges changes;
+
+	/**
+	 *  Returns true if the event reports a change of the given attribute,
+	 *  whether it is a single or a committed (coalesced) event. Listeners
+	 *  should prefer this to comparing the attribute field, which is
+	 *  StructureStyles.ATTRIBUTE_MULTIPLE when a transaction changed more
+	 *  than one attribute.
+	 */
+	public boolean isChanged( final int attribute )
+	{
+		if ( this.changes != null ) {
+			return this.changes.hasChanged( attribute );
+		}
+		return this.attribute == attribute;
+	}
 }
 
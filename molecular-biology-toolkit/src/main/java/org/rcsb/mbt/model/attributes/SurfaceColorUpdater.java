@@ -47,7 +47,6 @@
 package org.rcsb.mbt.model.attributes;
 
 import java.awt.*;
-import java.util.List;
 
 /**
  * Updates the color and transparency of surfaces
@@ -62,7 +61,6 @@ import org.rcsb.mbt.model.Atom;
 import org.rcsb.mbt.model.Surface;
 import org.rcsb.mbt.model.util.ChemicalComponentInfo;
 import org.rcsb.mbt.model.util.ColorConverter;
-import org.rcsb.mbt.surface.datastructure.VertInfo;
 
 public final class SurfaceColorUpdater {
 	private static InterpolatedColorMap hydrophobicityMap = new InterpolatedColorMap(InterpolatedColorMap.HYDROPHOBICITY_RAMP);
@@ -73,8 +71,8 @@ public final class SurfaceColorUpdater {
     private SurfaceColorUpdater() {}
 	
 	public static void setHydrophobicSurfaceColor(Surface surface) {
-		List<VertInfo> verts = surface.getTriangulatedSurface().getVertices();
-		int vertexCount = verts.size();
+		Object[] references = surface.getTriangulatedSurface().getReferences();
+		int vertexCount = surface.getTriangulatedSurface().getVertexCount();
 		
 		Color4f[] colors = surface.getColors();
 		if (colors == null || colors.length != vertexCount) {
@@ -89,15 +87,13 @@ public final class SurfaceColorUpdater {
 		}
 		
 		for (int i = 0; i < vertexCount; i++) {
-			VertInfo v = verts.get(i);
-			colors[i] = getHydrophobicityColorScheme((Atom)v.reference);
+			colors[i] = getHydrophobicityColorScheme((Atom)references[i]);
 			colors[i].w = transparency;
 		}
 	}
 	
 	public static void setPaletteColor(Surface surface, ColorBrewer brewer, int colorCount, int colorIndex) {
-		List<VertInfo> verts = surface.getTriangulatedSurface().getVertices();
-		int vertexCount = verts.size();
+		int vertexCount = surface.getTriangulatedSurface().getVertexCount();
 		
 		Color4f[] colors = surface.getColors();
 		if (colors == null || colors.length != vertexCount) {
@@ -122,8 +118,7 @@ public final class SurfaceColorUpdater {
 	}
 	
 	public static void setSurfaceColor(Surface surface, Color4f color) {
-		List<VertInfo> verts = surface.getTriangulatedSurface().getVertices();
-		int vertexCount = verts.size();
+		int vertexCount = surface.getTriangulatedSurface().getVertexCount();
 		
 		Color4f[] colors = surface.getColors();
 		if (colors == null || colors.length != vertexCount) {
@@ -145,8 +140,7 @@ public final class SurfaceColorUpdater {
 	}
 	
 	public static void setSurfaceTransparency(Surface surface, float transparency) {
-		List<VertInfo> verts = surface.getTriangulatedSurface().getVertices();
-		int vertexCount = verts.size();
+		int vertexCount = surface.getTriangulatedSurface().getVertexCount();
 		
 		Color4f[] colors = surface.getColors();
 		if (colors == null || colors.length != vertexCount) {
@@ -161,8 +155,7 @@ public final class SurfaceColorUpdater {
 	}
 	
 	public static void setSurfaceTransparencyToggle(Surface surface) {
-		List<VertInfo> verts = surface.getTriangulatedSurface().getVertices();
-		int vertexCount = verts.size();
+		int vertexCount = surface.getTriangulatedSurface().getVertexCount();
 		
 		Color4f[] colors = surface.getColors();
 		if (colors == null || colors.length != vertexCount) {
@@ -0,0 +1,621 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.geometry;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+/**
+ *  Packs the triangle meshes of many structure components (atom spheres,
+ *  bond cylinders, ribbon or surface meshes) into shared arrays, so that a
+ *  renderer can draw all of them with one vertex buffer and one draw call.
+ *  <P>
+ *  Vertices are interleaved as x, y, z, nx, ny, nz in getVertices(), with
+ *  one r, g, b, a byte quadruple per vertex in getColors(), and getIndices()
+ *  holds three vertex indices per triangle. Every add call appends a part:
+ *  parts are numbered in the order they are added, and part p has the
+ *  vertices getVertexStart(p) to getVertexEnd(p)-1 and the indices
+ *  getIndexStart(p) to getIndexEnd(p)-1. The parts of a component are added
+ *  one after another, so a component has the parts getFirstPart(c) to
+ *  getEndPart(c)-1 (e.g. the two halves of a split bond).
+ *  <P>
+ *  The ranges let a renderer pick a component by the part under the cursor,
+ *  and recolor a component without packing it again: setColor() rewrites
+ *  the colors of a part and widens the range of colors that have changed
+ *  since the last clearChangedColors(), so only that range needs to be
+ *  uploaded. Nothing here needs a GL context.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.geometry.GeometryBatch.Mesh
+ */
+public class GeometryBatch
+{
+	/**
+	 *  The number of floats per vertex in getVertices().
+	 */
+	public static final int VERTEX_SIZE = 6;
+
+	/**
+	 *  An indexed triangle mesh in model coordinates, e.g. a unit sphere to
+	 *  be placed at every atom.
+	 */
+	public static final class Mesh
+	{
+		private final float positions[];
+		private final float normals[];
+		private final int triangles[];
+
+		public Mesh( final float positions[], final float normals[], final int triangles[] )
+		{
+			if ( positions.length != normals.length || positions.length % 3 != 0 || triangles.length % 3 != 0 ) {
+				throw new IllegalArgumentException( "bad mesh arrays" );
+			}
+			this.positions = positions;
+			this.normals = normals;
+			this.triangles = triangles;
+		}
+
+		public int getVertexCount( )
+		{
+			return this.positions.length / 3;
+		}
+
+		public int getTriangleCount( )
+		{
+			return this.triangles.length / 3;
+		}
+
+		/**
+		 *  A sphere of radius 1 around the origin, cut into the given number
+		 *  of slices around the z axis and stacks along it, like
+		 *  glutSolidSphere.
+		 */
+		public static Mesh sphere( final int slices, final int stacks )
+		{
+			final int rowSize = slices + 1;
+			final float positions[] = new float[3 * rowSize * (stacks + 1)];
+			for ( int i = 0; i <= stacks; i++ )
+			{
+				final double theta = Math.PI * i / stacks;
+				final double z = Math.cos( theta );
+				final double r = Math.sin( theta );
+				for ( int j = 0; j <= slices; j++ )
+				{
+					final double phi = 2.0 * Math.PI * j / slices;
+					final int v = 3 * (i * rowSize + j);
+					positions[v] = (float) (r * Math.cos( phi ));
+					positions[v+1] = (float) (r * Math.sin( phi ));
+					positions[v+2] = (float) z;
+				}
+			}
+
+			// the first and last stack meet at the poles, so they have one
+			// triangle per slice
+			final int triangles[] = new int[3 * slices * (2 * stacks - 2)];
+			int t = 0;
+			for ( int i = 0; i < stacks; i++ )
+			{
+				for ( int j = 0; j < slices; j++ )
+				{
+					final int v00 = i * rowSize + j;
+					final int v01 = v00 + 1;
+					final int v10 = v00 + rowSize;
+					final int v11 = v10 + 1;
+					if ( i > 0 )
+					{
+						triangles[t++] = v00;
+						triangles[t++] = v10;
+						triangles[t++] = v01;
+					}
+					if ( i < stacks - 1 )
+					{
+						triangles[t++] = v01;
+						triangles[t++] = v10;
+						triangles[t++] = v11;
+					}
+				}
+			}
+			return new Mesh( positions, positions.clone( ), triangles );
+		}
+
+		/**
+		 *  An open cylinder of radius 1 along the y axis from y = -0.5 to
+		 *  y = 0.5, cut into the given number of slices, like the bond
+		 *  cylinders of the display lists.
+		 */
+		public static Mesh cylinder( final int slices )
+		{
+			final float positions[] = new float[6 * (slices + 1)];
+			final float normals[] = new float[6 * (slices + 1)];
+			for ( int j = 0; j <= slices; j++ )
+			{
+				final double phi = 2.0 * Math.PI * j / slices;
+				final float x = (float) Math.cos( phi );
+				final float z = (float) -Math.sin( phi );
+				for ( int k = 0; k < 2; k++ )
+				{
+					final int v = 3 * (2 * j + k);
+					positions[v] = x;
+					positions[v+1] = k == 0 ? -0.5f : 0.5f;
+					positions[v+2] = z;
+					normals[v] = x;
+					normals[v+2] = z;
+				}
+			}
+
+			final int triangles[] = new int[6 * slices];
+			for ( int j = 0; j < slices; j++ )
+			{
+				final int v = 2 * j;
+				triangles[6*j] = v;
+				triangles[6*j+1] = v + 2;
+				triangles[6*j+2] = v + 1;
+				triangles[6*j+3] = v + 1;
+				triangles[6*j+4] = v + 2;
+				triangles[6*j+5] = v + 3;
+			}
+			return new Mesh( positions, normals, triangles );
+		}
+	}
+
+	private float vertices[];
+	private byte colors[];
+	private int indices[];
+	private int vertexCount = 0;
+	private int indexCount = 0;
+
+	// per part: the component, and the first vertex and index of the part;
+	// the ranges of part p end where those of part p+1 start
+	private Object partComponents[];
+	private int partVertexStart[];
+	private int partIndexStart[];
+	private int partCount = 0;
+
+	// component -> its first part; its parts end at the next component's
+	private final Map<Object, Integer> firstParts = new IdentityHashMap<Object, Integer>( );
+	private Object lastComponent = null;
+
+	private int changedColorStart = Integer.MAX_VALUE;
+	private int changedColorEnd = 0;
+
+	public GeometryBatch( )
+	{
+		this( 1024 );
+	}
+
+	public GeometryBatch( final int vertexCapacity )
+	{
+		this.vertices = new float[VERTEX_SIZE * Math.max( 1, vertexCapacity )];
+		this.colors = new byte[4 * Math.max( 1, vertexCapacity )];
+		this.indices = new int[3 * Math.max( 1, vertexCapacity )];
+		this.partComponents = new Object[64];
+		this.partVertexStart = new int[65];
+		this.partIndexStart = new int[65];
+	}
+
+	/**
+	 *  Returns the color of a part in 0 to 1.
+	 */
+	public void getColor( final int part, final float color[] )
+	{
+		final int c = 4 * this.getVertexStart( part );
+		for ( int i = 0; i < color.length && i < 4; i++ ) {
+			color[i] = (this.colors[c+i] & 0xff) / 255.0f;
+		}
+	}
+
+	/**
+	 *  Adds the mesh, transformed by a 4x4 column-major matrix (as in
+	 *  ModelTransformationMatrix.values), as a part of the component. Normals
+	 *  are transformed by the inverse transpose of the matrix, so the
+	 *  matrix may scale the axes differently.
+	 *  @return	the part
+	 */
+	public int addMesh( final Object component, final Mesh mesh, final float matrix[], final float color[] )
+	{
+		final int part = this.beginPart( component, mesh.getVertexCount( ), mesh.triangles.length );
+		final int first = this.vertexCount;
+
+		// cofactors of the upper 3x3, i.e. its inverse transpose times the
+		// determinant, which is fine as normals are normalized anyway
+		final float m[] = matrix;
+		final float c00 = m[5] * m[10] - m[6] * m[9];
+		final float c01 = m[6] * m[8] - m[4] * m[10];
+		final float c02 = m[4] * m[9] - m[5] * m[8];
+		final float c10 = m[2] * m[9] - m[1] * m[10];
+		final float c11 = m[0] * m[10] - m[2] * m[8];
+		final float c12 = m[1] * m[8] - m[0] * m[9];
+		final float c20 = m[1] * m[6] - m[2] * m[5];
+		final float c21 = m[2] * m[4] - m[0] * m[6];
+		final float c22 = m[0] * m[5] - m[1] * m[4];
+		final float det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+		final float sign = det < 0 ? -1.0f : 1.0f;
+
+		final float p[] = mesh.positions;
+		final float n[] = mesh.normals;
+		for ( int i = 0; i < p.length; i += 3 )
+		{
+			final int v = VERTEX_SIZE * this.vertexCount;
+			final float x = p[i];
+			final float y = p[i+1];
+			final float z = p[i+2];
+			this.vertices[v] = m[0] * x + m[4] * y + m[8] * z + m[12];
+			this.vertices[v+1] = m[1] * x + m[5] * y + m[9] * z + m[13];
+			this.vertices[v+2] = m[2] * x + m[6] * y + m[10] * z + m[14];
+
+			final float nx = n[i];
+			final float ny = n[i+1];
+			final float nz = n[i+2];
+			this.setNormal( v,
+				sign * (c00 * nx + c10 * ny + c20 * nz),
+				sign * (c01 * nx + c11 * ny + c21 * nz),
+				sign * (c02 * nx + c12 * ny + c22 * nz) );
+			this.vertexCount++;
+		}
+
+		this.addTriangles( mesh.triangles, first );
+		this.fillColors( first, this.vertexCount, color );
+		return part;
+	}
+
+	/**
+	 *  Adds a mesh that is already in place, such as a ribbon or a surface,
+	 *  as a part of the component.
+	 *  @param	positions	x, y, z per vertex
+	 *  @param	normals	x, y, z per vertex
+	 *  @param	triangles	three vertex indices per triangle
+	 *  @return	the part
+	 */
+	public int addMesh( final Object component, final float positions[], final float normals[], final int triangles[], final float color[] )
+	{
+		final int part = this.beginPart( component, positions.length / 3, triangles.length );
+		final int first = this.vertexCount;
+		for ( int i = 0; i < positions.length; i += 3 )
+		{
+			final int v = VERTEX_SIZE * this.vertexCount;
+			this.vertices[v] = positions[i];
+			this.vertices[v+1] = positions[i+1];
+			this.vertices[v+2] = positions[i+2];
+			this.setNormal( v, normals[i], normals[i+1], normals[i+2] );
+			this.vertexCount++;
+		}
+		this.addTriangles( triangles, first );
+		this.fillColors( first, this.vertexCount, color );
+		return part;
+	}
+
+	/**
+	 *  Adds a sphere mesh of the given radius around the center.
+	 */
+	public int addSphere( final Object component, final Mesh sphere, final double center[], final float radius, final float color[] )
+	{
+		return this.addMesh( component, sphere, getSphereMatrix( center, radius ), color );
+	}
+
+	/**
+	 *  Adds a cylinder mesh of the given radius from point 0 to point 1.
+	 */
+	public int addCylinder( final Object component, final Mesh cylinder, final double point0[], final double point1[],
+		final float radius, final float color[] )
+	{
+		return this.addMesh( component, cylinder, getCylinderMatrix( point0, point1, radius ), color );
+	}
+
+	/**
+	 *  Returns the matrix that scales a unit sphere to the radius and moves
+	 *  it to the center.
+	 */
+	public static float[] getSphereMatrix( final double center[], final float radius )
+	{
+		return new float[] {
+			radius, 0, 0, 0,
+			0, radius, 0, 0,
+			0, 0, radius, 0,
+			(float) center[0], (float) center[1], (float) center[2], 1 };
+	}
+
+	/**
+	 *  Returns the matrix that turns the unit cylinder of Mesh.cylinder()
+	 *  into a cylinder of the given radius from point 0 to point 1.
+	 */
+	public static float[] getCylinderMatrix( final double point0[], final double point1[], final float radius )
+	{
+		final double d[] = { point1[0] - point0[0], point1[1] - point0[1], point1[2] - point0[2] };
+		final double length = Math.sqrt( d[0] * d[0] + d[1] * d[1] + d[2] * d[2] );
+
+		// the y axis goes along the cylinder, x and z across it
+		final double y[] = length > 0.0 ? new double[] { d[0] / length, d[1] / length, d[2] / length } : new double[] { 0, 1, 0 };
+		final double helper[] = Math.abs( y[0] ) < 0.9 ? new double[] { 1, 0, 0 } : new double[] { 0, 1, 0 };
+		final double x[] = normalize( cross( y, helper ) );
+		final double z[] = cross( x, y );
+
+		return new float[] {
+			(float) (x[0] * radius), (float) (x[1] * radius), (float) (x[2] * radius), 0,
+			(float) d[0], (float) d[1], (float) d[2], 0,
+			(float) (z[0] * radius), (float) (z[1] * radius), (float) (z[2] * radius), 0,
+			(float) ((point0[0] + point1[0]) / 2.0), (float) ((point0[1] + point1[1]) / 2.0), (float) ((point0[2] + point1[2]) / 2.0), 1 };
+	}
+
+	/**
+	 *  Sets the color of the vertices of a part. The changed colors are only
+	 *  widened if the color differs from the current one.
+	 */
+	public void setColor( final int part, final float color[] )
+	{
+		final int start = this.getVertexStart( part );
+		final int end = this.getVertexEnd( part );
+		if ( start == end ) {
+			return;
+		}
+
+		final int c = 4 * start;
+		if ( this.colors[c] == toByte( color[0] ) && this.colors[c+1] == toByte( color[1] ) &&
+			this.colors[c+2] == toByte( color[2] ) &&
+			this.colors[c+3] == (color.length > 3 ? toByte( color[3] ) : (byte) 255) ) {
+			return;
+		}
+		this.fillColors( start, end, color );
+	}
+
+	/**
+	 *  Removes all parts, keeping the arrays for packing again.
+	 */
+	public void clear( )
+	{
+		this.vertexCount = 0;
+		this.indexCount = 0;
+		Arrays.fill( this.partComponents, 0, this.partCount, null );
+		this.partCount = 0;
+		this.firstParts.clear( );
+		this.lastComponent = null;
+		this.clearChangedColors( );
+	}
+
+	public int getVertexCount( )
+	{
+		return this.vertexCount;
+	}
+
+	public int getIndexCount( )
+	{
+		return this.indexCount;
+	}
+
+	public int getPartCount( )
+	{
+		return this.partCount;
+	}
+
+	/**
+	 *  The interleaved vertices; only the first getVertexCount( ) * VERTEX_SIZE
+	 *  floats are used.
+	 */
+	public float[] getVertices( )
+	{
+		return this.vertices;
+	}
+
+	/**
+	 *  The vertex colors; only the first getVertexCount( ) * 4 bytes are used.
+	 */
+	public byte[] getColors( )
+	{
+		return this.colors;
+	}
+
+	/**
+	 *  The triangle indices; only the first getIndexCount( ) are used.
+	 */
+	public int[] getIndices( )
+	{
+		return this.indices;
+	}
+
+	public Object getComponent( final int part )
+	{
+		return this.partComponents[part];
+	}
+
+	public int getVertexStart( final int part )
+	{
+		return this.partVertexStart[part];
+	}
+
+	public int getVertexEnd( final int part )
+	{
+		return part + 1 < this.partCount ? this.partVertexStart[part+1] : this.vertexCount;
+	}
+
+	public int getIndexStart( final int part )
+	{
+		return this.partIndexStart[part];
+	}
+
+	public int getIndexEnd( final int part )
+	{
+		return part + 1 < this.partCount ? this.partIndexStart[part+1] : this.indexCount;
+	}
+
+	/**
+	 *  Returns the first part of the component, or -1 if it has none.
+	 */
+	public int getFirstPart( final Object component )
+	{
+		final Integer part = this.firstParts.get( component );
+		return part == null ? -1 : part.intValue( );
+	}
+
+	/**
+	 *  Returns the part after the last part of the component, or -1 if it
+	 *  has none.
+	 */
+	public int getEndPart( final Object component )
+	{
+		int part = this.getFirstPart( component );
+		if ( part < 0 ) {
+			return -1;
+		}
+		while ( part < this.partCount && this.partComponents[part] == component ) {
+			part++;
+		}
+		return part;
+	}
+
+	/**
+	 *  The first vertex whose color has changed since the last
+	 *  clearChangedColors( ), or getChangedColorEnd( ) if none has.
+	 */
+	public int getChangedColorStart( )
+	{
+		return Math.min( this.changedColorStart, this.changedColorEnd );
+	}
+
+	/**
+	 *  The vertex after the last vertex whose color has changed.
+	 */
+	public int getChangedColorEnd( )
+	{
+		return this.changedColorEnd;
+	}
+
+	public void clearChangedColors( )
+	{
+		this.changedColorStart = Integer.MAX_VALUE;
+		this.changedColorEnd = 0;
+	}
+
+	private int beginPart( final Object component, final int vertexCount, final int indexCount )
+	{
+		if ( component != this.lastComponent )
+		{
+			if ( this.firstParts.containsKey( component ) ) {
+				throw new IllegalArgumentException( "the parts of a component must be added one after another" );
+			}
+			this.firstParts.put( component, Integer.valueOf( this.partCount ) );
+			this.lastComponent = component;
+		}
+
+		if ( this.partCount == this.partComponents.length )
+		{
+			final int capacity = 2 * this.partCount;
+			this.partComponents = Arrays.copyOf( this.partComponents, capacity );
+			this.partVertexStart = Arrays.copyOf( this.partVertexStart, capacity + 1 );
+			this.partIndexStart = Arrays.copyOf( this.partIndexStart, capacity + 1 );
+		}
+		this.ensureCapacity( this.vertexCount + vertexCount, this.indexCount + indexCount );
+
+		this.partComponents[this.partCount] = component;
+		this.partVertexStart[this.partCount] = this.vertexCount;
+		this.partIndexStart[this.partCount] = this.indexCount;
+		return this.partCount++;
+	}
+
+	private void ensureCapacity( final int vertexCount, final int indexCount )
+	{
+		if ( VERTEX_SIZE * vertexCount > this.vertices.length )
+		{
+			final int capacity = Math.max( vertexCount, 2 * this.vertices.length / VERTEX_SIZE );
+			this.vertices = Arrays.copyOf( this.vertices, VERTEX_SIZE * capacity );
+			this.colors = Arrays.copyOf( this.colors, 4 * capacity );
+		}
+		if ( indexCount > this.indices.length ) {
+			this.indices = Arrays.copyOf( this.indices, Math.max( indexCount, 2 * this.indices.length ) );
+		}
+	}
+
+	private void addTriangles( final int triangles[], final int first )
+	{
+		for ( int i = 0; i < triangles.length; i++ ) {
+			this.indices[this.indexCount++] = first + triangles[i];
+		}
+	}
+
+	private void setNormal( final int v, final float nx, final float ny, final float nz )
+	{
+		final float length = (float) Math.sqrt( nx * nx + ny * ny + nz * nz );
+		final float scale = length > 0.0f ? 1.0f / length : 0.0f;
+		this.vertices[v+3] = nx * scale;
+		this.vertices[v+4] = ny * scale;
+		this.vertices[v+5] = nz * scale;
+	}
+
+	private void fillColors( final int start, final int end, final float color[] )
+	{
+		final byte r = toByte( color[0] );
+		final byte g = toByte( color[1] );
+		final byte b = toByte( color[2] );
+		final byte a = color.length > 3 ? toByte( color[3] ) : (byte) 255;
+		for ( int i = 4 * start; i < 4 * end; i += 4 )
+		{
+			this.colors[i] = r;
+			this.colors[i+1] = g;
+			this.colors[i+2] = b;
+			this.colors[i+3] = a;
+		}
+		this.changedColorStart = Math.min( this.changedColorStart, start );
+		this.changedColorEnd = Math.max( this.changedColorEnd, end );
+	}
+
+	private static byte toByte( final float value )
+	{
+		return (byte) Math.round( 255.0f * Math.max( 0.0f, Math.min( 1.0f, value ) ) );
+	}
+
+	private static double[] cross( final double a[], final double b[] )
+	{
+		return new double[] {
+			a[1] * b[2] - a[2] * b[1],
+			a[2] * b[0] - a[0] * b[2],
+			a[0] * b[1] - a[1] * b[0] };
+	}
+
+	private static double[] normalize( final double v[] )
+	{
+		final double length = Math.sqrt( v[0] * v[0] + v[1] * v[1] + v[2] * v[2] );
+		return new double[] { v[0] / length, v[1] / length, v[2] / length };
+	}
+}
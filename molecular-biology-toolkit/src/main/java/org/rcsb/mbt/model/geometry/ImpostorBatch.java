@@ -0,0 +1,350 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.geometry;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+/**
+ *  Packs atoms and bonds as impostors: every sphere and every cylinder is a
+ *  single quad, expanded and ray cast by the shaders, instead of a
+ *  tessellated mesh (see GeometryBatch). The four vertices of an instance
+ *  carry the whole primitive plus the corner of the quad:
+ *  <P>
+ *  <table>
+ *  <tr> <td>spheres</td> <td>cx, cy, cz, radius, u, v</td> <td>u, v = -1 or 1</td> </tr>
+ *  <tr> <td>cylinders</td> <td>x0, y0, z0, radius, x1, y1, z1, s, t</td> <td>s = 0 (at end 0) or 1, t = -1 or 1</td> </tr>
+ *  </table>
+ *  <P>
+ *  with one r, g, b, a byte quadruple per vertex. As in GeometryBatch, the
+ *  instances of a component are added one after another, so that a
+ *  renderer can pick and recolor a component by its range of instances.
+ *  Nothing here needs a GL context.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.geometry.GeometryBatch
+ */
+public class ImpostorBatch
+{
+	public static final int SPHERE_VERTEX_SIZE = 6;
+	public static final int CYLINDER_VERTEX_SIZE = 9;
+	public static final int VERTICES_PER_INSTANCE = 4;
+
+	// corners of the quads, in drawing order
+	private static final float SPHERE_CORNERS[][] = { { -1, -1 }, { 1, -1 }, { 1, 1 }, { -1, 1 } };
+	private static final float CYLINDER_CORNERS[][] = { { 0, -1 }, { 1, -1 }, { 1, 1 }, { 0, 1 } };
+
+	/**
+	 *  The instances of one kind of primitive.
+	 */
+	public static final class Instances
+	{
+		private final int vertexSize;
+		private float vertices[];
+		private byte colors[];
+		private Object components[];
+		private int count = 0;
+
+		// component -> its first instance
+		private final Map<Object, Integer> firstInstances = new IdentityHashMap<Object, Integer>( );
+		private Object lastComponent = null;
+
+		private int changedStart = Integer.MAX_VALUE;
+		private int changedEnd = 0;
+
+		private Instances( final int vertexSize )
+		{
+			this.vertexSize = vertexSize;
+			this.vertices = new float[vertexSize * VERTICES_PER_INSTANCE * 64];
+			this.colors = new byte[4 * VERTICES_PER_INSTANCE * 64];
+			this.components = new Object[64];
+		}
+
+		/**
+		 *  The number of floats per vertex in getVertices( ).
+		 */
+		public int getVertexSize( )
+		{
+			return this.vertexSize;
+		}
+
+		public int getCount( )
+		{
+			return this.count;
+		}
+
+		public int getVertexCount( )
+		{
+			return this.count * VERTICES_PER_INSTANCE;
+		}
+
+		/**
+		 *  The vertices; only the first getVertexCount( ) * getVertexSize( )
+		 *  floats are used.
+		 */
+		public float[] getVertices( )
+		{
+			return this.vertices;
+		}
+
+		/**
+		 *  The vertex colors; only the first getVertexCount( ) * 4 bytes are
+		 *  used.
+		 */
+		public byte[] getColors( )
+		{
+			return this.colors;
+		}
+
+		public Object getComponent( final int instance )
+		{
+			return this.components[instance];
+		}
+
+		/**
+		 *  Returns the first instance of the component, or -1 if it has
+		 *  none.
+		 */
+		public int getFirst( final Object component )
+		{
+			final Integer instance = this.firstInstances.get( component );
+			return instance == null ? -1 : instance.intValue( );
+		}
+
+		/**
+		 *  Returns the instance after the last instance of the component, or
+		 *  -1 if it has none.
+		 */
+		public int getEnd( final Object component )
+		{
+			int instance = this.getFirst( component );
+			if ( instance < 0 ) {
+				return -1;
+			}
+			while ( instance < this.count && this.components[instance] == component ) {
+				instance++;
+			}
+			return instance;
+		}
+
+		/**
+		 *  Sets the color of an instance. The changed colors are only widened
+		 *  if the color differs from the current one.
+		 */
+		public void setColor( final int instance, final float color[] )
+		{
+			final int c = 4 * VERTICES_PER_INSTANCE * instance;
+			final byte r = toByte( color[0] );
+			final byte g = toByte( color[1] );
+			final byte b = toByte( color[2] );
+			final byte a = color.length > 3 ? toByte( color[3] ) : (byte) 255;
+			if ( this.colors[c] == r && this.colors[c+1] == g && this.colors[c+2] == b && this.colors[c+3] == a ) {
+				return;
+			}
+			this.fillColor( instance, r, g, b, a );
+		}
+
+		/**
+		 *  Returns the color of an instance in 0 to 1.
+		 */
+		public void getColor( final int instance, final float color[] )
+		{
+			final int c = 4 * VERTICES_PER_INSTANCE * instance;
+			for ( int i = 0; i < color.length && i < 4; i++ ) {
+				color[i] = (this.colors[c+i] & 0xff) / 255.0f;
+			}
+		}
+
+		/**
+		 *  The first vertex whose color has changed since the last
+		 *  clearChangedColors( ), or getChangedColorEnd( ) if none has.
+		 */
+		public int getChangedColorStart( )
+		{
+			return Math.min( this.changedStart, this.changedEnd );
+		}
+
+		/**
+		 *  The vertex after the last vertex whose color has changed.
+		 */
+		public int getChangedColorEnd( )
+		{
+			return this.changedEnd;
+		}
+
+		public void clearChangedColors( )
+		{
+			this.changedStart = Integer.MAX_VALUE;
+			this.changedEnd = 0;
+		}
+
+		private void clear( )
+		{
+			Arrays.fill( this.components, 0, this.count, null );
+			this.count = 0;
+			this.firstInstances.clear( );
+			this.lastComponent = null;
+			this.clearChangedColors( );
+		}
+
+		/**
+		 *  Starts a new instance, and returns the offset of its first vertex.
+		 */
+		private int add( final Object component, final float color[] )
+		{
+			if ( component != this.lastComponent )
+			{
+				if ( this.firstInstances.containsKey( component ) ) {
+					throw new IllegalArgumentException( "the instances of a component must be added one after another" );
+				}
+				this.firstInstances.put( component, Integer.valueOf( this.count ) );
+				this.lastComponent = component;
+			}
+
+			if ( this.count == this.components.length )
+			{
+				final int capacity = 2 * this.count;
+				this.components = Arrays.copyOf( this.components, capacity );
+				this.vertices = Arrays.copyOf( this.vertices, this.vertexSize * VERTICES_PER_INSTANCE * capacity );
+				this.colors = Arrays.copyOf( this.colors, 4 * VERTICES_PER_INSTANCE * capacity );
+			}
+
+			final int instance = this.count++;
+			this.components[instance] = component;
+			this.fillColor( instance, toByte( color[0] ), toByte( color[1] ), toByte( color[2] ),
+				color.length > 3 ? toByte( color[3] ) : (byte) 255 );
+			return instance;
+		}
+
+		private void fillColor( final int instance, final byte r, final byte g, final byte b, final byte a )
+		{
+			final int start = VERTICES_PER_INSTANCE * instance;
+			for ( int i = 4 * start; i < 4 * (start + VERTICES_PER_INSTANCE); i += 4 )
+			{
+				this.colors[i] = r;
+				this.colors[i+1] = g;
+				this.colors[i+2] = b;
+				this.colors[i+3] = a;
+			}
+			this.changedStart = Math.min( this.changedStart, start );
+			this.changedEnd = Math.max( this.changedEnd, start + VERTICES_PER_INSTANCE );
+		}
+	}
+
+	private final Instances spheres = new Instances( SPHERE_VERTEX_SIZE );
+	private final Instances cylinders = new Instances( CYLINDER_VERTEX_SIZE );
+
+	/**
+	 *  Adds a sphere of the component.
+	 *  @return	the sphere instance
+	 */
+	public int addSphere( final Object component, final double center[], final float radius, final float color[] )
+	{
+		final int instance = this.spheres.add( component, color );
+		final float v[] = this.spheres.vertices;
+		int o = SPHERE_VERTEX_SIZE * VERTICES_PER_INSTANCE * instance;
+		for ( int i = 0; i < VERTICES_PER_INSTANCE; i++ )
+		{
+			v[o++] = (float) center[0];
+			v[o++] = (float) center[1];
+			v[o++] = (float) center[2];
+			v[o++] = radius;
+			v[o++] = SPHERE_CORNERS[i][0];
+			v[o++] = SPHERE_CORNERS[i][1];
+		}
+		return instance;
+	}
+
+	/**
+	 *  Adds an open cylinder of the component from point 0 to point 1.
+	 *  @return	the cylinder instance
+	 */
+	public int addCylinder( final Object component, final double point0[], final double point1[],
+		final float radius, final float color[] )
+	{
+		final int instance = this.cylinders.add( component, color );
+		final float v[] = this.cylinders.vertices;
+		int o = CYLINDER_VERTEX_SIZE * VERTICES_PER_INSTANCE * instance;
+		for ( int i = 0; i < VERTICES_PER_INSTANCE; i++ )
+		{
+			v[o++] = (float) point0[0];
+			v[o++] = (float) point0[1];
+			v[o++] = (float) point0[2];
+			v[o++] = radius;
+			v[o++] = (float) point1[0];
+			v[o++] = (float) point1[1];
+			v[o++] = (float) point1[2];
+			v[o++] = CYLINDER_CORNERS[i][0];
+			v[o++] = CYLINDER_CORNERS[i][1];
+		}
+		return instance;
+	}
+
+	public Instances getSpheres( )
+	{
+		return this.spheres;
+	}
+
+	public Instances getCylinders( )
+	{
+		return this.cylinders;
+	}
+
+	/**
+	 *  Removes all instances, keeping the arrays for packing again.
+	 */
+	public void clear( )
+	{
+		this.spheres.clear( );
+		this.cylinders.clear( );
+	}
+
+	private static byte toByte( final float value )
+	{
+		return (byte) Math.round( 255.0f * Math.max( 0.0f, Math.min( 1.0f, value ) ) );
+	}
+}
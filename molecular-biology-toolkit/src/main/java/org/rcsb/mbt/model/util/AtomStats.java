@@ -88,6 +88,11 @@ public class AtomStats
 			return coordinateBounds;
 		}
 
+		final AtomStore store = AtomStats.getAtomStore( structure, atomCount );
+		if ( store != null ) {
+			return store.getCoordinateBounds( );
+		}
+
 		Atom atom = (Atom) structure.getStructureComponentByIndex(
 				ComponentType.ATOM, 0 );
 
@@ -179,16 +184,31 @@ public class AtomStats
 		coordinateBounds[1][1] = Double.MIN_VALUE;  // max y
 		coordinateBounds[1][2] = Double.MIN_VALUE;  // max z
 		double[] transformedCoordinate = new double[3];
+		final AtomStore store = AtomStats.getAtomStore( structure, atomCount );
+		final ModelTransformationList lists[] = AtomStats.getTransformsByChainCode( store, map );
+		final double coordinate[] = new double[3];
 
 		for ( int i = 0; i < atomCount; i++ )
 		{
-			atom = (Atom) structure.getStructureComponentByIndex(
-					ComponentType.ATOM, i );
+			final ModelTransformationList list;
+			final double point[];
+			if ( store != null )
+			{
+				final int chainCode = store.getChainCode( i );
+				list = ( chainCode == AtomStore.NO_CODE )? null : lists[chainCode];
+				point = store.getCoordinate( i, coordinate );
+			}
+			else
+			{
+				atom = (Atom) structure.getStructureComponentByIndex(
+						ComponentType.ATOM, i );
+				list = map.get(atom.chain_id);
+				point = atom.coordinate;
+			}
 
-			ModelTransformationList list = map.get(atom.chain_id);
 			if (list != null) {
 				for (ModelTransformationMatrix m: list) {
-					m.transformPoint(atom.coordinate, transformedCoordinate);
+					m.transformPoint(point, transformedCoordinate);
 
 					if (transformedCoordinate[0] < coordinateBounds[0][0] ) {
 						coordinateBounds[0][0] = transformedCoordinate[0];  // min x
@@ -269,12 +289,14 @@ public class AtomStats
 			return coordinateAverage;
 		}
 
-		Atom atom = (Atom) structure.getStructureComponentByIndex(
-				ComponentType.ATOM, 0 );
+		final AtomStore store = AtomStats.getAtomStore( structure, atomCount );
+		if ( store != null ) {
+			return store.getCoordinateAverage( );
+		}
 
-		for ( int i=1; i<atomCount; i++ )
+		for ( int i=0; i<atomCount; i++ )
 		{
-			atom = (Atom) structure.getStructureComponentByIndex(
+			final Atom atom = (Atom) structure.getStructureComponentByIndex(
 					ComponentType.ATOM, i );
 
 			coordinateAverage[0] += atom.coordinate[0];
@@ -328,16 +350,31 @@ public class AtomStats
 
 		int count = 0;
 		double[] transformedCoordinate = new double[3];
+		final AtomStore store = AtomStats.getAtomStore( structure, atomCount );
+		final ModelTransformationList lists[] = AtomStats.getTransformsByChainCode( store, map );
+		final double coordinate[] = new double[3];
 
 		for (int i = 0; i < atomCount; i++)
 		{
-			atom = (Atom) structure.getStructureComponentByIndex(
-					ComponentType.ATOM, i );
+			final ModelTransformationList list;
+			final double point[];
+			if ( store != null )
+			{
+				final int chainCode = store.getChainCode( i );
+				list = ( chainCode == AtomStore.NO_CODE )? null : lists[chainCode];
+				point = store.getCoordinate( i, coordinate );
+			}
+			else
+			{
+				atom = (Atom) structure.getStructureComponentByIndex(
+						ComponentType.ATOM, i );
+				list = map.get(atom.chain_id);
+				point = atom.coordinate;
+			}
 
-			ModelTransformationList list = map.get(atom.chain_id);
 			if (list != null) {
 				for (ModelTransformationMatrix m: list) {
-					m.transformPoint(atom.coordinate, transformedCoordinate);
+					m.transformPoint(point, transformedCoordinate);
 					centroid[0] += transformedCoordinate[0];
 					centroid[1] += transformedCoordinate[1];
 					centroid[2] += transformedCoordinate[2];
@@ -352,4 +389,40 @@ public class AtomStats
 
 		return centroid;
 	}
+
+	/**
+	 * Returns the StructureMap's AtomStore if it covers all atoms of the
+	 * structure, otherwise null (e.g. while the map is still being built).
+	 */
+	private static AtomStore getAtomStore( final Structure structure, final int atomCount )
+	{
+		if ( ! structure.hasStructureMap() ) {
+			return null;
+		}
+
+		final AtomStore store = structure.getStructureMap().getAtomStore();
+		if ( store == null || store.getAtomCount() != atomCount ) {
+			return null;
+		}
+		return store;
+	}
+
+	/**
+	 * Returns the biological unit transforms indexed by the store's chain
+	 * code, so the per-atom lookup is an array access instead of a hash.
+	 */
+	private static ModelTransformationList[] getTransformsByChainCode(
+		final AtomStore store, final BiologicalUnitGenerationMapByChain map )
+	{
+		if ( store == null ) {
+			return null;
+		}
+
+		final NameTable chainIds = store.getChainIdTable();
+		final ModelTransformationList lists[] = new ModelTransformationList[chainIds.size()];
+		for ( int code = 0; code < lists.length; code++ ) {
+			lists[code] = map.get( chainIds.getName( code ) );
+		}
+		return lists;
+	}
 }
@@ -0,0 +1,564 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.rcsb.mbt.model.util.ChemicalComponentBonds.BondOrder;
+
+
+/**
+ *  A compiled, read-only chemical component bond dictionary.
+ *  <P>
+ *  The text dictionary (one "compound atom0 atom1 order" line per bond, see
+ *  ChemicalComponentBondsCreator) is compiled into a compact binary image
+ *  that can be memory-mapped and used without parsing or building any
+ *  per-bond objects. Lookups go through a Compound handle: resolve the
+ *  compound once, then each atom name to a small int id once, and every
+ *  bond lookup after that is a probe into an open addressed hash table.
+ *  <P>
+ *  Binary layout (big-endian):
+ *  <PRE>
+ *  header:    magic, version, compoundCount, atomCount, slotCount, poolSize
+ *  compounds: compoundCount x { code, firstAtom, atomCount, firstSlot, slotCount }
+ *  atoms:     atomCount x name (sorted by name within each compound)
+ *  slots:     slotCount x key (atom0 &lt;&lt; 16 | atom1, or -1 if empty)
+ *  orders:    slotCount x BondOrder ordinal (one byte each)
+ *  pool:      strings, each a length byte and that many ASCII bytes
+ *  </PRE>
+ *  Compounds are sorted by code. Codes and names are offsets into the pool.
+ *  Each compound's slot count is a power of two.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.util.ChemicalComponentBonds
+ */
+public class BondDictionary
+{
+	private static final int MAGIC = 0x4D425442;	// "MBTB"
+	private static final int VERSION = 1;
+	private static final int HEADER_INTS = 6;
+	private static final int COMPOUND_INTS = 5;
+	private static final int EMPTY = -1;
+
+	private final ByteBuffer buffer;
+	private final int compoundCount;
+	private final int compoundsOffset;
+	private final int atomsOffset;
+	private final int slotsOffset;
+	private final int ordersOffset;
+	private final int poolOffset;
+
+	private static final BondOrder ORDERS[] = BondOrder.values( );
+
+
+	/**
+	 *  A handle on the bonds of one compound.
+	 */
+	public final class Compound
+	{
+		private final String code;
+		private final int firstAtom;
+		private final int atomCount;
+		private final int firstSlot;
+		private final int slotMask;
+
+		private Compound( final String code, final int record )
+		{
+			final int offset = BondDictionary.this.compoundsOffset + record * BondDictionary.COMPOUND_INTS * 4;
+			final ByteBuffer b = BondDictionary.this.buffer;
+			this.code = code;
+			this.firstAtom = b.getInt( offset + 4 );
+			this.atomCount = b.getInt( offset + 8 );
+			this.firstSlot = b.getInt( offset + 12 );
+			this.slotMask = b.getInt( offset + 16 ) - 1;
+		}
+
+		/**
+		 *  Return the compound code.
+		 */
+		public String getCode( )
+		{
+			return this.code;
+		}
+
+		/**
+		 *  Return the number of distinct atom names in this compound's bonds.
+		 */
+		public int getAtomCount( )
+		{
+			return this.atomCount;
+		}
+
+		/**
+		 *  Return the id of the named atom, or -1 if no bond in the
+		 *  dictionary involves it. Spaces are significant; the dictionary
+		 *  names have none.
+		 */
+		public int getAtomIndex( final String atomName )
+		{
+			int low = 0;
+			int high = this.atomCount - 1;
+			while ( low <= high )
+			{
+				final int mid = (low + high) >>> 1;
+				final int delta = BondDictionary.this.compareName(
+					BondDictionary.this.buffer.getInt( BondDictionary.this.atomsOffset + (this.firstAtom + mid) * 4 ),
+					atomName );
+				if ( delta < 0 ) {
+					low = mid + 1;
+				} else if ( delta > 0 ) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 *  Return the name of the atom with the given id.
+		 */
+		public String getAtomName( final int atomIndex )
+		{
+			if ( atomIndex < 0 || atomIndex >= this.atomCount ) {
+				throw new IndexOutOfBoundsException( "no atom " + atomIndex + " in " + this.code );
+			}
+			return BondDictionary.this.getString(
+				BondDictionary.this.buffer.getInt( BondDictionary.this.atomsOffset + (this.firstAtom + atomIndex) * 4 ) );
+		}
+
+		/**
+		 *  Return the bond order listed for atom0 -&gt; atom1, trying the
+		 *  reverse direction if there is none, or UNKNOWN if neither is
+		 *  listed (or either id is negative).
+		 */
+		public BondOrder bondType( final int atom0, final int atom1 )
+		{
+			if ( atom0 < 0 || atom1 < 0 ) {
+				return BondOrder.UNKNOWN;
+			}
+			BondOrder order = this.find( (atom0 << 16) | atom1 );
+			if ( order == null ) {
+				order = this.find( (atom1 << 16) | atom0 );
+			}
+			return ( order == null )? BondOrder.UNKNOWN : order;
+		}
+
+		/**
+		 *  Return the bond order listed between the two named atoms.
+		 *  @see #bondType( int, int )
+		 */
+		public BondOrder bondType( final String atomName0, final String atomName1 )
+		{
+			return this.bondType( this.getAtomIndex( atomName0 ), this.getAtomIndex( atomName1 ) );
+		}
+
+		private BondOrder find( final int key )
+		{
+			final ByteBuffer b = BondDictionary.this.buffer;
+			int slot = BondDictionary.hash( key ) & this.slotMask;
+			while ( true )
+			{
+				final int k = b.getInt( BondDictionary.this.slotsOffset + (this.firstSlot + slot) * 4 );
+				if ( k == key ) {
+					return BondDictionary.ORDERS[b.get( BondDictionary.this.ordersOffset + this.firstSlot + slot )];
+				}
+				if ( k == BondDictionary.EMPTY ) {
+					return null;
+				}
+				slot = (slot + 1) & this.slotMask;
+			}
+		}
+	}
+
+
+	/**
+	 *  Wrap a compiled dictionary image.
+	 *  @throws IOException if the image is not a compiled dictionary.
+	 */
+	public BondDictionary( final ByteBuffer image ) throws IOException
+	{
+		this.buffer = image.duplicate( );
+		this.buffer.order( java.nio.ByteOrder.BIG_ENDIAN );
+		if ( this.buffer.limit( ) < BondDictionary.HEADER_INTS * 4
+			|| this.buffer.getInt( 0 ) != BondDictionary.MAGIC ) {
+			throw new IOException( "BondDictionary: not a compiled bond dictionary" );
+		}
+		if ( this.buffer.getInt( 4 ) != BondDictionary.VERSION ) {
+			throw new IOException( "BondDictionary: unsupported version " + this.buffer.getInt( 4 ) );
+		}
+
+		this.compoundCount = this.buffer.getInt( 8 );
+		final int atomCount = this.buffer.getInt( 12 );
+		final int slotCount = this.buffer.getInt( 16 );
+		final int poolSize = this.buffer.getInt( 20 );
+
+		this.compoundsOffset = BondDictionary.HEADER_INTS * 4;
+		this.atomsOffset = this.compoundsOffset + this.compoundCount * BondDictionary.COMPOUND_INTS * 4;
+		this.slotsOffset = this.atomsOffset + atomCount * 4;
+		this.ordersOffset = this.slotsOffset + slotCount * 4;
+		this.poolOffset = this.ordersOffset + slotCount;
+		if ( this.poolOffset + poolSize > this.buffer.limit( ) ) {
+			throw new IOException( "BondDictionary: dictionary is truncated" );
+		}
+	}
+
+	/**
+	 *  Memory-map a compiled dictionary file.
+	 */
+	public static BondDictionary map( final File file ) throws IOException
+	{
+		final FileInputStream in = new FileInputStream( file );
+		try
+		{
+			final FileChannel channel = in.getChannel( );
+			return new BondDictionary( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size( ) ) );
+		}
+		finally
+		{
+			in.close( );	// the mapping stays valid
+		}
+	}
+
+	/**
+	 *  Read a compiled dictionary from a stream (e.g. a jar resource, which
+	 *  can't be mapped).
+	 */
+	public static BondDictionary read( final InputStream in ) throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 1 << 16 );
+		final byte chunk[] = new byte[1 << 16];
+		int count;
+		while ( (count = in.read( chunk )) > 0 ) {
+			bytes.write( chunk, 0, count );
+		}
+		return new BondDictionary( ByteBuffer.wrap( bytes.toByteArray( ) ) );
+	}
+
+	/**
+	 *  Return the number of compounds in the dictionary.
+	 */
+	public int getCompoundCount( )
+	{
+		return this.compoundCount;
+	}
+
+	/**
+	 *  Return the code of the compound at the given position (compounds are
+	 *  sorted by code).
+	 */
+	public String getCompoundCode( final int index )
+	{
+		return this.getString( this.buffer.getInt( this.compoundsOffset + index * BondDictionary.COMPOUND_INTS * 4 ) );
+	}
+
+	/**
+	 *  Return a handle on the given compound, or null if it isn't in the
+	 *  dictionary.
+	 */
+	public Compound getCompound( final String code )
+	{
+		int low = 0;
+		int high = this.compoundCount - 1;
+		while ( low <= high )
+		{
+			final int mid = (low + high) >>> 1;
+			final int delta = this.compareName(
+				this.buffer.getInt( this.compoundsOffset + mid * BondDictionary.COMPOUND_INTS * 4 ), code );
+			if ( delta < 0 ) {
+				low = mid + 1;
+			} else if ( delta > 0 ) {
+				high = mid - 1;
+			} else {
+				return new Compound( code, mid );
+			}
+		}
+		return null;
+	}
+
+	/**
+	 *  Compare the pool string at offset with name, like String.compareTo.
+	 */
+	private int compareName( final int offset, final String name )
+	{
+		final int at = this.poolOffset + offset;
+		final int length = this.buffer.get( at ) & 0xff;
+		final int n = Math.min( length, name.length( ) );
+		for ( int i=0; i<n; i++ )
+		{
+			final int delta = (this.buffer.get( at + 1 + i ) & 0xff) - name.charAt( i );
+			if ( delta != 0 ) {
+				return delta;
+			}
+		}
+		return length - name.length( );
+	}
+
+	private String getString( final int offset )
+	{
+		final int at = this.poolOffset + offset;
+		final int length = this.buffer.get( at ) & 0xff;
+		final char chars[] = new char[length];
+		for ( int i=0; i<length; i++ ) {
+			chars[i] = (char) (this.buffer.get( at + 1 + i ) & 0xff);
+		}
+		return new String( chars );
+	}
+
+	private static int hash( final int key )
+	{
+		final int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+
+	//
+	// Compiling
+	//
+
+	/**
+	 *  Compile a text dictionary (tab separated "compound atom0 atom1 order"
+	 *  lines, as written by ChemicalComponentBonds.parseCifFileForBonds) into
+	 *  the binary format. If a bond is listed more than once, the first
+	 *  listing wins.
+	 *  @throws IOException if a line is malformed or a name is too long.
+	 */
+	public static void compile( final BufferedReader in, final OutputStream out ) throws IOException
+	{
+		final TreeMap<String, Map<String, BondOrder>> compounds = new TreeMap<String, Map<String, BondOrder>>( );
+		String line;
+		while ( (line = in.readLine( )) != null ) {
+			BondDictionary.addLine( line, compounds );
+		}
+		BondDictionary.write( compounds, out );
+	}
+
+	/**
+	 *  Compile a text dictionary straight into a dictionary in memory.
+	 *  @see #compile( BufferedReader, OutputStream )
+	 */
+	public static BondDictionary compile( final BufferedReader in ) throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( );
+		BondDictionary.compile( in, bytes );
+		return new BondDictionary( ByteBuffer.wrap( bytes.toByteArray( ) ) );
+	}
+
+	/**
+	 *  Compile text dictionary lines straight into a dictionary in memory.
+	 *  @see #compile( BufferedReader, OutputStream )
+	 */
+	public static BondDictionary compile( final List<String> lines ) throws IOException
+	{
+		final TreeMap<String, Map<String, BondOrder>> compounds = new TreeMap<String, Map<String, BondOrder>>( );
+		for ( final String line : lines ) {
+			BondDictionary.addLine( line, compounds );
+		}
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( );
+		BondDictionary.write( compounds, bytes );
+		return new BondDictionary( ByteBuffer.wrap( bytes.toByteArray( ) ) );
+	}
+
+	private static void addLine( final String line, final Map<String, Map<String, BondOrder>> compounds )
+		throws IOException
+	{
+		// ALA N CA SING
+		final String items[] = line.split( "\t" );
+		if ( items.length != 4 ) {
+			throw new IOException( "ChemicalComponentBonds: Dictionary is corrupt: " + line );
+		}
+
+		Map<String, BondOrder> bonds = compounds.get( items[0] );
+		if ( bonds == null )
+		{
+			bonds = new LinkedHashMap<String, BondOrder>( );
+			compounds.put( items[0], bonds );
+		}
+
+		final String key = items[1] + '\t' + items[2];
+		if ( ! bonds.containsKey( key ) ) {
+			// only the first four characters count
+			bonds.put( key, BondOrder.valueByShortName( items[3].substring( 0, Math.min( 4, items[3].length( ) ) ) ) );
+		}
+	}
+
+	private static void write( final TreeMap<String, Map<String, BondOrder>> compounds,
+		final OutputStream out ) throws IOException
+	{
+		final ByteArrayOutputStream pool = new ByteArrayOutputStream( );
+		final Map<String, Integer> poolOffsets = new TreeMap<String, Integer>( );
+
+		final int compoundTable[] = new int[compounds.size( ) * BondDictionary.COMPOUND_INTS];
+		final List<int[]> atomTables = new ArrayList<int[]>( );
+		final List<int[]> slotTables = new ArrayList<int[]>( );
+		final List<byte[]> orderTables = new ArrayList<byte[]>( );
+		int atomCount = 0;
+		int slotCount = 0;
+		int c = 0;
+
+		for ( final Map.Entry<String, Map<String, BondOrder>> compound : compounds.entrySet( ) )
+		{
+			// Sorted, distinct atom names.
+			final TreeMap<String, Integer> atoms = new TreeMap<String, Integer>( );
+			for ( final String key : compound.getValue( ).keySet( ) )
+			{
+				final int tab = key.indexOf( '\t' );
+				atoms.put( key.substring( 0, tab ), null );
+				atoms.put( key.substring( tab + 1 ), null );
+			}
+			if ( atoms.size( ) > 0xffff ) {
+				throw new IOException( "BondDictionary: too many atoms in " + compound.getKey( ) );
+			}
+			final int names[] = new int[atoms.size( )];
+			int a = 0;
+			for ( final Map.Entry<String, Integer> atom : atoms.entrySet( ) )
+			{
+				atom.setValue( Integer.valueOf( a ) );
+				names[a++] = BondDictionary.poolString( atom.getKey( ), pool, poolOffsets );
+			}
+
+			// Open addressed bond table, at most half full.
+			int slots = 2;
+			while ( slots < compound.getValue( ).size( ) * 2 ) {
+				slots <<= 1;
+			}
+			final int keys[] = new int[slots];
+			final byte orders[] = new byte[slots];
+			Arrays.fill( keys, BondDictionary.EMPTY );
+			for ( final Map.Entry<String, BondOrder> bond : compound.getValue( ).entrySet( ) )
+			{
+				final String key = bond.getKey( );
+				final int tab = key.indexOf( '\t' );
+				final int k = (atoms.get( key.substring( 0, tab ) ).intValue( ) << 16)
+					| atoms.get( key.substring( tab + 1 ) ).intValue( );
+				int slot = BondDictionary.hash( k ) & (slots - 1);
+				while ( keys[slot] != BondDictionary.EMPTY ) {
+					slot = (slot + 1) & (slots - 1);
+				}
+				keys[slot] = k;
+				orders[slot] = (byte) bond.getValue( ).ordinal( );
+			}
+
+			final int r = c * BondDictionary.COMPOUND_INTS;
+			compoundTable[r] = BondDictionary.poolString( compound.getKey( ), pool, poolOffsets );
+			compoundTable[r + 1] = atomCount;
+			compoundTable[r + 2] = names.length;
+			compoundTable[r + 3] = slotCount;
+			compoundTable[r + 4] = slots;
+			atomTables.add( names );
+			slotTables.add( keys );
+			orderTables.add( orders );
+			atomCount += names.length;
+			slotCount += slots;
+			c++;
+		}
+
+		final DataOutputStream data = new DataOutputStream( out );
+		data.writeInt( BondDictionary.MAGIC );
+		data.writeInt( BondDictionary.VERSION );
+		data.writeInt( compounds.size( ) );
+		data.writeInt( atomCount );
+		data.writeInt( slotCount );
+		data.writeInt( pool.size( ) );
+		for ( final int value : compoundTable ) {
+			data.writeInt( value );
+		}
+		for ( final int names[] : atomTables ) {
+			for ( final int value : names ) {
+				data.writeInt( value );
+			}
+		}
+		for ( final int keys[] : slotTables ) {
+			for ( final int value : keys ) {
+				data.writeInt( value );
+			}
+		}
+		for ( final byte orders[] : orderTables ) {
+			data.write( orders );
+		}
+		pool.writeTo( data );
+		data.flush( );
+	}
+
+	private static int poolString( final String s, final ByteArrayOutputStream pool,
+		final Map<String, Integer> offsets ) throws IOException
+	{
+		final Integer known = offsets.get( s );
+		if ( known != null ) {
+			return known.intValue( );
+		}
+		if ( s.length( ) > 0xff ) {
+			throw new IOException( "BondDictionary: name too long: " + s );
+		}
+
+		final int offset = pool.size( );
+		pool.write( s.length( ) );
+		for ( int i=0; i<s.length( ); i++ )
+		{
+			final char ch = s.charAt( i );
+			if ( ch > 0xff ) {
+				throw new IOException( "BondDictionary: bad character in name: " + s );
+			}
+			pool.write( ch );
+		}
+		offsets.put( s, Integer.valueOf( offset ) );
+		return offset;
+	}
+}
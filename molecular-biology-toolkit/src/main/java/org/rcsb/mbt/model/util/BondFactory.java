@@ -77,6 +77,17 @@ public class BondFactory
 	 */
 	private static float peptideBondLimit    = 3.0f;
 
+	/**
+	 * Neighbor searches look slightly beyond the bond limit so that no
+	 * candidate is lost to rounding before the exact distance test.
+	 */
+	private static final double searchPadding = 1.0 + 1.0e-6;
+
+	/**
+	 * Atom count from which neighbor searches use all processors.
+	 */
+	private static final int parallelAtomCount = 50000;
+
 	/**
 	 *  Return a vector of Bond objects extracted from a Structure
 	 *  using the default covalentBondLimit as the cut-off distance.
@@ -90,138 +101,37 @@ public class BondFactory
 	/**
 	 *  Return a vector of Bond objects extracted from a Structure
 	 *  using the specified covalentBondLimit distance.
-	 *  The algorithm uses fixed-size cells to "bucket" the atom neighbors.
+	 *  The algorithm uses a CellGrid to find atom neighbors.
 	 *  <P>
 	 */
 	public static Vector<Bond> generateBonds( final Structure structure, final float bondLimit)
 	{
-		final double coordinateBounds[][] =
-			AtomStats.getAtomCoordinateBounds( structure );
-
-		//
-		// Get the atom coordinate bounds.
-		//
-
-		final double minCoord[] = coordinateBounds[0];
-		final double maxCoord[] = coordinateBounds[1];
-
-		//
-		// Compute search cell grid dimensions
-		//
-
-		// Range of search space
-		final double gridRange[] = {
-			maxCoord[0] - minCoord[0],
-			maxCoord[1] - minCoord[1],
-			maxCoord[2] - minCoord[2]
-		};
-
-		// Cell grid size
-		// JLM DEBUG: A cell DIAGONAL distance should be bondLimit !?
-		final double cellSize[] = {
-			bondLimit * 0.5f,
-			bondLimit * 0.5f,
-			bondLimit * 0.5f
-		};
-
-		// Cell grid count
-		final int cellCount[] = {
-			(int) (gridRange[0] / cellSize[0]),
-			(int) (gridRange[1] / cellSize[1]),
-			(int) (gridRange[2] / cellSize[2])
-		};
-
-		//
-		// Build the bond search structures.
-		//
-
 		final int atomCount = structure.getStructureComponentCount(
 			ComponentType.ATOM );
 
-		final Hashtable<Integer,Integer> occupiedCells = new Hashtable<Integer,Integer>( atomCount );
-		final int cellCoord[] = new int[3];
-		int cellIndex = -1;
-
-		for ( int i=0; i<atomCount; i++ )
-		{
-			final Atom atom = (Atom) structure.getStructureComponentByIndex(
+		final Atom atoms[] = new Atom[atomCount];
+		for ( int i=0; i<atomCount; i++ ) {
+			atoms[i] = (Atom) structure.getStructureComponentByIndex(
 				ComponentType.ATOM, i );
-
-			// Compute the 3D cell coordinate in which the atom lives
-			cellCoord[0] = (int)
-				((atom.coordinate[0] - minCoord[0]) / cellSize[0]);
-			cellCoord[1] = (int)
-				((atom.coordinate[1] - minCoord[1]) / cellSize[1]);
-			cellCoord[2] = (int)
-				((atom.coordinate[2] - minCoord[2]) / cellSize[2]);
-
-			// Map the 3D cell coordinate to a 1D cell index
-			cellIndex =
-				(cellCoord[0]*cellCount[1]+cellCoord[1]) * cellCount[2] + cellCoord[2];
-
-			// Store the atom index that lives at this 1D cell index
-			occupiedCells.put( new Integer( cellIndex ), new Integer( i ) );
 		}
 
+		final int pairs[] = BondFactory.findNeighbors( atoms, bondLimit );
+
 		//
 		// Extract the bonds.
 		//
 
 		final Vector<Bond> bondList = new Vector<Bond>( );
-
-		for ( int i=0; i<atomCount; i++ )
+		for ( int p=0; p<pairs.length; p+=2 )
 		{
-			final Atom atom = (Atom) structure.getStructureComponentByIndex(
-				ComponentType.ATOM, i );
+			final Atom atom = atoms[pairs[p]];
+			final Atom atom2 = atoms[pairs[p+1]];
 
-			// Compute the cell coordinate in which the atom lives
-			cellCoord[0] = (int)
-				((atom.coordinate[0] - minCoord[0]) / cellSize[0]);
-			cellCoord[1] = (int)
-				((atom.coordinate[1] - minCoord[1]) / cellSize[1]);
-			cellCoord[2] = (int)
-				((atom.coordinate[2] - minCoord[2]) / cellSize[2]);
-
-			// Check the 26 neighbors around this cell for an atom index.
-			for ( int x=-1; x<=1; x++ )
+			// Only add a bond if atoms are close enough
+			if ( BondFactory.distance( atom, atom2 ) <= bondLimit )
 			{
-				for ( int y=-1; y<=1; y++ )
-				{
-					for ( int z=-1; z<=1; z++ )
-					{
-						// Skip our own cell
-						if ( (x == 0) && (y == 0) && (z == 0) ) {
-							continue;
-						}
-
-						// Map the 3D cell coordinate to a 1D cell index
-						cellIndex =
-							((cellCoord[0]+x)*cellCount[1]+(cellCoord[1]+y)) * cellCount[2] + (cellCoord[2]+z);
-
-						// Try to fetch the neighbor
-						final Integer neighborAtom = occupiedCells.get( new Integer( cellIndex ) );
-
-						// Is there an occupied neighbor cell?
-						if ( neighborAtom != null )
-						{
-							final int i2 = neighborAtom.intValue( );
-							// Only add a bond between two atoms in
-							// one direction (ie: only add a bond once!)
-							if ( i < i2 )
-							{
-								final Atom atom2 = (Atom)
-									structure.getStructureComponentByIndex(
-									ComponentType.ATOM, i2 );
-								// Only add a bond if atoms are close enough
-								if ( BondFactory.distance( atom, atom2 ) <= bondLimit )
-								{
-									final Bond bond = new Bond( atom, atom2 );
-									bondList.add( bond );
-								}
-							}
-						}
-					}
-				}
+				final Bond bond = new Bond( atom, atom2 );
+				bondList.add( bond );
 			}
 		}
 
@@ -232,84 +142,112 @@ public class BondFactory
 	 *  Given a vector of Atom objects, return a Vector of Bond objects.
 	 *  The cutOffDistance parameter specifies the maximum cartesian
 	 *  distance allowed to form a bond.
-	 *  The algorithm uses an octree to find atom neighbors.
+	 *  The algorithm uses a CellGrid to find atom neighbors.
 	 *  <P>
 	 */
 	public static Vector<Bond> generateBonds( final Vector<Atom> atoms, final float cutOffDistance, final boolean useCovalentRestrictions )
 	{
-		Vector<Bond> result = null;
+		final Atom atomArray[] = atoms.toArray( new Atom[atoms.size( )] );
+		return BondFactory.generateBonds( atomArray, null, cutOffDistance, useCovalentRestrictions );
+	}
+
+	/**
+	 *  Given the AtomStore of a StructureMap, return a Vector of Bond
+	 *  objects using the default covalentBondLimit as the cut-off distance.
+	 *  The neighbor search runs on the store's coordinate array rather than
+	 *  on a fresh copy of the atom coordinates.
+	 */
+	public static Vector<Bond> generateCovalentBonds( final AtomStore store )
+	{
+		return BondFactory.generateBonds( store.getAtoms( ), store.getCoordinates( ),
+			BondFactory.covalentBondLimit, true );
+	}
+
+	/**
+	 *  Return the bonds between the atoms, given their coordinates as x, y, z
+	 *  triples in atom order, or null to read them from the atoms.
+	 */
+	private static Vector<Bond> generateBonds( final Atom atomArray[], final double coordinates[],
+		final float cutOffDistance, final boolean useCovalentRestrictions )
+	{
+		final Vector<Bond> result = new Vector<Bond>( );
 
-		// Create an octree and and populate it with Atom coordinates.
 		try
 		{
-			final int atomCount = atoms.size( );
-			final OctreeAtomItem[] octreeAtomItems = new OctreeAtomItem[ atomCount ];
+			final int pairs[] = ( coordinates == null )?
+				BondFactory.findNeighbors( atomArray, cutOffDistance ) :
+				BondFactory.findNeighbors( coordinates, atomArray.length, cutOffDistance );
 
-			for( int i=0; i<atomCount; i++ )
+			for ( int p=0; p<pairs.length; p+=2 )
 			{
-				final Atom atom = atoms.elementAt( i );
-				octreeAtomItems[i] = new OctreeAtomItem( atom, i );
-			}
+				final Atom atom0 = atomArray[pairs[p]];
+				final Atom atom1 = atomArray[pairs[p+1]];
+
+				// Same test as the octree used (single precision distance).
+				if ( BondFactory.octreeDistance( atom0, atom1 ) > cutOffDistance ) {
+					continue;
+				}
 
-			// TODO: The Octree code needs to handle cases that are causing
-			// out of memory conditions and stack overflows.
-			final float[] margin = new float[] { 0.0f, 0.0f, 0.0f };
-			final Octree octree = new Octree( 3, octreeAtomItems, margin );
-			octree.build( );
+				// A bond can't connect two hydrogen atoms!
+				if ( useCovalentRestrictions && atom0.element.equals( "H" ) && atom1.element.equals( "H" ) ) {
+					continue;
+				}
 
-			// Generate a vector of Bond objects.
-			result = octree.getBondsVector( cutOffDistance );
-		}
-		catch ( final org.rcsb.mbt.model.util.ExcessiveDivisionException ede )
-		{
-			Status.output( Status.LEVEL_ERROR, "Some atom coordinates may be too close to create bonds (" + ede.toString() + ")." );
-			result = null;
+				// A bond can't connect an atom to itself!
+				if ( atom0 == atom1 || atom0.hashCode() == atom1.hashCode() ) {
+					continue;
+				}
+
+				result.add( new Bond( atom0, atom1 ) );
+			}
 		}
 		catch( final OutOfMemoryError oome )
 		{
 			Status.output( Status.LEVEL_ERROR, "Not enough memory to create bonds (" + oome.toString() + ")." );
-			result = null;
-		}
-		catch( final StackOverflowError soe )
-		{
-			Status.output( Status.LEVEL_ERROR, "Not enough stack space to create bonds (" + soe.toString() + ")." );
-			result = null;
-		}
-
-		// No point in continuing if the result is null.
-		if ( result == null ) {
 			return null;
 		}
 
-		// Walk the bonds to make sure they are chemically valid.
-		final int bondCount = result.size( );
-		for ( int b=bondCount-1; b>=0; b-- )
-		{
-			final Bond bond = result.elementAt( b );
-			final Atom atom0 = bond.getAtom( 0 );
-			final Atom atom1 = bond.getAtom( 1 );
-
-			// A bond can't connect two hydrogen atoms!
-			if ( useCovalentRestrictions && atom0.element.equals( "H" ) && atom1.element.equals( "H" ) ) {
-				result.remove( b );
-			}
+		result.trimToSize( );
+		return result;
+	}
 
-			// A bond can't connect an atom to itself!
-			if ( atom0 == atom1 ) {
-				result.remove( b );
-			}
-			if ( atom0.hashCode() == atom1.hashCode() ) {
-				result.remove( b );
-			}
+	/**
+	 *  Return the index pairs (i, j), i &lt; j, of all atoms that may be
+	 *  within limit of each other. The search limit is padded slightly so
+	 *  that callers can apply their own (possibly single precision)
+	 *  distance test to the candidates without missing any.
+	 *  Large atom sets are searched on all available processors.
+	 */
+	private static int[] findNeighbors( final Atom atoms[], final float limit )
+	{
+		final double coordinates[] = new double[atoms.length * 3];
+		for ( int i=0, j=0; i<atoms.length; i++, j+=3 )
+		{
+			coordinates[j] = atoms[i].coordinate[0];
+			coordinates[j+1] = atoms[i].coordinate[1];
+			coordinates[j+2] = atoms[i].coordinate[2];
 		}
+		return BondFactory.findNeighbors( coordinates, atoms.length, limit );
+	}
 
-		return result;
+	/**
+	 *  Return the index pairs of the first count points of the coordinate
+	 *  array (x, y, z triples) that may be within limit of each other.
+	 */
+	private static int[] findNeighbors( final double coordinates[], final int count, final float limit )
+	{
+		final double searchLimit = limit * BondFactory.searchPadding;
+		final CellGrid grid = new CellGrid( coordinates, count, searchLimit );
+		if ( count >= BondFactory.parallelAtomCount ) {
+			return grid.findPairs( searchLimit, Runtime.getRuntime( ).availableProcessors( ) );
+		}
+		return grid.findPairs( searchLimit );
 	}
 
 	/**
 	 *  Given a vector of Atom objects, return a Vector of Bond objects.
 	 *  Use the default covalentBondLimit as the cut-off distance.
-	 *  The algorithm uses an octree to find atom neighbors.
+	 *  The algorithm uses a CellGrid to find atom neighbors.
 	 *  <P>
 	 */
 	public static Vector<Bond> generateCovalentBonds( final Vector<Atom> atoms )
@@ -323,7 +261,7 @@ public class BondFactory
 	 *  by walking the residue list then using a chemical compound
 	 *  bond dictionary to look for known valid/invalid bonds.
 	 *  For compounds that are not in the dictionary, generate bonds
-	 *  using the octree / distances.
+	 *  using the cell grid / distances.
 	 *  If a chemical compound is not in the dictionary, an attempt is made
 	 *  to generate bonds by the distance method.
 	 *  Also generate inter-residue bonds (peptide, nucleotide, disulphide).
@@ -335,6 +273,10 @@ public class BondFactory
 			return;
 		}
 
+		// Look up all unknown ligands up front rather than one at a time
+		// in the middle of the residue loop.
+		ChemicalComponentBonds.prefetch( structureMap );
+
 		final int residueCount = structureMap.getResidueCount( );
 		for ( int r=0; r<residueCount; r++ )
 		{
@@ -405,6 +347,12 @@ public class BondFactory
 				if ( atomCount <= 1 )
 					continue;  // Ignore single-atom compounds (eg: HOH).
 				
+				// Look up the dictionary ids of the atoms once, rather than
+				// the atom names of every pair.
+				final int dictionaryIds[] = BondFactory.getDictionaryIds( residue );
+				final BondDictionary.Compound dictionaryCompound = ( dictionaryIds == null )?
+					null : ChemicalComponentBonds.getCompound( residue.getAtom( 0 ).compound );
+
 				for ( int a0 = 0; a0 < atomCount; a0++ )
 								// loop through all the atoms in the residue
 				{
@@ -447,7 +395,8 @@ public class BondFactory
 							continue;
 						}
 
-						final ChemicalComponentBonds.BondOrder bondType =
+						final ChemicalComponentBonds.BondOrder bondType = ( dictionaryCompound != null )?
+							dictionaryCompound.bondType( dictionaryIds[a0], dictionaryIds[a1] ) :
 							ChemicalComponentBonds.bondType( atom0, atom1 );
 
 						switch (bondType)
@@ -469,7 +418,7 @@ public class BondFactory
 			else // Unknown compoundCode
 			{
 				// The compound is not in the dictionary, so at least
-				// generate bonds for it using the octree / distances.
+				// generate bonds for it using the cell grid / distances.
 				Vector<Bond> bondVector = BondFactory.generateBonds(
 						residue.getAtoms(), BondFactory.covalentBondLimit, true );
 				
@@ -484,12 +433,51 @@ public class BondFactory
 	}
 
 
+	/**
+	 *  Return the dictionary id of each atom of the residue (see
+	 *  BondDictionary.Compound.getAtomIndex), or null if the atoms don't
+	 *  all share the structure, chain, residue number and compound that
+	 *  ChemicalComponentBonds.bondType requires of a pair. In that case
+	 *  the pairs have to be checked one by one.
+	 */
+	private static int[] getDictionaryIds( final Residue residue )
+	{
+		final int atomCount = residue.getAtomCount( );
+		final Atom first = residue.getAtom( 0 );
+		if ( first == null || first.compound == null || first.chain_id == null ) {
+			return null;
+		}
+
+		final BondDictionary.Compound compound = ChemicalComponentBonds.getCompound( first.compound );
+		if ( compound == null ) {
+			return null;
+		}
+
+		final int ids[] = new int[atomCount];
+		for ( int a = 0; a < atomCount; a++ )
+		{
+			final Atom atom = residue.getAtom( a );
+			if ( atom == null ) {
+				continue;  // Shouldn't happen (and is skipped by the caller)
+			}
+			if ( atom.getStructure() != first.getStructure() ||
+				 atom.residue_id != first.residue_id ||
+				 !first.compound.equals( atom.compound ) ||
+				 !first.chain_id.equals( atom.chain_id ) ) {
+				return null;
+			}
+			ids[a] = compound.getAtomIndex( ChemicalComponentBonds.getDictionaryAtomName( atom.name ) );
+		}
+		return ids;
+	}
+
+
 	/**
 	 *  Given an existing StructureMap, generate (add/remove) Bond objects
 	 *  by walking the residue list then using a chemical compound
 	 *  bond dictionary to look for known valid/invalid bonds.
 	 *  For compounds that are not in the dictionary, generate bonds
-	 *  using the octree / distances.
+	 *  using the cell grid / distances.
 	 *  If a chemical compound is not in the dictionary, an attempt is made
 	 *  to generate bonds by the distance method.
 	 *  Also generate inter-residue bonds (peptide, nucleotide, disulphide).
@@ -509,6 +497,19 @@ public class BondFactory
 	}
 
 
+	/**
+	 *  The distance test the Octree neighbor search used: the euclidean
+	 *  distance rounded to single precision.
+	 */
+	private static double octreeDistance( final Atom atomA, final Atom atomB )
+	{
+		double distance = 0.0;
+		for ( int i = 0; i < 3; i++ ) {
+			distance += (atomB.coordinate[i] - atomA.coordinate[i]) * (atomB.coordinate[i] - atomA.coordinate[i]);
+		}
+		return (float) Math.sqrt( distance );
+	}
+
 	/**
 	 *  Return the coordinate distance between two Atom objects.
 	 *  <P>
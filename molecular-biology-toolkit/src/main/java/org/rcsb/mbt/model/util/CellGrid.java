@@ -0,0 +1,831 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+/**
+ *  A uniform cell list over a set of points, used for neighbor searches.
+ *  <P>
+ *  Points are given as an interleaved x, y, z coordinate array (see
+ *  AtomStore.getCoordinates()). Space is cut into cubic cells and the point
+ *  indices are sorted by cell, then by index. Usually the bounding box of
+ *  the points holds about as many cells as there are points, and every cell
+ *  of the box is stored, cells being doubled in size until there are at
+ *  most about twice as many cells as points. If that would make the cells
+ *  much larger than asked for (a few far-flung points stretching the box),
+ *  only the cells that hold points are stored instead: the occupied (x, y)
+ *  columns of cells are found through a hash table, and each column lists
+ *  its occupied cells in z order. Either way the points of a run of cells
+ *  in one column are contiguous in cellPoints.
+ *  <P>
+ *  A neighbor search only has to look at the cells within reach of a
+ *  point, so radius queries, nearest neighbor queries and finding all pairs
+ *  closer than a cut-off take time proportional to the number of points
+ *  involved rather than to the size of the whole set. The grid copies
+ *  nothing and doesn't change after it is built, so it can be searched
+ *  from several threads at once.
+ *  <P>
+ *  @see	org.rcsb.mbt.model.util.BondFactory
+ */
+public class CellGrid
+{
+	/**
+	 *  Point ranges are split into this many tasks per thread, so a thread
+	 *  that finishes early can pick up more work.
+	 */
+	private static final int TASKS_PER_THREAD = 4;
+
+	/**
+	 *  Cell coordinates along an axis stay below this, so they fit in an int
+	 *  with room to spare.
+	 */
+	private static final int MAX_AXIS_CELLS = 1 << 30;
+
+	/**
+	 *  Every cell of the bounding box is stored if that takes cells at most
+	 *  this many times the requested size.
+	 */
+	private static final double MAX_DENSE_GROWTH = 4.0;
+
+	private final double coordinates[];
+	private final int pointCount;
+
+	private double cellSize;
+	private final double origin[] = new double[3];
+	private final double extent[] = new double[3];
+	private final int cellCount[] = new int[3];
+
+	// Only set if just the occupied cells are stored (see buildSparse).
+	// Occupied columns: a hash table of column keys (see getColumnKey) with
+	// the column in each slot, and per column its key and first cell.
+	private long tableKeys[] = null;
+	private int tableColumns[] = null;
+	private int columnTotal = 0;
+	private long columnKey[] = null;
+	private int columnStart[] = null;
+	// Occupied cells: z cell coordinate.
+	private int cellZ[] = null;
+
+	// The first point of each cell, of the box or of the occupied cells.
+	private int cellStart[];
+	private int cellPoints[];
+
+
+	/**
+	 *  Build a grid over the first pointCount points of the coordinate array,
+	 *  using cells of (at least) the given size. The cell size is raised as
+	 *  described above, or if the points are so far apart that they would
+	 *  need more than MAX_AXIS_CELLS cells along an axis.
+	 */
+	public CellGrid( final double coordinates[], final int pointCount, final double cellSize )
+	{
+		if ( coordinates == null ) {
+			throw new IllegalArgumentException( "null coordinates" );
+		}
+		if ( pointCount < 0 || pointCount * 3 > coordinates.length ) {
+			throw new IllegalArgumentException( "bad point count " + pointCount );
+		}
+		if ( ! (cellSize > 0.0) ) {
+			throw new IllegalArgumentException( "bad cell size " + cellSize );
+		}
+
+		this.coordinates = coordinates;
+		this.pointCount = pointCount;
+
+		//
+		// Get the coordinate bounds.
+		//
+
+		final double max[] = this.extent;
+		if ( pointCount > 0 )
+		{
+			for ( int k=0; k<3; k++ ) {
+				this.origin[k] = max[k] = coordinates[k];
+			}
+			for ( int j=3; j<pointCount*3; j+=3 )
+			{
+				for ( int k=0; k<3; k++ )
+				{
+					final double c = coordinates[j+k];
+					if ( c < this.origin[k] ) this.origin[k] = c;
+					if ( c > max[k] ) max[k] = c;
+				}
+			}
+		}
+
+		//
+		// Size the cells of the whole box.
+		//
+
+		final double maxCells = Math.max( 2.0 * pointCount, 64.0 );
+		double size = cellSize;
+		while ( CellGrid.countCells( this.origin, max, size ) > maxCells ) {
+			size *= 2.0;
+		}
+
+		if ( size <= cellSize * CellGrid.MAX_DENSE_GROWTH ) {
+			this.buildDense( size );
+		}
+		else
+		{
+			size = cellSize;
+			for ( int k=0; k<3; k++ )
+			{
+				while ( (max[k] - this.origin[k]) / size >= CellGrid.MAX_AXIS_CELLS ) {
+					size *= 2.0;
+				}
+			}
+			this.buildSparse( size );
+		}
+	}
+
+	/**
+	 *  Return the number of cells of the given size in the box from min to
+	 *  max.
+	 */
+	private static double countCells( final double min[], final double max[], final double size )
+	{
+		double cells = 1.0;
+		for ( int k=0; k<3; k++ ) {
+			cells *= Math.floor( (max[k] - min[k]) / size ) + 1.0;
+		}
+		return cells;
+	}
+
+	/**
+	 *  Set the cell size and the number of cells along each axis.
+	 */
+	private void setCellSize( final double size )
+	{
+		this.cellSize = size;
+		for ( int k=0; k<3; k++ ) {
+			this.cellCount[k] = (int) ((this.extent[k] - this.origin[k]) / size) + 1;
+		}
+	}
+
+	/**
+	 *  Store every cell of the box, with the cells of a column in z order.
+	 */
+	private void buildDense( final double size )
+	{
+		this.setCellSize( size );
+
+		//
+		// Bucket the points by cell (counting sort, so in ascending index
+		// order).
+		//
+
+		final int totalCells = this.cellCount[0] * this.cellCount[1] * this.cellCount[2];
+		this.cellStart = new int[totalCells + 1];
+		this.cellPoints = new int[this.pointCount];
+
+		final double xyz[] = this.coordinates;
+		final int pointCell[] = new int[this.pointCount];
+		for ( int i=0; i<this.pointCount; i++ )
+		{
+			final int x = this.getCellCoordinate( xyz[i*3], 0 );
+			final int y = this.getCellCoordinate( xyz[i*3+1], 1 );
+			final int z = this.getCellCoordinate( xyz[i*3+2], 2 );
+			pointCell[i] = (x * this.cellCount[1] + y) * this.cellCount[2] + z;
+			this.cellStart[pointCell[i] + 1]++;
+		}
+		for ( int c=0; c<totalCells; c++ ) {
+			this.cellStart[c + 1] += this.cellStart[c];
+		}
+		final int fill[] = new int[totalCells];
+		for ( int i=0; i<this.pointCount; i++ )
+		{
+			final int c = pointCell[i];
+			this.cellPoints[this.cellStart[c] + fill[c]++] = i;
+		}
+	}
+
+	/**
+	 *  Store only the occupied cells.
+	 */
+	private void buildSparse( final double size )
+	{
+		this.setCellSize( size );
+		final int pointCount = this.pointCount;
+		final double coordinates[] = this.coordinates;
+
+		//
+		// Find the occupied columns.
+		//
+
+		int tableSize = 16;
+		while ( tableSize < 2 * pointCount ) {
+			tableSize *= 2;
+		}
+		this.tableKeys = new long[tableSize];
+		Arrays.fill( this.tableKeys, -1L );
+		this.tableColumns = new int[tableSize];
+
+		final long columnKey[] = new long[pointCount];
+		final int pointColumn[] = new int[pointCount];
+		int columns = 0;
+		for ( int i=0; i<pointCount; i++ )
+		{
+			final long key = CellGrid.getColumnKey( this.getCellCoordinate( coordinates[i*3], 0 ),
+				this.getCellCoordinate( coordinates[i*3+1], 1 ) );
+			final int slot = this.findSlot( key );
+			if ( this.tableKeys[slot] < 0 )
+			{
+				this.tableKeys[slot] = key;
+				this.tableColumns[slot] = columns;
+				columnKey[columns++] = key;
+			}
+			pointColumn[i] = this.tableColumns[slot];
+		}
+
+		//
+		// Bucket the points by column (counting sort, so in ascending index
+		// order), then sort each column by z cell.
+		//
+
+		final int columnPoints[] = new int[columns + 1];
+		for ( int i=0; i<pointCount; i++ ) {
+			columnPoints[pointColumn[i] + 1]++;
+		}
+		for ( int c=0; c<columns; c++ ) {
+			columnPoints[c + 1] += columnPoints[c];
+		}
+		final int fill[] = new int[columns];
+		final long sorted[] = new long[pointCount];
+		for ( int i=0; i<pointCount; i++ )
+		{
+			final int c = pointColumn[i];
+			final long z = this.getCellCoordinate( coordinates[i*3+2], 2 );
+			sorted[columnPoints[c] + fill[c]++] = (z << 32) | i;
+		}
+
+		//
+		// Split the columns into cells.
+		//
+
+		this.cellPoints = new int[pointCount];
+		final int cellZ[] = new int[pointCount];
+		final int cellStart[] = new int[pointCount + 1];
+		this.columnStart = new int[columns + 1];
+		int cells = 0;
+		for ( int c=0; c<columns; c++ )
+		{
+			Arrays.sort( sorted, columnPoints[c], columnPoints[c + 1] );
+			this.columnStart[c] = cells;
+			for ( int p=columnPoints[c]; p<columnPoints[c + 1]; p++ )
+			{
+				final int z = (int) (sorted[p] >>> 32);
+				if ( p == columnPoints[c] || z != cellZ[cells - 1] )
+				{
+					cellZ[cells] = z;
+					cellStart[cells++] = p;
+				}
+				this.cellPoints[p] = (int) sorted[p];
+			}
+		}
+		this.columnStart[columns] = cells;
+		cellStart[cells] = pointCount;
+
+		this.columnTotal = columns;
+		this.columnKey = Arrays.copyOf( columnKey, columns );
+		this.cellZ = Arrays.copyOf( cellZ, cells );
+		this.cellStart = Arrays.copyOf( cellStart, cells + 1 );
+	}
+
+	/**
+	 *  Return the number of points in the grid.
+	 */
+	public int getPointCount( )
+	{
+		return this.pointCount;
+	}
+
+	/**
+	 *  Return the edge length of the cells actually used.
+	 */
+	public double getCellSize( )
+	{
+		return this.cellSize;
+	}
+
+	/**
+	 *  Return the coordinate array the grid was built over.
+	 */
+	public double[] getCoordinates( )
+	{
+		return this.coordinates;
+	}
+
+	/**
+	 *  Return the grid cell coordinate of a coordinate value along axis k.
+	 */
+	private int getCellCoordinate( final double value, final int k )
+	{
+		final int c = (int) ((value - this.origin[k]) / this.cellSize);
+		if ( c < 0 ) return 0;
+		if ( c >= this.cellCount[k] ) return this.cellCount[k] - 1;
+		return c;
+	}
+
+	/**
+	 *  Return the key of column (x, y). Cell coordinates are never negative,
+	 *  so no key is -1, which marks empty hash table slots.
+	 */
+	private static long getColumnKey( final int x, final int y )
+	{
+		return ((long) x << 32) | y;
+	}
+
+	/**
+	 *  Return the hash table slot that holds the column key, or the empty
+	 *  slot where it would go. Uses linear probing.
+	 */
+	private int findSlot( final long key )
+	{
+		final int mask = this.tableKeys.length - 1;
+		final long h = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (h >>> 40) & mask;
+		while ( this.tableKeys[slot] != key && this.tableKeys[slot] >= 0 ) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 *  Set ranges to the points in the cells from (x0, y0, z0) to
+	 *  (x1, y1, z1), as pairs of cellPoints positions { first, last + 1 },
+	 *  one pair per column that has points there. If only the occupied cells
+	 *  are stored and the box spans more columns than are occupied, the
+	 *  occupied columns are checked instead of looking up every column of
+	 *  the box.
+	 */
+	private void findRanges( final int x0, final int x1, final int y0, final int y1,
+		final int z0, final int z1, final IntList ranges )
+	{
+		ranges.clear( );
+		if ( this.tableKeys == null )
+		{
+			final int ny = this.cellCount[1];
+			final int nz = this.cellCount[2];
+			for ( int x=x0; x<=x1; x++ )
+			{
+				for ( int y=y0; y<=y1; y++ )
+				{
+					final int column = (x * ny + y) * nz;
+					final int first = this.cellStart[column + z0];
+					final int last = this.cellStart[column + z1 + 1];
+					if ( first < last )
+					{
+						ranges.add( first );
+						ranges.add( last );
+					}
+				}
+			}
+		}
+		else if ( (long) (x1 - x0 + 1) * (y1 - y0 + 1) <= this.columnTotal )
+		{
+			for ( int x=x0; x<=x1; x++ )
+			{
+				for ( int y=y0; y<=y1; y++ )
+				{
+					final int slot = this.findSlot( CellGrid.getColumnKey( x, y ) );
+					if ( this.tableKeys[slot] >= 0 ) {
+						this.addRange( this.tableColumns[slot], z0, z1, ranges );
+					}
+				}
+			}
+		}
+		else
+		{
+			for ( int c=0; c<this.columnTotal; c++ )
+			{
+				final int x = (int) (this.columnKey[c] >>> 32);
+				final int y = (int) this.columnKey[c];
+				if ( x >= x0 && x <= x1 && y >= y0 && y <= y1 ) {
+					this.addRange( c, z0, z1, ranges );
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Add the points in cells z0 to z1 of the column to ranges, if any.
+	 */
+	private void addRange( final int column, final int z0, final int z1, final IntList ranges )
+	{
+		final int first = this.cellStart[this.findCell( column, z0 )];
+		final int last = this.cellStart[this.findCell( column, z1 + 1 )];
+		if ( first < last )
+		{
+			ranges.add( first );
+			ranges.add( last );
+		}
+	}
+
+	/**
+	 *  Return the first cell of the column whose z cell coordinate is at
+	 *  least z, or the end of the column if there is none.
+	 */
+	private int findCell( final int column, final int z )
+	{
+		int low = this.columnStart[column];
+		int high = this.columnStart[column + 1];
+		while ( low < high )
+		{
+			final int middle = (low + high) >>> 1;
+			if ( this.cellZ[middle] < z ) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	//
+	// Point queries
+	//
+
+	/**
+	 *  Return the indices of all points whose distance from (x, y, z) is at
+	 *  most radius, in ascending order.
+	 */
+	public int[] findWithin( final double x, final double y, final double z, final double radius )
+	{
+		final IntList found = new IntList( );
+		this.findWithin( x, y, z, radius, found );
+		found.sort( );
+		return found.toArray( );
+	}
+
+	/**
+	 *  Return the indices of all points whose distance from the given point
+	 *  (which needn't be in the grid) is at most radius, in ascending order.
+	 */
+	public int[] findWithin( final double point[], final double radius )
+	{
+		return this.findWithin( point[0], point[1], point[2], radius );
+	}
+
+	/**
+	 *  Set ranges to the candidates for the points whose distance from
+	 *  (x, y, z) is at most radius, as pairs of positions { first, last + 1 }
+	 *  in getCellPoints( ). Every point within radius is in one of the
+	 *  ranges, once; points a little further away may be too. This lets a
+	 *  caller test the candidates in its own arithmetic (for example in
+	 *  float) without the grid calling back for each of them.
+	 */
+	public void findCandidates( final double x, final double y, final double z,
+		final double radius, final IntList ranges )
+	{
+		if ( this.pointCount == 0 ||
+			x < this.origin[0] - radius || x > this.extent[0] + radius ||
+			y < this.origin[1] - radius || y > this.extent[1] + radius ||
+			z < this.origin[2] - radius || z > this.extent[2] + radius )
+		{
+			ranges.clear( );
+			return;
+		}
+
+		this.findRanges( this.getCellCoordinate( x - radius, 0 ), this.getCellCoordinate( x + radius, 0 ),
+			this.getCellCoordinate( y - radius, 1 ), this.getCellCoordinate( y + radius, 1 ),
+			this.getCellCoordinate( z - radius, 2 ), this.getCellCoordinate( z + radius, 2 ), ranges );
+	}
+
+	/**
+	 *  Return the point indices in cell order, as indexed by the ranges of
+	 *  findCandidates. The array belongs to the grid and must not be
+	 *  changed.
+	 */
+	public int[] getCellPoints( )
+	{
+		return this.cellPoints;
+	}
+
+	/**
+	 *  Add the points within radius of (x, y, z) to found, in no particular
+	 *  order.
+	 */
+	private void findWithin( final double x, final double y, final double z,
+		final double radius, final IntList found )
+	{
+		if ( this.pointCount == 0 ) {
+			return;
+		}
+
+		final double radius2 = radius * radius;
+		final double xyz[] = this.coordinates;
+
+		final int x0 = this.getCellCoordinate( x - radius, 0 );
+		final int x1 = this.getCellCoordinate( x + radius, 0 );
+		final int y0 = this.getCellCoordinate( y - radius, 1 );
+		final int y1 = this.getCellCoordinate( y + radius, 1 );
+		final int z0 = this.getCellCoordinate( z - radius, 2 );
+		final int z1 = this.getCellCoordinate( z + radius, 2 );
+
+		final IntList ranges = new IntList( );
+		this.findRanges( x0, x1, y0, y1, z0, z1, ranges );
+		for ( int r=0; r<ranges.size( ); r+=2 )
+		{
+			final int last = ranges.get( r + 1 );
+			for ( int p=ranges.get( r ); p<last; p++ )
+			{
+				final int j = this.cellPoints[p];
+				final double dx = xyz[j*3] - x;
+				final double dy = xyz[j*3+1] - y;
+				final double dz = xyz[j*3+2] - z;
+				if ( dx*dx + dy*dy + dz*dz <= radius2 ) {
+					found.add( j );
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Return the indices of the k points nearest to (x, y, z), nearest
+	 *  first (ties in ascending index order). Returns fewer than k indices
+	 *  only if the grid has fewer than k points.
+	 */
+	public int[] findNearest( final double x, final double y, final double z, final int k )
+	{
+		final int count = Math.min( k, this.pointCount );
+		if ( count <= 0 ) {
+			return new int[0];
+		}
+
+		// Distance to the far corner of the grid bounds: nothing is further.
+		double far = 0.0;
+		for ( int c=0; c<3; c++ )
+		{
+			final double q = ( c == 0 )? x : ( c == 1 )? y : z;
+			final double d = Math.max( Math.abs( q - this.origin[c] ), Math.abs( q - this.extent[c] ) );
+			far += d * d;
+		}
+		far = Math.sqrt( far );
+
+		// Grow the search radius until it holds at least k points. Every
+		// point nearer than the k-th found point is then within the radius.
+		final IntList found = new IntList( );
+		double radius = this.cellSize;
+		while ( true )
+		{
+			found.clear( );
+			if ( ! (radius < far) )
+			{
+				for ( int i=0; i<this.pointCount; i++ ) {
+					found.add( i );
+				}
+				break;
+			}
+
+			this.findWithin( x, y, z, radius, found );
+			if ( found.size( ) >= count ) {
+				break;
+			}
+			radius *= 2.0;
+		}
+
+		final Integer sorted[] = new Integer[found.size( )];
+		for ( int i=0; i<sorted.length; i++ ) {
+			sorted[i] = Integer.valueOf( found.get( i ) );
+		}
+		final double xyz[] = this.coordinates;
+		Arrays.sort( sorted, new Comparator<Integer>()
+		{
+			public int compare( final Integer a, final Integer b )
+			{
+				final int delta = Double.compare( distance2( a.intValue( ) ), distance2( b.intValue( ) ) );
+				return ( delta != 0 )? delta : a.compareTo( b );
+			}
+
+			private double distance2( final int j )
+			{
+				final double dx = xyz[j*3] - x;
+				final double dy = xyz[j*3+1] - y;
+				final double dz = xyz[j*3+2] - z;
+				return dx*dx + dy*dy + dz*dz;
+			}
+		} );
+
+		final int nearest[] = new int[count];
+		for ( int i=0; i<count; i++ ) {
+			nearest[i] = sorted[i].intValue( );
+		}
+		return nearest;
+	}
+
+	/**
+	 *  Return the indices of the k points nearest to the given point.
+	 *  @see #findNearest( double, double, double, int )
+	 */
+	public int[] findNearest( final double point[], final int k )
+	{
+		return this.findNearest( point[0], point[1], point[2], k );
+	}
+
+
+	//
+	// Pair search
+	//
+
+	/**
+	 *  Return every pair of points i &lt; j whose distance is at most cutoff,
+	 *  as an array of the form { i0, j0, i1, j1, ... }. Pairs are sorted by
+	 *  i, then by j.
+	 */
+	public int[] findPairs( final double cutoff )
+	{
+		return this.findPairs( cutoff, 0, this.pointCount ).toArray( );
+	}
+
+	/**
+	 *  Like findPairs( cutoff ), but splits the search over at most the
+	 *  given number of threads of the shared {@link ParallelExecutor}. The
+	 *  result is the same.
+	 */
+	public int[] findPairs( final double cutoff, final int threads )
+	{
+		if ( threads <= 1 || this.pointCount < 2 ) {
+			return this.findPairs( cutoff );
+		}
+
+		final int taskCount = Math.min( threads * CellGrid.TASKS_PER_THREAD, this.pointCount );
+		final List<Callable<IntList>> tasks = new ArrayList<Callable<IntList>>( taskCount );
+		for ( int t=0; t<taskCount; t++ )
+		{
+			final int start = (int) ((long) this.pointCount * t / taskCount);
+			final int end = (int) ((long) this.pointCount * (t + 1) / taskCount);
+			tasks.add( new Callable<IntList>()
+			{
+				public IntList call( )
+				{
+					return CellGrid.this.findPairs( cutoff, start, end );
+				}
+			} );
+		}
+
+		final IntList pairs = new IntList( );
+		for ( final IntList part : ParallelExecutor.getShared( ).invokeAll( tasks, threads ) ) {
+			pairs.addAll( part );
+		}
+		return pairs.toArray( );
+	}
+
+	/**
+	 *  Find the pairs (i, j) with start &lt;= i &lt; end and i &lt; j.
+	 */
+	private IntList findPairs( final double cutoff, final int start, final int end )
+	{
+		final double cutoff2 = cutoff * cutoff;
+		final double xyz[] = this.coordinates;
+		final IntList pairs = new IntList( );
+		final IntList neighbors = new IntList( );
+		final IntList ranges = new IntList( );
+
+		for ( int i=start; i<end; i++ )
+		{
+			final double x = xyz[i*3];
+			final double y = xyz[i*3+1];
+			final double z = xyz[i*3+2];
+
+			// Cells overlapping the box of half-width cutoff around the point.
+			final int x0 = this.getCellCoordinate( x - cutoff, 0 );
+			final int x1 = this.getCellCoordinate( x + cutoff, 0 );
+			final int y0 = this.getCellCoordinate( y - cutoff, 1 );
+			final int y1 = this.getCellCoordinate( y + cutoff, 1 );
+			final int z0 = this.getCellCoordinate( z - cutoff, 2 );
+			final int z1 = this.getCellCoordinate( z + cutoff, 2 );
+
+			this.findRanges( x0, x1, y0, y1, z0, z1, ranges );
+			neighbors.clear( );
+			for ( int r=0; r<ranges.size( ); r+=2 )
+			{
+				final int last = ranges.get( r + 1 );
+
+				// The z cells of a column are contiguous, so walk them in one go.
+				for ( int p=ranges.get( r ); p<last; p++ )
+				{
+					final int j = this.cellPoints[p];
+					if ( j <= i ) {
+						continue;
+					}
+					final double dx = xyz[j*3] - x;
+					final double dy = xyz[j*3+1] - y;
+					final double dz = xyz[j*3+2] - z;
+					if ( dx*dx + dy*dy + dz*dz <= cutoff2 ) {
+						neighbors.add( j );
+					}
+				}
+			}
+
+			neighbors.sort( );
+			for ( int n=0; n<neighbors.size( ); n++ )
+			{
+				pairs.add( i );
+				pairs.add( neighbors.get( n ) );
+			}
+		}
+
+		return pairs;
+	}
+
+	/**
+	 *  A growable array of ints.
+	 */
+	public static final class IntList
+	{
+		private int values[] = new int[16];
+		private int size = 0;
+
+		void add( final int value )
+		{
+			if ( this.size == this.values.length ) {
+				this.values = Arrays.copyOf( this.values, this.size * 2 );
+			}
+			this.values[this.size++] = value;
+		}
+
+		void addAll( final IntList other )
+		{
+			if ( this.size + other.size > this.values.length ) {
+				this.values = Arrays.copyOf( this.values, Math.max( this.size + other.size, this.size * 2 ) );
+			}
+			System.arraycopy( other.values, 0, this.values, this.size, other.size );
+			this.size += other.size;
+		}
+
+		public int get( final int index )
+		{
+			return this.values[index];
+		}
+
+		public int size( )
+		{
+			return this.size;
+		}
+
+		public void clear( )
+		{
+			this.size = 0;
+		}
+
+		void sort( )
+		{
+			Arrays.sort( this.values, 0, this.size );
+		}
+
+		int[] toArray( )
+		{
+			return Arrays.copyOf( this.values, this.size );
+		}
+	}
+}
@@ -47,12 +47,14 @@ package org.rcsb.mbt.model.util;
 
 
 import java.util.*;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.io.*;
-import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLConnection;
-import java.net.UnknownHostException;
 
 import org.rcsb.mbt.model.*;
 
@@ -158,103 +160,140 @@ public class ChemicalComponentBonds
 		}
 	}
 	
-	private enum ItemParts { COMPOUND_CODE, ATOM0, ATOM1, BOND_TYPE }
-					// keys into the split strings.
-	
-	static private final String bondFileUrlPrefix = "http://www.rcsb.org/pdb/files/ligand/",
-								bondFileUrlSuffix = ".cif.gz";
+	/**
+	 * The compiled dictionary (see BondDictionary and ChemicalComponentBondsCreator)
+	 * and the text dictionary it is compiled from, which is only looked for
+	 * to report that it wasn't compiled.
+	 */
+	static private final String dictionaryResource = "/ChemicalComponentBonds.bin",
+								textDictionaryResource = "/ChemicalComponentBonds.dat";
 
-	@SuppressWarnings("serial")
-	static private class CompoundMap extends Hashtable<String, BondOrder> {}
-			// "<atom0>:<atom1>" -> BondType
-	
-	@SuppressWarnings("serial")
-	static private class BondsMap extends Hashtable<String, CompoundMap> {}
-			// compound code -> CompoundMap
-	
-	static private BondsMap bonds = load( "/ChemicalComponentBonds.dat" );
-	
-	static private Set<String> compoundsTriedNotFound = null;
+	/**
+	 * Loads the dictionary the first time it is needed.
+	 */
+	static private class DictionaryHolder
+	{
+		static final BondDictionary dictionary = load( );
+	}
+
+	/**
+	 * System property naming the ligand cache directory, and the default
+	 * (under the user's home directory).
+	 */
+	static public final String cacheDirectoryProperty = "org.rcsb.mbt.ligandCache";
+	static private final String defaultCacheDirectory = ".mbt" + File.separator + "ligands";
+
+	/**
+	 * Compounds looked up since startup: compound code -> bonds.
+	 */
+	static private final Hashtable<String, BondDictionary.Compound> addedCompounds =
+		new Hashtable<String, BondDictionary.Compound>( );
+
+	/**
+	 * Compounds the provider (or the cache) doesn't know, so they aren't
+	 * looked up again.
+	 */
+	static private final Set<String> missingCompounds =
+		Collections.synchronizedSet( new HashSet<String>( ) );
+
+	static private ComponentDefinitionProvider provider = new PdbComponentDefinitionProvider( );
+	static private ComponentDefinitionCache cache = new ComponentDefinitionCache( getDefaultCacheDirectory( ) );
+
+	/**
+	 * Set when the provider couldn't be reached: there is no point waiting
+	 * for it again for every ligand.
+	 */
+	static private boolean providerFailed = false;
+
+	/**
+	 * prefetch() looks up at most this many compounds with the provider at
+	 * a time.
+	 */
+	static private final int prefetchThreads = 4;
 
 
 	/**
 	 *  Attempt to initialize the chemical component bond dictionary.
+	 *  The compiled dictionary is memory-mapped if it is a plain file.
+	 *  The text dictionary is not compiled at startup (that takes seconds);
+	 *  if it is the only one on the class path, the build didn't compile it
+	 *  and that is reported as an error.
 	 */
-	static private BondsMap load( final String dictionaryFile )
+	static private BondDictionary load( )
 	{
-		BondsMap lclBonds = new BondsMap( );
+		final Class<ChemicalComponentBonds> myClass = ChemicalComponentBonds.class;
+		try
+		{
+			URL url = myClass.getResource( dictionaryResource );
+			if ( url != null )
+			{
+				if ( "file".equals( url.getProtocol( ) ) ) {
+					return BondDictionary.map( new File( url.toURI( ) ) );
+				}
 
-		//
-		// Read the bond dictionary
-		//
+				final InputStream is = url.openStream( );
+				try {
+					return BondDictionary.read( is );
+				} finally {
+					is.close( );
+				}
+			}
 
-		Class<ChemicalComponentBonds> myClass = ChemicalComponentBonds.class;
-		InputStream is = null;
-		try {
-			is = myClass.getResource( dictionaryFile ).openStream();
-			
-			if ( is == null )
-			{
-				Status.output( Status.LEVEL_WARNING, "ChemicalComponentBonds: No dictionary: " + dictionaryFile );
-				return null;
+			if ( myClass.getResource( textDictionaryResource ) != null ) {
+				Status.output( Status.LEVEL_ERROR, "ChemicalComponentBonds: " + textDictionaryResource
+					+ " was not compiled into " + dictionaryResource
+					+ " (build with the bond-dictionary profile, or run ChemicalComponentBondsCreator -compile)" );
+			} else {
+				Status.output( Status.LEVEL_ERROR, "ChemicalComponentBonds: No dictionary: " + dictionaryResource );
 			}
-		} catch (IOException e1) {
-			e1.printStackTrace();
 		}
-		final InputStreamReader isr = new InputStreamReader( is );
-		final BufferedReader br = new BufferedReader( isr );
-		SharedObjects sharedStrings = new SharedObjects( );
-
-		String line = null;
-		try
+		catch ( final IOException e )
 		{
-			while ( (line = br.readLine()) != null )
-				addBondLineToMap(line, sharedStrings, lclBonds);
+			Status.output( Status.LEVEL_WARNING, e.getMessage( ) );
 		}
-		catch ( final java.io.IOException e )
+		catch ( final URISyntaxException e )
 		{
-			Status.output(Status.LEVEL_WARNING, e.getMessage());
+			Status.output( Status.LEVEL_WARNING, e.getMessage( ) );
 		}
 
-		sharedStrings = null;
-
-		return lclBonds;
+		return null;
 	}
 
-	private static void addBondLineToMap(String line, SharedObjects sharedStrings, BondsMap bonds) throws IOException
+	/**
+	 *  Return the bonds of the given compound from the dictionary (or from
+	 *  an earlier lookup), or null if the compound isn't known.
+	 *  Unlike knownCompound(), this never goes to the network.
+	 *  <P>
+	 *  Resolving a compound once and then its atoms once with
+	 *  getDictionaryAtomName() is much cheaper than calling bondType() for
+	 *  every atom pair of a residue.
+	 */
+	public static BondDictionary.Compound getCompound( final String compoundCode )
 	{
-		// ALA N CA SING
-		// items[0] = compoundName
-		// items[1] = atom 1
-		// items[2] = atom 2
-		// items[3] = bond type
-		
-		final String items[] = line.split( "\t" );
-		if ( (items == null) || (items.length != 4) )
-			throw new IOException( "ChemicalComponentBonds: Dictionary is corrupt: ");
-
-		//
-		// Check the bond dictionary for the compound
-		//
-		String compoundKey = items[ItemParts.COMPOUND_CODE.ordinal()];
-		CompoundMap compoundMap = (bonds.containsKey(compoundKey))? bonds.get(compoundKey) : null;
+		if ( compoundCode == null ) {
+			return null;
+		}
 
-		if (compoundMap == null)
+		final BondDictionary dictionary = DictionaryHolder.dictionary;
+		if ( dictionary != null )
 		{
-			compoundMap = new CompoundMap( );
-			bonds.put( sharedStrings.share(compoundKey), compoundMap );
+			final BondDictionary.Compound compound = dictionary.getCompound( compoundCode );
+			if ( compound != null ) {
+				return compound;
+			}
 		}
+		return addedCompounds.get( compoundCode );
+	}
 
-		//
-		// Check the compound for the bond
-		//	
-		String bondKey = sharedStrings.share(items[ItemParts.ATOM0.ordinal()] + ':' + items[ItemParts.ATOM1.ordinal()]);
-		if (!compoundMap.containsKey(bondKey))
-			compoundMap.put( bondKey, BondOrder.valueByShortName(items[ItemParts.BOND_TYPE.ordinal()].substring(0, 4)) );
-						// only the first four characters count
+	/**
+	 *  Return the atom name as it is spelled in the dictionary.
+	 *  Spaces have been removed in the dictionary (see 4hhb for example).
+	 */
+	public static String getDictionaryAtomName( final String atomName )
+	{
+		return ( atomName.indexOf( ' ' ) < 0 )? atomName : atomName.replace( " ", "" );
 	}
-	
-	
+
 	/**
 	 *  Try to determine what type of bond might exist between the two atoms
 	 *  using a dictionary of known chemical compounds.
@@ -265,9 +304,6 @@ public class ChemicalComponentBonds
 	 */
 	public static BondOrder bondType( final Atom atom0, final Atom atom1 )
 	{
-		if ( bonds == null )
-			return BondOrder.UNKNOWN;
-		
 		if (atom0 == null || atom1 == null)
 			throw new NullPointerException( "Error: atom " + ((atom0 == null)? "0" : "1") + " is null in ChemicalComponentBonds.bondType." );
 							// can't have a null atom - illegal call...
@@ -283,25 +319,12 @@ public class ChemicalComponentBonds
 							// 30-Oct-08 - rickb
 		}
 
-		if (bonds.containsKey(atom0.compound))
+		final BondDictionary.Compound compound = getCompound( atom0.compound );
+		if ( compound != null )
 		{
-			final CompoundMap compoundMap = bonds.get( atom0.compound );
-			
-			String atomName0 = atom0.name.replace(" ", "");
-			String atomName1 = atom1.name.replace(" ", "");
-								// spaces have been removed in the keys...
-								// (see 4hhb for example...)
-		
-			for (int ix = 0; ix < 2; ix++)
-			{
-				String bondKey = (ix == 0)? atomName0 + ":" + atomName1 : atomName1 + ":" + atomName0;
-							// try natural, then reverse atom orders
-				
-				if (compoundMap.containsKey(bondKey))
-					return compoundMap.get( bondKey );
-			}
-
-			return BondOrder.UNKNOWN;
+			// tries natural, then reverse atom orders
+			return compound.bondType( getDictionaryAtomName( atom0.name ),
+				getDictionaryAtomName( atom1.name ) );
 		}
 
 		return BondOrder.NONE;
@@ -327,13 +350,15 @@ public class ChemicalComponentBonds
 
 	/**
 	 *  Determine if the given compound code is contained in the dictionary
-	 *  and return true if it is or false if it is not.
+	 *  and return true if it is or false if it is not. Compounds that are
+	 *  not in the dictionary are looked up in the ComponentDefinitionCache
+	 *  and with the ComponentDefinitionProvider.
 	 */
 	public static boolean knownCompound( final String compoundCode )
 	{
-		if (compoundCode != null && bonds != null)
+		if (compoundCode != null)
 		{
-			if (bonds.containsKey(compoundCode)) return true;
+			if (getCompound(compoundCode) != null) return true;
 		
 			else
 				return tryAddBondsForCompound(compoundCode);
@@ -343,47 +368,299 @@ public class ChemicalComponentBonds
 	}
 	
 	/**
-	 * If the bond wasn't found for the compound, try to get it from the pdb site and
-	 * add it.
+	 *  Set where definitions of compounds that are not in the dictionary
+	 *  come from. The default fetches them from pdb.org. Use a
+	 *  LocalComponentDefinitionProvider on machines without network access,
+	 *  or null to only use the dictionary and the cache.
+	 *  <P>
+	 *  Forgets compounds earlier found missing.
+	 */
+	public static synchronized void setComponentDefinitionProvider( final ComponentDefinitionProvider newProvider )
+	{
+		provider = newProvider;
+		providerFailed = false;
+		missingCompounds.clear( );
+	}
+
+	public static synchronized ComponentDefinitionProvider getComponentDefinitionProvider( )
+	{
+		return provider;
+	}
+
+	/**
+	 *  Set the on-disk cache of looked up compounds, or null for none.
+	 *  The default is the directory named by the system property
+	 *  "org.rcsb.mbt.ligandCache", or ~/.mbt/ligands.
+	 *  <P>
+	 *  Forgets compounds earlier found missing.
+	 */
+	public static synchronized void setComponentDefinitionCache( final ComponentDefinitionCache newCache )
+	{
+		cache = newCache;
+		missingCompounds.clear( );
+	}
+
+	public static synchronized ComponentDefinitionCache getComponentDefinitionCache( )
+	{
+		return cache;
+	}
+
+	private static File getDefaultCacheDirectory( )
+	{
+		final String directory = System.getProperty( cacheDirectoryProperty );
+		if ( directory != null && directory.length( ) > 0 ) {
+			return new File( directory );
+		}
+		return new File( System.getProperty( "user.home" ), defaultCacheDirectory );
+	}
+
+	/**
+	 *  Look up all the compounds of the given structure that are not in
+	 *  the dictionary, in one pass, before bonds are generated.
+	 *
+	 *  @return	the number of compounds that could not be found.
+	 */
+	public static int prefetch( final StructureMap structureMap )
+	{
+		final Set<String> compoundCodes = new LinkedHashSet<String>( );
+		final int residueCount = structureMap.getResidueCount( );
+		for ( int r = 0; r < residueCount; r++ ) {
+			compoundCodes.add( structureMap.getResidue( r ).getCompoundCode( ) );
+		}
+		return prefetch( compoundCodes );
+	}
+
+	/**
+	 *  Look up all the given compounds that are not in the dictionary.
+	 *  Compounds that are not in the cache either are fetched from the
+	 *  provider on up to prefetchThreads threads at once. The first one is
+	 *  fetched alone, so a provider that can't be reached costs a single
+	 *  timeout.
+	 *
+	 *  @return	the number of compounds that could not be found.
+	 */
+	public static int prefetch( final Collection<String> compoundCodes )
+	{
+		final List<String> lookups = new ArrayList<String>( );
+		for ( final String compoundCode : new LinkedHashSet<String>( compoundCodes ) )
+		{
+			if ( compoundCode != null && getCompound( compoundCode ) == null &&
+				findLocally( compoundCode ) == null ) {
+				lookups.add( compoundCode );
+			}
+		}
+
+		if ( !lookups.isEmpty( ) ) {
+			tryAddBondsForCompound( lookups.remove( 0 ) );
+		}
+		if ( !lookups.isEmpty( ) )
+		{
+			final ExecutorService pool =
+				Executors.newFixedThreadPool( Math.min( lookups.size( ), prefetchThreads ) );
+			try
+			{
+				final List<Future<Boolean>> tasks = new ArrayList<Future<Boolean>>( );
+				for ( final String compoundCode : lookups )
+				{
+					tasks.add( pool.submit( new Callable<Boolean>()
+					{
+						public Boolean call( )
+						{
+							return tryAddBondsForCompound( compoundCode );
+						}
+					} ) );
+				}
+				for ( final Future<Boolean> task : tasks )
+				{
+					try {
+						task.get( );
+					} catch ( final ExecutionException e ) {
+						Status.output( Status.LEVEL_WARNING, "Ligand lookup failed: " + e.getCause( ) );
+					}
+				}
+			}
+			catch ( final InterruptedException e )
+			{
+				Thread.currentThread( ).interrupt( );
+			}
+			finally
+			{
+				pool.shutdownNow( );
+			}
+		}
+
+		int missing = 0;
+		for ( final String compoundCode : compoundCodes ) {
+			if ( compoundCode == null || getCompound( compoundCode ) == null ) {
+				missing++;
+			}
+		}
+		return missing;
+	}
+
+	/**
+	 * If the bond wasn't found for the compound, try to get it from the
+	 * cache, then from the provider (adding it to the cache). Only the
+	 * cache and the bookkeeping are done under the class lock, so several
+	 * threads can wait for the provider at once.
 	 */
 	private static boolean tryAddBondsForCompound(String compoundCode)
 	{
-		boolean retval = false;
-		
+		final Boolean known = findLocally(compoundCode);
+		if (known != null)
+			return known.booleanValue();
+
+		final ComponentDefinitionProvider source = getComponentDefinitionProvider();
+		if (source == null)
+			return false;
+							// changed while we weren't holding the lock
+
+		List<String> bondStrings = null;
+		try
+		{
+			Status.output(Status.LEVEL_REMARK, "Looking up bond information for the ligand \"" + compoundCode + "\" on " + source + "...");
+			InputStream inputStream = source.openDefinition(compoundCode);
+			if (inputStream != null)
+			{
+				try {
+					bondStrings = parseCifFileForBonds(inputStream, null);
+				} finally {
+					inputStream.close();
+				}
+			}
+		}
+
+		catch (IOException e)
+		{
+			providerUnreachable(compoundCode, source, e);
+			return false;
+		}
+
+		return addLookedUpBonds(compoundCode, bondStrings);
+	}
+
+	/**
+	 * Answer from what is already known about the compound: the compounds
+	 * added or found missing so far, and the cache. Returns null if only
+	 * the provider can tell.
+	 */
+	private static synchronized Boolean findLocally(String compoundCode)
+	{
 		if (compoundCode.length() < 3 && PeriodicTable.getElement(compoundCode) != null)
-				return retval;
+				return Boolean.FALSE;
 							// don't look up single elements
-		
+
+		if (addedCompounds.containsKey(compoundCode))
+			return Boolean.TRUE;
+							// added while we waited for the lock
+
+		if (missingCompounds.contains(compoundCode))
+			return Boolean.FALSE;
+
 		try
 		{
-			Status.output(Status.LEVEL_REMARK, "Looking up bond information for the ligand \"" + compoundCode + "\" on pdb.org...");
-			URL bondUrl = new URL(bondFileUrlPrefix + compoundCode + bondFileUrlSuffix);
-			URLConnection urlConnection = bondUrl.openConnection();
-	        urlConnection.addRequestProperty("User-agent", "Mozilla/4.0 (compatible; MSIE 6.0;Windows NT 5.1; SV1)");
-			InputStream inputStream = urlConnection.getInputStream();
-			GZIPInputStream zin = new GZIPInputStream(inputStream);
-			ArrayList<String> bondStrings = parseCifFileForBonds(zin, null);
-			SharedObjects sharedStrings = new SharedObjects( );
-			for (String bondString : bondStrings)
-				addBondLineToMap(bondString, sharedStrings, bonds);
-			
-			retval = bonds.containsKey(compoundCode);
-			return retval;
+			if (cache != null)
+			{
+				List<String> bondStrings = cache.getBonds(compoundCode);
+				if (bondStrings != null)
+					return Boolean.valueOf(addBonds(compoundCode, bondStrings));
+
+				if (cache.isMissing(compoundCode))
+				{
+					missingCompounds.add(compoundCode);
+					return Boolean.FALSE;
+				}
+			}
 		}
-		
-		catch (MalformedURLException e) {}
-		
-		catch (UnknownHostException e)
+
+		catch (IOException e)
 		{
-			Status.output(Status.LEVEL_WARNING, "Internet connection to pdb.org failed...  calculating bonds for Ligand \"" + compoundCode + "\"");
+			Status.output(Status.LEVEL_WARNING, "Ligand cache " + cache + ": " + e.getMessage());
 		}
-		
+
+		if (provider == null || providerFailed)
+		{
+			missingCompounds.add(compoundCode);
+			return Boolean.FALSE;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Give up on the provider after it failed, unless it has been replaced
+	 * in the meantime.
+	 */
+	private static synchronized void providerUnreachable(String compoundCode, ComponentDefinitionProvider source, IOException e)
+	{
+		if (source != provider)
+			return;
+
+		if (!providerFailed)
+			Status.output(Status.LEVEL_WARNING, "Ligand lookup on " + provider + " failed (" + e +
+				")...  calculating bonds for Ligand \"" + compoundCode + "\" and other unknown ligands");
+		providerFailed = true;
+		missingCompounds.add(compoundCode);
+	}
+
+	/**
+	 * Add the bonds the provider returned for the compound (null if it
+	 * doesn't know the compound) and record them in the cache.
+	 */
+	private static synchronized boolean addLookedUpBonds(String compoundCode, List<String> bondStrings)
+	{
+		final boolean found = addBonds(compoundCode, bondStrings);
+		if (!found)
+			Status.output(Status.LEVEL_WARNING, "Ligand \"" + compoundCode + "\" not found... calculating bonds for Ligand ");
+
+		try
+		{
+			if (cache != null)
+			{
+				if (found)
+					cache.putBonds(compoundCode, bondStrings);
+				else
+					cache.putMissing(compoundCode);
+			}
+		}
+
 		catch (IOException e)
 		{
-			Status.output(Status.LEVEL_WARNING, "Ligand \"" + compoundCode + "\" not found... calculating bonds for Ligand ");			
+			Status.output(Status.LEVEL_WARNING, "Ligand cache " + cache + ": " + e.getMessage());
 		}
-		
-		return retval;
+
+		return found;
+	}
+
+	/**
+	 * Compile looked up bond lines and add them to addedCompounds.
+	 * A compound without bonds (or not found: null) goes to missingCompounds.
+	 */
+	private static boolean addBonds(String compoundCode, List<String> bondStrings)
+	{
+		if (bondStrings != null && !bondStrings.isEmpty())
+		{
+			try
+			{
+				BondDictionary compiled = BondDictionary.compile(bondStrings);
+				for (int ix = 0; ix < compiled.getCompoundCount(); ix++)
+				{
+					String code = compiled.getCompoundCode(ix);
+					addedCompounds.put(code, compiled.getCompound(code));
+				}
+			}
+
+			catch (IOException e)
+			{
+				Status.output(Status.LEVEL_WARNING, "Ligand \"" + compoundCode + "\": " + e.getMessage());
+			}
+		}
+
+		if (addedCompounds.containsKey(compoundCode))
+			return true;
+
+		missingCompounds.add(compoundCode);
+		return false;
 	}
 	
 
@@ -397,7 +674,7 @@ public class ChemicalComponentBonds
 	 *   
 	 * This gets called from the external process ChemicalComponentBondsCreator to create
 	 * the initial dictionary (which is why it's public.)  It is also called from this class
-	 * in 'tryAddBondsForCompound()'.  Input from this are typically very tiny streams,
+	 * in 'tryAddBondsForCompound()', to fill the ComponentDefinitionCache.  Input from this are typically very tiny streams,
 	 * containing the bond info for a single ligand.  OTOH, when called from
 	 * ChemicalComponentBondsCreator, the input stream is huge, hence the need to
 	 * output as it comes in.
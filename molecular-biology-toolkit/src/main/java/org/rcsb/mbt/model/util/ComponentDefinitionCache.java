@@ -0,0 +1,249 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  An on-disk cache of the bond tables of chemical components that are
+ *  not in the bond dictionary, so that each is only looked up once.
+ *  <P>
+ *  For every compound the cache directory holds either "CODE.bonds", the
+ *  four-token bond lines produced by ChemicalComponentBonds.parseCifFileForBonds,
+ *  or "CODE.missing", an empty marker for a compound the provider did not
+ *  know (or that has no bonds). Missing markers expire, since new
+ *  compounds are released every week.
+ *  <P>
+ *  Entries are written to a temporary file and renamed, so several
+ *  viewers can share a cache directory.
+ *
+ *  @see	org.rcsb.mbt.model.util.ChemicalComponentBonds#setComponentDefinitionCache(ComponentDefinitionCache)
+ */
+public class ComponentDefinitionCache
+{
+	private static final String bondsSuffix = ".bonds",
+								missingSuffix = ".missing";
+
+	/**
+	 *  How long a missing marker is trusted, in milliseconds (30 days).
+	 */
+	public static final long defaultMissingExpiry = 30L * 24 * 60 * 60 * 1000;
+
+	private final File directory;
+	private final long missingExpiry;
+
+	public ComponentDefinitionCache( final File directory )
+	{
+		this( directory, ComponentDefinitionCache.defaultMissingExpiry );
+	}
+
+	/**
+	 *  @param directory		the cache directory; created when the first
+	 *  						entry is written.
+	 *  @param missingExpiry	how long a missing marker is trusted, in
+	 *  						milliseconds.
+	 */
+	public ComponentDefinitionCache( final File directory, final long missingExpiry )
+	{
+		this.directory = directory;
+		this.missingExpiry = missingExpiry;
+	}
+
+	public File getDirectory( )
+	{
+		return this.directory;
+	}
+
+	/**
+	 *  Compound codes are used as file names, so only plain ones are
+	 *  cached (or looked up in a LocalComponentDefinitionProvider).
+	 */
+	public static boolean isValidCode( final String compoundCode )
+	{
+		if ( compoundCode == null || compoundCode.length( ) == 0 || compoundCode.length( ) > 10 ) {
+			return false;
+		}
+		for ( int i = 0; i < compoundCode.length( ); i++ )
+		{
+			final char c = compoundCode.charAt( i );
+			if ( !( ( c >= 'A' && c <= 'Z' ) || ( c >= 'a' && c <= 'z' ) || ( c >= '0' && c <= '9' ) ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 *  Return the cached bond lines of the given compound, or null if
+	 *  they are not in the cache.
+	 */
+	public List<String> getBonds( final String compoundCode ) throws IOException
+	{
+		if ( !ComponentDefinitionCache.isValidCode( compoundCode ) ) {
+			return null;
+		}
+
+		final File file = new File( this.directory, compoundCode + ComponentDefinitionCache.bondsSuffix );
+		if ( !file.isFile( ) ) {
+			return null;
+		}
+
+		final List<String> bonds = new ArrayList<String>( );
+		final BufferedReader br = new BufferedReader( new FileReader( file ) );
+		try
+		{
+			String line;
+			while ( ( line = br.readLine( ) ) != null ) {
+				if ( line.length( ) > 0 ) {
+					bonds.add( line );
+				}
+			}
+		}
+		finally
+		{
+			br.close( );
+		}
+		return bonds;
+	}
+
+	/**
+	 *  Return true if the cache has a (current) missing marker for the
+	 *  given compound.
+	 */
+	public boolean isMissing( final String compoundCode )
+	{
+		if ( !ComponentDefinitionCache.isValidCode( compoundCode ) ) {
+			return false;
+		}
+
+		final File file = new File( this.directory, compoundCode + ComponentDefinitionCache.missingSuffix );
+		return file.isFile( ) &&
+			System.currentTimeMillis( ) - file.lastModified( ) < this.missingExpiry;
+	}
+
+	/**
+	 *  Store the bond lines of the given compound (and drop any missing
+	 *  marker).
+	 */
+	public void putBonds( final String compoundCode, final List<String> bonds ) throws IOException
+	{
+		if ( !ComponentDefinitionCache.isValidCode( compoundCode ) ) {
+			return;
+		}
+
+		this.write( compoundCode + ComponentDefinitionCache.bondsSuffix, bonds );
+		new File( this.directory, compoundCode + ComponentDefinitionCache.missingSuffix ).delete( );
+	}
+
+	/**
+	 *  Record that the given compound is not known to the provider.
+	 */
+	public void putMissing( final String compoundCode ) throws IOException
+	{
+		if ( !ComponentDefinitionCache.isValidCode( compoundCode ) ) {
+			return;
+		}
+
+		this.write( compoundCode + ComponentDefinitionCache.missingSuffix, new ArrayList<String>( ) );
+	}
+
+	/**
+	 *  Write a file under a temporary name and rename it into place.
+	 */
+	private void write( final String name, final List<String> lines ) throws IOException
+	{
+		if ( !this.directory.isDirectory( ) && !this.directory.mkdirs( ) && !this.directory.isDirectory( ) ) {
+			throw new IOException( "Can't create the ligand cache directory " + this.directory );
+		}
+
+		final File temp = File.createTempFile( name, ".tmp", this.directory );
+		try
+		{
+			final PrintWriter pw = new PrintWriter( new OutputStreamWriter( new FileOutputStream( temp ), "US-ASCII" ) );
+			try
+			{
+				for ( final String line : lines ) {
+					pw.println( line );
+				}
+			}
+			finally
+			{
+				pw.close( );
+			}
+			if ( pw.checkError( ) ) {
+				throw new IOException( "Can't write " + temp );
+			}
+
+			final File file = new File( this.directory, name );
+			if ( !temp.renameTo( file ) )
+			{
+				// renameTo doesn't replace an existing file everywhere
+				file.delete( );
+				if ( !temp.renameTo( file ) ) {
+					throw new IOException( "Can't rename " + temp + " to " + file );
+				}
+			}
+		}
+		finally
+		{
+			temp.delete( );
+		}
+	}
+
+	@Override
+	public String toString( )
+	{
+		return this.directory.getPath( );
+	}
+}
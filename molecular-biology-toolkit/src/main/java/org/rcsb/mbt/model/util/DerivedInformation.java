@@ -45,8 +45,12 @@
  */ 
 package org.rcsb.mbt.model.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
-import java.util.ListIterator;
+import java.util.concurrent.Callable;
 
 import org.rcsb.mbt.model.Atom;
 import org.rcsb.mbt.model.Chain;
@@ -86,6 +90,25 @@ public class DerivedInformation
 
 	private int[][] chains = null;
 
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Neighbor searches look slightly beyond the H bond cut-off so that no
+	 * candidate is lost to rounding before the exact distance test.
+	 */
+	private static final double searchPadding = 1.0 + 1.0e-6;
+
+	/**
+	 * Amino acid count from which the H bond energies are calculated on all
+	 * threads.
+	 */
+	private static final int parallelResidueCount = 1000;
+
+	/**
+	 * Candidate H bonds are split into this many tasks per thread.
+	 */
+	private static final int TASKS_PER_THREAD = 4;
+
 	/**
 	 * Creates a DerivedInformation object from a structure and a StructureMap
 	 * object.
@@ -94,30 +117,35 @@ public class DerivedInformation
 		this.structureMap = structureMap;
 	}
 
+	/**
+	 * Sets the most threads of the shared {@link ParallelExecutor} used to
+	 * calculate the H bond energies of large structures. The flags are the
+	 * same for any number of threads.
+	 */
+	void setThreads(final int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
 	/**
 	 * Sets the residue flags according to the extended classification in the
 	 * Kabsch-Sander algorithm.
+	 * <P>
+	 * The backbone atoms of the amino acids are copied into coordinate arrays
+	 * once, the candidate H bonds (CA atoms within hBondCutoffDistance and at
+	 * least 3 aa apart) are found with a cell grid, and their energies are
+	 * calculated on several threads for large structures. The bonds are then
+	 * assigned by the index of the first residue, and for each first residue
+	 * in the order the octree search used to find the candidates in.
 	 */
-	private Object[] setSsExtendedFlags() {
-		Vector<BondInfo> bondList = null; // Candidate H bonds
+	void setSsExtendedFlags() {
 		
 	try {
+		final int resCount = this.structureMap.getResidueCount();
+		int[] resPointers = new int[resCount];
 		int aaCount = 0;
-		int resCount;
-		int[] resPointers;
-		int[] coHBonds;
-		int[] hnHBonds;
-		double[] coEnergy;
-		double[] hnEnergy;
-		byte[] pattern;
-		int[] beta1;
-		int[] beta2;
-
-		resCount = this.structureMap.getResidueCount();
-		// char[] ssFlags = null;
+		final int[] beta1 = new int[resCount];
+		final int[] beta2 = new int[resCount];
 		this.ssFlags = new char[Math.max(resCount, 2)];
-		beta1 = new int[resCount];
-		beta2 = new int[resCount];
 
 		// Possible hbonding patterns
 		//
@@ -127,405 +155,57 @@ public class DerivedInformation
 		final byte HBONDS_ANTIPARA = 8;
 		final byte HBONDS_PARA = 16;
 
-		// First, figure out how many aa we have among all residues listed in
-		// the StructureMap
+		// Iterate over residues, check whether aa and set flags a la Molscript.
+		// Take this opportunity to set the pointers into the initial residue
+		// array.
 		//
-		// Iterate over residues, check whether aa and set flags a la Molscript
-		//
-		Residue residue = null;
 		for (int i = 0; i < resCount; i++) {
-			residue = this.structureMap.getResidue(i);
-
-			if (residue.getClassification() == Residue.Classification.AMINO_ACID) { // Is
-																				// aa
-				aaCount++;
+			if (this.structureMap.getResidue(i).getClassification() == Residue.Classification.AMINO_ACID) {
+				resPointers[aaCount++] = i;
 				this.ssFlags[i] = ' ';
 			} else {
 				this.ssFlags[i] = '-'; // Non aa
 			}
-
-			// Initialize some fields with this occasion
-			//
 			beta1[i] = beta2[i] = -1;
 		}
+		resPointers = Arrays.copyOf(resPointers, aaCount);
 
-		// Initialize different data arrays: hbonds, pointers to original
-		// residues, pattern fields
-		//
-		coHBonds = new int[aaCount];
-		hnHBonds = new int[aaCount];
-		resPointers = new int[aaCount];
-		pattern = new byte[aaCount];
-		coEnergy = new double[aaCount];
-		hnEnergy = new double[aaCount];
-
-		// Sets the pointers into the initial residue array
-		//
-		int aaIndex = -1;
-		for (int i = 0; i < resCount; i++) {
-			if (this.structureMap.getResidue(i).getClassification() == Residue.Classification.AMINO_ACID) {
+		final byte[] pattern = new byte[aaCount];
+		final int[] coHBonds = new int[aaCount];
+		final int[] hnHBonds = new int[aaCount];
+		Arrays.fill(coHBonds, -1); // "no bond from this residue"
+		Arrays.fill(hnHBonds, -1);
 
-				aaIndex++;
-				resPointers[aaIndex] = i;
-			}
-		}
+		final Backbone backbone = new Backbone(this.structureMap, resPointers);
+		this.chains = backbone.chains;
 
-		// Working space for atoms needed to calculate the hbond energy.
+		// Select the candidates within a certain distance threshold and at
+		// least 3 aa apart, and keep those that satisfy the energy < -0.5
+		// kcal/mol criterion.
 		//
-		final double[] cCoord1 = new double[3];
-		final double[] nCoord1 = new double[3];
-		final double[] oCoord1 = new double[3];
-		final double[] hCoord1 = new double[3];
-
-		final double[] cCoord2 = new double[3];
-		final double[] nCoord2 = new double[3];
-		final double[] oCoord2 = new double[3];
-		final double[] hCoord2 = new double[3];
-
-		final double[] cCoordM1 = new double[3];
-		final double[] oCoordM1 = new double[3];
-
-		// Assign the hydrogen bonds. First, select from the aaCount^2
-		// candidates only those within
-		// a certain distance threshold and at least 3 aa apart. Use an octree
-		// to perform this selection.
-		// 
-		// Ideally, I would like to totally incorporate the H bond detection in
-		// a method of the octree class.
-		// However, for the moment I don't have the right solution to doing
-		// this.
-		//
-		Atom atom1 = new Atom();
-		final Vector<Integer> chainStarts = new Vector<Integer>();
-		final Vector<Integer> chainEnds = new Vector<Integer>();
-		final double[][] caCoord = new double[aaCount][3];
-		int resStart, resEnd, resCa;
-		final OctreeAtomItem[] treeData = new OctreeAtomItem[aaCount];
-		String previousChainId = "NONE";
-		for (int i = 0; i < aaCount; i++) {
-			final Residue r = this.structureMap.getResidue(resPointers[i]);
-			atom1 = r.getAlphaAtom();
-			if (atom1 == null) {
-				System.err.println("AA " + resPointers[i]
-						+ "  Does not seem to have a CA atom ");
-				// use a random atom as the backbone atom...
-				atom1 = r.getAtom(0);
-			}
-			caCoord[i][0] = atom1.coordinate[0];
-			caCoord[i][1] = atom1.coordinate[1];
-			caCoord[i][2] = atom1.coordinate[2];
-		    treeData[i] = new OctreeAtomItem(atom1, i);
-			if (!atom1.chain_id.equals(previousChainId)) {
-				chainStarts.add(new Integer(resPointers[i]));
-				if (i > 0) {
-					chainEnds.add(new Integer(resPointers[i - 1]));
+		final double[] coEnergy = new double[aaCount];
+		final double[] hnEnergy = new double[aaCount];
+		Arrays.fill(coEnergy, 1.0E10f);
+		Arrays.fill(hnEnergy, 1.0E10f);
+		for (final HBondList bonds : this.getHBonds(backbone)) {
+			for (int b = 0; b < bonds.size; b++) {
+				final int index1 = bonds.indices[2 * b];
+				final int index2 = bonds.indices[2 * b + 1];
+				double energy = bonds.energies[2 * b];
+				if ((energy < -0.5) & (energy < coEnergy[index1])) {
+					coHBonds[index1] = index2;
+					hnHBonds[index2] = index1;
+					coEnergy[index1] = energy;
 				}
-				previousChainId = new String(atom1.chain_id);
-			}
-			// System.out.println( "" + i + " " + resPointers[i] + " " +
-			// caCoord[i][0] + " " + caCoord[i][1] + " " + caCoord[i][2] );
-
-			// Take this opportunity to initialize some fields. H-bonds are set
-			// to -1 initially,
-			// which is "no bond from this residue"
-			//
-			coHBonds[i] = -1;
-			hnHBonds[i] = -1;
-			coEnergy[i] = 1.0E10f;
-			hnEnergy[i] = 1.0E10f;
-		}
-		chainEnds.add(new Integer(aaCount - 1));
-
-		chainStarts.trimToSize();
-		chainEnds.trimToSize();
-		this.chains = new int[chainStarts.size()][2];
-		// chainBreaks = new int[chainStarts.size()];
-		final ListIterator<Integer> startIterator = chainStarts.listIterator();
-		final ListIterator<Integer> endIterator = chainEnds.listIterator();
-		int chn = 0;
-		while (startIterator.hasNext()) {
-			this.chains[chn][0] = (startIterator.next()).intValue();
-			this.chains[chn][1] = (endIterator.next()).intValue();
-			chn++;
-		}
-
-		// Build the octree
-		//
-		final float[] margin = new float[3];
-		margin[0] = margin[1] = margin[2] = 0.0f;
-		final Octree tree = new Octree(3, treeData, margin);
-		try {
-			tree.build();
-		} catch (final ExcessiveDivisionException e) {
-			System.err.println(e.toString());
-		}
-		// boolean existMultipleItems = tree.existMultipleItems();
-
-		// Get the list of candidate H bonds
-		//
-		bondList = tree.getHBondInfoVector(this.hBondCutoffDistance);
-		// bondList = tree.getHBonds( hBondCutoffDistance );
-		bondList.trimToSize();
-		// System.out.println( " Size of the Potential bond list: " +
-		// bondList.size() );
-
-		final ListIterator<BondInfo> iterator = bondList.listIterator();
-
-//		double time1, time2, time;
-//		time = 0.0;
-//		int strCalls = 0;
-
-		int atIded;
-
-		// Now, select only the bonds that satisfy the energy < -0.5 kcal/mol
-		// criterion
-		//
-		double energy;
-		BondInfo bondData;
-		int index1, index2;
-		double distance;
-		int previousIndex1 = -1;
-		boolean rem1, rem2, cFound, oFound;
-		// Residue residue = null;
-		while (iterator.hasNext()) {
-			bondData = iterator.next();
-			index1 = bondData.index1;
-			index2 = bondData.index2;
-			/*
-			 * if( (index2 - index1) < 3 ) { iterator.remove(); continue; }
-			 */
-			rem1 = false;
-			rem2 = false;
-
-			// Get the coordinates needed to calculate the energy of the
-			// hydrogen bond between the two residues
-			// pointed at by index1 and index2
-			//
-			// index1 data (if not already calculated)
-			//
-			residue = this.structureMap.getResidue(resPointers[index1]);
-			resStart = 0;
-			resEnd = residue.getAtomCount() - 1;
-			resCa = residue.getAlphaAtomIndex();
-			if (index1 != previousIndex1) {
-				atIded = 0;
-				for (int j = resStart; (atIded < 1) && (j <= resEnd); j++) {
-//					time1 = System.currentTimeMillis();
-					atom1 = residue.getAtom(j);
-//					strCalls++;
-//					time2 = System.currentTimeMillis();
-//					time += (time2 - time1);
-					if (atom1.name.equals("N")) {
-						nCoord1[0] = atom1.coordinate[0];
-						nCoord1[1] = atom1.coordinate[1];
-						nCoord1[2] = atom1.coordinate[2];
-						atIded++;
-					}
-				}
-
-				atIded = 0;
-				cFound = false;
-				oFound = false;
-				for (int j = resCa + 1; (atIded < 2) && (j <= resEnd); j++) {
-//					time1 = System.currentTimeMillis();
-					atom1 = residue.getAtom(j);
-//					strCalls++;
-//					time2 = System.currentTimeMillis();
-//					time += (time2 - time1);
-					if (atom1.name.equals("C") && (!cFound)) {
-						cCoord1[0] = atom1.coordinate[0];
-						cCoord1[1] = atom1.coordinate[1];
-						cCoord1[2] = atom1.coordinate[2];
-						atIded++;
-						cFound = true;
-					}
-					if (atom1.name.equals("O") && (!oFound)) {
-						oCoord1[0] = atom1.coordinate[0];
-						oCoord1[1] = atom1.coordinate[1];
-						oCoord1[2] = atom1.coordinate[2];
-						atIded++;
-						oFound = true;
-					}
-				}
-
-				// Need to infer the position of the H atom from the position of
-				// the closest C=O bond
-				// since it is not given in the pdb file
-				//
-				if (index1 == 0) { // No previous amino to look for trans
-									// configuration accross the peptide bond
-					this.diff(hCoord1, oCoord1, cCoord1);
-					this.normalize(hCoord1, hCoord1);
-					this.scale(hCoord1, hCoord1, 1.008f);
-					this.add(hCoord1, nCoord1, hCoord1);
-				} else {
-					residue = this.structureMap.getResidue(resPointers[index1 - 1]);
-					resStart = 0;
-					resEnd = residue.getAtomCount() - 1;
-					resCa = residue.getAlphaAtomIndex();
-					atIded = 0;
-					cFound = false;
-					oFound = false;
-					for (int j = resCa + 1; (atIded < 2) && (j <= resEnd); j++) {
-//						time1 = System.currentTimeMillis();
-						atom1 = residue.getAtom(j);
-//						strCalls++;
-//						time2 = System.currentTimeMillis();
-//						time += (time2 - time1);
-						if (atom1.name.equals("C") && (!cFound)) {
-							cCoordM1[0] = atom1.coordinate[0];
-							cCoordM1[1] = atom1.coordinate[1];
-							cCoordM1[2] = atom1.coordinate[2];
-							atIded++;
-							cFound = true;
-						}
-						if (atom1.name.equals("O") && (!oFound)) {
-							oCoordM1[0] = atom1.coordinate[0];
-							oCoordM1[1] = atom1.coordinate[1];
-							oCoordM1[2] = atom1.coordinate[2];
-							atIded++;
-							oFound = true;
-						}
-					}
-
-					distance = this.dist(cCoordM1, nCoord1);
-					if (distance <= 2.0) {
-						this.diff(hCoord1, cCoordM1, oCoordM1);
-					} else {
-						this.diff(hCoord1, oCoord1, cCoord1);
-					}
-					this.normalize(hCoord1, hCoord1);
-					this.scale(hCoord1, hCoord1, 1.008f);
-					this.add(hCoord1, nCoord1, hCoord1);
-				}
-				previousIndex1 = index1;
-			}
-
-			// index2 data
-			//
-			residue = this.structureMap.getResidue(resPointers[index2]);
-			resStart = 0;
-			resEnd = residue.getAtomCount() - 1;
-			resCa = residue.getAlphaAtomIndex();
-			atIded = 0;
-			for (int j = resStart; (atIded < 1) && (j <= resEnd); j++) {
-//				time1 = System.currentTimeMillis();
-				atom1 = residue.getAtom(j);
-//				strCalls++;
-//				time2 = System.currentTimeMillis();
-//				time += (time2 - time1);
-				if (atom1.name.equals("N")) {
-					nCoord2[0] = atom1.coordinate[0];
-					nCoord2[1] = atom1.coordinate[1];
-					nCoord2[2] = atom1.coordinate[2];
-					atIded++;
-				}
-			}
-
-			atIded = 0;
-			cFound = false;
-			oFound = false;
-			for (int j = resCa + 1; (atIded < 2) && (j <= resEnd); j++) {
-//				time1 = System.currentTimeMillis();
-				atom1 = residue.getAtom(j);
-//				strCalls++;
-//				time2 = System.currentTimeMillis();
-//				time += (time2 - time1);
-				if (atom1.name.equals("C") && (!cFound)) {
-					cCoord2[0] = atom1.coordinate[0];
-					cCoord2[1] = atom1.coordinate[1];
-					cCoord2[2] = atom1.coordinate[2];
-					atIded++;
-					cFound = true;
-				}
-				if (atom1.name.equals("O") && (!oFound)) {
-					oCoord2[0] = atom1.coordinate[0];
-					oCoord2[1] = atom1.coordinate[1];
-					oCoord2[2] = atom1.coordinate[2];
-					atIded++;
-					oFound = true;
+				energy = bonds.energies[2 * b + 1];
+				if ((energy < -0.5) & (energy < hnEnergy[index1])) {
+					hnHBonds[index1] = index2;
+					coHBonds[index2] = index1;
+					hnEnergy[index1] = energy;
 				}
 			}
-
-			// Need to infer the position of the H atom from the position of the
-			// closest C=O bond
-			// since it is not given in the pdb file
-			//
-			residue = this.structureMap.getResidue(resPointers[index2 - 1]);
-			resStart = 0;
-			resEnd = residue.getAtomCount() - 1;
-			resCa = residue.getAlphaAtomIndex();
-
-			atIded = 0;
-			cFound = false;
-			oFound = false;
-			for (int j = resCa + 1; (atIded < 2) && (j <= resEnd); j++) {
-//				time1 = System.currentTimeMillis();
-				atom1 = residue.getAtom(j);
-//				strCalls++;
-//				time2 = System.currentTimeMillis();
-//				time += (time2 - time1);
-				if (atom1.name.equals("C") && (!cFound)) {
-					cCoordM1[0] = atom1.coordinate[0];
-					cCoordM1[1] = atom1.coordinate[1];
-					cCoordM1[2] = atom1.coordinate[2];
-					atIded++;
-					cFound = true;
-				}
-				if (atom1.name.equals("O")) {
-					oCoordM1[0] = atom1.coordinate[0];
-					oCoordM1[1] = atom1.coordinate[1];
-					oCoordM1[2] = atom1.coordinate[2];
-					atIded++;
-					oFound = true;
-				}
-			}
-
-			distance = this.dist(cCoordM1, nCoord2);
-			if (distance <= 2.0) {
-				this.diff(hCoord2, cCoordM1, oCoordM1);
-			} else {
-				this.diff(hCoord2, oCoord2, cCoord2);
-			}
-			this.normalize(hCoord2, hCoord2);
-			this.scale(hCoord2, hCoord2, 1.008f);
-			this.add(hCoord2, nCoord2, hCoord2);
-
-			// System.out.println( " " + index1 + " " + index2 );
-
-			// Finally, calculate the energy associated with a potential
-			// hydrogen bond between aas at index1 and index2.
-			// If > -0.5 reject the bond and remove it from the bondlist.
-			// Otherwise, sets the corresponding bonding flags.
-			//
-			energy = 1.0f / this.dist(oCoord1, nCoord2) + 1.0f
-					/ this.dist(cCoord1, hCoord2) - 1.0f / this.dist(oCoord1, hCoord2)
-					- 1.0f / this.dist(cCoord1, nCoord2);
-			energy *= this.energyFactor * this.charge1 * this.charge2;
-			if ((energy < -0.5) & (energy < coEnergy[index1])) {
-				coHBonds[index1] = index2;
-				hnHBonds[index2] = index1;
-				coEnergy[index1] = energy;
-			} else {
-				rem1 = true;
-			}
-
-			energy = 1.0f / this.dist(nCoord1, oCoord2) + 1.0f
-					/ this.dist(hCoord1, cCoord2) - 1.0f / this.dist(hCoord1, oCoord2)
-					- 1.0f / this.dist(nCoord1, cCoord2);
-			energy *= this.energyFactor * this.charge1 * this.charge2;
-			if ((energy < -0.5) & (energy < hnEnergy[index1])) {
-				hnHBonds[index1] = index2;
-				coHBonds[index2] = index1;
-				hnEnergy[index1] = energy;
-			} else {
-				rem2 = true;
-			}
-
-			if (rem1 & rem2) {
-				iterator.remove();
-			}
 		}
+		int index2;
 
 		/*
 		 * System.out.println( "Bonds and HBonds pointers" ); for( int i = 0; i <
@@ -961,16 +641,111 @@ public class DerivedInformation
 			}
 		}
 
-		
-//		 System.out.println( " SS Flags for residues: " + resCount ); for( int
-//		 i = 0; i < resCount; i++ ) { System.out.println( " " + i + " " +
-//		 ssFlags[i] ); }
-		
+} catch(final Exception e) { e.printStackTrace();}
+	}
 
-		bondList.trimToSize();
+	/**
+	 * Return the candidate H bonds that have an energy below -0.5 kcal/mol for
+	 * either pairing of the backbone atoms, split into lists that are in
+	 * candidate order when taken one after the other. The energies of large
+	 * structures are calculated on several threads.
+	 */
+	private List<HBondList> getHBonds(final Backbone backbone) {
+		final double cutOff = this.hBondCutoffDistance;
+		final float factor = this.energyFactor * this.charge1 * this.charge2;
+		final int threads = (backbone.count >= DerivedInformation.parallelResidueCount) ? this.threads : 1;
+
+		final double searchLimit = cutOff * DerivedInformation.searchPadding;
+		final CellGrid grid = new CellGrid(backbone.ca, backbone.count, searchLimit);
+		final int[] pairs = grid.findPairs(searchLimit, threads);
+		final int pairCount = pairs.length / 2;
+
+		final int taskCount = Math.min(threads * DerivedInformation.TASKS_PER_THREAD, pairCount);
+		if (threads <= 1 || taskCount <= 1) {
+			return Collections.singletonList(DerivedInformation.getHBonds(backbone, pairs, 0, pairCount, cutOff, factor));
+		}
 
-} catch(final Exception e) { e.printStackTrace();}
-		return bondList.toArray();
+		final List<Callable<HBondList>> tasks = new ArrayList<Callable<HBondList>>(taskCount);
+		for (int t = 0; t < taskCount; t++) {
+			final int start = DerivedInformation.getGroupStart(pairs, (int) ((long) pairCount * t / taskCount));
+			final int end = DerivedInformation.getGroupStart(pairs, (int) ((long) pairCount * (t + 1) / taskCount));
+			tasks.add(new Callable<HBondList>() {
+				public HBondList call() {
+					return DerivedInformation.getHBonds(backbone, pairs, start, end, cutOff, factor);
+				}
+			});
+		}
+		return ParallelExecutor.getShared().invokeAll(tasks, threads);
+	}
+
+	/**
+	 * Return the first pair at or after p that starts a new index1.
+	 */
+	private static int getGroupStart(final int[] pairs, int p) {
+		while ((p > 0) && (2 * p < pairs.length) && (pairs[2 * p] == pairs[2 * p - 2])) {
+			p++;
+		}
+		return p;
+	}
+
+	/**
+	 * Calculate the energies of the candidate pairs [start, end) and return
+	 * those that may form an H bond. The pairs of each index1 are taken in the
+	 * order the octree search used to find them in (see
+	 * Backbone.octreeKeys), which decides the assignment when a residue has
+	 * more than one candidate below -0.5 kcal/mol. The range must start and
+	 * end on an index1 boundary.
+	 */
+	private static HBondList getHBonds(final Backbone backbone, final int[] pairs, final int start, final int end,
+			final double cutOff, final float factor) {
+		final double[] ca = backbone.ca;
+		final double[] n = backbone.n;
+		final double[] c = backbone.c;
+		final double[] o = backbone.o;
+		final double[] h1 = backbone.hydrogen1;
+		final double[] h2 = backbone.hydrogen2;
+		final long[] keys = backbone.octreeKeys;
+		final HBondList bonds = new HBondList();
+		int[] group = new int[32];
+		for (int p = start; p < end;) {
+			final int index1 = pairs[2 * p];
+			int size = 0;
+			for (; (p < end) && (pairs[2 * p] == index1); p++) {
+				final int index2 = pairs[2 * p + 1];
+				if ((index1 >= index2 - 2) || (DerivedInformation.dist(ca, index1, ca, index2) > cutOff)) {
+					continue;
+				}
+				if (size == group.length) {
+					group = Arrays.copyOf(group, 2 * size);
+				}
+				int k = size++;
+				for (; (k > 0) && (keys[group[k - 1]] > keys[index2]); k--) {
+					group[k] = group[k - 1];
+				}
+				group[k] = index2;
+			}
+
+			for (int g = 0; g < size; g++) {
+				final int index2 = group[g];
+
+				// C=O of index1 to N-H of index2, and N-H of index1 to C=O of
+				// index2
+				//
+				double coEnergy = 1.0f / dist(o, index1, n, index2) + 1.0f
+						/ dist(c, index1, h2, index2) - 1.0f / dist(o, index1, h2, index2)
+						- 1.0f / dist(c, index1, n, index2);
+				coEnergy *= factor;
+				double hnEnergy = 1.0f / dist(n, index1, o, index2) + 1.0f
+						/ dist(h1, index1, c, index2) - 1.0f / dist(h1, index1, o, index2)
+						- 1.0f / dist(n, index1, c, index2);
+				hnEnergy *= factor;
+
+				if ((coEnergy < -0.5) || (hnEnergy < -0.5)) {
+					bonds.add(index1, index2, coEnergy, hnEnergy);
+				}
+			}
+		}
+		return bonds;
 	}
 
 	// ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -981,9 +756,9 @@ public class DerivedInformation
 	/**
 	 * Return the char array of the residue flags.
 	 */
-//	private char[] getSsFlags() {
-//		return this.ssFlags;
-//	}
+	char[] getSsFlags() {
+		return this.ssFlags;
+	}
 
 	/**
 	 * Return the number of aa chains found in this structure.
@@ -1785,52 +1560,6 @@ public class DerivedInformation
 		}
 	}
 
-	private final void add(final double[] sum, final double[] v1, final double[] v2) {
-		sum[0] = v1[0] + v2[0];
-		sum[1] = v1[1] + v2[1];
-		sum[2] = v1[2] + v2[2];
-	}
-
-	private final void diff(final double[] difference, final double[] v1, final double[] v2) {
-		// Assume the two floats have the same length = 3
-		//
-		difference[0] = v1[0] - v2[0];
-		difference[1] = v1[1] - v2[1];
-		difference[2] = v1[2] - v2[2];
-	}
-
-//	private final float length(final float[] v) {
-//		float len = 0.0f;
-//		len += v[0] * v[0];
-//		len += v[1] * v[1];
-//		len += v[2] * v[2];
-//		len = (float) Math.sqrt(len);
-//
-//		return len;
-//	}
-
-	private final double length(final double[] v) {
-		double len = 0.0f;
-		len += v[0] * v[0];
-		len += v[1] * v[1];
-		len += v[2] * v[2];
-		len = Math.sqrt(len);
-
-		return len;
-	}
-
-//	private final void scale(final float[] scaled, final float[] v, final float s) {
-//		scaled[0] = v[0] * s;
-//		scaled[1] = v[1] * s;
-//		scaled[2] = v[2] * s;
-//	}
-
-	private final void scale(final double[] scaled, final double[] v, final double s) {
-		scaled[0] = v[0] * s;
-		scaled[1] = v[1] * s;
-		scaled[2] = v[2] * s;
-	}
-
 	private final double dist(final double[] v1, final double[] v2) {
 		// Assume the two floats have the same length = 3
 		//
@@ -1847,12 +1576,261 @@ public class DerivedInformation
 		return dist;
 	}
 
-	private final void normalize(final double[] normed, final double[] v) {
-		final double len = this.length(v);
-		this.scale(normed, v, 1 / len);
+	/**
+	 * Return the distance between point i of xyz1 and point j of xyz2, in
+	 * single precision like dist( v1, v2 ).
+	 */
+	private static final double dist(final double[] xyz1, final int i, final double[] xyz2, final int j) {
+		double dist = 0.0;
+		double tmp;
+		tmp = xyz1[3 * i] - xyz2[3 * j];
+		dist += tmp * tmp;
+		tmp = xyz1[3 * i + 1] - xyz2[3 * j + 1];
+		dist += tmp * tmp;
+		tmp = xyz1[3 * i + 2] - xyz2[3 * j + 2];
+		dist += tmp * tmp;
+		return (float) Math.sqrt(dist);
 	}
 
+
 //	private void clearStructure() {
 //		this.structureMap = null;
 //	}
+
+	/**
+	 * The backbone atoms of the amino acids, as x, y, z coordinate arrays
+	 * indexed by aa. Atoms that are missing from a residue are NaN, so no H
+	 * bond is found for them.
+	 */
+	private static final class Backbone {
+		final int count;
+		final double[] ca;
+		final double[] n;
+		final double[] c;
+		final double[] o;
+
+		/**
+		 * The H atom of each aa as the first residue of a candidate bond, and as
+		 * the second. They only differ when there is more than one O after the
+		 * CA of the previous residue: for the second residue, the last of those
+		 * seen before the C and an O (or two O) were found is used.
+		 */
+		final double[] hydrogen1;
+		final double[] hydrogen2;
+
+		/**
+		 * The position of each CA in the octree the candidates were once found
+		 * with: the child cells (3 bits each) on the path from the root to the
+		 * CA, for the first 21 levels. A radius search of that tree found the
+		 * neighbors of a CA in ascending key order.
+		 */
+		final long[] octreeKeys;
+
+		/**
+		 * The first and last residue of each aa chain. The last residue of the
+		 * last chain is given as an aa index.
+		 */
+		final int[][] chains;
+
+		Backbone(final StructureMap structureMap, final int[] resPointers) {
+			this.count = resPointers.length;
+			this.ca = new double[3 * this.count];
+			this.n = Backbone.newCoordinates(this.count);
+			this.c = Backbone.newCoordinates(this.count);
+			this.o = Backbone.newCoordinates(this.count);
+			this.hydrogen1 = new double[3 * this.count];
+			this.hydrogen2 = new double[3 * this.count];
+			final double[] lastC = Backbone.newCoordinates(this.count);
+			final double[] lastO = Backbone.newCoordinates(this.count);
+
+			final int[] chainStarts = new int[this.count];
+			int chainCount = 0;
+			String previousChainId = "NONE";
+			for (int i = 0; i < this.count; i++) {
+				final Residue residue = structureMap.getResidue(resPointers[i]);
+				Atom atom = residue.getAlphaAtom();
+				if (atom == null) {
+					System.err.println("AA " + resPointers[i]
+							+ "  Does not seem to have a CA atom ");
+					// use a random atom as the backbone atom...
+					atom = residue.getAtom(0);
+				}
+				Backbone.set(this.ca, i, atom);
+				if (!atom.chain_id.equals(previousChainId)) {
+					chainStarts[chainCount++] = i;
+					previousChainId = atom.chain_id;
+				}
+
+				final int atomCount = residue.getAtomCount();
+				for (int j = 0; j < atomCount; j++) {
+					atom = residue.getAtom(j);
+					if (atom.name.equals("N")) {
+						Backbone.set(this.n, i, atom);
+						break;
+					}
+				}
+
+				boolean cFound = false;
+				boolean oFound = false;
+				for (int j = residue.getAlphaAtomIndex() + 1; (!cFound || !oFound) && (j < atomCount); j++) {
+					atom = residue.getAtom(j);
+					if (atom.name.equals("C") && (!cFound)) {
+						Backbone.set(this.c, i, atom);
+						cFound = true;
+					}
+					if (atom.name.equals("O") && (!oFound)) {
+						Backbone.set(this.o, i, atom);
+						oFound = true;
+					}
+				}
+
+				int atIded = 0;
+				cFound = false;
+				for (int j = residue.getAlphaAtomIndex() + 1; (atIded < 2) && (j < atomCount); j++) {
+					atom = residue.getAtom(j);
+					if (atom.name.equals("C") && (!cFound)) {
+						Backbone.set(lastC, i, atom);
+						atIded++;
+						cFound = true;
+					}
+					if (atom.name.equals("O")) {
+						Backbone.set(lastO, i, atom);
+						atIded++;
+					}
+				}
+			}
+
+			this.octreeKeys = Backbone.getOctreeKeys(this.ca, this.count);
+
+			this.chains = new int[chainCount][2];
+			for (int k = 0; k < chainCount; k++) {
+				this.chains[k][0] = resPointers[chainStarts[k]];
+				this.chains[k][1] = (k < chainCount - 1) ? resPointers[chainStarts[k + 1] - 1] : this.count - 1;
+			}
+
+			// Need to infer the position of the H atom from the position of the
+			// closest C=O bond since it is not given in the pdb file
+			//
+			for (int i = 0; i < this.count; i++) {
+				if ((i > 0) && (DerivedInformation.dist(this.c, i - 1, this.n, i) <= 2.0)) {
+					Backbone.setHydrogen(this.hydrogen1, i, this.n, this.c, i - 1, this.o, i - 1);
+				} else {
+					Backbone.setHydrogen(this.hydrogen1, i, this.n, this.o, i, this.c, i);
+				}
+				if ((i > 0) && (DerivedInformation.dist(lastC, i - 1, this.n, i) <= 2.0)) {
+					Backbone.setHydrogen(this.hydrogen2, i, this.n, lastC, i - 1, lastO, i - 1);
+				} else {
+					Backbone.setHydrogen(this.hydrogen2, i, this.n, this.o, i, this.c, i);
+				}
+			}
+		}
+
+		/**
+		 * Return the octree keys of the points. The root cell is the bounding
+		 * box of the points, and every cell is split in eight at its middle,
+		 * with the same arithmetic as the Octree class. Child 0 is the one above
+		 * the middle in x, y and z.
+		 */
+		private static long[] getOctreeKeys(final double[] xyz, final int count) {
+			final double[] rootFirst = { 1.0E6f, 1.0E6f, 1.0E6f };
+			final double[] rootSecond = { -1.0E6f, -1.0E6f, -1.0E6f };
+			for (int i = 0; i < count; i++) {
+				for (int j = 0; j < 3; j++) {
+					final double x = xyz[3 * i + j];
+					if (x <= rootFirst[j]) {
+						rootFirst[j] = x;
+					}
+					if (x >= rootSecond[j]) {
+						rootSecond[j] = x;
+					}
+				}
+			}
+
+			final long[] keys = new long[count];
+			final double[] size = new double[3];
+			final double[] mid = new double[3];
+			for (int i = 0; i < count; i++) {
+				for (int j = 0; j < 3; j++) {
+					size[j] = Math.abs(rootSecond[j] - rootFirst[j]);
+					mid[j] = (rootSecond[j] + rootFirst[j]) / 2.0f;
+				}
+				long key = 0;
+				for (int level = 0; level < 21; level++) {
+					int child = 0;
+					for (int j = 0; j < 3; j++) {
+						child <<= 1;
+						final double childSize = size[j] / 2.0f;
+						final double second;
+						if (xyz[3 * i + j] <= mid[j]) {
+							child |= 1;
+							second = mid[j] - childSize;
+						} else {
+							second = mid[j] + childSize;
+						}
+						size[j] = Math.abs(second - mid[j]);
+						mid[j] = (second + mid[j]) / 2.0f;
+					}
+					key = (key << 3) | child;
+				}
+				keys[i] = key;
+			}
+			return keys;
+		}
+
+		private static double[] newCoordinates(final int count) {
+			final double[] xyz = new double[3 * count];
+			Arrays.fill(xyz, Double.NaN);
+			return xyz;
+		}
+
+		private static void set(final double[] xyz, final int i, final Atom atom) {
+			xyz[3 * i] = atom.coordinate[0];
+			xyz[3 * i + 1] = atom.coordinate[1];
+			xyz[3 * i + 2] = atom.coordinate[2];
+		}
+
+		/**
+		 * Place H atom i 1.008 A from N atom i, in the direction from point
+		 * "to" to point "from".
+		 */
+		private static void setHydrogen(final double[] h, final int i, final double[] n,
+				final double[] from, final int f, final double[] to, final int t) {
+			double x = from[3 * f] - to[3 * t];
+			double y = from[3 * f + 1] - to[3 * t + 1];
+			double z = from[3 * f + 2] - to[3 * t + 2];
+			final double s = 1 / Math.sqrt(x * x + y * y + z * z);
+			x *= s;
+			y *= s;
+			z *= s;
+			x *= 1.008f;
+			y *= 1.008f;
+			z *= 1.008f;
+			h[3 * i] = n[3 * i] + x;
+			h[3 * i + 1] = n[3 * i + 1] + y;
+			h[3 * i + 2] = n[3 * i + 2] + z;
+		}
+	}
+
+	/**
+	 * A growable list of candidate H bonds (index1, index2) with the energy
+	 * of the C=O of index1 to the N-H of index2 and that of the N-H of index1
+	 * to the C=O of index2.
+	 */
+	private static final class HBondList {
+		int size = 0;
+		int[] indices = new int[32];
+		double[] energies = new double[32];
+
+		void add(final int index1, final int index2, final double coEnergy, final double hnEnergy) {
+			if (2 * this.size == this.indices.length) {
+				this.indices = Arrays.copyOf(this.indices, 2 * this.indices.length);
+				this.energies = Arrays.copyOf(this.energies, 2 * this.energies.length);
+			}
+			this.indices[2 * this.size] = index1;
+			this.indices[2 * this.size + 1] = index2;
+			this.energies[2 * this.size] = coEnergy;
+			this.energies[2 * this.size + 1] = hnEnergy;
+			this.size++;
+		}
+	}
 }
@@ -0,0 +1,103 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ *  Reads chemical component definitions from a local directory holding
+ *  one "CODE.cif" or "CODE.cif.gz" file per compound (for example, a
+ *  mirror of the PDB ligand files). Useful on machines without network
+ *  access, and as a stand-in for the PDB in tests.
+ *
+ *  @see	org.rcsb.mbt.model.util.ComponentDefinitionProvider
+ */
+public class LocalComponentDefinitionProvider implements ComponentDefinitionProvider
+{
+	private final File directory;
+
+	public LocalComponentDefinitionProvider( final File directory )
+	{
+		this.directory = directory;
+	}
+
+	public File getDirectory( )
+	{
+		return this.directory;
+	}
+
+	public InputStream openDefinition( final String compoundCode ) throws IOException
+	{
+		if ( !ComponentDefinitionCache.isValidCode( compoundCode ) ) {
+			return null;
+		}
+
+		File file = new File( this.directory, compoundCode + ".cif" );
+		if ( file.isFile( ) ) {
+			return new FileInputStream( file );
+		}
+
+		file = new File( this.directory, compoundCode + ".cif.gz" );
+		if ( file.isFile( ) ) {
+			return new GZIPInputStream( new FileInputStream( file ) );
+		}
+
+		if ( !this.directory.isDirectory( ) ) {
+			throw new IOException( "Not a directory: " + this.directory );
+		}
+		return null;
+	}
+
+	@Override
+	public String toString( )
+	{
+		return this.directory.getPath( );
+	}
+}
@@ -0,0 +1,310 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+
+/**
+ *  Interns short names (atom names, compound codes, chain ids, element
+ *  symbols, ...) and assigns each distinct name a dense integer id.
+ *  <P>
+ *  Unlike {@link SharedObjects}, names can be looked up straight from a
+ *  character buffer, so a parser reading fixed-column records never has to
+ *  create a temporary String just to find the shared copy. Ids are assigned
+ *  in order of first appearance, starting at 0, and never change, so they can
+ *  be used as compact codes in place of the strings themselves.
+ *  <P>
+ *  A table may be shared by several loaders or worker threads. Looking up a
+ *  name that is already in the table doesn't lock; adding a new one does.
+ */
+public class NameTable
+{
+	private static final int INITIAL_CAPACITY = 256;
+
+	/**
+	 *  The table storage. Replaced as a whole when it grows, so a reader
+	 *  always sees a consistent set of arrays.
+	 */
+	private static final class Storage
+	{
+		/**
+		 *  The interned names, indexed by id.
+		 */
+		final String names[];
+
+		/**
+		 *  The hash code of each name, indexed by id.
+		 */
+		final int hashes[];
+
+		/**
+		 *  Open addressing hash slots holding (id + 1), or 0 for an empty
+		 *  slot. Twice as many slots as names, so there is always a free one.
+		 */
+		final int slots[];
+
+		Storage( final int capacity )
+		{
+			this.names = new String[capacity];
+			this.hashes = new int[capacity];
+			this.slots = new int[capacity * 2];
+		}
+	}
+
+	private volatile Storage storage = new Storage( NameTable.INITIAL_CAPACITY );
+
+	// Guarded by this.
+	private int count = 0;
+
+
+	/**
+	 *  Return the shared String equal to the characters buf[start..end).
+	 */
+	public String intern( final char buf[], final int start, final int end )
+	{
+		final int hash = NameTable.hash( buf, start, end );
+		final Storage s = this.storage;
+		final int id = NameTable.find( s, buf, start, end, hash );
+		if ( id >= 0 ) {
+			return s.names[id];
+		}
+		return this.getName( this.add( buf, start, end, hash ) );
+	}
+
+	/**
+	 *  Return the shared String equal to the given string.
+	 */
+	public String intern( final String name )
+	{
+		final Storage s = this.storage;
+		final int id = NameTable.find( s, name, name.hashCode( ) );
+		if ( id >= 0 ) {
+			return s.names[id];
+		}
+		return this.getName( this.add( name, name.hashCode( ) ) );
+	}
+
+	/**
+	 *  Return the id of the name buf[start..end), adding it if needed.
+	 */
+	public int getId( final char buf[], final int start, final int end )
+	{
+		final int hash = NameTable.hash( buf, start, end );
+		final int id = NameTable.find( this.storage, buf, start, end, hash );
+		return ( id >= 0 )? id : this.add( buf, start, end, hash );
+	}
+
+	/**
+	 *  Return the id of the given name, adding it if needed.
+	 */
+	public int getId( final String name )
+	{
+		final int id = NameTable.find( this.storage, name, name.hashCode( ) );
+		return ( id >= 0 )? id : this.add( name, name.hashCode( ) );
+	}
+
+	/**
+	 *  Return the id of the given name, or -1 if it has never been added.
+	 */
+	public int findId( final String name )
+	{
+		final int id = NameTable.find( this.storage, name, name.hashCode( ) );
+		if ( id >= 0 ) {
+			return id;
+		}
+		synchronized ( this ) {
+			return NameTable.find( this.storage, name, name.hashCode( ) );
+		}
+	}
+
+	/**
+	 *  Return the name for the given id.
+	 */
+	public String getName( final int id )
+	{
+		final Storage s = this.storage;
+		if ( id >= 0 && id < s.names.length && s.names[id] != null ) {
+			return s.names[id];
+		}
+		synchronized ( this )
+		{
+			if ( id < 0 || id >= this.count ) {
+				throw new IndexOutOfBoundsException( "no name with id " + id );
+			}
+			return this.storage.names[id];
+		}
+	}
+
+	/**
+	 *  Return the number of distinct names in the table.
+	 */
+	public synchronized int size( )
+	{
+		return this.count;
+	}
+
+	private synchronized int add( final char buf[], final int start, final int end, final int hash )
+	{
+		// someone else may have added it in the meantime
+		final int id = NameTable.find( this.storage, buf, start, end, hash );
+		return ( id >= 0 )? id : this.store( new String( buf, start, end - start ), hash );
+	}
+
+	private synchronized int add( final String name, final int hash )
+	{
+		final int id = NameTable.find( this.storage, name, hash );
+		return ( id >= 0 )? id : this.store( name, hash );
+	}
+
+	/**
+	 *  Store a name that isn't in the table yet and return its new id.
+	 *  Called with the lock held.
+	 */
+	private int store( final String name, final int hash )
+	{
+		if ( this.count == this.storage.names.length ) {
+			this.grow( );
+		}
+
+		final Storage s = this.storage;
+		final int id = this.count++;
+
+		// The name and hash have to be in place before the slot
+		// refers to them; find() treats a missing name as a miss.
+		s.names[id] = name;
+		s.hashes[id] = hash;
+		s.slots[NameTable.freeSlot( s, hash )] = id + 1;
+		return id;
+	}
+
+	private void grow( )
+	{
+		final Storage old = this.storage;
+		final Storage s = new Storage( old.names.length * 2 );
+		System.arraycopy( old.names, 0, s.names, 0, this.count );
+		System.arraycopy( old.hashes, 0, s.hashes, 0, this.count );
+		for ( int id = 0; id < this.count; id++ ) {
+			s.slots[NameTable.freeSlot( s, s.hashes[id] )] = id + 1;
+		}
+		this.storage = s;
+	}
+
+	private static int freeSlot( final Storage s, final int hash )
+	{
+		final int mask = s.slots.length - 1;
+		int slot = NameTable.spread( hash ) & mask;
+		while ( s.slots[slot] != 0 ) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 *  Look up buf[start..end) without locking; -1 if not found (or not
+	 *  visible to this thread yet, in which case add() finds it).
+	 */
+	private static int find( final Storage s, final char buf[], final int start, final int end, final int hash )
+	{
+		final int mask = s.slots.length - 1;
+		int slot = NameTable.spread( hash ) & mask;
+		int entry;
+		while ( (entry = s.slots[slot]) != 0 )
+		{
+			final String name = s.names[entry - 1];
+			if ( name != null && s.hashes[entry - 1] == hash && NameTable.matches( name, buf, start, end ) ) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private static int find( final Storage s, final String key, final int hash )
+	{
+		final int mask = s.slots.length - 1;
+		int slot = NameTable.spread( hash ) & mask;
+		int entry;
+		while ( (entry = s.slots[slot]) != 0 )
+		{
+			final String name = s.names[entry - 1];
+			if ( name != null && s.hashes[entry - 1] == hash && name.equals( key ) ) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 *  Same as String.hashCode() of the characters.
+	 */
+	private static int hash( final char buf[], final int start, final int end )
+	{
+		int hash = 0;
+		for ( int i = start; i < end; i++ ) {
+			hash = 31 * hash + buf[i];
+		}
+		return hash;
+	}
+
+	private static int spread( final int hash )
+	{
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean matches( final String name, final char buf[], final int start, final int end )
+	{
+		if ( name.length() != end - start ) {
+			return false;
+		}
+		for ( int i = start; i < end; i++ )
+		{
+			if ( name.charAt( i - start ) != buf[i] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
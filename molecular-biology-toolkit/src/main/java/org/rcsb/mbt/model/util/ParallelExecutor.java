@@ -0,0 +1,202 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ *  A bounded pool of threads for the data-parallel sections of the toolkit
+ *  (pair searches, H bond energies, surface slabs, mesh smoothing, ...), so
+ *  that these sections share one set of threads instead of each starting
+ *  and tearing down a pool of its own on every call.
+ *  <P>
+ *  The thread that calls {@link #invokeAll(List, int)} works on the tasks
+ *  itself and only borrows idle pool threads to help. A section may
+ *  therefore be started from within another one (a surface per chain,
+ *  each cut into slabs) without deadlocking when every pool thread is busy:
+ *  at worst the caller runs all of its tasks alone.
+ */
+public class ParallelExecutor
+{
+	private static ParallelExecutor shared = null;
+
+	/**
+	 *  Return the executor shared by the toolkit, with a thread per
+	 *  processor.
+	 */
+	public static synchronized ParallelExecutor getShared( )
+	{
+		if ( ParallelExecutor.shared == null ) {
+			ParallelExecutor.shared = new ParallelExecutor( Runtime.getRuntime( ).availableProcessors( ) );
+		}
+		return ParallelExecutor.shared;
+	}
+
+	private final ExecutorService pool;
+	private final int threads;
+
+	/**
+	 *  @param threads - the number of pool threads. The pool threads are
+	 *  daemon threads, so an unused executor doesn't keep the JVM alive.
+	 */
+	public ParallelExecutor( final int threads )
+	{
+		this.threads = Math.max( 1, threads );
+		final AtomicInteger count = new AtomicInteger( );
+		this.pool = Executors.newFixedThreadPool( this.threads, new ThreadFactory( )
+		{
+			public Thread newThread( final Runnable runnable )
+			{
+				final Thread thread = new Thread( runnable, "ParallelExecutor-" + count.incrementAndGet( ) );
+				thread.setDaemon( true );
+				return thread;
+			}
+		} );
+	}
+
+	/**
+	 *  Return the number of pool threads.
+	 */
+	public int getThreads( )
+	{
+		return this.threads;
+	}
+
+	/**
+	 *  Run the tasks on at most maxThreads threads, counting the calling
+	 *  thread, and return their results in task order. If a task fails, the
+	 *  remaining tasks are skipped and its exception is rethrown; checked
+	 *  exceptions are wrapped in an IllegalStateException, as is an
+	 *  interruption of the calling thread.
+	 */
+	public <T> List<T> invokeAll( final List<? extends Callable<T>> tasks, final int maxThreads )
+	{
+		final int taskCount = tasks.size( );
+		final Object results[] = new Object[taskCount];
+		final AtomicInteger next = new AtomicInteger( );
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>( );
+		final CountDownLatch done = new CountDownLatch( taskCount );
+
+		final Runnable worker = new Runnable( )
+		{
+			public void run( )
+			{
+				int t;
+				while ( (t = next.getAndIncrement( )) < taskCount )
+				{
+					try
+					{
+						if ( failure.get( ) == null ) {
+							results[t] = tasks.get( t ).call( );
+						}
+					}
+					catch ( final Throwable e )
+					{
+						failure.compareAndSet( null, e );
+					}
+					finally
+					{
+						done.countDown( );
+					}
+				}
+			}
+		};
+
+		final int helpers = Math.min( Math.min( maxThreads, this.threads + 1 ), taskCount ) - 1;
+		final List<Future<?>> futures = new ArrayList<Future<?>>( Math.max( 0, helpers ) );
+		try
+		{
+			for ( int h=0; h<helpers; h++ ) {
+				futures.add( this.pool.submit( worker ) );
+			}
+			worker.run( );
+
+			// Helpers still queued behind other work find no task left.
+			done.await( );
+		}
+		catch ( final InterruptedException e )
+		{
+			next.set( taskCount );
+			for ( final Future<?> future : futures ) {
+				future.cancel( true );
+			}
+			Thread.currentThread( ).interrupt( );
+			throw new IllegalStateException( "parallel tasks interrupted", e );
+		}
+		finally
+		{
+			for ( final Future<?> future : futures ) {
+				future.cancel( false );
+			}
+		}
+
+		final Throwable cause = failure.get( );
+		if ( cause instanceof RuntimeException ) {
+			throw (RuntimeException) cause;
+		}
+		if ( cause instanceof Error ) {
+			throw (Error) cause;
+		}
+		if ( cause != null ) {
+			throw new IllegalStateException( "parallel task failed", cause );
+		}
+
+		@SuppressWarnings("unchecked")
+		final List<T> list = (List<T>) Arrays.asList( results );
+		return list;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.model.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.zip.GZIPInputStream;
+
+/**
+ *  Fetches chemical component definitions from the PDB ligand file
+ *  service. This is the default provider of ChemicalComponentBonds.
+ *
+ *  @see	org.rcsb.mbt.model.util.ComponentDefinitionProvider
+ */
+public class PdbComponentDefinitionProvider implements ComponentDefinitionProvider
+{
+	public static final String defaultUrlPrefix = "http://www.rcsb.org/pdb/files/ligand/",
+							   defaultUrlSuffix = ".cif.gz";
+
+	/**
+	 *  Connect and read timeouts, in milliseconds. They are kept short:
+	 *  a lookup happens while bonds are being generated.
+	 */
+	public static final int defaultTimeout = 5000;
+
+	private final String urlPrefix, urlSuffix;
+	private final int timeout;
+
+	public PdbComponentDefinitionProvider( )
+	{
+		this( PdbComponentDefinitionProvider.defaultUrlPrefix,
+			PdbComponentDefinitionProvider.defaultUrlSuffix,
+			PdbComponentDefinitionProvider.defaultTimeout );
+	}
+
+	/**
+	 *  @param urlPrefix	prepended to the compound code.
+	 *  @param urlSuffix	appended to the compound code; if it ends in ".gz"
+	 *  					the definition is decompressed.
+	 *  @param timeout		connect and read timeout in milliseconds.
+	 */
+	public PdbComponentDefinitionProvider( final String urlPrefix, final String urlSuffix, final int timeout )
+	{
+		this.urlPrefix = urlPrefix;
+		this.urlSuffix = urlSuffix;
+		this.timeout = timeout;
+	}
+
+	public InputStream openDefinition( final String compoundCode ) throws IOException
+	{
+		final URL url = new URL( this.urlPrefix + compoundCode + this.urlSuffix );
+		final URLConnection connection = url.openConnection( );
+		connection.setConnectTimeout( this.timeout );
+		connection.setReadTimeout( this.timeout );
+		connection.addRequestProperty( "User-agent", "Mozilla/4.0 (compatible; MSIE 6.0;Windows NT 5.1; SV1)" );
+
+		if ( connection instanceof HttpURLConnection &&
+			 ( (HttpURLConnection)connection ).getResponseCode( ) == HttpURLConnection.HTTP_NOT_FOUND ) {
+			return null;
+		}
+
+		final InputStream is;
+		try {
+			is = connection.getInputStream( );
+		} catch ( final FileNotFoundException e ) {
+			return null;
+		}
+
+		return this.urlSuffix.endsWith( ".gz" )? new GZIPInputStream( is ) : is;
+	}
+
+	@Override
+	public String toString( )
+	{
+		return this.urlPrefix;
+	}
+}
@@ -0,0 +1,375 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.structLoader;
+
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.util.NameTable;
+import org.rcsb.mbt.model.util.PeriodicTable;
+
+
+/**
+ *  Decodes PDB ATOM/HETATM records straight from a character buffer.
+ *  <P>
+ *  The columns are read in place: names are looked up in a shared
+ *  {@link NameTable} instead of being cut out with substring/trim, and
+ *  numbers are decoded directly from the digits. The result is field for
+ *  field the same as the String based parsing in {@link PdbStructureLoader},
+ *  including the conversions applied there ('*' to '\'' in atom names,
+ *  element symbol taken from the atom name when the element column is
+ *  missing or invalid).
+ *  <P>
+ *  Numbers in the usual fixed-point form are converted exactly (the decimal
+ *  mantissa and the power of ten are both exactly representable, so a single
+ *  division gives the correctly rounded value, just like Double.parseDouble).
+ *  Anything else falls back to the java.lang parse methods, which also
+ *  produce the same exceptions for malformed fields.
+ *  <P>
+ *  Columns past the end of a short line are treated as blank.
+ *  <P>
+ *  A parser keeps scratch state and is not thread-safe; use one per thread.
+ *  The NameTable may be shared.
+ *
+ *  @see	org.rcsb.mbt.structLoader.PdbStructureLoader#setUseRecordParser(boolean)
+ */
+public class PdbAtomRecordParser
+{
+	private static final double DOUBLE_POW10[] = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private static final float FLOAT_POW10[] = {
+		1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+	private static final long DOUBLE_EXACT_LIMIT = 1L << 53;
+	private static final long FLOAT_EXACT_LIMIT = 1L << 24;
+
+	private final NameTable names;
+
+	// Scratch space for fields that need a character substitution
+	// or digit removal before they are interned.
+	private final char scratch[] = new char[8];
+
+	// Bounds of the most recently trimmed field, set by trim().
+	private int fieldStart, fieldEnd;
+
+	// Decoded decimal of the most recent decodeDecimal() call.
+	private long mantissa;
+	private int fractionDigits;
+	private boolean negative;
+
+
+	public PdbAtomRecordParser( final NameTable names )
+	{
+		this.names = names;
+	}
+
+	public NameTable getNameTable( )
+	{
+		return this.names;
+	}
+
+	/**
+	 *  Returns true if the line is an ATOM or HETATM record.
+	 */
+	public static boolean isAtomRecord( final char buf[], final int len )
+	{
+		return PdbAtomRecordParser.startsWith( buf, len, "ATOM" ) ||
+			PdbAtomRecordParser.isHetAtomRecord( buf, len );
+	}
+
+	/**
+	 *  Returns true if the line is a HETATM record.
+	 */
+	public static boolean isHetAtomRecord( final char buf[], final int len )
+	{
+		return PdbAtomRecordParser.startsWith( buf, len, "HETATM" );
+	}
+
+	/**
+	 *  Returns true if the first len characters of buf start with prefix.
+	 */
+	public static boolean startsWith( final char buf[], final int len, final String prefix )
+	{
+		final int n = prefix.length( );
+		if ( len < n ) {
+			return false;
+		}
+		for ( int i = 0; i < n; i++ )
+		{
+			if ( buf[i] != prefix.charAt( i ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 *  Parse the ATOM/HETATM record held in buf[0..len) into a new Atom.
+	 *  <P>
+	 *  Sets number, name, element, altLoc, compound, chain_id (the raw
+	 *  column value), residue_id, authorResidue_id, insertionCode,
+	 *  coordinate, occupancy and bfactor. Entity and author chain ids
+	 *  depend on the rest of the file and are left to the caller.
+	 *
+	 *  @param lineNumber - only used in error messages.
+	 */
+	public Atom parseAtom( final char buf[], final int len, final int lineNumber )
+	{
+		// Column layout is documented in PdbStructureLoader.load(BufferedReader).
+		final Atom atom = new Atom( );
+
+		this.trim( buf, len, 6, 11 );
+		atom.number = this.decodeInt( buf );
+
+		atom.name = this.internName( buf, len );
+
+		atom.element = this.internElement( buf, len );
+		if ( (atom.element.length() == 0) ||
+				(PeriodicTable.getElement( atom.element ) == null))
+		{
+			// The element field was not an element,
+			// so, try the first letter of the name.
+			atom.element = this.names.intern( atom.name.substring( 0, 1 ).trim() );
+			if ( PeriodicTable.getElement( atom.element ) == null ) {
+				throw new IllegalArgumentException( "no atom element symbol around line " + lineNumber );
+			}
+		}
+
+		atom.altLoc = this.internField( buf, len, 16, 17 );
+		atom.compound = this.internField( buf, len, 17, 20 );
+		atom.chain_id = this.internField( buf, len, 21, 22 );
+
+		this.trim( buf, len, 22, 26 );
+		atom.residue_id = this.decodeInt( buf );
+		atom.authorResidue_id = atom.residue_id;
+
+		atom.insertionCode = this.internField( buf, len, 26, 27 );
+
+		// Atom() already allocates the coordinate array.
+		this.trim( buf, len, 30, 38 );
+		atom.coordinate[0] = this.decodeDouble( buf );
+		this.trim( buf, len, 38, 46 );
+		atom.coordinate[1] = this.decodeDouble( buf );
+		this.trim( buf, len, 46, 54 );
+		atom.coordinate[2] = this.decodeDouble( buf );
+
+		this.trim( buf, len, 54, 60 );
+		atom.occupancy = ( this.fieldStart == this.fieldEnd )? 1.0f : this.decodeFloat( buf );
+
+		this.trim( buf, len, 60, 66 );
+		atom.bfactor = ( this.fieldStart == this.fieldEnd )? 0.0f : this.decodeFloat( buf );
+
+		return atom;
+	}
+
+	/**
+	 *  Set fieldStart/fieldEnd to the bounds of buf[start..end) with leading
+	 *  and trailing whitespace removed (same rule as String.trim()).
+	 */
+	private void trim( final char buf[], final int len, final int start, int end )
+	{
+		if ( end > len ) {
+			end = len;
+		}
+		int s = start;
+		while ( s < end && buf[s] <= ' ' ) {
+			s++;
+		}
+		while ( end > s && buf[end - 1] <= ' ' ) {
+			end--;
+		}
+		this.fieldStart = s;
+		this.fieldEnd = end;
+	}
+
+	private String internField( final char buf[], final int len, final int start, final int end )
+	{
+		this.trim( buf, len, start, end );
+		return this.names.intern( buf, this.fieldStart, this.fieldEnd );
+	}
+
+	/**
+	 *  Atom name, columns 13-16, with '*' replaced by '\''
+	 *  (the dictionary expects ' instead of *).
+	 */
+	private String internName( final char buf[], final int len )
+	{
+		this.trim( buf, len, 12, 16 );
+		int n = 0;
+		for ( int i = this.fieldStart; i < this.fieldEnd; i++ ) {
+			this.scratch[n++] = ( buf[i] == '*' )? '\'' : buf[i];
+		}
+		return this.names.intern( this.scratch, 0, n );
+	}
+
+	/**
+	 *  Element symbol, columns 77-78, with any digits removed.
+	 */
+	private String internElement( final char buf[], final int len )
+	{
+		this.trim( buf, len, 76, 78 );
+		int n = 0;
+		for ( int i = this.fieldStart; i < this.fieldEnd; i++ )
+		{
+			if ( buf[i] < '0' || buf[i] > '9' ) {
+				this.scratch[n++] = buf[i];
+			}
+		}
+		return this.names.intern( this.scratch, 0, n );
+	}
+
+	/**
+	 *  Decode the trimmed field as an int, as Integer.parseInt would.
+	 */
+	private int decodeInt( final char buf[] )
+	{
+		final int start = this.fieldStart, end = this.fieldEnd;
+		int i = start;
+		boolean neg = false;
+		if ( i < end && (buf[i] == '-' || buf[i] == '+') )
+		{
+			neg = buf[i] == '-';
+			i++;
+		}
+
+		// At most 9 digits can't overflow.
+		if ( i == end || end - i > 9 ) {
+			return Integer.parseInt( new String( buf, start, end - start ) );
+		}
+
+		int value = 0;
+		for ( ; i < end; i++ )
+		{
+			final int digit = buf[i] - '0';
+			if ( digit < 0 || digit > 9 ) {
+				return Integer.parseInt( new String( buf, start, end - start ) );
+			}
+			value = value * 10 + digit;
+		}
+		return neg ? -value : value;
+	}
+
+	/**
+	 *  Decode the trimmed field as a double, as Double.parseDouble would.
+	 */
+	private double decodeDouble( final char buf[] )
+	{
+		if ( !this.decodeDecimal( buf ) ||
+				this.mantissa >= PdbAtomRecordParser.DOUBLE_EXACT_LIMIT ||
+				this.fractionDigits >= PdbAtomRecordParser.DOUBLE_POW10.length ) {
+			return Double.parseDouble( new String( buf, this.fieldStart, this.fieldEnd - this.fieldStart ) );
+		}
+
+		final double value = this.mantissa / PdbAtomRecordParser.DOUBLE_POW10[this.fractionDigits];
+		return this.negative ? -value : value;
+	}
+
+	/**
+	 *  Decode the trimmed field as a float, as Float.parseFloat would.
+	 */
+	private float decodeFloat( final char buf[] )
+	{
+		if ( !this.decodeDecimal( buf ) ||
+				this.mantissa >= PdbAtomRecordParser.FLOAT_EXACT_LIMIT ||
+				this.fractionDigits >= PdbAtomRecordParser.FLOAT_POW10.length ) {
+			return Float.parseFloat( new String( buf, this.fieldStart, this.fieldEnd - this.fieldStart ) );
+		}
+
+		final float value = this.mantissa / PdbAtomRecordParser.FLOAT_POW10[this.fractionDigits];
+		return this.negative ? -value : value;
+	}
+
+	/**
+	 *  Split a plain [sign]digits[.digits] field into mantissa and number of
+	 *  fraction digits. Returns false for anything else (exponents, NaN,
+	 *  empty fields, too many digits), which the callers hand to the
+	 *  java.lang parsers instead.
+	 */
+	private boolean decodeDecimal( final char buf[] )
+	{
+		final int end = this.fieldEnd;
+		int i = this.fieldStart;
+
+		this.negative = false;
+		if ( i < end && (buf[i] == '-' || buf[i] == '+') )
+		{
+			this.negative = buf[i] == '-';
+			i++;
+		}
+
+		long m = 0;
+		int digits = 0, fraction = -1;
+		for ( ; i < end; i++ )
+		{
+			final char c = buf[i];
+			if ( c >= '0' && c <= '9' )
+			{
+				// 18 digits always fit in a long.
+				if ( ++digits > 18 ) {
+					return false;
+				}
+				m = m * 10 + (c - '0');
+				if ( fraction >= 0 ) {
+					fraction++;
+				}
+			}
+			else if ( c == '.' && fraction < 0 ) {
+				fraction = 0;
+			} else {
+				return false;
+			}
+		}
+
+		if ( digits == 0 ) {
+			return false;
+		}
+
+		this.mantissa = m;
+		this.fractionDigits = ( fraction < 0 )? 0 : fraction;
+		return true;
+	}
+}
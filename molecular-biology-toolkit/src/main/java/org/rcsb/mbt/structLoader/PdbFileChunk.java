@@ -0,0 +1,350 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.structLoader;
+
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.Callable;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.util.NameTable;
+
+
+/**
+ *  A line-aligned byte range of a memory-mapped PDB file, parsed on a worker
+ *  thread by {@link PdbStructureLoader} in parallel load mode.
+ *  <P>
+ *  Parsing a chunk doesn't depend on anything before it: ATOM/HETATM records
+ *  are decoded with a {@link PdbAtomRecordParser}, and the few records that
+ *  carry state from line to line (MODEL and COMPND) are kept as strings, in
+ *  order with the atoms. The loader then replays the chunks in file order,
+ *  exactly as if it had read the file a line at a time.
+ *  <P>
+ *  A failure while parsing is kept rather than thrown, since a sequential
+ *  load might never get that far (e.g. it stops at the second MODEL).
+ */
+class PdbFileChunk
+	implements Callable<PdbFileChunk>
+{
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private final ByteBuffer buffer;
+	private final int start, end;
+	private final NameTable names;
+	private final Charset charset;
+
+	// Results, valid once call() has returned.
+	int lineCount = 0;
+	final ArrayList<Atom> atoms = new ArrayList<Atom>();
+	final BitSet hetAtoms = new BitSet();
+	final ArrayList<String> records = new ArrayList<String>();
+	// The number of atoms that precede each of the records.
+	int recordAtomIndex[] = new int[8];
+	RuntimeException failure = null;
+	int failureLine = 0;
+
+
+	/**
+	 *  @param buffer - the mapped file. Only read with absolute gets or
+	 *  through duplicates, so it can be shared by all chunks.
+	 *  @param start - the offset of the first line of the chunk.
+	 *  @param end - the offset just past the last line of the chunk.
+	 *  @param charset - used to decode the records kept as strings,
+	 *  the same way an InputStreamReader would.
+	 */
+	PdbFileChunk( final ByteBuffer buffer, final int start, final int end,
+		final NameTable names, final Charset charset )
+	{
+		this.buffer = buffer;
+		this.start = start;
+		this.end = end;
+		this.names = names;
+		this.charset = charset;
+	}
+
+	int getStart( ) { return this.start; }
+	int getEnd( ) { return this.end; }
+
+	/**
+	 *  Parse the chunk. Line terminators are the same as for
+	 *  BufferedReader.readLine(): '\n', '\r' or "\r\n".
+	 */
+	public PdbFileChunk call( )
+	{
+		final PdbAtomRecordParser parser = new PdbAtomRecordParser( this.names );
+		final ByteBuffer in = this.buffer.duplicate( );
+		in.limit( this.end );
+		in.position( this.start );
+
+		final byte block[] = new byte[PdbFileChunk.BLOCK_SIZE];
+		char line[] = new char[128];
+		int len = 0;
+		int lineStart = this.start;
+		boolean afterCarriageReturn = false;
+
+		while ( in.hasRemaining() )
+		{
+			if ( Thread.currentThread().isInterrupted() ) {
+				return this;
+			}
+
+			final int blockStart = in.position( );
+			final int n = Math.min( block.length, in.remaining() );
+			in.get( block, 0, n );
+
+			for ( int i = 0; i < n; i++ )
+			{
+				final byte c = block[i];
+				if ( c == '\n' || c == '\r' )
+				{
+					final boolean lineFeedAfterReturn = c == '\n' && afterCarriageReturn;
+					afterCarriageReturn = c == '\r';
+					if ( !lineFeedAfterReturn )
+					{
+						if ( !this.parseLine( parser, line, len, lineStart ) ) {
+							return this;
+						}
+						len = 0;
+					}
+					lineStart = blockStart + i + 1;
+					continue;
+				}
+
+				afterCarriageReturn = false;
+				if ( len == line.length )
+				{
+					final char newLine[] = new char[len * 2];
+					System.arraycopy( line, 0, newLine, 0, len );
+					line = newLine;
+				}
+				line[len++] = (char)(c & 0xff);
+			}
+		}
+
+		// The last line of the file may not have a terminator.
+		if ( len > 0 ) {
+			this.parseLine( parser, line, len, lineStart );
+		}
+
+		return this;
+	}
+
+	/**
+	 *  @return - false if parsing failed.
+	 */
+	private boolean parseLine( final PdbAtomRecordParser parser, final char line[], final int len,
+		final int lineStart )
+	{
+		this.lineCount++;
+
+		if ( PdbAtomRecordParser.isAtomRecord( line, len ) )
+		{
+			try
+			{
+				this.atoms.add( parser.parseAtom( line, len, this.lineCount ) );
+			}
+			catch ( final RuntimeException e )
+			{
+				this.failure = e;
+				this.failureLine = this.lineCount;
+				return false;
+			}
+			if ( PdbAtomRecordParser.isHetAtomRecord( line, len ) ) {
+				this.hetAtoms.set( this.atoms.size() - 1 );
+			}
+		}
+
+		// Only these two affect how later lines are loaded,
+		// the rest are ignored by the loader.
+		else if ( PdbAtomRecordParser.startsWith( line, len, "MODEL" ) ||
+				PdbAtomRecordParser.startsWith( line, len, "COMPND" ) )
+		{
+			final byte bytes[] = new byte[this.lineEnd( lineStart ) - lineStart];
+			for ( int i = 0; i < bytes.length; i++ ) {
+				bytes[i] = this.buffer.get( lineStart + i );
+			}
+
+			final int index = this.records.size( );
+			if ( index == this.recordAtomIndex.length )
+			{
+				final int newIndex[] = new int[index * 2];
+				System.arraycopy( this.recordAtomIndex, 0, newIndex, 0, index );
+				this.recordAtomIndex = newIndex;
+			}
+			this.recordAtomIndex[index] = this.atoms.size( );
+			this.records.add( new String( bytes, this.charset ) );
+		}
+
+		return true;
+	}
+
+	private int lineEnd( int pos )
+	{
+		while ( pos < this.end )
+		{
+			final byte c = this.buffer.get( pos );
+			if ( c == '\n' || c == '\r' ) {
+				break;
+			}
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 *  Split buffer[start..end) into about count line-aligned ranges of at
+	 *  least minSize bytes each.
+	 *
+	 *  @return - the range boundaries, starting with start and ending with end.
+	 */
+	static int[] split( final ByteBuffer buffer, final int start, final int end, int count,
+		final int minSize )
+	{
+		final int length = end - start;
+		if ( count > 1 && length / count < minSize ) {
+			count = Math.max( 1, length / Math.max( 1, minSize ) );
+		}
+
+		final int bounds[] = new int[count + 1];
+		int n = 0;
+		bounds[n++] = start;
+		for ( int i = 1; i < count; i++ )
+		{
+			final int pos = PdbFileChunk.nextLineStart( buffer,
+				start + (int)((long)length * i / count), end );
+			if ( pos > bounds[n - 1] && pos < end ) {
+				bounds[n++] = pos;
+			}
+		}
+		bounds[n++] = end;
+
+		final int result[] = new int[n];
+		System.arraycopy( bounds, 0, result, 0, n );
+		return result;
+	}
+
+	/**
+	 *  Return the offset of the first line that starts at or after pos
+	 *  (a "\r\n" pair is never split).
+	 */
+	static int nextLineStart( final ByteBuffer buffer, int pos, final int end )
+	{
+		if ( pos <= 0 ) {
+			return 0;
+		}
+
+		// Already at a line start?
+		final byte before = buffer.get( pos - 1 );
+		if ( before == '\n' || (before == '\r' && (pos >= end || buffer.get( pos ) != '\n')) ) {
+			return pos;
+		}
+
+		while ( pos < end )
+		{
+			final byte c = buffer.get( pos++ );
+			if ( c == '\n' ) {
+				return pos;
+			}
+			if ( c == '\r' ) {
+				return ( pos < end && buffer.get( pos ) == '\n' )? pos + 1 : pos;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 *  Finds the MODEL records in a range of the file, for the loader to
+	 *  work out where the first model ends before splitting the file.
+	 */
+	static class ModelScan
+		implements Callable<ModelScan>
+	{
+		private final ByteBuffer buffer;
+		private final int start, end;
+
+		// The offsets of the first two MODEL records in the range, or -1.
+		final int models[] = { -1, -1 };
+
+		ModelScan( final ByteBuffer buffer, final int start, final int end )
+		{
+			this.buffer = buffer;
+			this.start = start;
+			this.end = end;
+		}
+
+		public ModelScan call( )
+		{
+			int found = 0;
+			int pos = this.start;
+			while ( pos < this.end && found < this.models.length )
+			{
+				if ( this.isModelRecord( pos ) ) {
+					this.models[found++] = pos;
+				}
+				pos = PdbFileChunk.nextLineStart( this.buffer, pos + 1, this.end );
+			}
+			return this;
+		}
+
+		private boolean isModelRecord( final int pos )
+		{
+			final String record = "MODEL";
+			if ( pos + record.length() > this.end ) {
+				return false;
+			}
+			for ( int i = 0; i < record.length(); i++ )
+			{
+				if ( this.buffer.get( pos + i ) != record.charAt( i ) ) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.structLoader;
+
+
+import java.io.IOException;
+import java.io.Reader;
+
+
+/**
+ *  Reads text one line at a time into a reusable character buffer, so that
+ *  fixed-column records can be decoded without creating a String per line.
+ *  <P>
+ *  Line terminators are the same as for BufferedReader.readLine():
+ *  '\n', '\r' or "\r\n".
+ */
+public class PdbRecordReader
+{
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private final Reader reader;
+
+	private final char block[] = new char[PdbRecordReader.BLOCK_SIZE];
+	private int blockPos = 0, blockEnd = 0;
+	private boolean skipLineFeed = false;
+
+	private char line[] = new char[128];
+	private int lineLength = 0;
+
+
+	public PdbRecordReader( final Reader reader )
+	{
+		this.reader = reader;
+	}
+
+	/**
+	 *  Read the next line into the line buffer.
+	 *
+	 *  @return - the length of the line, without its terminator,
+	 *  or -1 at the end of the input.
+	 */
+	public int readLine( ) throws IOException
+	{
+		this.lineLength = 0;
+		boolean sawAny = false;
+
+		while ( true )
+		{
+			if ( this.blockPos >= this.blockEnd )
+			{
+				this.blockEnd = this.reader.read( this.block, 0, this.block.length );
+				this.blockPos = 0;
+				if ( this.blockEnd <= 0 )
+				{
+					this.blockEnd = 0;
+					return sawAny ? this.lineLength : -1;
+				}
+			}
+
+			if ( this.skipLineFeed )
+			{
+				this.skipLineFeed = false;
+				if ( this.block[this.blockPos] == '\n' )
+				{
+					this.blockPos++;
+					continue;
+				}
+			}
+
+			sawAny = true;
+			final int start = this.blockPos;
+			int i = start;
+			while ( i < this.blockEnd && this.block[i] != '\n' && this.block[i] != '\r' ) {
+				i++;
+			}
+			this.append( start, i );
+
+			if ( i < this.blockEnd )
+			{
+				this.skipLineFeed = this.block[i] == '\r';
+				this.blockPos = i + 1;
+				return this.lineLength;
+			}
+			this.blockPos = i;
+		}
+	}
+
+	/**
+	 *  The buffer holding the most recently read line. It is reused (and may
+	 *  be replaced by a larger one) by the next call to readLine().
+	 */
+	public char[] getLine( )
+	{
+		return this.line;
+	}
+
+	public int getLineLength( )
+	{
+		return this.lineLength;
+	}
+
+	/**
+	 *  The most recently read line as a String.
+	 */
+	public String getLineString( )
+	{
+		return new String( this.line, 0, this.lineLength );
+	}
+
+	public void close( ) throws IOException
+	{
+		this.reader.close( );
+	}
+
+	private void append( final int start, final int end )
+	{
+		final int n = end - start;
+		if ( this.lineLength + n > this.line.length )
+		{
+			final char newLine[] = new char[Math.max( this.line.length * 2, this.lineLength + n )];
+			System.arraycopy( this.line, 0, newLine, 0, this.lineLength );
+			this.line = newLine;
+		}
+		System.arraycopy( this.block, start, this.line, this.lineLength, n );
+		this.lineLength += n;
+	}
+}
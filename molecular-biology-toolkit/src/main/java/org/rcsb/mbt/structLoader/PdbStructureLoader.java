@@ -48,8 +48,12 @@ package org.rcsb.mbt.structLoader;
 
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.io.*;
 import java.net.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.zip.*;
 
 import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
@@ -121,6 +125,56 @@ public class PdbStructureLoader
 	 * @param flag
 	 */
 	public void setTreatModelsAsSubunits(boolean flag) { treatModelsAsSubunits = flag; }
+
+	private boolean useRecordParser = false;
+	private NameTable nameTable = new NameTable( );
+
+	/**
+	 * Decode ATOM/HETATM records straight from a character buffer with a
+	 * {@link PdbAtomRecordParser} instead of cutting each line into
+	 * substrings. The loaded structure is the same either way; the record
+	 * parser is considerably faster and shares the atom, residue and chain
+	 * name strings through the loader's {@link NameTable}.
+	 * 
+	 * @param flag
+	 */
+	public void setUseRecordParser(boolean flag) { useRecordParser = flag; }
+
+	/**
+	 * Set the table used to share names in record parser mode, for example
+	 * to share one table across several loads.
+	 * 
+	 * @param table
+	 */
+	public void setNameTable(NameTable table) { nameTable = table; }
+	public NameTable getNameTable() { return nameTable; }
+
+	// The number of chunks per thread in parallel mode, so that a few
+	// slow chunks don't leave the other threads idle.
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private int parallelism = 1;
+	private int minimumChunkBytes = 256 * 1024;
+
+	/**
+	 * Load uncompressed local files with this many threads. The file is
+	 * memory-mapped and split into line-aligned chunks that are parsed
+	 * concurrently with the record parser and merged in file order, so
+	 * the structure is the same as for a sequential load. Only used
+	 * together with {@link #setUseRecordParser(boolean)}; compressed
+	 * files, URLs and line parsing are always read sequentially.
+	 * 
+	 * @param threads - 1 (the default) for sequential loading.
+	 */
+	public void setParallelism(int threads) { parallelism = Math.max(1, threads); }
+	public int getParallelism() { return parallelism; }
+
+	/**
+	 * Files are not split into chunks smaller than this. Mostly for tests.
+	 * 
+	 * @param bytes
+	 */
+	void setMinimumChunkBytes(int bytes) { minimumChunkBytes = bytes; }
 	
 	// A hashtable of vectors where
 	// each hash KEY is the StructureComponent type String.
@@ -231,6 +285,14 @@ public class PdbStructureLoader
 			return null;
 		}
 
+		if ( this.parallelism > 1 && this.useRecordParser &&
+				!file.getName().endsWith( ".gz" ) &&
+				this.expectedInputBytes <= Integer.MAX_VALUE )
+		{
+			this.urlString = file.toURL().toExternalForm();
+			return this.loadMapped( file );
+		}
+
 		final FileInputStream fileInputStream = new FileInputStream( file );
 		if ( fileInputStream == null ) {
 			return null;
@@ -334,201 +396,189 @@ public class PdbStructureLoader
 		}
 
 		this.passComponents = new Hashtable<ComponentType, Vector<StructureComponent>>( );
-		final long expectedBytes = this.expectedInputBytes;
-
-		String line;
 
-		int percentDone = 0;
+		Status.progress( 0, "Loading " + this.urlString );
 
-		Status.progress( percentDone, "Loading " + this.urlString );
+		final LoadState state = new LoadState( );
+		if ( this.useRecordParser ) {
+			this.readRecords( new PdbRecordReader( rdr ), state );
+		} else {
+			this.readLines( rdr, state );
+		}
 
-		// Create a hash for atom numbers that we can use
-		// later if we need to process CONECT records.
-		// We'll free memory when we're done with it.
-		Hashtable<Integer, Atom> atomNumberHash = new Hashtable<Integer, Atom>( );
-		Vector<int[]> conectRecords = new Vector<int[]>( );
-		
-		int bytesRead = 0;
-		int lines = 0;
-		int modelCount = 0; // How many models have we seen?
-		int currentEntityId = 0;
-		Map<String, Integer> entityMap = new HashMap<String, Integer>();
+		return this.createStructure( state );
+	}
 
-		while ( (line = rdr.readLine()) != null )
+	/**
+	 * Load an uncompressed file by memory-mapping it, parsing line-aligned
+	 * chunks of it on a thread pool and merging the chunks in file order.
+	 * The result is the same as for a sequential load.
+	 * 
+	 * @see #setParallelism(int)
+	 */
+	private Structure loadMapped( final File file ) throws IOException
+	{
+		final MappedByteBuffer buffer;
+		final FileInputStream in = new FileInputStream( file );
+		try
 		{
+			final FileChannel channel = in.getChannel( );
+			buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size( ) );
+		}
+		finally
+		{
+			in.close( );	// the mapping stays valid
+		}
 
-			bytesRead += line.length() + 1;
-			percentDone = (int)((bytesRead * 100L)/ expectedBytes);
-			Status.progress( percentDone, "Loading " + this.urlString );
-
-			lines++;
-			
-			boolean isHetAtom = line.startsWith("HETATM");
-
-			// Parse the line buffer
-			if (line.startsWith("ATOM") || isHetAtom)
-			{
-				// PDB File Atom Record offsets as documented by
-				// http://www.rcsb.org/pdb/docs/format/pdbguide2.2/part_62.html
-				// 1 -  6   RecordName
-				// 7 - 11   serial
-				// 12       -
-				// 13 - 16  name
-				// 17       altLoc
-				// 18 - 20  resName
-				// 21       -
-				// 22       chainID
-				// 23 - 26  resSeq
-				// 27       iCode
-				// 28 - 30  -
-				// 31 - 38  x
-				// 39 - 46  y
-				// 47 - 54  z
-				// 55 - 60  occupancy
-				// 61 - 66  tempFactor
-				// 67 - 72  -
-				// 73 - 76  segID
-				// 77 - 78  element
-				// 79 - 80  charge
-				// NOTE: In this application, we need to subtract 1 from
-				// each index in order to match the 0-based array offsets.
-				
-				// handle the case of a non-standard pdb file
-				// without COMPOUND information
-				if (entityNameMap.size() == 0) {
-					entityNameMap.put(currentEntityId,"");
-				}
+		this.passComponents = new Hashtable<ComponentType, Vector<StructureComponent>>( );
 
-				Atom atom = new Atom( );
-				String str = null;
+		Status.progress( 0, "Loading " + this.urlString );
 
-				atom.number =  Integer.parseInt(line.substring( 6, 11 ).trim());
+		final LoadState state = new LoadState( );
+		state.names = this.nameTable;
 
-				atom.name = line.substring(12, 16 ).trim().replace('*', '\'');	//**JB quick fix: the dictionary expects ' instead of *
+		final ExecutorService pool = Executors.newFixedThreadPool( this.parallelism );
+		try
+		{
+			int end = buffer.limit( );
 
-				atom.element = line.substring(76, 78).trim();
-				atom.element = atom.element.replaceAll( "[0-9]", "" );
-				if ( (atom.element == null) || atom.element.equals("") ||
-						(PeriodicTable.getElement( atom.element ) == null))
-				{
-					// The element field was not an element,
-					// so, try the first letter of the name.
-					atom.element = atom.name.substring( 0, 1 ).trim();
-					if ( PeriodicTable.getElement( atom.element ) == null ) {
-						throw new IllegalArgumentException( "no atom element symbol around line " + lines );
-					}
-				}
+			// Unless models are subunits, a sequential load stops at the second
+			// MODEL record, so there's no point parsing anything after it.
+			if ( !this.treatModelsAsSubunits ) {
+				end = this.findSecondModel( buffer, end, pool );
+			}
 
-				atom.altLoc = line.substring(16, 17 ).trim();
+			final int bounds[] = PdbFileChunk.split( buffer, 0, end,
+				this.parallelism * PdbStructureLoader.CHUNKS_PER_THREAD, this.minimumChunkBytes );
 
-				atom.compound = line.substring(17, 20 ).trim();
+			final Charset charset = Charset.defaultCharset( );
+			final List<Future<PdbFileChunk>> chunks = new ArrayList<Future<PdbFileChunk>>( );
+			for ( int i = 0; i < bounds.length - 1; i++ ) {
+				chunks.add( pool.submit(
+					new PdbFileChunk( buffer, bounds[i], bounds[i + 1], this.nameTable, charset ) ) );
+			}
 
-				atom.chain_id = line.substring(21, 22 ).trim();
-				if (entityMap.size() > 0) {
-					atom.entity_id = entityMap.get(atom.chain_id);
-				} else {
-					atom.entity_id = 1;
+			// Merge in file order while the later chunks are still being parsed.
+			for ( final Future<PdbFileChunk> future : chunks )
+			{
+				final PdbFileChunk chunk = PdbStructureLoader.getResult( future );
+				if ( !this.mergeChunk( chunk, state ) ) {
+					break; // Only load 1st model
 				}
 
-				if(treatModelsAsSubunits)
-				{
-					atom.chain_id = atom.chain_id + "$$$" + modelCount;
-				}
-				
-				atom.authorChain_id = atom.chain_id;
-				
-				// Split het atoms into separate chains so they can be displayed as ligands.
-				// Note, ligands and water are included in the protein chain that is closed to the ligand or water.
-				// However, for MBT these entities must be in a different chain for visualization purposes.
-				// For display purposes the original "authorChain_id" is used.
-				
-				if (isHetAtom) {
-					atom.chain_id += " ";
-				}
-				// Make sure waters don't have the same chain id as the macromolecules or ligands,
-				// since they are expected to be in a separate chain, i.e. for ProteinWorkshop
-				// Add a space to enforce uniqueness
-				if (atom.compound.equals("HOH")) {
-					atom.chain_id += " ";
-				}
-				
-				String temp = line.substring(22, 26).trim();
-				atom.residue_id = Integer.parseInt(temp);
-				atom.authorResidue_id = atom.residue_id;
-			
-				atom.insertionCode = line.substring(26, 27).trim();
-	
-				atom.coordinate = new double[3];
-				atom.coordinate[0] = Double.parseDouble(line.substring(30, 38 ).trim());
-				atom.coordinate[1] = Double.parseDouble(line.substring(38, 46 ).trim());
-				atom.coordinate[2] = Double.parseDouble(line.substring(46, 54 ).trim());
+				state.percentDone = (int)((chunk.getEnd() * 100L) / end);
+				Status.progress( state.percentDone, "Loading " + this.urlString );
+			}
+		}
+		finally
+		{
+			pool.shutdownNow( );
+		}
 
-				str = line.substring(54, 60 ).trim();
-				atom.occupancy = ( str.length() == 0 )? 1.0f : Float.parseFloat( str );
+		return this.createStructure( state );
+	}
 
-				str = line.substring(60, 66 ).trim();
-				atom.bfactor = ( str.length() == 0 )? 0.0f : Float.parseFloat( str );
+	/**
+	 * Return the offset of the second MODEL record, or end if there is none.
+	 */
+	private int findSecondModel( final MappedByteBuffer buffer, final int end,
+		final ExecutorService pool ) throws IOException
+	{
+		final int bounds[] = PdbFileChunk.split( buffer, 0, end,
+			this.parallelism * PdbStructureLoader.CHUNKS_PER_THREAD, this.minimumChunkBytes );
 
-				Vector<StructureComponent> records = this.passComponents.get(ComponentType.ATOM);
-				
-				if ( records == null )
+		final List<Future<PdbFileChunk.ModelScan>> scans = new ArrayList<Future<PdbFileChunk.ModelScan>>( );
+		for ( int i = 0; i < bounds.length - 1; i++ ) {
+			scans.add( pool.submit( new PdbFileChunk.ModelScan( buffer, bounds[i], bounds[i + 1] ) ) );
+		}
+
+		int modelCount = 0;
+		for ( final Future<PdbFileChunk.ModelScan> future : scans )
+		{
+			for ( final int model : PdbStructureLoader.getResult( future ).models )
+			{
+				if ( model >= 0 && ++modelCount == 2 )
 				{
-					records = new Vector<StructureComponent>( );
-					this.passComponents.put(
-							ComponentType.ATOM, records );
+					for ( final Future<PdbFileChunk.ModelScan> scan : scans ) {
+						scan.cancel( true );
+					}
+					return model;
 				}
-				
-				records.add( atom );
-
-				// Add atom to cache for conect record processing.
-				atomNumberHash.put( new Integer( atom.number ), atom );
+			}
+		}
+		return end;
+	}
 
-				continue;
+	/**
+	 * Replay a parsed chunk as the sequential loader would have read it.
+	 * 
+	 * @return - false if reading should stop.
+	 */
+	private boolean mergeChunk( final PdbFileChunk chunk, final LoadState state )
+	{
+		int atom = 0;
+		for ( int record = 0; record < chunk.records.size( ); record++ )
+		{
+			for ( ; atom < chunk.recordAtomIndex[record]; atom++ ) {
+				this.addAtom( chunk.atoms.get( atom ), chunk.hetAtoms.get( atom ), state );
 			}
+			if ( !this.readRecord( chunk.records.get( record ), state ) ) {
+				return false;
+			}
+		}
+		for ( ; atom < chunk.atoms.size( ); atom++ ) {
+			this.addAtom( chunk.atoms.get( atom ), chunk.hetAtoms.get( atom ), state );
+		}
 
-			//
-			// MODEL record
-			//
-			else if (line.startsWith("MODEL"))
-			{
-				modelCount++; // How many models have we seen?
+		if ( chunk.failure != null )
+		{
+			// Line numbers in the chunk are relative to its start.
+			if ( chunk.failure instanceof NumberFormatException ||
+					!(chunk.failure instanceof IllegalArgumentException) ) {
+				throw chunk.failure;
+			}
+			throw new IllegalArgumentException( "no atom element symbol around line " +
+				(state.lines + chunk.failureLine) );
+		}
 
-				if ( !this.shouldRecordMoreModels(modelCount) ) {
-					break; // Only load 1st model
-				}
+		state.lines += chunk.lineCount;
+		return true;
+	}
 
-				// Reset linePos to the start of the line buffer.
-				continue;
-				
-			} 
-			//
-			// Compound record
-			//
-			else if (line.startsWith("COMPND")) {
-				if (line.contains("MOL_ID:")) {
-                   String id = line.substring(18);
-                   id = id.replace(';', ' ');
-                   id = id.trim();
-                   currentEntityId = Integer.parseInt(id);
-				} else if (line.contains("CHAIN:")) {
-				   String chainId = line.substring(18);
-				   chainId = chainId.replaceAll(";", "");
-				   chainId = chainId.trim();
-				   String[] ids = chainId.split(",");
-				   for (String id: ids) {
-					   entityMap.put(id.trim(), currentEntityId);
-				   }
-				} else if (line.contains("MOLECULE:")) {
-					String entityName = line.substring(20).trim();
-					entityName = entityName.replaceAll(";","");
-					entityName = entityName.toLowerCase();
-					entityNameMap.put(currentEntityId, entityName);
-				}
+	private static <T> T getResult( final Future<T> future ) throws IOException
+	{
+		try
+		{
+			return future.get( );
+		}
+		catch ( final InterruptedException e )
+		{
+			throw new InterruptedIOException( "PDB load interrupted" );
+		}
+		catch ( final ExecutionException e )
+		{
+			final Throwable cause = e.getCause( );
+			if ( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
 			}
-
-			if ( !this.shouldRecordMoreModels(modelCount) )
-				break; // Only load 1st model
+			if ( cause instanceof Error ) {
+				throw (Error) cause;
+			}
+			throw (IOException) new IOException( "PDB load failed" ).initCause( cause );
 		}
+	}
+
+	/**
+	 * Turn the loaded components into a Structure.
+	 */
+	private Structure createStructure( final LoadState state )
+	{
+		// Create a hash for atom numbers that we can use
+		// later if we need to process CONECT records.
+		// We'll free memory when we're done with it.
+		Hashtable<Integer, Atom> atomNumberHash = state.atomNumberHash;
+		Vector<int[]> conectRecords = state.conectRecords;
+
 		//
 		// Post-process cached CONECT records to produce Bond objects.
 		//
@@ -629,6 +679,274 @@ public class PdbStructureLoader
 	{
 		return treatModelsAsSubunits || modelCount < 2;
 	}
+
+	/**
+	 * Per-load parsing state, shared by the line and record reading paths.
+	 */
+	private static class LoadState
+	{
+		int lines = 0;
+		int bytesRead = 0;
+		int percentDone = 0;
+		int modelCount = 0; // How many models have we seen?
+		int currentEntityId = 0;
+		final Map<String, Integer> entityMap = new HashMap<String, Integer>();
+
+		Hashtable<Integer, Atom> atomNumberHash = new Hashtable<Integer, Atom>( );
+		Vector<int[]> conectRecords = new Vector<int[]>( );
+
+		// Shares the generated chain ids in record parser mode, null otherwise.
+		NameTable names = null;
+	}
+
+	/**
+	 * Read the file a line at a time, creating a String per line and
+	 * substrings per field.
+	 */
+	private void readLines( final BufferedReader rdr, final LoadState state ) throws IOException
+	{
+		final long expectedBytes = this.expectedInputBytes;
+
+		String line;
+
+		while ( (line = rdr.readLine()) != null )
+		{
+
+			state.bytesRead += line.length() + 1;
+			state.percentDone = (int)((state.bytesRead * 100L)/ expectedBytes);
+			Status.progress( state.percentDone, "Loading " + this.urlString );
+
+			state.lines++;
+			
+			boolean isHetAtom = line.startsWith("HETATM");
+
+			// Parse the line buffer
+			if (line.startsWith("ATOM") || isHetAtom)
+			{
+				// PDB File Atom Record offsets as documented by
+				// http://www.rcsb.org/pdb/docs/format/pdbguide2.2/part_62.html
+				// 1 -  6   RecordName
+				// 7 - 11   serial
+				// 12       -
+				// 13 - 16  name
+				// 17       altLoc
+				// 18 - 20  resName
+				// 21       -
+				// 22       chainID
+				// 23 - 26  resSeq
+				// 27       iCode
+				// 28 - 30  -
+				// 31 - 38  x
+				// 39 - 46  y
+				// 47 - 54  z
+				// 55 - 60  occupancy
+				// 61 - 66  tempFactor
+				// 67 - 72  -
+				// 73 - 76  segID
+				// 77 - 78  element
+				// 79 - 80  charge
+				// NOTE: In this application, we need to subtract 1 from
+				// each index in order to match the 0-based array offsets.
+				
+				Atom atom = new Atom( );
+				String str = null;
+
+				atom.number =  Integer.parseInt(line.substring( 6, 11 ).trim());
+
+				atom.name = line.substring(12, 16 ).trim().replace('*', '\'');	//**JB quick fix: the dictionary expects ' instead of *
+
+				atom.element = line.substring(76, 78).trim();
+				atom.element = atom.element.replaceAll( "[0-9]", "" );
+				if ( (atom.element == null) || atom.element.equals("") ||
+						(PeriodicTable.getElement( atom.element ) == null))
+				{
+					// The element field was not an element,
+					// so, try the first letter of the name.
+					atom.element = atom.name.substring( 0, 1 ).trim();
+					if ( PeriodicTable.getElement( atom.element ) == null ) {
+						throw new IllegalArgumentException( "no atom element symbol around line " + state.lines );
+					}
+				}
+
+				atom.altLoc = line.substring(16, 17 ).trim();
+
+				atom.compound = line.substring(17, 20 ).trim();
+
+				atom.chain_id = line.substring(21, 22 ).trim();
+
+				String temp = line.substring(22, 26).trim();
+				atom.residue_id = Integer.parseInt(temp);
+				atom.authorResidue_id = atom.residue_id;
+			
+				atom.insertionCode = line.substring(26, 27).trim();
+	
+				atom.coordinate = new double[3];
+				atom.coordinate[0] = Double.parseDouble(line.substring(30, 38 ).trim());
+				atom.coordinate[1] = Double.parseDouble(line.substring(38, 46 ).trim());
+				atom.coordinate[2] = Double.parseDouble(line.substring(46, 54 ).trim());
+
+				str = line.substring(54, 60 ).trim();
+				atom.occupancy = ( str.length() == 0 )? 1.0f : Float.parseFloat( str );
+
+				str = line.substring(60, 66 ).trim();
+				atom.bfactor = ( str.length() == 0 )? 0.0f : Float.parseFloat( str );
+
+				this.addAtom( atom, isHetAtom, state );
+
+				// Add atom to cache for conect record processing.
+				state.atomNumberHash.put( new Integer( atom.number ), atom );
+
+				continue;
+			}
+
+			if ( !this.readRecord( line, state ) )
+				break; // Only load 1st model
+		}
+	}
+
+	/**
+	 * Read the file into a reused character buffer and decode ATOM/HETATM
+	 * records in place with a {@link PdbAtomRecordParser}. Produces the same
+	 * atoms as {@link #readLines(BufferedReader, LoadState)}, but without
+	 * the per-line and per-field Strings.
+	 */
+	private void readRecords( final PdbRecordReader rdr, final LoadState state ) throws IOException
+	{
+		final long expectedBytes = this.expectedInputBytes;
+		final PdbAtomRecordParser parser = new PdbAtomRecordParser( this.nameTable );
+		state.names = this.nameTable;
+
+		int len;
+
+		while ( (len = rdr.readLine()) >= 0 )
+		{
+			state.bytesRead += len + 1;
+			final int percentDone = (int)((state.bytesRead * 100L)/ expectedBytes);
+			if ( percentDone != state.percentDone )
+			{
+				state.percentDone = percentDone;
+				Status.progress( percentDone, "Loading " + this.urlString );
+			}
+
+			state.lines++;
+
+			final char line[] = rdr.getLine( );
+			if ( PdbAtomRecordParser.isAtomRecord( line, len ) )
+			{
+				final Atom atom = parser.parseAtom( line, len, state.lines );
+				this.addAtom( atom, PdbAtomRecordParser.isHetAtomRecord( line, len ), state );
+
+				// CONECT records are never collected (see the class notes),
+				// so there's no need to fill the atom number hash here.
+				continue;
+			}
+
+			if ( !this.readRecord( rdr.getLineString( ), state ) )
+				break; // Only load 1st model
+		}
+	}
+
+	/**
+	 * Handle a record other than ATOM/HETATM.
+	 * 
+	 * @return - false if reading should stop.
+	 */
+	private boolean readRecord( final String line, final LoadState state )
+	{
+		//
+		// MODEL record
+		//
+		if (line.startsWith("MODEL"))
+		{
+			state.modelCount++; // How many models have we seen?
+
+			return this.shouldRecordMoreModels(state.modelCount); // Only load 1st model
+		} 
+		//
+		// Compound record
+		//
+		else if (line.startsWith("COMPND")) {
+			if (line.contains("MOL_ID:")) {
+               String id = line.substring(18);
+               id = id.replace(';', ' ');
+               id = id.trim();
+               state.currentEntityId = Integer.parseInt(id);
+			} else if (line.contains("CHAIN:")) {
+			   String chainId = line.substring(18);
+			   chainId = chainId.replaceAll(";", "");
+			   chainId = chainId.trim();
+			   String[] ids = chainId.split(",");
+			   for (String id: ids) {
+				   state.entityMap.put(id.trim(), state.currentEntityId);
+			   }
+			} else if (line.contains("MOLECULE:")) {
+				String entityName = line.substring(20).trim();
+				entityName = entityName.replaceAll(";","");
+				entityName = entityName.toLowerCase();
+				entityNameMap.put(state.currentEntityId, entityName);
+			}
+		}
+
+		return this.shouldRecordMoreModels(state.modelCount);
+	}
+
+	/**
+	 * Assign the entity and chain ids of a freshly parsed atom
+	 * (atom.chain_id holds the raw chain column) and add it to the
+	 * ATOM component records.
+	 */
+	private void addAtom( final Atom atom, final boolean isHetAtom, final LoadState state )
+	{
+		// handle the case of a non-standard pdb file
+		// without COMPOUND information
+		if (entityNameMap.size() == 0) {
+			entityNameMap.put(state.currentEntityId,"");
+		}
+
+		if (state.entityMap.size() > 0) {
+			atom.entity_id = state.entityMap.get(atom.chain_id);
+		} else {
+			atom.entity_id = 1;
+		}
+
+		if(treatModelsAsSubunits)
+		{
+			atom.chain_id = this.shareName(atom.chain_id + "$$$" + state.modelCount, state);
+		}
+		
+		atom.authorChain_id = atom.chain_id;
+		
+		// Split het atoms into separate chains so they can be displayed as ligands.
+		// Note, ligands and water are included in the protein chain that is closed to the ligand or water.
+		// However, for MBT these entities must be in a different chain for visualization purposes.
+		// For display purposes the original "authorChain_id" is used.
+		
+		if (isHetAtom) {
+			atom.chain_id = this.shareName(atom.chain_id + " ", state);
+		}
+		// Make sure waters don't have the same chain id as the macromolecules or ligands,
+		// since they are expected to be in a separate chain, i.e. for ProteinWorkshop
+		// Add a space to enforce uniqueness
+		if (atom.compound.equals("HOH")) {
+			atom.chain_id = this.shareName(atom.chain_id + " ", state);
+		}
+
+		Vector<StructureComponent> records = this.passComponents.get(ComponentType.ATOM);
+		
+		if ( records == null )
+		{
+			records = new Vector<StructureComponent>( );
+			this.passComponents.put(
+					ComponentType.ATOM, records );
+		}
+		
+		records.add( atom );
+	}
+
+	private String shareName( final String name, final LoadState state )
+	{
+		return ( state.names == null )? name : state.names.intern( name );
+	}
 	
 	/**
 	 * get the completed structure.
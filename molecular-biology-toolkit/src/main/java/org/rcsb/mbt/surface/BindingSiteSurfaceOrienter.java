@@ -8,10 +8,8 @@ import javax.vecmath.Matrix4f;
 import javax.vecmath.Point3f;
 import javax.vecmath.Vector3f;
 
-import org.rcsb.mbt.surface.datastructure.FaceInfo;
 import org.rcsb.mbt.surface.datastructure.IcosahedralSampler;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
-import org.rcsb.mbt.surface.datastructure.VertInfo;
 
 public class BindingSiteSurfaceOrienter {
 	private List<Point3f> samplePoints = new ArrayList<Point3f>(0);
@@ -26,6 +24,9 @@ public class BindingSiteSurfaceOrienter {
 	private Vector3f v = new Vector3f();
 	private Vector3f w = new Vector3f();
 	private Vector3f w0 = new Vector3f();
+	private Point3f corner1 = new Point3f();
+	private Point3f corner2 = new Point3f();
+	private Point3f corner3 = new Point3f();
 
 	public BindingSiteSurfaceOrienter(List<Point3f> samplePoints, List<TriangulatedSurface> surfaces) {
 		this.samplePoints = samplePoints;
@@ -90,16 +91,14 @@ public class BindingSiteSurfaceOrienter {
 		float maxDistanceSq = 0.0f;
 
 		for (TriangulatedSurface s: surfaces){
-			List<VertInfo> vertices = s.getVertices();
-
 			// to speed up calculation, sample every 20-th vertex
-			for (int i = 0, n = vertices.size(); i < n; i+=20) {
-				VertInfo v = vertices.get(i);
-				Point3f base = projectPointToLine(v.p, centroid, optimalOrientation);
-				float distanceSq = v.p.distanceSquared(base);
+			for (int i = 0, n = s.getVertexCount(); i < n; i+=20) {
+				Point3f p = s.getVertex(i, new Point3f());
+				Point3f base = projectPointToLine(p, centroid, optimalOrientation);
+				float distanceSq = p.distanceSquared(base);
 				if (distanceSq > maxDistanceSq) {
 					maxDistanceSq = distanceSq;
-					maxPoint = v.p;
+					maxPoint = p;
 					basePoint = base;
 				}
 			}
@@ -114,14 +113,16 @@ public class BindingSiteSurfaceOrienter {
 
 	private Vector3f surfaceCompositeNormal() {
 		Vector3f compositeNormal = new Vector3f();
+		Point3f p = new Point3f();
+		Vector3f normal = new Vector3f();
 		for (TriangulatedSurface s: surfaces){
-			List<VertInfo> vertices = s.getVertices();
-			for (int i = 0, n = vertices.size(); i < n; i+=20) {
-				VertInfo v = vertices.get(i);
-				Vector3f tip = new Vector3f(v.normal);
+			for (int i = 0, n = s.getVertexCount(); i < n; i+=20) {
+				s.getVertex(i, p);
+				s.getNormal(i, normal);
+				Vector3f tip = new Vector3f(normal);
 				tip.scale(100f);
-				if (! intersectsSurface(v.p, tip)) {
-					compositeNormal.add(v.normal);
+				if (! intersectsSurface(p, tip)) {
+					compositeNormal.add(normal);
 				}
 			}
 		}
@@ -231,9 +232,11 @@ public class BindingSiteSurfaceOrienter {
 		Point3f centroid = new Point3f();
 		int count = 0;
 		for (TriangulatedSurface s: surfaces) {
-			List<VertInfo> vertices = s.getVertices();
-			for (VertInfo v: vertices) {
-				centroid.add(v.p);
+			float[] positions = s.getPositions();
+			for (int i = 0; i < positions.length; i += 3) {
+				centroid.x += positions[i];
+				centroid.y += positions[i + 1];
+				centroid.z += positions[i + 2];
 				count++;
 			}
 		}
@@ -246,11 +249,14 @@ public class BindingSiteSurfaceOrienter {
 
 	private boolean intersectsLineWithCheck(TriangulatedSurface surface, Point3f line1, Vector3f direction) {	
 		float SMALL_NUM = 0.00001f;
-		List<VertInfo> verts = surface.getVertices();
-		for (FaceInfo f : surface.getFaces()) {
-			Point3f t1 = verts.get(f.a).p;
-			Point3f t2 = verts.get(f.b).p;
-			Point3f t3 = verts.get(f.c).p;
+		int[] triangles = surface.getTriangles();
+		Point3f t1 = corner1;
+		Point3f t2 = corner2;
+		Point3f t3 = corner3;
+		for (int f = 0; f < triangles.length; f += 3) {
+			surface.getVertex(triangles[f], t1);
+			surface.getVertex(triangles[f + 1], t2);
+			surface.getVertex(triangles[f + 2], t3);
 			if (t1.epsilonEquals(line1, SMALL_NUM) ||
 					t2.epsilonEquals(line1, SMALL_NUM) ||
 					t3.epsilonEquals(line1, SMALL_NUM)) {
@@ -264,11 +270,14 @@ public class BindingSiteSurfaceOrienter {
 	}
 
 	private boolean intersectsLine(TriangulatedSurface surface, Point3f line1, Vector3f direction) {	
-		List<VertInfo> verts = surface.getVertices();
-		for (FaceInfo f : surface.getFaces()) {
-			Point3f t1 = verts.get(f.a).p;
-			Point3f t2 = verts.get(f.b).p;
-			Point3f t3 = verts.get(f.c).p;
+		int[] triangles = surface.getTriangles();
+		Point3f t1 = corner1;
+		Point3f t2 = corner2;
+		Point3f t3 = corner3;
+		for (int f = 0; f < triangles.length; f += 3) {
+			surface.getVertex(triangles[f], t1);
+			surface.getVertex(triangles[f + 1], t2);
+			surface.getVertex(triangles[f + 2], t3);
 			if  (intersect(t1, t2, t3, line1, direction)) {
 				return true;
 			}
@@ -88,7 +88,16 @@ public class EdtMolecularSurface implements SurfaceCalculator {
         surface = c.getSurface();
     }
     public EdtMolecularSurface(List<Sphere> spheres, float probeRadius, float resolution, float atomRadius) {
+        this(spheres, probeRadius, resolution, atomRadius, EdtSurfaceCalculator.getDefaultThreads());
+    }
+
+    /**
+     * Creates the surface using the given number of threads, e.g. fewer than
+     * the default when several surfaces are calculated at once.
+     */
+    public EdtMolecularSurface(List<Sphere> spheres, float probeRadius, float resolution, float atomRadius, int threads) {
         EdtSurfaceCalculator c = new EdtSurfaceCalculator(spheres, probeRadius, resolution, atomRadius);
+        c.setThreads(threads);
         c.initparam();
         c.boundingatom();
         c.fillvoxels(bcolor);
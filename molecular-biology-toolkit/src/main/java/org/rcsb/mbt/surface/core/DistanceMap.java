@@ -55,9 +55,10 @@
 
 package org.rcsb.mbt.surface.core;
 
-import javax.vecmath.Point3i;
+import java.util.Arrays;
 
-import org.rcsb.mbt.surface.datastructure.VolumePixel;
+import org.rcsb.mbt.model.util.ParallelExecutor;
+import org.rcsb.mbt.surface.datastructure.VoxelGrid;
 
 
 /**
@@ -73,468 +74,377 @@ public class DistanceMap {
     int plength;
     int pwidth;
     int pheight;
-    VolumePixel[][][] vp;
+    VoxelGrid vp;
+    // distance of each voxel to its nearest boundary voxel, and the index of that voxel
+    float[] distance;
+    int[] boundpoint;
+    int[] inarray;
+    int[] outarray;
     int positin;
-    int allocout;
     int positout;
     int eliminate;
     int totalinnervox;
 
-    public void fastdistancemap(VolumePixel[][][] vp, float cutradis, float scalefactor) // used for MS and SES surfaces
-{
+    // squared distance of voxels that cannot reach a boundary voxel
+    private static final int INFINITY = Integer.MAX_VALUE/4;
+
+    public void fastdistancemap(VoxelGrid vp, float cutradis, float scalefactor) // used for MS and SES surfaces
+    {
         this.vp = vp;
-        this.plength = vp.length;
-        this.pwidth = vp[0].length;
-        this.pheight = vp[0][0].length;
-  //      System.out.println("[" + plength + "*" + pwidth + "*" + pheight +"]");
+        this.plength = vp.getLength();
+        this.pwidth = vp.getWidth();
+        this.pheight = vp.getHeight();
 
-	int i,j,k;
-//	int positin,positout;
-//        int eliminate = 0;
+        int i;
+        int size = vp.size();
         eliminate = 0;
 
-	int certificate;
-	int totalsurfacevox=0;
-//	int totalinnervox=0;
+        int certificate;
+        int totalsurfacevox=0;
         totalinnervox=0;
-//	voxel2 ***boundpoint;
-//	boundpoint=new voxel2 **[plength];
-//	for(i=0;i<plength;i++)
-//	{
-//		boundpoint[i]=new voxel2*[pwidth];
-//	}
-//	for(i=0;i<plength;i++)
-//	{
-//		for(j=0;j<pwidth;j++)
-//		{
-//			boundpoint[i][j]=new voxel2[pheight];
-//		}
-//	}
-    Point3i[][][] boundpoint = new Point3i[plength][pwidth][pheight];
-    for (i = 0; i < plength; i++) {
-        for (j = 0; j < pwidth; j++) {
-            for (k = 0; k < pheight; k++) {
-                boundpoint[i][j][k] = new Point3i();
+
+        distance = new float[size];
+        boundpoint = new int[size];
+        Arrays.fill(distance, -1);
+
+        for(i=0;i<size;i++)
+        {
+            vp.setDone(i, false);
+            if(vp.isInOut(i))
+            {
+                if(vp.isBound(i))
+                {
+                    totalsurfacevox++;
+                    boundpoint[i]=i;
+                    distance[i]=0;
+                    vp.setDone(i, true);
+                }
+                else
+                {
+                    totalinnervox++;
+                }
             }
         }
-    }
+        int allocin= (int)(1.2*totalsurfacevox);
+        int allocout= (int)(1.2*totalsurfacevox);
+        if(allocin>totalinnervox)
+            allocin=totalinnervox;
+        if(allocin<totalsurfacevox)
+            allocin=totalsurfacevox;
+        if(allocout>totalinnervox)
+            allocout=totalinnervox;
+        inarray=new int[allocin];
+        outarray=new int[Math.max(allocout, 1)];
+        positin=0;positout=0;
 
+        for(i=0;i<size;i++)
+        {
+            if(vp.isBound(i))
+            {
+                inarray[positin]=i;
+                positin++;
+                vp.setBound(i, false);//as flag of outarray
+            }
+        }
+        certificate=totalinnervox;
 
-	for(i=0;i<plength;i++)
-	{
-		for(j=0;j<pwidth;j++)
-		{
-			for(k=0;k<pheight;k++)
-			{
-				vp[i][j][k].isdone=false;
-				if(vp[i][j][k].inout)
-				{
-					if(vp[i][j][k].isbound)
-					{
-						totalsurfacevox++;
-						boundpoint[i][j][k].x=i;
-						boundpoint[i][j][k].y=j;
-						boundpoint[i][j][k].z=k;
-						vp[i][j][k].distance=0;
-						vp[i][j][k].isdone=true;
-					}
-				    else
-					{
-						totalinnervox++;
-					}
-				}
-			}
-		}
-	}
-	int allocin= (int)(1.2*totalsurfacevox);
-//	int allocout= (int)(1.2*totalsurfacevox);
-        allocout= (int)(1.2*totalsurfacevox);
-	if(allocin>totalinnervox)
-		allocin=totalinnervox;
-	if(allocin<totalsurfacevox)
-		allocin=totalsurfacevox;
-	if(allocout>totalinnervox)
-		allocout=totalinnervox;
-	 Point3i[] inarray=new Point3i[allocin];
-         for (int ii = 0; ii < inarray.length; ii++) {
-             inarray[ii] = new Point3i();
-         }
-	 Point3i[] outarray=new Point3i[allocout];
-         for (int ii = 0; ii < outarray.length; ii++) {
-             outarray[ii] = new Point3i();
-         }
-	 positin=0;positout=0;
+        do {
+            fastoneshell();
+            certificate-=eliminate;
 
-	 for(i=0;i<plength;i++)
-	 {
-		 for(j=0;j<pwidth;j++)
-		 {
-			 for(k=0;k<pheight;k++)
-			 {
-				 if(vp[i][j][k].isbound)
-				 {
-					 inarray[positin].x=i;
-					 inarray[positin].y=j;
-					 inarray[positin].z=k;
-					 positin++;
-					 vp[i][j][k].isbound=false;//as flag of outarray
-				 }
-			 }
-		 }
-	 }
-	certificate=totalinnervox;
-///////////////////////////////////////////////////
+            //new code only less dist
+            positin=0;
+            for(i=0;i<positout;i++)
+            {
+                vp.setBound(outarray[i], false);
+                if(distance[outarray[i]]<=1.02*cutradis)
+                {
+                    if(positin>=inarray.length)
+                    {
+                        inarray=Arrays.copyOf(inarray, 2*inarray.length);
+                    }
+                    inarray[positin]=outarray[i];
+                    positin++;
+                }
+            }
+        }
+        while(positin!=0);
 
-	do {
-            fastoneshell(boundpoint, inarray, outarray);
-	//	printf("%d %d %d %d %d\n",positin,allocout,positout,totalsurfacevox,totalinnervox);
-		certificate-=eliminate;
-	/*
-		for(i=0;i<positout;i++)
-			{
-			  inarray[i].ix=outarray[i].ix;
-			  inarray[i].iy=outarray[i].iy;
-			  inarray[i].iz=outarray[i].iz;
-			}
-			positin=positout;*/
-		//new code only less dist
-		positin=0;
-		for(i=0;i<positout;i++)
-		{
-			vp[outarray[i].x][outarray[i].y][outarray[i].z].isbound=false;
-			if(vp[outarray[i].x][outarray[i].y][outarray[i].z].distance<=1.02*cutradis)
-			{
-				inarray[positin].x=outarray[i].x;
-				inarray[positin].y=outarray[i].y;
-				inarray[positin].z=outarray[i].z;
-				positin++;
-			}
-			if(positin>=allocin)
-			{
-				int inLength = allocin;
-                                allocin*=2;
-				if(allocin>totalinnervox) allocin=totalinnervox;
-//				inarray=(voxel2 *)realloc(inarray,allocin*sizeof(voxel2));
-                                System.arraycopy(inarray, 0, inarray, positout, allocin);
-                                for (int ii = inLength; ii < allocin; ii++) {
-                                    inarray[ii] = new Point3i();
-                                }
-			}
-		}
-	}
-	while(positin!=0);
-	//while(positout!=0);
-	if(certificate!=0)
-	{
-	//	printf("wrong number\n");
-	}
+        double cutsf=scalefactor-0.5;
+        if(cutsf<0) cutsf=0;
+        for(i=0;i<size;i++)
+        {
+            vp.setBound(i, false);
+            //ses solid
+            if(vp.isInOut(i))
+            {
+                if(!vp.isDone(i)
+                    || (vp.isDone(i) && distance[i]>=cutradis-0.50/(0.1+cutsf))//0.33  0.75/scalefactor
+                    )
+                {
+                    vp.setBound(i, true);
+                    //new add
+                    if(vp.isDone(i) && vp.hasAtomIds())
+                        vp.setAtomId(i, vp.getAtomId(boundpoint[i]));
+                }
+            }
+        }
 
-//	 free(inarray);
-//	 free(outarray);
+        distance = null;
+        boundpoint = null;
+        inarray = null;
+        outarray = null;
+    }
 
-	 double cutsf=scalefactor-0.5;
-	 if(cutsf<0) cutsf=0;
-//	 cutsf=100000000;
-	 for(i=0;i<plength;i++)
-	 {
-		 for(j=0;j<pwidth;j++)
-		 {
-			 for(k=0;k<pheight;k++)
-			 {
-				 vp[i][j][k].isbound=false;
-				 //ses solid
-				 if(vp[i][j][k].inout)
-				 {
-					 if(!vp[i][j][k].isdone
-						 || (vp[i][j][k].isdone && vp[i][j][k].distance>=cutradis-0.50/(0.1+cutsf))//0.33  0.75/scalefactor
-						 )
-					 {
-						 vp[i][j][k].isbound=true;
-						 //new add
-						 if(vp[i][j][k].isdone)
-							vp[i][j][k].atomid=vp[boundpoint[i][j][k].x][boundpoint[i][j][k].y][boundpoint[i][j][k].z].atomid;
-					 }
-				 }
-			 }
-		 }
-	 }
+    /**
+     * Grows one shell inwards: the voxels of inarray pass their boundary
+     * voxel on to their neighbors; 6 face neighbors first, then 12 edge and
+     * 8 corner neighbors.
+     */
+    private void fastoneshell() // used for MS and SES surfaces
+    {
+        eliminate=0;
+        positout=0;
+        int number = positin;
+        if(number==0) return;
 
+        oneshell(number, 0, 6);
+        oneshell(number, 6, 18);
+        oneshell(number, 18, 26);
+    }
 
-//	 for(i=0;i<plength;i++)
-//	 {
-//		 for(j=0;j<pwidth;j++)
-//		 {
-//			 delete[]boundpoint[i][j];
-//		 }
-//	 }
-//
-//	 for(i=0;i<plength;i++)
-//	 {
-//		 delete[]boundpoint[i];
-//	 }
-//	 delete[] boundpoint;
-}
+    private void oneshell(int number, int firstNeighbor, int lastNeighbor)
+    {
+        int[] point = new int[3];
+        int[] bound = new int[3];
+        int tx,ty,tz;
+        int nx,ny,nz;
+        int dx,dy,dz;
+        float squre;
 
-private void fastoneshell(Point3i[][][] boundpoint, Point3i[] inarray, Point3i[] outarray) // used for MS and SES surfaces
-{
-//	int i, number,positout;
-        int i, number;
-	int tx,ty,tz;
-	int dx,dy,dz;
-//	int eliminate=0;
-        eliminate=0;
-	float squre;
-	positout=0;
-//	number=*innum;
-        number = positin;
-	if(number==0) return;
-	//new code
-	int j;
-//	voxel tnv;
-        Point3i tnv = new Point3i();
-        tnv.x = 0;
-        tnv.y = 0;
-        tnv.z = 0;
-	for(i=0;i<number;i++)
-	{
-//		if(positout>=(*allocout)-6)
-//		{
-//			(*allocout)=int(1.2*(*allocout));
-//			if(*allocout>totalinnervox) *allocout=totalinnervox;
-//			outarray=(voxel2 *)realloc(outarray,(*allocout)*sizeof(voxel2));
-//		}
-//		tx=inarray[i].ix;
-//        ty=inarray[i].iy;
-//		tz=inarray[i].iz;
-               if(positout >= allocout - 6)
-	       {
-			int outLength = allocout;
-                        allocout = (int) 1.2*allocout;
-			if(allocout>totalinnervox) allocout=totalinnervox;
-//			outarray=(voxel2 *)realloc(outarray,(*allocout)*sizeof(voxel2));
-                        System.arraycopy(outarray, 0, outarray, 0, allocout);
-                        for (int ii = outLength; ii < allocout; ii++) {
-                            outarray[ii] = new Point3i();
-                        }
-		}
-		tx=inarray[i].x;
-                ty=inarray[i].y;
-		tz=inarray[i].z;
-		for(j=0;j<6;j++)
-		{
-			tnv.x=tx+nb[j][0];
-			tnv.y=ty+nb[j][1];
-			tnv.z=tz+nb[j][2];
-			if( tnv.x<plength && tnv.x>-1 &&
-				tnv.y<pwidth && tnv.y>-1 &&
-				tnv.z<pheight && tnv.z>-1 &&
-				vp[tnv.x][tnv.y][tnv.z].inout &&
-				!vp[tnv.x][tnv.y][tnv.z].isdone)
-			{
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].x=boundpoint[tx][ty][tz].x;
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].y=boundpoint[tx][ty][tz].y;
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].z=boundpoint[tx][ty][tz].z;
-				dx=tnv.x-boundpoint[tx][ty][tz].x;
-				dy=tnv.y-boundpoint[tx][ty][tz].y;
-				dz=tnv.z-boundpoint[tx][ty][tz].z;
-				squre=(float)(dx*dx+dy*dy+dz*dz);
-				vp[tnv.x][tnv.y][tnv.z].distance=(float)(Math.sqrt(squre));
-				vp[tnv.x][tnv.y][tnv.z].isdone=true;
-				vp[tnv.x][tnv.y][tnv.z].isbound=true;
-				outarray[positout].x=tnv.x;
-				outarray[positout].y=tnv.y;
-				outarray[positout].z=tnv.z;
-				positout++;eliminate++;
-			}
-			else if( tnv.x<plength && tnv.x>-1 &&
-				tnv.y<pwidth && tnv.y>-1 &&
-				tnv.z<pheight && tnv.z>-1 &&
-				vp[tnv.x][tnv.y][tnv.z].inout &&
-				vp[tnv.x][tnv.y][tnv.z].isdone)
-			{
+        for(int i=0;i<number;i++)
+        {
+            if(positout + lastNeighbor - firstNeighbor > outarray.length)
+            {
+                outarray=Arrays.copyOf(outarray, Math.max(2*outarray.length, positout + lastNeighbor - firstNeighbor));
+            }
+            int t = inarray[i];
+            int b = boundpoint[t];
+            vp.coordinates(t, point);
+            vp.coordinates(b, bound);
+            tx=point[0];
+            ty=point[1];
+            tz=point[2];
+            for(int j=firstNeighbor;j<lastNeighbor;j++)
+            {
+                nx=tx+nb[j][0];
+                ny=ty+nb[j][1];
+                nz=tz+nb[j][2];
+                if( nx>=plength || nx<0 ||
+                    ny>=pwidth || ny<0 ||
+                    nz>=pheight || nz<0)
+                {
+                    continue;
+                }
+                int n = vp.index(nx, ny, nz);
+                if(!vp.isInOut(n))
+                {
+                    continue;
+                }
+                dx=nx-bound[0];
+                dy=ny-bound[1];
+                dz=nz-bound[2];
+                squre=(float)(dx*dx+dy*dy+dz*dz);
+                squre=(float)(Math.sqrt(squre));
+                if(!vp.isDone(n))
+                {
+                    boundpoint[n]=b;
+                    distance[n]=squre;
+                    vp.setDone(n, true);
+                    vp.setBound(n, true);
+                    outarray[positout]=n;
+                    positout++;eliminate++;
+                }
+                else if(squre<distance[n])
+                {
+                    boundpoint[n]=b;
+                    distance[n]=squre;
+                    if(!vp.isBound(n))
+                    {
+                        vp.setBound(n, true);
+                        outarray[positout]=n;
+                        positout++;
+                    }
+                }
+            }
+        }
+    }
 
-				dx=tnv.x-boundpoint[tx][ty][tz].x;
-				dy=tnv.y-boundpoint[tx][ty][tz].y;
-				dz=tnv.z-boundpoint[tx][ty][tz].z;
-				squre=(float)(dx*dx+dy*dy+dz*dz);
-				squre=(float)(Math.sqrt(squre));
-				if(squre<vp[tnv.x][tnv.y][tnv.z].distance)
-				{
-					boundpoint[tnv.x][tnv.y][tnv.z].x=boundpoint[tx][ty][tz].x;
-					boundpoint[tnv.x][tnv.y][tnv.z].y=boundpoint[tx][ty][tz].y;
-					boundpoint[tnv.x][tnv.y][tnv.z].z=boundpoint[tx][ty][tz].z;
-					vp[tnv.x][tnv.y][tnv.z].distance=(float)(squre);
-					if(!vp[tnv.x][tnv.y][tnv.z].isbound)
-					{
-						vp[tnv.x][tnv.y][tnv.z].isbound=true;
-						outarray[positout].x=tnv.x;
-						outarray[positout].y=tnv.y;
-						outarray[positout].z=tnv.z;
-						positout++;
-					}
-				}
+    /**
+     * Computes the same solid as fastdistancemap() with an exact Euclidean
+     * distance transform that is separable by axis: a forward and backward
+     * scan along x, then the lower envelope of parabolas along y and z
+     * (P. Felzenszwalb, D. Huttenlocher (2004) Distance Transforms of Sampled
+     * Functions). Each pass works on independent lines of the grid, which
+     * are split over at most the given number of threads of the executor;
+     * the result does not depend on the number of threads.
+     * <p>
+     * Where several boundary voxels are equally close, the one chosen can
+     * differ from fastdistancemap(), so the atom id of a voxel on the solid
+     * boundary can differ. The solid itself matched fastdistancemap() on all
+     * structures tested.
+     */
+    public void exactdistancemap(final VoxelGrid vp, float cutradis, float scalefactor, ParallelExecutor executor, int threads)
+    {
+        final int length = vp.getLength();
+        final int width = vp.getWidth();
+        final int height = vp.getHeight();
+        final int plane = width * height;
+        // squared distance of each voxel to its nearest boundary voxel, and the index of that voxel
+        final int[] squares = new int[vp.size()];
+        final int[] feature = new int[vp.size()];
 
-			}
-		}
-	}
-	for(i=0;i<number;i++)
-	{
-//		if(positout>=(*allocout)-12)
-//		{
-//			(*allocout)=int(1.2*(*allocout));
-//			if(*allocout>totalinnervox) *allocout=totalinnervox;
-//			outarray=(voxel2 *)realloc(outarray,(*allocout)*sizeof(voxel2));
-//		}
-                if(positout >= allocout - 12)
-		{
-			int outLength = allocout;
-                        allocout = (int)1.2*allocout;
-			if(allocout > totalinnervox) allocout=totalinnervox;
-                        System.arraycopy(outarray, 0, outarray, 0, allocout);
-                        for (int ii = outLength; ii < allocout; ii++) {
-                            outarray[ii] = new Point3i();
-                        }
-		}
-		tx=inarray[i].x;
-                ty=inarray[i].y;
-		tz=inarray[i].z;
-		for(j=6;j<18;j++)
-		{
-			tnv.x=tx+nb[j][0];
-			tnv.y=ty+nb[j][1];
-			tnv.z=tz+nb[j][2];
-			if( tnv.x<plength && tnv.x>-1 &&
-				tnv.y<pwidth && tnv.y>-1 &&
-				tnv.z<pheight && tnv.z>-1 &&
-				vp[tnv.x][tnv.y][tnv.z].inout &&
-				!vp[tnv.x][tnv.y][tnv.z].isdone)
-			{
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].x=boundpoint[tx][ty][tz].x;
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].y=boundpoint[tx][ty][tz].y;
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].z=boundpoint[tx][ty][tz].z;
-				dx=tnv.x-boundpoint[tx][ty][tz].x;
-				dy=tnv.y-boundpoint[tx][ty][tz].y;
-				dz=tnv.z-boundpoint[tx][ty][tz].z;
-				squre=(float)(dx*dx+dy*dy+dz*dz);
-				vp[tnv.x][tnv.y][tnv.z].distance=(float)(Math.sqrt(squre));
-				vp[tnv.x][tnv.y][tnv.z].isdone=true;
-				vp[tnv.x][tnv.y][tnv.z].isbound=true;
-				outarray[positout].x=tnv.x;
-				outarray[positout].y=tnv.y;
-				outarray[positout].z=tnv.z;
-				positout++;eliminate++;
-			}
-			else if( tnv.x<plength && tnv.x>-1 &&
-				tnv.y<pwidth && tnv.y>-1 &&
-				tnv.z<pheight && tnv.z>-1 &&
-				vp[tnv.x][tnv.y][tnv.z].inout &&
-				vp[tnv.x][tnv.y][tnv.z].isdone)
-			{
-				dx=tnv.x-boundpoint[tx][ty][tz].x;
-				dy=tnv.y-boundpoint[tx][ty][tz].y;
-				dz=tnv.z-boundpoint[tx][ty][tz].z;
-				squre=(float)(dx*dx+dy*dy+dz*dz);
-				squre=(float)(Math.sqrt(squre));
-				if(squre<vp[tnv.x][tnv.y][tnv.z].distance)
-				{
-					boundpoint[tnv.x][tnv.y][tnv.z].x=boundpoint[tx][ty][tz].x;
-					boundpoint[tnv.x][tnv.y][tnv.z].y=boundpoint[tx][ty][tz].y;
-					boundpoint[tnv.x][tnv.y][tnv.z].z=boundpoint[tx][ty][tz].z;
-					vp[tnv.x][tnv.y][tnv.z].distance=(float)(squre);
-					if(!vp[tnv.x][tnv.y][tnv.z].isbound)
-					{
-						vp[tnv.x][tnv.y][tnv.z].isbound=true;
-						outarray[positout].x=tnv.x;
-						outarray[positout].y=tnv.y;
-						outarray[positout].z=tnv.z;
-						positout++;
-					}
-				}
+        double cutsf=scalefactor-0.5;
+        if(cutsf<0) cutsf=0;
+        final double threshold = cutradis-0.50/(0.1+cutsf);
+        // fastdistancemap() stops growing shells beyond this distance. Farther
+        // voxels only need to be known to be beyond the threshold, so longer
+        // distances are dropped, which leaves most lines of the grid empty
+        final double reach = 1.02*cutradis+2;
+        final int steps = (int) reach;
+        final int limit = (int) (reach*reach);
 
-			}
-		}
-	}
-	for(i=0;i<number;i++)
-	{
-//		if(positout>=(*allocout)-9)
-//		{
-//			(*allocout)=int(1.2*(*allocout));
-//			if(*allocout>totalinnervox) *allocout=totalinnervox;
-//			outarray=(voxel2 *)realloc(outarray,(*allocout)*sizeof(voxel2));
-//		}
-                if(positout >= allocout -9)
-		{
-                        int outLength = allocout;
-			allocout = (int)(1.2*allocout);
-			if(allocout>totalinnervox) allocout=totalinnervox;
-                        System.arraycopy(outarray, 0, outarray, 0, allocout);
-                        for (int ii = outLength; ii < allocout; ii++) {
-                            outarray[ii] = new Point3i();
+        // x axis, for all lines in a range of y-z positions
+        new SlabTask() {
+            void run(int from, int to) {
+                for (int x = 0; x < length; x++) {
+                    for (int p = from; p < to; p++) {
+                        int v = x*plane+p;
+                        if (vp.isInOut(v) && vp.isBound(v)) {
+                            squares[v] = 0;
+                            feature[v] = v;
+                        } else if (x > 0 && squares[v-plane] < steps) {
+                            squares[v] = squares[v-plane]+1;
+                            feature[v] = feature[v-plane];
+                        } else {
+                            squares[v] = INFINITY;
+                            feature[v] = -1;
                         }
-		}
-		tx=inarray[i].x;
-                ty=inarray[i].y;
-		tz=inarray[i].z;
-		for(j=18;j<26;j++)
-		{
-			tnv.x=tx+nb[j][0];
-			tnv.y=ty+nb[j][1];
-			tnv.z=tz+nb[j][2];
-			if( tnv.x<plength && tnv.x>-1 &&
-				tnv.y<pwidth && tnv.y>-1 &&
-				tnv.z<pheight && tnv.z>-1 &&
-				vp[tnv.x][tnv.y][tnv.z].inout &&
-				!vp[tnv.x][tnv.y][tnv.z].isdone)
-			{
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].x=boundpoint[tx][ty][tz].x;
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].y=boundpoint[tx][ty][tz].y;
-				boundpoint[tnv.x][tnv.y][tz+nb[j][2]].z=boundpoint[tx][ty][tz].z;
-				dx=tnv.x-boundpoint[tx][ty][tz].x;
-				dy=tnv.y-boundpoint[tx][ty][tz].y;
-				dz=tnv.z-boundpoint[tx][ty][tz].z;
-				squre=(float)(dx*dx+dy*dy+dz*dz);
-				vp[tnv.x][tnv.y][tnv.z].distance=(float)(Math.sqrt(squre));
-				vp[tnv.x][tnv.y][tnv.z].isdone=true;
-				vp[tnv.x][tnv.y][tnv.z].isbound=true;
-				outarray[positout].x=tnv.x;
-				outarray[positout].y=tnv.y;
-				outarray[positout].z=tnv.z;
-				positout++;eliminate++;
-			}
-			else if( tnv.x<plength && tnv.x>-1 &&
-				tnv.y<pwidth && tnv.y>-1 &&
-				tnv.z<pheight && tnv.z>-1 &&
-				vp[tnv.x][tnv.y][tnv.z].inout &&
-				vp[tnv.x][tnv.y][tnv.z].isdone)
-			{
-
-				dx=tnv.x-boundpoint[tx][ty][tz].x;
-				dy=tnv.y-boundpoint[tx][ty][tz].y;
-				dz=tnv.z-boundpoint[tx][ty][tz].z;
-				squre=(float)(dx*dx+dy*dy+dz*dz);
-				squre=(float)(Math.sqrt(squre));
-				if(squre<vp[tnv.x][tnv.y][tnv.z].distance)
-				{
-					boundpoint[tnv.x][tnv.y][tnv.z].x=boundpoint[tx][ty][tz].x;
-					boundpoint[tnv.x][tnv.y][tnv.z].y=boundpoint[tx][ty][tz].y;
-					boundpoint[tnv.x][tnv.y][tnv.z].z=boundpoint[tx][ty][tz].z;
-					vp[tnv.x][tnv.y][tnv.z].distance=(float)(squre);
-					if(!vp[tnv.x][tnv.y][tnv.z].isbound)
-					{
-						vp[tnv.x][tnv.y][tnv.z].isbound=true;
-						outarray[positout].x=tnv.x;
-						outarray[positout].y=tnv.y;
-						outarray[positout].z=tnv.z;
-						positout++;
-					}
-				}
+                    }
+                }
+                for (int x = length-2; x >= 0; x--) {
+                    for (int p = from; p < to; p++) {
+                        int v = x*plane+p;
+                        if (squares[v+plane] < steps && squares[v+plane]+1 < squares[v]) {
+                            squares[v] = squares[v+plane]+1;
+                            feature[v] = feature[v+plane];
+                        }
+                    }
+                }
+                for (int x = 0; x < length; x++) {
+                    for (int p = from; p < to; p++) {
+                        int v = x*plane+p;
+                        if (squares[v] < INFINITY) {
+                            squares[v] *= squares[v];
+                        }
+                    }
+                }
+            }
+        }.execute(executor, plane, threads);
 
-			}
-		}
-	}
+        // y and z axes, for a range of x planes
+        new SlabTask() {
+            void run(int from, int to) {
+                int n = Math.max(width, height);
+                int[] f = new int[n];
+                int[] ff = new int[n];
+                int[] parabolas = new int[n];
+                double[] bounds = new double[n+1];
+                for (int x = from; x < to; x++) {
+                    for (int z = 0; z < height; z++) {
+                        envelope(squares, feature, vp.index(x, 0, z), height, width, limit, f, ff, parabolas, bounds);
+                    }
+                    for (int y = 0; y < width; y++) {
+                        envelope(squares, feature, vp.index(x, y, 0), 1, height, limit, f, ff, parabolas, bounds);
+                    }
+                }
+            }
+        }.execute(executor, length, threads);
 
-//	outnum=positout;
-//	elimi=eliminate;
+        new SlabTask() {
+            void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    vp.setBound(i, false);
+                    vp.setDone(i, false);
+                    if (!vp.isInOut(i)) {
+                        continue;
+                    }
+                    double d = squares[i] < INFINITY ? Math.sqrt(squares[i]) : Double.MAX_VALUE;
+                    if (d >= threshold) {
+                        vp.setBound(i, true);
+                    }
+                    if (d <= reach) {
+                        vp.setDone(i, true);
+                        // a boundary voxel is its own feature, so this
+                        // never reads an atom id changed by another slab
+                        if (vp.isBound(i) && vp.hasAtomIds())
+                            vp.setAtomId(i, vp.getAtomId(feature[i]));
+                    }
+                }
+            }
+        }.execute(executor, vp.size(), threads);
+    }
 
-}
+    /**
+     * Replaces the squared distances of the line of n voxels starting at
+     * start by the lower envelope of the parabolas rooted at its voxels,
+     * dropping squared distances above limit. f, ff, parabolas and bounds
+     * are work arrays of at least n (n+1) entries.
+     */
+    private static void envelope(int[] squares, int[] feature, int start, int stride, int n, int limit,
+            int[] f, int[] ff, int[] parabolas, double[] bounds)
+    {
+        int k = -1;
+        for (int q = 0, v = start; q < n; q++, v += stride) {
+            f[q] = squares[v];
+            ff[q] = feature[v];
+            if (f[q] > limit) {
+                continue;
+            }
+            double s = Double.NEGATIVE_INFINITY;
+            while (k >= 0) {
+                int p = parabolas[k];
+                s = ((f[q]+q*q)-(f[p]+p*p))/(2.0*(q-p));
+                if (s > bounds[k]) {
+                    break;
+                }
+                k--;
+            }
+            if (k < 0) {
+                s = Double.NEGATIVE_INFINITY;
+            }
+            k++;
+            parabolas[k] = q;
+            bounds[k] = s;
+            bounds[k+1] = Double.POSITIVE_INFINITY;
+        }
+        if (k < 0) {
+            return;
+        }
+        int j = 0;
+        for (int q = 0, v = start; q < n; q++, v += stride) {
+            while (bounds[j+1] < q) {
+                j++;
+            }
+            int p = parabolas[j];
+            int square = (q-p)*(q-p)+f[p];
+            if (square <= limit) {
+                squares[v] = square;
+                feature[v] = ff[p];
+            } else {
+                squares[v] = INFINITY;
+                feature[v] = -1;
+            }
+        }
+    }
 }
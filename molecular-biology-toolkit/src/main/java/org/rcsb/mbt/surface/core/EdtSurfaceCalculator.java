@@ -60,16 +60,18 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.vecmath.Point3f;
 
+import org.rcsb.mbt.model.util.ParallelExecutor;
 import org.rcsb.mbt.surface.datastructure.FaceInfo;
 import org.rcsb.mbt.surface.datastructure.Sphere;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
 import org.rcsb.mbt.surface.datastructure.VertInfo;
-import org.rcsb.mbt.surface.datastructure.VolumePixel;
+import org.rcsb.mbt.surface.datastructure.VoxelGrid;
 
 
 /**
@@ -91,7 +93,8 @@ public class EdtSurfaceCalculator {
     private int[] widxz = null;
     private int[][] depty = null;
     private float scalefactor=1;
-    private VolumePixel[][][] vp = null;
+    private VoxelGrid vp = null;
+    private int[] centers = null;
     private Point3f ptran = null;
 
     private List<FaceInfo> faceList = new ArrayList<FaceInfo>(0);
@@ -102,6 +105,14 @@ public class EdtSurfaceCalculator {
     private List<Float> radiiSet = new ArrayList<Float>();
     private int[] radiusIndex = null;
 
+    // voxel flags and ids (9 bytes) plus the distance map (8 bytes), or the
+    // vertex tables of marching cubes, with some room for the slab tables
+    private static final int BYTES_PER_VOXEL = 20;
+
+    private static int defaultThreads = Runtime.getRuntime().availableProcessors();
+    private int threads = defaultThreads;
+    private ParallelExecutor executor = ParallelExecutor.getShared();
+
     // nb[26][3]
     private static int nb[][]={{1,0,0}, {-1,0,0}, {0,1,0}, {0,-1,0}, {0,0,1}, {0,0,-1},
     {1,1,0}, {1,-1,0}, {-1,1,0}, {-1,-1,0}, {1,0,1}, {1,0,-1}, {-1,0,1}, {-1,0,-1}, {0,1,1}, {0,1,-1}, {0,-1,1}, {0,-1,-1},
@@ -127,6 +138,46 @@ public class EdtSurfaceCalculator {
         return surface;
     }
 
+    /**
+     * Sets the number of threads used by calculators created from now on,
+     * e.g. by the Edt*Surface classes. Defaults to the number of processors.
+     */
+    public static void setDefaultThreads(int threads) {
+        defaultThreads = Math.max(1, threads);
+    }
+
+    public static int getDefaultThreads() {
+        return defaultThreads;
+    }
+
+    /**
+     * Sets the number of threads used to fill the voxels, compute the
+     * distance map and run marching cubes. The surface is the same for any
+     * number of threads.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the executor whose threads are used, the shared one by default.
+     */
+    public void setExecutor(ParallelExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns an estimate of the peak heap use of the voxel grid and its work
+     * arrays in bytes. Valid after initparam().
+     */
+    public long estimateMemory() {
+        return (long) plength * pwidth * pheight * BYTES_PER_VOXEL;
+    }
+
     private void createRadiusIndex() {
         radiusIndex = new int[spheres.size()];
         for (int i = 0; i < spheres.size(); i++) {
@@ -328,105 +379,57 @@ public void boundbox(Point3f minP, Point3f maxP)
 // void ProteinSurface::fillvoxels(int seqinit,int seqterm,bool atomtype,atom* proseq,bool bcolor) // used
 public void fillvoxels(boolean bcolor) // used
 {
+	vp = new VoxelGrid(plength, pwidth, pheight, bcolor);
+
+	// voxel of each sphere center
+	centers = new int[3 * spheres.size()];
+	for (int ii = 0; ii < spheres.size(); ii++) {
+		Point3f c = spheres.get(ii).getLocation();
+		centers[3*ii] = (int) ((c.x+ptran.x)*scalefactor+0.5f);
+		centers[3*ii+1] = (int) ((c.y+ptran.y)*scalefactor+0.5f);
+		centers[3*ii+2] = (int) ((c.z+ptran.z)*scalefactor+0.5f);
+	}
 
-	int i,j,k;
-    vp = new VolumePixel[plength][pwidth][pheight];
-//	if(vp==NULL)
-//	{
-//		vp=new volumepixel**[plength];
-//		for(i=0;i<plength;i++)
-//			vp[i]=new volumepixel*[pwidth];
-//		for(i=0;i<plength;i++)
-//		{
-//			for(j=0;j<pwidth;j++)
-//			{
-//				vp[i][j]=new volumepixel[pheight];
-//			}
-//		}
-//	}
-
-	for(i=0;i<plength;i++)
-	{
-		for(j=0;j<pwidth;j++)
-		{
-			for(k=0;k<pheight;k++)
-			{
-                vp[i][j][k] = new VolumePixel();
-				vp[i][j][k].inout=false;
-				vp[i][j][k].isdone=false;
-				vp[i][j][k].isbound=false;
-				vp[i][j][k].distance=-1;
-				vp[i][j][k].atomid=-1;
-				vp[i][j][k].reference=null;
+	// each slab of x planes is filled by the atoms in index order, so voxels
+	// covered by several atoms get the same ids as in a serial fill
+	final boolean color = bcolor;
+	new SlabTask() {
+		void run(int from, int to) {
+			for (int ii = 0; ii < spheres.size(); ii++) {
+				int reach = widxz[radiusIndex[ii]]-1;
+				if (centers[3*ii]+reach >= from && centers[3*ii]-reach < to) {
+					fillatom(ii, color, from, to);
+				}
 			}
-		}
-	}
-//	int totnum=0;
-    for (int ii = 0; ii < spheres.size(); ii++) {
-//        fillatom(ii, bcolor);
-        fillatom(ii, bcolor);
-    }
-//	for(i=seqinit;i<=seqterm;i++)
-//	{
-//		if(proseq[i].simpletype==1 && proseq[i].ins==' ' /*&& (proseq[i].alt==' ' || proseq[i].alt=='A')*/ )
-//		{
-//			if(atomtype && (proseq[i].detail==5 || proseq[i].detail==12))
-//			{
-//				continue;
-//			}
-//			fillatom(i,proseq,bcolor);
-//			totnum++;
-//		}
-//	}
-//	printf("%d\n",totnum);
 
-	for(i=0;i<plength;i++)
-	{
-		for(j=0;j<pwidth;j++)
-		{
-			for(k=0;k<pheight;k++)
+			int last = vp.index(to, 0, 0);
+			for(int i=vp.index(from, 0, 0);i<last;i++)
 			{
-				if(vp[i][j][k].inout)
+				if(vp.isInOut(i))
 				{
-					vp[i][j][k].isdone=true;
+					vp.setDone(i, true);
 				}
 			}
 		}
-	}
+	}.execute(executor, plength, threads);
 }
 
-private void fillatom(int indx, boolean bcolor) {
-	int cx,cy,cz;
+/**
+ * Fills the voxels of the x planes [from, to) covered by an atom.
+ */
+private void fillatom(int indx, boolean bcolor, int from, int to) {
+	int cx=centers[3*indx];
+	int cy=centers[3*indx+1];
+	int cz=centers[3*indx+2];
 	int ox,oy,oz;
-        Point3f cp = new Point3f();
-//	point3d cp;
-        Sphere s = spheres.get(indx);
-        Object r = s.getReference();
-        Point3f c = s.getLocation();
-        cp.x=c.x+ptran.x;
-	cp.y=c.y+ptran.y;
-	cp.z=c.z+ptran.z;
-//	cp.x=proseq[indx].x+ptran.x;
-//	cp.y=proseq[indx].y+ptran.y;
-//	cp.z=proseq[indx].z+ptran.z;
-	cp.x*=scalefactor;
-	cp.y*=scalefactor;
-	cp.z*=scalefactor;
-        cx= (int) (cp.x+0.5f);
-	cy= (int) (cp.y+0.5f);
-	cz= (int) (cp.z+0.5f);
-//    int at = spheres.get(indx).getReferenceId();
-    int at = radiusIndex[indx];
-//	cx=int(cp.x+0.5);
-//	cy=int(cp.y+0.5);
-//	cz=int(cp.z+0.5);
-//	int at=proseq[indx].detail; // -pr atom type
+	int at = radiusIndex[indx]; // -pr atom type
 	int i,j,k;
 	int ii,jj,kk;
 	int mi,mj,mk;
 	int si,sj,sk;
 	int tind;
 	int nind=0;
+	int v;
 	for(i=0;i<widxz[at];i++) // -pr at: atom type
 	{
 		for(j=0;j<widxz[at];j++)
@@ -450,51 +453,37 @@ private void fillatom(int indx, boolean bcolor) {
 									si=cx+mi;
 									sj=cy+mj;
 									sk=cz+mk;
-									if(si<0 || sj<0 || sk<0 || si>=plength || sj>=pwidth || sk>=pheight)
+									if(si<from || sj<0 || sk<0 || si>=to || sj>=pwidth || sk>=pheight)
 									{
 										continue;
 									}
-								if(!bcolor)
+									v=vp.index(si,sj,sk);
+									if(!bcolor)
 									{
-										vp[si][sj][sk].inout=true;
+										vp.setInOut(v, true);
 										continue;
 									}
-								else{
-									if(vp[si][sj][sk].inout==false)
-									{
-										vp[si][sj][sk].inout=true;
-										vp[si][sj][sk].atomid=indx;
-										vp[si][sj][sk].reference=r;
-									}
-									//no atomic info to each voxel change above line
-								//*
-								    else if(vp[si][sj][sk].inout)
-									{
-										tind=vp[si][sj][sk].atomid;
-                                        Sphere t = spheres.get(tind);
-                                        Point3f tc = t.getLocation();
-                                        cp.x=tc.x+ptran.x;
-										cp.y=tc.y+ptran.y;
-										cp.z=tc.z+ptran.z;
-//										cp.x=proseq[tind].x+ptran.x;
-//										cp.y=proseq[tind].y+ptran.y;
-//										cp.z=proseq[tind].z+ptran.z;
-										cp.x*=scalefactor;
-										cp.y*=scalefactor;
-										cp.z*=scalefactor;
-                                        ox= (int) (cp.x+0.5f)-si;
-										oy= (int) (cp.y+0.5f)-sj;
-										oz= (int) (cp.z+0.5f)-sk;
-//										ox=int(cp.x+0.5)-si;
-//										oy=int(cp.y+0.5)-sj;
-//										oz=int(cp.z+0.5)-sk;
-										if(mi*mi+mj*mj+mk*mk<ox*ox+oy*oy+oz*oz)
-											vp[si][sj][sk].atomid=indx;
-										    vp[si][sj][sk].reference=r;
+									else{
+										if(!vp.isInOut(v))
+										{
+											vp.setInOut(v, true);
+											vp.setAtomId(v, indx);
+											vp.setReferenceId(v, indx);
+										}
+										//no atomic info to each voxel change above line
+										else
+										{
+											tind=vp.getAtomId(v);
+											ox=centers[3*tind]-si;
+											oy=centers[3*tind+1]-sj;
+											oz=centers[3*tind+2]-sk;
+											if(mi*mi+mj*mj+mk*mk<ox*ox+oy*oy+oz*oz)
+												vp.setAtomId(v, indx);
+											// the reference is always replaced (as in the original)
+											vp.setReferenceId(v, indx);
+										}
 									}
-								//	*/
 								}//k
-									}//else
 							}//if
 						}//kk
 					}//jj
@@ -509,52 +498,48 @@ private void fillatom(int indx, boolean bcolor) {
 
 public void fastdistancemap() {
      DistanceMap dm = new DistanceMap();
-     dm.fastdistancemap(vp, cutradis, scalefactor);
+     dm.exactdistancemap(vp, cutradis, scalefactor, executor, threads);
 }
 
 // void ProteinSurface::buildboundary() // used
 //{
 public void buildbounary() {
+	new SlabTask() {
+		void run(int from, int to) {
+			buildbounary(from, to);
+		}
+	}.execute(executor, plength, threads);
+}
+
+private void buildbounary(int from, int to) {
 	int i,j,k;
 	int ii;
-	boolean flagbound;
- //   System.out.println(plength + "," + pheight + "," + pwidth);
-	for(i=0;i<plength;i++)
+	int v;
+	for(i=from;i<to;i++)
 	{
-		for(j=0;j<pheight;j++)
+		for(j=0;j<pwidth;j++)
 		{
-			for(k=0;k<pwidth;k++)
+			for(k=0;k<pheight;k++)
 			{
-				if(vp[i][k][j].inout)
-				{
-					//6 neighbors
-//					if(( k-1>-1 && !vp[i][k-1][j].inout) || ( k+1<pwidth &&!vp[i][k+1][j].inout)
-//					|| ( j-1>-1 && !vp[i][k][j-1].inout) || ( j+1<pheight &&!vp[i][k][j+1].inout)
-//					|| ( i-1>-1 && !vp[i-1][k][j].inout) || ( i+1<plength &&!vp[i+1][k][j].inout))
-//						vp[i][k][j].isbound=true;
-			//	/*
+				v=vp.index(i,j,k);
+				if(vp.isInOut(v))
+				{
 					//26 neighbors
-					flagbound=false;
-					ii=0;
-					while(!flagbound && ii<26)
+					for(ii=0;ii<26;ii++)
 					{
 						if(i+nb[ii][0]>-1 && i+nb[ii][0]<plength
-							&& k+nb[ii][1]>-1 && k+nb[ii][1]<pwidth
-							&& j+nb[ii][2]>-1 && j+nb[ii][2]<pheight
-							&& !vp[i+nb[ii][0]][k+nb[ii][1]][j+nb[ii][2]].inout)
+							&& j+nb[ii][1]>-1 && j+nb[ii][1]<pwidth
+							&& k+nb[ii][2]>-1 && k+nb[ii][2]<pheight
+							&& !vp.isInOut(i+nb[ii][0],j+nb[ii][1],k+nb[ii][2]))
 						{
-							vp[i][k][j].isbound=true;
-							flagbound=true;
+							vp.setBound(v, true);
+							break;
 						}
-						else ii++;
 					}
-			//		*/
 				}
 			}
-
 		}
 	}
- 
 }
 
 //void ProteinSurface::marchingcube(int stype) // used
@@ -562,30 +547,9 @@ public void buildbounary() {
 public void marchingcube(int stype) {
 	int i,j,k;
 	marchingcubeinit(stype);
-    int[][][] vertseq = new int[plength][pwidth][pheight];
-//	int ***vertseq;
-//	vertseq=new int**[plength];
-//	for(i=0;i<plength;i++)
-//	{
-//		vertseq[i]=new int*[pwidth];
-//	}
-//	for(i=0;i<plength;i++)
-//	{
-//		for(j=0;j<pwidth;j++)
-//		{
-//			vertseq[i][j]=new int[pheight];
-//		}
-//	}
-	for(i=0;i<plength;i++)
-	{
-		for(j=0;j<pwidth;j++)
-		{
-			for(k=0;k<pheight;k++)
-            {
-                vertseq[i][j][k]=-1;
-			}
-		}
-	}
+    // vertex index of each voxel, or -1
+    int[] vertseq = new int[vp.size()];
+    Arrays.fill(vertseq, -1);
 
 //	if(faces!=NULL)
 //	{
@@ -615,8 +579,7 @@ public void marchingcube(int stype) {
         vertices = new ArrayList<VertInfo>();
         faceList = new ArrayList<FaceInfo>();
 
-	int sumtype;
-	int ii,jj,kk;
+	int ii;
 	int[][] tp = new int[6][3];
 //    int tp[6][3];
 	/////////////////////////////////////////new added  normal is outer
@@ -627,8 +590,8 @@ public void marchingcube(int stype) {
 		{
 			for(k=0;k<pheight-1;k++)
 			{
-				if(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone
-					&& vp[i][j][k+1].isdone)
+				if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k+1))
 				{
 					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
@@ -636,9 +599,9 @@ public void marchingcube(int stype) {
 				    tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
 					for(ii=0;ii<4;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -650,48 +613,48 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].b=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.b=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+					face.b=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         faceList.add(face);
 				}
-				else if((vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-					||( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone)
-					||( vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
-					||(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i][j+1][k].isdone))
+				else if((vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
+					||( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1))
+					||( vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
+					||(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i,j+1,k)))
 				{
-					if(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
+					if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
 						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
 					}
-				    else if( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone)
+				    else if( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1))
 					{
 						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
 					}
-					else if( vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
+					else if( vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
 					{
 						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
 					}
-					else if(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i][j+1][k].isdone)
+					else if(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i,j+1,k))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
@@ -699,9 +662,9 @@ public void marchingcube(int stype) {
 					}
 					for(ii=0;ii<3;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -713,13 +676,13 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 				}
 
@@ -733,8 +696,8 @@ public void marchingcube(int stype) {
 		{
 			for(k=0;k<pheight-1;k++)
 			{
-				if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone
-					&& vp[i][j][k+1].isdone)
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1)
+					&& vp.isDone(i,j,k+1))
 				{
 					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
@@ -742,9 +705,9 @@ public void marchingcube(int stype) {
 					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
 					for(ii=0;ii<4;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -756,49 +719,49 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 
 
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+					face.c=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         faceList.add(face);
 				}
-				else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone)
-					||( vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-					||( vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
-					||(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone))
+				else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1))
+					||( vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+					||( vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
+					||(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k)))
 				{
-					if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone)
+					if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
 						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
 					}
-					else if( vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
+					else if( vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
 					{
 						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
 					}
-					else if( vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
+					else if( vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
 					{
 						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
 					}
-					else if(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone)
+					else if(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
@@ -806,9 +769,9 @@ public void marchingcube(int stype) {
 					}
 					for(ii=0;ii<3;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -820,13 +783,13 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 				}
 
@@ -840,8 +803,8 @@ public void marchingcube(int stype) {
 		{
 			for(k=0;k<1;k++)
 			{
-				if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone
-					&& vp[i][j+1][k].isdone)
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k)
+					&& vp.isDone(i,j+1,k))
 				{
 					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
@@ -849,9 +812,9 @@ public void marchingcube(int stype) {
 					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
 					for(ii=0;ii<4;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -863,48 +826,48 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].b=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.b=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+					face.b=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         faceList.add(face);
 				}
-				else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
-					||( vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
-					||( vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j][k].isdone)
-					||(vp[i][j+1][k].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone))
+				else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
+					||( vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
+					||( vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j,k))
+					||(vp.isDone(i,j+1,k) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k)))
 				{
-					if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
+					if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
 						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
 					}
-					else if( vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
+					else if( vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
 					{
 						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
 						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
 					}
-					else if( vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j][k].isdone)
+					else if( vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j,k))
 					{
 						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
 					}
-					else if(vp[i][j+1][k].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone)
+					else if(vp.isDone(i,j+1,k) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k))
 					{
 						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
@@ -912,9 +875,9 @@ public void marchingcube(int stype) {
 					}
 					for(ii=0;ii<3;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -926,13 +889,13 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 				}
 
@@ -946,8 +909,8 @@ public void marchingcube(int stype) {
 		{
 			for(k=0;k<pheight-1;k++)
 			{
-				if(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone
-					&& vp[i][j][k+1].isdone)
+				if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k+1))
 				{
 					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
@@ -955,9 +918,9 @@ public void marchingcube(int stype) {
 					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
 					for(ii=0;ii<4;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -969,48 +932,48 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+					face.c=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         faceList.add(face);
 				}
-				else if((vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-					||( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone)
-					||( vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
-					||(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i][j+1][k].isdone))
+				else if((vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
+					||( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1))
+					||( vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
+					||(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i,j+1,k)))
 				{
-					if(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
+					if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
 						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
 					}
-					else if( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone)
+					else if( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1))
 					{
 						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
 					}
-					else if( vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
+					else if( vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
 					{
 						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
 					}
-					else if(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i][j+1][k].isdone)
+					else if(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i,j+1,k))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
@@ -1018,9 +981,9 @@ public void marchingcube(int stype) {
 					}
 					for(ii=0;ii<3;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -1032,13 +995,13 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 				}
 
@@ -1052,8 +1015,8 @@ public void marchingcube(int stype) {
 		{
 			for(k=0;k<pheight-1;k++)
 			{
-				if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone
-					&& vp[i][j][k+1].isdone)
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1)
+					&& vp.isDone(i,j,k+1))
 				{
 					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
@@ -1061,9 +1024,9 @@ public void marchingcube(int stype) {
 					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
 					for(ii=0;ii<4;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -1075,48 +1038,48 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].b=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.b=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+					face.b=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         faceList.add(face);
 				}
-				else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone)
-					||( vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-					||( vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
-					||(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone))
+				else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1))
+					||( vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+					||( vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
+					||(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k)))
 				{
-					if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone)
+					if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
 						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
 					}
-					else if( vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
+					else if( vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
 					{
 						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
 					}
-					else if( vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j][k].isdone)
+					else if( vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
 					{
 						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
 					}
-					else if(vp[i][j][k+1].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone)
+					else if(vp.isDone(i,j,k+1) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
@@ -1124,9 +1087,9 @@ public void marchingcube(int stype) {
 					}
 					for(ii=0;ii<3;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -1138,13 +1101,13 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.c=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 				}
 
@@ -1158,8 +1121,8 @@ public void marchingcube(int stype) {
 		{
 			for(k=pheight-1;k<pheight;k++)
 			{
-				if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone
-					&& vp[i][j+1][k].isdone)
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k)
+					&& vp.isDone(i,j+1,k))
 				{
 					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
@@ -1167,9 +1130,9 @@ public void marchingcube(int stype) {
 					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
 					for(ii=0;ii<4;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -1181,49 +1144,49 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 
-//                  			faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+//                  			faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
+					face.c=vertseq[vp.index(tp[3][0],tp[3][1],tp[3][2])];
                                         faceList.add(face);
 
 				}
-				else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
-					||( vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
-					||( vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j][k].isdone)
-					||(vp[i][j+1][k].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone))
+				else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
+					||( vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
+					||( vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j,k))
+					||(vp.isDone(i,j+1,k) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k)))
 				{
-					if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
+					if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
 					{
 						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
 						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
 					}
-					else if( vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
+					else if( vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
 					{
 						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
 						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
 						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
 					}
-					else if( vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j][k].isdone)
+					else if( vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j,k))
 					{
 						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
 						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
 					}
-					else if(vp[i][j+1][k].isdone && vp[i][j][k].isdone && vp[i+1][j][k].isdone)
+					else if(vp.isDone(i,j+1,k) && vp.isDone(i,j,k) && vp.isDone(i+1,j,k))
 					{
 						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
 						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
@@ -1231,9 +1194,9 @@ public void marchingcube(int stype) {
 					}
 					for(ii=0;ii<3;ii++)
 					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
+						if(vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+							vertseq[vp.index(tp[ii][0],tp[ii][1],tp[ii][2])]=vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
@@ -1245,13 +1208,13 @@ public void marchingcube(int stype) {
 //							vertnumber++;
 						}
 					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+//					faces[facenumber].a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+                                        face.a=vertseq[vp.index(tp[0][0],tp[0][1],tp[0][2])];
+					face.b=vertseq[vp.index(tp[1][0],tp[1][1],tp[1][2])];
+					face.c=vertseq[vp.index(tp[2][0],tp[2][1],tp[2][2])];
                                         faceList.add(face);
 				}
 
@@ -1260,2150 +1223,2217 @@ public void marchingcube(int stype) {
 	}
 
 	///////////////////////////////////////////
-	for(i=0;i<plength-1;i++)
+	marchingcubescan(vertseq);
+////	verts=(vertinfo *)realloc(verts,vertnumber*sizeof(vertinfo));
+////    int currentSize = verts.length;
+////    System.arraycopy(verts, 0, verts, 0, vertnumber);
+////    for (int cs = currentSize; cs < verts.length; cs++) {
+////        verts[cs] = new VertInfo();
+////    }
+////	faces=(faceinfo *)realloc(faces,facenumber*sizeof(faceinfo));
+
+//    int currentSize = faces.length;
+//    System.arraycopy(faces, 0, faces, 0, facenumber);
+//    for (int cs = currentSize; cs < faces.length; cs++) {
+//        faces[cs] = new FaceInfo();
+//    }
+
+	for(i=0;i<vertices.size();i++)
+	{
+//		verts[i].atomid=vp[int(verts[i].x)][int(verts[i].y)][int(verts[i].z)].atomid;
+//        verts[i].atomid=vp[(int)(verts[i].p.x)][(int)(verts[i].p.y)][(int)(verts[i].p.z)].atomid;
+        VertInfo vertex = vertices.get(i);
+        int v = vp.index((int)(vertex.p.x), (int)(vertex.p.y), (int)(vertex.p.z));
+        vertex.atomid = vp.getAtomId(v);
+        int referenceId = vp.getReferenceId(v);
+        vertex.reference = referenceId < 0 ? null : spheres.get(referenceId).getReference();
+
+
+//		verts[i].iscont=false;
+                vertex.iscont = false;
+//        if(vp[int(verts[i].x)][int(verts[i].y)][int(verts[i].z)].isbound)
+//		if(vp[(int)(verts[i].p.x)][(int)(verts[i].p.y)][(int)(verts[i].p.z)].isbound)
+//			verts[i].iscont=true;
+                if(vp.isBound(v))
+			vertex.iscont=true;
+	}
+    vertseq = null;
+    complete();
+    
+    // resize arrays
+//    truncateArrays();
+//	for(i=0;i<plength;i++)
+//	{
+//		for(j=0;j<pwidth;j++)
+//		{
+//			delete[]vertseq[i][j];
+//		}
+//	}
+
+//	for(i=0;i<plength;i++)
+//	{
+//		delete[]vertseq[i];
+//	}
+//	delete[]vertseq;
+}
+//*/
+
+/**
+ * Scans all cubes of the grid and triangulates the cubes with 3 to 7 corners
+ * inside. With several threads the grid is cut into slabs along x that are
+ * triangulated with their own vertex tables, which are then merged in the
+ * order the serial scan would have created the vertices and faces.
+ */
+private void marchingcubescan(int[] vertseq) {
+	final int[] bounds = SlabTask.slabBounds(plength-1, threads);
+	if (bounds.length == 2) {
+		marchingcubescan(new CubeSlab(0, vertseq, vertices, faceList), 0, plength-1);
+		return;
+	}
+	final CubeSlab[] slabs = new CubeSlab[bounds.length-1];
+	new SlabTask() {
+		void run(int from, int to) {
+			for (int s = from; s < to; s++) {
+				int[] slabseq = new int[(bounds[s+1]-bounds[s]+1)*pwidth*pheight];
+				Arrays.fill(slabseq, -1);
+				slabs[s] = new CubeSlab(bounds[s], slabseq, new ArrayList<VertInfo>(), new ArrayList<FaceInfo>());
+				marchingcubescan(slabs[s], bounds[s], bounds[s+1]);
+				slabs[s].vertseq = null;
+			}
+		}
+	}.execute(executor, slabs.length, threads);
+
+	for (CubeSlab slab: slabs) {
+		// a vertex on a plane shared with the previous slab, or on a face
+		// of the grid, already has its index
+		int[] index = new int[slab.vertices.size()];
+		for (int ii = 0; ii < index.length; ii++) {
+			VertInfo vertex = slab.vertices.get(ii);
+			int v = vp.index((int)(vertex.p.x), (int)(vertex.p.y), (int)(vertex.p.z));
+			if (vertseq[v] == -1) {
+				vertseq[v] = vertices.size();
+				vertices.add(vertex);
+			}
+			index[ii] = vertseq[v];
+		}
+		for (FaceInfo face: slab.faces) {
+			face.a = index[face.a];
+			face.b = index[face.b];
+			face.c = index[face.c];
+			faceList.add(face);
+		}
+	}
+}
+
+/**
+ * Triangulates the cubes of the planes [from, to). Kept out of marchingcube():
+ * that method is too large to be compiled by the JIT, which makes a loop over
+ * all voxels in it very slow.
+ */
+private void marchingcubescan(CubeSlab slab, int from, int to) {
+	int i,j,k;
+	int sumtype;
+	int[][] tp = new int[6][3];
+	int dx = pwidth*pheight;
+	int dy = pheight;
+	for(i=from;i<to;i++)
 	{
 		for(j=0;j<pwidth-1;j++)
 		{
-			for(k=0;k<pheight-1;k++)
+			int v = vp.index(i,j,0);
+			for(k=0;k<pheight-1;k++,v++)
 			{
 				sumtype=0;
-				for( ii=0;ii<2;ii++)
+				if(vp.isDone(v)) sumtype++;
+				if(vp.isDone(v+1)) sumtype++;
+				if(vp.isDone(v+dy)) sumtype++;
+				if(vp.isDone(v+dy+1)) sumtype++;
+				if(vp.isDone(v+dx)) sumtype++;
+				if(vp.isDone(v+dx+1)) sumtype++;
+				if(vp.isDone(v+dx+dy)) sumtype++;
+				if(vp.isDone(v+dx+dy+1)) sumtype++;
+				if(sumtype>=3 && sumtype<=7)
 				{
-					for( jj=0;jj<2;jj++)
-					{
-						for( kk=0;kk<2;kk++)
-						{
-							if(vp[i+ii][j+jj][k+kk].isdone)
-								sumtype++;
-						}
-					}
-				}//ii
-//				if(vertnumber+6>allocvert)
-//				{
-//					allocvert*=2;
-//					verts=(vertinfo *)realloc(verts,allocvert*sizeof(vertinfo));
-//                    int currentSize = verts.length;
-//                    System.arraycopy(verts, 0, verts, 0, allocvert);
-//                    for (int cs = currentSize; cs < verts.length; cs++) {
-//                        verts[cs] = new VertInfo();
-//                    }
-                    // do we need to allocate VertInfo objects for the new positions?? Does arraycopy do that?
-//				}
-//				if(facenumber+3>allocface)
-//				{
-//					allocface*=2;
-//					faces=(faceinfo *)realloc(faces,allocface*sizeof(faceinfo));
-//                    int currentSize = faces.length;
-//                    System.arraycopy(faces, 0, faces, 0, allocface);
-//                    for (int cs = currentSize; cs < faces.length; cs++) {
-//                        faces[cs] = new FaceInfo();
-//                    }
-//				}
-				if(sumtype==0)
-				{
-					//nothing
-				}//total0
-				else if(sumtype==1)
-				{
-					//nothing
-				}//total1
-				else if(sumtype==2)
-				{
-					//nothing
-				}//total2
-				else if(sumtype==8)
-				{
-					//nothing
-				}//total8
-
-				else if(sumtype==3)
-				{
-					if((vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k].isdone)
-					   ||(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j][k].isdone)
-					   ||(vp[i][j][k+1].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone)
-					   ||(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone)
-					   ||(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-					   ||(vp[i][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-					   ||(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i][j][k+1].isdone)
-					   ||(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone)
-					   ||(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-					   ||(vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j][k+1].isdone)
-					   ||(vp[i][j][k].isdone && vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-					   ||(vp[i][j][k+1].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone))
+					marchingcubevoxel(i, j, k, sumtype, tp, slab);
+				}
+			}
+		}
+	}
+}
+
+/**
+ * Triangulates the cube at i, j, k, which has sumtype corners inside.
+ */
+private void marchingcubevoxel(int i, int j, int k, int sumtype, int[][] tp, CubeSlab slab) {
+	int ii;
+		if(sumtype==0)
+		{
+			//nothing
+		}//total0
+		else if(sumtype==1)
+		{
+			//nothing
+		}//total1
+		else if(sumtype==2)
+		{
+			//nothing
+		}//total2
+		else if(sumtype==8)
+		{
+			//nothing
+		}//total8
+
+		else if(sumtype==3)
+		{
+			if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k))
+			   ||(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k))
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1))
+			   ||(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i,j,k+1))
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1))
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
+			   ||(vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k+1))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j,k+1))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1))
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1)))
+			{
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//11
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//12
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)&& vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//13
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)&& vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//14
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k+1)&& vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				}//21
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1)&& vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//22
+				else if(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1)&& vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				}//23
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1)&& vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//24
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)&& vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//31
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//32
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				}//33
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				}//34
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//41
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//42
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//43
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k)	&& vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				}//44
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) )
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//51
+				else if( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//52
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//53
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//54
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)	&& vp.isDone(i,j,k+1) )
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//61
+				else if(vp.isDone(i,j,k) 	&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//62
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				}//63
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)	&& vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//64
+				for(ii=0;ii<3;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//11
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//12
-						else if(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone&& vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//13
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone&& vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//14
-						else if(vp[i][j][k+1].isdone && vp[i+1][j][k+1].isdone&& vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						}//21
-						else if(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone&& vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//22
-						else if(vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone&& vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						}//23
-						else if(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone&& vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//24
-						else if(vp[i][j][k].isdone && vp[i+1][j][k].isdone&& vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//31
-						else if(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//32
-						else if(vp[i][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						}//33
-						else if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						}//34
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//41
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//42
-						else if(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//43
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone	&& vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						}//44
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone )
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//51
-						else if( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//52
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//53
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//54
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone	&& vp[i][j][k+1].isdone )
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//61
-						else if(vp[i][j][k].isdone 	&& vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//62
-						else if(vp[i][j][k+1].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						}//63
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone	&& vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//64
-						for(ii=0;ii<3;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-					}//no5 24
-				}//total3
-				else if(sumtype==4)
-				{
-					if((vp[i][j][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
-						|| (vp[i][j][k+1].isdone && vp[i+1][j][k+1].isdone
-						&& vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone)
-						|| (vp[i][j][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-						|| (vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						|| (vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone
-						&& vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						|| (vp[i][j][k].isdone && vp[i][j+1][k].isdone
-						&& vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone))
-					{
-						if(vp[i][j][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+			}//no5 24
+		}//total3
+		else if(sumtype==4)
+		{
+			if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
+				|| (vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k+1)
+				&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1))
+				|| (vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+				|| (vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+				|| (vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k)
+				&& vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+				|| (vp.isDone(i,j,k) && vp.isDone(i,j+1,k)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1)))
+			{
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
 
-						}
-						else if (vp[i][j][k+1].isdone && vp[i+1][j][k+1].isdone
-							&& vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						}
-						else if(vp[i][j][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						}
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						}
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone
-							&& vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone
-							&& vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}
-						for(ii=0;ii<4;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+				}
+				else if (vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k+1)
+					&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				}
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				}
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				}
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k)
+					&& vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}
+				for(ii=0;ii<4;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
+					{
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-					}//no.8 6
-
-				  else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone  && vp[i][j+1][k+1].isdone)//11
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone)//12
-					   ||(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone && vp[i][j][k+1].isdone)//13
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k+1].isdone)//14
-					   ||(vp[i][j][k+1].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j+1][k].isdone)//21
-					   ||(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)//22
-					   ||(vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k].isdone)//23
-					   ||(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k].isdone)//24
-					   ||(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone)//31
-					   ||(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)//32
-					   ||(vp[i][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i+1][j+1][k].isdone)//33
-					   ||(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)//34
-					   ||(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone)//41
-					   ||(vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k].isdone)//42
-					   ||(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j+1][k].isdone)//43
-					   ||(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone  && vp[i][j+1][k+1].isdone)//44
-					   ||(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone  && vp[i+1][j][k+1].isdone)//51
-					   ||( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)//52
-					   ||(vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k].isdone)//53
-					   ||(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone)//54
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i][j][k+1].isdone  && vp[i+1][j+1][k+1].isdone)//61
-					   ||(vp[i][j][k].isdone && vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k].isdone)//62
-					   ||(vp[i][j][k+1].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j][k].isdone)//63
-					   ||(vp[i][j][k].isdone && vp[i][j+1][k].isdone&& vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone))
-				   {
-						if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k].isdone  && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//11
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//12
-						else if(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone&& vp[i+1][j+1][k].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//13
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone&& vp[i+1][j][k].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//14
-						else if(vp[i][j][k+1].isdone && vp[i+1][j][k+1].isdone&& vp[i+1][j+1][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						}//21
-						else if(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//22
-						else if(vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone&& vp[i+1][j+1][k+1].isdone && vp[i][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						}//23
-						else if(vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone&& vp[i+1][j][k+1].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//24
-						else if(vp[i][j][k].isdone && vp[i+1][j][k].isdone&& vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//31
-						else if(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//32
-						else if(vp[i][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						}//33
-						else if(vp[i][j][k].isdone && vp[i+1][j][k].isdone && vp[i][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						}//34
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//41
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//42
-						else if(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//43
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone	&& vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						}//44
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone )
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//51
-						else if( vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//52
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//53
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone && vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//54
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone	&& vp[i][j][k+1].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//61
-						else if(vp[i][j][k].isdone 	&& vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//62
-						else if(vp[i][j][k+1].isdone && vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						}//63
-						else if(vp[i][j][k].isdone && vp[i][j+1][k].isdone	&& vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						}//64
-						for(ii=0;ii<3;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+			}//no.8 6
+
+		  else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k)  && vp.isDone(i,j+1,k+1))//11
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1))//12
+			   ||(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k+1))//13
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k+1))//14
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k))//21
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))//22
+			   ||(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k))//23
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k))//24
+			   ||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1))//31
+			   ||(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))//32
+			   ||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k))//33
+			   ||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k+1))//34
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1))//41
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k))//42
+			   ||(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k))//43
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1)  && vp.isDone(i,j+1,k+1))//44
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1)  && vp.isDone(i+1,j,k+1))//51
+			   ||( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))//52
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k))//53
+			   ||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1))//54
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j,k+1)  && vp.isDone(i+1,j+1,k+1))//61
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k))//62
+			   ||(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k))//63
+			   ||(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)&& vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1)))
+		   {
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k)  && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//11
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//12
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//13
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)&& vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//14
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k+1)&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				}//21
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1)&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//22
+				else if(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1)&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				}//23
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1)&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//24
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//31
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//32
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				}//33
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k) && vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				}//34
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//41
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//42
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//43
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k)	&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				}//44
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1) )
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//51
+				else if( vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//52
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//53
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//54
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)	&& vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//61
+				else if(vp.isDone(i,j,k) 	&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//62
+				else if(vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				}//63
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j+1,k)	&& vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				}//64
+				for(ii=0;ii<3;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
+					{
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-				   }//no12 24
-					else if((vp[i][j][k].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i][j+1][k].isdone)
-						|| (vp[i][j][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone)
-						|| (vp[i][j][k].isdone && vp[i][j][k+1].isdone
-						&& vp[i+1][j][k].isdone && vp[i][j+1][k].isdone)
-						|| (vp[i][j+1][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						|| (vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i+1][j+1][k+1].isdone && vp[i][j+1][k].isdone)
-						|| (vp[i][j][k+1].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k+1].isdone)
-						|| (vp[i][j][k].isdone && vp[i][j][k+1].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						|| (vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone))
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+		   }//no12 24
+			else if((vp.isDone(i,j,k) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k))
+				|| (vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1))
+				|| (vp.isDone(i,j,k) && vp.isDone(i,j,k+1)
+				&& vp.isDone(i+1,j,k) && vp.isDone(i,j+1,k))
+				|| (vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				|| (vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k))
+				|| (vp.isDone(i,j,k+1) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k+1))
+				|| (vp.isDone(i,j,k) && vp.isDone(i,j,k+1)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1))
+				|| (vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1)))
+			{
+				if(vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k) && vp.isDone(i+1,j+1,k) )
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//1
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k) )
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//2
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j,k+1)
+					&& vp.isDone(i+1,j,k) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//3
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1)
+					&& vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//4
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+				}//5
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i+1,j,k+1)
+					&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				}//6
+				else if(vp.isDone(i,j,k) && vp.isDone(i,j,k+1)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				}//7
+				else if(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j,k+1)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				}//8
+				for(ii=0;ii<3;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i][j][k].isdone && vp[i+1][j+1][k].isdone )
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//1
-						else if(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i][j][k].isdone )
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//2
-						else if(vp[i][j][k].isdone && vp[i][j][k+1].isdone
-							&& vp[i+1][j][k].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//3
-						else if(vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone
-							&& vp[i][j+1][k].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//4
-						else if(vp[i][j+1][k].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-						}//5
-						else if(vp[i+1][j][k].isdone && vp[i+1][j][k+1].isdone
-							&& vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						}//6
-						else if(vp[i][j][k].isdone && vp[i][j][k+1].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						}//7
-						else if(vp[i][j+1][k+1].isdone && vp[i+1][j][k+1].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						}//8
-						for(ii=0;ii<3;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-					}// no.9 8
-					else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i][j][k+1].isdone)
-						||(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone)
-						||(vp[i][j+1][k].isdone && vp[i][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						||(vp[i][j+1][k].isdone && vp[i][j][k].isdone
-						&& vp[i+1][j][k].isdone && vp[i][j+1][k+1].isdone)
-						||(vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i+1][j][k].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i+1][j+1][k].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i][j+1][k].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i][j][k+1].isdone && vp[i][j][k].isdone)
-						||(vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						||(vp[i+1][j][k+1].isdone && vp[i][j][k].isdone
-						&& vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						||(vp[i+1][j][k+1].isdone && vp[i][j][k].isdone
-						&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)
-						||(vp[i][j+1][k+1].isdone && vp[i+1][j+1][k].isdone
-						&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone))
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+			}// no.9 8
+			else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k+1))
+				||(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1))
+				||(vp.isDone(i,j+1,k) && vp.isDone(i,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				||(vp.isDone(i,j+1,k) && vp.isDone(i,j,k)
+				&& vp.isDone(i+1,j,k) && vp.isDone(i,j+1,k+1))
+				||(vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j,k))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
+				||(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				||(vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				||(vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k)
+				&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))
+				||(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k)
+				&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k)))
+			{
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//1
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//2
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//3
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i,j,k)
+					&& vp.isDone(i+1,j,k) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//4
+				else if(vp.isDone(i,j+1,k+1) && vp.isDone(i,j,k+1)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//5
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//6
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//7
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//8
+				else if(vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//9
+				else if(vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//10
+				else if(vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k)
+					&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//11
+				else if(vp.isDone(i,j+1,k+1) && vp.isDone(i+1,j+1,k)
+					&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//12
+				for(ii=0;ii<4;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(vp[i][j][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//1
-						else if(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//2
-						else if(vp[i][j+1][k].isdone && vp[i][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//3
-						else if(vp[i][j+1][k].isdone && vp[i][j][k].isdone
-							&& vp[i+1][j][k].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//4
-						else if(vp[i][j+1][k+1].isdone && vp[i][j][k+1].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//5
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//6
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//7
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i][j][k+1].isdone && vp[i][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//8
-						else if(vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//9
-						else if(vp[i+1][j][k+1].isdone && vp[i][j][k].isdone
-							&& vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//10
-						else if(vp[i+1][j][k+1].isdone && vp[i][j][k].isdone
-							&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//11
-						else if(vp[i][j+1][k+1].isdone && vp[i+1][j+1][k].isdone
-							&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//12
-						for(ii=0;ii<4;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-					}//no.11 12
-					else if((vp[i][j][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i][j+1][k].isdone && vp[i+1][j][k+1].isdone)
-						||(vp[i][j][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						||(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-						||(vp[i][j+1][k].isdone && vp[i][j][k].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i][j][k+1].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i][j][k].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i+1][j][k+1].isdone && vp[i+1][j][k].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i][j][k+1].isdone && vp[i+1][j+1][k].isdone)
-						||(vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						||(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-						&& vp[i][j][k].isdone && vp[i][j+1][k].isdone)
-						||(vp[i+1][j][k].isdone && vp[i][j][k].isdone
-						&& vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						||(vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone
-						&& vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone)
-						||(vp[i][j+1][k].isdone && vp[i+1][j+1][k].isdone
-						&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k+1].isdone))
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+			}//no.11 12
+			else if((vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k+1))
+				||(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				||(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1))
+				||(vp.isDone(i,j+1,k) && vp.isDone(i,j,k)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k+1))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j,k))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k))
+				||(vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				||(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+				&& vp.isDone(i,j,k) && vp.isDone(i,j+1,k))
+				||(vp.isDone(i+1,j,k) && vp.isDone(i,j,k)
+				&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1))
+				||(vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1)
+				&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k))
+				||(vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k)
+				&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k+1)))
+			{
+				if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//1
+				else if(vp.isDone(i,j,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//2
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i+1,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//3
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i,j,k)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//4
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j,k+1)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//5
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i+1,j,k+1) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//6
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//7
+				else if(vp.isDone(i+1,j,k+1) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//8
+				else if(vp.isDone(i+1,j+1,k+1) && vp.isDone(i,j+1,k+1)
+					&& vp.isDone(i,j,k) && vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
+				}//9
+				else if(vp.isDone(i+1,j,k) && vp.isDone(i,j,k)
+					&& vp.isDone(i,j,k+1) && vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+				}//10
+				else if(vp.isDone(i+1,j,k+1) && vp.isDone(i,j,k+1)
+					&& vp.isDone(i+1,j+1,k) && vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+				}//11
+				else if(vp.isDone(i,j+1,k) && vp.isDone(i+1,j+1,k)
+					&& vp.isDone(i+1,j+1,k+1) && vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+				}//12
+				for(ii=0;ii<4;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(vp[i][j][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i][j+1][k].isdone && vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//1
-						else if(vp[i][j][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//2
-						else if(vp[i][j+1][k].isdone && vp[i+1][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//3
-						else if(vp[i][j+1][k].isdone && vp[i][j][k].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//4
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j][k+1].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//5
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i+1][j][k+1].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//6
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i][j][k+1].isdone && vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//7
-						else if(vp[i+1][j][k+1].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i][j][k+1].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//8
-						else if(vp[i+1][j+1][k+1].isdone && vp[i][j+1][k+1].isdone
-							&& vp[i][j][k].isdone && vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
-						}//9
-						else if(vp[i+1][j][k].isdone && vp[i][j][k].isdone
-							&& vp[i][j][k+1].isdone && vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-						}//10
-						else if(vp[i+1][j][k+1].isdone && vp[i][j][k+1].isdone
-							&& vp[i+1][j+1][k].isdone && vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-						}//11
-						else if(vp[i][j+1][k].isdone && vp[i+1][j+1][k].isdone
-							&& vp[i+1][j+1][k+1].isdone && vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-						}//12
-						for(ii=0;ii<4;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-					}//no.14 12
-				}//total4
-				else if(sumtype==5)
-				{
-					if((!vp[i+1][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						|| (!vp[i][j+1][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						|| (!vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						|| (!vp[i][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						|| (!vp[i+1][j][k+1].isdone && !vp[i][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						|| (!vp[i][j+1][k+1].isdone && !vp[i][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						|| (!vp[i+1][j+1][k+1].isdone && !vp[i+1][j][k].isdone && !vp[i][j+1][k].isdone)
-						|| (!vp[i][j][k+1].isdone && !vp[i+1][j][k].isdone && !vp[i][j+1][k].isdone))
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+			}//no.14 12
+		}//total4
+		else if(sumtype==5)
+		{
+			if((!vp.isDone(i+1,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				|| (!vp.isDone(i,j+1,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				|| (!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				|| (!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				|| (!vp.isDone(i+1,j,k+1) && !vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k))
+				|| (!vp.isDone(i,j+1,k+1) && !vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k))
+				|| (!vp.isDone(i+1,j+1,k+1) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k))
+				|| (!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k)))
+			{
+				if(!vp.isDone(i+1,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				}//1
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				}//2
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				}//3
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				}//4
+				else if(!vp.isDone(i+1,j,k+1) && !vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+				}//5
+				else if(!vp.isDone(i,j+1,k+1) && !vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				}//6
+				else if(!vp.isDone(i+1,j+1,k+1) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				}//7
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				}//8
+				for(ii=0;ii<3;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(!vp[i+1][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						}//1
-						else if(!vp[i][j+1][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						}//2
-						else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						}//3
-						else if(!vp[i][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						}//4
-						else if(!vp[i+1][j][k+1].isdone && !vp[i][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-						}//5
-						else if(!vp[i][j+1][k+1].isdone && !vp[i][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						}//6
-						else if(!vp[i+1][j+1][k+1].isdone && !vp[i+1][j][k].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						}//7
-						else if(!vp[i][j][k+1].isdone && !vp[i+1][j][k].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						}//8
-						for(ii=0;ii<3;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-					}//no.7 8
-					else if((!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone)
-				   ||(!vp[i][j+1][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j][k].isdone)
-				   ||(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i][j+1][k+1].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k+1].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone)
-				   ||(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j][k+1].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j][k+1].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i][j][k+1].isdone)
-				   ||(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone )
-				   ||(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone )
-				   ||(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i][j][k+1].isdone )
-				   ||(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-				   ||(!vp[i][j][k+1].isdone && !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-				   ||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone))
-				{
-					if(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-					}//11
-					else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-						tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-					}//12
-					else if(!vp[i][j+1][k].isdone && !vp[i+1][j][k].isdone&& !vp[i+1][j+1][k].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
-					}//13
-					else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone&& !vp[i+1][j][k].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-						tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-					}//14
-					else if(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone&& !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-						tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-					}//21
-					else if(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone&& !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-						tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-					}//22
-					else if(!vp[i][j+1][k+1].isdone && !vp[i+1][j][k+1].isdone&& !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-						tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-					}//23
-					else if(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone&& !vp[i+1][j][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-						tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-					}//24
-					else if(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone&& !vp[i+1][j][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-						tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-					}//31
-					else if(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-						tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
-					}//32
-					else if(!vp[i][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-					}//33
-					else if(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i][j][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-					}//34
-					else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-						tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-					}//41
-					else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-						tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-					}//42
-					else if(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-					}//43
-					else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-						tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-					}//44
-					else if(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone )
-					{
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-						tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-					}//51
-					else if( !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-						tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-					}//52
-					else if(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-						tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-					}//53
-					else if(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-					{
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-						tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-					}//54
-					else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i][j][k+1].isdone )
-					{
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-						tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-					}//61
-					else if(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-						tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-					}//62
-					else if(!vp[i][j][k+1].isdone && !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-						tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
-					}//63
-					else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-					{
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-					}//64
-					for(ii=0;ii<4;ii++)
-					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+			}//no.7 8
+			else if((!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k))
+		   ||(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k))
+		   ||(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k+1))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1))
+		   ||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j,k+1))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j,k+1))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j,k+1))
+		   ||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) )
+		   ||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) )
+		   ||(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j,k+1) )
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1))
+		   ||(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1))
+		   ||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1)))
+		{
+			if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k))
+			{
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+			}//11
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k))
+			{
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+				tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+			}//12
+			else if(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k)&& !vp.isDone(i+1,j+1,k))
+			{
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
+			}//13
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k)&& !vp.isDone(i+1,j,k))
+			{
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+				tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+			}//14
+			else if(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1)&& !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+				tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+			}//21
+			else if(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1)&& !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+				tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+			}//22
+			else if(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k+1)&& !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+				tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+			}//23
+			else if(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1)&& !vp.isDone(i+1,j,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+				tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+			}//24
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k)&& !vp.isDone(i+1,j,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+				tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+			}//31
+			else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+				tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
+			}//32
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+			}//33
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+			}//34
+			else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+				tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+			}//41
+			else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+				tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+			}//42
+			else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+			}//43
+			else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+				tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+			}//44
+			else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) )
+			{
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+				tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+			}//51
+			else if( !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+				tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+			}//52
+			else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+				tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+			}//53
+			else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+			{
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+				tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+			}//54
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j,k+1) )
+			{
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+				tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+			}//61
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+				tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+			}//62
+			else if(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+				tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
+			}//63
+			else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1))
+			{
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+			}//64
+			for(ii=0;ii<4;ii++)
+			{
+				if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
+				{
+					slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
                                                         VertInfo vertex = new VertInfo();
                                                         vertex.p.x=tp[ii][0];
-							vertex.p.y=tp[ii][1];
-							vertex.p.z=tp[ii][2];
-                                                        vertices.add(vertex);
+					vertex.p.y=tp[ii][1];
+					vertex.p.z=tp[ii][2];
+                                                        slab.vertices.add(vertex);
 //							vertnumber++;
-						}
-					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+				}
+			}
+//					faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                        faceList.add(face);
-
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//					faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                        face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+			face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+			face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                        slab.faces.add(face);
+
+//					faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//					faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                         face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-					face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                        faceList.add(face);
-				}//no5 24
-					else if((!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k+1].isdone)//1
-						||(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i][j][k+1].isdone)//2
-						||(!vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i+1][j][k].isdone)//3
-						||(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k].isdone)//4
-						||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)//5
-						||(!vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j+1][k].isdone)//6
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i][j+1][k+1].isdone)//7
-						||(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k].isdone)//8
-						||(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)//9
-						||(!vp[i+1][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k].isdone)//10
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)//11
-						||(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k+1].isdone))
+                                        face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+			face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+			face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                        slab.faces.add(face);
+		}//no5 24
+			else if((!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k+1))//1
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i,j,k+1))//2
+				||(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i+1,j,k))//3
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k))//4
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k+1))//5
+				||(!vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j+1,k))//6
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k+1))//7
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k))//8
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))//9
+				||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k))//10
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))//11
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k+1)))
+			{
+				if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k+1;
+				}//1
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k+1;
+				}//2
+				else if(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
+				}//3
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
+				}//4
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+				{
+				    //tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					//tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					//tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					//tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k+1;
+				}//5
+				else if(!vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
+				}//6
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k+1;
+				}//7
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
+				}//8
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
+				}//9
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k+1;
+				}//10
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
+				}//11
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
+				}//12
+				for(ii=0;ii<5;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k+1;
-						}//1
-						else if(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k+1;
-						}//2
-						else if(!vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
-						}//3
-						else if(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
-						}//4
-						else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-						    //tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							//tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							//tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							//tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k+1;
-						}//5
-						else if(!vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
-						}//6
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k+1;
-						}//7
-						else if(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
-						}//8
-						else if(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
-						}//9
-						else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k+1;
-						}//10
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
-						}//11
-						else if(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
-						}//12
-						for(ii=0;ii<5;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber].b=vertseq[tp[4][0]][tp[4][1]][tp[4][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[4][0],tp[4][1],tp[4][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.b=vertseq[tp[4][0]][tp[4][1]][tp[4][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-
-					}//no.6 12-1
-					else if((!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i][j+1][k+1].isdone)//1
-						||(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone)//2
-						||(!vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k].isdone)//3
-						||(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k].isdone)//4
-						||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j][k+1].isdone)//5
-						||(!vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k].isdone)//6
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i][j][k+1].isdone)//7
-						||(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k].isdone)//8
-						||(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k].isdone)//9
-						||(!vp[i+1][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k+1].isdone)//10
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k].isdone)//11
-						||(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k].isdone))
-					{
-						if(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k+1;
-						}//1
-						else if(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k+1;
-						}//2
-						else if(!vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
-						}//3
-						else if(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
-						}//4
-						else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							//tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							//tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							//tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							//tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k+1;
-						}//5
-						else if(!vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
-						}//6
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k+1;
-						}//7
-						else if(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
-						}//8
-						else if(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k+1;
-						}//9
-						else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
-						}//10
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k+1;
-						}//11
-						else if(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone && !vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k+1;
-						}//12
-						for(ii=0;ii<5;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+                                                face.a=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.b=slab.vertseq[slab.index(tp[4][0],tp[4][1],tp[4][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+
+			}//no.6 12-1
+			else if((!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k+1))//1
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1))//2
+				||(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k))//3
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k))//4
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k+1))//5
+				||(!vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k))//6
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i,j,k+1))//7
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k))//8
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k))//9
+				||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k+1))//10
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k))//11
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k)))
+			{
+				if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k+1;
+				}//1
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k+1;
+				}//2
+				else if(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
+				}//3
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
+				}//4
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k+1))
+				{
+					//tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					//tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					//tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					//tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k+1;
+				}//5
+				else if(!vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
+				}//6
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k+1;
+				}//7
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
+				}//8
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k+1;
+				}//9
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j+1,k+1) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
+				}//10
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k+1;
+				}//11
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k+1;
+				}//12
+				for(ii=0;ii<5;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
+					{
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[4][0]][tp[4][1]][tp[4][2]];
-//						faces[facenumber++].c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[4][0],tp[4][1],tp[4][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[4][0]][tp[4][1]][tp[4][2]];
-						face.c=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-                                                faceList.add(face);
-
-					}//no.6 12-2
-
-				}//total5
-
-				else if(sumtype==6)
-				{
-					if((!vp[i][j][k].isdone && !vp[i+1][j][k].isdone)
-						||(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone)
-						||(!vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone)
-						||(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone)
-						||(!vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						||(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						||(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone)
-						||(!vp[i+1][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone)
-						||(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone))
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[4][0],tp[4][1],tp[4][2])];
+				face.c=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+                                                slab.faces.add(face);
+
+			}//no.6 12-2
+
+		}//total5
+
+		else if(sumtype==6)
+		{
+			if((!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k))
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k))
+				||(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1))
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k))
+				||(!vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k))
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1))
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1))
+				||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1))
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1)))
+			{
+				if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+				}//1
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				}//2
+				else if(!vp.isDone(i,j+1,k+1) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+				}//3
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//4
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+				}//5
+				else if(!vp.isDone(i+1,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+				}//6
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+				}//7
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+				}//8
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+				}//9
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+				}//10
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+				}//11
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+				}//12
+				for(ii=0;ii<4;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(!vp[i][j][k].isdone && !vp[i+1][j][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-						}//1
-						else if(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						}//2
-						else if(!vp[i][j+1][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-						}//3
-						else if(!vp[i][j][k+1].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//4
-						else if(!vp[i][j][k].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-						}//5
-						else if(!vp[i+1][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-						}//6
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-						}//7
-						else if(!vp[i][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-						}//8
-						else if(!vp[i][j][k].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-						}//9
-						else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-						}//10
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-						}//11
-						else if(!vp[i][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-						}//12
-						for(ii=0;ii<4;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
 
-					}//no.2 12
+			}//no.2 12
 
-					else if((!vp[i][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i+1][j][k].isdone && !vp[i][j+1][k+1].isdone)
-						||(!vp[i][j+1][k].isdone && !vp[i+1][j][k+1].isdone)
-						||(!vp[i+1][j+1][k].isdone && !vp[i][j][k+1].isdone))
+			else if((!vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k+1))
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k+1))
+				||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j,k+1)))
+			{
+				if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
+					tp[5][0]=i+1;tp[5][1]=j;tp[5][2]=k;
+				}//1
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+					tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
+					tp[5][0]=i+1;tp[5][1]=j+1;tp[5][2]=k;
+				}//2
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
+					tp[5][0]=i;tp[5][1]=j;tp[5][2]=k;
+				}//3
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+					tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
+					tp[5][0]=i;tp[5][1]=j+1;tp[5][2]=k;
+				}//4
+				for(ii=0;ii<6;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(!vp[i][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j+1;tp[4][2]=k;
-							tp[5][0]=i+1;tp[5][1]=j;tp[5][2]=k;
-						}//1
-						else if(!vp[i+1][j][k].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-							tp[4][0]=i;tp[4][1]=j;tp[4][2]=k;
-							tp[5][0]=i+1;tp[5][1]=j+1;tp[5][2]=k;
-						}//2
-						else if(!vp[i][j+1][k].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j+1;tp[4][2]=k;
-							tp[5][0]=i;tp[5][1]=j;tp[5][2]=k;
-						}//3
-						else if(!vp[i+1][j+1][k].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-							tp[4][0]=i+1;tp[4][1]=j;tp[4][2]=k;
-							tp[5][0]=i;tp[5][1]=j+1;tp[5][2]=k;
-						}//4
-						for(ii=0;ii<6;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-//						faces[facenumber].b=vertseq[tp[4][0]][tp[4][1]][tp[4][2]];
-//						faces[facenumber++].c=vertseq[tp[5][0]][tp[5][1]][tp[5][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[4][0],tp[4][1],tp[4][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[5][0],tp[5][1],tp[5][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-						face.b=vertseq[tp[4][0]][tp[4][1]][tp[4][2]];
-						face.c=vertseq[tp[5][0]][tp[5][1]][tp[5][2]];
-                                                faceList.add(face);
-					}//no.4 4
-
-					else if((!vp[i][j][k].isdone && !vp[i+1][j][k+1].isdone)
-						||(!vp[i+1][j][k].isdone && !vp[i][j][k+1].isdone)
-						||(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone)
-						||(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-						||(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i][j+1][k].isdone && !vp[i][j][k+1].isdone)
-						||(!vp[i][j][k].isdone && !vp[i][j+1][k+1].isdone)
-						||(!vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						||(!vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						||(!vp[i][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						||(!vp[i+1][j][k].isdone && !vp[i][j+1][k].isdone))
+                                                face.a=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+				face.b=slab.vertseq[slab.index(tp[4][0],tp[4][1],tp[4][2])];
+				face.c=slab.vertseq[slab.index(tp[5][0],tp[5][1],tp[5][2])];
+                                                slab.faces.add(face);
+			}//no.4 4
+
+			else if((!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k+1))
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i,j,k+1))
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1))
+				||(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k+1))
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i,j+1,k) && !vp.isDone(i,j,k+1))
+				||(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k+1))
+				||(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				||(!vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				||(!vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k))
+				||(!vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k)))
+			{
+				if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//1
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+				}//2
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
+				}//3
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i+1,j,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+				}//4
+				else if(!vp.isDone(i+1,j+1,k) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//5
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
+				}//6
+				else if(!vp.isDone(i,j+1,k) && !vp.isDone(i,j,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//7
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
+				}//8
+				else if(!vp.isDone(i,j,k+1) && !vp.isDone(i+1,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+					tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+					tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
+				}//9
+				else if(!vp.isDone(i+1,j,k+1) && !vp.isDone(i,j+1,k+1))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+					tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+					tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
+				}//10
+				else if(!vp.isDone(i,j,k) && !vp.isDone(i+1,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+					tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
+				}//11
+				else if(!vp.isDone(i+1,j,k) && !vp.isDone(i,j+1,k))
+				{
+					tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+					tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+					tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+					tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
+				}//12
+				for(ii=0;ii<4;ii++)
+				{
+					if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 					{
-						if(!vp[i][j][k].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//1
-						else if(!vp[i+1][j][k].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-						}//2
-						else if(!vp[i+1][j][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k+1;
-						}//3
-						else if(!vp[i+1][j+1][k].isdone && !vp[i+1][j][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-						}//4
-						else if(!vp[i+1][j+1][k].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//5
-						else if(!vp[i][j+1][k].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k;
-						}//6
-						else if(!vp[i][j+1][k].isdone && !vp[i][j][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//7
-						else if(!vp[i][j][k].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k;
-						}//8
-						else if(!vp[i][j][k+1].isdone && !vp[i+1][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-							tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-							tp[3][0]=i+1;tp[3][1]=j+1;tp[3][2]=k;
-						}//9
-						else if(!vp[i+1][j][k+1].isdone && !vp[i][j+1][k+1].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-							tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-							tp[3][0]=i;tp[3][1]=j+1;tp[3][2]=k;
-						}//10
-						else if(!vp[i][j][k].isdone && !vp[i+1][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-							tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[3][0]=i;tp[3][1]=j;tp[3][2]=k+1;
-						}//11
-						else if(!vp[i+1][j][k].isdone && !vp[i][j+1][k].isdone)
-						{
-							tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-							tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-							tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-							tp[3][0]=i+1;tp[3][1]=j;tp[3][2]=k+1;
-						}//12
-						for(ii=0;ii<4;ii++)
-						{
-							if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-							{
-								vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+						slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //								verts[vertnumber].p.x=tp[ii][0];
 //								verts[vertnumber].p.y=tp[ii][1];
 //								verts[vertnumber].p.z=tp[ii][2];
                                                                 VertInfo vertex = new VertInfo();
                                                                 vertex.p.x=tp[ii][0];
-							        vertex.p.y=tp[ii][1];
-							        vertex.p.z=tp[ii][2];
-                                                                vertices.add(vertex);
+					        vertex.p.y=tp[ii][1];
+					        vertex.p.z=tp[ii][2];
+                                                                slab.vertices.add(vertex);
 //								vertnumber++;
-							}
-						}
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//						faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+					}
+				}
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                                 FaceInfo face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-						face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                                faceList.add(face);
-
-//						faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//						faces[facenumber].b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-//						faces[facenumber++].c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+				face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                                slab.faces.add(face);
+
+//						faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//						faces[facenumber].b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+//						faces[facenumber++].c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
                                                 face = new FaceInfo();
-                                                face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-						face.b=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-						face.c=vertseq[tp[3][0]][tp[3][1]][tp[3][2]];
-                                                faceList.add(face);
-					}//no.3 12
+                                                face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+				face.b=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+				face.c=slab.vertseq[slab.index(tp[3][0],tp[3][1],tp[3][2])];
+                                                slab.faces.add(face);
+			}//no.3 12
 
-				}//total6
+		}//total6
 
-				else if(sumtype==7)
+		else if(sumtype==7)
+		{
+			if(!vp.isDone(i,j,k))
+			{
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
+			}//1
+			else if(!vp.isDone(i+1,j,k))
+			{
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
+			}//2
+			else if(!vp.isDone(i+1,j+1,k))
+			{
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
+			}//3
+			else if(!vp.isDone(i,j+1,k))
+			{
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
+			}//4
+			else if(!vp.isDone(i,j,k+1))
+			{
+				tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
+			}//5
+			else if(!vp.isDone(i+1,j,k+1))
+			{
+				tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
+				tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
+			}//6
+			else if(!vp.isDone(i+1,j+1,k+1))
+			{
+				tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
+				tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
+			}//7
+			else if(!vp.isDone(i,j+1,k+1))
+			{
+				tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
+				tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
+				tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
+			}//8
+			for(ii=0;ii<3;ii++)
+			{
+				if(slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]==-1)
 				{
-					if(!vp[i][j][k].isdone)
-					{
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k;
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k+1;
-					}//1
-					else if(!vp[i+1][j][k].isdone)
-					{
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k;
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k+1;
-					}//2
-					else if(!vp[i+1][j+1][k].isdone)
-					{
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k;
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k+1;
-					}//3
-					else if(!vp[i][j+1][k].isdone)
-					{
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k;
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k+1;
-					}//4
-					else if(!vp[i][j][k+1].isdone)
-					{
-						tp[0][0]=i+1;tp[0][1]=j;tp[0][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[2][0]=i;tp[2][1]=j;tp[2][2]=k;
-					}//5
-					else if(!vp[i+1][j][k+1].isdone)
-					{
-						tp[0][0]=i+1;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[1][0]=i;tp[1][1]=j;tp[1][2]=k+1;
-						tp[2][0]=i+1;tp[2][1]=j;tp[2][2]=k;
-					}//6
-					else if(!vp[i+1][j+1][k+1].isdone)
-					{
-						tp[0][0]=i;tp[0][1]=j+1;tp[0][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j;tp[1][2]=k+1;
-						tp[2][0]=i+1;tp[2][1]=j+1;tp[2][2]=k;
-					}//7
-					else if(!vp[i][j+1][k+1].isdone)
-					{
-						tp[0][0]=i;tp[0][1]=j;tp[0][2]=k+1;
-						tp[1][0]=i+1;tp[1][1]=j+1;tp[1][2]=k+1;
-						tp[2][0]=i;tp[2][1]=j+1;tp[2][2]=k;
-					}//8
-					for(ii=0;ii<3;ii++)
-					{
-						if(vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]==-1)
-						{
-							vertseq[tp[ii][0]][tp[ii][1]][tp[ii][2]]=vertices.size();
+					slab.vertseq[slab.index(tp[ii][0],tp[ii][1],tp[ii][2])]=slab.vertices.size();
 //							verts[vertnumber].p.x=tp[ii][0];
 //							verts[vertnumber].p.y=tp[ii][1];
 //							verts[vertnumber].p.z=tp[ii][2];
                                                         VertInfo vertex = new VertInfo();
                                                         vertex.p.x=tp[ii][0];
-							vertex.p.y=tp[ii][1];
-							vertex.p.z=tp[ii][2];
-                                                        vertices.add(vertex);
+					vertex.p.y=tp[ii][1];
+					vertex.p.z=tp[ii][2];
+                                                        slab.vertices.add(vertex);
 //							vertnumber++;
-						}
-					}
-//					faces[facenumber].a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-//					faces[facenumber].b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-//					faces[facenumber++].c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
+				}
+			}
+//					faces[facenumber].a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+//					faces[facenumber].b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+//					faces[facenumber++].c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
                                         FaceInfo face = new FaceInfo();
-                                        face.a=vertseq[tp[0][0]][tp[0][1]][tp[0][2]];
-					face.b=vertseq[tp[1][0]][tp[1][1]][tp[1][2]];
-					face.c=vertseq[tp[2][0]][tp[2][1]][tp[2][2]];
-                                        faceList.add(face);
-				}//total7
-
-			}//every ijk
-		}//j
-	}//i
-////	verts=(vertinfo *)realloc(verts,vertnumber*sizeof(vertinfo));
-////    int currentSize = verts.length;
-////    System.arraycopy(verts, 0, verts, 0, vertnumber);
-////    for (int cs = currentSize; cs < verts.length; cs++) {
-////        verts[cs] = new VertInfo();
-////    }
-////	faces=(faceinfo *)realloc(faces,facenumber*sizeof(faceinfo));
-
-//    int currentSize = faces.length;
-//    System.arraycopy(faces, 0, faces, 0, facenumber);
-//    for (int cs = currentSize; cs < faces.length; cs++) {
-//        faces[cs] = new FaceInfo();
-//    }
-
-	for(i=0;i<vertices.size();i++)
-	{
-//		verts[i].atomid=vp[int(verts[i].x)][int(verts[i].y)][int(verts[i].z)].atomid;
-//        verts[i].atomid=vp[(int)(verts[i].p.x)][(int)(verts[i].p.y)][(int)(verts[i].p.z)].atomid;
-        VertInfo vertex = vertices.get(i);
-        vertex.atomid = vp[(int)(vertex.p.x)][(int)(vertex.p.y)][(int)(vertex.p.z)].atomid;
-        vertex.reference = vp[(int)(vertex.p.x)][(int)(vertex.p.y)][(int)(vertex.p.z)].reference;
-
-
-//		verts[i].iscont=false;
-                vertex.iscont = false;
-//        if(vp[int(verts[i].x)][int(verts[i].y)][int(verts[i].z)].isbound)
-//		if(vp[(int)(verts[i].p.x)][(int)(verts[i].p.y)][(int)(verts[i].p.z)].isbound)
-//			verts[i].iscont=true;
-                if(vp[(int)(vertex.p.x)][(int)(vertex.p.y)][(int)(vertex.p.z)].isbound)
-			vertex.iscont=true;
-	}
-    vertseq = null;
-    complete();
-    
-    // resize arrays
-//    truncateArrays();
-//	for(i=0;i<plength;i++)
-//	{
-//		for(j=0;j<pwidth;j++)
-//		{
-//			delete[]vertseq[i][j];
-//		}
-//	}
-
-//	for(i=0;i<plength;i++)
-//	{
-//		delete[]vertseq[i];
-//	}
-//	delete[]vertseq;
+                                        face.a=slab.vertseq[slab.index(tp[0][0],tp[0][1],tp[0][2])];
+			face.b=slab.vertseq[slab.index(tp[1][0],tp[1][1],tp[1][2])];
+			face.c=slab.vertseq[slab.index(tp[2][0],tp[2][1],tp[2][2])];
+                                        slab.faces.add(face);
+		}//total7
 }
-//*/
 
 // void ProteinSurface::marchingcubeinit(int stype) // used internally
 // {
-private void marchingcubeinit(int stype) {
-	int i,j,k;
+private void marchingcubeinit(final int stype) {
+	new SlabTask() {
+		void run(int from, int to) {
+			marchingcubeinit(stype, from, to);
+		}
+	}.execute(executor, vp.size(), threads);
+}
+
+private void marchingcubeinit(int stype, int from, int to) {
+	int i;
 	//vdw
 	if(stype==1)
 	{
-		for(i=0;i<plength;i++)
+		for(i=from;i<to;i++)
 		{
-			for(j=0;j<pwidth;j++)
-			{
-				for(k=0;k<pheight;k++)
-				{
-					vp[i][j][k].isbound=false;
-				}
-			}
+			vp.setBound(i, false);
 		}
-
 	}
 	//ses
 	else if(stype==4)
 	{
 		///////////////without vdw
-		for(i=0;i<plength;i++)
+		for(i=from;i<to;i++)
 		{
-			for(j=0;j<pwidth;j++)
-			{
-				for(k=0;k<pheight;k++)
-				{
-					vp[i][j][k].isdone=false;
-					if(vp[i][j][k].isbound)
-					{
-						vp[i][j][k].isdone=true;
-					}
-					//new add
-					vp[i][j][k].isbound=false;
-				}
-			}
+			vp.setDone(i, vp.isBound(i));
+			//new add
+			vp.setBound(i, false);
 		}
-
 	}
 	else if(stype==2)
 	{
 		///////////////////////after vdw
-		for(i=0;i<plength;i++)
+		for(i=from;i<to;i++)
 		{
-			for(j=0;j<pwidth;j++)
+			if(vp.isBound(i) && vp.isDone(i))
 			{
-				for(k=0;k<pheight;k++)
-				{
-				//	if(vp[i][j][k].inout && vp[i][j][k].distance>=cutradis)
-					if(vp[i][j][k].isbound && vp[i][j][k].isdone)
-					{
-						vp[i][j][k].isbound=false;
-					}
-					else if(vp[i][j][k].isbound && !vp[i][j][k].isdone)
-					{
-						vp[i][j][k].isdone=true;
-					}
-				}
+				vp.setBound(i, false);
+			}
+			else if(vp.isBound(i) && !vp.isDone(i))
+			{
+				vp.setDone(i, true);
 			}
 		}
-
 	}
 	//sas
 	else if(stype==3)
 	{
-		for(i=0;i<plength;i++)
+		for(i=from;i<to;i++)
 		{
-			for(j=0;j<pwidth;j++)
-			{
-				for(k=0;k<pheight;k++)
-				{
-					vp[i][j][k].isbound=false;
-				}
-			}
+			vp.setBound(i, false);
 		}
 	}
+}
+
+/**
+ * The vertices and faces found in a slab of cubes that starts at x plane
+ * first. Until merged, faces refer to the vertices of the slab.
+ */
+private class CubeSlab {
+	private int first;
+	// vertex index of each voxel of the slab, or -1
+	private int[] vertseq;
+	private List<VertInfo> vertices;
+	private List<FaceInfo> faces;
+
+	private CubeSlab(int first, int[] vertseq, List<VertInfo> vertices, List<FaceInfo> faces) {
+		this.first = first;
+		this.vertseq = vertseq;
+		this.vertices = vertices;
+		this.faces = faces;
+	}
 
+	private int index(int x, int y, int z) {
+		return ((x-first)*pwidth+y)*pheight+z;
+	}
 }
 
 private void complete() {
-    surface.setVertices(vertices);
-    surface.setFaces(faceList);
+    int n = vertices.size();
+    float[] positions = new float[3*n];
+    int[] atomIds = new int[n];
+    Object[] references = new Object[n];
+    for (int i = 0; i < n; i++) {
+        VertInfo v = vertices.get(i);
+        positions[3*i] = v.p.x;
+        positions[3*i+1] = v.p.y;
+        positions[3*i+2] = v.p.z;
+        atomIds[i] = v.atomid;
+        references[i] = v.reference;
+    }
+    int[] triangles = new int[3*faceList.size()];
+    for (int i = 0, j = 0; i < faceList.size(); i++) {
+        FaceInfo f = faceList.get(i);
+        triangles[j++] = f.a;
+        triangles[j++] = f.b;
+        triangles[j++] = f.c;
+    }
+    surface.setVertices(positions, null, atomIds, references);
+    surface.setTriangles(triangles);
     //
     surface.computenorm();
     // In EDT surface area calculation the surface area of the raw surface is
@@ -3412,17 +3442,21 @@ private void complete() {
 //    System.out.println("scalefactor, ptran" + scalefactor + " " + ptran);
     //
     float sinv = 1.0f/scalefactor;
-    for (VertInfo v: vertices) {
-       v.p.scale(sinv);
-       v.p.sub(ptran);
+    for (int i = 0; i < positions.length; i += 3) {
+       positions[i] = positions[i]*sinv - ptran.x;
+       positions[i+1] = positions[i+1]*sinv - ptran.y;
+       positions[i+2] = positions[i+2]*sinv - ptran.z;
     }
-    for (FaceInfo f: faceList) {
-       if(f.inout) {
-           int temp = f.b;
-           f.b = f.c;
-           f.c = temp;
+    for (int i = 0; i < faceList.size(); i++) {
+       if(faceList.get(i).inout) {
+           int temp = triangles[3*i+1];
+           triangles[3*i+1] = triangles[3*i+2];
+           triangles[3*i+2] = temp;
        }
     }
+    // the surface keeps its own copy of the mesh
+    vertices = new ArrayList<VertInfo>(0);
+    faceList = new ArrayList<FaceInfo>(0);
  //   System.out.println("complete");
 //    outputply("c://1STP.ply");
 }
@@ -3437,7 +3471,7 @@ private void complete() {
 //		{
 //			for(k=0;k<pheight;k++)
 //			{
-//				if(vp[i][j][k].isdone)
+//				if(vp.isDone(i,j,k))
 //					totvol+=1;
 //			}
 //		}
@@ -3479,32 +3513,28 @@ public void outputply(String fileName) // used, optional
 	writer.println("ply");
 	writer.println("format ascii 1.0");
 	writer.println("comment ball mesh");
-	writer.println("element vertex " + vertices.size());
+	float[] positions = surface.getPositions();
+	float[] normals = surface.getNormals();
+	int[] triangles = surface.getTriangles();
+	writer.println("element vertex " + surface.getVertexCount());
 	writer.println("property float x");
 	writer.println("property float y");
 	writer.println("property float z");
         writer.println("property float nx");
 	writer.println("property float ny");
 	writer.println("property float nz");
-	writer.println("element face " + faceList.size());
+	writer.println("element face " + surface.getFaceCount());
 	writer.println("property list uchar int vertex_indices" );
 	writer.println("end_header" );
 
-    for(i=0;i<vertices.size();i++)
+    for(i=0;i<positions.length;i+=3)
 	{
-        VertInfo v = vertices.get(i);
-//		writer.printf("%.3f %.3f %.3f %.3f %.3f %.3f\n", v.p.x/scalefactor-ptran.x,v.p.y/scalefactor-ptran.y,
-//			v.p.z/scalefactor-ptran.z, v.normal.x, v.normal.y, v.normal.z);
-                writer.printf("%.3f %.3f %.3f %.3f %.3f %.3f\n", v.p.x,v.p.y, v.p.z, v.normal.x, v.normal.y, v.normal.z);
-//                System.out.println("atomid: " + verts[i].atomid + ", inout: " + verts[i].inout + ", iscont" + verts[i].iscont);
+                writer.printf("%.3f %.3f %.3f %.3f %.3f %.3f\n", positions[i],positions[i+1], positions[i+2], normals[i], normals[i+1], normals[i+2]);
 	}
-	for(i=0;i<faceList.size();i++)
+	// faces with inout set were already flipped by complete()
+	for(i=0;i<triangles.length;i+=3)
 	{
-            FaceInfo face = faceList.get(i);
-		if(!face.inout)//outer
-			writer.printf("3 %d %d %d\n", face.a,face.b,face.c);
-		else
-			writer.printf("3 %d %d %d\n", face.a,face.c,face.b);
+		writer.printf("3 %d %d %d\n", triangles[i],triangles[i+1],triangles[i+2]);
 	}
 	writer.flush();
     writer.close();
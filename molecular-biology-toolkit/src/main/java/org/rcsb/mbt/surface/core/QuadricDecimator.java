@@ -0,0 +1,693 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ */
+
+package org.rcsb.mbt.surface.core;
+
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+/**
+ * Reduces the number of triangles of a surface by quadric error edge
+ * collapses (M. Garland, P.S. Heckbert (1997) Surface Simplification Using
+ * Quadric Error Metrics. SIGGRAPH 97: 209-216).
+ * <p>
+ * Each vertex carries the sum of the squared distance functions of the
+ * planes of its faces. The edge whose collapse to the point of least error
+ * costs least is collapsed first, until the surface has no more than the
+ * target number of faces or the next collapse would move the surface by
+ * more than the maximum error. The border of an open surface, such as a
+ * binding site patch, is held in place by additional planes along it.
+ * Collapses that would fold over a face or make the surface non-manifold
+ * are skipped.
+ * <p>
+ * The remaining vertex of a collapsed edge is the one nearer the new
+ * position, so each vertex keeps the atom id and reference of an original
+ * vertex close to it and surface coloring by atom still works. The vertex
+ * normals are recalculated from the faces.
+ */
+public class QuadricDecimator {
+    // weight of the planes that hold the border of open surfaces in place
+    private static final double BORDER_WEIGHT = 100.0;
+    // collapses that turn a face normal by more than ~78 degrees are skipped
+    private static final double MIN_NORMAL_COSINE = 0.2;
+
+    private int targetFaceCount = 0;
+    private float maxError = Float.MAX_VALUE;
+
+    // mesh during decimation
+    private double[] positions;
+    private double[] quadrics;
+    private int[] triangles;
+    private boolean[] faceAlive;
+    private boolean[] vertexAlive;
+    private boolean[] border;
+    private int[] stamps;
+    private int[][] vertexFaces;
+    private int[] vertexFaceCounts;
+    private int faceCount;
+
+    // marks of the neighbors of the vertices of an edge
+    private int[] marks;
+    private int tag = 0;
+
+    // binary heap of edge collapses with stamps of both vertices
+    private double[] heapCosts = new double[0];
+    private int[] heapEdges = new int[0];
+    private int heapSize = 0;
+
+    private final double[] point = new double[3];
+    private final double[] before = new double[3];
+    private final double[] after = new double[3];
+
+    /**
+     * Sets the number of faces at which decimation stops. The default is 0,
+     * i.e., only the maximum error stops it.
+     */
+    public void setTargetFaceCount(int targetFaceCount) {
+        this.targetFaceCount = Math.max(0, targetFaceCount);
+    }
+
+    public int getTargetFaceCount() {
+        return targetFaceCount;
+    }
+
+    /**
+     * Sets the largest error of a collapse, as a distance in Angstrom: the
+     * root of the summed squared distances of the new vertex to the planes
+     * of the original faces merged into it. The default is unbounded.
+     */
+    public void setMaxError(float maxError) {
+        this.maxError = maxError;
+    }
+
+    public float getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * Decimates the surface in place.
+     * @return the number of faces of the decimated surface
+     */
+    public int decimate(TriangulatedSurface surface) {
+        int vertexCount = surface.getVertexCount();
+        faceCount = surface.getFaceCount();
+        if (faceCount <= targetFaceCount) {
+            return faceCount;
+        }
+        init(surface);
+
+        double maxCost = (double) maxError * maxError;
+        int[] edge = new int[4];
+        while (faceCount > targetFaceCount && heapSize > 0) {
+            double cost = pop(edge);
+            if (cost > maxCost) {
+                break;
+            }
+            int u = edge[0];
+            int v = edge[1];
+            if (!vertexAlive[u] || !vertexAlive[v] || stamps[u] != edge[2] || stamps[v] != edge[3]) {
+                continue;
+            }
+            getCollapseCost(u, v, point);
+            if (canCollapse(u, v, point)) {
+                collapse(u, v, point);
+            }
+        }
+
+        writeBack(surface, vertexCount);
+        return faceCount;
+    }
+
+    private void init(TriangulatedSurface surface) {
+        int n = surface.getVertexCount();
+        float[] p = surface.getPositions();
+        positions = new double[p.length];
+        for (int i = 0; i < p.length; i++) {
+            positions[i] = p[i];
+        }
+        triangles = surface.getTriangles().clone();
+        int m = triangles.length / 3;
+        quadrics = new double[10 * n];
+        faceAlive = new boolean[m];
+        vertexAlive = new boolean[n];
+        border = new boolean[n];
+        stamps = new int[n];
+        marks = new int[n];
+        tag = 0;
+
+        vertexFaceCounts = new int[n];
+        for (int i = 0; i < triangles.length; i++) {
+            vertexFaceCounts[triangles[i]]++;
+        }
+        vertexFaces = new int[n][];
+        for (int i = 0; i < n; i++) {
+            vertexFaces[i] = new int[vertexFaceCounts[i]];
+            vertexFaceCounts[i] = 0;
+            vertexAlive[i] = true;
+        }
+        for (int f = 0; f < m; f++) {
+            faceAlive[f] = true;
+            for (int k = 0; k < 3; k++) {
+                int a = triangles[3 * f + k];
+                vertexFaces[a][vertexFaceCounts[a]++] = f;
+            }
+        }
+
+        double[] normal = new double[3];
+        for (int f = 0; f < m; f++) {
+            int a = triangles[3 * f];
+            int b = triangles[3 * f + 1];
+            int c = triangles[3 * f + 2];
+            if (!getNormal(a, b, c, positions, 3 * a, normal)) {
+                continue;
+            }
+            addPlane(a, normal, 1.0);
+            addPlane(b, normal, 1.0);
+            addPlane(c, normal, 1.0);
+
+            // edges with a single face are on the border
+            for (int k = 0; k < 3; k++) {
+                int s = triangles[3 * f + k];
+                int t = triangles[3 * f + (k + 1) % 3];
+                if (countSharedFaces(s, t) == 1) {
+                    border[s] = true;
+                    border[t] = true;
+                    addBorderPlane(s, t, normal);
+                }
+            }
+        }
+
+        heapCosts = new double[2 * triangles.length];
+        heapEdges = new int[4 * heapCosts.length];
+        heapSize = 0;
+        for (int f = 0; f < m; f++) {
+            for (int k = 0; k < 3; k++) {
+                int s = triangles[3 * f + k];
+                int t = triangles[3 * f + (k + 1) % 3];
+                // each interior edge is found in two faces, push it once
+                if (s < t || countSharedFaces(s, t) == 1) {
+                    push(getCollapseCost(s, t, point), s, t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the unit normal of face (a, b, c), with a at the given
+     * position instead of its own.
+     * @return false if the face is degenerate
+     */
+    private boolean getNormal(int a, int b, int c, double[] p, int offset, double[] normal) {
+        double ax = p[offset];
+        double ay = p[offset + 1];
+        double az = p[offset + 2];
+        double ux = positions[3 * b] - ax;
+        double uy = positions[3 * b + 1] - ay;
+        double uz = positions[3 * b + 2] - az;
+        double vx = positions[3 * c] - ax;
+        double vy = positions[3 * c + 1] - ay;
+        double vz = positions[3 * c + 2] - az;
+        double nx = uy * vz - uz * vy;
+        double ny = uz * vx - ux * vz;
+        double nz = ux * vy - uy * vx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length < 1e-12) {
+            return false;
+        }
+        normal[0] = nx / length;
+        normal[1] = ny / length;
+        normal[2] = nz / length;
+        return true;
+    }
+
+    /**
+     * Adds the squared distance to the plane through vertex a with the given
+     * normal to the quadric of a.
+     */
+    private void addPlane(int a, double[] normal, double weight) {
+        double nx = normal[0];
+        double ny = normal[1];
+        double nz = normal[2];
+        double d = -(nx * positions[3 * a] + ny * positions[3 * a + 1] + nz * positions[3 * a + 2]);
+        int q = 10 * a;
+        quadrics[q] += weight * nx * nx;
+        quadrics[q + 1] += weight * nx * ny;
+        quadrics[q + 2] += weight * nx * nz;
+        quadrics[q + 3] += weight * nx * d;
+        quadrics[q + 4] += weight * ny * ny;
+        quadrics[q + 5] += weight * ny * nz;
+        quadrics[q + 6] += weight * ny * d;
+        quadrics[q + 7] += weight * nz * nz;
+        quadrics[q + 8] += weight * nz * d;
+        quadrics[q + 9] += weight * d * d;
+    }
+
+    /**
+     * Adds the plane that contains the border edge (s, t) and is
+     * perpendicular to its face to the quadrics of s and t.
+     */
+    private void addBorderPlane(int s, int t, double[] faceNormal) {
+        double ex = positions[3 * t] - positions[3 * s];
+        double ey = positions[3 * t + 1] - positions[3 * s + 1];
+        double ez = positions[3 * t + 2] - positions[3 * s + 2];
+        double[] normal = new double[3];
+        normal[0] = ey * faceNormal[2] - ez * faceNormal[1];
+        normal[1] = ez * faceNormal[0] - ex * faceNormal[2];
+        normal[2] = ex * faceNormal[1] - ey * faceNormal[0];
+        double length = Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1] + normal[2] * normal[2]);
+        if (length < 1e-12) {
+            return;
+        }
+        for (int k = 0; k < 3; k++) {
+            normal[k] /= length;
+        }
+        addPlane(s, normal, BORDER_WEIGHT);
+        addPlane(t, normal, BORDER_WEIGHT);
+    }
+
+    /**
+     * Returns the number of live faces that contain both s and t.
+     */
+    private int countSharedFaces(int s, int t) {
+        int count = 0;
+        int[] faces = vertexFaces[s];
+        for (int i = 0, n = vertexFaceCounts[s]; i < n; i++) {
+            int f = faces[i];
+            if (faceAlive[f] && (triangles[3 * f] == t || triangles[3 * f + 1] == t || triangles[3 * f + 2] == t)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the point of least error for the collapse of edge (u, v).
+     * If the quadric is singular, e.g. in a flat region, the best of the
+     * end points and the midpoint is taken.
+     * @return the error at the point
+     */
+    private double getCollapseCost(int u, int v, double[] p) {
+        int qu = 10 * u;
+        int qv = 10 * v;
+        double a = quadrics[qu] + quadrics[qv];
+        double b = quadrics[qu + 1] + quadrics[qv + 1];
+        double c = quadrics[qu + 2] + quadrics[qv + 2];
+        double d = quadrics[qu + 3] + quadrics[qv + 3];
+        double e = quadrics[qu + 4] + quadrics[qv + 4];
+        double f = quadrics[qu + 5] + quadrics[qv + 5];
+        double g = quadrics[qu + 6] + quadrics[qv + 6];
+        double h = quadrics[qu + 7] + quadrics[qv + 7];
+        double i = quadrics[qu + 8] + quadrics[qv + 8];
+        double j = quadrics[qu + 9] + quadrics[qv + 9];
+
+        // solve [a b c; b e f; c f h] x = -[d g i]
+        double c00 = e * h - f * f;
+        double c01 = c * f - b * h;
+        double c02 = b * f - c * e;
+        double det = a * c00 + b * c01 + c * c02;
+        double scale = a + e + h;
+        if (Math.abs(det) > 1e-6 * scale * scale * scale) {
+            double c11 = a * h - c * c;
+            double c12 = b * c - a * f;
+            double c22 = a * e - b * b;
+            p[0] = -(c00 * d + c01 * g + c02 * i) / det;
+            p[1] = -(c01 * d + c11 * g + c12 * i) / det;
+            p[2] = -(c02 * d + c12 * g + c22 * i) / det;
+            // don't move far off the edge in nearly singular cases
+            if (distanceSquaredToMidpoint(u, v, p) <= edgeLengthSquared(u, v)) {
+                return Math.max(0, evaluate(a, b, c, d, e, f, g, h, i, j, p[0], p[1], p[2]));
+            }
+        }
+
+        double best = Double.MAX_VALUE;
+        for (int k = 0; k < 3; k++) {
+            double x, y, z;
+            if (k == 2) {
+                x = 0.5 * (positions[3 * u] + positions[3 * v]);
+                y = 0.5 * (positions[3 * u + 1] + positions[3 * v + 1]);
+                z = 0.5 * (positions[3 * u + 2] + positions[3 * v + 2]);
+            } else {
+                int w = k == 0 ? u : v;
+                x = positions[3 * w];
+                y = positions[3 * w + 1];
+                z = positions[3 * w + 2];
+            }
+            double error = evaluate(a, b, c, d, e, f, g, h, i, j, x, y, z);
+            if (error < best) {
+                best = error;
+                p[0] = x;
+                p[1] = y;
+                p[2] = z;
+            }
+        }
+        return Math.max(0, best);
+    }
+
+    private static double evaluate(double a, double b, double c, double d, double e, double f, double g,
+            double h, double i, double j, double x, double y, double z) {
+        return a * x * x + 2 * b * x * y + 2 * c * x * z + 2 * d * x
+                + e * y * y + 2 * f * y * z + 2 * g * y
+                + h * z * z + 2 * i * z + j;
+    }
+
+    private double distanceSquaredToMidpoint(int u, int v, double[] p) {
+        double dx = p[0] - 0.5 * (positions[3 * u] + positions[3 * v]);
+        double dy = p[1] - 0.5 * (positions[3 * u + 1] + positions[3 * v + 1]);
+        double dz = p[2] - 0.5 * (positions[3 * u + 2] + positions[3 * v + 2]);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private double edgeLengthSquared(int u, int v) {
+        double dx = positions[3 * u] - positions[3 * v];
+        double dy = positions[3 * u + 1] - positions[3 * v + 1];
+        double dz = positions[3 * u + 2] - positions[3 * v + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Checks that the collapse of edge (u, v) to point p keeps the surface
+     * manifold and doesn't fold over any of the remaining faces.
+     */
+    private boolean canCollapse(int u, int v, double[] p) {
+        int shared = countSharedFaces(u, v);
+        if (shared == 0 || shared == 2 && border[u] && border[v]) {
+            return false;
+        }
+
+        // link condition: u and v have no common neighbors but the third
+        // vertices of their shared faces
+        tag += 2;
+        markNeighbors(u, tag);
+        int common = 0;
+        int[] faces = vertexFaces[v];
+        for (int k = 0, n = vertexFaceCounts[v]; k < n; k++) {
+            int f = faces[k];
+            if (!faceAlive[f]) {
+                continue;
+            }
+            for (int l = 0; l < 3; l++) {
+                int w = triangles[3 * f + l];
+                if (w != u && w != v && marks[w] == tag) {
+                    marks[w] = tag + 1;
+                    common++;
+                }
+            }
+        }
+        if (common != shared) {
+            return false;
+        }
+        return !foldsOver(u, v, p) && !foldsOver(v, u, p);
+    }
+
+    private void markNeighbors(int u, int mark) {
+        int[] faces = vertexFaces[u];
+        for (int k = 0, n = vertexFaceCounts[u]; k < n; k++) {
+            int f = faces[k];
+            if (!faceAlive[f]) {
+                continue;
+            }
+            for (int l = 0; l < 3; l++) {
+                int w = triangles[3 * f + l];
+                if (w != u) {
+                    marks[w] = mark;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether moving u to p turns the normal of one of the faces of u
+     * that don't contain v too far.
+     */
+    private boolean foldsOver(int u, int v, double[] p) {
+        int[] faces = vertexFaces[u];
+        for (int k = 0, n = vertexFaceCounts[u]; k < n; k++) {
+            int f = faces[k];
+            if (!faceAlive[f]) {
+                continue;
+            }
+            int a = triangles[3 * f];
+            int b = triangles[3 * f + 1];
+            int c = triangles[3 * f + 2];
+            if (a == v || b == v || c == v) {
+                continue;
+            }
+            // rotate the face so that u comes first
+            if (b == u) {
+                b = c;
+                c = a;
+            } else if (c == u) {
+                c = b;
+                b = a;
+            }
+            if (!getNormal(u, b, c, positions, 3 * u, before)) {
+                continue;
+            }
+            if (!getNormal(u, b, c, p, 0, after)) {
+                return true;
+            }
+            if (before[0] * after[0] + before[1] * after[1] + before[2] * after[2] < MIN_NORMAL_COSINE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapses edge (u, v) to point p. The vertex nearer to p is kept.
+     */
+    private void collapse(int u, int v, double[] p) {
+        int keep = u;
+        int remove = v;
+        if (distanceSquared(v, p) < distanceSquared(u, p)) {
+            keep = v;
+            remove = u;
+        }
+        positions[3 * keep] = p[0];
+        positions[3 * keep + 1] = p[1];
+        positions[3 * keep + 2] = p[2];
+        for (int k = 0; k < 10; k++) {
+            quadrics[10 * keep + k] += quadrics[10 * remove + k];
+        }
+        border[keep] |= border[remove];
+        vertexAlive[remove] = false;
+        stamps[keep]++;
+
+        // remove the shared faces, move the others to the kept vertex
+        int[] faces = vertexFaces[remove];
+        for (int k = 0, n = vertexFaceCounts[remove]; k < n; k++) {
+            int f = faces[k];
+            if (!faceAlive[f]) {
+                continue;
+            }
+            int t = 3 * f;
+            if (triangles[t] == keep || triangles[t + 1] == keep || triangles[t + 2] == keep) {
+                faceAlive[f] = false;
+                faceCount--;
+                continue;
+            }
+            for (int l = 0; l < 3; l++) {
+                if (triangles[t + l] == remove) {
+                    triangles[t + l] = keep;
+                }
+            }
+        }
+
+        // merge the face lists, dropping dead faces
+        int[] kept = vertexFaces[keep];
+        int count = 0;
+        int capacity = vertexFaceCounts[keep] + vertexFaceCounts[remove];
+        int[] merged = capacity <= kept.length ? kept : new int[capacity];
+        for (int k = 0, n = vertexFaceCounts[keep]; k < n; k++) {
+            if (faceAlive[kept[k]]) {
+                merged[count++] = kept[k];
+            }
+        }
+        for (int k = 0, n = vertexFaceCounts[remove]; k < n; k++) {
+            if (faceAlive[faces[k]]) {
+                merged[count++] = faces[k];
+            }
+        }
+        vertexFaces[keep] = merged;
+        vertexFaceCounts[keep] = count;
+        vertexFaces[remove] = null;
+        vertexFaceCounts[remove] = 0;
+
+        // the costs of the edges of the kept vertex have changed
+        tag += 2;
+        for (int k = 0; k < count; k++) {
+            int f = merged[k];
+            for (int l = 0; l < 3; l++) {
+                int w = triangles[3 * f + l];
+                if (w != keep && marks[w] != tag) {
+                    marks[w] = tag;
+                    push(getCollapseCost(keep, w, point), keep, w);
+                }
+            }
+        }
+    }
+
+    private double distanceSquared(int u, double[] p) {
+        double dx = positions[3 * u] - p[0];
+        double dy = positions[3 * u + 1] - p[1];
+        double dz = positions[3 * u + 2] - p[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void push(double cost, int u, int v) {
+        if (heapSize == heapCosts.length) {
+            int capacity = Math.max(16, 2 * heapSize);
+            double[] costs = new double[capacity];
+            int[] edges = new int[4 * capacity];
+            System.arraycopy(heapCosts, 0, costs, 0, heapSize);
+            System.arraycopy(heapEdges, 0, edges, 0, 4 * heapSize);
+            heapCosts = costs;
+            heapEdges = edges;
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapCosts[parent] <= cost) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        heapCosts[i] = cost;
+        heapEdges[4 * i] = u;
+        heapEdges[4 * i + 1] = v;
+        heapEdges[4 * i + 2] = stamps[u];
+        heapEdges[4 * i + 3] = stamps[v];
+    }
+
+    /**
+     * Removes the edge of least cost from the heap.
+     * @param edge receives u, v and their stamps
+     * @return the cost
+     */
+    private double pop(int[] edge) {
+        double cost = heapCosts[0];
+        System.arraycopy(heapEdges, 0, edge, 0, 4);
+        heapSize--;
+        if (heapSize > 0) {
+            double last = heapCosts[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) {
+                    child++;
+                }
+                if (last <= heapCosts[child]) {
+                    break;
+                }
+                move(child, i);
+                i = child;
+            }
+            move(heapSize, i);
+        }
+        return cost;
+    }
+
+    private void move(int from, int to) {
+        heapCosts[to] = heapCosts[from];
+        System.arraycopy(heapEdges, 4 * from, heapEdges, 4 * to, 4);
+    }
+
+    /**
+     * Stores the remaining vertices and faces in the surface.
+     */
+    private void writeBack(TriangulatedSurface surface, int vertexCount) {
+        int[] index = new int[vertexCount];
+        int n = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            index[i] = vertexAlive[i] ? n++ : -1;
+        }
+        float[] newPositions = new float[3 * n];
+        int[] atomIds = new int[n];
+        Object[] references = new Object[n];
+        int[] oldAtomIds = surface.getAtomIds();
+        Object[] oldReferences = surface.getReferences();
+        for (int i = 0; i < vertexCount; i++) {
+            int j = index[i];
+            if (j < 0) {
+                continue;
+            }
+            newPositions[3 * j] = (float) positions[3 * i];
+            newPositions[3 * j + 1] = (float) positions[3 * i + 1];
+            newPositions[3 * j + 2] = (float) positions[3 * i + 2];
+            atomIds[j] = oldAtomIds[i];
+            references[j] = oldReferences[i];
+        }
+        int[] newTriangles = new int[3 * faceCount];
+        int t = 0;
+        for (int f = 0; f < faceAlive.length; f++) {
+            if (faceAlive[f]) {
+                newTriangles[t++] = index[triangles[3 * f]];
+                newTriangles[t++] = index[triangles[3 * f + 1]];
+                newTriangles[t++] = index[triangles[3 * f + 2]];
+            }
+        }
+        surface.setVertices(newPositions, null, atomIds, references);
+        surface.setTriangles(newTriangles);
+        surface.computenorm();
+
+        // release the working arrays
+        positions = null;
+        quadrics = null;
+        triangles = null;
+        faceAlive = null;
+        vertexAlive = null;
+        border = null;
+        stamps = null;
+        vertexFaces = null;
+        vertexFaceCounts = null;
+        marks = null;
+        heapCosts = new double[0];
+        heapEdges = new int[0];
+        heapSize = 0;
+    }
+}
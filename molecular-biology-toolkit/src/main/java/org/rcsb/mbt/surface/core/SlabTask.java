@@ -0,0 +1,116 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ * 
+ * The code for surface generation was contributed by Dong Xu
+ * and Yang Zhang at the University of Michigan, Ann Arbor. This
+ * class represents the Java version translated from the original C++
+ * code (http://zhanglab.ccmb.med.umich.edu/EDTSurf).
+ * 
+ * Please reference D. Xu, Y. Zhang (2009) 
+ * Generating Triangulated Macromolecular Surfaces by Euclidean 
+ * Distance Transform. PLoS ONE 4(12): e8140.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+
+package org.rcsb.mbt.surface.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.rcsb.mbt.model.util.ParallelExecutor;
+
+
+/**
+ * A loop over the range [0, count) that is cut into slabs, which are run on
+ * a {@link ParallelExecutor}. The slabs must not write to the same data, so the
+ * result does not depend on the number of threads.
+ */
+abstract class SlabTask {
+    private static final int SLABS_PER_THREAD = 4;
+
+    /**
+     * Processes the slab [from, to).
+     */
+    abstract void run(int from, int to);
+
+    /**
+     * Runs all slabs of [0, count) on at most the given number of threads of
+     * the executor and waits for them to finish. With a single thread the
+     * loop runs in the calling thread.
+     */
+    void execute(ParallelExecutor executor, int count, int threads) {
+        final int[] bounds = slabBounds(count, threads);
+        int slabs = bounds.length - 1;
+        if (slabs == 1) {
+            run(0, count);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(slabs);
+        for (int s = 0; s < slabs; s++) {
+            final int from = bounds[s];
+            final int to = bounds[s + 1];
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    SlabTask.this.run(from, to);
+                    return null;
+                }
+            });
+        }
+        executor.invokeAll(tasks, threads);
+    }
+
+    /**
+     * Returns the bounds of the slabs [0, count) is cut into for the given
+     * number of threads: slab s is [bounds[s], bounds[s + 1]).
+     */
+    static int[] slabBounds(int count, int threads) {
+        int slabs = threads <= 1 || count < 2 ? 1 : Math.min(count, threads * SLABS_PER_THREAD);
+        int[] bounds = new int[slabs + 1];
+        for (int s = 0; s <= slabs; s++) {
+            bounds[s] = (int) ((long) count * s / slabs);
+        }
+        return bounds;
+    }
+}
@@ -47,18 +47,15 @@
 package org.rcsb.mbt.surface.core;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import javax.vecmath.Point3f;
 import javax.vecmath.Vector3f;
 
-import org.rcsb.mbt.surface.datastructure.FaceInfo;
 import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.SphereGrid;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
-import org.rcsb.mbt.surface.datastructure.VertInfo;
 
 /**
  *
@@ -66,20 +63,20 @@ import org.rcsb.mbt.surface.datastructure.VertInfo;
  */
 public class SurfacePatchCalculator {
     TriangulatedSurface surface;
-    Map<Integer, Integer> vertexMap = new HashMap<Integer, Integer>(); // maps original vertex indices to the truncated vertex list
+    int[] vertexMap = null; // maps original vertex indices to the truncated vertex list, or -1
 
     public SurfacePatchCalculator(TriangulatedSurface surface, List<Sphere> context, float distanceThreshold) {
         this.surface = surface;
         
         // truncate vertices and faces to the patch site region
-//        System.out.println("before vertices: " + surface.getVertices().size());
+//        System.out.println("before vertices: " + surface.getVertexCount());
 //        long t1 = System.nanoTime();
-        int vertexCount = surface.getVertices().size();
+        int vertexCount = surface.getVertexCount();
         truncateByDistance(context, distanceThreshold);
         
         // if surface patch was cut out of whole surface, clean up the face list, remove
         // small surface patches, and smooth the edge of the surface patch
-        if (surface.getVertices().size() < vertexCount) {
+        if (surface.getVertexCount() < vertexCount) {
         	truncateFaces();
         	removeSmallFragments(0.25f);
         	truncateFaces();
@@ -87,114 +84,129 @@ public class SurfacePatchCalculator {
         	smoothEdges();      
         }
 //        long t2 = System.nanoTime();
-//        System.out.println("truncated vertices after smoothing: " + surface.getVertices().size() + " time: " + ((t2-t1)/1000000000.0));
+//        System.out.println("truncated vertices after smoothing: " + surface.getVertexCount() + " time: " + ((t2-t1)/1000000000.0));
     }
 
     public TriangulatedSurface getSurfacePatch() {
         return surface;
     }
 
+    /**
+     * Keeps the vertices closer than the distance threshold to any of the
+     * context spheres.
+     */
     private void truncateByDistance(List<Sphere> context, float distanceThreshold) {
-    	 List<VertInfo> truncatedVertices = new ArrayList<VertInfo>();
-         List<VertInfo> vertices = surface.getVertices();
-  
-         float thresholdSq = distanceThreshold * distanceThreshold;
+         int n = surface.getVertexCount();
+         int[] selected = new int[n];
+         float[] positions = surface.getPositions();
+         SphereGrid grid = new SphereGrid(context, distanceThreshold);
          
          int vertCount = 0;
-         for (int i = 0, n = vertices.size(); i < n; i++ ) {
-        	 VertInfo v = vertices.get(i);
-             for (Sphere s : context) {
-                 Point3f ps = s.getLocation();       
-                 if (ps.distanceSquared(v.p) < thresholdSq) {
-                     vertexMap.put(i,vertCount);
-                     vertCount++;
-                     truncatedVertices.add(v);
-                     break;
-                 }
+         for (int i = 0; i < n; i++ ) {
+             if (grid.findNear(positions[3*i], positions[3*i+1], positions[3*i+2], distanceThreshold) >= 0) {
+                 selected[vertCount++] = i;
              }
          }
          
-         surface.setVertices(truncatedVertices);
+         selectVertices(selected, vertCount);
+    }
+
+    /**
+     * Keeps the first count vertices listed in selected, in that order,
+     * and records their new indices in the vertex map. The faces still
+     * refer to the old indices until truncateFaces() is called.
+     * @param selected original indices of the vertices to keep
+     * @param count number of vertices to keep
+     */
+    private void selectVertices(int[] selected, int count) {
+        float[] positions = surface.getPositions();
+        float[] normals = surface.getNormals();
+        int[] atomIds = surface.getAtomIds();
+        Object[] references = surface.getReferences();
+
+        float[] truncatedPositions = new float[3 * count];
+        float[] truncatedNormals = new float[3 * count];
+        int[] truncatedAtomIds = new int[count];
+        Object[] truncatedReferences = new Object[count];
+        vertexMap = new int[surface.getVertexCount()];
+        Arrays.fill(vertexMap, -1);
+
+        for (int i = 0; i < count; i++) {
+            int v = selected[i];
+            vertexMap[v] = i;
+            System.arraycopy(positions, 3 * v, truncatedPositions, 3 * i, 3);
+            System.arraycopy(normals, 3 * v, truncatedNormals, 3 * i, 3);
+            truncatedAtomIds[i] = atomIds[v];
+            truncatedReferences[i] = references[v];
+        }
+        surface.setVertices(truncatedPositions, truncatedNormals, truncatedAtomIds, truncatedReferences);
     }
 
     private void truncateFaces() {
-        List<FaceInfo> truncatedFaces = new ArrayList<FaceInfo>();
-        List<FaceInfo> faces = surface.getFaces();
+        int[] triangles = surface.getTriangles();
+        int[] truncatedTriangles = new int[triangles.length];
 
-        for (FaceInfo f: faces) {
-            if (vertexMap.containsKey(f.a) &&
-                vertexMap.containsKey(f.b) &&
-                vertexMap.containsKey(f.c))  {
-                // re-index faces with vertex indices based on truncated vertices
-                f.a = vertexMap.get(f.a);
-                f.b = vertexMap.get(f.b);
-                f.c = vertexMap.get(f.c);
-                truncatedFaces.add(f);
+        int n = 0;
+        for (int i = 0; i < triangles.length; i += 3) {
+            // re-index faces with vertex indices based on truncated vertices
+            int a = vertexMap[triangles[i]];
+            int b = vertexMap[triangles[i + 1]];
+            int c = vertexMap[triangles[i + 2]];
+            if (a >= 0 && b >= 0 && c >= 0) {
+                truncatedTriangles[n++] = a;
+                truncatedTriangles[n++] = b;
+                truncatedTriangles[n++] = c;
             }
         }
-        vertexMap.clear();
-        surface.setFaces(truncatedFaces);
+        vertexMap = null;
+        surface.setTriangles(Arrays.copyOf(truncatedTriangles, n));
     }
     
     private void smoothEdges() {
     	int vertexCount = 0;
     	do {
-    		vertexCount = surface.getVertices().size();
+    		vertexCount = surface.getVertexCount();
    // 		System.out.println("smoothing: " + vertexCount);
     		removeJaggedEdge();
     		truncateFaces();
-    	} while (surface.getVertices().size() < vertexCount);
+    	} while (surface.getVertexCount() < vertexCount);
     }
     
     private void removeJaggedEdge() {
-    	int[] edgeCount = new int[surface.getVertices().size()];
-    	List<FaceInfo> faces = surface.getFaces();
-    	for (FaceInfo f: faces) {
-    		edgeCount[f.a]++;
-    		edgeCount[f.b]++;
-    		edgeCount[f.c]++;
+    	int[] edgeCount = new int[surface.getVertexCount()];
+    	for (int v: surface.getTriangles()) {
+    		edgeCount[v]++;
     	}
     	
-    	List<VertInfo> vertices = surface.getVertices();
-    	List<VertInfo> truncatedVertices = new ArrayList<VertInfo>();
-    	
+    	int[] selected = new int[edgeCount.length];
     	int vertCount = 0;
     	for (int i = 0; i < edgeCount.length; i++) {
     		if (edgeCount[i] > 1) {
-    			vertexMap.put(i,vertCount);
-                vertCount++;
-                truncatedVertices.add(vertices.get(i));
+                selected[vertCount++] = i;
     		}
     	}
-        surface.setVertices(truncatedVertices);
+        selectVertices(selected, vertCount);
     }
     
     /**
-     * Flip triangles and remove triangle with vertex v0
-     *         v0
-     *        / |\
-     *       /  | \
-     * -----v1  | v2---  change to ----v1---v2----
-     *       \  |/                     \   /
-     *        \v3                       \v3
-     *        
-     * @param v0
-     * @param v1
-     * @param v2
-     * @param v3
+     * Returns the faces of each vertex in compressed sparse row form: the
+     * faces of vertex i are map[map[i]] to map[map[i+1]-1], in the order
+     * of the face list.
      */
- 
-    private List<List<FaceInfo>> getVertex2FaceMap() {
-    	List<FaceInfo> faces = surface.getFaces();
-    	List<VertInfo> vertices = surface.getVertices();
-    	List<List<FaceInfo>> map = new ArrayList<List<FaceInfo>>(vertices.size());
-    	for (int i = 0, n = vertices.size(); i < n; i++) {
-    		map.add(new ArrayList<FaceInfo>());
+    private int[] getVertex2FaceMap() {
+    	int[] triangles = surface.getTriangles();
+    	int n = surface.getVertexCount();
+    	int[] map = new int[n + 1 + triangles.length];
+    	map[0] = n + 1;
+    	for (int v: triangles) {
+    		map[v + 1]++;
     	}
-    	for (FaceInfo f: faces) {
-    		map.get(f.a).add(f);
-    		map.get(f.b).add(f);
-    		map.get(f.c).add(f);
+    	for (int i = 0; i < n; i++) {
+    		map[i + 1] += map[i];
+    	}
+    	int[] next = Arrays.copyOf(map, n);
+    	for (int i = 0; i < triangles.length; i++) {
+    		map[next[triangles[i]]++] = i / 3;
     	}
     	return map;
     }
@@ -216,28 +228,27 @@ public class SurfacePatchCalculator {
        	List<Integer> s3 = new ArrayList<Integer>(4);
        	Vector3f v1 = new Vector3f();
        	Vector3f v2 = new Vector3f();
+       	Point3f p0 = new Point3f();
+       	Point3f p1 = new Point3f();
+       	Point3f p2 = new Point3f();
        	
-    	List<List<FaceInfo>> map = getVertex2FaceMap();
-    	List<VertInfo> vertices = surface.getVertices();
-    	for (int i = 0, n = vertices.size(); i < n; i++) {
-    		List<FaceInfo> neighbors = map.get(i);
-    		if (neighbors.size() == 2) {
+    	int[] map = getVertex2FaceMap();
+    	int[] triangles = surface.getTriangles();
+    	for (int i = 0, n = surface.getVertexCount(); i < n; i++) {
+    		if (map[i + 1] - map[i] == 2) {
     			s1.clear();
     			s2.clear();
     			s3.clear();
-    			FaceInfo f1 = neighbors.get(0);
-    			s1.add(f1.a);
-    			s1.add(f1.b);
-    			s1.add(f1.c);
-    			FaceInfo f2 = neighbors.get(1);
-    			s2.add(f2.a);
-    			s2.add(f2.b);
-    			s2.add(f2.c);
+    			int f1 = 3 * map[map[i]];
+    			s1.add(triangles[f1]);
+    			s1.add(triangles[f1 + 1]);
+    			s1.add(triangles[f1 + 2]);
+    			int f2 = 3 * map[map[i] + 1];
+    			s2.add(triangles[f2]);
+    			s2.add(triangles[f2 + 1]);
+    			s2.add(triangles[f2 + 2]);
     			s3.addAll(s1);
     			s3.addAll(s2);
-    		//	System.out.println("i : " + i);
-    		//	System.out.println("s1: " + s1);
-    		//	System.out.println("s2: " + s2);
     			// there should be two vertices in common
     			s1.retainAll(s2);
     			if (s1.size() !=2) 
@@ -246,15 +257,13 @@ public class SurfacePatchCalculator {
     			s3.removeAll(s1);
     			if (s3.size() !=2) 
     				continue;
-    			s1.remove(new Integer(i));
-    		//	System.out.println("Common: "  + s1);
-    		//	System.out.println("Disjoint:" + s3);
-    			Point3f p0 = vertices.get(i).p;
+    			s1.remove(Integer.valueOf(i));
+    			surface.getVertex(i, p0);
     			int i1 = s3.get(0);
     			int i2 = s3.get(1);
     			int i3 = s1.get(0);
-    			Point3f p1 = vertices.get(i1).p;
-    			Point3f p2 = vertices.get(i2).p;
+    			surface.getVertex(i1, p1);
+    			surface.getVertex(i2, p2);
     			v1.sub(p1,p0);
     			v2.sub(p2,p0);
     			float angle = v1.angle(v2);
@@ -265,129 +274,108 @@ public class SurfacePatchCalculator {
     				continue;
     			}
     			if (angle < ANGLE_THRESHOLD) {
-    	//			System.out.println("flip angle: " + Math.toDegrees(angle) + " dot: " + v1.dot(v2));
-//    				System.out.println("f1 orig: " + f1.a + " " + f1.b + " " + f1.c);
-//			    	System.out.println("f2 orig: " + f2.a + " " + f2.b + " " + f2.c);
     				boolean flipped = false;
-    				if (flipFace(f1, i3, i2)) {
-    					flipped = flipFace(f2, i, i1);
-    				} else if (flipFace(f1, i3, i1)) {
-    					flipped = flipFace(f2, i, i2);
+    				if (flipFace(triangles, f1, i3, i2)) {
+    					flipped = flipFace(triangles, f2, i, i1);
+    				} else if (flipFace(triangles, f1, i3, i1)) {
+    					flipped = flipFace(triangles, f2, i, i2);
     				}
     			    if (!flipped) {
     			    	System.err.println("SurfacePatchCalculator: problem with edge flipping");
-//    			    	System.out.println("f1 flip: " + f1.a + " " + f1.b + " " + f1.c);
-//    			    	System.out.println("f2 flip: " + f2.a + " " + f2.b + " " + f2.c);
     			    }
     			}
     			
     		}
     	}
+    	// the faces were changed in place
+    	surface.setTriangles(triangles);
     }
     
     /**
      * Changes vertex v1 to v2 in a face. Returns true if exchange
      * was successful.
-     * @param f
+     * @param triangles
+     * @param f offset of the face in triangles
      * @param v1
      * @param v2
      * @return
      */
-    private boolean flipFace(FaceInfo f, int v1, int v2) {
-    	if (f.a == v1) {
-    		f.a = v2;
-    		return true;
-    	}
-    	if (f.b == v1) {
-    		f.b = v2;
-    		return true;
-    	}
-    	if (f.c == v1) {
-    		f.c = v2;
-    		return true;
+    private boolean flipFace(int[] triangles, int f, int v1, int v2) {
+    	for (int j = f; j < f + 3; j++) {
+    		if (triangles[j] == v1) {
+    			triangles[j] = v2;
+    			return true;
+    		}
     	}
     	return false;
     }
     
     private void removeSmallFragments(float threshold) {
-    	List<VertInfo> vertices = surface.getVertices();
-    	List<VertInfo> truncatedVertices = new ArrayList<VertInfo>();
-    	List<List<Integer>> fragments = calcFragments();
+    	int vertexCount = surface.getVertexCount();
+    	int[] fragments = new int[vertexCount];
+    	int[] fragmentStart = calcFragments(fragments);
+    	int[] selected = new int[vertexCount];
     	int vertCount = 0;
-    	for (List<Integer> fragment: fragments) {
-    		float ratio = (float)fragment.size()/vertices.size();
-//    		System.out.println("Fragment size: " + fragment.size() + " ratio: " + ratio);
+    	for (int f = 0; f < fragmentStart.length - 1; f++) {
+    		int size = fragmentStart[f + 1] - fragmentStart[f];
+    		float ratio = (float)size/vertexCount;
     		if (ratio > threshold) {
-   // 			System.out.println("Keeping fragment: " + fragment.size());
-    			for (Integer f: fragment) {
-    				vertexMap.put(f, vertCount);
-    				vertCount++;
-    				truncatedVertices.add(vertices.get(f));
-    			}
+    			System.arraycopy(fragments, fragmentStart[f], selected, vertCount, size);
+    			vertCount += size;
     		}
     	}
-    	surface.setVertices(truncatedVertices);
+    	selectVertices(selected, vertCount);
     }
     
-    private List<List<Integer>> calcFragments() {
-    	int[][] neighbors = surface.calcNeighborList();
-    	List<List<Integer>> fragments = new ArrayList<List<Integer>>();
-
-    //	List<Integer> queue = Collections.synchronizedList(new LinkedList<Integer>());
-       	List<Integer> queue = new LinkedList<Integer>();
-    	for (int i = 0, n = surface.getVertices().size(); i < n; i++) {
-    		queue.add(new Integer(i));
-    	}
-	
-    	while (queue.size() > 0)	 {
-        	List<Integer> fragment = new ArrayList<Integer>();
-        	fragment.add(queue.get(0));
-        	fragments.add(fragment);
-        
-        	int begin = 0;
-        	int end = fragment.size();
-    		do {
-    			for (int j = begin; j < end; j++) {
-    				addNeighbors(fragment.get(j), neighbors, fragment);
-    			}
-    			begin = end;
-    			end = fragment.size();
-    //			System.out.println("begin: " + begin + " end: " + end);
-    		} while (end > begin);
-    		
-    		queue.removeAll(fragment);
-   // 		System.out.println("queue size: " + queue.size() + " fragment size: " + fragments.size());
-        }
-    	return fragments;
-    }
-
     /**
-     * Adds neigbors of start vertex to the fragment list
-     * @param start index of start vertex
-     * @param neighbors list of neighbors
-     * @param fragment list of vertices in this fragment
+     * Finds the connected parts of the surface by a breadth first search
+     * from the lowest vertex index not yet visited.
+     * @param fragments receives the vertices of all fragments, one fragment
+     * after the other
+     * @return the start of each fragment in fragments, with one extra entry
+     * for the end of the last fragment
      */
-    private void addNeighbors(int start, int[][] neighbors, List<Integer> fragment) {
-    	for (int j = 1; j <= neighbors[0][start]; j++) {
-    		Integer next = neighbors[j][start];
-    		if (! fragment.contains(next)) {
-    			fragment.add(next);
-    	//		System.out.println("start->next: " + start + " -> " + next);
+    private int[] calcFragments(int[] fragments) {
+    	int[] offsets = surface.getNeighborOffsets();
+    	int[] neighbors = surface.getNeighbors();
+    	int n = fragments.length;
+    	boolean[] visited = new boolean[n];
+    	int[] fragmentStart = new int[n + 1];
+    	int fragmentCount = 0;
+
+    	int end = 0;
+    	for (int i = 0; i < n; i++) {
+    		if (visited[i]) {
+    			continue;
+    		}
+    		fragmentStart[fragmentCount++] = end;
+    		visited[i] = true;
+    		fragments[end++] = i;
+    		for (int j = fragmentStart[fragmentCount - 1]; j < end; j++) {
+    			int v = fragments[j];
+    			for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+    				int next = neighbors[k];
+    				if (!visited[next]) {
+    					visited[next] = true;
+    					fragments[end++] = next;
+    				}
+    			}
     		}
     	}
+    	fragmentStart[fragmentCount] = end;
+    	return Arrays.copyOf(fragmentStart, fragmentCount + 1);
     }
 
+    /**
+     * Returns the spheres of the patch that are closer than the distance
+     * threshold to any of the context spheres, in patch order.
+     */
     public static List<Sphere> calcSurroundings(List<Sphere> patch, List<Sphere> context, float distanceThreshold) {
         List<Sphere> surroundings = new ArrayList<Sphere>();
-        float thresholdSq = distanceThreshold * distanceThreshold;
+        SphereGrid grid = new SphereGrid(context, distanceThreshold);
         for (Sphere s : patch) {
-            Point3f ps = s.getLocation();
-            for (Sphere p: context) {
-                Point3f pp = p.getLocation();
-                if (ps.distanceSquared(pp) < thresholdSq) {
-                    surroundings.add(s);
-                    break;
-                }
+            if (grid.isNear(s.getLocation(), distanceThreshold)) {
+                surroundings.add(s);
             }
         }
 
@@ -0,0 +1,483 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ * 
+ * The code for surface generation was contributed by Dong Xu
+ * and Yang Zhang at the University of Michigan, Ann Arbor. This
+ * class represents the Java version translated from the original C++
+ * code (http://zhanglab.ccmb.med.umich.edu/EDTSurf).
+ * 
+ * Please reference D. Xu, Y. Zhang (2009) 
+ * Generating Triangulated Macromolecular Surfaces by Euclidean 
+ * Distance Transform. PLoS ONE 4(12): e8140.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ */
+
+package org.rcsb.mbt.surface.datastructure;
+
+import java.util.Arrays;
+
+/**
+ * A bounding volume hierarchy over the faces of a TriangulatedSurface, for
+ * ray casts (e.g. picking, or comparing two surfaces) and closest point
+ * queries (e.g. coloring by the distance to another surface).
+ * <p>
+ * The tree is built once by splitting the faces at the median of their
+ * centroids along the longest axis, down to leaves of a few faces, and is
+ * stored in flat arrays: node n has the bounding box bounds[6*n] to
+ * bounds[6*n+5] (min x, y, z, max x, y, z). A leaf holds faces[first[n]]
+ * to faces[first[n]+count[n]-1]; an inner node (count[n] == 0) has the
+ * children n+1 and first[n].
+ * <p>
+ * The hierarchy refers to the vertex and face arrays of the surface, so it
+ * must be rebuilt when the surface changes (e.g. by smoothing). Queries
+ * don't allocate: they keep their results and their traversal stack in a
+ * {@link Hit}, which can be reused. The hierarchy doesn't change after it
+ * is built, so it can be searched from several threads, each with its own
+ * Hit.
+ */
+public class BoundingVolumeHierarchy {
+    private static final int LEAF_SIZE = 4;
+    // the median split halves the faces, so the depth stays below 32
+    private static final int STACK_SIZE = 64;
+
+    private final float[] positions;
+    private final int[] triangles;
+    private final int[] faces;
+    private float[] bounds;
+    private int[] first;
+    private int[] count;
+    private int nodeCount = 0;
+
+    /**
+     * The result of a query, and the work space of the traversal.
+     */
+    public static final class Hit {
+        /** the face hit, or -1 */
+        public int face = -1;
+        /**
+         * the ray parameter of the hit point (origin + distance * direction),
+         * or the distance to the closest point
+         */
+        public float distance;
+        /** the barycentric weights of the second and third vertex of the face */
+        public float u, v;
+        /** the hit point */
+        public float x, y, z;
+
+        private final int[] stack = new int[STACK_SIZE];
+    }
+
+    public BoundingVolumeHierarchy(TriangulatedSurface surface) {
+        positions = surface.getPositions();
+        triangles = surface.getTriangles();
+        int faceCount = surface.getFaceCount();
+        faces = new int[faceCount];
+        for (int f = 0; f < faceCount; f++) {
+            faces[f] = f;
+        }
+
+        // leaves have at least LEAF_SIZE/2 faces, so there are fewer nodes than faces
+        int capacity = Math.max(1, faceCount);
+        bounds = new float[6 * capacity];
+        first = new int[capacity];
+        count = new int[capacity];
+
+        float[] centroids = new float[3 * faceCount];
+        for (int f = 0; f < faceCount; f++) {
+            for (int k = 0; k < 3; k++) {
+                centroids[3 * f + k] = positions[3 * triangles[3 * f] + k]
+                        + positions[3 * triangles[3 * f + 1] + k]
+                        + positions[3 * triangles[3 * f + 2] + k];
+            }
+        }
+        if (faceCount > 0) {
+            build(0, faceCount, centroids);
+        }
+
+        bounds = Arrays.copyOf(bounds, 6 * nodeCount);
+        first = Arrays.copyOf(first, nodeCount);
+        count = Arrays.copyOf(count, nodeCount);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Builds the subtree of the faces [start, end) and returns its node.
+     */
+    private int build(int start, int end, float[] centroids) {
+        int node = nodeCount++;
+        int b = 6 * node;
+        bounds[b] = bounds[b + 1] = bounds[b + 2] = Float.POSITIVE_INFINITY;
+        bounds[b + 3] = bounds[b + 4] = bounds[b + 5] = Float.NEGATIVE_INFINITY;
+        float[] centroidMin = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] centroidMax = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int i = start; i < end; i++) {
+            int f = faces[i];
+            for (int corner = 0; corner < 3; corner++) {
+                int p = 3 * triangles[3 * f + corner];
+                for (int k = 0; k < 3; k++) {
+                    bounds[b + k] = Math.min(bounds[b + k], positions[p + k]);
+                    bounds[b + 3 + k] = Math.max(bounds[b + 3 + k], positions[p + k]);
+                }
+            }
+            for (int k = 0; k < 3; k++) {
+                centroidMin[k] = Math.min(centroidMin[k], centroids[3 * f + k]);
+                centroidMax[k] = Math.max(centroidMax[k], centroids[3 * f + k]);
+            }
+        }
+
+        int axis = 0;
+        for (int k = 1; k < 3; k++) {
+            if (centroidMax[k] - centroidMin[k] > centroidMax[axis] - centroidMin[axis]) {
+                axis = k;
+            }
+        }
+        if (end - start <= LEAF_SIZE || !(centroidMax[axis] > centroidMin[axis])) {
+            first[node] = start;
+            count[node] = end - start;
+            return node;
+        }
+
+        int mid = (start + end) >>> 1;
+        select(start, end, mid, centroids, axis);
+        build(start, mid, centroids);
+        first[node] = build(mid, end, centroids);
+        count[node] = 0;
+        return node;
+    }
+
+    /**
+     * Reorders faces[start, end) so that faces[mid] has the centroid it
+     * would have if they were sorted along the axis, with no larger ones
+     * before it and no smaller ones after it (quickselect).
+     */
+    private void select(int start, int end, int mid, float[] centroids, int axis) {
+        int lo = start;
+        int hi = end - 1;
+        while (lo < hi) {
+            float pivot = centroids[3 * faces[(lo + hi) >>> 1] + axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (centroids[3 * faces[i] + axis] < pivot) {
+                    i++;
+                }
+                while (centroids[3 * faces[j] + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int t = faces[i];
+                    faces[i] = faces[j];
+                    faces[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (mid <= j) {
+                hi = j;
+            } else if (mid >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Finds the nearest face hit by the ray origin + t * direction with
+     * 0 &lt;= t &lt;= maxDistance. The direction needn't be normalized; the
+     * ray parameter t of the hit is returned in hit.distance.
+     * @return the face hit, or -1
+     */
+    public int intersectRay(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance, Hit hit) {
+        hit.face = -1;
+        if (nodeCount == 0 || (dx == 0 && dy == 0 && dz == 0)) {
+            return -1;
+        }
+        float ix = 1.0f / dx;
+        float iy = 1.0f / dy;
+        float iz = 1.0f / dz;
+        float best = maxDistance;
+
+        int[] stack = hit.stack;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!intersectsBox(node, ox, oy, oz, ix, iy, iz, best)) {
+                continue;
+            }
+            if (count[node] > 0) {
+                for (int i = first[node], end = first[node] + count[node]; i < end; i++) {
+                    int f = faces[i];
+                    int a = 3 * triangles[3 * f];
+                    int b = 3 * triangles[3 * f + 1];
+                    int c = 3 * triangles[3 * f + 2];
+                    // Moeller-Trumbore
+                    float e1x = positions[b] - positions[a];
+                    float e1y = positions[b + 1] - positions[a + 1];
+                    float e1z = positions[b + 2] - positions[a + 2];
+                    float e2x = positions[c] - positions[a];
+                    float e2y = positions[c + 1] - positions[a + 1];
+                    float e2z = positions[c + 2] - positions[a + 2];
+                    float px = dy * e2z - dz * e2y;
+                    float py = dz * e2x - dx * e2z;
+                    float pz = dx * e2y - dy * e2x;
+                    float det = e1x * px + e1y * py + e1z * pz;
+                    if (det == 0) {
+                        continue;
+                    }
+                    float inv = 1.0f / det;
+                    float sx = ox - positions[a];
+                    float sy = oy - positions[a + 1];
+                    float sz = oz - positions[a + 2];
+                    float u = (sx * px + sy * py + sz * pz) * inv;
+                    if (u < 0 || u > 1) {
+                        continue;
+                    }
+                    float qx = sy * e1z - sz * e1y;
+                    float qy = sz * e1x - sx * e1z;
+                    float qz = sx * e1y - sy * e1x;
+                    float v = (dx * qx + dy * qy + dz * qz) * inv;
+                    if (v < 0 || u + v > 1) {
+                        continue;
+                    }
+                    float t = (e2x * qx + e2y * qy + e2z * qz) * inv;
+                    if (t < 0 || t > best) {
+                        continue;
+                    }
+                    best = t;
+                    hit.face = f;
+                    hit.u = u;
+                    hit.v = v;
+                }
+            } else {
+                // visit the child nearer to the origin first
+                int left = node + 1;
+                int right = first[node];
+                if (distanceSquaredToBox(left, ox, oy, oz) <= distanceSquaredToBox(right, ox, oy, oz)) {
+                    stack[top++] = right;
+                    stack[top++] = left;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = right;
+                }
+            }
+        }
+
+        if (hit.face >= 0) {
+            hit.distance = best;
+            hit.x = ox + best * dx;
+            hit.y = oy + best * dy;
+            hit.z = oz + best * dz;
+        }
+        return hit.face;
+    }
+
+    /**
+     * Slab test of the ray against the box of a node, for 0 &lt;= t &lt;=
+     * maxDistance. Comparisons with NaN (a ray in the plane of a side)
+     * are false and leave the interval as it is.
+     */
+    private boolean intersectsBox(int node, float ox, float oy, float oz, float ix, float iy, float iz, float maxDistance) {
+        int b = 6 * node;
+        float near = 0;
+        float far = maxDistance;
+
+        float t1 = (bounds[b] - ox) * ix;
+        float t2 = (bounds[b + 3] - ox) * ix;
+        if (t1 > t2) { float t = t1; t1 = t2; t2 = t; }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+
+        t1 = (bounds[b + 1] - oy) * iy;
+        t2 = (bounds[b + 4] - oy) * iy;
+        if (t1 > t2) { float t = t1; t1 = t2; t2 = t; }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+
+        t1 = (bounds[b + 2] - oz) * iz;
+        t2 = (bounds[b + 5] - oz) * iz;
+        if (t1 > t2) { float t = t1; t1 = t2; t2 = t; }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+
+        return near <= far;
+    }
+
+    private float distanceSquaredToBox(int node, float x, float y, float z) {
+        int b = 6 * node;
+        float dx = Math.max(0, Math.max(bounds[b] - x, x - bounds[b + 3]));
+        float dy = Math.max(0, Math.max(bounds[b + 1] - y, y - bounds[b + 4]));
+        float dz = Math.max(0, Math.max(bounds[b + 2] - z, z - bounds[b + 5]));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Finds the point of the surface closest to (x, y, z) that is no further
+     * than maxDistance. The distance is returned in hit.distance.
+     * @return the face of the closest point, or -1
+     */
+    public int findClosestPoint(float x, float y, float z, float maxDistance, Hit hit) {
+        hit.face = -1;
+        if (nodeCount == 0) {
+            return -1;
+        }
+        float best = maxDistance * maxDistance;
+
+        int[] stack = hit.stack;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (distanceSquaredToBox(node, x, y, z) > best) {
+                continue;
+            }
+            if (count[node] > 0) {
+                for (int i = first[node], end = first[node] + count[node]; i < end; i++) {
+                    int f = faces[i];
+                    float d = closestPointOnFace(f, x, y, z, best, hit);
+                    if (d <= best) {
+                        best = d;
+                        hit.face = f;
+                    }
+                }
+            } else {
+                int left = node + 1;
+                int right = first[node];
+                if (distanceSquaredToBox(left, x, y, z) <= distanceSquaredToBox(right, x, y, z)) {
+                    stack[top++] = right;
+                    stack[top++] = left;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = right;
+                }
+            }
+        }
+
+        if (hit.face >= 0) {
+            hit.distance = (float) Math.sqrt(best);
+        }
+        return hit.face;
+    }
+
+    /**
+     * Returns the squared distance from (x, y, z) to the closest point of a
+     * face, and stores the point in hit if the distance is not above best
+     * (C. Ericson (2005) Real-Time Collision Detection, 5.1.5).
+     */
+    private float closestPointOnFace(int f, float x, float y, float z, float best, Hit hit) {
+        int a = 3 * triangles[3 * f];
+        int b = 3 * triangles[3 * f + 1];
+        int c = 3 * triangles[3 * f + 2];
+        float abx = positions[b] - positions[a];
+        float aby = positions[b + 1] - positions[a + 1];
+        float abz = positions[b + 2] - positions[a + 2];
+        float acx = positions[c] - positions[a];
+        float acy = positions[c + 1] - positions[a + 1];
+        float acz = positions[c + 2] - positions[a + 2];
+        float apx = x - positions[a];
+        float apy = y - positions[a + 1];
+        float apz = z - positions[a + 2];
+
+        float u, v;
+        float d1 = abx * apx + aby * apy + abz * apz;
+        float d2 = acx * apx + acy * apy + acz * apz;
+        if (d1 <= 0 && d2 <= 0) {
+            u = 0;
+            v = 0;
+        } else {
+            float bpx = x - positions[b];
+            float bpy = y - positions[b + 1];
+            float bpz = z - positions[b + 2];
+            float d3 = abx * bpx + aby * bpy + abz * bpz;
+            float d4 = acx * bpx + acy * bpy + acz * bpz;
+            float cpx = x - positions[c];
+            float cpy = y - positions[c + 1];
+            float cpz = z - positions[c + 2];
+            float d5 = abx * cpx + aby * cpy + abz * cpz;
+            float d6 = acx * cpx + acy * cpy + acz * cpz;
+            float vc = d1 * d4 - d3 * d2;
+            float vb = d5 * d2 - d1 * d6;
+            float va = d3 * d6 - d5 * d4;
+            if (d3 >= 0 && d4 <= d3) {
+                u = 1;
+                v = 0;
+            } else if (d6 >= 0 && d5 <= d6) {
+                u = 0;
+                v = 1;
+            } else if (vc <= 0 && d1 >= 0 && d3 <= 0) {
+                u = d1 / (d1 - d3);
+                v = 0;
+            } else if (vb <= 0 && d2 >= 0 && d6 <= 0) {
+                u = 0;
+                v = d2 / (d2 - d6);
+            } else if (va <= 0 && (d4 - d3) >= 0 && (d5 - d6) >= 0) {
+                v = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+                u = 1 - v;
+            } else {
+                float denom = 1.0f / (va + vb + vc);
+                u = vb * denom;
+                v = vc * denom;
+            }
+        }
+
+        float qx = positions[a] + u * abx + v * acx;
+        float qy = positions[a + 1] + u * aby + v * acy;
+        float qz = positions[a + 2] + u * abz + v * acz;
+        float dx = x - qx;
+        float dy = y - qy;
+        float dz = z - qz;
+        float d = dx * dx + dy * dy + dz * dz;
+        if (d <= best) {
+            hit.u = u;
+            hit.v = v;
+            hit.x = qx;
+            hit.y = qy;
+            hit.z = qz;
+        }
+        return d;
+    }
+}
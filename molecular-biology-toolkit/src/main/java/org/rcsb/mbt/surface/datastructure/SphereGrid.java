@@ -0,0 +1,154 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ * 
+ * The code for surface generation was contributed by Dong Xu
+ * and Yang Zhang at the University of Michigan, Ann Arbor. This
+ * class represents the Java version translated from the original C++
+ * code (http://zhanglab.ccmb.med.umich.edu/EDTSurf).
+ * 
+ * Please reference D. Xu, Y. Zhang (2009) 
+ * Generating Triangulated Macromolecular Surfaces by Euclidean 
+ * Distance Transform. PLoS ONE 4(12): e8140.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ */
+
+package org.rcsb.mbt.surface.datastructure;
+
+import java.util.List;
+
+import javax.vecmath.Point3f;
+
+import org.rcsb.mbt.model.util.CellGrid;
+
+/**
+ * Finds out quickly whether a point is near the center of any of a list of
+ * spheres. The centers are kept in a {@link CellGrid}, which picks the
+ * candidates; each candidate is then tested with the same float arithmetic
+ * as Point3f.distanceSquared(), so a query gives exactly the answer of
+ * testing the point against every sphere. The grid doesn't change after it
+ * is built and can be searched from several threads.
+ */
+public class SphereGrid {
+    private static final float MIN_CELL_SIZE = 1.0f;
+
+    // the candidate ranges of a query, per thread
+    private static final ThreadLocal<CellGrid.IntList> RANGES = new ThreadLocal<CellGrid.IntList>() {
+        @Override
+        protected CellGrid.IntList initialValue() {
+            return new CellGrid.IntList();
+        }
+    };
+
+    private final int count;
+    private final CellGrid grid;
+    // sphere indices and centers in the cell order of the grid
+    private final int[] cellSpheres;
+    private final float[] cellCenters;
+
+    /**
+     * Builds a grid with cells of (at least) the given size; a cell size
+     * equal to the query distance is best.
+     */
+    public SphereGrid(List<Sphere> spheres, float cellSize) {
+        count = spheres.size();
+        double[] coordinates = new double[3 * count];
+        for (int i = 0; i < count; i++) {
+            Point3f p = spheres.get(i).getLocation();
+            coordinates[3 * i] = p.x;
+            coordinates[3 * i + 1] = p.y;
+            coordinates[3 * i + 2] = p.z;
+        }
+        grid = new CellGrid(coordinates, count, cellSize > MIN_CELL_SIZE ? cellSize : MIN_CELL_SIZE);
+
+        cellSpheres = grid.getCellPoints();
+        cellCenters = new float[3 * count];
+        for (int p = 0; p < count; p++) {
+            Point3f center = spheres.get(cellSpheres[p]).getLocation();
+            cellCenters[3 * p] = center.x;
+            cellCenters[3 * p + 1] = center.y;
+            cellCenters[3 * p + 2] = center.z;
+        }
+    }
+
+    public int getSphereCount() {
+        return count;
+    }
+
+    public float getCellSize() {
+        return (float) grid.getCellSize();
+    }
+
+    /**
+     * Returns true if the center of any sphere is closer to p than the given
+     * distance, i.e., p.distanceSquared(center) &lt; distance * distance.
+     */
+    public boolean isNear(Point3f p, float distance) {
+        return findNear(p.x, p.y, p.z, distance) >= 0;
+    }
+
+    /**
+     * Returns the index of the first sphere found whose center is
+     * closer to (x, y, z) than the given distance, or -1 if there is none.
+     */
+    public int findNear(float x, float y, float z, float distance) {
+        float distanceSq = distance * distance;
+        // a little slack, so rounding can't leave out a candidate
+        double reach = Math.abs(distance) * 1.001 + 0.001;
+        CellGrid.IntList candidates = RANGES.get();
+        grid.findCandidates(x, y, z, reach, candidates);
+        float[] centers = cellCenters;
+        for (int r = 0; r < candidates.size(); r += 2) {
+            int last = candidates.get(r + 1);
+            for (int p = candidates.get(r); p < last; p++) {
+                // as in Point3f.distanceSquared()
+                float dx = x - centers[3 * p];
+                float dy = y - centers[3 * p + 1];
+                float dz = z - centers[3 * p + 2];
+                if (dx * dx + dy * dy + dz * dz < distanceSq) {
+                    return cellSpheres[p];
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -54,10 +54,8 @@
 package org.rcsb.mbt.surface.datastructure;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
 
 import javax.vecmath.Point3f;
 import javax.vecmath.Vector3f;
@@ -65,56 +63,214 @@ import javax.vecmath.Vector3f;
 /**
  * Represents a triangulated surface defined by a list of vertices
  * and faces.
- * 
+ * <p>
+ * The mesh is stored in flat arrays: x, y, z of vertex i are found at
+ * positions[3*i], positions[3*i+1] and positions[3*i+2] (normals alike),
+ * and the vertex indices of face f at triangles[3*f] to triangles[3*f+2].
+ * The vertex adjacency is kept in compressed sparse row form: the neighbors
+ * of vertex i are neighbors[neighborOffsets[i]] to
+ * neighbors[neighborOffsets[i+1]-1]. It is built on first use and cached
+ * until the faces change.
+ * <p>
+ * getVertices() and getFaces() return copies of the mesh for code written
+ * against the VertInfo and FaceInfo lists; changes to the copies are not
+ * written back unless they are passed to setVertices() or setFaces().
+ *
  * @author Peter Rose
  */
 public class TriangulatedSurface {
 	private static float EPSILON = 10 * Math.ulp(1.0f);
-	private static Vector3f ZERO = new Vector3f(0,0,0);
 
-    private List<VertInfo> vertices = new ArrayList<VertInfo>(0);
-    private List<FaceInfo> faces = new ArrayList<FaceInfo>(0);
+    private float[] positions = new float[0];
+    private float[] normals = new float[0];
+    private int[] atomIds = new int[0];
+    private Object[] references = new Object[0];
+    private int[] triangles = new int[0];
+
+    private int[] neighborOffsets = null;
+    private int[] neighbors = null;
+
+    /**
+     * Sets the vertices of this surface. The arrays are used, not copied.
+     * @param positions x, y, z coordinates of the vertices
+     * @param normals x, y, z components of the vertex normals, or null
+     * @param atomIds atom id of each vertex, or null
+     * @param references reference (i.e., the atom) of each vertex, or null
+     */
+    public void setVertices(float[] positions, float[] normals, int[] atomIds, Object[] references) {
+        int vertexCount = positions.length / 3;
+        this.positions = positions;
+        this.normals = normals == null ? new float[3 * vertexCount] : normals;
+        this.atomIds = atomIds == null ? new int[vertexCount] : atomIds;
+        this.references = references == null ? new Object[vertexCount] : references;
+        clearNeighbors();
+    }
+
+    /**
+     * Sets the faces of this surface. The array is used, not copied.
+     * @param triangles vertex indices a, b, c of each face
+     */
+    public void setTriangles(int[] triangles) {
+        this.triangles = triangles;
+        clearNeighbors();
+    }
 
     public void setVertices(List<VertInfo> vertices) {
-        this.vertices = vertices;
+        int n = vertices.size();
+        float[] positions = new float[3 * n];
+        float[] normals = new float[3 * n];
+        int[] atomIds = new int[n];
+        Object[] references = new Object[n];
+        for (int i = 0; i < n; i++) {
+            VertInfo v = vertices.get(i);
+            positions[3 * i] = v.p.x;
+            positions[3 * i + 1] = v.p.y;
+            positions[3 * i + 2] = v.p.z;
+            normals[3 * i] = v.normal.x;
+            normals[3 * i + 1] = v.normal.y;
+            normals[3 * i + 2] = v.normal.z;
+            atomIds[i] = v.atomid;
+            references[i] = v.reference;
+        }
+        setVertices(positions, normals, atomIds, references);
     }
 
     public void setFaces(List<FaceInfo> faces) {
-        this.faces = faces;
+        int n = faces.size();
+        int[] triangles = new int[3 * n];
+        for (int i = 0; i < n; i++) {
+            FaceInfo f = faces.get(i);
+            triangles[3 * i] = f.a;
+            triangles[3 * i + 1] = f.b;
+            triangles[3 * i + 2] = f.c;
+        }
+        setTriangles(triangles);
     }
 
+    /**
+     * Returns a copy of the vertices. Changes to the list are not
+     * reflected in this surface.
+     */
     public List<VertInfo> getVertices() {
+        int n = getVertexCount();
+        List<VertInfo> vertices = new ArrayList<VertInfo>(n);
+        for (int i = 0; i < n; i++) {
+            VertInfo v = new VertInfo();
+            getVertex(i, v.p);
+            getNormal(i, v.normal);
+            v.atomid = atomIds[i];
+            v.reference = references[i];
+            vertices.add(v);
+        }
         return vertices;
     }
 
+    /**
+     * Returns a copy of the faces. Changes to the list are not
+     * reflected in this surface.
+     */
     public List<FaceInfo> getFaces() {
+        int n = getFaceCount();
+        List<FaceInfo> faces = new ArrayList<FaceInfo>(n);
+        for (int i = 0; i < n; i++) {
+            FaceInfo f = new FaceInfo();
+            f.a = triangles[3 * i];
+            f.b = triangles[3 * i + 1];
+            f.c = triangles[3 * i + 2];
+            faces.add(f);
+        }
         return faces;
     }
-    
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getFaceCount() {
+        return triangles.length / 3;
+    }
+
+    /**
+     * Returns the vertex coordinates. Call computenorm() or setVertices()
+     * after changing them.
+     */
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public float[] getNormals() {
+        return normals;
+    }
+
+    public int[] getAtomIds() {
+        return atomIds;
+    }
+
+    public Object[] getReferences() {
+        return references;
+    }
+
+    /**
+     * Returns the vertex indices of the faces. Call setTriangles() after
+     * changing them.
+     */
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    public Point3f getVertex(int index, Point3f p) {
+        p.set(positions[3 * index], positions[3 * index + 1], positions[3 * index + 2]);
+        return p;
+    }
+
+    public Vector3f getNormal(int index, Vector3f n) {
+        n.set(normals[3 * index], normals[3 * index + 1], normals[3 * index + 2]);
+        return n;
+    }
+
+    public int getAtomId(int index) {
+        return atomIds[index];
+    }
+
+    public Object getReference(int index) {
+        return references[index];
+    }
+
+    /**
+     * Returns the start of the neighbors of each vertex in getNeighbors(),
+     * with one extra entry for the end of the last vertex.
+     */
+    public int[] getNeighborOffsets() {
+        if (neighborOffsets == null) {
+            calcNeighbors();
+        }
+        return neighborOffsets;
+    }
+
+    public int[] getNeighbors() {
+        if (neighbors == null) {
+            calcNeighbors();
+        }
+        return neighbors;
+    }
+
+    public int getDegree(int index) {
+        int[] offsets = getNeighborOffsets();
+        return offsets[index + 1] - offsets[index];
+    }
+
     public List<LineInfo> getLines() {
-    	Set<LineInfo> lines = new HashSet<LineInfo>();
-    	for (FaceInfo f: faces) {
-    		// make sure to add each line only once
-    		LineInfo lab = new LineInfo(f.a,f.b);
-    		if (! lines.contains(lab)) {
-    			lines.add(lab);
-    		} else {
-    			lab = null;
-    		}
-    		LineInfo lac = new LineInfo(f.a,f.c);
-    		if (! lines.contains(lac)) {
-    			lines.add(lac);
-    		} else {
-    			lac = null;
-    		}
-    		LineInfo lbc = new LineInfo(f.b,f.c);
-    		if (! lines.contains(lbc)) {
-    			lines.add(lbc);
-    		} else {
-    			lbc = null;
-    		}
-    	}
-    	return new ArrayList<LineInfo>(lines);
+        int[] offsets = getNeighborOffsets();
+        List<LineInfo> lines = new ArrayList<LineInfo>(neighbors.length / 2);
+        for (int i = 0, n = getVertexCount(); i < n; i++) {
+            // each line is listed by both of its vertices, add it only once
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (i < neighbors[j]) {
+                    lines.add(new LineInfo(i, neighbors[j]));
+                }
+            }
+        }
+        return lines;
     }
 
     /**
@@ -123,358 +279,290 @@ public class TriangulatedSurface {
      * @return area of the face (triangle)
      */
     public float getFaceArea(int faceIndex) {
-        int fa = faces.get(faceIndex).a;
-        int fb = faces.get(faceIndex).b;
-        int fc = faces.get(faceIndex).c;
-        float d1 = vertices.get(fa).p.distance(vertices.get(fb).p);
-        float d2 = vertices.get(fb).p.distance(vertices.get(fc).p);
-        float d3 = vertices.get(fc).p.distance(vertices.get(fa).p);
+        int fa = 3 * triangles[3 * faceIndex];
+        int fb = 3 * triangles[3 * faceIndex + 1];
+        int fc = 3 * triangles[3 * faceIndex + 2];
+        float d1 = distance(fa, fb);
+        float d2 = distance(fb, fc);
+        float d3 = distance(fc, fa);
         float s = 0.5f * (d1 + d2 + d3); // half of the perimeter
-        float tmp = s * (s-d1) * (s-d2) * (s-d3);
-//        if (Float.isNaN(d1)) {
-//        	System.out.println("A: " + vertices.get(fa).p + " - B: " + vertices.get(fb).p);
-//        }
-      //  if (Float.isNaN((float)Math.sqrt(s * (s-d1) * (s-d2) * (s-d3)))) {
-      //  	System.out.println("NaN in SurfaceArea: " + d1 + " " + d2 + " " + d3);
-      //  }
         return (float) Math.sqrt(s * (s-d1) * (s-d2) * (s-d3));
     }
 
+    private float distance(int i, int j) {
+        float dx = positions[i] - positions[j];
+        float dy = positions[i + 1] - positions[j + 1];
+        float dz = positions[i + 2] - positions[j + 2];
+        return (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+    }
+
     /**
      * Calculates the surface area.
      * @return surface area
      */
     public float getSurfaceArea() {
         float area = 0.0f;
-        for (int i = 0, n = faces.size(); i < n; i++) {
+        for (int i = 0, n = getFaceCount(); i < n; i++) {
             area += getFaceArea(i);
         }
- //       System.out.println("getSurfaceArea: " + area);
         return area;
     }
 
     public Point3f getCentroid() {
     	Point3f centroid = new Point3f();
-    	for (VertInfo v: vertices) {
-    		centroid.add(v.p);
+    	int n = getVertexCount();
+    	for (int i = 0; i < 3 * n; i += 3) {
+    		centroid.x += positions[i];
+    		centroid.y += positions[i + 1];
+    		centroid.z += positions[i + 2];
     	}
-//    	System.out.println("Centroid sum: " + centroid);
-    	if (vertices.size() > 0) {
-    		centroid.scale(1.0f/vertices.size());
+    	if (n > 0) {
+    		centroid.scale(1.0f/n);
     	}
-//    	System.out.println("Centroid scaled: " + centroid);
     	return centroid;
     }
-    
+
     public Vector3f getCompositeNormal() {
     	Vector3f normal = new Vector3f();
-    	for (VertInfo v: vertices) {
-    		normal.add(v.normal);
+    	for (int i = 0, n = 3 * getVertexCount(); i < n; i += 3) {
+    		normal.x += normals[i];
+    		normal.y += normals[i + 1];
+    		normal.z += normals[i + 2];
     	}
     	normal.normalize();
     	return normal;
     }
-    
+
     public void computenorm() {
         Vector3f ab = new Vector3f();
         Vector3f ac = new Vector3f();
+        Vector3f pn = new Vector3f();
 
-        for (VertInfo v : vertices) {
-            v.normal.set(0.0f, 0.0f, 0.0f);
+        if (normals.length != positions.length) {
+            normals = new float[positions.length];
+        } else {
+            Arrays.fill(normals, 0.0f);
         }
 
-        for (FaceInfo f : faces) {
-            VertInfo va = vertices.get(f.a);
-            VertInfo vb = vertices.get(f.b);
-            VertInfo vc = vertices.get(f.c);
-            ab.sub(vb.p, va.p);
-            ac.sub(vc.p, va.p);
+        for (int i = 0, n = triangles.length; i < n; i += 3) {
+            int a = 3 * triangles[i];
+            int b = 3 * triangles[i + 1];
+            int c = 3 * triangles[i + 2];
+            ab.x = positions[b] - positions[a];
+            ab.y = positions[b + 1] - positions[a + 1];
+            ab.z = positions[b + 2] - positions[a + 2];
+            ac.x = positions[c] - positions[a];
+            ac.y = positions[c + 1] - positions[a + 1];
+            ac.z = positions[c + 2] - positions[a + 2];
             fixSmallNumbers(ab);
             fixSmallNumbers(ac);
-            f.pn.cross(ab, ac);
-            f.pn.normalize();
-            if (!Float.isNaN(f.pn.x) && !Float.isNaN(f.pn.y) && !Float.isNaN(f.pn.z)) {
-            	va.normal.add(f.pn);
-            	vb.normal.add(f.pn);
-            	vc.normal.add(f.pn);
-            } else {
- //           	System.out.println("Component of normal is NaN");
+            pn.cross(ab, ac);
+            pn.normalize();
+            if (!Float.isNaN(pn.x) && !Float.isNaN(pn.y) && !Float.isNaN(pn.z)) {
+            	addNormal(a, pn);
+            	addNormal(b, pn);
+            	addNormal(c, pn);
             }
         }
-        for (VertInfo v : vertices) {
-            v.normal.normalize();
+        for (int i = 0, n = normals.length; i < n; i += 3) {
+            pn.set(normals[i], normals[i + 1], normals[i + 2]);
+            pn.normalize();
+            normals[i] = pn.x;
+            normals[i + 1] = pn.y;
+            normals[i + 2] = pn.z;
         }
     }
 
+    private void addNormal(int i, Vector3f pn) {
+        normals[i] += pn.x;
+        normals[i + 1] += pn.y;
+        normals[i + 2] += pn.z;
+    }
+
 	/**
 	 * @param v
 	 */
 	private void fixSmallNumbers(Vector3f v) {
 		if (Math.abs(v.x) < EPSILON) {
-		//	System.out.println("fixing normal v.x");
 			v.x = EPSILON * Math.signum(v.x);
 		}
 		if (Math.abs(v.y) < EPSILON) {
-		//	System.out.println("fixing normal v.y");
 			v.y = EPSILON * Math.signum(v.x);
 		}
 		if (Math.abs(v.z) < EPSILON) {
-		//	System.out.println("fixing normal v.z");
 			v.z = EPSILON * Math.signum(v.x);
 		}
 	}
-	
+
     public void laplaciansmooth(int numiter) {
+        smooth(numiter, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Smoothes vertices with 3 to 5 neighbors, which are found at the
+     * rim of a surface patch, without moving them along the normals.
+     * @param numiter
+     */
+    public void edgesmooth(int numiter) {
+        smooth(numiter, 5, false);
+    }
 
+    /**
+     * Moves each vertex with at least 3 and at most maxDegree neighbors to the
+     * weighted average of itself and its neighbors.
+     * @param numiter number of iterations
+     * @param maxDegree vertices with more neighbors are not moved
+     * @param offset if true, vertices are moved out along their normals
+     * after each iteration to preserve the area
+     */
+    private void smooth(int numiter, int maxDegree, boolean offset) {
     	// TODO
  //       float scalefactor = 4.0f; // note, this is the original scalefactor from EDTSurf, How should it be set???
         // coords used here are the actual coordinates, not the scaled coordinates
- 
+
     	// typically, the scalefactor is around 2. or lower
     	float scalefactor = 2.0f;
-    	int vertnumber = vertices.size();
-        Point3f[] tps = new Point3f[vertnumber];
-        for (int i = 0; i < tps.length; i++) {
-            tps[i] = new Point3f();
-        }
-        int i;
-		int j;
-		int degMax = 0;
-		int[][] vertdeg = calcNeighborList();
+        int[] offsets = getNeighborOffsets();
+        int[] neighbors = getNeighbors();
+        float[] tps = new float[positions.length];
 
         float wt = 1.00f;
         float wt2 = 0.50f; // original value
-//        int ssign;
-        int k;
         float outwt = 0.75f / (scalefactor + 3.5f);//area-preserving
         // usually, scalefactor = 4 -> 0.75/(4 + 3.5) = 0.1
-        for (k = 0; k < numiter; k++) {
-            for (i = 0; i < vertnumber; i++) {
-            	int degree = vertdeg[0][i];
-            	degMax = Math.max(degree, degMax);
-                if (degree < 3) {
-                    tps[i].set(vertices.get(i).p);
+        for (int k = 0; k < numiter; k++) {
+            for (int i = 0, n = getVertexCount(); i < n; i++) {
+                int v = 3 * i;
+            	int degree = offsets[i + 1] - offsets[i];
+                if (degree < 3 || degree > maxDegree) {
+                    tps[v] = positions[v];
+                    tps[v + 1] = positions[v + 1];
+                    tps[v + 2] = positions[v + 2];
                 } else {
                 	float weight = wt;
                 	if (degree == 3 || degree == 4) {
                 		weight = wt2;
                 	}
-                	tps[i].set(ZERO);
-                    for (j = 0; j < degree; j++) {
-                       tps[i].add(vertices.get(vertdeg[j + 1][i]).p);
+                	float x = 0.0f;
+                	float y = 0.0f;
+                	float z = 0.0f;
+                    for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                        int u = 3 * neighbors[j];
+                        x += positions[u];
+                        y += positions[u + 1];
+                        z += positions[u + 2];
                     }
-                    VertInfo vertex = vertices.get(i);
-                    tps[i].x+=weight*vertex.p.x;
-                    tps[i].y+=weight*vertex.p.y;
-	                tps[i].z+=weight*vertex.p.z;
+                    x += weight*positions[v];
+                    y += weight*positions[v + 1];
+                    z += weight*positions[v + 2];
 
 	                float w = 1.0f/(weight + degree);
-	                tps[i].scale(w);
-	                for (j = 0; j < degree; j++) {
-	                	if (tps[i].epsilonEquals((vertices.get(vertdeg[j + 1][i]).p), EPSILON)) {
-//	                		System.out.println("Degenerate coords");
-	                	}
-	                }
-                } 
+	                tps[v] = x * w;
+	                tps[v + 1] = y * w;
+	                tps[v + 2] = z * w;
+                }
             }
-            for (i = 0; i < vertnumber; i++) {
-                VertInfo vertex = vertices.get(i);
-                if (!Float.isNaN(tps[i].x) && !Float.isNaN(tps[i].y) && !Float.isNaN(tps[i].z)) {
-                	vertex.p.set(tps[i]);
+            for (int v = 0, n = positions.length; v < n; v += 3) {
+                if (!Float.isNaN(tps[v]) && !Float.isNaN(tps[v + 1]) && !Float.isNaN(tps[v + 2])) {
+                    positions[v] = tps[v];
+                    positions[v + 1] = tps[v + 1];
+                    positions[v + 2] = tps[v + 2];
                 }
             }
             computenorm();
-            for (i = 0; i < vertnumber; i++) {
-                VertInfo vertex = vertices.get(i);
-                // vertex.inout is never set (obsolete variable?)
-//                if (vertex.inout) {
-//                    ssign = 1;
-//                } else {
-//                    ssign = -1;
-//
-//                }
-//		verts[i].p.x+=ssign*outwt*verts[i].pn.x;
-//		verts[i].p.y+=ssign*outwt*verts[i].pn.y;
-//		verts[i].p.z+=ssign*outwt*verts[i].pn.z;
-                if (!Float.isNaN(vertex.normal.x) && !Float.isNaN(vertex.normal.y) && !Float.isNaN(vertex.normal.z)) {
-                	vertex.p.x+= outwt*vertex.normal.x;
-                	vertex.p.y+= outwt*vertex.normal.y;
-                	vertex.p.z+= outwt*vertex.normal.z;
+            if (!offset) {
+                continue;
+            }
+            for (int v = 0, n = positions.length; v < n; v += 3) {
+                if (!Float.isNaN(normals[v]) && !Float.isNaN(normals[v + 1]) && !Float.isNaN(normals[v + 2])) {
+                	positions[v]+= outwt*normals[v];
+                	positions[v + 1]+= outwt*normals[v + 1];
+                	positions[v + 2]+= outwt*normals[v + 2];
                 }
             }
         }
- //       System.out.println("Max degree: " + degMax);
     }
 
 	/**
-	 * @param vertnumber
-	 * @return
+	 * Returns the neighbors of each vertex in the layout of the original
+	 * EDTSurf code: vertdeg[0][i] is the number of neighbors of vertex i,
+	 * and vertdeg[1..n][i] are its neighbors.
+	 * @deprecated use getNeighborOffsets() and getNeighbors()
 	 */
+	@Deprecated
 	public int[][] calcNeighborList() {
-		int[][] vertdeg = new int[20][vertices.size()];
-        int i, j;
-        boolean flagvert;
-        
-        for (FaceInfo face : faces) {
-            //a
-            flagvert = true;
-            for (j = 0; j < vertdeg[0][face.a]; j++) {
-                if (face.b == vertdeg[j + 1][face.a]) {
-                    flagvert = false;
-                    break;
-                }
-            }
-            if (flagvert) {
-                vertdeg[0][face.a]++;
-                vertdeg[vertdeg[0][face.a]][face.a] = face.b;
-
-            }
-            flagvert = true;
-            for (j = 0; j < vertdeg[0][face.a]; j++) {
-                if (face.c == vertdeg[j + 1][face.a]) {
-                    flagvert = false;
-                    break;
-                }
-            }
-            if (flagvert) {
-                vertdeg[0][face.a]++;
-                vertdeg[vertdeg[0][face.a]][face.a] = face.c;
-
-            }
-            //b
-            flagvert = true;
-            for (j = 0; j < vertdeg[0][face.b]; j++) {
-                if (face.a == vertdeg[j + 1][face.b]) {
-                    flagvert = false;
-                    break;
-                }
+        int[] offsets = getNeighborOffsets();
+        int n = getVertexCount();
+        int maxDegree = 0;
+        for (int i = 0; i < n; i++) {
+            maxDegree = Math.max(maxDegree, offsets[i + 1] - offsets[i]);
+        }
+		int[][] vertdeg = new int[maxDegree + 1][n];
+        for (int i = 0; i < n; i++) {
+            vertdeg[0][i] = offsets[i + 1] - offsets[i];
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                vertdeg[j - offsets[i] + 1][i] = neighbors[j];
             }
-            if (flagvert) {
-                vertdeg[0][face.b]++;
-                vertdeg[vertdeg[0][face.b]][face.b] = face.a;
+        }
+		return vertdeg;
+	}
 
-            }
-            flagvert = true;
-            for (j = 0; j < vertdeg[0][face.b]; j++) {
-                if (face.c == vertdeg[j + 1][face.b]) {
-                    flagvert = false;
-                    break;
-                }
-            }
-            if (flagvert) {
-                vertdeg[0][face.b]++;
-                vertdeg[vertdeg[0][face.b]][face.b] = face.c;
+    /**
+     * Builds the vertex adjacency. The neighbors of a vertex are listed in
+     * the order they are first found in the faces: a adds b and c, b adds
+     * a and c, and c adds a and b.
+     */
+    private void calcNeighbors() {
+        int n = getVertexCount();
+        // each face adds at most two neighbors to each of its vertices
+        int[] start = new int[n + 1];
+        for (int i = 0; i < triangles.length; i++) {
+            start[triangles[i] + 1] += 2;
+        }
+        for (int i = 0; i < n; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] degree = new int[n];
+        int[] list = new int[start[n]];
+        for (int i = 0; i < triangles.length; i += 3) {
+            int a = triangles[i];
+            int b = triangles[i + 1];
+            int c = triangles[i + 2];
+            addNeighbor(a, b, start, degree, list);
+            addNeighbor(a, c, start, degree, list);
+            addNeighbor(b, a, start, degree, list);
+            addNeighbor(b, c, start, degree, list);
+            addNeighbor(c, a, start, degree, list);
+            addNeighbor(c, b, start, degree, list);
+        }
 
-            }
-            //c
-            flagvert = true;
-            for (j = 0; j < vertdeg[0][face.c]; j++) {
-                if (face.a == vertdeg[j + 1][face.c]) {
-                    flagvert = false;
-                    break;
-                }
-            }
-            if (flagvert) {
-                vertdeg[0][face.c]++;
-                vertdeg[vertdeg[0][face.c]][face.c] = face.a;
+        // remove the unused space left by shared edges
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        int[] compact = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(list, start[i], compact, offsets[i], degree[i]);
+        }
+        neighborOffsets = offsets;
+        neighbors = compact;
+    }
 
-            }
-            flagvert = true;
-            for (j = 0; j < vertdeg[0][face.c]; j++) {
-                if (face.b == vertdeg[j + 1][face.c]) {
-                    flagvert = false;
-                    break;
-                }
-            }
-            if (flagvert) {
-                vertdeg[0][face.c]++;
-                vertdeg[vertdeg[0][face.c]][face.c] = face.b;
+    private static void addNeighbor(int vertex, int neighbor, int[] start, int[] degree, int[] list) {
+        int first = start[vertex];
+        int end = first + degree[vertex];
+        for (int j = first; j < end; j++) {
+            if (list[j] == neighbor) {
+                return;
             }
         }
-		return vertdeg;
-	}
-
-	   public void edgesmooth(int numiter) {
-
-	    	// TODO
-	 //       float scalefactor = 4.0f; // note, this is the original scalefactor from EDTSurf, How should it be set???
-	        // coords used here are the actual coordinates, not the scaled coordinates
-	 
-	    	// typically, the scalefactor is around 2. or lower
-	    	float scalefactor = 2.0f;
-	    	int vertnumber = vertices.size();
-	        Point3f[] tps = new Point3f[vertnumber];
-	        for (int i = 0; i < tps.length; i++) {
-	            tps[i] = new Point3f();
-	        }
-	        int i;
-			int j;
-			int degMax = 0;
-			int[][] vertdeg = calcNeighborList();
-
-	        float wt = 1.00f;
-	        float wt2 = 0.50f; // original value
-//	        int ssign;
-	        int k;
-	        float outwt = 0.75f / (scalefactor + 3.5f);//area-preserving
-	        // usually, scalefactor = 4 -> 0.75/(4 + 3.5) = 0.1
-	        for (k = 0; k < numiter; k++) {
-	            for (i = 0; i < vertnumber; i++) {
-	            	int degree = vertdeg[0][i];
-	            	degMax = Math.max(degree, degMax);
-	                if (degree < 3 || degree > 5) {
-	                    tps[i].set(vertices.get(i).p);
-	                } else {
-	                	float weight = wt;
-	                	if (degree == 3 || degree == 4) {
-	                		weight = wt2;
-	                	}
-	                	tps[i].set(ZERO);
-	                    for (j = 0; j < degree; j++) {
-	                       tps[i].add(vertices.get(vertdeg[j + 1][i]).p);
-	                    }
-	                    VertInfo vertex = vertices.get(i);
-	                    tps[i].x+=weight*vertex.p.x;
-	                    tps[i].y+=weight*vertex.p.y;
-		                tps[i].z+=weight*vertex.p.z;
-
-		                float w = 1.0f/(weight + degree);
-		                tps[i].scale(w);
-		                for (j = 0; j < degree; j++) {
-		                	if (tps[i].epsilonEquals((vertices.get(vertdeg[j + 1][i]).p), EPSILON)) {
-//		                		System.out.println("Degenerate coords");
-		                	}
-		                }
-	                } 
-	            }
-	            for (i = 0; i < vertnumber; i++) {
-	                VertInfo vertex = vertices.get(i);
-	                if (!Float.isNaN(tps[i].x) && !Float.isNaN(tps[i].y) && !Float.isNaN(tps[i].z)) {
-	                	vertex.p.set(tps[i]);
-	                }
-	            }
-	            computenorm();
-	            for (i = 0; i < vertnumber; i++) {
-	                VertInfo vertex = vertices.get(i);
-	                int degree = vertdeg[0][i];
-	                // vertex.inout is never set (obsolete variable?)
-//	                if (vertex.inout) {
-//	                    ssign = 1;
-//	                } else {
-//	                    ssign = -1;
-	//
-//	                }
-//			verts[i].p.x+=ssign*outwt*verts[i].pn.x;
-//			verts[i].p.y+=ssign*outwt*verts[i].pn.y;
-//			verts[i].p.z+=ssign*outwt*verts[i].pn.z;
-	            //    if (!Float.isNaN(vertex.normal.x) && !Float.isNaN(vertex.normal.y) && !Float.isNaN(vertex.normal.z)) {
-	            //    	vertex.p.x+= outwt*vertex.normal.x;
-	             //   	vertex.p.y+= outwt*vertex.normal.y;
-	            //    	vertex.p.z+= outwt*vertex.normal.z;
-	            //    }
-	            }
-	        }
-//	        System.out.println("Max degree: " + degMax);
-	    }
+        list[end] = neighbor;
+        degree[vertex]++;
+    }
 
+    private void clearNeighbors() {
+        neighborOffsets = null;
+        neighbors = null;
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ * 
+ * The code for surface generation was contributed by Dong Xu
+ * and Yang Zhang at the University of Michigan, Ann Arbor. This
+ * class represents the Java version translated from the original C++
+ * code (http://zhanglab.ccmb.med.umich.edu/EDTSurf).
+ * 
+ * Please reference D. Xu, Y. Zhang (2009) 
+ * Generating Triangulated Macromolecular Surfaces by Euclidean 
+ * Distance Transform. PLoS ONE 4(12): e8140.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ */
+
+package org.rcsb.mbt.surface.datastructure;
+
+import java.util.Arrays;
+
+/**
+ * The voxel grid of the EDT surface calculation, stored in flat arrays
+ * indexed by index(x, y, z) = (x * width + y) * height + z instead of a
+ * VolumePixel object per voxel. The inout, isbound and isdone flags are
+ * bits of one byte per voxel; the atom id and the id of the sphere whose
+ * reference the voxel carries are only kept if requested (colored surfaces).
+ */
+public class VoxelGrid {
+    private static final byte INOUT = 1;
+    private static final byte ISBOUND = 2;
+    private static final byte ISDONE = 4;
+
+    private final int length;
+    private final int width;
+    private final int height;
+    private final byte[] flags;
+    private final int[] atomIds;
+    private final int[] referenceIds;
+
+    /**
+     * @param length number of voxels along x
+     * @param width number of voxels along y
+     * @param height number of voxels along z
+     * @param atomIds true to keep atom and reference ids per voxel
+     */
+    public VoxelGrid(int length, int width, int height, boolean atomIds) {
+        this.length = length;
+        this.width = width;
+        this.height = height;
+        int size = length * width * height;
+        this.flags = new byte[size];
+        if (atomIds) {
+            this.atomIds = new int[size];
+            this.referenceIds = new int[size];
+            Arrays.fill(this.atomIds, -1);
+            Arrays.fill(this.referenceIds, -1);
+        } else {
+            this.atomIds = null;
+            this.referenceIds = null;
+        }
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int size() {
+        return flags.length;
+    }
+
+    public int index(int x, int y, int z) {
+        return (x * width + y) * height + z;
+    }
+
+    /**
+     * Returns the x, y, z coordinates of a voxel index in point.
+     */
+    public void coordinates(int index, int[] point) {
+        point[2] = index % height;
+        index /= height;
+        point[1] = index % width;
+        point[0] = index / width;
+    }
+
+    public boolean isInOut(int index) {
+        return (flags[index] & INOUT) != 0;
+    }
+
+    public boolean isInOut(int x, int y, int z) {
+        return (flags[index(x, y, z)] & INOUT) != 0;
+    }
+
+    public void setInOut(int index, boolean inout) {
+        set(index, INOUT, inout);
+    }
+
+    public void setInOut(int x, int y, int z, boolean inout) {
+        set(index(x, y, z), INOUT, inout);
+    }
+
+    public boolean isBound(int index) {
+        return (flags[index] & ISBOUND) != 0;
+    }
+
+    public boolean isBound(int x, int y, int z) {
+        return (flags[index(x, y, z)] & ISBOUND) != 0;
+    }
+
+    public void setBound(int index, boolean isbound) {
+        set(index, ISBOUND, isbound);
+    }
+
+    public void setBound(int x, int y, int z, boolean isbound) {
+        set(index(x, y, z), ISBOUND, isbound);
+    }
+
+    public boolean isDone(int index) {
+        return (flags[index] & ISDONE) != 0;
+    }
+
+    public boolean isDone(int x, int y, int z) {
+        return (flags[index(x, y, z)] & ISDONE) != 0;
+    }
+
+    public void setDone(int index, boolean isdone) {
+        set(index, ISDONE, isdone);
+    }
+
+    public void setDone(int x, int y, int z, boolean isdone) {
+        set(index(x, y, z), ISDONE, isdone);
+    }
+
+    public boolean hasAtomIds() {
+        return atomIds != null;
+    }
+
+    /**
+     * Returns the id of the atom closest to the voxel, or -1.
+     */
+    public int getAtomId(int index) {
+        return atomIds == null ? -1 : atomIds[index];
+    }
+
+    public void setAtomId(int index, int atomId) {
+        atomIds[index] = atomId;
+    }
+
+    /**
+     * Returns the id of the atom whose reference the voxel carries, or -1.
+     */
+    public int getReferenceId(int index) {
+        return referenceIds == null ? -1 : referenceIds[index];
+    }
+
+    public void setReferenceId(int index, int referenceId) {
+        referenceIds[index] = referenceId;
+    }
+
+    private void set(int index, byte flag, boolean value) {
+        if (value) {
+            flags[index] |= flag;
+        } else {
+            flags[index] &= ~flag;
+        }
+    }
+}
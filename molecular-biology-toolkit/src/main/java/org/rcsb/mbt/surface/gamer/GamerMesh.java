@@ -0,0 +1,1388 @@
+package org.rcsb.mbt.surface.gamer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.rcsb.mbt.model.util.ParallelExecutor;
+import org.rcsb.mbt.surface.core.EdtSurfaceCalculator;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+/*
+ * ***************************************************************************
+ * GAMER = < Geometry-preserving Adaptive MeshER >
+ * Copyright (C) 1994-- Michael Holst and Zeyun Yu
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * ***************************************************************************
+ */
+
+/**
+ * The surface smoothing and coarsening of GAMER (SurfSmooth in the GAMER
+ * sources, whose function names are given below), on a mesh stored in
+ * primitive arrays.
+ * <p>
+ * Each vertex keeps its neighbors in counter clockwise order, together with
+ * the face between each neighbor and the next one. Vertices whose faces do
+ * not form a single closed fan, i.e. vertices on a border or at a
+ * non-manifold edge, are irregular: they are not moved, and the edges and
+ * vertices around them are neither flipped nor deleted.
+ * <p>
+ * The vertex moves of {@link #smooth} and {@link #normalSmooth} read the
+ * positions of the previous pass, so the result does not depend on the
+ * order of the vertices, and are split over several threads. (SurfSmooth
+ * moved the vertices one after the other.) Edge flips and coarsening change
+ * the faces and run on one thread. All state is held by the mesh, so
+ * different meshes can be improved at the same time.
+ */
+public class GamerMesh {
+	private static final float PIE = 3.14159265358979f;
+	private static final int TASKS_PER_THREAD = 4;
+
+	private int threads = EdtSurfaceCalculator.getDefaultThreads();
+	private ParallelExecutor executor = ParallelExecutor.getShared();
+	// the structure tensor of a vertex is summed over this many rings of neighbors
+	private int tensorRings = 2;
+
+	private float[] positions;
+	private float[] buffer;
+	private int[] triangles;
+	private boolean[] vertexAlive;
+	private boolean[] faceAlive;
+	private int vertexCount;
+	private int faceCount;
+
+	// faces of each vertex
+	private int[][] vertexFaces;
+	private int[] vertexFaceCounts;
+
+	// neighbors of each vertex in counter clockwise order and the face
+	// (v, rings[v][i], rings[v][i+1]) after each of them
+	private int[][] rings;
+	private int[][] ringFaces;
+	private int[] ringSizes;
+	private boolean[] regular;
+
+	// scratch space of buildRing
+	private int[] entryA = new int[16];
+	private int[] entryB = new int[16];
+	private int[] entryFace = new int[16];
+
+	/**
+	 * Creates a mesh with the vertices and faces of a surface. The surface
+	 * is not changed until {@link #write} is called.
+	 */
+	public GamerMesh(TriangulatedSurface surface) {
+		positions = surface.getPositions().clone();
+		buffer = new float[positions.length];
+		triangles = surface.getTriangles().clone();
+		int nv = surface.getVertexCount();
+		int nf = surface.getFaceCount();
+		vertexCount = nv;
+		faceCount = nf;
+
+		vertexAlive = new boolean[nv];
+		Arrays.fill(vertexAlive, true);
+		faceAlive = new boolean[nf];
+		Arrays.fill(faceAlive, true);
+
+		vertexFaceCounts = new int[nv];
+		for (int i = 0; i < triangles.length; i++) {
+			vertexFaceCounts[triangles[i]]++;
+		}
+		vertexFaces = new int[nv][];
+		for (int v = 0; v < nv; v++) {
+			vertexFaces[v] = new int[vertexFaceCounts[v]];
+			vertexFaceCounts[v] = 0;
+		}
+		for (int f = 0; f < nf; f++) {
+			for (int k = 0; k < 3; k++) {
+				int v = triangles[3*f+k];
+				vertexFaces[v][vertexFaceCounts[v]++] = f;
+			}
+		}
+
+		rings = new int[nv][];
+		ringFaces = new int[nv][];
+		ringSizes = new int[nv];
+		regular = new boolean[nv];
+		for (int v = 0; v < nv; v++) {
+			buildRing(v);
+		}
+	}
+
+	/**
+	 * Sets the number of threads used to move the vertices. The result is
+	 * the same for any number of threads.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the executor whose threads are used, the shared one by default.
+	 */
+	public void setExecutor(ParallelExecutor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the number of rings of neighbors over which the normals of the
+	 * local structure tensor are summed. The default is 2 (DIM_SCALE < 2 in
+	 * GAMER).
+	 */
+	public void setTensorRings(int tensorRings) {
+		this.tensorRings = Math.max(1, tensorRings);
+	}
+
+	public int getTensorRings() {
+		return tensorRings;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getFaceCount() {
+		return faceCount;
+	}
+
+	/**
+	 * Stores the vertices and faces in a surface, usually the one this mesh
+	 * was created from: the atom ids and references of the vertices are
+	 * taken from it. The vertex normals are recalculated.
+	 */
+	public void write(TriangulatedSurface surface) {
+		int nv = vertexAlive.length;
+		int[] index = new int[nv];
+		int n = 0;
+		for (int i = 0; i < nv; i++) {
+			index[i] = vertexAlive[i] ? n++ : -1;
+		}
+		float[] newPositions = new float[3*n];
+		int[] atomIds = new int[n];
+		Object[] references = new Object[n];
+		int[] oldAtomIds = surface.getAtomIds();
+		Object[] oldReferences = surface.getReferences();
+		for (int i = 0; i < nv; i++) {
+			int j = index[i];
+			if (j < 0) {
+				continue;
+			}
+			System.arraycopy(positions, 3*i, newPositions, 3*j, 3);
+			atomIds[j] = oldAtomIds[i];
+			references[j] = oldReferences[i];
+		}
+		int[] newTriangles = new int[3*faceCount];
+		int t = 0;
+		for (int f = 0; f < faceAlive.length; f++) {
+			if (faceAlive[f]) {
+				newTriangles[t++] = index[triangles[3*f]];
+				newTriangles[t++] = index[triangles[3*f+1]];
+				newTriangles[t++] = index[triangles[3*f+2]];
+			}
+		}
+		surface.setVertices(newPositions, null, atomIds, references);
+		surface.setTriangles(newTriangles);
+		surface.computenorm();
+	}
+
+	/**
+	 * Moves the vertices towards a regular mesh along the local surface and
+	 * optionally flips edges, until the smallest angle is larger than
+	 * maxMinAngle and the largest angle smaller than minMaxAngle (in
+	 * degrees), or for at most maxIterations iterations.
+	 * (SurfaceMesh_smooth in SurfSmooth)
+	 * @return true if the angles are within the bounds
+	 */
+	public boolean smooth(int maxMinAngle, int minMaxAngle, int maxIterations, boolean flipEdges) {
+		float[] quality = new float[4];
+		int i = 0;
+
+		// Print the initial quality only when doing 1 or more iterations
+		if (maxIterations > 1) {
+			getAngleQuality(maxMinAngle, minMaxAngle, quality);
+			printQuality(String.format("%2d:", i), quality, maxMinAngle, minMaxAngle);
+		}
+
+		boolean smoothed = false;
+		while (!smoothed && i < maxIterations) {
+			i++;
+			moveVertices();
+			if (flipEdges) {
+				for (int n = 0; n < vertexAlive.length; n++) {
+					flipEdges(n);
+				}
+			}
+
+			getAngleQuality(maxMinAngle, minMaxAngle, quality);
+			printQuality(maxIterations != 1 ? String.format("%2d:", i) : "   ", quality, maxMinAngle, minMaxAngle);
+
+			// Check if the mesh is smoothed
+			smoothed = quality[0] > maxMinAngle && quality[1] < minMaxAngle;
+		}
+		return smoothed;
+	}
+
+	/**
+	 * Smoothes the surface by anisotropic averaging of the face normals.
+	 * (SurfaceMesh_normalSmooth in SurfSmooth)
+	 */
+	public void normalSmooth() {
+		final float[] p = positions;
+		final float[] moved = buffer;
+		runParallel(vertexAlive.length, new RangeTask() {
+			public void run(int start, int end, Workspace w) {
+				for (int n = start; n < end; n++) {
+					normalSmooth(n, p, w, moved);
+				}
+			}
+		});
+		swapPositions();
+
+		float[] quality = new float[4];
+		getAngleQuality(15, 150, quality);
+		printQuality("   ", quality, 15, 150);
+	}
+
+	/**
+	 * Deletes the vertices in flat and dense regions and re-triangulates the
+	 * holes. A vertex is deleted if (flatness)^flatnessRate *
+	 * (denseness)^densenessWeight < coarseRate, where the flatness is the
+	 * ratio of the two largest eigenvalues of the local structure tensor
+	 * and the denseness the ratio of its longest edge to the average edge
+	 * length. If maxNormalAngle > 0, the vertex normals around it must also
+	 * differ by less than the angle whose cosine is maxNormalAngle.
+	 * (SurfaceMesh_coarse in SurfSmooth)
+	 * @return the number of deleted vertices
+	 */
+	public int coarse(float coarseRate, float flatnessRate, float densenessWeight, float maxNormalAngle) {
+		Workspace w = new Workspace();
+		int nv = vertexAlive.length;
+		int deleted = 0;
+
+		// If using sparseness weight, calculate the average segment length of the mesh
+		float averageLength = 0;
+		if (densenessWeight > 0) {
+			for (int f = 0; f < faceAlive.length; f++) {
+				if (faceAlive[f]) {
+					int a = triangles[3*f];
+					int b = triangles[3*f+1];
+					int c = triangles[3*f+2];
+					averageLength += (distance(a, b) + distance(a, c) + distance(b, c)) / 3.0f;
+				}
+			}
+			if (faceCount == 0) {
+				return 0;
+			}
+			averageLength /= faceCount;
+		}
+
+		// The main loop over all vertices
+		for (int n = 0; n < nv; n++) {
+			if (!regular[n] || !canDelete(n)) {
+				continue;
+			}
+
+			float ratio1 = 1.0f;
+			float ratio2 = 1.0f;
+			int[] ring = rings[n];
+			int k = ringSizes[n];
+
+			// If using sparseness as a criteria for coarsening
+			// calculate the maximal segment length
+			if (densenessWeight > 0) {
+				float maxLength = -1;
+				for (int i = 0; i < k; i++) {
+					maxLength = Math.max(maxLength, distance(n, ring[i]));
+				}
+				// Max segment length over the average segment length of the mesh
+				ratio2 = (float) Math.pow(maxLength / averageLength, densenessWeight);
+			}
+
+			// If using curvatory as a coarsening criteria
+			// calculate the local structure tensor
+			float maxAngle = 0;
+			if (flatnessRate > 0 || maxNormalAngle > 0) {
+				boolean valid = getEigenVectors(n, positions, null, w);
+				maxAngle = w.maxAngle;
+				if (flatnessRate > 0) {
+					if (!valid || w.values[0] == 0) {
+						ratio1 = 999999.0f;
+					} else {
+						ratio1 = (float) Math.pow(Math.abs(w.values[1] / w.values[0]), flatnessRate);
+					}
+				}
+			}
+
+			// Compare the two coarseness criterias against the given coarse_rate
+			boolean deleteVertex = ratio1 * ratio2 < coarseRate;
+
+			// Use maximal angle between vertex normal as a complementary coarse criteria
+			if (maxNormalAngle > 0) {
+				deleteVertex = deleteVertex && maxAngle > maxNormalAngle;
+			}
+
+			if (deleteVertex) {
+				deleteVertex(n, w);
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Returns the smallest and the largest angle of the faces, in degrees.
+	 */
+	public float[] getMinMaxAngles() {
+		float[] quality = new float[4];
+		getAngleQuality(0, 180, quality);
+		return new float[] {quality[0], quality[1]};
+	}
+
+	/**
+	 * Returns the number of angles of the faces in each 10 degree bin from
+	 * 0 to 180 degrees.
+	 * (GenerateHistogram in SurfSmooth)
+	 */
+	public int[] getHistogram() {
+		int[] histogram = new int[18];
+		for (int f = 0; f < faceAlive.length; f++) {
+			if (!faceAlive[f]) {
+				continue;
+			}
+			int a = triangles[3*f];
+			int b = triangles[3*f+1];
+			int c = triangles[3*f+2];
+			addToHistogram(histogram, getAngle(a, b, c));
+			addToHistogram(histogram, getAngle(b, a, c));
+			addToHistogram(histogram, getAngle(c, a, b));
+		}
+		return histogram;
+	}
+
+	/**
+	 * Prints the percentage of the angles in each 10 degree bin.
+	 */
+	public void printHistogram() {
+		int[] histogram = getHistogram();
+		StringBuilder s = new StringBuilder();
+		for (int m = 0; m < 18; m++) {
+			s.append(String.format("%f  ", 100.0 * histogram[m] / (faceCount * 3.0)));
+		}
+		System.out.println(s);
+		System.out.println();
+	}
+
+	private static void addToHistogram(int[] histogram, float angle) {
+		int m = (int) Math.floor(angle / 10);
+		if (angle >= 0 && m < 18) {
+			histogram[m]++;
+		}
+	}
+
+	/**
+	 * Stores the smallest angle, the largest angle, the number of angles
+	 * smaller than maxMinAngle and the number of angles larger than
+	 * minMaxAngle in quality.
+	 * (SurfaceMesh_getMinMaxAngles in SurfSmooth)
+	 */
+	private void getAngleQuality(int maxMinAngle, int minMaxAngle, float[] quality) {
+		float minAngle = 99999.0f;
+		float maxAngle = -99999.0f;
+		int small = 0;
+		int large = 0;
+		for (int f = 0; f < faceAlive.length; f++) {
+			if (!faceAlive[f]) {
+				continue;
+			}
+			int a = triangles[3*f];
+			int b = triangles[3*f+1];
+			int c = triangles[3*f+2];
+			for (int k = 0; k < 3; k++) {
+				float angle = k == 0 ? getAngle(a, b, c) : k == 1 ? getAngle(b, a, c) : getAngle(c, a, b);
+				if (angle == -999) {
+					continue;
+				}
+				if (angle < minAngle) {
+					minAngle = angle;
+				}
+				if (angle > maxAngle) {
+					maxAngle = angle;
+				}
+				if (angle < maxMinAngle) {
+					small++;
+				}
+				if (angle > minMaxAngle) {
+					large++;
+				}
+			}
+		}
+		quality[0] = minAngle;
+		quality[1] = maxAngle;
+		quality[2] = small;
+		quality[3] = large;
+	}
+
+	private static void printQuality(String prefix, float[] quality, int maxMinAngle, int minMaxAngle) {
+		System.out.printf("%s min_angle: %f - max_angle: %f - smaller-than-%d: %d - larger-than-%d: %d\n",
+				prefix, quality[0], quality[1], maxMinAngle, (int) quality[2], minMaxAngle, (int) quality[3]);
+	}
+
+	/**
+	 * Returns the angle at a of the triangle (a, b, c) in degrees, or -999 if
+	 * it is degenerate (GetAngleSurfaceOnly in SurfSmooth).
+	 */
+	private float getAngle(int a, int b, int c) {
+		float[] p = positions;
+		float ax = p[3*a], ay = p[3*a+1], az = p[3*a+2];
+		float bx = p[3*b], by = p[3*b+1], bz = p[3*b+2];
+		float cx = p[3*c], cy = p[3*c+1], cz = p[3*c+2];
+
+		float length1 = (ax-bx)*(ax-bx)+(ay-by)*(ay-by)+(az-bz)*(az-bz);
+		float length2 = (ax-cx)*(ax-cx)+(ay-cy)*(ay-cy)+(az-cz)*(az-cz);
+		float length3 = (bx-cx)*(bx-cx)+(by-cy)*(by-cy)+(bz-cz)*(bz-cz);
+		if (length1 == 0 || length2 == 0) {
+			return -999;
+		}
+		float angle = 0.5f*(length1+length2-length3)/(float)Math.sqrt(length1*length2);
+		return (float)Math.acos(angle)*180.0f/PIE;
+	}
+
+	private float distance(int a, int b) {
+		float dx = positions[3*a] - positions[3*b];
+		float dy = positions[3*a+1] - positions[3*b+1];
+		float dz = positions[3*a+2] - positions[3*b+2];
+		return (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+
+	/**
+	 * Moves all vertices by a combination of the angle-based method and the
+	 * local structure tensor (MoveVerticesSurfaceOnly in SurfSmooth).
+	 */
+	private void moveVertices() {
+		final float[] p = positions;
+		final float[] moved = buffer;
+		final float[] normals = new float[p.length];
+		int nv = vertexAlive.length;
+		runParallel(nv, new RangeTask() {
+			public void run(int start, int end, Workspace w) {
+				for (int n = start; n < end; n++) {
+					getNormal(n, p, normals, 3*n);
+				}
+			}
+		});
+		runParallel(nv, new RangeTask() {
+			public void run(int start, int end, Workspace w) {
+				for (int n = start; n < end; n++) {
+					moveVertex(n, p, normals, w, moved);
+				}
+			}
+		});
+		swapPositions();
+	}
+
+	/**
+	 * Stores the new position of vertex n, calculated from the positions p
+	 * and vertex normals (or null to calculate them as needed), in moved.
+	 */
+	private void moveVertex(int n, float[] p, float[] normals, Workspace w, float[] moved) {
+		float x = p[3*n];
+		float y = p[3*n+1];
+		float z = p[3*n+2];
+		moved[3*n] = x;
+		moved[3*n+1] = y;
+		moved[3*n+2] = z;
+		if (!regular[n]) {
+			return;
+		}
+
+		float nx = 0;
+		float ny = 0;
+		float nz = 0;
+		float weight = 0;
+		int[] ring = rings[n];
+		int k = ringSizes[n];
+		for (int i = 0; i < k; i++) {
+			int a = ring[i];
+			int b = ring[(i+1) % k];
+			int c = ring[(i+2) % k];
+			getPositionSurfaceOnly(x, y, z, b, a, c, p, w.point);
+			float angle = getDotProduct(p, b, a, c) + 1.0f;
+			nx += angle*w.point[0];
+			ny += angle*w.point[1];
+			nz += angle*w.point[2];
+			weight += angle;
+		}
+		if (weight <= 0) {
+			return;
+		}
+		nx /= weight;
+		ny /= weight;
+		nz /= weight;
+
+		if (!getEigenVectors(n, p, normals, w)) {
+			moved[3*n] = nx;
+			moved[3*n+1] = ny;
+			moved[3*n+2] = nz;
+			return;
+		}
+		// move less along the directions of large eigenvalues
+		nx -= x;
+		ny -= y;
+		nz -= z;
+		double[] e = w.vectors;
+		double w1 = (nx*e[0]+ny*e[1]+nz*e[2])/(1.0+w.values[0]);
+		double w2 = (nx*e[3]+ny*e[4]+nz*e[5])/(1.0+w.values[1]);
+		double w3 = (nx*e[6]+ny*e[7]+nz*e[8])/(1.0+w.values[2]);
+		moved[3*n] = (float) (w1*e[0]+w2*e[3]+w3*e[6] + x);
+		moved[3*n+1] = (float) (w1*e[1]+w2*e[4]+w3*e[7] + y);
+		moved[3*n+2] = (float) (w1*e[2]+w2*e[5]+w3*e[8] + z);
+	}
+
+	/**
+	 * Stores the position of x, y, z by the angle-based method for the angle
+	 * at a of the triangle (a, b, c) in result (GetPositionSurfaceOnly in
+	 * SurfSmooth).
+	 */
+	private static void getPositionSurfaceOnly(float x, float y, float z, int a, int b, int c, float[] p, float[] result) {
+		float ax = p[3*a], ay = p[3*a+1], az = p[3*a+2];
+		float bx = p[3*b]-ax, by = p[3*b+1]-ay, bz = p[3*b+2]-az;
+		float cx = p[3*c]-ax, cy = p[3*c+1]-ay, cz = p[3*c+2]-az;
+
+		float distance = (float)Math.sqrt(bx*bx+by*by+bz*bz);
+		if (distance > 0) {
+			bx /= distance;
+			by /= distance;
+			bz /= distance;
+		}
+		distance = (float)Math.sqrt(cx*cx+cy*cy+cz*cz);
+		if (distance > 0) {
+			cx /= distance;
+			cy /= distance;
+			cz /= distance;
+		}
+		// bisector of the angle at a
+		float tx = 0.5f*(cx+bx);
+		float ty = 0.5f*(cy+by);
+		float tz = 0.5f*(cz+bz);
+		distance = (float)Math.sqrt(tx*tx+ty*ty+tz*tz);
+		if (distance > 0) {
+			tx /= distance;
+			ty /= distance;
+			tz /= distance;
+		}
+		// normal of the plane of a, b and c
+		float xx = by*cz-bz*cy;
+		float yy = bz*cx-bx*cz;
+		float zz = bx*cy-by*cx;
+		distance = (float)Math.sqrt(xx*xx+yy*yy+zz*zz);
+		if (distance > 0) {
+			xx /= distance;
+			yy /= distance;
+			zz /= distance;
+		}
+		bx = xx;
+		by = yy;
+		bz = zz;
+
+		distance = tx*(x-ax)+ty*(y-ay)+tz*(z-az);
+		xx = distance*tx + ax;
+		yy = distance*ty + ay;
+		zz = distance*tz + az;
+
+		distance = bx*(x-xx)+by*(y-yy)+bz*(z-zz);
+		result[0] = distance*bx + xx;
+		result[1] = distance*by + yy;
+		result[2] = distance*bz + zz;
+	}
+
+	/**
+	 * Stores the eigenvalues (largest first) and eigenvectors of the sum of
+	 * the outer products of the vertex normals around vertex index0 in the
+	 * workspace, as well as the smallest absolute cosine between the normal
+	 * of index0 and the other normals.
+	 * (GetEigenVector in SurfSmooth)
+	 * @return false if the eigenvectors could not be calculated
+	 */
+	private boolean getEigenVectors(int index0, float[] p, float[] normals, Workspace w) {
+		double[][] A = w.tensor;
+		double[] B = w.cofactors;
+		float[] normal = w.normal;
+
+		float n0x, n0y, n0z;
+		if (normals != null) {
+			n0x = normals[3*index0];
+			n0y = normals[3*index0+1];
+			n0z = normals[3*index0+2];
+		} else {
+			getNormal(index0, p, normal, 0);
+			n0x = normal[0];
+			n0y = normal[1];
+			n0z = normal[2];
+		}
+		A[0][0] = n0x*n0x;
+		A[0][1] = n0x*n0y;
+		A[0][2] = n0x*n0z;
+		A[1][1] = n0y*n0y;
+		A[1][2] = n0y*n0z;
+		A[2][2] = n0z*n0z;
+
+		// breadth first search over the rings of neighbors
+		int start = 0;
+		int end = 1;
+		w.indices[0] = index0;
+		w.distances[0] = 0;
+		float maxAngle = 99999.0f;
+		while (start < end) {
+			int index = w.indices[start];
+			int dist = w.distances[start];
+			start++;
+			if (dist >= tensorRings) {
+				continue;
+			}
+			int[] ring = rings[index];
+			for (int i = 0, k = ringSizes[index]; i < k; i++) {
+				int m = ring[i];
+				boolean visited = false;
+				for (int j = 0; j < end; j++) {
+					if (w.indices[j] == m) {
+						visited = true;
+						break;
+					}
+				}
+				if (visited) {
+					continue;
+				}
+				float nx, ny, nz;
+				if (normals != null) {
+					nx = normals[3*m];
+					ny = normals[3*m+1];
+					nz = normals[3*m+2];
+				} else {
+					getNormal(m, p, normal, 0);
+					nx = normal[0];
+					ny = normal[1];
+					nz = normal[2];
+				}
+				float angle = Math.abs(n0x*nx+n0y*ny+n0z*nz);
+				if (angle < maxAngle) {
+					maxAngle = angle;
+				}
+				A[0][0] += nx*nx;
+				A[0][1] += nx*ny;
+				A[0][2] += nx*nz;
+				A[1][1] += ny*ny;
+				A[1][2] += ny*nz;
+				A[2][2] += nz*nz;
+				w.add(end, m, dist+1);
+				end++;
+			}
+		}
+		w.maxAngle = maxAngle;
+
+		A[1][0] = A[0][1];
+		A[2][0] = A[0][2];
+		A[2][1] = A[1][2];
+
+		// roots of the characteristic polynomial
+		double c0 = A[0][0]*A[1][1]*A[2][2]+2*A[0][1]*A[0][2]*A[1][2]-A[0][0]*A[1][2]*A[1][2]
+			-A[1][1]*A[0][2]*A[0][2]-A[2][2]*A[0][1]*A[0][1];
+		double c1 = A[0][0]*A[1][1]-A[0][1]*A[0][1]+A[0][0]*A[2][2]-
+			A[0][2]*A[0][2]+A[1][1]*A[2][2]-A[1][2]*A[1][2];
+		double c2 = A[0][0]+A[1][1]+A[2][2];
+
+		double a = (3.0*c1-c2*c2)/3.0;
+		double b = (-2.0*c2*c2*c2+9.0*c1*c2-27.0*c0)/27.0;
+		double Q = b*b/4.0+a*a*a/27.0;
+
+		double theta = Math.atan2(Math.sqrt(-Q),-0.5*b);
+		double r = Math.pow(Math.sqrt(0.25*b*b-Q), 1.0/3.0);
+		double x1 = c2/3.0+2.0*r*Math.cos(theta/3.0);
+		double x2 = c2/3.0-r*(Math.cos(theta/3.0)+Math.sqrt(3.0)*Math.sin(theta/3.0));
+		double x3 = c2/3.0-r*(Math.cos(theta/3.0)-Math.sqrt(3.0)*Math.sin(theta/3.0));
+		if (Double.isNaN(x1) || Double.isNaN(x2) || Double.isNaN(x3)) {
+			return false;
+		}
+
+		double[] values = w.values;
+		values[0] = Math.max(x1, Math.max(x2, x3));
+		values[2] = Math.min(x1, Math.min(x2, x3));
+		values[1] = x1 + x2 + x3 - values[0] - values[2];
+
+		double[] e = w.vectors;
+		if (!getEigenVector(A, B, values[0], e, 0) || !getEigenVector(A, B, values[1], e, 3)) {
+			return false;
+		}
+		e[6] = e[1]*e[5]-e[2]*e[4];
+		e[7] = e[2]*e[3]-e[0]*e[5];
+		e[8] = e[0]*e[4]-e[1]*e[3];
+		return e[6] != 0 || e[7] != 0 || e[8] != 0;
+	}
+
+	/**
+	 * Stores the unit eigenvector of the symmetric matrix A for the
+	 * eigenvalue x at offset in e, as the largest column of the adjugate of
+	 * A - x I.
+	 * @return false if the adjugate is zero
+	 */
+	private static boolean getEigenVector(double[][] A, double[] B, double x, double[] e, int offset) {
+		double a00 = A[0][0] - x;
+		double a11 = A[1][1] - x;
+		double a22 = A[2][2] - x;
+		B[0] = a11*a22-A[1][2]*A[1][2];
+		B[1] = A[0][2]*A[1][2]-A[0][1]*a22;
+		B[2] = a00*a22-A[0][2]*A[0][2];
+		B[3] = A[0][1]*A[1][2]-A[0][2]*a11;
+		B[4] = A[0][1]*A[0][2]-A[1][2]*a00;
+		B[5] = a00*a11-A[0][1]*A[0][1];
+		double c0 = B[0]*B[0]+B[1]*B[1]+B[3]*B[3];
+		double c1 = B[1]*B[1]+B[2]*B[2]+B[4]*B[4];
+		double c2 = B[3]*B[3]+B[4]*B[4]+B[5]*B[5];
+		double tx, ty, tz;
+		if (c0 >= c1 && c0 >= c2) {
+			tx = B[0];
+			ty = B[1];
+			tz = B[3];
+		} else if (c1 >= c2) {
+			tx = B[1];
+			ty = B[2];
+			tz = B[4];
+		} else {
+			tx = B[3];
+			ty = B[4];
+			tz = B[5];
+		}
+		double p = Math.sqrt(tx*tx+ty*ty+tz*tz);
+		if (!(p > 0)) {
+			return false;
+		}
+		e[offset] = tx/p;
+		e[offset+1] = ty/p;
+		e[offset+2] = tz/p;
+		return true;
+	}
+
+	/**
+	 * Stores the normal of vertex n at offset in normal (GetNormals in
+	 * SurfSmooth).
+	 */
+	private void getNormal(int n, float[] p, float[] normal, int offset) {
+		float x = p[3*n];
+		float y = p[3*n+1];
+		float z = p[3*n+2];
+		float sx = 0;
+		float sy = 0;
+		float sz = 0;
+		int number = 0;
+		int[] faces = ringFaces[n];
+		for (int i = 0, k = ringSizes[n]; i < k; i++) {
+			// the other two vertices of the face in counter clockwise order
+			int f = faces[i];
+			int j = triangles[3*f] == n ? 0 : triangles[3*f+1] == n ? 1 : 2;
+			int a = triangles[3*f + (j+1) % 3];
+			int b = triangles[3*f + (j+2) % 3];
+
+			float ax = p[3*a]-x, ay = p[3*a+1]-y, az = p[3*a+2]-z;
+			float length = (float)Math.sqrt(ax*ax+ay*ay+az*az);
+			if (length > 0) {
+				ax /= length;
+				ay /= length;
+				az /= length;
+			}
+			float bx = p[3*b]-x, by = p[3*b+1]-y, bz = p[3*b+2]-z;
+			length = (float)Math.sqrt(bx*bx+by*by+bz*bz);
+			if (length > 0) {
+				bx /= length;
+				by /= length;
+				bz /= length;
+			}
+			float gx = ay*bz-az*by;
+			float gy = az*bx-ax*bz;
+			float gz = ax*by-ay*bx;
+			length = (float)Math.sqrt(gx*gx+gy*gy+gz*gz);
+			if (length > 0) {
+				gx /= length;
+				gy /= length;
+				gz /= length;
+			}
+			if (sx*gx+sy*gy+sz*gz < 0) {
+				gx = -gx;
+				gy = -gy;
+				gz = -gz;
+			}
+			sx += gx;
+			sy += gy;
+			sz += gz;
+			number++;
+		}
+
+		float length = (float)Math.sqrt(sx*sx+sy*sy+sz*sz);
+		if (number > 0 && length > 0) {
+			sx /= length;
+			sy /= length;
+			sz /= length;
+		} else {
+			sx = 0;
+			sy = 0;
+			sz = 0;
+		}
+		normal[offset] = sx;
+		normal[offset+1] = sy;
+		normal[offset+2] = sz;
+	}
+
+	/**
+	 * Returns the cosine of the angle between b - a and c - a (GetDotProduct
+	 * in SurfSmooth).
+	 */
+	private static float getDotProduct(float[] p, int a, int b, int c) {
+		float bx = p[3*b]-p[3*a], by = p[3*b+1]-p[3*a+1], bz = p[3*b+2]-p[3*a+2];
+		float length = (float)Math.sqrt(bx*bx+by*by+bz*bz);
+		if (length > 0) {
+			bx /= length;
+			by /= length;
+			bz /= length;
+		}
+		float cx = p[3*c]-p[3*a], cy = p[3*c+1]-p[3*a+1], cz = p[3*c+2]-p[3*a+2];
+		length = (float)Math.sqrt(cx*cx+cy*cy+cz*cz);
+		if (length > 0) {
+			cx /= length;
+			cy /= length;
+			cz /= length;
+		}
+		return bx*cx+by*cy+bz*cz;
+	}
+
+	/**
+	 * Flips the edges of vertex n that increase the smallest angle of their
+	 * two faces. A vertex with three neighbors is moved to their centroid.
+	 * (EdgeFlipping in SurfSmooth)
+	 */
+	private void flipEdges(int n) {
+		if (!regular[n]) {
+			return;
+		}
+		float[] p = positions;
+		for (int i = 0; i < ringSizes[n]; i++) {
+			int[] ring = rings[n];
+			int k = ringSizes[n];
+			if (k <= 3) {
+				float ax = 0, ay = 0, az = 0;
+				for (int j = 0; j < k; j++) {
+					ax += p[3*ring[j]];
+					ay += p[3*ring[j]+1];
+					az += p[3*ring[j]+2];
+				}
+				p[3*n] = ax/k;
+				p[3*n+1] = ay/k;
+				p[3*n+2] = az/k;
+				return;
+			}
+
+			// flip edge n-b of faces (n, a, b) and (n, b, c) to a-c
+			int next = (i+1) % k;
+			int a = ring[i];
+			int b = ring[next];
+			int c = ring[(i+2) % k];
+			if (!regular[a] || !regular[b] || !regular[c] || ringSizes[b] <= 3
+					|| isNeighbor(a, c) || isNeighbor(c, a) || !checkFlip(n, b, a, c)) {
+				continue;
+			}
+			int f1 = ringFaces[n][i];
+			int f2 = ringFaces[n][next];
+			setFace(f1, n, a, c);
+			setFace(f2, b, c, a);
+			removeVertexFace(n, f2);
+			removeVertexFace(b, f1);
+			addVertexFace(a, f2);
+			addVertexFace(c, f1);
+
+			// b is no longer a neighbor of n, keep the order of the others
+			System.arraycopy(ring, next+1, ring, next, k-next-1);
+			System.arraycopy(ringFaces[n], next+1, ringFaces[n], next, k-next-1);
+			ringSizes[n]--;
+			if (next == 0) {
+				i--;
+			}
+			buildRing(a);
+			buildRing(b);
+			buildRing(c);
+		}
+	}
+
+	/**
+	 * Returns true if flipping edge a-b to c-d increases the smallest angle
+	 * (CheckFlipAction in SurfSmooth).
+	 */
+	private boolean checkFlip(int a, int b, int c, int d) {
+		float[] p = positions;
+		// smallest angle at edge a-b
+		float maxCos1 = Math.max(Math.max(getDotProduct(p, a, b, c), getDotProduct(p, a, b, d)),
+				Math.max(getDotProduct(p, b, a, c), getDotProduct(p, b, a, d)));
+		// smallest angle at edge c-d
+		float maxCos2 = Math.max(Math.max(getDotProduct(p, c, a, d), getDotProduct(p, c, b, d)),
+				Math.max(getDotProduct(p, d, a, c), getDotProduct(p, d, b, c)));
+		return maxCos1 > maxCos2;
+	}
+
+	/**
+	 * Stores the position of vertex n after anisotropic normal-based
+	 * averaging in moved (NormalSmooth in SurfSmooth).
+	 */
+	private void normalSmooth(int n, float[] p, Workspace w, float[] moved) {
+		moved[3*n] = p[3*n];
+		moved[3*n+1] = p[3*n+1];
+		moved[3*n+2] = p[3*n+2];
+		if (!regular[n]) {
+			return;
+		}
+
+		float[] g = w.normal;
+		float[] h = w.point;
+		int[] ring = rings[n];
+		int k = ringSizes[n];
+		float posX = 0;
+		float posY = 0;
+		float posZ = 0;
+		int number = 0;
+		for (int i = 0; i < k; i++) {
+			int a = ring[i];
+			int b = ring[(i+1) % k];
+			int c = ring[(i+2) % k];
+			int d = ring[(i+3) % k];
+			// the vertex opposite of n across edge b-c
+			int e = getOppositeVertex(b, c, n);
+			if (e < 0) {
+				continue;
+			}
+
+			getCrossProduct(p, n, b, c, g);
+			float dx = 0;
+			float dy = 0;
+			float dz = 0;
+			int num = 0;
+			for (int j = 0; j < 3; j++) {
+				if (j == 0) {
+					getCrossProduct(p, n, a, b, h);
+				} else if (j == 1) {
+					getCrossProduct(p, n, c, d, h);
+				} else {
+					getCrossProduct(p, b, e, c, h);
+				}
+				float length = h[0]*g[0]+h[1]*g[1]+h[2]*g[2];
+				if (length > 0) {
+					num++;
+					dx += length*h[0];
+					dy += length*h[1];
+					dz += length*h[2];
+				}
+			}
+
+			float length = (float)Math.sqrt(dx*dx+dy*dy+dz*dz);
+			if (length <= 0) {
+				continue;
+			}
+			dx /= length;
+			dy /= length;
+			dz /= length;
+			float fx = g[1]*dz-g[2]*dy;
+			float fy = g[2]*dx-g[0]*dz;
+			float fz = g[0]*dy-g[1]*dx;
+			float cx = p[3*c], cy = p[3*c+1], cz = p[3*c+2];
+			float bx = p[3*b], by = p[3*b+1], bz = p[3*b+2];
+			float theta, phi;
+			if (fx*(bx-cx)+fy*(by-cy)+fz*(bz-cz) >= 0) {
+				theta = (float)Math.atan2(by-cy,bx-cx);
+				phi = (float)Math.atan2(bz-cz, Math.sqrt((bx-cx)*(bx-cx)+(by-cy)*(by-cy)));
+			} else {
+				theta = (float)Math.atan2(cy-by,cx-bx);
+				phi = (float)Math.atan2(cz-bz, Math.sqrt((bx-cx)*(bx-cx)+(by-cy)*(by-cy)));
+			}
+
+			float alpha = (float)Math.acos(dx*g[0]+dy*g[1]+dz*g[2])/(float)(4.0-num);
+			rotate(p[3*n]-cx, p[3*n+1]-cy, p[3*n+2]-cz, theta, phi, alpha, h);
+			posX += h[0]+cx;
+			posY += h[1]+cy;
+			posZ += h[2]+cz;
+			number++;
+		}
+
+		if (number > 0 && !Float.isNaN(posX) && !Float.isNaN(posY) && !Float.isNaN(posZ)) {
+			moved[3*n] = posX/number;
+			moved[3*n+1] = posY/number;
+			moved[3*n+2] = posZ/number;
+		}
+	}
+
+	/**
+	 * Returns the third vertex of a face with edge a-b that does not
+	 * contain vertex n, or -1 if there is none.
+	 */
+	private int getOppositeVertex(int a, int b, int n) {
+		int[] faces = vertexFaces[a];
+		for (int i = 0, m = vertexFaceCounts[a]; i < m; i++) {
+			int f = faces[i];
+			int u = triangles[3*f];
+			int v = triangles[3*f+1];
+			int w = triangles[3*f+2];
+			if ((u == b || v == b || w == b) && u != n && v != n && w != n) {
+				return u != a && u != b ? u : v != a && v != b ? v : w;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Stores the unit normal of (b - a) x (c - a) in result (GetCrossProduct
+	 * in SurfSmooth).
+	 */
+	private static void getCrossProduct(float[] p, int a, int b, int c, float[] result) {
+		float bx = p[3*b]-p[3*a], by = p[3*b+1]-p[3*a+1], bz = p[3*b+2]-p[3*a+2];
+		float length = (float)Math.sqrt(bx*bx+by*by+bz*bz);
+		if (length > 0) {
+			bx /= length;
+			by /= length;
+			bz /= length;
+		}
+		float cx = p[3*c]-p[3*a], cy = p[3*c+1]-p[3*a+1], cz = p[3*c+2]-p[3*a+2];
+		length = (float)Math.sqrt(cx*cx+cy*cy+cz*cz);
+		if (length > 0) {
+			cx /= length;
+			cy /= length;
+			cz /= length;
+		}
+		float gx = cy*bz-cz*by;
+		float gy = cz*bx-cx*bz;
+		float gz = cx*by-cy*bx;
+		length = (float)Math.sqrt(gx*gx+gy*gy+gz*gz);
+		if (length > 0) {
+			gx /= length;
+			gy /= length;
+			gz /= length;
+		}
+		result[0] = gx;
+		result[1] = gy;
+		result[2] = gz;
+	}
+
+	/**
+	 * Stores the point sx, sy, sz rotated by angle around the axis theta, phi
+	 * in result (Rotate in SurfSmooth).
+	 */
+	private static void rotate(float sx, float sy, float sz, float theta, float phi, float angle, float[] result) {
+		float cosPhi = (float)Math.cos(0.5*PIE-phi);
+		float sinPhi = (float)Math.sin(0.5*PIE-phi);
+		float cosTheta = (float)Math.cos(theta);
+		float sinTheta = (float)Math.sin(theta);
+
+		float x = cosPhi*cosTheta*sx + cosPhi*sinTheta*sy - sinPhi*sz;
+		float y = -sinTheta*sx + cosTheta*sy;
+		float z = sinPhi*cosTheta*sx + sinPhi*sinTheta*sy + cosPhi*sz;
+
+		float xx = (float)(Math.cos(angle)*x - Math.sin(angle)*y);
+		float yy = (float)(Math.sin(angle)*x + Math.cos(angle)*y);
+		float zz = z;
+
+		result[0] = cosPhi*cosTheta*xx - sinTheta*yy + sinPhi*cosTheta*zz;
+		result[1] = cosPhi*sinTheta*xx + cosTheta*yy + sinPhi*sinTheta*zz;
+		result[2] = -sinPhi*xx + cosPhi*zz;
+	}
+
+	/**
+	 * Returns true if the vertex n and its neighbors have enough neighbors
+	 * for n to be deleted, and no two neighbors of n that are not next to
+	 * each other around n are connected.
+	 */
+	private boolean canDelete(int n) {
+		int[] ring = rings[n];
+		int k = ringSizes[n];
+		for (int i = 0; i < k; i++) {
+			int a = ring[i];
+			if (!regular[a] || ringSizes[a] <= 3) {
+				return false;
+			}
+			int common = 0;
+			for (int j = 0, m = ringSizes[a]; j < m; j++) {
+				if (isNeighbor(n, rings[a][j])) {
+					common++;
+				}
+			}
+			if (common > 2) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Deletes vertex n and its faces, re-triangulates the hole and smoothes
+	 * the vertices around it.
+	 */
+	private void deleteVertex(int n, Workspace w) {
+		int k = ringSizes[n];
+		int[] polygon = Arrays.copyOf(rings[n], k);
+		int[] slots = Arrays.copyOf(ringFaces[n], k);
+
+		vertexAlive[n] = false;
+		regular[n] = false;
+		ringSizes[n] = 0;
+		vertexFaceCounts[n] = 0;
+		vertexCount--;
+		for (int i = 0; i < k; i++) {
+			int f = slots[i];
+			faceAlive[f] = false;
+			faceCount--;
+			removeVertexFace(polygon[i], f);
+			removeVertexFace(polygon[(i+1) % k], f);
+		}
+
+		// the k - 2 new faces reuse the slots of the deleted faces
+		int[] degrees = new int[k];
+		for (int i = 0; i < k; i++) {
+			degrees[i] = vertexFaceCounts[polygon[i]];
+		}
+		subdividePolygon(polygon, degrees, slots, 0);
+
+		for (int i = 0; i < k; i++) {
+			buildRing(polygon[i]);
+		}
+		// smooth the neighbors
+		for (int i = 0; i < k; i++) {
+			moveVertex(polygon[i], positions, null, w, positions);
+		}
+	}
+
+	/**
+	 * Triangulates a polygon, given in counter clockwise order, by
+	 * connecting the two vertices of lowest degree that are not next to each
+	 * other. The faces are stored in the slots from index next.
+	 * (PolygonSubdivision in SurfSmooth)
+	 * @return the index of the next free slot
+	 */
+	private int subdividePolygon(int[] polygon, int[] degrees, int[] slots, int next) {
+		int m = polygon.length;
+		if (m == 3) {
+			int f = slots[next];
+			setFace(f, polygon[0], polygon[1], polygon[2]);
+			faceAlive[f] = true;
+			faceCount++;
+			addVertexFace(polygon[0], f);
+			addVertexFace(polygon[1], f);
+			addVertexFace(polygon[2], f);
+			return next + 1;
+		}
+
+		int first = 0;
+		for (int i = 1; i < m; i++) {
+			if (degrees[i] < degrees[first]) {
+				first = i;
+			}
+		}
+		int second = -1;
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < m; i++) {
+			if (i != first && i != (first+1) % m && (i+1) % m != first && degrees[i] < min) {
+				min = degrees[i];
+				second = i;
+			}
+		}
+		degrees[first]++;
+		degrees[second]++;
+
+		// first, ..., second and first, second, ..., the vertex before first
+		int m1 = (second - first + m) % m + 1;
+		int m2 = m - m1 + 2;
+		int[] polygon1 = new int[m1];
+		int[] degrees1 = new int[m1];
+		for (int i = 0; i < m1; i++) {
+			polygon1[i] = polygon[(first+i) % m];
+			degrees1[i] = degrees[(first+i) % m];
+		}
+		int[] polygon2 = new int[m2];
+		int[] degrees2 = new int[m2];
+		polygon2[0] = polygon[first];
+		degrees2[0] = degrees[first];
+		for (int i = 1; i < m2; i++) {
+			polygon2[i] = polygon[(second+i-1) % m];
+			degrees2[i] = degrees[(second+i-1) % m];
+		}
+		next = subdividePolygon(polygon1, degrees1, slots, next);
+		return subdividePolygon(polygon2, degrees2, slots, next);
+	}
+
+	/**
+	 * Orders the faces of vertex v into a counter clockwise ring of
+	 * neighbors. If they do not form a single closed fan, v is irregular.
+	 */
+	private void buildRing(int v) {
+		int count = vertexFaceCounts[v];
+		if (rings[v] == null || rings[v].length < count) {
+			rings[v] = new int[count + 2];
+			ringFaces[v] = new int[count + 2];
+		}
+		if (entryA.length < count) {
+			entryA = new int[2 * count];
+			entryB = new int[2 * count];
+			entryFace = new int[2 * count];
+		}
+		int[] faces = vertexFaces[v];
+		for (int i = 0; i < count; i++) {
+			int f = faces[i];
+			int j = triangles[3*f] == v ? 0 : triangles[3*f+1] == v ? 1 : 2;
+			entryA[i] = triangles[3*f + (j+1) % 3];
+			entryB[i] = triangles[3*f + (j+2) % 3];
+			entryFace[i] = f;
+		}
+
+		// chain the entries (a, b) so that b is the a of the next entry
+		boolean closed = count >= 3;
+		for (int i = 1; i < count && closed; i++) {
+			int b = entryB[i-1];
+			int j = i;
+			while (j < count && entryA[j] != b) {
+				j++;
+			}
+			if (j == count) {
+				closed = false;
+				break;
+			}
+			swap(entryA, i, j);
+			swap(entryB, i, j);
+			swap(entryFace, i, j);
+		}
+		if (closed && entryB[count-1] != entryA[0]) {
+			closed = false;
+		}
+		// a vertex that is visited twice pinches the fan
+		for (int i = 0; i < count && closed; i++) {
+			for (int j = i + 1; j < count; j++) {
+				if (entryA[i] == entryA[j]) {
+					closed = false;
+					break;
+				}
+			}
+		}
+
+		System.arraycopy(entryA, 0, rings[v], 0, count);
+		System.arraycopy(entryFace, 0, ringFaces[v], 0, count);
+		ringSizes[v] = count;
+		regular[v] = closed;
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int t = array[i];
+		array[i] = array[j];
+		array[j] = t;
+	}
+
+	private boolean isNeighbor(int v, int u) {
+		int[] ring = rings[v];
+		for (int i = 0, k = ringSizes[v]; i < k; i++) {
+			if (ring[i] == u) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void setFace(int f, int a, int b, int c) {
+		triangles[3*f] = a;
+		triangles[3*f+1] = b;
+		triangles[3*f+2] = c;
+	}
+
+	private void addVertexFace(int v, int f) {
+		if (vertexFaceCounts[v] == vertexFaces[v].length) {
+			vertexFaces[v] = Arrays.copyOf(vertexFaces[v], 2 * vertexFaces[v].length + 1);
+		}
+		vertexFaces[v][vertexFaceCounts[v]++] = f;
+	}
+
+	private void removeVertexFace(int v, int f) {
+		int[] faces = vertexFaces[v];
+		for (int i = 0, m = vertexFaceCounts[v]; i < m; i++) {
+			if (faces[i] == f) {
+				faces[i] = faces[m-1];
+				vertexFaceCounts[v]--;
+				return;
+			}
+		}
+	}
+
+	private void swapPositions() {
+		float[] t = positions;
+		positions = buffer;
+		buffer = t;
+	}
+
+	/**
+	 * Runs a task over the vertices [0, n), split into ranges over the
+	 * threads.
+	 */
+	private void runParallel(final int n, final RangeTask task) {
+		int taskCount = threads <= 1 ? 1 : Math.min(n, threads * TASKS_PER_THREAD);
+		if (taskCount <= 1) {
+			task.run(0, n, new Workspace());
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(taskCount);
+		for (int t = 0; t < taskCount; t++) {
+			final int start = (int) ((long) n * t / taskCount);
+			final int end = (int) ((long) n * (t + 1) / taskCount);
+			tasks.add(new Callable<Void>() {
+				public Void call() {
+					task.run(start, end, new Workspace());
+					return null;
+				}
+			});
+		}
+		executor.invokeAll(tasks, threads);
+	}
+
+	private interface RangeTask {
+		void run(int start, int end, Workspace w);
+	}
+
+	/**
+	 * Scratch space of one thread.
+	 */
+	private static class Workspace {
+		int[] indices = new int[64];
+		int[] distances = new int[64];
+		double[][] tensor = new double[3][3];
+		double[] cofactors = new double[6];
+		double[] values = new double[3];
+		double[] vectors = new double[9];
+		float maxAngle;
+		float[] normal = new float[3];
+		float[] point = new float[3];
+
+		void add(int i, int index, int distance) {
+			if (i == indices.length) {
+				indices = Arrays.copyOf(indices, 2 * i);
+				distances = Arrays.copyOf(distances, 2 * i);
+			}
+			indices[i] = index;
+			distances[i] = distance;
+		}
+	}
+}
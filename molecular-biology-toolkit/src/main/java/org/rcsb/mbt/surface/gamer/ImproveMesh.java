@@ -1,136 +1,73 @@
 package org.rcsb.mbt.surface.gamer;
 
-import java.util.List;
-
-import org.rcsb.mbt.surface.datastructure.FaceInfo;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
-import org.rcsb.mbt.surface.datastructure.VertInfo;
-import org.rcsb.mbt.surface.gamer.biom.FLTVECT;
-import org.rcsb.mbt.surface.gamer.biom.INT3VECT;
-import org.rcsb.mbt.surface.gamer.biom.SurfMesh;
 
 public class ImproveMesh {
-	private static biom biom = new biom();
 
-	public static TriangulatedSurface Smooth(TriangulatedSurface surface, int iterations) {	
+	public static TriangulatedSurface Smooth(TriangulatedSurface surface, int iterations) {
 		long t1 = System.nanoTime();
-		SurfMesh surfmesh = createSurfMesh(surface);
+		GamerMesh mesh = new GamerMesh(surface);
 		long t2 = System.nanoTime();
-		System.out.println("Create surfmesh: " + ((t2-t1)/1000000) + " ms");
+		System.out.println("Create mesh: " + ((t2-t1)/1000000) + " ms");
 		System.out.println("Histogram before: ");
-		SurfSmooth.GenerateHistogram(surfmesh);
+		mesh.printHistogram();
 		int MAX_MIN_ANGLE = 15;
 		int MIN_MAX_ANGLE = 150;
 		boolean FLIP_EDGES = true;
 		int MAX_ITER = 6;
-		SurfSmooth.SurfaceMesh_smooth(surfmesh, MAX_MIN_ANGLE, MIN_MAX_ANGLE, MAX_ITER, FLIP_EDGES);
+		mesh.smooth(MAX_MIN_ANGLE, MIN_MAX_ANGLE, MAX_ITER, FLIP_EDGES);
 		for (int i = 0; i < iterations; i++) {
-			SurfSmooth.SurfaceMesh_normalSmooth(surfmesh);
+			mesh.normalSmooth();
 		}
 		long t3 = System.nanoTime();
-		System.out.println("Normal smooth per iteration: " + ((t3-t2)/(1000000*iterations)) + " ms");
-        SurfSmooth.GenerateHistogram(surfmesh);
-        return createTriangulatedSurface(surface, surfmesh);
+		System.out.println("Smooth: " + ((t3-t2)/1000000) + " ms");
+		mesh.printHistogram();
+		return createTriangulatedSurface(surface, mesh);
 	}
-	
-	public static TriangulatedSurface Coarse(TriangulatedSurface surface, int iterations) {	
+
+	public static TriangulatedSurface Coarse(TriangulatedSurface surface, int iterations) {
 		long t1 = System.nanoTime();
-		SurfMesh surfmesh = createSurfMesh(surface);
+		GamerMesh mesh = new GamerMesh(surface);
 		long t2 = System.nanoTime();
-		System.out.println("Create surfmesh: " + ((t2-t1)/1000000) + " ms");
+		System.out.println("Create mesh: " + ((t2-t1)/1000000) + " ms");
 		System.out.println("Histogram before: ");
-		SurfSmooth.GenerateHistogram(surfmesh);
+		mesh.printHistogram();
 		float FLAT_RATE = 0.016f;
 
-		SurfSmooth.SurfaceMesh_coarse(surfmesh, FLAT_RATE, 1, 0, -1);
+		mesh.coarse(FLAT_RATE, 1, 0, -1);
 		for (int i = 0; i < iterations; i++) {
-			SurfSmooth.SurfaceMesh_normalSmooth(surfmesh);
+			mesh.normalSmooth();
 		}
 		long t3 = System.nanoTime();
-		System.out.println("Normal smooth per iteration: " + ((t3-t2)/(1000000*iterations)) + " ms");
-        SurfSmooth.GenerateHistogram(surfmesh);
-        return createTriangulatedSurface(surface, surfmesh);
+		System.out.println("Coarse: " + ((t3-t2)/1000000) + " ms");
+		mesh.printHistogram();
+		return createTriangulatedSurface(surface, mesh);
 	}
-	
-	public static TriangulatedSurface NormalSmooth(TriangulatedSurface surface, int iterations) {	
+
+	public static TriangulatedSurface NormalSmooth(TriangulatedSurface surface, int iterations) {
 		long t1 = System.nanoTime();
-		SurfMesh surfmesh = createSurfMesh(surface);
+		GamerMesh mesh = new GamerMesh(surface);
 		long t2 = System.nanoTime();
-		System.out.println("Create surfmesh: " + ((t2-t1)/1000000) + " ms");
+		System.out.println("Create mesh: " + ((t2-t1)/1000000) + " ms");
 		System.out.println("Histogram before: ");
-		SurfSmooth.GenerateHistogram(surfmesh);
+		mesh.printHistogram();
 		for (int i = 0; i < iterations; i++) {
-			SurfSmooth.SurfaceMesh_normalSmooth(surfmesh);
+			mesh.normalSmooth();
 		}
 		long t3 = System.nanoTime();
-		System.out.println("Normal smooth per iteration: " + ((t3-t2)/(1000000*iterations)) + " ms");
-        SurfSmooth.GenerateHistogram(surfmesh);
-        return createTriangulatedSurface(surface, surfmesh);
+		System.out.println("Normal smooth per iteration: " + ((t3-t2)/(1000000*Math.max(1, iterations))) + " ms");
+		mesh.printHistogram();
+		return createTriangulatedSurface(surface, mesh);
 	}
 
-	private static SurfMesh createSurfMesh(TriangulatedSurface surface) {
-		SurfMesh surfmesh = biom.new SurfMesh();
-
-		// copy vertices
-		List<VertInfo> vertices = surface.getVertices();
-		int nv = vertices.size();
-		surfmesh.nv = nv;	
-		surfmesh.vertex = new FLTVECT[nv];
-		for (int i = 0; i < nv; i++) {
-			VertInfo vertInfo = vertices.get(i);
-			FLTVECT vertex = biom.new FLTVECT();
-			vertex.x = vertInfo.p.x;
-			vertex.y = vertInfo.p.y;
-			vertex.z = vertInfo.p.z;
-			surfmesh.vertex[i] = vertex;
-		}
-
-		// copy faces
-		List<FaceInfo> faces = surface.getFaces();
-		int nf = faces.size();
-		surfmesh.nf = nf;
-		surfmesh.face = new INT3VECT[nf];
-		for (int i = 0; i < nf; i++) {
-			FaceInfo faceInfo = faces.get(i);
-			INT3VECT face = biom.new INT3VECT();
-			face.a = faceInfo.a;
-			face.b = faceInfo.b;
-			face.c = faceInfo.c;
-			surfmesh.face[i] = face;
-		}
-		
-		return surfmesh;
-	}
-	
-	private static TriangulatedSurface createTriangulatedSurface(TriangulatedSurface surface, SurfMesh surfmesh) {
-		// copy vertices
-		List<VertInfo> vertices = surface.getVertices();
-		if (vertices.size() != surfmesh.nv) {
-			System.out.println("Reduced vertices: " + vertices.size() + " -> " + surfmesh.nv);
-		}
-		for (int i = 0; i < surfmesh.nv; i++) {
-			VertInfo vertInfo = vertices.get(i);
-			FLTVECT vertex = surfmesh.vertex[i];
-			vertInfo.p.x = vertex.x;
-			vertInfo.p.y = vertex.y;
-			vertInfo.p.z = vertex.z;
-		}
-
-		// copy faces
-		List<FaceInfo> faces = surface.getFaces();
-		if (faces.size() != surfmesh.nf) {
-			System.out.println("Reduced faces: " + faces.size() + " -> " + surfmesh.nf);
+	private static TriangulatedSurface createTriangulatedSurface(TriangulatedSurface surface, GamerMesh mesh) {
+		if (surface.getVertexCount() != mesh.getVertexCount()) {
+			System.out.println("Reduced vertices: " + surface.getVertexCount() + " -> " + mesh.getVertexCount());
 		}
-		for (int i = 0; i < surfmesh.nf; i++) {
-			FaceInfo faceInfo = faces.get(i);
-			INT3VECT face = surfmesh.face[i];
-			faceInfo.a = face.a;
-			faceInfo.b = face.b;
-			faceInfo.c = face.c;
-			surfmesh.face[i] = face;
+		if (surface.getFaceCount() != mesh.getFaceCount()) {
+			System.out.println("Reduced faces: " + surface.getFaceCount() + " -> " + mesh.getFaceCount());
 		}
-		
-		surface.computenorm();
+		mesh.write(surface);
 		return surface;
 	}
 }
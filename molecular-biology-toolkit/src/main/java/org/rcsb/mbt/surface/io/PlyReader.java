@@ -1,26 +1,62 @@
 package org.rcsb.mbt.surface.io;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 
-import javax.vecmath.Color3b;
 import javax.vecmath.Color4f;
-import javax.vecmath.Point3f;
 
 import org.rcsb.mbt.surface.datastructure.FaceInfo;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
 import org.rcsb.mbt.surface.datastructure.VertInfo;
 
 
 /**
+ * Reads surfaces from PLY files in ascii, binary_little_endian or
+ * binary_big_endian format. The file is streamed into the arrays of the
+ * surface; binary files are read through a fixed size buffer.
  *
  * @author Peter
  */
 public class PlyReader {
-    private Point3f[] vertices = null;
-    private int[][] faces = null;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // property types
+    private static final int CHAR = 0;
+    private static final int UCHAR = 1;
+    private static final int SHORT = 2;
+    private static final int USHORT = 3;
+    private static final int INT = 4;
+    private static final int UINT = 5;
+    private static final int FLOAT = 6;
+    private static final int DOUBLE = 7;
+
+    // vertex properties that are kept
+    private static final int IGNORE = -1;
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int Z = 2;
+    private static final int NX = 3;
+    private static final int NY = 4;
+    private static final int NZ = 5;
+    private static final int RED = 6;
+    private static final int GREEN = 7;
+    private static final int BLUE = 8;
+    private static final int ALPHA = 9;
+    private static final int ATOM_ID = 10;
+    private static final String[] VERTEX_PROPERTIES = {"x", "y", "z", "nx", "ny", "nz", "red", "green", "blue", "alpha", "atomid"};
+
+    private float[] positions = null;
+    private float[] normals = null;
+    private int[] atomIds = null;
     private Color4f[] colors = null;
+    private int[] triangles = null;
     private VertInfo[] vertInfo = null;
     private FaceInfo[] faceInfo = null;
 
@@ -32,137 +68,361 @@ public class PlyReader {
 //Face		Index list
 //Vertex	"x", "y" and "z" vertex coordinates
 //Vertex	"nx", "ny" and "nz" vertex normals
-//Vertex	"u" and "v" vertex texture coordinates
 //Vertex	"red", "green" and "blue" vertex colors (0..255 integers or 0..1 normalized)
+//Vertex	"atomid" atom id of the vertex
 
     public void readPly(String fileName) throws FileNotFoundException, IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(fileName));
-        FastScanner scanner = new FastScanner();
-
-        String line = "";
-        while ((line = reader.readLine()) != null) {
-            if (line.startsWith("element")) {
-                if (line.contains("vertex")) {
-                    int index = line.indexOf("vertex") + 6;
-                    int vertexCount = Integer.parseInt(line.substring(index).trim());
-                    System.out.println("# of vertices: " + vertexCount);
-                    vertices = new Point3f[vertexCount];
-                    colors = new Color4f[vertexCount];
-                    vertInfo = new VertInfo[vertexCount];
-                } else if (line.contains("face")) {
-                    int index = line.lastIndexOf("face") + 4;
-                    int faceCount = Integer.parseInt(line.substring(index).trim());
-                    System.out.println("# of faces: " + faceCount);
-                    faces = new int[faceCount][3];
-                    faceInfo = new FaceInfo[faceCount];
-                }
-            }
-            if (line.startsWith("end_header")) {
-                System.out.println("Parsing vertices");
-                for (int i = 0; i < vertices.length; i++) {
-                    line = reader.readLine();
-                    if (line == null) {
-                        System.err.println("PlyReader: End of file reached while reading vertex: " + i);
-                    }
-                    scanner.setString(line);
-                    float x = 0.0f;
-                    if (scanner.hasNextFloat()) {
-                        x = scanner.nextFloat();
-                    }
-                    float y = 0.0f;
-                    if (scanner.hasNextFloat()) {
-                        y = scanner.nextFloat();
-                    }
-                    float z = 0.0f;
-                    if (scanner.hasNextFloat()) {
-                        z = scanner.nextFloat();
-                    }
- //[i] = new Point3f(x, y, -z);
-//                    vertices[i] = new Point3f(x, y, z);
-                    vertInfo[i] = new VertInfo();
-                    vertInfo[i].p = new Point3f(x, y, z);
-                    byte r = (byte)0;
-                    if (scanner.hasNextInt()) {
-                        r = (byte)scanner.nextInt();
-                    }
-                    byte g = (byte)0;
-                    if (scanner.hasNextInt()) {
-                        g = (byte)scanner.nextInt();
-                    }
-                    byte b = (byte)0;
-                    if (scanner.hasNextInt()) {
-                        b = (byte)scanner.nextInt();
+        positions = new float[0];
+        normals = null;
+        atomIds = null;
+        colors = null;
+        triangles = new int[0];
+        vertInfo = null;
+        faceInfo = null;
+
+        FileInputStream in = new FileInputStream(fileName);
+        try {
+            PlyInput input = new PlyInput(in.getChannel());
+            List<Element> elements = readHeader(input);
+            for (Element element: elements) {
+                if (element.name.equals("vertex")) {
+                    readVertices(input, element);
+                } else if (element.name.equals("face")) {
+                    readFaces(input, element);
+                } else {
+                    for (int i = 0; i < element.count; i++) {
+                        input.nextRecord();
+                        for (Property property: element.properties) {
+                            input.skip(property);
+                        }
                     }
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
 
-                    Color3b c = new Color3b(r, g, b);
-                    colors[i] = new Color4f(c.get());
+    private List<Element> readHeader(PlyInput input) throws IOException {
+        if (! "ply".equals(input.readLine())) {
+            throw new IOException("PlyReader: not a PLY file");
+        }
+        List<Element> elements = new ArrayList<Element>();
+        String line;
+        while ((line = input.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].equals("format")) {
+                if (tokens[1].equals("ascii")) {
+                    input.ascii = true;
+                } else if (tokens[1].equals("binary_little_endian")) {
+                    input.buffer.order(ByteOrder.LITTLE_ENDIAN);
+                } else if (tokens[1].equals("binary_big_endian")) {
+                    input.buffer.order(ByteOrder.BIG_ENDIAN);
+                } else {
+                    throw new IOException("PlyReader: unknown format: " + tokens[1]);
                 }
+            } else if (tokens[0].equals("element")) {
+                Element element = new Element();
+                element.name = tokens[1];
+                element.count = Integer.parseInt(tokens[2]);
+                elements.add(element);
+            } else if (tokens[0].equals("property")) {
+                if (elements.isEmpty()) {
+                    throw new IOException("PlyReader: property outside of an element: " + line);
+                }
+                Property property = new Property();
+                if (tokens[1].equals("list")) {
+                    property.countType = getType(tokens[2]);
+                    property.type = getType(tokens[3]);
+                    property.name = tokens[4];
+                } else {
+                    property.countType = IGNORE;
+                    property.type = getType(tokens[1]);
+                    property.name = tokens[2];
+                }
+                elements.get(elements.size() - 1).properties.add(property);
+            } else if (tokens[0].equals("end_header")) {
+                return elements;
+            }
+        }
+        throw new EOFException("PlyReader: end of file reached while reading header");
+    }
 
-                System.out.println("Parsing faces");
-                for (int i = 0; i < faces.length; i++) {
-                    line = reader.readLine();
-                    if (line == null) {
-                        System.err.println("PlyReader: End of file reached while reading face: " + i);
-                    }
-                    scanner.setString(line);
-                    int n = 0;
-                    if (scanner.hasNextInt()) {
-                        n = scanner.nextInt();
-                    }
-                    if (n != 3) {
-                        System.err.println("PlyReader: Polygon is not a triangle: " + n);
-                    }
-                    int a = 0;
-                    if (scanner.hasNextInt()) {
-                        a = scanner.nextInt();
-                    }
-                    int b = 0;
-                    if (scanner.hasNextInt()) {
-                        b = scanner.nextInt();
-                    }
-                    int c = 0;
-                    if (scanner.hasNextInt()) {
-                        c = scanner.nextInt();
+    private static int getType(String name) throws IOException {
+        if (name.equals("char") || name.equals("int8")) {
+            return CHAR;
+        } else if (name.equals("uchar") || name.equals("uint8")) {
+            return UCHAR;
+        } else if (name.equals("short") || name.equals("int16")) {
+            return SHORT;
+        } else if (name.equals("ushort") || name.equals("uint16")) {
+            return USHORT;
+        } else if (name.equals("int") || name.equals("int32")) {
+            return INT;
+        } else if (name.equals("uint") || name.equals("uint32")) {
+            return UINT;
+        } else if (name.equals("float") || name.equals("float32")) {
+            return FLOAT;
+        } else if (name.equals("double") || name.equals("float64")) {
+            return DOUBLE;
+        }
+        throw new IOException("PlyReader: unknown property type: " + name);
+    }
+
+    private void readVertices(PlyInput input, Element element) throws IOException {
+        int n = element.count;
+        int[] slots = new int[element.properties.size()];
+        boolean[] found = new boolean[VERTEX_PROPERTIES.length];
+        for (int i = 0; i < slots.length; i++) {
+            Property property = element.properties.get(i);
+            slots[i] = IGNORE;
+            for (int j = 0; j < VERTEX_PROPERTIES.length; j++) {
+                if (property.countType == IGNORE && property.name.equals(VERTEX_PROPERTIES[j])) {
+                    slots[i] = j;
+                    found[j] = true;
+                }
+            }
+        }
+        positions = new float[3 * n];
+        normals = found[NX] || found[NY] || found[NZ] ? new float[3 * n] : null;
+        atomIds = found[ATOM_ID] ? new int[n] : null;
+        colors = found[RED] || found[GREEN] || found[BLUE] ? new Color4f[n] : null;
+
+        for (int i = 0; i < n; i++) {
+            input.nextRecord();
+            Color4f color = colors == null ? null : new Color4f(0.0f, 0.0f, 0.0f, 1.0f);
+            for (int j = 0; j < slots.length; j++) {
+                Property property = element.properties.get(j);
+                if (slots[j] == IGNORE) {
+                    input.skip(property);
+                    continue;
+                }
+                double value = input.read(property.type);
+                switch (slots[j]) {
+                    case X: case Y: case Z:
+                        positions[3 * i + slots[j] - X] = (float) value;
+                        break;
+                    case NX: case NY: case NZ:
+                        normals[3 * i + slots[j] - NX] = (float) value;
+                        break;
+                    case ATOM_ID:
+                        atomIds[i] = (int) value;
+                        break;
+                    default:
+                        // integer colors range from 0 to 255
+                        float c = property.type >= FLOAT ? (float) value : (float) value / 255.0f;
+                        if (slots[j] == RED) {
+                            color.x = c;
+                        } else if (slots[j] == GREEN) {
+                            color.y = c;
+                        } else if (slots[j] == BLUE) {
+                            color.z = c;
+                        } else {
+                            color.w = c;
+                        }
+                }
+            }
+            if (colors != null) {
+                colors[i] = color;
+            }
+        }
+    }
+
+    private void readFaces(PlyInput input, Element element) throws IOException {
+        int n = element.count;
+        triangles = new int[3 * n];
+        for (int i = 0; i < n; i++) {
+            input.nextRecord();
+            boolean indices = false;
+            for (Property property: element.properties) {
+                if (indices || property.countType == IGNORE ||
+                        !(property.name.equals("vertex_indices") || property.name.equals("vertex_index"))) {
+                    input.skip(property);
+                    continue;
+                }
+                indices = true;
+                int count = (int) input.read(property.countType);
+                if (count != 3) {
+                    System.err.println("PlyReader: Polygon is not a triangle: " + count);
+                }
+                for (int k = 0; k < count; k++) {
+                    int index = (int) input.read(property.type);
+                    if (k < 3) {
+                        triangles[3 * i + k] = index;
                     }
- //                   faces[i] = new int[]{a, b, c};
-                    faceInfo[i] = new FaceInfo();
-                    faceInfo[i].a = a;
-                    faceInfo[i].b = b;
-                    faceInfo[i].c = c;
                 }
             }
         }
     }
 
+    /**
+     * Returns the surface that was read. The surface uses the arrays of this
+     * reader. Vertex normals are calculated if the file does not contain them.
+     */
+    public TriangulatedSurface getSurface() {
+        TriangulatedSurface surface = new TriangulatedSurface();
+        surface.setVertices(positions, normals, atomIds, null);
+        surface.setTriangles(triangles);
+        if (normals == null) {
+            surface.computenorm();
+        }
+        return surface;
+    }
+
+    /**
+     * @return the vertex colors, or null if the file has no colors
+     */
+    public Color4f[] getColors() {
+        return colors;
+    }
 
     /**
      * @return the vertices
      */
     public VertInfo[] getVertices() {
+        if (vertInfo == null) {
+            int n = positions.length / 3;
+            vertInfo = new VertInfo[n];
+            for (int i = 0; i < n; i++) {
+                vertInfo[i] = new VertInfo();
+                vertInfo[i].p.set(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+                if (normals != null) {
+                    vertInfo[i].normal.set(normals[3 * i], normals[3 * i + 1], normals[3 * i + 2]);
+                }
+                if (atomIds != null) {
+                    vertInfo[i].atomid = atomIds[i];
+                }
+            }
+        }
         return vertInfo;
     }
     /**
      * @return the faces
      */
     public FaceInfo[] getFaces() {
+        if (faceInfo == null) {
+            int n = triangles.length / 3;
+            faceInfo = new FaceInfo[n];
+            for (int i = 0; i < n; i++) {
+                faceInfo[i] = new FaceInfo();
+                faceInfo[i].a = triangles[3 * i];
+                faceInfo[i].b = triangles[3 * i + 1];
+                faceInfo[i].c = triangles[3 * i + 2];
+            }
+        }
         return faceInfo;
     }
-    /**
-     * @return the vertices
-     */
-//    public Point3f[] getVertices() {
-//        return vertices;
-//    }
+
+    private static class Element {
+        private String name;
+        private int count;
+        private List<Property> properties = new ArrayList<Property>();
+    }
+
+    private static class Property {
+        private String name;
+        private int type;
+        // type of the element count of a list property, or IGNORE
+        private int countType;
+    }
 
     /**
-     * @return the faces
+     * Reads the header lines and the ascii or binary records of a PLY file
+     * through one buffer.
      */
-//    public int[][] getFaces() {
-//        return faces;
-//    }
+    private static class PlyInput {
+        private static final int[] SIZE = {1, 1, 2, 2, 4, 4, 4, 8};
 
-//    public Color4f[] getVertexColors() {
-//        return colors;
-//    }
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final FastScanner scanner = new FastScanner();
+        private boolean ascii = false;
 
+        private PlyInput(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            while (buffer.hasRemaining() || fill()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    return line.toString();
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.length() == 0 ? null : line.toString();
+        }
+
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int n = channel.read(buffer);
+            buffer.flip();
+            return n > 0;
+        }
+
+        /**
+         * Makes sure that the next n bytes are in the buffer.
+         */
+        private void require(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < n) {
+                if (channel.read(buffer) <= 0) {
+                    buffer.flip();
+                    throw new EOFException("PlyReader: end of file reached while reading data");
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Starts the next element. In ascii files each element is on its own line.
+         */
+        private void nextRecord() throws IOException {
+            if (ascii) {
+                String line = readLine();
+                if (line == null) {
+                    throw new EOFException("PlyReader: end of file reached while reading data");
+                }
+                scanner.setString(line);
+            }
+        }
+
+        private double read(int type) throws IOException {
+            if (ascii) {
+                if (type >= FLOAT) {
+                    return scanner.hasNextFloat() ? scanner.nextFloat() : 0.0f;
+                }
+                return scanner.hasNextInt() ? scanner.nextInt() : 0;
+            }
+            require(SIZE[type]);
+            switch (type) {
+                case CHAR: return buffer.get();
+                case UCHAR: return buffer.get() & 0xff;
+                case SHORT: return buffer.getShort();
+                case USHORT: return buffer.getShort() & 0xffff;
+                case INT: return buffer.getInt();
+                case UINT: return buffer.getInt() & 0xffffffffL;
+                case FLOAT: return buffer.getFloat();
+                default: return buffer.getDouble();
+            }
+        }
+
+        private void skip(Property property) throws IOException {
+            if (property.countType == IGNORE) {
+                read(property.type);
+                return;
+            }
+            int count = (int) read(property.countType);
+            for (int i = 0; i < count; i++) {
+                read(property.type);
+            }
+        }
+    }
 }
@@ -6,66 +6,187 @@ package org.rcsb.mbt.surface.io;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.vecmath.Color4f;
+
 import org.rcsb.mbt.surface.core.EdtSurfaceCalculator;
-import org.rcsb.mbt.surface.datastructure.FaceInfo;
 import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
-import org.rcsb.mbt.surface.datastructure.VertInfo;
 
 
 /**
+ * Writes surfaces as PLY files, either in ascii or in binary_little_endian
+ * format. Binary files are written through a fixed size buffer, so no copy
+ * of the surface is made.
  *
  * @author Peter Rose
  */
 public class PlyWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private boolean binary = false;
+    private Color4f[] colors = null;
+    private boolean atomIds = false;
+
+    /**
+     * Selects the binary_little_endian format instead of ascii.
+     */
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    /**
+     * Sets the vertex colors to be written, or null to write no colors.
+     */
+    public void setColors(Color4f[] colors) {
+        this.colors = colors;
+    }
+
+    /**
+     * Adds the atom id of each vertex to the file.
+     */
+    public void setAtomIds(boolean atomIds) {
+        this.atomIds = atomIds;
+    }
 
     public void outputply(TriangulatedSurface surface, String fileName) // used, optional
     {
-        List<VertInfo> vertices = surface.getVertices();
-        List<FaceInfo> faces = surface.getFaces();
-        PrintWriter writer = null;
+        File f = new File(fileName);
+        System.out.println("Filename:" + f.getAbsolutePath());
         try {
-            File f = new File(fileName);
-            System.out.println("Filename:" + f.getAbsolutePath());
-            writer = new PrintWriter(new BufferedWriter(new FileWriter(fileName)));
+            writePly(surface, fileName);
         } catch (IOException ex) {
             Logger.getLogger(EdtSurfaceCalculator.class.getName()).log(Level.SEVERE, null, ex);
         }
-        writer.println("ply");
-        writer.println("format ascii 1.0");
-        writer.println("comment ball mesh");
-        writer.println("element vertex " + vertices.size());
-        writer.println("property float x");
-        writer.println("property float y");
-        writer.println("property float z");
-        writer.println("property float nx");
-        writer.println("property float ny");
-        writer.println("property float nz");
-        writer.println("element face " + faces.size());
-        writer.println("property list uchar int vertex_indices");
-        writer.println("end_header");
-
-        for (VertInfo v: vertices) {
-//		writer.printf("%.3f %.3f %.3f %.3f %.3f %.3f\n", v.p.x/scalefactor-ptran.x,v.p.y/scalefactor-ptran.y,
-//			v.p.z/scalefactor-ptran.z, v.normal.x, v.normal.y, v.normal.z);
-            writer.printf("%.3f %.3f %.3f %.3f %.3f %.3f\n", v.p.x, v.p.y, v.p.z, v.normal.x, v.normal.y, v.normal.z);
-//                System.out.println("atomid: " + verts[i].atomid + ", inout: " + verts[i].inout + ", iscont" + verts[i].iscont);
+    }
+
+    public void writePly(TriangulatedSurface surface, String fileName) throws IOException {
+        if (colors != null && colors.length != surface.getVertexCount()) {
+            throw new IllegalArgumentException("PlyWriter: " + colors.length + " colors for " + surface.getVertexCount() + " vertices");
+        }
+        if (binary) {
+            writeBinary(surface, fileName);
+        } else {
+            writeAscii(surface, fileName);
+        }
+    }
+
+    private String getHeader(TriangulatedSurface surface, String format) {
+        StringBuilder header = new StringBuilder();
+        header.append("ply\n");
+        header.append("format ").append(format).append(" 1.0\n");
+        header.append("comment ball mesh\n");
+        header.append("element vertex ").append(surface.getVertexCount()).append("\n");
+        header.append("property float x\n");
+        header.append("property float y\n");
+        header.append("property float z\n");
+        header.append("property float nx\n");
+        header.append("property float ny\n");
+        header.append("property float nz\n");
+        if (colors != null) {
+            header.append("property uchar red\n");
+            header.append("property uchar green\n");
+            header.append("property uchar blue\n");
+            header.append("property uchar alpha\n");
+        }
+        if (atomIds) {
+            header.append("property int atomid\n");
+        }
+        header.append("element face ").append(surface.getFaceCount()).append("\n");
+        header.append("property list uchar int vertex_indices\n");
+        header.append("end_header\n");
+        return header.toString();
+    }
+
+    private void writeAscii(TriangulatedSurface surface, String fileName) throws IOException {
+        float[] positions = surface.getPositions();
+        float[] normals = surface.getNormals();
+        int[] triangles = surface.getTriangles();
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(fileName)));
+        try {
+            writer.print(getHeader(surface, "ascii"));
+            for (int i = 0; i < positions.length; i += 3) {
+                writer.printf("%.3f %.3f %.3f %.3f %.3f %.3f", positions[i], positions[i+1], positions[i+2], normals[i], normals[i+1], normals[i+2]);
+                if (colors != null) {
+                    Color4f c = colors[i / 3];
+                    writer.printf(" %d %d %d %d", toByte(c.x), toByte(c.y), toByte(c.z), toByte(c.w));
+                }
+                if (atomIds) {
+                    writer.printf(" %d", surface.getAtomId(i / 3));
+                }
+                writer.print("\n");
+            }
+            for (int i = 0; i < triangles.length; i += 3) {
+                writer.printf("3 %d %d %d\n", triangles[i], triangles[i+1], triangles[i+2]);
+            }
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("PlyWriter: error writing " + fileName);
+            }
+        } finally {
+            writer.close();
         }
-        for (FaceInfo face: faces) {
-            if (!face.inout)//outer
-            {
-                writer.printf("3 %d %d %d\n", face.a, face.b, face.c);
-            } else {
-                writer.printf("3 %d %d %d\n", face.a, face.c, face.b);
+    }
+
+    private void writeBinary(TriangulatedSurface surface, String fileName) throws IOException {
+        float[] positions = surface.getPositions();
+        float[] normals = surface.getNormals();
+        int[] triangles = surface.getTriangles();
+        int vertexSize = 24 + (colors != null ? 4 : 0) + (atomIds ? 4 : 0);
+        int faceSize = 13;
+
+        FileOutputStream out = new FileOutputStream(fileName);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(getHeader(surface, "binary_little_endian").getBytes("US-ASCII"));
+            for (int i = 0; i < positions.length; i += 3) {
+                if (buffer.remaining() < vertexSize) {
+                    drain(channel, buffer);
+                }
+                buffer.putFloat(positions[i]).putFloat(positions[i+1]).putFloat(positions[i+2]);
+                buffer.putFloat(normals[i]).putFloat(normals[i+1]).putFloat(normals[i+2]);
+                if (colors != null) {
+                    Color4f c = colors[i / 3];
+                    buffer.put((byte) toByte(c.x)).put((byte) toByte(c.y)).put((byte) toByte(c.z)).put((byte) toByte(c.w));
+                }
+                if (atomIds) {
+                    buffer.putInt(surface.getAtomId(i / 3));
+                }
             }
+            for (int i = 0; i < triangles.length; i += 3) {
+                if (buffer.remaining() < faceSize) {
+                    drain(channel, buffer);
+                }
+                buffer.put((byte) 3);
+                buffer.putInt(triangles[i]).putInt(triangles[i+1]).putInt(triangles[i+2]);
+            }
+            drain(channel, buffer);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
         }
-        writer.flush();
-        writer.close();
+        buffer.clear();
+    }
+
+    /**
+     * Converts a color component from 0..1 to 0..255.
+     */
+    private static int toByte(float c) {
+        return Math.max(0, Math.min(255, Math.round(c * 255.0f)));
     }
 }
@@ -0,0 +1,519 @@
+/*
+ * BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence. This should
+ * be distributed with the code. If you do not have a copy,
+ * see:
+ *
+ * http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors. These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ * http://www.biojava.org/
+ *
+ * This code was contributed from the Molecular Biology Toolkit
+ * (MBT) project at the University of California San Diego.
+ *
+ * Please reference J.L. Moreland, A.Gramada, O.V. Buzko, Qing
+ * Zhang and P.E. Bourne 2005 The Molecular Biology Toolkit (MBT):
+ * A Modular Platform for Developing Molecular Visualization
+ * Applications. BMC Bioinformatics, 6:21.
+ *
+ * The MBT project was funded as part of the National Institutes
+ * of Health PPG grant number 1-P01-GM63208 and its National
+ * Institute of General Medical Sciences (NIGMS) division. Ongoing
+ * development for the MBT project is managed by the RCSB
+ * Protein Data Bank(http://www.pdb.org) and supported by funds
+ * from the National Science Foundation (NSF), the National
+ * Institute of General Medical Sciences (NIGMS), the Office of
+ * Science, Department of Energy (DOE), the National Library of
+ * Medicine (NLM), the National Cancer Institute (NCI), the
+ * National Center for Research Resources (NCRR), the National
+ * Institute of Biomedical Imaging and Bioengineering (NIBIB),
+ * the National Institute of Neurological Disorders and Stroke
+ * (NINDS), and the National Institute of Diabetes and Digestive
+ * and Kidney Diseases (NIDDK).
+ *
+ * Created on 2026/10/17
+ *
+ */ 
+package org.rcsb.mbt.surface.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import javax.vecmath.Point3f;
+
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+/**
+ * An on-disk cache of calculated surfaces. A surface depends only on its
+ * spheres and the parameters of the calculation, so each entry is named by
+ * a digest of those ({@link #getKey(String, List, List, float[])}) and
+ * holds the gzipped arrays of the surface.
+ * <p>
+ * Vertex references are not stored: for each vertex the cache keeps the
+ * index of its reference in the sphere lists and looks the reference up
+ * in the sphere lists passed to {@link #get(String, List, List)}, which
+ * are the same spheres (the key says so) but may hold different objects.
+ * <p>
+ * The cache is limited to a total number of bytes; when an entry is added
+ * the least recently used entries are removed until it fits. Entries are
+ * written to a temporary file and renamed, so several viewers can share a
+ * cache directory.
+ */
+public class SurfaceCache {
+    /**
+     * System properties naming the cache directory and its size in
+     * megabytes, and the defaults (under the user's home directory).
+     */
+    public static final String CACHE_DIRECTORY_PROPERTY = "org.rcsb.mbt.surfaceCache";
+    public static final String CACHE_SIZE_PROPERTY = "org.rcsb.mbt.surfaceCacheSize";
+    private static final String DEFAULT_CACHE_DIRECTORY = ".mbt" + File.separator + "surfaces";
+    private static final long DEFAULT_CACHE_SIZE = 256;
+
+    private static final String SUFFIX = ".surface";
+    static final int MAGIC = 0x4d425453; // "MBTS"
+    // change when the surface calculation changes, so old entries are not used
+    static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // deflate expands data at most about 1032 times
+    private static final long MAX_DEFLATE_RATIO = 1032;
+    // the most vertices or faces whose arrays (3 elements each) fit into an int index
+    private static final int MAX_COUNT = Integer.MAX_VALUE / 3;
+
+    private static SurfaceCache defaultCache = new SurfaceCache(getDefaultDirectory(), getDefaultMaxBytes());
+
+    private final File directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory the cache directory; created when the first entry is
+     *                  written.
+     * @param maxBytes  the total size of the entries the cache may hold.
+     */
+    public SurfaceCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cache used by the viewers, or null for none. The default
+     * is the directory named by the system property "org.rcsb.mbt.surfaceCache",
+     * or ~/.mbt/surfaces, limited to "org.rcsb.mbt.surfaceCacheSize"
+     * megabytes (256 by default).
+     */
+    public static synchronized SurfaceCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Sets the cache used by the viewers, or null to disable caching.
+     */
+    public static synchronized void setDefault(SurfaceCache cache) {
+        defaultCache = cache;
+    }
+
+    private static File getDefaultDirectory() {
+        String directory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        if (directory != null && directory.length() > 0) {
+            return new File(directory);
+        }
+        return new File(System.getProperty("user.home"), DEFAULT_CACHE_DIRECTORY);
+    }
+
+    private static long getDefaultMaxBytes() {
+        return Long.getLong(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE).longValue() * 1024 * 1024;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the key of a surface: a hex SHA-1 digest of the kind of
+     * surface, the parameters of the calculation, and the locations and
+     * radii of the spheres.
+     *
+     * @param kind       names the calculation, including anything that is
+     *                   not a parameter (e.g. the smoothing applied)
+     * @param spheres    the spheres of the surface
+     * @param context    further spheres the surface depends on, or null
+     * @param parameters the parameters of the calculation
+     */
+    public static String getKey(String kind, List<Sphere> spheres, List<Sphere> context, float[] parameters) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+            digest.update(kind.getBytes("UTF-8"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n = putInt(buffer, 0, VERSION);
+        n = putInt(buffer, n, parameters.length);
+        for (float p: parameters) {
+            n = putInt(buffer, n, Float.floatToIntBits(p));
+        }
+        digest.update(buffer, 0, n);
+        update(digest, buffer, spheres);
+        if (context != null) {
+            update(digest, buffer, context);
+        }
+
+        StringBuilder key = new StringBuilder(40);
+        for (byte b: digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16));
+            key.append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    private static void update(MessageDigest digest, byte[] buffer, List<Sphere> spheres) {
+        int n = putInt(buffer, 0, spheres.size());
+        for (Sphere s: spheres) {
+            if (n + 16 > buffer.length) {
+                digest.update(buffer, 0, n);
+                n = 0;
+            }
+            Point3f p = s.getLocation();
+            n = putInt(buffer, n, Float.floatToIntBits(p.x));
+            n = putInt(buffer, n, Float.floatToIntBits(p.y));
+            n = putInt(buffer, n, Float.floatToIntBits(p.z));
+            n = putInt(buffer, n, Float.floatToIntBits(s.getRadius()));
+        }
+        digest.update(buffer, 0, n);
+    }
+
+    private static int putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+        return offset + 4;
+    }
+
+    /**
+     * Returns the cached surface with the given key, or null if it is not in
+     * the cache. The vertex references are taken from the spheres, then the
+     * context spheres, the key was made of.
+     */
+    public TriangulatedSurface get(String key, List<Sphere> spheres, List<Sphere> context) throws IOException {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        TriangulatedSurface surface;
+        try {
+            surface = read(file, spheres, context);
+        } catch (EOFException e) {
+            // truncated, e.g. by a full disk
+            file.delete();
+            return null;
+        } catch (ZipException e) {
+            file.delete();
+            return null;
+        }
+        if (surface == null) {
+            file.delete();
+            return null;
+        }
+
+        // the modification time orders the entries for eviction
+        file.setLastModified(System.currentTimeMillis());
+        return surface;
+    }
+
+    /**
+     * Adds a surface to the cache and removes the least recently used
+     * entries that no longer fit. Surfaces larger than the cache are not
+     * stored.
+     */
+    public void put(String key, TriangulatedSurface surface, List<Sphere> spheres, List<Sphere> context) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Can't create the surface cache directory " + directory);
+        }
+
+        File temp = File.createTempFile(key + SUFFIX, ".tmp", directory);
+        try {
+            write(temp, surface, spheres, context);
+            if (temp.length() > maxBytes) {
+                return;
+            }
+            File file = getFile(key);
+            if (!temp.renameTo(file)) {
+                // renameTo doesn't replace an existing file everywhere
+                file.delete();
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Can't rename " + temp + " to " + file);
+                }
+            }
+            evict(file);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        for (File file: listEntries()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Returns the total size of the entries in bytes.
+     */
+    public long getSize() {
+        long size = 0;
+        for (File file: listEntries()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+    /**
+     * Removes the least recently used entries, other than the given one,
+     * until the cache fits into its size.
+     */
+    private synchronized void evict(File keep) {
+        File[] files = listEntries();
+        long size = 0;
+        final long[] lastUsed = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            size += files[i].length();
+            lastUsed[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        if (size <= maxBytes) {
+            return;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return lastUsed[a] < lastUsed[b] ? -1 : (lastUsed[a] == lastUsed[b] ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < order.length && size > maxBytes; i++) {
+            File file = files[order[i]];
+            if (file.equals(keep)) {
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    private File[] listEntries() {
+        File[] files = directory.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(SUFFIX);
+            }
+        });
+        return files == null ? new File[0] : files;
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    private static void write(File file, TriangulatedSurface surface, List<Sphere> spheres, List<Sphere> context) throws IOException {
+        float[] positions = surface.getPositions();
+        float[] normals = surface.getNormals();
+        int[] atomIds = surface.getAtomIds();
+        Object[] references = surface.getReferences();
+        int[] triangles = surface.getTriangles();
+        int vertexCount = surface.getVertexCount();
+        Map<Object, Integer> index = getReferenceIndex(spheres, context);
+
+        // entries are written while the user waits, so compress for speed
+        GZIPOutputStream gzip = new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(vertexCount);
+            out.writeInt(triangles.length / 3);
+            for (int i = 0; i < vertexCount * 3; i++) {
+                out.writeFloat(positions[i]);
+            }
+            for (int i = 0; i < vertexCount * 3; i++) {
+                out.writeFloat(normals[i]);
+            }
+            for (int i = 0; i < vertexCount; i++) {
+                out.writeInt(atomIds[i]);
+                Integer r = references[i] == null ? null : index.get(references[i]);
+                out.writeInt(r == null ? -1 : r.intValue());
+            }
+            for (int i = 0; i < triangles.length; i++) {
+                out.writeInt(triangles[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a surface, or returns null if the file is not a surface of this
+     * version or its counts don't match its data.
+     */
+    private static TriangulatedSurface read(File file, List<Sphere> spheres, List<Sphere> context) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int vertexCount = in.readInt();
+            int faceCount = in.readInt();
+            // check the counts before allocating, so that a corrupt header
+            // can't ask for more memory than the file holds data for
+            if (vertexCount < 0 || faceCount < 0 || vertexCount > MAX_COUNT || faceCount > MAX_COUNT) {
+                return null;
+            }
+            long size = getDataSize(vertexCount, faceCount);
+            if (size > file.length() * MAX_DEFLATE_RATIO || (size & 0xffffffffL) != getUncompressedSize(file)) {
+                return null;
+            }
+
+            float[] positions = new float[vertexCount * 3];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = in.readFloat();
+            }
+            float[] normals = new float[vertexCount * 3];
+            for (int i = 0; i < normals.length; i++) {
+                normals[i] = in.readFloat();
+            }
+            int sphereCount = spheres.size();
+            int total = sphereCount + (context == null ? 0 : context.size());
+            int[] atomIds = new int[vertexCount];
+            Object[] references = new Object[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                atomIds[i] = in.readInt();
+                int r = in.readInt();
+                if (r >= total) {
+                    return null;
+                }
+                if (r >= 0) {
+                    references[i] = r < sphereCount ? spheres.get(r).getReference() : context.get(r - sphereCount).getReference();
+                }
+            }
+            int[] triangles = new int[faceCount * 3];
+            for (int i = 0; i < triangles.length; i++) {
+                triangles[i] = in.readInt();
+                if (triangles[i] < 0 || triangles[i] >= vertexCount) {
+                    return null;
+                }
+            }
+
+            TriangulatedSurface surface = new TriangulatedSurface();
+            surface.setVertices(positions, normals, atomIds, references);
+            surface.setTriangles(triangles);
+            return surface;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the number of bytes write() puts into the gzip stream for a
+     * surface of the given size.
+     */
+    private static long getDataSize(int vertexCount, int faceCount) {
+        // header; positions and normals; atom ids and references; triangles
+        return 16 + vertexCount * 24L + vertexCount * 8L + faceCount * 12L;
+    }
+
+    /**
+     * Returns the uncompressed size (modulo 2^32) stored in the trailer of
+     * a gzip file, or -1 if the file is too short to have one.
+     */
+    private static long getUncompressedSize(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // a 10 byte header and an 8 byte trailer at least
+            if (raf.length() < 18) {
+                return -1;
+            }
+            raf.seek(raf.length() - 4);
+            byte[] b = new byte[4];
+            raf.readFully(b);
+            return (b[0] & 0xffL) | (b[1] & 0xffL) << 8 | (b[2] & 0xffL) << 16 | (b[3] & 0xffL) << 24;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Maps each reference to the index of its first sphere in the spheres
+     * followed by the context spheres.
+     */
+    private static Map<Object, Integer> getReferenceIndex(List<Sphere> spheres, List<Sphere> context) {
+        Map<Object, Integer> index = new IdentityHashMap<Object, Integer>();
+        int i = 0;
+        for (Sphere s: spheres) {
+            if (s.getReference() != null && !index.containsKey(s.getReference())) {
+                index.put(s.getReference(), i);
+            }
+            i++;
+        }
+        if (context != null) {
+            for (Sphere s: context) {
+                if (s.getReference() != null && !index.containsKey(s.getReference())) {
+                    index.put(s.getReference(), i);
+                }
+                i++;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return directory.getPath();
+    }
+}
@@ -0,0 +1,148 @@
+package org.rcsb.mbt.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.model.util.AtomStats;
+import org.rcsb.mbt.model.util.OfflineComponentDefinitions;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+
+/**
+ * Checks that {@link AtomStore} holds the same data as the Atom objects it
+ * was built from.
+ */
+public class AtomStoreTest {
+	private static final File PDB_FILE = new File("src/test/resources/test-input/General/molecules/1Q70.pdb");
+
+	private final List<Atom> atoms = new ArrayList<Atom>();
+	private final List<Residue> residues = new ArrayList<Residue>();
+	private final List<Chain> chains = new ArrayList<Chain>();
+
+	/**
+	 * Group the atoms into chains and residues the way StructureMap does
+	 * (StructureMap itself needs the generated bond dictionary).
+	 */
+	private Structure load() throws Exception {
+		Structure structure = new PdbStructureLoader().load(PDB_FILE);
+		Map<String, Chain> chainById = new HashMap<String, Chain>();
+		Map<String, Residue> residueByKey = new HashMap<String, Residue>();
+
+		int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+		for (int i = 0; i < atomCount; i++) {
+			Atom atom = (Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i);
+			Chain chain = chainById.get(atom.chain_id);
+			if (chain == null) {
+				chain = new Chain();
+				chainById.put(atom.chain_id, chain);
+				chains.add(chain);
+			}
+			String key = atom.chain_id + atom.residue_id + atom.insertionCode;
+			Residue residue = residueByKey.get(key);
+			if (residue == null) {
+				residue = new Residue(atom.compound);
+				residueByKey.put(key, residue);
+				chain.addResidue(residue);
+			}
+			residue.addAtom(atom);
+		}
+
+		for (Chain chain : chains) {
+			for (Residue residue : chain.getResidues()) {
+				residues.add(residue);
+				atoms.addAll(residue.getAtoms());
+			}
+		}
+		return structure;
+	}
+
+	@Test
+	public void testStoreMatchesAtoms() throws Exception {
+		load();
+		AtomStore store = new AtomStore(atoms, residues, chains);
+		assertEquals(atoms.size(), store.getAtomCount());
+
+		double[] coordinate = new double[3];
+		for (int i = 0; i < store.getAtomCount(); i++) {
+			Atom atom = atoms.get(i);
+			assertSame(atom, store.getAtom(i));
+			assertEquals(atom.coordinate[0], store.getX(i), 0.0);
+			assertEquals(atom.coordinate[1], store.getY(i), 0.0);
+			assertEquals(atom.coordinate[2], store.getZ(i), 0.0);
+			store.getCoordinate(i, coordinate);
+			assertEquals(atom.coordinate[2], coordinate[2], 0.0);
+			assertEquals(atom.element, store.getElement(i));
+			assertEquals(atom.name, store.getName(i));
+			assertEquals(atom.compound, store.getCompound(i));
+			assertEquals(atom.chain_id, store.getChainId(i));
+			assertEquals(atom.element, store.getElementTable().getName(store.getElementCode(i)));
+
+			Residue residue = residues.get(store.getResidueIndex(i));
+			assertTrue(residue.getAtoms().contains(atom));
+			assertTrue(chains.get(store.getChainIndex(i)).getResidues().contains(residue));
+		}
+	}
+
+	@Test
+	public void testOutOfOrderAtoms() throws Exception {
+		load();
+		List<Atom> shuffled = new ArrayList<Atom>(atoms);
+		Collections.reverse(shuffled);
+		AtomStore store = new AtomStore(shuffled, residues, chains);
+
+		for (int i = 0; i < store.getAtomCount(); i++) {
+			Residue residue = residues.get(store.getResidueIndex(i));
+			assertTrue(residue.getAtoms().contains(shuffled.get(i)));
+		}
+	}
+
+	@Test
+	public void testBoundsAndAverage() throws Exception {
+		Structure structure = load();
+		AtomStore store = new AtomStore(atoms, residues, chains);
+
+		// no StructureMap, so AtomStats walks the Atom objects
+		double[][] expected = AtomStats.getAtomCoordinateBounds(structure);
+		double[][] bounds = store.getCoordinateBounds();
+		double[] sum = new double[3];
+		for (Atom atom : atoms) {
+			for (int k = 0; k < 3; k++) {
+				sum[k] += atom.coordinate[k];
+			}
+		}
+
+		double[] average = store.getCoordinateAverage();
+		for (int k = 0; k < 3; k++) {
+			assertEquals(expected[0][k], bounds[0][k], 0.0);
+			assertEquals(expected[1][k], bounds[1][k], 0.0);
+			assertEquals(sum[k] / atoms.size(), average[k], 1e-9);
+		}
+	}
+
+	@Test
+	public void testAverageWithAndWithoutStore() throws Exception {
+		OfflineComponentDefinitions componentDefinitions = new OfflineComponentDefinitions();
+		componentDefinitions.install();
+		try {
+			PdbStructureLoader loader = new PdbStructureLoader();
+			Structure structure = loader.load(PDB_FILE);
+			assertFalse(structure.hasStructureMap());
+			double[] withoutStore = AtomStats.getAtomCoordinateAverage(structure);
+
+			new StructureMap(structure, loader.getEntityNameMap(), null);
+			assertTrue(structure.hasStructureMap());
+			assertNotNull(structure.getStructureMap().getAtomStore());
+			double[] withStore = AtomStats.getAtomCoordinateAverage(structure);
+			assertArrayEquals(withStore, withoutStore, 1e-9);
+		} finally {
+			componentDefinitions.restore();
+		}
+	}
+}
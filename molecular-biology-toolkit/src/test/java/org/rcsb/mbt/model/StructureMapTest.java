@@ -0,0 +1,64 @@
+package org.rcsb.mbt.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.model.util.OfflineComponentDefinitions;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+
+/**
+ * Checks that a {@link StructureMap} whose fragments and bonds are generated
+ * after construction, on two threads, is the same as one that generates them
+ * in the constructor.
+ */
+public class StructureMapTest {
+	private static final File PDB_FILE = new File("src/test/resources/test-input/General/molecules/2EKG.pdb.gz");
+	private final OfflineComponentDefinitions componentDefinitions = new OfflineComponentDefinitions();
+
+	@Before
+	public void setUp() throws IOException {
+		componentDefinitions.install();
+	}
+
+	@After
+	public void tearDown() {
+		componentDefinitions.restore();
+	}
+
+	@Test
+	public void testDeferredDerivedData() throws Exception {
+		PdbStructureLoader loader = new PdbStructureLoader();
+		StructureMap expected = new StructureMap(loader.load(PDB_FILE), loader.getEntityNameMap(), null);
+
+		loader = new PdbStructureLoader();
+		final StructureMap deferred = new StructureMap(loader.load(PDB_FILE), loader.getEntityNameMap(), null, false);
+		assertEquals(expected.getResidueCount(), deferred.getResidueCount());
+		assertEquals(expected.getLigandCount(), deferred.getLigandCount());
+		assertEquals(0, deferred.getBondCount());
+		assertEquals(0, deferred.getFragmentCount());
+
+		Thread bonds = new Thread() {
+			public void run() {
+				deferred.generateBonds();
+			}
+		};
+		bonds.start();
+		deferred.generateFragments();
+		bonds.join();
+
+		assertEquals(expected.getBondCount(), deferred.getBondCount());
+		assertEquals(expected.getFragmentCount(), deferred.getFragmentCount());
+		for (int i = 0; i < expected.getResidueCount(); i++) {
+			assertEquals(expected.getResidue(i).getConformationType(), deferred.getResidue(i).getConformationType());
+		}
+		for (int i = 0; i < expected.getFragmentCount(); i++) {
+			assertEquals(expected.getFragment(i).getStartResidueIndex(), deferred.getFragment(i).getStartResidueIndex());
+			assertEquals(expected.getFragment(i).getEndResidueIndex(), deferred.getFragment(i).getEndResidueIndex());
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package org.rcsb.mbt.model.attributes;
+
+import java.io.File;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Bond;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.IFileStructureLoader;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.mbt.structLoader.StructureXMLHandler;
+import org.rcsb.mbt.structLoader.XMLStructureLoader;
+
+/**
+ * Times coloring all atoms by B-factor: setting one shared style on every
+ * atom, then resolving the {@link InstanceAttributes} once, against asking
+ * every atom and bond style for its colors, which is what a renderer reading
+ * the styles does on every frame. Also times a frame in which nothing
+ * changed.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -cp ... org.rcsb.mbt.model.attributes.InstanceAttributesBenchmark [iterations] [files...]
+ * </pre>
+ */
+public class InstanceAttributesBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		String[] names = { "1GIX.pdb", "2FTE.xml.gz" };
+		File[] files = new File[args.length > 1 ? args.length - 1 : names.length];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = args.length > 1 ? new File(args[i + 1]) : new File("src/test/resources/test-input/General/molecules", names[i]);
+		}
+
+		for (File file : files) {
+			StructureMap structureMap = loadStructureMap(file);
+			StructureStyles ss = structureMap.getStructureStyles();
+			ss.getInstanceAttributes(ComponentType.ATOM).update();
+			ss.getInstanceAttributes(ComponentType.BOND).update();
+
+			AtomStyle[] styles = new AtomStyle[2];
+			for (int i = 0; i < styles.length; i++) {
+				styles[i] = new AtomStyle();
+				styles[i].setAtomColor(i == 0 ? AtomColorByBFactor.create() : AtomColorByElement.create());
+			}
+
+			// warm up
+			for (int i = 0; i < 10; i++) {
+				readStyles(structureMap);
+				setStyles(structureMap, styles[i % 2]);
+				update(structureMap);
+				update(structureMap);
+			}
+
+			long styleFrames = 0;
+			long setStyles = 0;
+			long updates = 0;
+			long unchangedFrames = 0;
+			for (int i = 0; i < iterations; i++) {
+				long t0 = System.nanoTime();
+				readStyles(structureMap);
+				long t1 = System.nanoTime();
+				setStyles(structureMap, styles[i % 2]);
+				long t2 = System.nanoTime();
+				update(structureMap);
+				long t3 = System.nanoTime();
+				update(structureMap);
+				long t4 = System.nanoTime();
+				styleFrames += t1 - t0;
+				setStyles += t2 - t1;
+				updates += t3 - t2;
+				unchangedFrames += t4 - t3;
+			}
+
+			System.out.println(file.getName() + ": " + structureMap.getAtomCount() + " atoms, "
+					+ structureMap.getBondCount() + " bonds, " + iterations + " iterations");
+			report("colors from the styles, every frame", styleFrames, iterations);
+			report("set the style of every atom        ", setStyles, iterations);
+			report("resolve the attributes, once       ", updates, iterations);
+			report("frame with unchanged attributes    ", unchangedFrames, iterations);
+		}
+	}
+
+	private static void readStyles(StructureMap structureMap) {
+		StructureStyles ss = structureMap.getStructureStyles();
+		float[] color = new float[4];
+		for (int i = 0; i < structureMap.getAtomCount(); i++) {
+			Atom a = structureMap.getAtom(i);
+			try {
+				((AtomStyle) ss.getStyle(a)).getAtomColor(a, color);
+			} catch (RuntimeException e) {
+				// as the display lists do, e.g. for a B-factor above 100
+			}
+		}
+		for (int i = 0; i < structureMap.getBondCount(); i++) {
+			Bond b = structureMap.getBond(i);
+			BondStyle style = (BondStyle) ss.getStyle(b);
+			try {
+				style.getBondColor(b, color);
+				style.getSplitBondColor(b, color);
+			} catch (RuntimeException e) {
+			}
+		}
+	}
+
+	private static void setStyles(StructureMap structureMap, AtomStyle style) {
+		StructureStyles ss = structureMap.getStructureStyles();
+		for (int i = 0; i < structureMap.getAtomCount(); i++) {
+			ss.setStyle(structureMap.getAtom(i), style);
+		}
+	}
+
+	private static void update(StructureMap structureMap) {
+		StructureStyles ss = structureMap.getStructureStyles();
+		ss.getInstanceAttributes(ComponentType.ATOM).update();
+		ss.getInstanceAttributes(ComponentType.BOND).update();
+	}
+
+	private static StructureMap loadStructureMap(File file) throws Exception {
+		IFileStructureLoader loader;
+		if (file.getName().endsWith(".xml.gz")) {
+			loader = new XMLStructureLoader(new StructureXMLHandler(file.getPath()));
+		} else {
+			loader = new PdbStructureLoader();
+		}
+		Structure structure = loader.load(file);
+		if (structure.hasStructureMap()) {
+			return structure.getStructureMap();
+		}
+		return new StructureMap(structure, loader.getEntityNameMap(), null);
+	}
+
+	private static void report(String name, long nanos, int iterations) {
+		System.out.printf("    %s: %8.2f ms%n", name, nanos / 1e6 / iterations);
+	}
+}
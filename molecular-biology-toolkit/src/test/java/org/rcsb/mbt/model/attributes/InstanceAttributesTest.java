@@ -0,0 +1,135 @@
+package org.rcsb.mbt.model.attributes;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Bond;
+import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.model.util.OfflineComponentDefinitions;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+
+/**
+ * Checks that the {@link InstanceAttributes} of a {@link StructureStyles}
+ * resolve the colors and visibility of its styles, and that style and
+ * visibility changes mark only the affected entries stale.
+ */
+public class InstanceAttributesTest {
+	private static final File PDB_FILE = new File("src/test/resources/test-input/General/molecules/1STP.pdb1.gz");
+	private static final float TOLERANCE = 0.5f / 255;
+	private final OfflineComponentDefinitions componentDefinitions = new OfflineComponentDefinitions();
+
+	@Before
+	public void setUp() throws IOException {
+		componentDefinitions.install();
+	}
+
+	@After
+	public void tearDown() {
+		componentDefinitions.restore();
+	}
+
+	@Test
+	public void testResolve() throws Exception {
+		StructureMap sm = loadStructureMap();
+		StructureStyles ss = sm.getStructureStyles();
+		InstanceAttributes atoms = ss.getInstanceAttributes(ComponentType.ATOM);
+		InstanceAttributes bonds = ss.getInstanceAttributes(ComponentType.BOND);
+		assertNull(ss.getInstanceAttributes(ComponentType.CHAIN));
+		assertEquals(1, atoms.getSlots());
+		assertEquals(2, bonds.getSlots());
+
+		assertTrue(atoms.isStale());
+		atoms.update();
+		bonds.update();
+		assertFalse(atoms.isStale());
+		assertEquals(sm.getAtomCount(), atoms.getCount());
+		assertEquals(sm.getBondCount(), bonds.getCount());
+
+		float[] expected = new float[4];
+		float[] actual = new float[4];
+		for (int i = 0; i < sm.getAtomCount(); i += 17) {
+			Atom a = sm.getAtom(i);
+			assertEquals(i, atoms.getIndex(a));
+			((AtomStyle) ss.getStyle(a)).getAtomColor(a, expected);
+			atoms.getColor(i, 0, actual);
+			assertColor(expected, actual);
+			assertEquals(ss.isVisible(a), atoms.isVisible(i));
+		}
+		for (int i = 0; i < sm.getBondCount(); i += 7) {
+			Bond b = sm.getBond(i);
+			assertEquals(i, bonds.getIndex(b));
+			((BondStyle) ss.getStyle(b)).getSplitBondColor(b, expected);
+			bonds.getColor(i, 1, actual);
+			assertColor(expected, actual);
+		}
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		StructureMap sm = loadStructureMap();
+		StructureStyles ss = sm.getStructureStyles();
+		InstanceAttributes atoms = ss.getInstanceAttributes(ComponentType.ATOM);
+		InstanceAttributes bonds = ss.getInstanceAttributes(ComponentType.BOND);
+		atoms.update();
+		bonds.update();
+		assertFalse(atoms.update());
+
+		// a new style marks the atom and its bonds
+		int version = atoms.getVersion();
+		Atom a = sm.getAtom(10);
+		Bond b = sm.getBonds(a).get(0);
+		AtomStyle style = new AtomStyle();
+		style.setAtomColor(new AtomColorByRgb(new float[] { 1, 0, 0 }));
+		ss.setStyle(a, style);
+		assertTrue(atoms.isStale());
+		assertTrue(bonds.isStale());
+		assertTrue(atoms.update());
+		assertEquals(version + 1, atoms.getVersion());
+
+		float[] color = new float[4];
+		assertTrue(atoms.getColor(a, 0, color));
+		assertColor(new float[] { 1, 0, 0 }, color);
+		atoms.getColor(11, 0, color);
+		assertFalse(color[0] == 1 && color[1] == 0 && color[2] == 0);
+
+		// editing the style in place fires no event
+		style.setAtomColor(new AtomColorByRgb(new float[] { 0, 0, 1 }));
+		assertFalse(atoms.isStale());
+		ss.invalidateInstanceAttributes();
+		assertTrue(atoms.update());
+		atoms.getColor(a, 0, color);
+		assertColor(new float[] { 0, 0, 1 }, color);
+
+		// visibility is the alpha of the color
+		boolean visible = ss.isVisible(a);
+		ss.setVisible(a, !visible);
+		assertTrue(atoms.update());
+		assertEquals(!visible, atoms.isVisible(atoms.getIndex(a)));
+		atoms.getColor(a, 0, color);
+		assertEquals(visible ? 0 : 1, color[3], TOLERANCE);
+
+		// a selection does not change any attribute
+		bonds.update();
+		ss.setSelected(b, true);
+		assertFalse(atoms.isStale());
+		assertFalse(bonds.isStale());
+	}
+
+	private static StructureMap loadStructureMap() throws Exception {
+		PdbStructureLoader loader = new PdbStructureLoader();
+		return new StructureMap(loader.load(PDB_FILE), loader.getEntityNameMap(), null);
+	}
+
+	private static void assertColor(float[] expected, float[] actual) {
+		for (int i = 0; i < 3; i++) {
+			assertEquals(expected[i], actual[i], TOLERANCE + 1e-6f);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package org.rcsb.mbt.model.attributes;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.model.util.OfflineComponentDefinitions;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+
+/**
+ * Checks that the changes made to a {@link StructureStyles} between begin and
+ * commit reach the listeners as one {@link StructureStylesEvent} that holds
+ * all of them.
+ */
+public class StructureStylesTransactionTest {
+	private static final File PDB_FILE = new File("src/test/resources/test-input/General/molecules/1STP.pdb1.gz");
+	private final OfflineComponentDefinitions componentDefinitions = new OfflineComponentDefinitions();
+
+	@Before
+	public void setUp() throws IOException {
+		componentDefinitions.install();
+	}
+
+	@After
+	public void tearDown() {
+		componentDefinitions.restore();
+	}
+
+	@Test
+	public void testCoalesce() throws Exception {
+		StructureMap sm = loadStructureMap();
+		StructureStyles ss = sm.getStructureStyles();
+		ss.hideAll();
+		EventCollector events = new EventCollector(ss);
+
+		// one event per change outside of a transaction
+		for (int i = 0; i < 5; i++) {
+			ss.setVisible(sm.getAtom(i), true);
+		}
+		assertEquals(5, events.size());
+		assertNull(events.get(4).changes);
+		assertTrue(events.get(4).isChanged(StructureStyles.ATTRIBUTE_VISIBILITY));
+		events.clear();
+
+		InstanceAttributes atoms = ss.getInstanceAttributes(ComponentType.ATOM);
+		atoms.update();
+		Atom last = sm.getAtom(30);
+		ss.begin();
+		for (int i = 10; i < 20; i++) {
+			ss.setVisible(sm.getAtom(i), true);
+		}
+		ss.setVisible(last, true);
+		ss.setStyle(sm.getResidue(2), new ResidueStyle());
+		assertEquals(0, events.size());
+		// the instance attributes are marked stale right away
+		assertTrue(atoms.update());
+		assertTrue(atoms.isVisible(15));
+		ss.commit();
+		assertFalse(ss.isInTransaction());
+
+		assertEquals(1, events.size());
+		StructureStylesEvent event = events.get(0);
+		assertSame(ss, event.structureStyles);
+		assertEquals(StructureStyles.ATTRIBUTE_MULTIPLE, event.attribute);
+		assertTrue(event.isChanged(StructureStyles.ATTRIBUTE_VISIBILITY));
+		assertTrue(event.isChanged(StructureStyles.ATTRIBUTE_STYLE));
+		assertFalse(event.isChanged(StructureStyles.ATTRIBUTE_SELECTION));
+
+		StructureStylesChanges changes = event.changes;
+		assertArrayEquals(new int[] { 10, 20, 30, 31 }, changes.getRanges(StructureStyles.ATTRIBUTE_VISIBILITY, ComponentType.ATOM));
+		assertSame(last, changes.getLastComponent(StructureStyles.ATTRIBUTE_VISIBILITY));
+		assertFalse(changes.isAllChanged(StructureStyles.ATTRIBUTE_VISIBILITY));
+		assertNull(changes.getChanged(StructureStyles.ATTRIBUTE_VISIBILITY, ComponentType.BOND));
+		BitSet residues = changes.getChanged(StructureStyles.ATTRIBUTE_STYLE, ComponentType.RESIDUE);
+		assertEquals(1, residues.cardinality());
+		assertTrue(residues.get(2));
+	}
+
+	@Test
+	public void testNesting() throws Exception {
+		StructureMap sm = loadStructureMap();
+		StructureStyles ss = sm.getStructureStyles();
+		EventCollector events = new EventCollector(ss);
+
+		// nothing changed, nothing fired
+		ss.begin();
+		ss.commit();
+		assertEquals(0, events.size());
+
+		ss.begin();
+		ss.begin();
+		ss.setSelected(sm.getAtom(3), true);
+		ss.commit();
+		assertTrue(ss.isInTransaction());
+		assertEquals(0, events.size());
+		ss.hideAll();
+		ss.commit();
+
+		assertEquals(1, events.size());
+		StructureStylesChanges changes = events.get(0).changes;
+		assertTrue(changes.hasChanged(StructureStyles.ATTRIBUTE_SELECTION));
+		assertTrue(changes.isAllChanged(StructureStyles.ATTRIBUTE_VISIBILITY));
+		assertFalse(changes.hasChanged(StructureStyles.ATTRIBUTE_STYLE));
+
+		try {
+			ss.commit();
+			fail("commit without begin");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	private static StructureMap loadStructureMap() throws Exception {
+		PdbStructureLoader loader = new PdbStructureLoader();
+		return new StructureMap(loader.load(PDB_FILE), loader.getEntityNameMap(), null);
+	}
+
+	private static class EventCollector extends ArrayList<StructureStylesEvent> implements IStructureStylesEventListener {
+		private static final long serialVersionUID = 1L;
+
+		EventCollector(StructureStyles ss) {
+			ss.addStructureStylesEventListener(this);
+		}
+
+		public void processStructureStylesEvent(StructureStylesEvent structureStylesEvent) {
+			add(structureStylesEvent);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package org.rcsb.mbt.model.geometry;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Checks the vertex and index ranges, transformed vertices and color updates
+ * of a {@link GeometryBatch}.
+ */
+public class GeometryBatchTest {
+	private static final float[] RED = { 1, 0, 0, 1 };
+	private static final float[] BLUE = { 0, 0, 1, 1 };
+
+	@Test
+	public void testParts() {
+		GeometryBatch.Mesh sphere = GeometryBatch.Mesh.sphere(8, 4);
+		GeometryBatch.Mesh cylinder = GeometryBatch.Mesh.cylinder(6);
+		Object atom = new Object();
+		Object bond = new Object();
+
+		GeometryBatch batch = new GeometryBatch(1);
+		assertEquals(0, batch.addSphere(atom, sphere, new double[] { 1, 2, 3 }, 0.5f, RED));
+		assertEquals(1, batch.addCylinder(bond, cylinder, new double[] { 0, 0, 0 }, new double[] { 1, 0, 0 }, 0.2f, RED));
+		assertEquals(2, batch.addCylinder(bond, cylinder, new double[] { 1, 0, 0 }, new double[] { 2, 0, 0 }, 0.2f, BLUE));
+
+		assertEquals(3, batch.getPartCount());
+		assertEquals(sphere.getVertexCount() + 2 * cylinder.getVertexCount(), batch.getVertexCount());
+		assertEquals(3 * (sphere.getTriangleCount() + 2 * cylinder.getTriangleCount()), batch.getIndexCount());
+		assertEquals(0, batch.getFirstPart(atom));
+		assertEquals(1, batch.getEndPart(atom));
+		assertEquals(1, batch.getFirstPart(bond));
+		assertEquals(3, batch.getEndPart(bond));
+		assertEquals(-1, batch.getFirstPart(new Object()));
+		assertSame(bond, batch.getComponent(2));
+
+		for (int part = 0; part < batch.getPartCount(); part++) {
+			for (int i = batch.getIndexStart(part); i < batch.getIndexEnd(part); i++) {
+				assertTrue(batch.getIndices()[i] >= batch.getVertexStart(part));
+				assertTrue(batch.getIndices()[i] < batch.getVertexEnd(part));
+			}
+		}
+	}
+
+	@Test
+	public void testTransformedVertices() {
+		GeometryBatch batch = new GeometryBatch();
+		batch.addSphere("atom", GeometryBatch.Mesh.sphere(12, 6), new double[] { 1, 2, 3 }, 2.0f, RED);
+		batch.addCylinder("bond", GeometryBatch.Mesh.cylinder(12), new double[] { 1, 1, 1 }, new double[] { 1, 1, 5 }, 0.5f, RED);
+
+		float[] v = batch.getVertices();
+		for (int i = batch.getVertexStart(0); i < batch.getVertexEnd(0); i++) {
+			int o = i * GeometryBatch.VERTEX_SIZE;
+			double dx = v[o] - 1, dy = v[o + 1] - 2, dz = v[o + 2] - 3;
+			assertEquals(2.0, Math.sqrt(dx * dx + dy * dy + dz * dz), 1e-5);
+			// normals point outwards
+			assertEquals(1.0, (dx * v[o + 3] + dy * v[o + 4] + dz * v[o + 5]) / 2.0, 1e-5);
+		}
+		for (int i = batch.getVertexStart(1); i < batch.getVertexEnd(1); i++) {
+			int o = i * GeometryBatch.VERTEX_SIZE;
+			double dx = v[o] - 1, dy = v[o + 1] - 1;
+			assertEquals(0.5, Math.sqrt(dx * dx + dy * dy), 1e-5);
+			assertTrue(Math.abs(v[o + 2] - 1) < 1e-5 || Math.abs(v[o + 2] - 5) < 1e-5);
+			assertEquals(0.0, v[o + 5], 1e-5);
+			assertEquals(1.0, (dx * v[o + 3] + dy * v[o + 4]) / 0.5, 1e-5);
+		}
+
+		// triangles are counter-clockwise seen from outside
+		int[] indices = batch.getIndices();
+		for (int i = 0; i < batch.getIndexCount(); i += 3) {
+			int a = indices[i] * GeometryBatch.VERTEX_SIZE;
+			int b = indices[i + 1] * GeometryBatch.VERTEX_SIZE;
+			int c = indices[i + 2] * GeometryBatch.VERTEX_SIZE;
+			double ux = v[b] - v[a], uy = v[b + 1] - v[a + 1], uz = v[b + 2] - v[a + 2];
+			double wx = v[c] - v[a], wy = v[c + 1] - v[a + 1], wz = v[c + 2] - v[a + 2];
+			double nx = uy * wz - uz * wy, ny = uz * wx - ux * wz, nz = ux * wy - uy * wx;
+			assertTrue(nx * v[a + 3] + ny * v[a + 4] + nz * v[a + 5] > 0);
+		}
+	}
+
+	@Test
+	public void testSetColor() {
+		GeometryBatch batch = new GeometryBatch();
+		GeometryBatch.Mesh sphere = GeometryBatch.Mesh.sphere(6, 3);
+		for (int i = 0; i < 4; i++) {
+			batch.addSphere(Integer.valueOf(i), sphere, new double[] { i, 0, 0 }, 1.0f, RED);
+		}
+		assertEquals(0, batch.getChangedColorStart());
+		assertEquals(batch.getVertexCount(), batch.getChangedColorEnd());
+
+		batch.clearChangedColors();
+		assertEquals(batch.getChangedColorEnd(), batch.getChangedColorStart());
+
+		batch.setColor(1, RED);
+		assertEquals(batch.getChangedColorEnd(), batch.getChangedColorStart());
+
+		batch.setColor(2, BLUE);
+		assertEquals(batch.getVertexStart(2), batch.getChangedColorStart());
+		assertEquals(batch.getVertexEnd(2), batch.getChangedColorEnd());
+		byte[] colors = batch.getColors();
+		for (int i = 0; i < batch.getVertexCount(); i++) {
+			boolean blue = i >= batch.getVertexStart(2) && i < batch.getVertexEnd(2);
+			assertEquals(blue ? 0 : -1, colors[4 * i]);
+			assertEquals(blue ? -1 : 0, colors[4 * i + 2]);
+		}
+		float[] color = new float[4];
+		batch.getColor(2, color);
+		assertArrayEquals(BLUE, color, 0.0f);
+
+		batch.clear();
+		assertEquals(0, batch.getPartCount());
+		assertEquals(0, batch.getVertexCount());
+		assertEquals(-1, batch.getFirstPart(Integer.valueOf(2)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSplitComponent() {
+		GeometryBatch batch = new GeometryBatch();
+		GeometryBatch.Mesh sphere = GeometryBatch.Mesh.sphere(6, 3);
+		Object atom = new Object();
+		batch.addSphere(atom, sphere, new double[3], 1.0f, RED);
+		batch.addSphere(new Object(), sphere, new double[3], 1.0f, RED);
+		batch.addSphere(atom, sphere, new double[3], 1.0f, RED);
+	}
+}
@@ -0,0 +1,102 @@
+package org.rcsb.mbt.model.geometry;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Checks the instance layout, component ranges and color updates of an
+ * {@link ImpostorBatch}.
+ */
+public class ImpostorBatchTest {
+	private static final float[] RED = { 1, 0, 0, 1 };
+	private static final float[] BLUE = { 0, 0, 1, 1 };
+
+	@Test
+	public void testInstances() {
+		Object atom0 = new Object();
+		Object atom1 = new Object();
+		Object bond = new Object();
+		double[] p0 = { 1, 2, 3 };
+		double[] p1 = { 2, 2, 3 };
+		double[] center = { 1.5, 2, 3 };
+
+		ImpostorBatch batch = new ImpostorBatch();
+		assertEquals(0, batch.addSphere(atom0, p0, 1.5f, RED));
+		assertEquals(1, batch.addSphere(atom1, p1, 1.2f, BLUE));
+		assertEquals(0, batch.addCylinder(bond, p0, center, 0.2f, RED));
+		assertEquals(1, batch.addCylinder(bond, center, p1, 0.2f, BLUE));
+
+		ImpostorBatch.Instances spheres = batch.getSpheres();
+		ImpostorBatch.Instances cylinders = batch.getCylinders();
+		assertEquals(2, spheres.getCount());
+		assertEquals(8, spheres.getVertexCount());
+		assertEquals(2, cylinders.getCount());
+		assertEquals(1, spheres.getFirst(atom1));
+		assertEquals(2, spheres.getEnd(atom1));
+		assertEquals(-1, spheres.getFirst(bond));
+		assertEquals(0, cylinders.getFirst(bond));
+		assertEquals(2, cylinders.getEnd(bond));
+		assertSame(atom1, spheres.getComponent(1));
+
+		// every vertex of a quad carries the whole primitive
+		float[] v = spheres.getVertices();
+		float u = 0, w = 0;
+		for (int i = 4; i < 8; i++) {
+			int o = i * ImpostorBatch.SPHERE_VERTEX_SIZE;
+			assertEquals(2.0f, v[o], 0.0f);
+			assertEquals(1.2f, v[o + 3], 0.0f);
+			assertEquals(1.0f, Math.abs(v[o + 4]), 0.0f);
+			assertEquals(1.0f, Math.abs(v[o + 5]), 0.0f);
+			u += v[o + 4];
+			w += v[o + 5];
+		}
+		assertEquals(0.0f, u, 0.0f);
+		assertEquals(0.0f, w, 0.0f);
+
+		v = cylinders.getVertices();
+		for (int i = 4; i < 8; i++) {
+			int o = i * ImpostorBatch.CYLINDER_VERTEX_SIZE;
+			assertEquals(1.5f, v[o], 0.0f);
+			assertEquals(0.2f, v[o + 3], 0.0f);
+			assertEquals(2.0f, v[o + 4], 0.0f);
+			assertTrue(v[o + 7] == 0.0f || v[o + 7] == 1.0f);
+		}
+
+		byte[] colors = cylinders.getColors();
+		for (int i = 0; i < cylinders.getVertexCount(); i++) {
+			assertEquals(i < 4 ? -1 : 0, colors[4 * i]);
+			assertEquals(i < 4 ? 0 : -1, colors[4 * i + 2]);
+		}
+	}
+
+	@Test
+	public void testSetColor() {
+		ImpostorBatch batch = new ImpostorBatch();
+		for (int i = 0; i < 100; i++) {
+			batch.addSphere(new Object(), new double[] { i, 0, 0 }, 1.0f, RED);
+		}
+		ImpostorBatch.Instances spheres = batch.getSpheres();
+		assertEquals(100, spheres.getCount());
+		assertEquals(0, spheres.getChangedColorStart());
+		assertEquals(400, spheres.getChangedColorEnd());
+
+		spheres.clearChangedColors();
+		spheres.setColor(10, RED);
+		assertEquals(spheres.getChangedColorEnd(), spheres.getChangedColorStart());
+
+		spheres.setColor(10, BLUE);
+		spheres.setColor(12, BLUE);
+		assertEquals(40, spheres.getChangedColorStart());
+		assertEquals(52, spheres.getChangedColorEnd());
+		float[] color = new float[4];
+		spheres.getColor(12, color);
+		assertArrayEquals(BLUE, color, 0.0f);
+		spheres.getColor(11, color);
+		assertArrayEquals(RED, color, 0.0f);
+
+		batch.clear();
+		assertEquals(0, spheres.getCount());
+		assertEquals(0, spheres.getVertexCount());
+	}
+}
@@ -0,0 +1,73 @@
+package org.rcsb.mbt.model.util;
+
+import java.io.File;
+import java.util.Vector;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.IFileStructureLoader;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.mbt.structLoader.StructureXMLHandler;
+import org.rcsb.mbt.structLoader.XMLStructureLoader;
+
+/**
+ * Times the first use of the chemical component bond dictionary (loading
+ * ChemicalComponentBonds.bin) and the covalent bond generation that uses
+ * it. Start a new JVM for every measurement of the load time.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory with the dictionary on the class path, e.g.:
+ * <pre>
+ * java -cp target/classes:... org.rcsb.mbt.model.util.BondDictionaryBenchmark [iterations] [files...]
+ * </pre>
+ */
+public class BondDictionaryBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		String[] names = { "2FTE.xml.gz", "1GIX.pdb" };
+		File[] files = new File[args.length > 1 ? args.length - 1 : names.length];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = args.length > 1 ? new File(args[i + 1]) : new File("src/test/resources/test-input/General/molecules", names[i]);
+		}
+
+		// before anything else touches the dictionary
+		long t0 = System.nanoTime();
+		boolean known = ChemicalComponentBonds.knownCompound("ALA");
+		long t1 = System.nanoTime();
+		System.out.printf("dictionary load: %8.2f ms (ALA %s)%n", (t1 - t0) / 1e6, known ? "known" : "not known");
+
+		for (File file : files) {
+			Vector<Atom> atoms = load(file);
+			int bonds = 0;
+			for (int i = 0; i < 3; i++) {
+				bonds = BondFactory.generateCovalentBonds(atoms).size();
+			}
+
+			long nanos = 0;
+			for (int i = 0; i < iterations; i++) {
+				long t2 = System.nanoTime();
+				BondFactory.generateCovalentBonds(atoms);
+				nanos += System.nanoTime() - t2;
+			}
+			System.out.printf("%s: %d atoms, %d bonds: %8.2f ms%n", file.getName(), atoms.size(), bonds, nanos / 1e6 / iterations);
+		}
+	}
+
+	private static Vector<Atom> load(File file) throws Exception {
+		IFileStructureLoader loader;
+		if (file.getName().endsWith(".xml.gz")) {
+			loader = new XMLStructureLoader(new StructureXMLHandler(file.getPath()));
+		} else {
+			loader = new PdbStructureLoader();
+		}
+		Structure structure = loader.load(file);
+		int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+		Vector<Atom> atoms = new Vector<Atom>(atomCount);
+		for (int i = 0; i < atomCount; i++) {
+			atoms.add((Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i));
+		}
+		return atoms;
+	}
+}
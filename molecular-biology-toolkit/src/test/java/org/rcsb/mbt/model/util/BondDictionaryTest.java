@@ -0,0 +1,151 @@
+package org.rcsb.mbt.model.util;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.rcsb.mbt.model.util.ChemicalComponentBonds.BondOrder;
+
+/**
+ * Checks that a compiled {@link BondDictionary} answers lookups the same
+ * way as the text dictionary it was compiled from.
+ */
+public class BondDictionaryTest {
+	private static final List<String> LINES = Arrays.asList(
+			"ALA\tN\tCA\tSING",
+			"ALA\tCA\tC\tSING",
+			"ALA\tC\tO\tDOUB",
+			"ALA\tCA\tCB\tSING",
+			"ALA\tN\tCA\tTRIP",      // duplicate, first wins
+			"BLN\tC3'\tC4'\tDOUB",
+			"BLN\tC'\tN40\tTRIPLE",  // only four characters count
+			"XX1\tA\tB\tAROM",
+			"XX1\tB\tA\tSING");      // reverse listing, natural order wins
+
+	@Test
+	public void testLookups() throws IOException {
+		BondDictionary dictionary = BondDictionary.compile(LINES);
+		assertEquals(3, dictionary.getCompoundCount());
+		assertEquals("ALA", dictionary.getCompoundCode(0));
+		assertEquals("XX1", dictionary.getCompoundCode(2));
+		assertNull(dictionary.getCompound("XXX"));
+		assertNull(dictionary.getCompound("AL"));
+
+		BondDictionary.Compound ala = dictionary.getCompound("ALA");
+		assertEquals(5, ala.getAtomCount());
+		assertEquals(BondOrder.SINGLE, ala.bondType("N", "CA"));
+		assertEquals(BondOrder.SINGLE, ala.bondType("CA", "N"));
+		assertEquals(BondOrder.DOUBLE, ala.bondType("O", "C"));
+		assertEquals(BondOrder.UNKNOWN, ala.bondType("N", "O"));
+		assertEquals(BondOrder.UNKNOWN, ala.bondType("N", "OXT"));
+		assertEquals(-1, ala.getAtomIndex("OXT"));
+		assertEquals("CB", ala.getAtomName(ala.getAtomIndex("CB")));
+
+		BondDictionary.Compound bln = dictionary.getCompound("BLN");
+		assertEquals(BondOrder.DOUBLE, bln.bondType("C4'", "C3'"));
+		assertEquals(BondOrder.TRIPLE, bln.bondType("C'", "N40"));
+
+		BondDictionary.Compound xx1 = dictionary.getCompound("XX1");
+		assertEquals(BondOrder.AROMATIC, xx1.bondType("A", "B"));
+		assertEquals(BondOrder.SINGLE, xx1.bondType("B", "A"));
+	}
+
+	@Test
+	public void testMappedFile() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (String line : LINES) {
+			text.append(line).append('\n');
+		}
+
+		File file = File.createTempFile("bonds", ".bin");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		BondDictionary.compile(new BufferedReader(new StringReader(text.toString())), out);
+		out.close();
+
+		BondDictionary dictionary = BondDictionary.map(file);
+		assertEquals(3, dictionary.getCompoundCount());
+		assertEquals(BondOrder.SINGLE, dictionary.getCompound("ALA").bondType("CB", "CA"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptLine() throws IOException {
+		BondDictionary.compile(Arrays.asList("ALA\tN\tCA"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotADictionary() throws IOException {
+		new BondDictionary(ByteBuffer.wrap(new byte[64]));
+	}
+
+	@Test
+	public void testMatchesTextDictionary() throws IOException {
+		Random random = new Random(3);
+		String[] orders = { "SING", "DOUB", "TRIP", "AROM" };
+		List<String> lines = new ArrayList<String>();
+		for (int c = 0; c < 200; c++) {
+			String code = Integer.toString(1000 + c * 7, 36).toUpperCase();
+			int atoms = 1 + random.nextInt(60);
+			int bonds = random.nextInt(atoms * 2);
+			for (int b = 0; b < bonds; b++) {
+				lines.add(code + "\t" + "A" + random.nextInt(atoms) + "\t" + "A" + random.nextInt(atoms) + "\t" + orders[random.nextInt(4)]);
+			}
+		}
+
+		// the nested string tables the dictionary used to be loaded into
+		Hashtable<String, Hashtable<String, BondOrder>> text = new Hashtable<String, Hashtable<String, BondOrder>>();
+		for (String line : lines) {
+			String[] items = line.split("\t");
+			Hashtable<String, BondOrder> compound = text.get(items[0]);
+			if (compound == null) {
+				compound = new Hashtable<String, BondOrder>();
+				text.put(items[0], compound);
+			}
+			String key = items[1] + ":" + items[2];
+			if (!compound.containsKey(key)) {
+				compound.put(key, BondOrder.valueByShortName(items[3]));
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		StringBuilder all = new StringBuilder();
+		for (String line : lines) {
+			all.append(line).append('\n');
+		}
+		BondDictionary.compile(new BufferedReader(new StringReader(all.toString())), bytes);
+		BondDictionary dictionary = new BondDictionary(ByteBuffer.wrap(bytes.toByteArray()));
+
+		assertEquals(text.size(), dictionary.getCompoundCount());
+		for (String code : text.keySet()) {
+			Hashtable<String, BondOrder> compound = text.get(code);
+			BondDictionary.Compound compiled = dictionary.getCompound(code);
+			assertNotNull(code, compiled);
+			for (int a0 = 0; a0 < 62; a0++) {
+				for (int a1 = 0; a1 < 62; a1++) {
+					String name0 = "A" + a0;
+					String name1 = "A" + a1;
+					BondOrder expected = compound.get(name0 + ":" + name1);
+					if (expected == null) {
+						expected = compound.get(name1 + ":" + name0);
+					}
+					if (expected == null) {
+						expected = BondOrder.UNKNOWN;
+					}
+					assertEquals(code + " " + name0 + " " + name1, expected, compiled.bondType(name0, name1));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package org.rcsb.mbt.model.util;
+
+import java.io.File;
+import java.util.Vector;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Bond;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+
+/**
+ * Compares the cell grid bond search in {@link BondFactory} with the octree
+ * search it replaced. To get a large structure, the atoms of a PDB file are
+ * tiled into a cubic lattice of translated copies.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -cp ... org.rcsb.mbt.model.util.BondFactoryBenchmark [iterations] [copies per axis] [file]
+ * </pre>
+ */
+public class BondFactoryBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		int copies = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		File file = new File(args.length > 2 ? args[2] : "src/test/resources/test-input/General/molecules/1GIX.pdb");
+
+		Vector<Atom> atoms = tile(new PdbStructureLoader().load(file), copies);
+		System.out.println(file.getName() + " x " + copies * copies * copies + ": " + atoms.size() + " atoms, " + iterations + " iterations");
+
+		// warm up both code paths
+		int octreeBonds = runOctree(atoms);
+		int gridBonds = BondFactory.generateBonds(atoms, 1.9f, true).size();
+		if (octreeBonds != gridBonds) {
+			System.out.println("bond counts differ: octree " + octreeBonds + ", grid " + gridBonds);
+		}
+
+		long octree = 0;
+		long grid = 0;
+		for (int i = 0; i < iterations; i++) {
+			long t0 = System.nanoTime();
+			runOctree(atoms);
+			long t1 = System.nanoTime();
+			BondFactory.generateBonds(atoms, 1.9f, true);
+			long t2 = System.nanoTime();
+			octree += t1 - t0;
+			grid += t2 - t1;
+		}
+
+		System.out.println(gridBonds + " bonds");
+		report("octree   ", octree, iterations);
+		report("cell grid", grid, iterations);
+		System.out.printf("    speedup: %.2fx (%d processors)%n", (double) octree / grid, Runtime.getRuntime().availableProcessors());
+	}
+
+	private static int runOctree(Vector<Atom> atoms) {
+		try {
+			return BondFactoryTest.octreeBonds(atoms, 1.9f).size();
+		} catch (Throwable e) {
+			// the octree is known to run out of stack or divisions on big inputs
+			System.out.println("octree failed: " + e);
+			return -1;
+		}
+	}
+
+	private static Vector<Atom> tile(Structure structure, int copies) {
+		int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+		double[][] bounds = AtomStats.getAtomCoordinateBounds(structure);
+		double spacing = 5.0 + Math.max(bounds[1][0] - bounds[0][0], Math.max(bounds[1][1] - bounds[0][1], bounds[1][2] - bounds[0][2]));
+
+		Vector<Atom> atoms = new Vector<Atom>(atomCount * copies * copies * copies);
+		for (int x = 0; x < copies; x++) {
+			for (int y = 0; y < copies; y++) {
+				for (int z = 0; z < copies; z++) {
+					for (int i = 0; i < atomCount; i++) {
+						Atom atom = new Atom((Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i));
+						atom.coordinate = new double[] { atom.coordinate[0] + x * spacing, atom.coordinate[1] + y * spacing, atom.coordinate[2] + z * spacing };
+						atoms.add(atom);
+					}
+				}
+			}
+		}
+		return atoms;
+	}
+
+	private static void report(String name, long nanos, int iterations) {
+		System.out.printf("%s: %8.1f ms per run%n", name, nanos / 1e6 / iterations);
+	}
+}
@@ -0,0 +1,175 @@
+package org.rcsb.mbt.model.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.Vector;
+
+import org.junit.Test;
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.AtomStore;
+import org.rcsb.mbt.model.Bond;
+import org.rcsb.mbt.model.Chain;
+import org.rcsb.mbt.model.Residue;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+
+/**
+ * Checks the cell grid neighbor search used by {@link BondFactory} against
+ * brute force and against the octree search it replaced.
+ */
+public class BondFactoryTest {
+	private static final String[] PDB_FILES = { "1Q70.pdb", "1GIX.pdb", "1buz.pdb" };
+	private static final File MOLECULES_DIR = new File("src/test/resources/test-input/General/molecules");
+
+	@Test
+	public void testCellGridMatchesBruteForce() {
+		Random random = new Random(42);
+		// clustered points, so that many points share a cell
+		int count = 3000;
+		double[] xyz = new double[count * 3];
+		for (int i = 0; i < xyz.length; i++) {
+			xyz[i] = Math.floor(random.nextDouble() * 20.0) * 0.5 + random.nextGaussian() * 0.3;
+		}
+
+		for (double cutoff : new double[] { 0.5, 1.9, 4.0 }) {
+			int[] expected = bruteForcePairs(xyz, count, cutoff);
+			for (double cellSize : new double[] { 0.3, cutoff, 10.0 }) {
+				CellGrid grid = new CellGrid(xyz, count, cellSize);
+				assertArrayEquals(expected, grid.findPairs(cutoff));
+				assertArrayEquals(expected, grid.findPairs(cutoff, 3));
+			}
+		}
+	}
+
+	@Test
+	public void testCellGridEdgeCases() {
+		assertEquals(0, new CellGrid(new double[0], 0, 1.0).findPairs(1.0).length);
+
+		// all points on top of each other
+		double[] same = new double[5 * 3];
+		Arrays.fill(same, 1.5);
+		CellGrid grid = new CellGrid(same, 5, 1.0);
+		assertEquals(10 * 2, grid.findPairs(0.0).length);
+
+		// far outliers must not blow up the grid
+		double[] sparse = { 0, 0, 0, 1, 0, 0, 1e6, 1e6, 1e6 };
+		grid = new CellGrid(sparse, 3, 0.1);
+		assertArrayEquals(new int[] { 0, 1 }, grid.findPairs(1.0));
+		assertTrue(grid.getCellSize() >= 0.1);
+	}
+
+	@Test
+	public void testVectorBondsMatchOctree() throws Exception {
+		for (String name : PDB_FILES) {
+			Vector<Atom> atoms = loadAtoms(new File(MOLECULES_DIR, name));
+			Vector<Bond> expected = octreeBonds(atoms, 1.9f);
+			Vector<Bond> actual = BondFactory.generateBonds(atoms, 1.9f, true);
+			assertEquals(name, bondSet(expected), bondSet(actual));
+			assertEquals(name, expected.size(), actual.size());
+		}
+	}
+
+	@Test
+	public void testAtomStoreBondsMatchVector() throws Exception {
+		for (String name : PDB_FILES) {
+			Vector<Atom> atoms = loadAtoms(new File(MOLECULES_DIR, name));
+			AtomStore store = new AtomStore(atoms, new ArrayList<Residue>(), new ArrayList<Chain>());
+			assertEquals(name, bondSet(BondFactory.generateCovalentBonds(atoms)),
+					bondSet(BondFactory.generateCovalentBonds(store)));
+		}
+	}
+
+	@Test
+	public void testStructureBondsMatchBruteForce() throws Exception {
+		Structure structure = new PdbStructureLoader().load(new File(MOLECULES_DIR, "1Q70.pdb"));
+		int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+		List<Atom> atoms = new ArrayList<Atom>();
+		for (int i = 0; i < atomCount; i++) {
+			atoms.add((Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i));
+		}
+
+		Set<String> expected = new HashSet<String>();
+		for (int i = 0; i < atomCount; i++) {
+			for (int j = i + 1; j < atomCount; j++) {
+				if (BondFactory.distance(atoms.get(i), atoms.get(j)) <= 1.9f) {
+					expected.add(key(atoms.get(i), atoms.get(j)));
+				}
+			}
+		}
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, bondSet(BondFactory.generateBonds(structure, 1.9f)));
+	}
+
+	private static Vector<Atom> loadAtoms(File file) throws Exception {
+		Structure structure = new PdbStructureLoader().load(file);
+		int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+		Vector<Atom> atoms = new Vector<Atom>(atomCount);
+		for (int i = 0; i < atomCount; i++) {
+			atoms.add((Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i));
+		}
+		return atoms;
+	}
+
+	/**
+	 * The octree based bond search BondFactory used to do.
+	 */
+	static Vector<Bond> octreeBonds(Vector<Atom> atoms, float cutOff) throws Exception {
+		OctreeAtomItem[] items = new OctreeAtomItem[atoms.size()];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = new OctreeAtomItem(atoms.get(i), i);
+		}
+		Octree octree = new Octree(3, items, new float[] { 0.0f, 0.0f, 0.0f });
+		octree.build();
+		Vector<Bond> result = octree.getBondsVector(cutOff);
+		for (int b = result.size() - 1; b >= 0; b--) {
+			Atom atom0 = result.get(b).getAtom(0);
+			Atom atom1 = result.get(b).getAtom(1);
+			if (atom0.element.equals("H") && atom1.element.equals("H")) {
+				result.remove(b);
+			}
+		}
+		return result;
+	}
+
+	private static int[] bruteForcePairs(double[] xyz, int count, double cutoff) {
+		List<Integer> pairs = new ArrayList<Integer>();
+		for (int i = 0; i < count; i++) {
+			for (int j = i + 1; j < count; j++) {
+				double dx = xyz[j * 3] - xyz[i * 3];
+				double dy = xyz[j * 3 + 1] - xyz[i * 3 + 1];
+				double dz = xyz[j * 3 + 2] - xyz[i * 3 + 2];
+				if (dx * dx + dy * dy + dz * dz <= cutoff * cutoff) {
+					pairs.add(i);
+					pairs.add(j);
+				}
+			}
+		}
+		int[] result = new int[pairs.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = pairs.get(i);
+		}
+		return result;
+	}
+
+	private static Set<String> bondSet(List<Bond> bonds) {
+		Set<String> set = new HashSet<String>();
+		for (Bond bond : bonds) {
+			set.add(key(bond.getAtom(0), bond.getAtom(1)));
+		}
+		return set;
+	}
+
+	private static String key(Atom a, Atom b) {
+		int ha = System.identityHashCode(a);
+		int hb = System.identityHashCode(b);
+		return Math.min(ha, hb) + "-" + Math.max(ha, hb);
+	}
+}
@@ -0,0 +1,156 @@
+package org.rcsb.mbt.model.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the radius, candidate and nearest neighbor queries of
+ * {@link CellGrid} against brute force.
+ */
+public class CellGridTest {
+
+	private static double[] randomPoints(Random random, int count) {
+		double[] xyz = new double[count * 3];
+		for (int i = 0; i < xyz.length; i++) {
+			xyz[i] = Math.floor(random.nextDouble() * 10.0) + random.nextGaussian() * 0.5;
+		}
+		return xyz;
+	}
+
+	private static double distance2(double[] xyz, int i, double[] q) {
+		double dx = xyz[i * 3] - q[0];
+		double dy = xyz[i * 3 + 1] - q[1];
+		double dz = xyz[i * 3 + 2] - q[2];
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	@Test
+	public void testFindWithin() {
+		Random random = new Random(7);
+		int count = 2000;
+		double[] xyz = randomPoints(random, count);
+		CellGrid grid = new CellGrid(xyz, count, 1.5);
+
+		for (int t = 0; t < 200; t++) {
+			double[] q = { random.nextDouble() * 14 - 2, random.nextDouble() * 14 - 2, random.nextDouble() * 14 - 2 };
+			double radius = random.nextDouble() * 5.0;
+			List<Integer> expected = new ArrayList<Integer>();
+			for (int i = 0; i < count; i++) {
+				if (distance2(xyz, i, q) <= radius * radius) {
+					expected.add(i);
+				}
+			}
+			int[] actual = grid.findWithin(q, radius);
+			assertEquals(expected.size(), actual.length);
+			for (int i = 0; i < actual.length; i++) {
+				assertEquals(expected.get(i).intValue(), actual[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testFindCandidates() {
+		Random random = new Random(3);
+		int count = 2000;
+		double[] xyz = randomPoints(random, count);
+		CellGrid grid = new CellGrid(xyz, count, 1.5);
+		int[] cellPoints = grid.getCellPoints();
+		CellGrid.IntList ranges = new CellGrid.IntList();
+
+		for (int t = 0; t < 200; t++) {
+			double[] q = { random.nextDouble() * 20 - 5, random.nextDouble() * 14 - 2, random.nextDouble() * 14 - 2 };
+			double radius = random.nextDouble() * 2.0;
+			int[] seen = new int[count];
+			grid.findCandidates(q[0], q[1], q[2], radius, ranges);
+			for (int r = 0; r < ranges.size(); r += 2) {
+				for (int p = ranges.get(r); p < ranges.get(r + 1); p++) {
+					seen[cellPoints[p]]++;
+				}
+			}
+			for (int i = 0; i < count; i++) {
+				assertTrue(seen[i] <= 1);
+				if (distance2(xyz, i, q) <= radius * radius) {
+					assertEquals(1, seen[i]);
+				}
+			}
+		}
+		new CellGrid(new double[0], 0, 1.0).findCandidates(0, 0, 0, 1.0, ranges);
+		assertEquals(0, ranges.size());
+	}
+
+	@Test
+	public void testFindNearest() {
+		Random random = new Random(11);
+		int count = 1500;
+		final double[] xyz = randomPoints(random, count);
+		CellGrid grid = new CellGrid(xyz, count, 1.0);
+
+		for (int t = 0; t < 100; t++) {
+			// include queries far outside the points
+			final double[] q = { random.nextDouble() * 60 - 25, random.nextDouble() * 14 - 2, random.nextDouble() * 14 - 2 };
+			int k = 1 + random.nextInt(40);
+
+			List<Integer> all = new ArrayList<Integer>();
+			for (int i = 0; i < count; i++) {
+				all.add(i);
+			}
+			Collections.sort(all, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					int delta = Double.compare(distance2(xyz, a, q), distance2(xyz, b, q));
+					return delta != 0 ? delta : a.compareTo(b);
+				}
+			});
+
+			int[] actual = grid.findNearest(q, k);
+			assertEquals(k, actual.length);
+			for (int i = 0; i < k; i++) {
+				assertEquals(all.get(i).intValue(), actual[i]);
+			}
+		}
+
+		assertEquals(count, grid.findNearest(0, 0, 0, count + 10).length);
+		assertEquals(0, new CellGrid(new double[0], 0, 1.0).findNearest(0, 0, 0, 3).length);
+	}
+
+	@Test
+	public void testOutlier() {
+		// one far-off point (as in a PDB file with a 9999.000 placeholder)
+		// must not make the cells coarser
+		Random random = new Random(13);
+		int count = 3000;
+		double[] xyz = randomPoints(random, count + 1);
+		xyz[count * 3] = xyz[count * 3 + 1] = xyz[count * 3 + 2] = 9999.0;
+		xyz[3] = -9999.0;
+		CellGrid grid = new CellGrid(xyz, count + 1, 1.9);
+		assertEquals(1.9, grid.getCellSize(), 0.0);
+
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i <= count; i++) {
+			for (int j = i + 1; j <= count; j++) {
+				double dx = xyz[i * 3] - xyz[j * 3];
+				double dy = xyz[i * 3 + 1] - xyz[j * 3 + 1];
+				double dz = xyz[i * 3 + 2] - xyz[j * 3 + 2];
+				if (dx * dx + dy * dy + dz * dz <= 1.9 * 1.9) {
+					expected.add(i);
+					expected.add(j);
+				}
+			}
+		}
+		int[] actual = grid.findPairs(1.9);
+		assertEquals(expected.size(), actual.length);
+		for (int i = 0; i < actual.length; i++) {
+			assertEquals(expected.get(i).intValue(), actual[i]);
+		}
+
+		assertArrayEquals(new int[] { count }, grid.findWithin(new double[] { 9999.5, 9999.0, 9999.0 }, 1.0));
+		assertEquals(count, grid.findNearest(9000.0, 9000.0, 9000.0, 1)[0]);
+		assertEquals(count + 1, grid.findNearest(new double[] { 5000.0, 5000.0, 5000.0 }, count + 1).length);
+	}
+}
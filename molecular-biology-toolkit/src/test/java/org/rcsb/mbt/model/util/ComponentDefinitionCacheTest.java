@@ -0,0 +1,198 @@
+package org.rcsb.mbt.model.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.model.util.ChemicalComponentBonds.BondOrder;
+
+/**
+ * Looks up ligands that are not in the bond dictionary through a local
+ * provider and checks what ends up in the cache.
+ */
+public class ComponentDefinitionCacheTest {
+	private ComponentDefinitionProvider savedProvider;
+	private ComponentDefinitionCache savedCache;
+	private File ligandDirectory;
+	private File cacheDirectory;
+
+	/**
+	 * Counts the lookups that reach the provider.
+	 */
+	private static class CountingProvider implements ComponentDefinitionProvider {
+		private final ComponentDefinitionProvider provider;
+		private final boolean offline;
+		final AtomicInteger lookups = new AtomicInteger();
+
+		CountingProvider(ComponentDefinitionProvider provider, boolean offline) {
+			this.provider = provider;
+			this.offline = offline;
+		}
+
+		public InputStream openDefinition(String compoundCode) throws IOException {
+			lookups.incrementAndGet();
+			if (offline) {
+				throw new IOException("offline");
+			}
+			return provider.openDefinition(compoundCode);
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		savedProvider = ChemicalComponentBonds.getComponentDefinitionProvider();
+		savedCache = ChemicalComponentBonds.getComponentDefinitionCache();
+
+		ligandDirectory = createTempDirectory("ligands");
+		cacheDirectory = createTempDirectory("cache");
+		writeDefinition("ZQ1", "ZQ1 C1 O1 DOUB N N 1", "ZQ1 C1 C2 SING N N 2");
+		writeDefinition("ZQ3", "ZQ3 N1 C1 SING N N 1");
+		ChemicalComponentBonds.setComponentDefinitionCache(new ComponentDefinitionCache(cacheDirectory));
+	}
+
+	@After
+	public void tearDown() {
+		ChemicalComponentBonds.setComponentDefinitionProvider(savedProvider);
+		ChemicalComponentBonds.setComponentDefinitionCache(savedCache);
+		delete(ligandDirectory);
+		delete(cacheDirectory);
+	}
+
+	@Test
+	public void testLookupFillsCache() throws IOException {
+		CountingProvider provider = new CountingProvider(new LocalComponentDefinitionProvider(ligandDirectory), false);
+		ChemicalComponentBonds.setComponentDefinitionProvider(provider);
+
+		assertEquals(1, ChemicalComponentBonds.prefetch(Arrays.asList("ZQ1", "ZQ2", "ZQ1")));
+		assertEquals(2, provider.lookups.get());
+
+		BondDictionary.Compound compound = ChemicalComponentBonds.getCompound("ZQ1");
+		assertEquals(BondOrder.DOUBLE, compound.bondType("O1", "C1"));
+		assertEquals(BondOrder.SINGLE, compound.bondType("C1", "C2"));
+		assertTrue(new File(cacheDirectory, "ZQ1.bonds").isFile());
+		assertTrue(new File(cacheDirectory, "ZQ2.missing").isFile());
+
+		// known missing: not looked up again, in this session or the next
+		assertFalse(ChemicalComponentBonds.knownCompound("ZQ2"));
+		assertEquals(2, provider.lookups.get());
+		ComponentDefinitionCache cache = new ComponentDefinitionCache(cacheDirectory);
+		assertTrue(cache.isMissing("ZQ2"));
+		assertFalse(cache.isMissing("ZQ1"));
+		assertEquals(Arrays.asList("ZQ1\tC1\tO1\tDOUB", "ZQ1\tC1\tC2\tSING"), cache.getBonds("ZQ1"));
+		assertNull(cache.getBonds("ZQ2"));
+
+		// missing markers expire
+		assertFalse(new ComponentDefinitionCache(cacheDirectory, -1).isMissing("ZQ2"));
+	}
+
+	@Test
+	public void testCacheServesLookups() throws IOException {
+		ComponentDefinitionCache cache = new ComponentDefinitionCache(cacheDirectory);
+		cache.putBonds("ZQ4", Arrays.asList("ZQ4\tS1\tO1\tDOUB"));
+
+		CountingProvider provider = new CountingProvider(new LocalComponentDefinitionProvider(ligandDirectory), false);
+		ChemicalComponentBonds.setComponentDefinitionProvider(provider);
+
+		assertTrue(ChemicalComponentBonds.knownCompound("ZQ4"));
+		assertEquals(BondOrder.DOUBLE, ChemicalComponentBonds.getCompound("ZQ4").bondType("S1", "O1"));
+		assertEquals(0, provider.lookups.get());
+	}
+
+	@Test
+	public void testOfflineProviderIsNotRetried() {
+		CountingProvider provider = new CountingProvider(null, true);
+		ChemicalComponentBonds.setComponentDefinitionProvider(provider);
+
+		assertEquals(3, ChemicalComponentBonds.prefetch(Arrays.asList("ZQ5", "ZQ6", "ZQ7")));
+		assertEquals(1, provider.lookups.get());
+
+		// a failed lookup isn't recorded as missing
+		assertFalse(new File(cacheDirectory, "ZQ5.missing").exists());
+	}
+
+	@Test
+	public void testPrefetchIsConcurrent() throws IOException {
+		writeDefinition("ZR1", "ZR1 C1 O1 SING N N 1");
+		writeDefinition("ZR2", "ZR2 C1 N1 SING N N 1");
+		writeDefinition("ZR4", "ZR4 C1 S1 SING N N 1");
+
+		// after the first lookup, the other three have to be waiting at once
+		// to get past the barrier
+		final CyclicBarrier barrier = new CyclicBarrier(3);
+		CountingProvider provider = new CountingProvider(new LocalComponentDefinitionProvider(ligandDirectory), false) {
+			public InputStream openDefinition(String compoundCode) throws IOException {
+				if (lookups.get() > 0) {
+					try {
+						barrier.await(10, TimeUnit.SECONDS);
+					} catch (Exception e) {
+						throw new IOException("lookups not concurrent: " + e);
+					}
+				}
+				return super.openDefinition(compoundCode);
+			}
+		};
+		ChemicalComponentBonds.setComponentDefinitionProvider(provider);
+
+		assertEquals(1, ChemicalComponentBonds.prefetch(Arrays.asList("ZR1", "ZR2", "ZR3", "ZR4")));
+		assertEquals(4, provider.lookups.get());
+		assertNotNull(ChemicalComponentBonds.getCompound("ZR4"));
+		assertTrue(new File(cacheDirectory, "ZR3.missing").isFile());
+	}
+
+	@Test
+	public void testNoProvider() throws IOException {
+		ChemicalComponentBonds.setComponentDefinitionProvider(null);
+		assertFalse(ChemicalComponentBonds.knownCompound("ZQ3"));
+
+		ChemicalComponentBonds.setComponentDefinitionProvider(new LocalComponentDefinitionProvider(ligandDirectory));
+		assertTrue(ChemicalComponentBonds.knownCompound("ZQ3"));
+		assertNull(new LocalComponentDefinitionProvider(ligandDirectory).openDefinition("ZQ8"));
+		assertNull(new LocalComponentDefinitionProvider(ligandDirectory).openDefinition("../ZQ1"));
+	}
+
+	private void writeDefinition(String compoundCode, String... bonds) throws IOException {
+		FileWriter writer = new FileWriter(new File(ligandDirectory, compoundCode + ".cif"));
+		writer.write("data_" + compoundCode + "\n#\n"
+				+ "loop_\n"
+				+ "_chem_comp_bond.comp_id\n"
+				+ "_chem_comp_bond.atom_id_1\n"
+				+ "_chem_comp_bond.atom_id_2\n"
+				+ "_chem_comp_bond.value_order\n"
+				+ "_chem_comp_bond.pdbx_aromatic_flag\n"
+				+ "_chem_comp_bond.pdbx_stereo_config\n"
+				+ "_chem_comp_bond.pdbx_ordinal\n");
+		for (String bond : bonds) {
+			writer.write(bond + "\n");
+		}
+		writer.write("#\n");
+		writer.close();
+	}
+
+	private static File createTempDirectory(String name) throws IOException {
+		File directory = File.createTempFile(name, "");
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+		return directory;
+	}
+
+	private static void delete(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.rcsb.mbt.model.util;
+
+import java.io.File;
+
+import org.rcsb.mbt.model.StructureMap;
+
+/**
+ * Times the Kabsch-Sander secondary structure assignment of
+ * {@link DerivedInformation} on one thread and on all processors.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -cp ... org.rcsb.mbt.model.util.DerivedInformationBenchmark [iterations] [files...]
+ * </pre>
+ */
+public class DerivedInformationBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		String[] names = { "2FTE.xml.gz", "2H2Q.xml.gz", "2EKG.pdb.gz", "1STP.pdb1.gz" };
+		File[] files = new File[args.length > 1 ? args.length - 1 : names.length];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = args.length > 1 ? new File(args[i + 1]) : new File("src/test/resources/test-input/General/molecules", names[i]);
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (File file : files) {
+			StructureMap structureMap = DerivedInformationTest.loadStructureMap(file);
+
+			// warm up
+			for (int i = 0; i < 5; i++) {
+				run(structureMap, 1);
+				run(structureMap, threads);
+			}
+
+			long sequential = 0;
+			long parallel = 0;
+			for (int i = 0; i < iterations; i++) {
+				long t0 = System.nanoTime();
+				run(structureMap, 1);
+				long t1 = System.nanoTime();
+				run(structureMap, threads);
+				long t2 = System.nanoTime();
+				sequential += t1 - t0;
+				parallel += t2 - t1;
+			}
+
+			System.out.println(file.getName() + ": " + structureMap.getResidueCount() + " residues, " + iterations + " iterations");
+			report("1 thread   ", sequential, iterations);
+			report(threads + " thread(s)", parallel, iterations);
+		}
+	}
+
+	private static void run(StructureMap structureMap, int threads) {
+		DerivedInformation derivedInformation = new DerivedInformation(structureMap.getStructure(), structureMap);
+		derivedInformation.setThreads(threads);
+		derivedInformation.setSsExtendedFlags();
+	}
+
+	private static void report(String name, long nanos, int iterations) {
+		System.out.printf("    %s: %8.2f ms%n", name, nanos / 1e6 / iterations);
+	}
+}
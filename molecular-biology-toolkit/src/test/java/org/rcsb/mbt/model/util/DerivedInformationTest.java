@@ -0,0 +1,91 @@
+package org.rcsb.mbt.model.util;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureMap;
+import org.rcsb.mbt.structLoader.IFileStructureLoader;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.mbt.structLoader.StructureXMLHandler;
+import org.rcsb.mbt.structLoader.XMLStructureLoader;
+
+/**
+ * Checks the secondary structure flags {@link DerivedInformation} derives
+ * against those of the octree based implementation it replaced. 2FTE and
+ * 2H2Q have residues with more than one candidate H bond below the energy
+ * cut-off, where the order of the candidates matters.
+ */
+public class DerivedInformationTest {
+	private static final String[] FILES = { "1GIX.pdb", "1GIY.pdb", "1Q70.pdb", "1buz.pdb", "1STP.pdb1.gz",
+			"2EKG.pdb.gz", "2FTE.xml.gz", "2H2Q.xml.gz" };
+	private static final File MOLECULES_DIR = new File("src/test/resources/test-input/General/molecules");
+	private static final File EXPECTED_DIR = new File("src/test/resources/test-input/DerivedInformationTest/Expected");
+	private final OfflineComponentDefinitions componentDefinitions = new OfflineComponentDefinitions();
+
+	@Before
+	public void setUp() throws IOException {
+		componentDefinitions.install();
+	}
+
+	@After
+	public void tearDown() {
+		componentDefinitions.restore();
+	}
+
+	@Test
+	public void testSsFlagsMatchOctree() throws Exception {
+		for (String name : FILES) {
+			StructureMap structureMap = loadStructureMap(new File(MOLECULES_DIR, name));
+			DerivedInformation derivedInformation = new DerivedInformation(structureMap.getStructure(), structureMap);
+			derivedInformation.setSsExtendedFlags();
+			assertEquals(name, readExpected(name), new String(derivedInformation.getSsFlags()));
+		}
+	}
+
+	@Test
+	public void testThreads() throws Exception {
+		StructureMap structureMap = loadStructureMap(new File(MOLECULES_DIR, "2FTE.xml.gz"));
+		String[] flags = new String[2];
+		int[] threads = { 1, 3 };
+		for (int i = 0; i < threads.length; i++) {
+			DerivedInformation derivedInformation = new DerivedInformation(structureMap.getStructure(), structureMap);
+			derivedInformation.setThreads(threads[i]);
+			derivedInformation.setSsExtendedFlags();
+			flags[i] = new String(derivedInformation.getSsFlags());
+		}
+		assertEquals(flags[0], flags[1]);
+		assertTrue(flags[0].indexOf('H') >= 0);
+		assertTrue(flags[0].indexOf('E') >= 0);
+	}
+
+	static StructureMap loadStructureMap(File file) throws IOException {
+		IFileStructureLoader loader;
+		if (file.getName().endsWith(".xml.gz")) {
+			loader = new XMLStructureLoader(new StructureXMLHandler(file.getPath()));
+		} else {
+			loader = new PdbStructureLoader();
+		}
+		Structure structure = loader.load(file);
+		if (structure.hasStructureMap()) {
+			return structure.getStructureMap();
+		}
+		return new StructureMap(structure, loader.getEntityNameMap(), null);
+	}
+
+	private static String readExpected(String name) throws IOException {
+		BufferedReader reader = new BufferedReader(new FileReader(new File(EXPECTED_DIR, name.replace('.', '_') + ".txt")));
+		try {
+			return reader.readLine();
+		} finally {
+			reader.close();
+		}
+	}
+}
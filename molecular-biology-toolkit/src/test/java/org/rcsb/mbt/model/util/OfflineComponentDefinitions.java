@@ -0,0 +1,41 @@
+package org.rcsb.mbt.model.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Keeps a test that builds bonds off the network and out of ~/.mbt: install()
+ * sets no {@link ComponentDefinitionProvider} and a
+ * {@link ComponentDefinitionCache} in a temporary directory, restore() puts
+ * the originals back. Call them from @Before and @After.
+ */
+public class OfflineComponentDefinitions {
+	private ComponentDefinitionProvider savedProvider;
+	private ComponentDefinitionCache savedCache;
+	private File cacheDirectory;
+
+	public void install() throws IOException {
+		savedProvider = ChemicalComponentBonds.getComponentDefinitionProvider();
+		savedCache = ChemicalComponentBonds.getComponentDefinitionCache();
+
+		cacheDirectory = File.createTempFile("ligands", "");
+		if (!cacheDirectory.delete() || !cacheDirectory.mkdir()) {
+			throw new IOException("Can't create " + cacheDirectory);
+		}
+		ChemicalComponentBonds.setComponentDefinitionProvider(null);
+		ChemicalComponentBonds.setComponentDefinitionCache(new ComponentDefinitionCache(cacheDirectory));
+	}
+
+	public void restore() {
+		ChemicalComponentBonds.setComponentDefinitionProvider(savedProvider);
+		ChemicalComponentBonds.setComponentDefinitionCache(savedCache);
+
+		File[] files = cacheDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		cacheDirectory.delete();
+	}
+}
@@ -0,0 +1,77 @@
+package org.rcsb.mbt.model.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link ParallelExecutor} returns the results in task order,
+ * rethrows task failures and runs nested calls on a single pool thread.
+ */
+public class ParallelExecutorTest {
+
+	private static List<Callable<Integer>> squares(int count) {
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < count; i++) {
+			final int n = i;
+			tasks.add(new Callable<Integer>() {
+				public Integer call() {
+					return n * n;
+				}
+			});
+		}
+		return tasks;
+	}
+
+	@Test
+	public void testResultOrder() {
+		ParallelExecutor executor = new ParallelExecutor(3);
+		for (int threads = 1; threads <= 5; threads++) {
+			List<Integer> results = executor.invokeAll(squares(100), threads);
+			assertEquals(100, results.size());
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(i * i, results.get(i).intValue());
+			}
+		}
+	}
+
+	@Test
+	public void testNested() {
+		final ParallelExecutor executor = new ParallelExecutor(1);
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < 8; i++) {
+			tasks.add(new Callable<Integer>() {
+				public Integer call() {
+					int sum = 0;
+					for (int square : executor.invokeAll(squares(10), 4)) {
+						sum += square;
+					}
+					return sum;
+				}
+			});
+		}
+		for (int sum : executor.invokeAll(tasks, 4)) {
+			assertEquals(285, sum);
+		}
+	}
+
+	@Test
+	public void testFailure() {
+		List<Callable<Integer>> tasks = squares(20);
+		tasks.set(13, new Callable<Integer>() {
+			public Integer call() {
+				throw new IllegalArgumentException("task 13");
+			}
+		});
+		try {
+			new ParallelExecutor(2).invokeAll(tasks, 3);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("task 13", e.getMessage());
+		}
+	}
+}
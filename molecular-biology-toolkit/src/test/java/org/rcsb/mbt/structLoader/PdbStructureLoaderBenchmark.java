@@ -0,0 +1,111 @@
+package org.rcsb.mbt.structLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+
+/**
+ * Throughput benchmark for the two parsing modes of {@link PdbStructureLoader}
+ * and of parallel loading, over the PDB files in test-input/General/molecules
+ * (or the files given on the command line). Compressed files are always
+ * read sequentially, so use large uncompressed files (e.g. NMR ensembles
+ * with treat-models-as-subunits, or big assemblies) to see the effect of
+ * parallel loading.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -cp ... org.rcsb.mbt.structLoader.PdbStructureLoaderBenchmark [iterations] [files...]
+ * </pre>
+ */
+public class PdbStructureLoaderBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+		File[] files;
+		if (args.length > 1) {
+			files = new File[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				files[i - 1] = new File(args[i]);
+			}
+		} else {
+			files = loadableFiles(PdbStructureLoaderTest.getPdbFiles());
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		int[] modes = { 0, 1, threads };
+		String[] names = { "line parser       ", "record parser     ", "parallel (" + threads + " threads)" };
+
+		// warm up all code paths
+		for (int i = 0; i < 3; i++) {
+			for (int mode : modes) {
+				run(files, mode);
+			}
+		}
+
+		long[] times = new long[modes.length];
+		long atoms = 0;
+		for (int i = 0; i < iterations; i++) {
+			for (int m = 0; m < modes.length; m++) {
+				long t0 = System.nanoTime();
+				int count = run(files, modes[m]);
+				times[m] += System.nanoTime() - t0;
+				if (m == 0) {
+					atoms += count;
+				}
+			}
+		}
+
+		long bytes = 0;
+		for (File file : files) {
+			bytes += file.length();
+		}
+
+		System.out.println(files.length + " files, " + bytes / 1024 + " KB on disk, " + atoms / iterations + " atoms, " + iterations + " iterations");
+		for (int m = 0; m < modes.length; m++) {
+			report(names[m], times[m], atoms);
+			System.out.printf("    speedup vs line parser: %.2fx%n", (double) times[0] / times[m]);
+		}
+	}
+
+	/**
+	 * Skips the files the loader rejects (see PdbStructureLoaderTest).
+	 */
+	private static File[] loadableFiles(File[] files) throws IOException {
+		List<File> loadable = new ArrayList<File>();
+		for (File file : files) {
+			try {
+				new PdbStructureLoader().load(file);
+				loadable.add(file);
+			} catch (RuntimeException e) {
+				System.out.println("skipping " + file.getName() + ": " + e);
+			}
+		}
+		return loadable.toArray(new File[loadable.size()]);
+	}
+
+	/**
+	 * @param mode - 0 for the line parser, 1 for the record parser, more
+	 * for a parallel load with that many threads (uncompressed files only).
+	 */
+	private static int run(File[] files, int mode) throws IOException {
+		int atoms = 0;
+		for (File file : files) {
+			PdbStructureLoader loader = new PdbStructureLoader();
+			loader.setUseRecordParser(mode > 0);
+			loader.setParallelism(mode);
+			Structure structure = loader.load(file);
+			atoms += structure.getStructureComponentCount(ComponentType.ATOM);
+		}
+		return atoms;
+	}
+
+	private static void report(String name, long nanos, long atoms) {
+		System.out.printf("%s: %8.1f ms total, %6.2f M atoms/s%n", name, nanos / 1e6, atoms / (nanos / 1e9) / 1e6);
+	}
+}
@@ -0,0 +1,196 @@
+package org.rcsb.mbt.structLoader;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Test;
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+
+/**
+ * Checks that the record parser mode of {@link PdbStructureLoader} loads
+ * exactly the same atoms as the line based mode.
+ */
+public class PdbStructureLoaderTest {
+
+	static final File MOLECULES_DIR = new File("src/test/resources/test-input/General/molecules");
+
+	static final FileFilter PDB_FILES = new FileFilter() {
+		public boolean accept(File file) {
+			return file.getName().matches("^.+\\.(pdb\\d*|ent)(\\.gz)?$");
+		}
+	};
+
+	static File[] getPdbFiles() {
+		File[] files = MOLECULES_DIR.listFiles(PDB_FILES);
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Test method for {@link org.rcsb.mbt.structLoader.PdbStructureLoader#setUseRecordParser(boolean)}.
+	 */
+	@Test
+	public final void testRecordParserMatchesLineParser() throws IOException {
+		File[] files = getPdbFiles();
+		assertTrue(files.length > 0);
+
+		int compared = 0;
+		for (File file : files) {
+			PdbStructureLoader lineLoader = new PdbStructureLoader();
+			PdbStructureLoader recordLoader = new PdbStructureLoader();
+			recordLoader.setUseRecordParser(true);
+
+			Structure expected;
+			try {
+				expected = lineLoader.load(file);
+			} catch (RuntimeException e) {
+				// some files have HETATM chains missing from COMPND, which
+				// the loader can't handle; both modes should fail the same way
+				try {
+					recordLoader.load(file);
+					fail(file.getName() + ": expected " + e);
+				} catch (RuntimeException r) {
+					assertEquals(file.getName(), e.getClass(), r.getClass());
+				}
+				continue;
+			}
+			Structure actual = recordLoader.load(file);
+
+			assertSameAtoms(file.getName(), expected, actual);
+			assertEquals(file.getName(), lineLoader.getEntityNameMap(), recordLoader.getEntityNameMap());
+			compared++;
+		}
+		assertTrue(compared > 0);
+	}
+
+	@Test
+	public final void testRecordParserLineTerminators() throws IOException {
+		String[] records = {
+				"COMPND    MOL_ID: 1;",
+				"COMPND   2 MOLECULE: TEST PROTEIN;",
+				"COMPND   3 CHAIN: A;",
+				"ATOM      1  N   ALA A  13      22.637   5.768  11.762  1.00 44.60           N",
+				"ATOM      2 HB1* ALA A  13     -23.655  -4.852  -0.000        -1.5            ",
+				"HETATM    3  O   HOH A 101       1.5     2      3.25   0.50  1e1            O2",
+		};
+		String[] separators = { "\n", "\r", "\r\n" };
+
+		for (String separator : separators) {
+			StringBuilder text = new StringBuilder();
+			for (String record : records) {
+				text.append(record).append(separator);
+			}
+
+			PdbStructureLoader lineLoader = new PdbStructureLoader();
+			Structure expected = lineLoader.load(new BufferedReader(new StringReader(text.toString())));
+
+			PdbStructureLoader recordLoader = new PdbStructureLoader();
+			recordLoader.setUseRecordParser(true);
+			Structure actual = recordLoader.load(new BufferedReader(new StringReader(text.toString())));
+
+			assertEquals(3, actual.getStructureComponentCount(ComponentType.ATOM));
+			assertSameAtoms("separator " + Arrays.toString(separator.toCharArray()), expected, actual);
+		}
+	}
+
+	/**
+	 * Test method for {@link org.rcsb.mbt.structLoader.PdbStructureLoader#setParallelism(int)}.
+	 */
+	@Test
+	public final void testParallelLoadMatchesLineParser() throws IOException {
+		int compared = 0;
+		for (File file : getPdbFiles()) {
+			if (file.getName().endsWith(".gz")) {
+				continue;
+			}
+			Structure expected;
+			try {
+				expected = new PdbStructureLoader().load(file);
+			} catch (RuntimeException e) {
+				continue; // see testRecordParserMatchesLineParser
+			}
+
+			PdbStructureLoader parallelLoader = new PdbStructureLoader();
+			parallelLoader.setUseRecordParser(true);
+			parallelLoader.setParallelism(4);
+			parallelLoader.setMinimumChunkBytes(4096); // lots of small chunks
+			assertSameAtoms(file.getName(), expected, parallelLoader.load(file));
+			compared++;
+		}
+		assertTrue(compared > 0);
+	}
+
+	@Test
+	public final void testParallelLoadModels() throws IOException {
+		File file = File.createTempFile("models", ".pdb");
+		file.deleteOnExit();
+
+		PrintWriter writer = new PrintWriter(new FileWriter(file));
+		writer.print("COMPND    MOL_ID: 1;\r\n");
+		writer.print("COMPND   3 CHAIN: A;\r\n");
+		for (int model = 1; model <= 3; model++) {
+			writer.print("MODEL        " + model + "\r\n");
+			for (int i = 0; i < 200; i++) {
+				writer.printf(Locale.US, "ATOM  %5d  CA  GLY A%4d    %8.3f%8.3f%8.3f  1.00%6.2f           C\r\n",
+						i + 1, i + 1, i * 1.5, model * 0.25, -i * 0.125, i * 0.5);
+			}
+			writer.print("ENDMDL\r\n");
+		}
+		writer.print("END\r\n");
+		writer.close();
+
+		for (boolean subunits : new boolean[] { false, true }) {
+			PdbStructureLoader lineLoader = new PdbStructureLoader();
+			lineLoader.setTreatModelsAsSubunits(subunits);
+			Structure expected = lineLoader.load(file);
+			assertEquals(subunits ? 600 : 200, expected.getStructureComponentCount(ComponentType.ATOM));
+
+			PdbStructureLoader parallelLoader = new PdbStructureLoader();
+			parallelLoader.setTreatModelsAsSubunits(subunits);
+			parallelLoader.setUseRecordParser(true);
+			parallelLoader.setParallelism(3);
+			parallelLoader.setMinimumChunkBytes(1000);
+			assertSameAtoms("subunits " + subunits, expected, parallelLoader.load(file));
+		}
+	}
+
+	static void assertSameAtoms(String message, Structure expected, Structure actual) {
+		int count = expected.getStructureComponentCount(ComponentType.ATOM);
+		assertEquals(message, count, actual.getStructureComponentCount(ComponentType.ATOM));
+
+		for (int i = 0; i < count; i++) {
+			Atom e = (Atom) expected.getStructureComponentByIndex(ComponentType.ATOM, i);
+			Atom a = (Atom) actual.getStructureComponentByIndex(ComponentType.ATOM, i);
+			String where = message + " atom " + i;
+
+			assertEquals(where, e.number, a.number);
+			assertEquals(where, e.name, a.name);
+			assertEquals(where, e.element, a.element);
+			assertEquals(where, e.altLoc, a.altLoc);
+			assertEquals(where, e.compound, a.compound);
+			assertEquals(where, e.chain_id, a.chain_id);
+			assertEquals(where, e.authorChain_id, a.authorChain_id);
+			assertEquals(where, e.entity_id, a.entity_id);
+			assertEquals(where, e.residue_id, a.residue_id);
+			assertEquals(where, e.authorResidue_id, a.authorResidue_id);
+			assertEquals(where, e.insertionCode, a.insertionCode);
+			for (int j = 0; j < 3; j++) {
+				// exact, bit for bit
+				assertEquals(where, Double.doubleToLongBits(e.coordinate[j]), Double.doubleToLongBits(a.coordinate[j]));
+			}
+			assertEquals(where, Float.floatToIntBits(e.occupancy), Float.floatToIntBits(a.occupancy));
+			assertEquals(where, Float.floatToIntBits(e.bfactor), Float.floatToIntBits(a.bfactor));
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package org.rcsb.mbt.surface;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Point3f;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.mbt.surface.core.QuadricDecimator;
+import org.rcsb.mbt.surface.datastructure.BoundingVolumeHierarchy;
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+/**
+ * Reports the number of faces, the time and the distance of the vertices
+ * to the original surface for decimation of the smoothed molecular surface
+ * of a PDB file with several error bounds and face count targets. The
+ * molecular surface is calculated as in SurfaceThread.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -Xmx2g -cp ... org.rcsb.mbt.surface.DecimationBenchmark [file] [resolution]
+ * </pre>
+ */
+public class DecimationBenchmark {
+    private static final float PROBE_RADIUS = 1.0f;
+    private static final float ATOM_RADIUS = 2.4f;
+
+    public static void main(String[] args) throws Exception {
+        File file = new File(args.length > 0 ? args[0] : "src/test/resources/test-input/General/molecules/1GIX.pdb");
+        float resolution = args.length > 1 ? Float.parseFloat(args[1]) : 0.4f;
+
+        List<Sphere> spheres = load(file);
+        long t0 = System.nanoTime();
+        TriangulatedSurface original = new EdtMolecularSurface(spheres, PROBE_RADIUS, resolution, ATOM_RADIUS).getSurface();
+        original.laplaciansmooth(1);
+        long t1 = System.nanoTime();
+        System.out.printf("%s: %d atoms, %d faces, %.1f ms surface calculation%n", file.getName(), spheres.size(),
+                original.getFaceCount(), (t1 - t0) / 1.0e6);
+        BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(original);
+
+        // warm up
+        decimate(original, 0, 0.1f);
+
+        for (float maxError : new float[] { 0.05f, 0.1f, 0.25f, 0.5f }) {
+            run("max error " + maxError, original, bvh, 0, maxError);
+        }
+        for (float fraction : new float[] { 0.5f, 0.25f, 0.1f }) {
+            run("target " + fraction, original, bvh, (int) (fraction * original.getFaceCount()), Float.MAX_VALUE);
+        }
+    }
+
+    private static void run(String name, TriangulatedSurface original, BoundingVolumeHierarchy bvh, int targetFaceCount, float maxError) {
+        long t0 = System.nanoTime();
+        TriangulatedSurface surface = decimate(original, targetFaceCount, maxError);
+        long t1 = System.nanoTime();
+
+        // distance of the decimated vertices to the original surface
+        BoundingVolumeHierarchy.Hit hit = new BoundingVolumeHierarchy.Hit();
+        float[] positions = surface.getPositions();
+        double sum = 0;
+        float max = 0;
+        for (int i = 0; i < positions.length; i += 3) {
+            bvh.findClosestPoint(positions[i], positions[i + 1], positions[i + 2], 10.0f, hit);
+            sum += hit.distance;
+            max = Math.max(max, hit.distance);
+        }
+        System.out.printf("%-20s %8d faces (%5.1f%%) %8.1f ms  distance mean %.3f max %.3f%n", name, surface.getFaceCount(),
+                100.0 * surface.getFaceCount() / original.getFaceCount(), (t1 - t0) / 1.0e6, sum / surface.getVertexCount(), max);
+    }
+
+    private static TriangulatedSurface decimate(TriangulatedSurface original, int targetFaceCount, float maxError) {
+        TriangulatedSurface surface = new TriangulatedSurface();
+        surface.setVertices(original.getPositions().clone(), original.getNormals().clone(),
+                original.getAtomIds().clone(), original.getReferences().clone());
+        surface.setTriangles(original.getTriangles().clone());
+        QuadricDecimator decimator = new QuadricDecimator();
+        decimator.setTargetFaceCount(targetFaceCount);
+        decimator.setMaxError(maxError);
+        decimator.decimate(surface);
+        return surface;
+    }
+
+    private static List<Sphere> load(File file) throws Exception {
+        Structure structure = new PdbStructureLoader().load(file);
+        int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+        List<Sphere> spheres = new ArrayList<Sphere>(atomCount);
+        for (int i = 0; i < atomCount; i++) {
+            Atom atom = (Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i);
+            Point3f location = new Point3f((float) atom.coordinate[0], (float) atom.coordinate[1], (float) atom.coordinate[2]);
+            spheres.add(new Sphere(location, 1.8f, atom));
+        }
+        return spheres;
+    }
+}
@@ -0,0 +1,112 @@
+package org.rcsb.mbt.surface;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Point3f;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.mbt.surface.core.EdtSurfaceCalculator;
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+/**
+ * Reports the time and peak heap use of EDT molecular surfaces for the
+ * inputs of {@link EdtMolecularSurfaceTest} (one to three atoms at
+ * resolutions 1 and 5; at resolution 5 the voxel grid reaches its maximum
+ * size) and for all atoms of a PDB file, using the given number of threads
+ * (default: all processors).
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -Xmx2g -cp ... org.rcsb.mbt.surface.EdtSurfaceBenchmark [iterations] [file] [threads]
+ * </pre>
+ */
+public class EdtSurfaceBenchmark {
+    private static final float PROBE_RADIUS = 1.4f;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        File file = new File(args.length > 1 ? args[1] : "src/test/resources/test-input/General/molecules/1GIX.pdb");
+        if (args.length > 2) {
+            EdtSurfaceCalculator.setDefaultThreads(Integer.parseInt(args[2]));
+        }
+        System.out.println(EdtSurfaceCalculator.getDefaultThreads() + " thread(s)");
+
+        // the spheres of EdtMolecularSurfaceTest
+        Sphere s1 = new Sphere(new Point3f(22.637f, 5.768f, 11.762f), 1.63f, null);
+        Sphere s2 = new Sphere(new Point3f(23.655f, 4.852f, 11.146f), 1.90f, null);
+        Sphere s3 = new Sphere(new Point3f(24.276f, 5.552f, 9.942f), 1.88f, null);
+
+        List<Sphere> spheres = new ArrayList<Sphere>();
+        for (Sphere s : new Sphere[] { s1, s2, s3 }) {
+            spheres.add(s);
+            for (float resolution : new float[] { 1.0f, 5.0f }) {
+                run(spheres.size() + " atom(s), resolution " + resolution, new ArrayList<Sphere>(spheres), resolution, iterations);
+            }
+        }
+
+        run(file.getName(), load(file), 1.0f, iterations);
+    }
+
+    private static void run(String name, List<Sphere> spheres, float resolution, int iterations) {
+        // warm up
+        TriangulatedSurface surface = new EdtMolecularSurface(spheres, PROBE_RADIUS, resolution).getSurface();
+
+        long time = 0;
+        long peak = 0;
+        for (int i = 0; i < iterations; i++) {
+            System.gc();
+            resetPeakUsage();
+            long t0 = System.nanoTime();
+            surface = new EdtMolecularSurface(spheres, PROBE_RADIUS, resolution).getSurface();
+            time += System.nanoTime() - t0;
+            peak = Math.max(peak, getPeakUsage());
+        }
+
+        System.out.printf("%-28s %8.1f ms %8.1f MB peak heap  (%d vertices, %d faces)%n", name,
+                time / 1.0e6 / iterations, peak / 1048576.0, surface.getVertices().size(), surface.getFaces().size());
+    }
+
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of the peak usage of the heap pools since the last reset; an
+     * upper bound of the peak heap use.
+     */
+    private static long getPeakUsage() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static List<Sphere> load(File file) throws Exception {
+        Structure structure = new PdbStructureLoader().load(file);
+        int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+        List<Sphere> spheres = new ArrayList<Sphere>(atomCount);
+        for (int i = 0; i < atomCount; i++) {
+            Atom atom = (Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i);
+            Point3f location = new Point3f((float) atom.coordinate[0], (float) atom.coordinate[1], (float) atom.coordinate[2]);
+            spheres.add(new Sphere(location, 1.8f, atom));
+        }
+        return spheres;
+    }
+}
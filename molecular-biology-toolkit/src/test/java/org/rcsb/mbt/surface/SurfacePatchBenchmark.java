@@ -0,0 +1,125 @@
+package org.rcsb.mbt.surface;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Point3f;
+
+import org.rcsb.mbt.model.Atom;
+import org.rcsb.mbt.model.Structure;
+import org.rcsb.mbt.model.StructureComponentRegistry.ComponentType;
+import org.rcsb.mbt.structLoader.PdbStructureLoader;
+import org.rcsb.mbt.surface.core.SurfacePatchCalculator;
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.SphereGrid;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+/**
+ * Reports the time of the distance queries of the binding site surface
+ * patch calculation, with the sphere grid and by testing every pair as
+ * before, and checks that both select the same spheres and vertices. The
+ * last atoms of the PDB file (default: 1000) are taken as the ligand, the
+ * others as the receptor. Also reports the time of the whole binding site
+ * surface.
+ * <p>
+ * Not run as part of the unit tests. Run from the molecular-biology-toolkit
+ * directory, e.g.:
+ * <pre>
+ * java -Xmx2g -cp ... org.rcsb.mbt.surface.SurfacePatchBenchmark [file] [ligand atoms] [resolution]
+ * </pre>
+ */
+public class SurfacePatchBenchmark {
+    private static final float PROBE_RADIUS = 1.0f;
+    private static final float DISTANCE_THRESHOLD = 6.5f;
+
+    public static void main(String[] args) throws Exception {
+        File file = new File(args.length > 0 ? args[0] : "src/test/resources/test-input/General/molecules/1GIX.pdb");
+        int ligandAtoms = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        float resolution = args.length > 2 ? Float.parseFloat(args[2]) : 0.4f;
+
+        List<Sphere> spheres = load(file);
+        int split = Math.max(0, spheres.size() - ligandAtoms);
+        List<Sphere> receptor = new ArrayList<Sphere>(spheres.subList(0, split));
+        List<Sphere> ligand = new ArrayList<Sphere>(spheres.subList(split, spheres.size()));
+        System.out.println(file.getName() + ": " + receptor.size() + " receptor atoms, " + ligand.size() + " ligand atoms");
+
+        // calcSurroundings
+        float surroundingThreshold = DISTANCE_THRESHOLD + 10.0f;
+        long t0 = System.nanoTime();
+        List<Sphere> expected = calcSurroundingsBruteForce(receptor, ligand, surroundingThreshold);
+        long t1 = System.nanoTime();
+        List<Sphere> surrounding = SurfacePatchCalculator.calcSurroundings(receptor, ligand, surroundingThreshold);
+        long t2 = System.nanoTime();
+        System.out.printf("calcSurroundings:   %8.1f ms brute force, %8.1f ms grid  (%d spheres, %s)%n",
+                (t1 - t0) / 1.0e6, (t2 - t1) / 1.0e6, surrounding.size(), expected.equals(surrounding) ? "identical" : "DIFFERENT");
+
+        // the vertex selection of truncateByDistance
+        TriangulatedSurface surface = new EdtMolecularSurface(surrounding, PROBE_RADIUS, resolution, 0.0f).getSurface();
+        float[] positions = surface.getPositions();
+        int n = surface.getVertexCount();
+        boolean[] near = new boolean[n];
+        t0 = System.nanoTime();
+        float thresholdSq = DISTANCE_THRESHOLD * DISTANCE_THRESHOLD;
+        Point3f p = new Point3f();
+        for (int i = 0; i < n; i++) {
+            surface.getVertex(i, p);
+            for (Sphere s : ligand) {
+                if (s.getLocation().distanceSquared(p) < thresholdSq) {
+                    near[i] = true;
+                    break;
+                }
+            }
+        }
+        t1 = System.nanoTime();
+        SphereGrid grid = new SphereGrid(ligand, DISTANCE_THRESHOLD);
+        int selected = 0;
+        int differences = 0;
+        for (int i = 0; i < n; i++) {
+            boolean b = grid.findNear(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2], DISTANCE_THRESHOLD) >= 0;
+            if (b) {
+                selected++;
+            }
+            if (b != near[i]) {
+                differences++;
+            }
+        }
+        t2 = System.nanoTime();
+        System.out.printf("truncateByDistance: %8.1f ms brute force, %8.1f ms grid  (%d of %d vertices, %s)%n",
+                (t1 - t0) / 1.0e6, (t2 - t1) / 1.0e6, selected, n, differences == 0 ? "identical" : differences + " DIFFERENT");
+
+        // the whole binding site surface
+        t0 = System.nanoTime();
+        TriangulatedSurface patch = new EdtMolecularSurface(receptor, ligand, PROBE_RADIUS, DISTANCE_THRESHOLD, resolution).getSurface();
+        t1 = System.nanoTime();
+        System.out.printf("binding site surface: %8.1f ms  (%d vertices, %d faces)%n",
+                (t1 - t0) / 1.0e6, patch.getVertexCount(), patch.getFaceCount());
+    }
+
+    private static List<Sphere> calcSurroundingsBruteForce(List<Sphere> patch, List<Sphere> context, float distanceThreshold) {
+        List<Sphere> surroundings = new ArrayList<Sphere>();
+        float thresholdSq = distanceThreshold * distanceThreshold;
+        for (Sphere s : patch) {
+            Point3f ps = s.getLocation();
+            for (Sphere c : context) {
+                if (ps.distanceSquared(c.getLocation()) < thresholdSq) {
+                    surroundings.add(s);
+                    break;
+                }
+            }
+        }
+        return surroundings;
+    }
+
+    private static List<Sphere> load(File file) throws Exception {
+        Structure structure = new PdbStructureLoader().load(file);
+        int atomCount = structure.getStructureComponentCount(ComponentType.ATOM);
+        List<Sphere> spheres = new ArrayList<Sphere>(atomCount);
+        for (int i = 0; i < atomCount; i++) {
+            Atom atom = (Atom) structure.getStructureComponentByIndex(ComponentType.ATOM, i);
+            Point3f location = new Point3f((float) atom.coordinate[0], (float) atom.coordinate[1], (float) atom.coordinate[2]);
+            spheres.add(new Sphere(location, 1.8f, atom));
+        }
+        return spheres;
+    }
+}
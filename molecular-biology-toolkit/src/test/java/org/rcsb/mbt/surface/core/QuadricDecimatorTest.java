@@ -0,0 +1,116 @@
+package org.rcsb.mbt.surface.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point3f;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.surface.EdtMolecularSurface;
+import org.rcsb.mbt.surface.datastructure.BoundingVolumeHierarchy;
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+import static org.junit.Assert.*;
+import static org.rcsb.mbt.surface.datastructure.MeshTestUtil.*;
+
+/**
+ * Checks that {@link QuadricDecimator} reaches its targets and keeps the
+ * topology, the borders and the vertex references of the surface.
+ */
+public class QuadricDecimatorTest {
+    private List<Sphere> spheres;
+    private TriangulatedSurface original;
+
+    @Before
+    public void setUp() {
+        spheres = new ArrayList<Sphere>();
+        spheres.add(new Sphere(new Point3f(22.637f, 5.768f, 11.762f), 1.63f, "N"));
+        spheres.add(new Sphere(new Point3f(23.655f, 4.852f, 11.146f), 1.90f, "CA"));
+        spheres.add(new Sphere(new Point3f(24.276f, 5.552f, 9.942f), 1.88f, "C"));
+        spheres.add(new Sphere(new Point3f(24.111f, 6.780f, 9.838f), 1.42f, "O"));
+        original = new EdtMolecularSurface(spheres, 1.4f, 2.0f).getSurface();
+        original.laplaciansmooth(1);
+    }
+
+    /**
+     * Test that the surface is decimated to the target number of faces and
+     * stays closed, with the same topology.
+     */
+    @Test
+    public void testTargetFaceCount() {
+        TriangulatedSurface surface = copy(original);
+        QuadricDecimator decimator = new QuadricDecimator();
+        int target = original.getFaceCount() / 4;
+        decimator.setTargetFaceCount(target);
+        int faceCount = decimator.decimate(surface);
+
+        assertEquals(faceCount, surface.getFaceCount());
+        assertTrue(faceCount <= target);
+        assertTrue(faceCount >= target - 2);
+        assertEquals(getEulerCharacteristic(original), getEulerCharacteristic(surface));
+        assertEquals(0, countBorderEdges(surface));
+        assertEquals(original.getSurfaceArea(), surface.getSurfaceArea(), 0.05 * original.getSurfaceArea());
+    }
+
+    /**
+     * Test that the decimated vertices stay close to the original surface
+     * when the error is bounded.
+     */
+    @Test
+    public void testMaxError() {
+        TriangulatedSurface surface = copy(original);
+        QuadricDecimator decimator = new QuadricDecimator();
+        decimator.setMaxError(0.1f);
+        decimator.decimate(surface);
+        assertTrue(surface.getFaceCount() < original.getFaceCount());
+
+        BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(original);
+        BoundingVolumeHierarchy.Hit hit = new BoundingVolumeHierarchy.Hit();
+        float[] positions = surface.getPositions();
+        for (int i = 0; i < positions.length; i += 3) {
+            assertTrue(bvh.findClosestPoint(positions[i], positions[i + 1], positions[i + 2], 10.0f, hit) >= 0);
+            assertTrue(hit.distance < 0.1f);
+        }
+    }
+
+    /**
+     * Test that each vertex keeps the atom id and reference of an original
+     * vertex.
+     */
+    @Test
+    public void testReferences() {
+        Set<String> vertexAtoms = new HashSet<String>();
+        for (int i = 0; i < original.getVertexCount(); i++) {
+            vertexAtoms.add(original.getAtomId(i) + " " + original.getReference(i));
+        }
+        TriangulatedSurface surface = copy(original);
+        QuadricDecimator decimator = new QuadricDecimator();
+        decimator.setTargetFaceCount(original.getFaceCount() / 4);
+        decimator.decimate(surface);
+
+        for (int i = 0; i < surface.getVertexCount(); i++) {
+            assertTrue(vertexAtoms.contains(surface.getAtomId(i) + " " + surface.getReference(i)));
+        }
+    }
+
+    /**
+     * Test that the border of an open surface patch stays in place.
+     */
+    @Test
+    public void testOpenSurface() {
+        List<Sphere> patch = spheres.subList(0, 1);
+        TriangulatedSurface surface = new EdtMolecularSurface(patch, spheres, 1.4f, 2.5f, 2.0f).getSurface();
+        assertTrue(countBorderEdges(surface) > 0);
+        TriangulatedSurface decimated = copy(surface);
+        QuadricDecimator decimator = new QuadricDecimator();
+        decimator.setTargetFaceCount(surface.getFaceCount() / 2);
+        decimator.decimate(decimated);
+
+        assertTrue(decimated.getFaceCount() < surface.getFaceCount());
+        assertTrue(countBorderEdges(decimated) > 0);
+        assertEquals(surface.getSurfaceArea(), decimated.getSurfaceArea(), 0.05 * surface.getSurfaceArea());
+    }
+}
@@ -0,0 +1,179 @@
+package org.rcsb.mbt.surface.datastructure;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3f;
+import javax.vecmath.Vector3f;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rcsb.mbt.surface.EdtMolecularSurface;
+import org.rcsb.mbt.surface.SurfaceScorer;
+
+/**
+ * Checks the ray casts and closest point queries of
+ * {@link BoundingVolumeHierarchy} against brute force.
+ */
+public class BoundingVolumeHierarchyTest {
+	private static TriangulatedSurface surface = null;
+	private static Point3f center = new Point3f(23.5f, 5.4f, 10.9f);
+
+	@BeforeClass
+	public static void setUpClass() {
+		List<Sphere> spheres = new ArrayList<Sphere>();
+		spheres.add(new Sphere(new Point3f(22.637f, 5.768f, 11.762f), 1.63f, null));
+		spheres.add(new Sphere(new Point3f(23.655f, 4.852f, 11.146f), 1.90f, null));
+		spheres.add(new Sphere(new Point3f(24.276f, 5.552f, 9.942f), 1.88f, null));
+		surface = new EdtMolecularSurface(spheres, 1.4f, 2.0f).getSurface();
+	}
+
+	/**
+	 * Returns the ray parameter of the nearest face hit, or -1.
+	 */
+	private static float intersectBruteForce(Point3f o, Vector3f d, float maxDistance) {
+		Point3f a = new Point3f();
+		Point3f b = new Point3f();
+		Point3f c = new Point3f();
+		Vector3f e1 = new Vector3f();
+		Vector3f e2 = new Vector3f();
+		Vector3f p = new Vector3f();
+		Vector3f s = new Vector3f();
+		Vector3f q = new Vector3f();
+		int[] triangles = surface.getTriangles();
+		float best = -1;
+		for (int f = 0; f < triangles.length; f += 3) {
+			surface.getVertex(triangles[f], a);
+			surface.getVertex(triangles[f + 1], b);
+			surface.getVertex(triangles[f + 2], c);
+			e1.sub(b, a);
+			e2.sub(c, a);
+			p.cross(d, e2);
+			float det = e1.dot(p);
+			if (det == 0) {
+				continue;
+			}
+			s.sub(o, a);
+			float u = s.dot(p) / det;
+			q.cross(s, e1);
+			float v = d.dot(q) / det;
+			float t = e2.dot(q) / det;
+			if (u >= 0 && v >= 0 && u + v <= 1 && t >= 0 && t <= maxDistance && (best < 0 || t < best)) {
+				best = t;
+			}
+		}
+		return best;
+	}
+
+	@Test
+	public void testIntersectRay() {
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(surface);
+		assertTrue(bvh.getNodeCount() > 1);
+		BoundingVolumeHierarchy.Hit hit = new BoundingVolumeHierarchy.Hit();
+		Random random = new Random(3);
+		int hits = 0;
+		for (int i = 0; i < 500; i++) {
+			Point3f o = new Point3f(center.x + (float) random.nextGaussian() * 4, center.y + (float) random.nextGaussian() * 4, center.z + (float) random.nextGaussian() * 4);
+			// mostly towards the surface
+			Vector3f d = new Vector3f((float) random.nextGaussian(), (float) random.nextGaussian(), (float) random.nextGaussian());
+			d.x += center.x - o.x;
+			d.y += center.y - o.y;
+			d.z += center.z - o.z;
+			float maxDistance = random.nextFloat() * 2;
+			float expected = intersectBruteForce(o, d, maxDistance);
+			int face = bvh.intersectRay(o.x, o.y, o.z, d.x, d.y, d.z, maxDistance, hit);
+			if (expected < 0) {
+				assertEquals(-1, face);
+			} else {
+				assertTrue(face >= 0);
+				assertEquals(expected, hit.distance, 1e-5f);
+				assertEquals(o.x + expected * d.x, hit.x, 1e-4f);
+				hits++;
+			}
+		}
+		assertTrue(hits > 100);
+	}
+
+	/**
+	 * Returns the distance from p to a face by sampling it finely; an upper
+	 * bound of the exact distance.
+	 */
+	private static float distanceToFace(Point3f p, int a, int b, int c, Point3f q) {
+		Point3f pa = surface.getVertex(a, new Point3f());
+		Point3f pb = surface.getVertex(b, new Point3f());
+		Point3f pc = surface.getVertex(c, new Point3f());
+		int steps = 20;
+		float best = Float.MAX_VALUE;
+		for (int i = 0; i <= steps; i++) {
+			for (int j = 0; i + j <= steps; j++) {
+				float u = i / (float) steps;
+				float v = j / (float) steps;
+				q.x = pa.x + u * (pb.x - pa.x) + v * (pc.x - pa.x);
+				q.y = pa.y + u * (pb.y - pa.y) + v * (pc.y - pa.y);
+				q.z = pa.z + u * (pb.z - pa.z) + v * (pc.z - pa.z);
+				best = Math.min(best, p.distance(q));
+			}
+		}
+		return best;
+	}
+
+	@Test
+	public void testFindClosestPoint() {
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(surface);
+		BoundingVolumeHierarchy.Hit hit = new BoundingVolumeHierarchy.Hit();
+		Random random = new Random(4);
+		for (int i = 0; i < 50; i++) {
+			Point3f p = new Point3f(center.x + (float) random.nextGaussian() * 5, center.y + (float) random.nextGaussian() * 5, center.z + (float) random.nextGaussian() * 5);
+
+			// the closest point is no further than the closest vertex
+			float nearestVertex = Float.MAX_VALUE;
+			Point3f v = new Point3f();
+			for (int j = 0; j < surface.getVertexCount(); j++) {
+				nearestVertex = Math.min(nearestVertex, p.distance(surface.getVertex(j, v)));
+			}
+			assertTrue(bvh.findClosestPoint(p.x, p.y, p.z, 100.0f, hit) >= 0);
+			assertTrue(hit.distance <= nearestVertex + 1e-5f);
+			assertEquals(hit.distance, p.distance(new Point3f(hit.x, hit.y, hit.z)), 1e-4f);
+
+			// and no further than the closest point of any face
+			float nearestFace = Float.MAX_VALUE;
+			Point3f q = new Point3f();
+			int[] triangles = surface.getTriangles();
+			for (int f = 0; f < triangles.length; f += 3) {
+				nearestFace = Math.min(nearestFace, distanceToFace(p, triangles[f], triangles[f + 1], triangles[f + 2], q));
+			}
+			assertTrue(hit.distance <= nearestFace + 1e-5f);
+			assertEquals(nearestFace, hit.distance, 0.05f);
+			assertEquals(-1, bvh.findClosestPoint(p.x, p.y, p.z, hit.distance * 0.5f, new BoundingVolumeHierarchy.Hit()));
+		}
+	}
+
+	@Test
+	public void testEmptySurface() {
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(new TriangulatedSurface());
+		BoundingVolumeHierarchy.Hit hit = new BoundingVolumeHierarchy.Hit();
+		assertEquals(-1, bvh.intersectRay(0, 0, 0, 1, 0, 0, 10, hit));
+		assertEquals(-1, bvh.findClosestPoint(0, 0, 0, 10, hit));
+	}
+
+	@Test
+	public void testSurfaceScorer() {
+		SurfaceScorer scorer = new SurfaceScorer(surface);
+		assertEquals(0.0, scorer.scoringSurfaceA(surface), 1e-6);
+
+		List<Sphere> spheres = new ArrayList<Sphere>();
+		spheres.add(new Sphere(new Point3f(22.637f, 5.768f, 11.762f), 1.63f, null));
+		spheres.add(new Sphere(new Point3f(23.655f, 4.852f, 11.146f), 1.90f, null));
+		spheres.add(new Sphere(new Point3f(24.276f, 5.552f, 9.942f), 1.88f, null));
+		TriangulatedSurface smoothed = new EdtMolecularSurface(spheres, 1.4f, 2.0f).getSurface();
+		smoothed.laplaciansmooth(3);
+		double score = scorer.scoringSurfaceA(smoothed);
+		assertTrue(score > 0.0 && score < 1.0);
+		scorer.setThreads(3);
+		assertEquals(score, scorer.scoringSurfaceA(smoothed), 0.0);
+		assertTrue(scorer.scoringSurfaceASquared(smoothed) >= score);
+	}
+}
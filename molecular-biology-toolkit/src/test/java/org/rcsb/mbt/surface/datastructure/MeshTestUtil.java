@@ -0,0 +1,62 @@
+package org.rcsb.mbt.surface.datastructure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mesh helpers shared by the surface simplification tests.
+ */
+public class MeshTestUtil {
+
+    private MeshTestUtil() {
+    }
+
+    /**
+     * Returns a copy of the surface that shares no arrays with it.
+     */
+    public static TriangulatedSurface copy(TriangulatedSurface surface) {
+        TriangulatedSurface copy = new TriangulatedSurface();
+        copy.setVertices(surface.getPositions().clone(), surface.getNormals().clone(),
+                surface.getAtomIds().clone(), surface.getReferences().clone());
+        copy.setTriangles(surface.getTriangles().clone());
+        return copy;
+    }
+
+    /**
+     * Returns V - E + F, which simplification must not change.
+     */
+    public static int getEulerCharacteristic(TriangulatedSurface surface) {
+        return surface.getVertexCount() - getEdges(surface).size() + surface.getFaceCount();
+    }
+
+    /**
+     * Returns the number of edges with only one face, 0 for a closed surface.
+     */
+    public static int countBorderEdges(TriangulatedSurface surface) {
+        int count = 0;
+        for (int faces: getEdges(surface).values()) {
+            if (faces == 1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of faces of each edge.
+     */
+    private static Map<Long, Integer> getEdges(TriangulatedSurface surface) {
+        Map<Long, Integer> edges = new HashMap<Long, Integer>();
+        int[] triangles = surface.getTriangles();
+        for (int f = 0; f < triangles.length; f += 3) {
+            for (int k = 0; k < 3; k++) {
+                long a = triangles[f + k];
+                long b = triangles[f + (k + 1) % 3];
+                Long key = Math.min(a, b) << 32 | Math.max(a, b);
+                Integer count = edges.get(key);
+                edges.put(key, count == null ? 1 : count + 1);
+            }
+        }
+        return edges;
+    }
+}
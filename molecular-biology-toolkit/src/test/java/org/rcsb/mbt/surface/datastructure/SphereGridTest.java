@@ -0,0 +1,74 @@
+package org.rcsb.mbt.surface.datastructure;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3f;
+
+import org.junit.Test;
+import org.rcsb.mbt.surface.core.SurfacePatchCalculator;
+
+/**
+ * Checks the queries of {@link SphereGrid} against brute force.
+ */
+public class SphereGridTest {
+
+	private static List<Sphere> randomSpheres(Random random, int count) {
+		List<Sphere> spheres = new ArrayList<Sphere>();
+		for (int i = 0; i < count; i++) {
+			Point3f p = new Point3f((float) (random.nextGaussian() * 15), (float) (random.nextGaussian() * 15), (float) (random.nextGaussian() * 15));
+			spheres.add(new Sphere(p, 1.7f, null));
+		}
+		return spheres;
+	}
+
+	private static boolean isNear(List<Sphere> spheres, Point3f p, float distance) {
+		for (Sphere s : spheres) {
+			if (s.getLocation().distanceSquared(p) < distance * distance) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void testIsNear() {
+		Random random = new Random(5);
+		List<Sphere> spheres = randomSpheres(random, 1000);
+		for (float distance : new float[] { 0.5f, 2.0f, 6.5f, 16.5f }) {
+			SphereGrid grid = new SphereGrid(spheres, distance);
+			for (int t = 0; t < 2000; t++) {
+				Point3f p = new Point3f((float) (random.nextGaussian() * 20), (float) (random.nextGaussian() * 20), (float) (random.nextGaussian() * 20));
+				assertEquals(isNear(spheres, p, distance), grid.isNear(p, distance));
+			}
+		}
+	}
+
+	@Test
+	public void testBoundary() {
+		// a point exactly at the distance is not near
+		List<Sphere> spheres = new ArrayList<Sphere>();
+		spheres.add(new Sphere(new Point3f(1.0f, 2.0f, 3.0f), 1.0f, null));
+		SphereGrid grid = new SphereGrid(spheres, 2.0f);
+		assertFalse(grid.isNear(new Point3f(3.0f, 2.0f, 3.0f), 2.0f));
+		assertTrue(grid.isNear(new Point3f(2.99f, 2.0f, 3.0f), 2.0f));
+		assertFalse(new SphereGrid(new ArrayList<Sphere>(), 2.0f).isNear(new Point3f(), 2.0f));
+	}
+
+	@Test
+	public void testCalcSurroundings() {
+		Random random = new Random(9);
+		List<Sphere> patch = randomSpheres(random, 3000);
+		List<Sphere> context = randomSpheres(random, 40);
+		List<Sphere> expected = new ArrayList<Sphere>();
+		for (Sphere s : patch) {
+			if (isNear(context, s.getLocation(), 6.0f)) {
+				expected.add(s);
+			}
+		}
+		assertEquals(expected, SurfacePatchCalculator.calcSurroundings(patch, context, 6.0f));
+	}
+}
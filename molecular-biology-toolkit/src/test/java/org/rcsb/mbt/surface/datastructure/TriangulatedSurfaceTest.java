@@ -84,5 +84,67 @@ public class TriangulatedSurfaceTest {
     	vertices3.addAll(vertices2);
     	surface3.setVertices(vertices3);
 	}
-	
+
+	@Test
+	public void testSurfaceArea() {
+		assertEquals(2.0f, surface1.getSurfaceArea(), 0.0001f);
+		assertEquals(2.0f, surface2.getSurfaceArea(), 0.0001f);
+	}
+
+	@Test
+	public void testVertexAndFaceLists() {
+		assertEquals(6, surface3.getVertexCount());
+		assertEquals(2, surface3.getFaceCount());
+
+		List<VertInfo> vertices = surface3.getVertices();
+		assertEquals(6, vertices.size());
+		assertEquals(new Point3f(0.0f, -3.0f, 1.0f), vertices.get(4).p);
+		assertEquals(-3.0f, surface3.getPositions()[13], 0.0f);
+
+		List<FaceInfo> faces = surface3.getFaces();
+		assertEquals(2, faces.size());
+		assertEquals(0, faces.get(1).a);
+		assertEquals(1, faces.get(1).b);
+		assertEquals(2, faces.get(1).c);
+	}
+
+	// also checks the deprecated calcNeighborList() against the neighbor arrays
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testNeighbors() {
+		// a fan of 30 triangles around vertex 0
+		int n = 30;
+		float[] positions = new float[3 * (n + 1)];
+		int[] triangles = new int[3 * n];
+		for (int i = 0; i < n; i++) {
+			double angle = 2 * Math.PI * i / n;
+			positions[3 * (i + 1)] = (float) Math.cos(angle);
+			positions[3 * (i + 1) + 1] = (float) Math.sin(angle);
+			triangles[3 * i] = 0;
+			triangles[3 * i + 1] = i + 1;
+			triangles[3 * i + 2] = (i + 1) % n + 1;
+		}
+		TriangulatedSurface fan = new TriangulatedSurface();
+		fan.setVertices(positions, null, null, null);
+		fan.setTriangles(triangles);
+
+		assertEquals(n, fan.getDegree(0));
+		assertEquals(3, fan.getDegree(1));
+		int[] offsets = fan.getNeighborOffsets();
+		int[] neighbors = fan.getNeighbors();
+		for (int i = 0; i < n; i++) {
+			assertEquals(i + 1, neighbors[offsets[0] + i]);
+		}
+		assertEquals(2 * n, fan.getLines().size());
+
+		int[][] vertdeg = fan.calcNeighborList();
+		assertEquals(n, vertdeg[0][0]);
+		assertEquals(n, vertdeg[n][0]);
+
+		fan.laplaciansmooth(1);
+		assertEquals(0.0f, fan.getPositions()[0], 0.0001f);
+		assertEquals(0.0f, fan.getPositions()[1], 0.0001f);
+		assertEquals(1.0f, Math.abs(fan.getNormals()[2]), 0.0001f);
+	}
+
 }
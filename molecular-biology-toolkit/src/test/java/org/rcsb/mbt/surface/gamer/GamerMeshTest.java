@@ -0,0 +1,112 @@
+package org.rcsb.mbt.surface.gamer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.vecmath.Point3f;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.surface.EdtMolecularSurface;
+import org.rcsb.mbt.surface.core.QuadricDecimator;
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+import static org.junit.Assert.*;
+import static org.rcsb.mbt.surface.datastructure.MeshTestUtil.*;
+
+/**
+ * Checks that {@link GamerMesh} smoothing improves the triangle angles and
+ * that coarsening removes vertices, both without changing the topology.
+ */
+public class GamerMeshTest {
+    private TriangulatedSurface original;
+
+    @Before
+    public void setUp() {
+        List<Sphere> spheres = new ArrayList<Sphere>();
+        spheres.add(new Sphere(new Point3f(22.637f, 5.768f, 11.762f), 1.63f, "N"));
+        spheres.add(new Sphere(new Point3f(23.655f, 4.852f, 11.146f), 1.90f, "CA"));
+        spheres.add(new Sphere(new Point3f(24.276f, 5.552f, 9.942f), 1.88f, "C"));
+        spheres.add(new Sphere(new Point3f(24.111f, 6.780f, 9.838f), 1.42f, "O"));
+        original = new EdtMolecularSurface(spheres, 1.4f, 2.0f).getSurface();
+    }
+
+    /**
+     * Test that the smoothed mesh is the same for any number of threads.
+     */
+    @Test
+    public void testThreads() {
+        TriangulatedSurface surface1 = smooth(1);
+        TriangulatedSurface surface4 = smooth(4);
+        assertTrue(Arrays.equals(surface1.getPositions(), surface4.getPositions()));
+        assertTrue(Arrays.equals(surface1.getTriangles(), surface4.getTriangles()));
+    }
+
+    /**
+     * Test that smoothing a decimated surface increases the smallest angle
+     * and keeps the surface closed, with the same topology.
+     */
+    @Test
+    public void testSmooth() {
+        TriangulatedSurface decimated = copy(original);
+        QuadricDecimator decimator = new QuadricDecimator();
+        decimator.setTargetFaceCount(original.getFaceCount() / 4);
+        decimator.decimate(decimated);
+
+        GamerMesh mesh = new GamerMesh(decimated);
+        float minAngle = mesh.getMinMaxAngles()[0];
+        int small = countSmallAngles(mesh.getHistogram());
+        mesh.smooth(15, 150, 6, true);
+        assertTrue(mesh.getMinMaxAngles()[0] > minAngle);
+        assertTrue(countSmallAngles(mesh.getHistogram()) < small);
+
+        TriangulatedSurface surface = copy(decimated);
+        mesh.write(surface);
+        assertEquals(decimated.getVertexCount(), surface.getVertexCount());
+        assertEquals(decimated.getFaceCount(), surface.getFaceCount());
+        assertEquals(getEulerCharacteristic(original), getEulerCharacteristic(surface));
+        assertEquals(0, countBorderEdges(surface));
+        assertEquals(decimated.getSurfaceArea(), surface.getSurfaceArea(), 0.05 * decimated.getSurfaceArea());
+    }
+
+    /**
+     * Test that coarsening deletes vertices, two faces for each, and keeps
+     * the surface closed, with the same topology.
+     */
+    @Test
+    public void testCoarse() {
+        GamerMesh mesh = new GamerMesh(original);
+        int deleted = mesh.coarse(0.016f, 1, 0, -1);
+        assertTrue(deleted > 0);
+        assertEquals(original.getVertexCount() - deleted, mesh.getVertexCount());
+        assertEquals(original.getFaceCount() - 2 * deleted, mesh.getFaceCount());
+
+        TriangulatedSurface surface = copy(original);
+        mesh.write(surface);
+        assertEquals(mesh.getVertexCount(), surface.getVertexCount());
+        assertEquals(mesh.getFaceCount(), surface.getFaceCount());
+        assertEquals(getEulerCharacteristic(original), getEulerCharacteristic(surface));
+        assertEquals(0, countBorderEdges(surface));
+        for (int t: surface.getTriangles()) {
+            assertTrue(t >= 0 && t < surface.getVertexCount());
+        }
+    }
+
+    private TriangulatedSurface smooth(int threads) {
+        GamerMesh mesh = new GamerMesh(original);
+        mesh.setThreads(threads);
+        mesh.smooth(15, 150, 2, true);
+        mesh.normalSmooth();
+        TriangulatedSurface surface = copy(original);
+        mesh.write(surface);
+        return surface;
+    }
+
+    /**
+     * Returns the number of angles below 20 degrees.
+     */
+    private static int countSmallAngles(int[] histogram) {
+        return histogram[0] + histogram[1];
+    }
+}
@@ -5,8 +5,13 @@
 
 package org.rcsb.mbt.surface.io;
 
+import java.io.File;
+import java.util.Arrays;
+
+import javax.vecmath.Color4f;
 import javax.vecmath.Point3f;
 import org.junit.Test;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
 import org.rcsb.mbt.surface.io.PlyReader;
 
 import static org.junit.Assert.*;
@@ -49,4 +54,62 @@ public class PlyReaderTest {
         assertEquals(683, instance.getFaces()[faceCount-1].b);
         assertEquals(667, instance.getFaces()[faceCount-1].c);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test of writing and reading a binary PLY file with colors and atom ids.
+     */
+    @Test
+    public void testBinaryPly() throws Exception {
+        PlyReader reader = new PlyReader();
+        reader.readPly("src/test/resources/test-input/SurfaceTest/3atom_ms.ply");
+        TriangulatedSurface surface = reader.getSurface();
+        Color4f[] colors = reader.getColors();
+        assertEquals(684, colors.length);
+        int[] atomIds = surface.getAtomIds();
+        for (int i = 0; i < atomIds.length; i++) {
+            atomIds[i] = i % 3;
+        }
+
+        File file = File.createTempFile("surface", ".ply");
+        file.deleteOnExit();
+        PlyWriter writer = new PlyWriter();
+        writer.setBinary(true);
+        writer.setColors(colors);
+        writer.setAtomIds(true);
+        writer.writePly(surface, file.getPath());
+
+        PlyReader binaryReader = new PlyReader();
+        binaryReader.readPly(file.getPath());
+        TriangulatedSurface copy = binaryReader.getSurface();
+        assertTrue(Arrays.equals(surface.getPositions(), copy.getPositions()));
+        assertTrue(Arrays.equals(surface.getNormals(), copy.getNormals()));
+        assertTrue(Arrays.equals(surface.getTriangles(), copy.getTriangles()));
+        assertTrue(Arrays.equals(atomIds, copy.getAtomIds()));
+        assertEquals(colors[683], binaryReader.getColors()[683]);
+        assertEquals(new Point3f(25.761f, 5.917f, 9.999f), binaryReader.getVertices()[683].p);
+    }
+
+    /**
+     * Test of writing and reading an ascii PLY file.
+     */
+    @Test
+    public void testAsciiPly() throws Exception {
+        PlyReader reader = new PlyReader();
+        reader.readPly("src/test/resources/test-input/SurfaceTest/3atom_ms.ply");
+        TriangulatedSurface surface = reader.getSurface();
+
+        File file = File.createTempFile("surface", ".ply");
+        file.deleteOnExit();
+        PlyWriter writer = new PlyWriter();
+        writer.setAtomIds(true);
+        writer.writePly(surface, file.getPath());
+
+        PlyReader asciiReader = new PlyReader();
+        asciiReader.readPly(file.getPath());
+        TriangulatedSurface copy = asciiReader.getSurface();
+        assertNull(asciiReader.getColors());
+        assertTrue(Arrays.equals(surface.getPositions(), copy.getPositions()));
+        assertTrue(Arrays.equals(surface.getTriangles(), copy.getTriangles()));
+        assertEquals(surface.getNormals()[0], copy.getNormals()[0], 0.0005f);
+    }
+}
@@ -0,0 +1,169 @@
+package org.rcsb.mbt.surface.io;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import javax.vecmath.Point3f;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rcsb.mbt.surface.EdtMolecularSurface;
+import org.rcsb.mbt.surface.datastructure.Sphere;
+import org.rcsb.mbt.surface.datastructure.TriangulatedSurface;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link SurfaceCache} returns what was put into it, evicts the
+ * least recently used entries and drops damaged ones.
+ */
+public class SurfaceCacheTest {
+    private static final float PROBE_RADIUS = 1.4f;
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("surfaces", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f: files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static List<Sphere> getSpheres(String... names) {
+        List<Sphere> spheres = new ArrayList<Sphere>();
+        spheres.add(new Sphere(new Point3f(22.637f, 5.768f, 11.762f), 1.63f, names[0]));
+        spheres.add(new Sphere(new Point3f(23.655f, 4.852f, 11.146f), 1.90f, names[1]));
+        spheres.add(new Sphere(new Point3f(24.276f, 5.552f, 9.942f), 1.88f, names[2]));
+        return spheres;
+    }
+
+    /**
+     * Test of storing and retrieving a surface.
+     */
+    @Test
+    public void testGetAndPut() throws Exception {
+        List<Sphere> spheres = getSpheres("N", "CA", "C");
+        TriangulatedSurface surface = new EdtMolecularSurface(spheres, PROBE_RADIUS, 1.0f).getSurface();
+        surface.laplaciansmooth(1);
+        float[] parameters = {PROBE_RADIUS, 1.0f};
+        String key = SurfaceCache.getKey("test", spheres, null, parameters);
+
+        SurfaceCache cache = new SurfaceCache(directory, 1 << 20);
+        assertNull(cache.get(key, spheres, null));
+        cache.put(key, surface, spheres, null);
+        assertTrue(cache.getSize() > 0);
+
+        // the same spheres with other references
+        List<Sphere> copy = getSpheres("n", "ca", "c");
+        assertEquals(key, SurfaceCache.getKey("test", copy, null, parameters));
+        TriangulatedSurface cached = cache.get(key, copy, null);
+        assertNotNull(cached);
+        assertTrue(Arrays.equals(surface.getPositions(), cached.getPositions()));
+        assertTrue(Arrays.equals(surface.getNormals(), cached.getNormals()));
+        assertTrue(Arrays.equals(surface.getAtomIds(), cached.getAtomIds()));
+        assertTrue(Arrays.equals(surface.getTriangles(), cached.getTriangles()));
+        for (int i = 0; i < surface.getVertexCount(); i++) {
+            assertEquals(((String) surface.getReference(i)).toLowerCase(), cached.getReference(i));
+        }
+    }
+
+    /**
+     * Test that the key depends on the spheres and the parameters.
+     */
+    @Test
+    public void testKey() {
+        List<Sphere> spheres = getSpheres("N", "CA", "C");
+        String key = SurfaceCache.getKey("test", spheres, null, new float[] {PROBE_RADIUS, 1.0f});
+        assertFalse(key.equals(SurfaceCache.getKey("test", spheres, null, new float[] {PROBE_RADIUS, 0.5f})));
+        assertFalse(key.equals(SurfaceCache.getKey("other", spheres, null, new float[] {PROBE_RADIUS, 1.0f})));
+        assertFalse(key.equals(SurfaceCache.getKey("test", spheres, spheres, new float[] {PROBE_RADIUS, 1.0f})));
+        spheres.get(1).setRadius(1.91f);
+        assertFalse(key.equals(SurfaceCache.getKey("test", spheres, null, new float[] {PROBE_RADIUS, 1.0f})));
+    }
+
+    /**
+     * Test that the least recently used surfaces are evicted.
+     */
+    @Test
+    public void testEviction() throws Exception {
+        List<Sphere> spheres = getSpheres("N", "CA", "C");
+        TriangulatedSurface surface = new EdtMolecularSurface(spheres, PROBE_RADIUS, 1.0f).getSurface();
+
+        SurfaceCache unlimited = new SurfaceCache(directory, Long.MAX_VALUE);
+        unlimited.put("a", surface, spheres, null);
+        long size = unlimited.getSize();
+
+        // room for two surfaces
+        SurfaceCache cache = new SurfaceCache(directory, 2 * size + size / 2);
+        cache.put("b", surface, spheres, null);
+        new File(directory, "a.surface").setLastModified(System.currentTimeMillis() - 20000);
+        new File(directory, "b.surface").setLastModified(System.currentTimeMillis() - 10000);
+        assertNotNull(cache.get("a", spheres, null));
+        cache.put("c", surface, spheres, null);
+
+        assertNotNull(cache.get("a", spheres, null));
+        assertNull(cache.get("b", spheres, null));
+        assertNotNull(cache.get("c", spheres, null));
+        assertTrue(cache.getSize() <= cache.getMaxBytes());
+    }
+
+    /**
+     * Test that an entry whose header asks for more data than the file
+     * holds is a cache miss that removes the file, not an OutOfMemoryError.
+     */
+    @Test
+    public void testCorruptCounts() throws Exception {
+        List<Sphere> spheres = getSpheres("N", "CA", "C");
+        SurfaceCache cache = new SurfaceCache(directory, 1 << 20);
+        directory.mkdirs();
+
+        int[][] counts = {{Integer.MAX_VALUE / 3, 0}, {0, 400000000}, {-1, 10}};
+        for (int[] c: counts) {
+            File file = new File(directory, "corrupt.surface");
+            DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
+            out.writeInt(SurfaceCache.MAGIC);
+            out.writeInt(SurfaceCache.VERSION);
+            out.writeInt(c[0]);
+            out.writeInt(c[1]);
+            out.write(new byte[1000]);
+            out.close();
+
+            assertNull(cache.get("corrupt", spheres, null));
+            assertFalse(file.exists());
+        }
+    }
+
+    /**
+     * Test that a truncated entry is a cache miss that removes the file.
+     */
+    @Test
+    public void testTruncated() throws Exception {
+        List<Sphere> spheres = getSpheres("N", "CA", "C");
+        TriangulatedSurface surface = new EdtMolecularSurface(spheres, PROBE_RADIUS, 1.0f).getSurface();
+        SurfaceCache cache = new SurfaceCache(directory, 1 << 20);
+        cache.put("a", surface, spheres, null);
+
+        File file = new File(directory, "a.surface");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() / 2);
+        raf.close();
+
+        assertNull(cache.get("a", spheres, null));
+        assertFalse(file.exists());
+    }
+}